@@ -1010,7 +1010,7 @@ public class NumericalFVGenerator extends FeatureVectorGenerator implements Nume
 			
 			//iterate over all legal locations that this player can reach and add production or if it is a port
 			for(Integer l : legalLocations){
-				for(Integer h : board.getAdjacentHexesToNode(l)) {
+				for(int h : board.getAdjacentHexesToNode_shared(l)) {
 					//get type and number
 					type = board.getHexTypeFromCoord(h);
 					number = reduceNumberRange(board.getNumberOnHexFromCoord(h));
@@ -57,7 +57,7 @@ import soc.message.SOCGameElements.GEType;
 import soc.message.SOCPlayerElement.PEType;
 
 import soc.robot.stac.StacRobotDialogueManager;
-import soc.util.DeepCopy;
+import soc.util.GameCheckpoint;
 import soc.util.SOCFeatureSet;
 import soc.util.SOCGameList;
 import soc.util.SOCStringManager;
@@ -3388,7 +3388,7 @@ public class MessageHandler
     protected void handleGAMECOPY(SOCGameCopy mes) {
 		PlayerClientListener pcl = client.getClientListener(mes.getGame());
 		SOCGame original = (SOCGame) client.games.get(mes.getGame());
-		boolean res = DeepCopy.copyToFile(original, "" + pcl.getClientPlayerNumber(), mes.getFolder()); //writing the object bytes to file
+		boolean res = GameCheckpoint.save(mes.getFolder(), "" + pcl.getClientPlayerNumber(), original); //writing the object bytes to the checkpoint archive
         if (res)
             pcl.printText("* Game saved.");
         else
@@ -3405,15 +3405,27 @@ public class MessageHandler
     	PlayerClientListener pcl = client.getClientListener(originalGame.getName());
     	int pn = pcl.getClientPlayerNumber(); //this player's number (position on board)
     	    	
-    	//read the game object from file
-    	String prefix = mes.getFolder() + "/";
-    	String fileName;
+    	//read the game object from the save folder
+    	String entryName;
     	if(pn >= 0){ 
-    		fileName = prefix + pn + "_" + SOCGame.class.getName();
+    		entryName = GameCheckpoint.entryName("" + pn, SOCGame.class);
     	}else{//handle the replay client case
-    		fileName = prefix + "server_" + SOCGame.class.getName();
+    		entryName = GameCheckpoint.entryName("server", SOCGame.class);
     	}
-    	SOCGame clone = (SOCGame) DeepCopy.readFromFile(fileName);
+    	SOCGame clone = (SOCGame) GameCheckpoint.load(mes.getFolder(), entryName);
+    	replaceGame(originalGame, clone);
+    }
+
+    /**
+     * Replace a game's object inside the client with a saved or snapshot copy, keeping the
+     * original's name and player names, and update the UI and dialogue manager to use the copy.
+     * @param originalGame  the game currently shown; not null
+     * @param clone  the game state to show instead; not null, will be renamed if needed
+     * @see #handleLOADGAME(SOCLoadGame)
+     * @since 2.4.50
+     */
+    protected void replaceGame(final SOCGame originalGame, final SOCGame clone) {
+    	PlayerClientListener pcl = client.getClientListener(originalGame.getName());
     	clone.resetTimes();
     	clone.setName(originalGame.getName()); //keep the old name
     	clone.updatePlayerNames(originalGame.getPlayerNames());  //and the old players' names
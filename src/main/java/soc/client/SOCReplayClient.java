@@ -7,6 +7,7 @@ import java.awt.Cursor;
 import java.awt.FileDialog;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -77,6 +78,7 @@ import soc.server.genericServer.Connection;
 import soc.server.genericServer.StringConnection;
 import soc.util.CappedQueue;
 import soc.util.DeepCopy;
+import soc.util.GameCheckpoint;
 import soc.util.LogParser;
 import soc.util.Queue;
 import soc.util.SOCRobotParameters;
@@ -229,6 +231,16 @@ public class SOCReplayClient extends SOCPlayerClient implements ActionListener {
 		ftq.maxPause = 0;
 		
 	}
+	/**
+	 * Seek forwards or backwards to the start of a turn, using the log's {@link SOCReplayIndex}
+	 * (building it first if needed), then pause.
+	 * @param turn  turn number to seek to, as in {@link SOCGame#getTurnCount()}
+	 */
+	public void toTurnNumber(final int turn) {
+		ftq.seekTurn = turn;
+		ftq.state = FileToQueue.SEEK;
+		ftq.maxPause = 0;
+	}
 
 	/**
 	 * Treat/process an inbound message: Calls {@link soc.client.MessageHandler#handle(SOCMessage, boolean)}.
@@ -382,11 +394,27 @@ public class SOCReplayClient extends SOCPlayerClient implements ActionListener {
 		private static final int TO_TURN = 6;
 		private static final int TO_GAME = 4;
 		private static final int TO_BREAK = 5;
+		/** Seek to {@link #seekTurn} has been requested; see {@link #seek(PlayerClientListener)} */
+		private static final int SEEK = 7;
+		/** Replaying the log after a keyframe until {@link #seekTurn} is reached */
+		private static final int TO_SEEK_TURN = 8;
 		
 		private int speedupFactor = 5; // factor by which to decrease pause length
 		private long maxPause = 100;  // never pause longer than this
 		
 		private String breakText; // chat text to advance to when super-FF is used
+
+		/** Turn number to seek to, for {@link #SEEK} and {@link #TO_SEEK_TURN} */
+		private int seekTurn;
+
+		/** Keyframe index of the log, loaded or built at the first seek; null until then */
+		private SOCReplayIndex index;
+
+		// Put piece messages are problematic, since they affect the score.  Only handle putPiece immediately 
+		//  after a server text message indicating that something has been built.
+		private boolean repeatedMsg = false;
+		// Robber gets printed twice.  When we handle a "ChoosePlayer", ignore the next 2 resource messages (SOCPlayerElement)
+		private int ignoreNextN = 0;
 		
 		private int state = PAUSE; 
 		
@@ -496,7 +524,7 @@ public class SOCReplayClient extends SOCPlayerClient implements ActionListener {
 		@Override
 		public void run() {
 			final PlayerClientListener pcl = cl.getClientListener(getGameName());
-			final SOCGame ga = pcl.getGame();
+			SOCGame ga = pcl.getGame();
 			if ((pcl == null) || (ga == null)) {
 				// TODO some error popup maybe?
 				return;
@@ -526,11 +554,8 @@ public class SOCReplayClient extends SOCPlayerClient implements ActionListener {
 				}
 				pcl.printText("Ready to replay.");
 
-				// Put piece messages are problematic, since they affect the score.  Only handle putPiece immediately 
-				//  after a server text message indicating that something has been built.
-				boolean repeatedMsg = false;
-				// Robber gets printed twice.  When we handle a "ChoosePlayer", ignore the next 2 resource messages (SOCPlayerElement)
-				int ignoreNextN = 0;	
+				repeatedMsg = false;
+				ignoreNextN = 0;
 
 				// Track the date of the last message for the purpose of pausing.  No pause before the first message
 				long lastDate = Long.MAX_VALUE; 		
@@ -540,14 +565,19 @@ public class SOCReplayClient extends SOCPlayerClient implements ActionListener {
 				boardInitialized = false;				
 							
 				while (!lp.eof()) {				    
-					if (state != PAUSE) {
+					if (state == SEEK) {
+						seek(pcl);
+						ga = pcl.getGame();
+					}
+					else if (state != PAUSE) {
 					    SOCMessage m = lp.parseLine();
 					    if (m!=null) {
 					        long date = lp.getMsgDate().getTime();
 					        
 							// Pause if the game has started.
 							if (boardInitialized) {
-								Thread.sleep(Math.min(maxPause, (date - lastDate) / speedupFactor));
+								// (not negative after seeking back)
+								Thread.sleep(Math.max(0, Math.min(maxPause, (date - lastDate) / speedupFactor)));
 							}
 							lastDate = date;							
 							
@@ -671,7 +701,8 @@ public class SOCReplayClient extends SOCPlayerClient implements ActionListener {
 									cl.getMessageHandler().handle(m, true);
 									lp.writeAugLog("Game State after End Turn Action: ");
 									writeGameState(gameName, new double[]{GameActionRow.ENDTURN}); //need to capture the result of the end turn action
-                                                                        if (state == TO_TURN) {
+                                                                        if (state == TO_TURN
+                                                                            || (state == TO_SEEK_TURN && ga.getTurnCount() >= seekTurn)) {
                                                                             state = PAUSE;
                                                                         }
                                                                         pcl.turnCountUpdated(-1);
@@ -740,6 +771,82 @@ public class SOCReplayClient extends SOCPlayerClient implements ActionListener {
 				dbh.disconnect();
 		}
 		
+		/**
+		 * Seek to the start of turn {@link #seekTurn}: Replace the game with the snapshot in the nearest
+		 * earlier keyframe of {@link #index}, skip {@link #lp} to that point in the log, and set state
+		 * {@link #TO_SEEK_TURN} to replay the rest of the way. If the target is ahead of the current
+		 * turn and no further than the next keyframe would be, just replays forward from here.
+		 *<P>
+		 * Not available while collecting to the DB or writing an augmented log, which need every message in order.
+		 * Sets {@link #state} to {@link #PAUSE} or {@link #TO_SEEK_TURN}.
+		 */
+		private void seek(final PlayerClientListener pcl) {
+			final int target = seekTurn;
+			state = PAUSE;
+			if (collect || AUG_LOG) {
+				pcl.printText("* Can't seek while collecting to DB or writing an augmented log.");
+				return;
+			}
+
+			final SOCGame ga = pcl.getGame();
+			final int current = ga.getTurnCount();
+			if (target == current)
+				return;
+			if (target > current && target - current < SOCReplayIndex.DEFAULT_INTERVAL) {
+				state = TO_SEEK_TURN;
+				return;
+			}
+
+			final File logFile = SOCReplayIndex.findLog(logName);
+			if (index == null) {
+				pcl.printText("* Indexing log for seeking...");
+				try {
+					index = SOCReplayIndex.loadOrBuild(logFile, SOCReplayIndex.DEFAULT_INTERVAL);
+				} catch (Exception e) {
+					pcl.printText("* Can't index log: " + e);
+					return;
+				}
+			}
+
+			final SOCReplayIndex.Keyframe k = index.floor(target);
+			if (k == null) {
+				pcl.printText("* Can't seek to turn " + target);
+				return;
+			}
+			if (current >= k.turn && current < target) {
+				// already between keyframe and target
+				state = TO_SEEK_TURN;
+				return;
+			}
+
+			final LogParser tail = LogParser.getParser(logFile.getPath(), false);
+			if (tail == null)
+				return;
+			tail.skipLines(k.line);
+			lp.close();
+			lp = tail;
+
+			final SOCGame snapshot = k.getGame();
+			cl.getMessageHandler().replaceGame(ga, snapshot);
+			dummy = new StacRobotDummyBrain(new SOCRobotClient(null, new ServerConnectInfo("replay", ""), "replayAgent", "", null),
+					new SOCRobotParameters(300, 500, 0f, 0f, 0f, 0f, 0f, SOCRobotDMImpl.FAST_STRATEGY, 0),
+					(SOCGame)DeepCopy.copy(snapshot),new CappedQueue(),0);
+			boardInitialized = true;
+			repeatedMsg = false;
+			ignoreNextN = k.ignoreNextN;
+			cl.repeatedDevCardMessage = false;
+
+			for (SOCPlayer p : snapshot.getPlayers()) {
+				pcl.playerResourcesUpdated(p);
+				pcl.playerDevCardsUpdated(p, false);
+				pcl.playerElementUpdated(p, PlayerClientListener.UpdateType.VictoryPoints, false, false);
+			}
+			pcl.turnCountUpdated(-1);
+
+			if (k.turn < target)
+				state = TO_SEEK_TURN;
+		}
+
 		/** Output the game-state to the augmented log file and maybe database */
 		private void writeGameState(String gameName, double[] actionTypes) {        
 			PlayerClientListener pcl = cl.getClientListener(gameName);
@@ -1087,10 +1194,7 @@ public class SOCReplayClient extends SOCPlayerClient implements ActionListener {
 		@Override
 		protected void handleLOADGAME(SOCLoadGame mes) {
 			final SOCReplayClient rc = (SOCReplayClient) getClient();
-			String prefix = mes.getFolder() + "/";
-			String fileName = prefix + "server_" + SOCGame.class.getName();
-
-			SOCGame ga = (SOCGame) DeepCopy.readFromFile(fileName);
+			SOCGame ga = (SOCGame) GameCheckpoint.load(mes.getFolder(), GameCheckpoint.entryName("server", SOCGame.class));
 			rc.ftq.dummy = new StacRobotDummyBrain
 				(new SOCRobotClient(null, new ServerConnectInfo("replay", ""), "replayAgent", "", null),
 					new SOCRobotParameters(300, 500, 0f, 0f, 0f, 0f, 0f, SOCRobotDMImpl.FAST_STRATEGY, 0),
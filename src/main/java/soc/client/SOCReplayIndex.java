@@ -0,0 +1,528 @@
+package soc.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import soc.baseclient.SOCDisplaylessPlayerClient;
+import soc.baseclient.ServerConnectInfo;
+import soc.game.SOCDevCardConstants;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.message.SOCClearGameHistory;
+import soc.message.SOCDevCardAction;
+import soc.message.SOCGameState;
+import soc.message.SOCGameTextMsg;
+import soc.message.SOCJoinGameAuth;
+import soc.message.SOCLeaveGame;
+import soc.message.SOCMessage;
+import soc.message.SOCMessageForGame;
+import soc.message.SOCMoveRobber;
+import soc.message.SOCPlayerElement;
+import soc.message.SOCPlayerElement.PEType;
+import soc.message.SOCPutPiece;
+import soc.message.SOCTurn;
+import soc.util.LogParser;
+import soc.util.Version;
+
+/**
+ * Keyframe index of a {@code .soclog} game log, so {@link SOCReplayClient} can seek to any turn
+ * by loading the nearest earlier keyframe and replaying only the log lines after it.
+ *<P>
+ * Each {@link Keyframe} is a serialised {@link SOCGame} snapshot taken just after a
+ * {@link SOCTurn} message, with the log line number to resume from. Snapshots are built by
+ * a headless pass over the log through {@link SOCDisplaylessPlayerClient}'s message handlers,
+ * skipping the same duplicated log messages that {@link SOCReplayClient}'s replay skips.
+ *<P>
+ * The index is saved next to the log as {@code <log name>}{@link #EXTENSION} and is ignored
+ * if the log's length or modification time has changed since. Use {@link #indexAll(List, int, int)}
+ * or {@link #main(String[])} to index a whole log corpus in parallel.
+ *
+ * @since 2.4.50
+ */
+public class SOCReplayIndex {
+
+    /** File name extension of saved indexes, appended to the full log file name */
+    public static final String EXTENSION = ".socidx";
+
+    /** Default number of turns between keyframes */
+    public static final int DEFAULT_INTERVAL = 4;
+
+    /** Saved index format version; bump if {@link #save()} changes */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The indexed log file */
+    private final File logFile;
+
+    /** {@link #logFile}'s length and modification time when it was indexed */
+    private final long logLength, logModified;
+
+    /** Number of turns between keyframes */
+    private final int interval;
+
+    /** Keyframes in increasing turn order */
+    private final List<Keyframe> keyframes;
+
+    private SOCReplayIndex(final File logFile, final long logLength, final long logModified,
+        final int interval, final List<Keyframe> keyframes) {
+        this.logFile = logFile;
+        this.logLength = logLength;
+        this.logModified = logModified;
+        this.interval = interval;
+        this.keyframes = keyframes;
+    }
+
+    /**
+     * A game snapshot at the start of a turn and where to resume reading the log from.
+     */
+    public static final class Keyframe {
+
+        /** The game's {@link SOCGame#getTurnCount()} in the snapshot */
+        public final int turn;
+
+        /** Number of log lines up to and including the snapshot's {@link SOCTurn}; see {@link LogParser#skipLines(int)} */
+        public final int line;
+
+        /** Number of duplicated robbery resource messages still to be ignored after this point */
+        public final int ignoreNextN;
+
+        /** Serialised game */
+        private final byte[] snapshot;
+
+        Keyframe(final int turn, final int line, final int ignoreNextN, final byte[] snapshot) {
+            this.turn = turn;
+            this.line = line;
+            this.ignoreNextN = ignoreNextN;
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * Deserialise a new copy of the game snapshot.
+         * @return the game as it was at the start of {@link #turn}
+         * @throws IllegalStateException if the snapshot can't be read, which should not happen
+         */
+        public SOCGame getGame() throws IllegalStateException {
+            try {
+                ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(snapshot));
+                try {
+                    SOCGame ga = (SOCGame) in.readObject();
+                    ga.serverVersion = Version.versionNumber();  // transient; same as the replay's practice game
+                    return ga;
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unreadable keyframe for turn " + turn, e);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Unreadable keyframe for turn " + turn, e);
+            }
+        }
+    }
+
+    /**
+     * Get the last keyframe at or before a turn.
+     * @param turn  turn number to seek to, as in {@link SOCGame#getTurnCount()}
+     * @return the keyframe with the highest {@link Keyframe#turn} &lt;= {@code turn},
+     *     or null if there isn't one
+     */
+    public Keyframe floor(final int turn) {
+        int lo = 0, hi = keyframes.size() - 1;
+        Keyframe found = null;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final Keyframe k = keyframes.get(mid);
+            if (k.turn <= turn) {
+                found = k;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /** @return the number of keyframes in this index */
+    public int size() {
+        return keyframes.size();
+    }
+
+    /** @return the number of turns between keyframes */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Is this index still valid for its log file? False if the log has changed since it was indexed.
+     * @return true if the log file's length and modification time are unchanged
+     */
+    public boolean isCurrent() {
+        return logFile.length() == logLength && logFile.lastModified() == logModified;
+    }
+
+    /**
+     * Get the file name an index of this log is saved to.
+     * @param logFile  the log file
+     * @return the index file next to {@code logFile}
+     */
+    public static File indexFileFor(final File logFile) {
+        return new File(logFile.getPath() + EXTENSION);
+    }
+
+    /**
+     * Find a log file the same way {@link LogParser#getParser(String)} does,
+     * trying again with the {@code .soclog} extension if needed.
+     * @param logName  log file name, with or without extension
+     * @return the log file, or null if not found
+     */
+    public static File findLog(final String logName) {
+        File f = new File(logName);
+        if (! f.isFile())
+            f = new File(logName + ".soclog");
+        return (f.isFile()) ? f : null;
+    }
+
+    /**
+     * Build an index by reading the log from the start.
+     * @param logFile  log to index; not null
+     * @param interval  number of turns between keyframes; at least 1
+     * @return the index; has no keyframes if the log has no turns
+     * @throws IllegalArgumentException if {@code interval} &lt; 1
+     * @throws IOException if the log can't be read
+     */
+    public static SOCReplayIndex build(final File logFile, final int interval)
+        throws IllegalArgumentException, IOException {
+        if (interval < 1)
+            throw new IllegalArgumentException("interval: " + interval);
+
+        final long length = logFile.length(), modified = logFile.lastModified();
+        final LogParser lp = LogParser.getParser(logFile.getPath(), false);
+        if (lp == null)
+            throw new IOException("Can't read " + logFile);
+
+        final List<Keyframe> keyframes = new ArrayList<Keyframe>();
+        try {
+            // Like SOCReplayClient.FileToQueue's constructor, consume through the first game message
+            String gameName = null;
+            while (gameName == null && ! lp.eof()) {
+                SOCMessage m = lp.parseLine();
+                if (m instanceof SOCMessageForGame)
+                    gameName = ((SOCMessageForGame) m).getGame();
+            }
+            if (gameName == null)
+                return new SOCReplayIndex(logFile, length, modified, interval, keyframes);
+
+            final Indexer ix = new Indexer();
+            ix.treat(new SOCJoinGameAuth(gameName));
+            final SOCGame ga = ix.games.get(gameName);
+
+            while (! lp.eof()) {
+                final SOCMessage m = lp.parseLine();
+                if (m == null || ! ix.replay(m))
+                    continue;
+
+                // turn count doesn't change during initial placement: keep only the first keyframe of each turn
+                final int turn = ga.getTurnCount();
+                if (turn % interval == 0
+                    && (keyframes.isEmpty() || keyframes.get(keyframes.size() - 1).turn != turn))
+                    keyframes.add(new Keyframe(turn, lp.getLineNumber(), ix.ignoreNextN, serialize(ga)));
+            }
+        } finally {
+            lp.close();
+        }
+
+        return new SOCReplayIndex(logFile, length, modified, interval, keyframes);
+    }
+
+    /**
+     * Get the game state at the start of a turn without a UI: Load the nearest earlier keyframe
+     * and replay the log from there, the same way {@link SOCReplayClient} seeks.
+     * @param turn  turn number, as in {@link SOCGame#getTurnCount()}
+     * @return the game at the start of {@code turn}, or at the end of the log if it doesn't reach that turn;
+     *     null if there's no keyframe at or before {@code turn}
+     * @throws IOException if the log can't be read
+     */
+    public SOCGame gameAtTurn(final int turn) throws IOException {
+        final Keyframe k = floor(turn);
+        if (k == null)
+            return null;
+
+        final SOCGame ga = k.getGame();
+        if (k.turn == turn)
+            return ga;
+
+        final LogParser lp = LogParser.getParser(logFile.getPath(), false);
+        if (lp == null)
+            throw new IOException("Can't read " + logFile);
+        try {
+            lp.skipLines(k.line);
+            final Indexer ix = new Indexer();
+            ix.games.put(ga.getName(), ga);
+            ix.ignoreNextN = k.ignoreNextN;
+            while (! lp.eof()) {
+                final SOCMessage m = lp.parseLine();
+                if (m != null && ix.replay(m) && ga.getTurnCount() >= turn)
+                    break;
+            }
+        } finally {
+            lp.close();
+        }
+        return ga;
+    }
+
+    private static byte[] serialize(final SOCGame ga) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(ga);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Save this index next to its log, as {@link #indexFileFor(File)}.
+     * @throws IOException if the file can't be written
+     */
+    public void save() throws IOException {
+        ObjectOutputStream out = new ObjectOutputStream
+            (new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(indexFileFor(logFile)))));
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(logLength);
+            out.writeLong(logModified);
+            out.writeInt(interval);
+            out.writeInt(keyframes.size());
+            for (Keyframe k : keyframes) {
+                out.writeInt(k.turn);
+                out.writeInt(k.line);
+                out.writeInt(k.ignoreNextN);
+                out.writeInt(k.snapshot.length);
+                out.write(k.snapshot);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Load the saved index of a log, if there is a current one.
+     * @param logFile  the log file; not null
+     * @return the index, or null if none is saved, it's unreadable, or it's out of date with the log
+     */
+    public static SOCReplayIndex load(final File logFile) {
+        final File idxFile = indexFileFor(logFile);
+        if (! idxFile.isFile())
+            return null;
+
+        try {
+            ObjectInputStream in = new ObjectInputStream
+                (new BufferedInputStream(new GZIPInputStream(new FileInputStream(idxFile))));
+            try {
+                if (in.readInt() != FORMAT_VERSION)
+                    return null;
+                final long length = in.readLong(), modified = in.readLong();
+                final int interval = in.readInt();
+                final int n = in.readInt();
+                final List<Keyframe> keyframes = new ArrayList<Keyframe>(n);
+                for (int i = 0; i < n; ++i) {
+                    final int turn = in.readInt(), line = in.readInt(), ignoreNextN = in.readInt();
+                    final byte[] snapshot = new byte[in.readInt()];
+                    in.readFully(snapshot);
+                    keyframes.add(new Keyframe(turn, line, ignoreNextN, snapshot));
+                }
+
+                SOCReplayIndex idx = new SOCReplayIndex(logFile, length, modified, interval, keyframes);
+                return (idx.isCurrent()) ? idx : null;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            soc.debug.D.ebugERROR("Can't read replay index " + idxFile + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Load a log's saved index, or build and save one if there isn't a current one.
+     * @param logFile  the log file; not null
+     * @param interval  number of turns between keyframes if building
+     * @return the index
+     * @throws IOException if the log can't be read; failure to save the new index is only logged
+     */
+    public static SOCReplayIndex loadOrBuild(final File logFile, final int interval)
+        throws IOException {
+        SOCReplayIndex idx = load(logFile);
+        if (idx == null) {
+            idx = build(logFile, interval);
+            try {
+                idx.save();
+            } catch (IOException e) {
+                soc.debug.D.ebugERROR("Can't save replay index for " + logFile + ": " + e);
+            }
+        }
+        return idx;
+    }
+
+    /**
+     * Index several logs in parallel, saving each index next to its log.
+     * Logs which already have a current index are skipped.
+     * @param logFiles  logs to index
+     * @param interval  number of turns between keyframes; at least 1
+     * @param nThreads  number of worker threads; at least 1
+     * @return the number of logs indexed, not counting skipped or failed ones
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static int indexAll(final List<File> logFiles, final int interval, final int nThreads)
+        throws InterruptedException {
+        final ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(logFiles.size());
+            for (final File f : logFiles)
+                results.add(pool.submit(() -> {
+                    if (load(f) != null)
+                        return Boolean.FALSE;
+                    build(f, interval).save();
+                    return Boolean.TRUE;
+                }));
+
+            int n = 0;
+            for (int i = 0; i < results.size(); ++i) {
+                try {
+                    if (results.get(i).get())
+                        ++n;
+                } catch (ExecutionException e) {
+                    System.err.println("Can't index " + logFiles.get(i) + ": " + e.getCause());
+                }
+            }
+            return n;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Index every {@code .soclog} file in some directories, recursively, in parallel.
+     * Usage: {@code SOCReplayIndex [-i interval] [-t threads] dir-or-log ...}
+     */
+    public static void main(String[] args)
+        throws InterruptedException {
+        int interval = DEFAULT_INTERVAL;
+        int nThreads = Runtime.getRuntime().availableProcessors();
+        List<File> logs = new ArrayList<File>();
+        for (int i = 0; i < args.length; ++i) {
+            if (args[i].equals("-i") && i + 1 < args.length)
+                interval = Integer.parseInt(args[++i]);
+            else if (args[i].equals("-t") && i + 1 < args.length)
+                nThreads = Integer.parseInt(args[++i]);
+            else
+                findLogs(new File(args[i]), logs);
+        }
+        if (logs.isEmpty()) {
+            System.err.println("Usage: SOCReplayIndex [-i interval] [-t threads] dir-or-log ...");
+            return;
+        }
+
+        final long start = System.currentTimeMillis();
+        final int n = indexAll(logs, interval, Math.max(1, nThreads));
+        System.out.println("Indexed " + n + " of " + logs.size() + " logs in "
+            + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static void findLogs(final File f, final List<File> logs) {
+        if (f.isDirectory()) {
+            File[] files = f.listFiles();
+            if (files != null)
+                for (File sub : files)
+                    findLogs(sub, logs);
+        } else if (f.getName().endsWith(".soclog")) {
+            logs.add(f);
+        }
+    }
+
+    /**
+     * Headless client which applies log messages to its game the way {@link SOCReplayClient}'s
+     * replay does, ignoring the messages that are duplicated in logs.
+     */
+    private static final class Indexer extends SOCDisplaylessPlayerClient {
+
+        /** Was the previous message a server build announcement or robber move, so the next piece message is handled */
+        private boolean repeatedMsg;
+
+        /** Number of duplicated robbery resource messages still to ignore */
+        int ignoreNextN;
+
+        /** True after a dev card draw: the log's second copy of it is counted as unknown */
+        private boolean repeatedDevCardMessage;
+
+        Indexer() {
+            super(new ServerConnectInfo("replay", ""), false);
+            nickname = SOCReplayClient.OBSERVER_DEFAULT_NAME;
+            sVersion = Version.versionNumber();
+        }
+
+        /**
+         * Apply a log message to the game, if the replay would.
+         * @param m  message parsed from the log; not null
+         * @return true if {@code m} was a turn change
+         */
+        boolean replay(final SOCMessage m) {
+            if (m instanceof SOCGameState) {
+                final int gs = ((SOCGameState) m).getState();
+                if (gs == SOCGame.PLACING_ROBBER)
+                    ignoreNextN = 2;
+                else if (gs == SOCGame.PLAY1)
+                    ignoreNextN = 0;
+            }
+
+            boolean handle = true;
+            if (m instanceof SOCPutPiece) {
+                handle = repeatedMsg;
+            } else if (m instanceof SOCPlayerElement) {
+                final SOCPlayerElement pe = (SOCPlayerElement) m;
+                if (pe.getElementType() == PEType.UNKNOWN_RESOURCE.getValue()) {
+                    handle = false;
+                } else if ((pe.getAction() == SOCPlayerElement.GAIN || pe.getAction() == SOCPlayerElement.LOSE)
+                           && ignoreNextN > 0) {
+                    --ignoreNextN;
+                    handle = false;
+                }
+            } else if (m instanceof SOCClearGameHistory || m instanceof SOCLeaveGame) {
+                handle = false;
+            }
+            if (handle)
+                treat(m);
+
+            repeatedMsg = (m instanceof SOCMoveRobber)
+                || ((m instanceof SOCGameTextMsg) && ((SOCGameTextMsg) m).getNickname().equals("Server")
+                    && ((SOCGameTextMsg) m).getText().contains(" built a "));
+
+            return (m instanceof SOCTurn);
+        }
+
+        /** Same as {@link SOCReplayClient}'s handling: the second of each pair of draw messages is the unknown card */
+        @Override
+        protected void handleDEVCARDACTION(final SOCGame ga, final SOCPlayer player, final int act, int ctype) {
+            if (repeatedDevCardMessage) {
+                repeatedDevCardMessage = false;
+                ctype = SOCDevCardConstants.UNKNOWN;
+            } else if (act == SOCDevCardAction.DRAW) {
+                repeatedDevCardMessage = true;
+            }
+            super.handleDEVCARDACTION(ga, player, act, ctype);
+        }
+    }
+
+}
@@ -45,6 +45,8 @@ public class SOCReplayPanel extends Panel implements ActionListener
     Button toBrkBut;
     TextField brkText;
     Label turnLab;
+    Button seekBut;
+    TextField seekText;
 
     SOCReplayInterface pi;
 
@@ -53,6 +55,7 @@ public class SOCReplayPanel extends Panel implements ActionListener
 	private static final String TO_TEXT = "toText";
 	private static final String TO_TURN = "toTurn";
         private static final String TO_BREAK = "toBreakPoint";
+	private static final String SEEK = "seek";
 
 	private SOCReplayClient rcl;
 
@@ -110,6 +113,17 @@ public class SOCReplayPanel extends Panel implements ActionListener
         turnLab = new Label("Turn: 0", Label.LEFT);
         turnLab.setFont(new Font("SansSerif", Font.PLAIN, 12));
         add(turnLab);
+
+        seekText = new TextField("");
+        seekText.setEnabled(false);
+        add(seekText);
+        seekText.addActionListener(this);
+
+        seekBut = new Button("Go");
+        seekBut.setEnabled(false);
+        add(seekBut);
+        seekBut.setActionCommand(SEEK);
+        seekBut.addActionListener(this);
     }
 
     /**
@@ -153,6 +167,15 @@ public class SOCReplayPanel extends Panel implements ActionListener
         curY += lineH + margin;
         turnLab.setSize(100, 18);
         turnLab.setLocation(buttonMargin, curY);
+
+        final boolean canSeek = ! (rcl instanceof StacDBReplayClient);
+        seekText.setSize(butW, lineH);
+        seekText.setLocation(buttonMargin * 3 + butW * 2, curY);
+        seekText.setEnabled(canSeek);
+
+        seekBut.setSize(butW, lineH);
+        seekBut.setLocation(buttonMargin * 4 + butW * 3, curY);
+        seekBut.setEnabled(canSeek);
     }
 
     /**
@@ -178,6 +201,13 @@ public class SOCReplayPanel extends Panel implements ActionListener
         else if (target == TO_BREAK) {
         	rcl.toBreakPoint(brkText.getText());
         }
+        else if (target == SEEK || e.getSource() == seekText) {
+        	try {
+        		rcl.toTurnNumber(Integer.parseInt(seekText.getText().trim()));
+        	} catch (NumberFormatException ex) {
+        		seekText.setText("");
+        	}
+        }
     }
 
     /**
@@ -135,6 +135,8 @@ public class StacChatTradeMsgParser {
     public static final String OFFER_PATTERN = "(?i)"+ TO +"[:]" + TO_ARRAY_PATERN + "([;]" + OFFER + "[:]" + RSS_ARRAY_PATERN +")([;]" + RECEIVE + "[:]" + RSS_ARRAY_PATERN +")([;]" + PERSUASION + "[:]"+PER_ARRAY_PATTERN+")?[;]?";   	
     /**Matches bank trades, which must be fully specified */
     public static final String BANK_TRADE_PATTERN = "(?i)"+ BANK +"[:]" + OFFER + "[:]" + RSS_ARRAY_PATERN +"[;]" + RECEIVE + "[:]" + RSS_ARRAY_PATERN + "[;]?";
+    /** {@link #BANK_TRADE_PATTERN}, compiled once since it's checked against every chat line */
+    private static final Pattern BANK_TRADE_REGEX = Pattern.compile(BANK_TRADE_PATTERN);
     
     ////patterns for player colours
     private static final String BLUE  = "(b|(bl)|(blu)|(blue))";
@@ -170,8 +172,20 @@ public class StacChatTradeMsgParser {
      * @param ourPn the player number of the player sending the messsage
      * @param output a buffer containing any error messages to be printed out in the game message interface
      * @return a map entry containing the tradeMessage linked to the player number (or null if a normal offer) to whom the message is intended (in case of an acc/rej) or null if the string cannot be parsed
+     * @see #isTradeMsgFormat(String)
      */
-    public static Map.Entry<StacTradeMessage,Integer> parseTradeMsg(String msg, String gameName, int ourPn, StringWriter output) {        
+    public static Map.Entry<StacTradeMessage,Integer> parseTradeMsg(String msg, String gameName, int ourPn, StringWriter output) {
+        return StacChatTradeMsgTokenizer.parseTradeMsg(msg, gameName, ourPn, output);
+    }
+
+    /**
+     * Regex-based version of {@link #parseTradeMsg(String, String, int, StringWriter)}, which
+     * matches the message against {@link #ACCEPT_PATTERN} and splits it into parts and pieces.
+     * Not used during play; kept as the reference implementation the tokenizer is tested against.
+     * Parameters and return value are the same as {@link #parseTradeMsg(String, String, int, StringWriter)}.
+     * Call only if {@link #isTradeMsgFormatRegex(String)} is true.
+     */
+    public static Map.Entry<StacTradeMessage,Integer> parseTradeMsgRegex(String msg, String gameName, int ourPn, StringWriter output) {
     	Map.Entry<StacTradeMessage,Integer> res; 
     	StacTradeMessage trdMsg;
     	Integer receiver = null;
@@ -246,7 +260,7 @@ public class StacChatTradeMsgParser {
                             if(s.matches("\\d")){//if a digit just make a new Integer(s)
                                 pn = new Integer(s);
                             }else{//else match if its blue,red,orange,white and get the corresponding integer from the map;
-                                pn = playerNumberForColour(pieces[1]); //if incorrect this will return null and the error will be reported later
+                                pn = playerNumberForColour(s); //if incorrect this will return null and the error will be reported later
                             }
                             if(pn != null && pn >= 0 && pn <= 3)
                                 to[pn] = true;
@@ -341,10 +355,22 @@ public class StacChatTradeMsgParser {
     
     /**
      * To be called before trying to call parseMsg in order to check for the correct structure of the msg.
-     * @param msg the message to be matched against the patterns
+     * Accepts the same strings as {@link #ACCEPT_PATTERN}, {@link #REJECT_PATTERN} or {@link #OFFER_PATTERN}
+     * without running those regexes.
+     * @param msg the message to be checked
      * @return true if it matches one of the patterns, false otherwise
      */
     public static boolean isTradeMsgFormat(String msg){
+        return StacChatTradeMsgTokenizer.isTradeMsgFormat(msg);
+    }
+
+    /**
+     * Regex-based version of {@link #isTradeMsgFormat(String)}.
+     * Not used during play; kept as the reference implementation the tokenizer is tested against.
+     * @param msg the message to be matched against the patterns
+     * @return true if it matches one of the patterns, false otherwise
+     */
+    public static boolean isTradeMsgFormatRegex(String msg){
     	if(msg.matches(ACCEPT_PATTERN))
     		return true;
     	if(msg.matches(REJECT_PATTERN))
@@ -365,7 +391,7 @@ public class StacChatTradeMsgParser {
     }
     
     public static boolean isBankTradeMsgFormat(String msg){
-    	return (msg.matches(BANK_TRADE_PATTERN));
+    	return BANK_TRADE_REGEX.matcher(msg).matches();
     }
 
     /**
@@ -556,6 +582,13 @@ public class StacChatTradeMsgParser {
                                                     NL_OFFER_QUANTITY,NL_REQUEST_QUANTITY,
                                                     NL_ACCEPT_PATTERN, NL_REJECT_PATTERN};
 
+    /** {@link #NL_LEGAL_REGEX} compiled once, in the same order, for checking every chat line */
+    private static final Pattern[] NL_LEGAL_PATTERNS = new Pattern[NL_LEGAL_REGEX.length];
+    static {
+        for (int i = 0; i < NL_LEGAL_REGEX.length; i++)
+            NL_LEGAL_PATTERNS[i] = Pattern.compile(NL_LEGAL_REGEX[i]);
+    }
+
     public static final String NL_BANK_TRADE_ADDRESSEE = "(b|ba|ban|bank|p|po|por|port)[,:]*";
     public static final String NL_BANK_TRADE = "(?i)" + "\\s*" +
             NL_BANK_TRADE_ADDRESSEE +
@@ -569,8 +602,8 @@ public class StacChatTradeMsgParser {
      */
     public static boolean isNLTradeMsgFormat(String msg) {
         String normalisedMsg = msg.toLowerCase();
-        for (String ptrn : NL_LEGAL_REGEX) {
-            if (normalisedMsg.matches(ptrn)) {
+        for (Pattern ptrn : NL_LEGAL_PATTERNS) {
+            if (ptrn.matcher(normalisedMsg).matches()) {
                 return true;
             }
         }
@@ -584,12 +617,10 @@ public class StacChatTradeMsgParser {
      */
     public static boolean hasExplicitAllAddressee(String msg) {
         String normalisedMsg = msg.toLowerCase();
-        for (String ptrn : NL_LEGAL_REGEX) {
-            if (normalisedMsg.matches(ptrn)) {
-                Pattern pattern = Pattern.compile(ptrn);
-                Matcher matcher = pattern.matcher(normalisedMsg);
-                boolean matches = matcher.matches(); //execute the match, so we can get the groups
-                if (matches && matcher.groupCount() > 0) {
+        for (Pattern pattern : NL_LEGAL_PATTERNS) {
+            Matcher matcher = pattern.matcher(normalisedMsg);
+            if (matcher.matches()) { //execute the match, so we can get the groups
+                if (matcher.groupCount() > 0) {
                     String[] receivers = matcher.group(1).split("[,:\\s]");
                     for (String r : receivers) {
                         if (r.matches(NL_ALL_ADDRESSEES)) {
@@ -609,12 +640,10 @@ public class StacChatTradeMsgParser {
      */
     public static boolean hasExplicitAddressees(String msg) {
         String normalisedMsg = msg.toLowerCase();
-        for (String ptrn : NL_LEGAL_REGEX) {
-            if (normalisedMsg.matches(ptrn)) {
-                Pattern pattern = Pattern.compile(ptrn);
-                Matcher matcher = pattern.matcher(normalisedMsg);
-                boolean matches = matcher.matches(); //execute the match, so we can get the groups
-                if (matches && matcher.groupCount() > 0) {
+        for (Pattern pattern : NL_LEGAL_PATTERNS) {
+            Matcher matcher = pattern.matcher(normalisedMsg);
+            if (matcher.matches()) { //execute the match, so we can get the groups
+                if (matcher.groupCount() > 0) {
                     String[] receivers = matcher.group(1).split("[,:\\s]");
                     if (receivers.length > 0) {
                         return true;
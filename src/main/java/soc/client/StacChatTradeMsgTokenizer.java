@@ -0,0 +1,499 @@
+package soc.client;
+
+import java.io.StringWriter;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+
+import soc.dialogue.StacTradeMessage;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+import soc.game.StacTradeOffer;
+import soc.robot.stac.Persuasion;
+
+/**
+ * Single-pass tokenizer for the formal trade language typed into the chat when chat negotiations are on
+ * (acc:..., rej:..., t:...;o:...;r:...[;p:...]).
+ *<P>
+ * Accepts exactly the strings matched by {@link StacChatTradeMsgParser#ACCEPT_PATTERN},
+ * {@link StacChatTradeMsgParser#REJECT_PATTERN} and {@link StacChatTradeMsgParser#OFFER_PATTERN}
+ * and produces the same {@link StacTradeMessage}s and error texts as the regex parser
+ * ({@link StacChatTradeMsgParser#parseTradeMsgRegex(String, String, int, StringWriter)}),
+ * but walks the message once by index instead of running those patterns and splitting it into substrings.
+ *<P>
+ * As in the regex version, the format check is case-insensitive (ASCII only, like the patterns' {@code (?i)} flag)
+ * while part keywords, player colours and resource names are resolved case-sensitively;
+ * so "T:1;o:1cl;r:1wd" is well-formed but rejected with "Unknown message part: T".
+ *<P>
+ * An instance holds the state of one scan and isn't thread-safe; use the static methods.
+ */
+final class StacChatTradeMsgTokenizer {
+
+    /** Message kinds found by {@link #scan()} */
+    private static final int KIND_ACCEPT = 1, KIND_REJECT = 2, KIND_OFFER = 3;
+
+    private final String msg;
+    private final int len;
+
+    /** If false only check the format, don't resolve players and resources or allocate result sets */
+    private final boolean resolve;
+
+    /** Our player number, for offer "to" checks; only used if {@link #resolve} */
+    private final int ourPn;
+
+    private int kind;
+
+    /** First semantic error found while resolving, in the same order as the regex parser reports them, or null */
+    private String error;
+
+    /** Player number addressed by an accept or reject */
+    private int receiver = -1;
+
+    /** Offer contents; allocated only if {@link #resolve} */
+    private boolean[] to;
+    private SOCResourceSet give, get;
+
+    /** Bounds of the persuasion argument text within {@link #msg}, or -1 if none */
+    private int perStart = -1, perEnd = -1;
+
+    private StacChatTradeMsgTokenizer(final String msg, final boolean resolve, final int ourPn) {
+        this.msg = msg;
+        this.len = msg.length();
+        this.resolve = resolve;
+        this.ourPn = ourPn;
+        if (resolve) {
+            to = new boolean[4];
+            give = new SOCResourceSet();
+            get = new SOCResourceSet();
+        }
+    }
+
+    /**
+     * Check the format of a chat message without building anything.
+     * @param msg the message to check
+     * @return true if it matches one of the accept, reject or offer forms
+     * @see StacChatTradeMsgParser#isTradeMsgFormat(String)
+     */
+    static boolean isTradeMsgFormat(final String msg) {
+        return new StacChatTradeMsgTokenizer(msg, false, -1).scan();
+    }
+
+    /**
+     * Parse a chat message of the formal trade language into a trade message.
+     * Parameters and return value are those of {@link StacChatTradeMsgParser#parseTradeMsg(String, String, int, StringWriter)}.
+     * Returns null without writing to {@code output} if {@code msg} isn't well-formed.
+     */
+    static Map.Entry<StacTradeMessage,Integer> parseTradeMsg(final String msg, final String gameName, final int ourPn, final StringWriter output) {
+        final StacChatTradeMsgTokenizer tok = new StacChatTradeMsgTokenizer(msg, true, ourPn);
+        if (! tok.scan())
+            return null;
+        if (tok.error != null) {
+            output.write(tok.error);
+            return null;
+        }
+
+        final String sender = Integer.toString(ourPn);
+        final StacTradeMessage trdMsg;
+        Integer receiver = null;
+        switch (tok.kind) {
+        case KIND_ACCEPT:
+        case KIND_REJECT:
+            receiver = tok.receiver;
+            trdMsg = new StacTradeMessage(sender, Integer.toString(tok.receiver),
+                tok.kind == KIND_ACCEPT, tok.kind == KIND_REJECT, false, false, null, false, msg);
+            break;
+
+        default:
+            Persuasion persuasion;
+            if (tok.perStart < tok.perEnd)
+                persuasion = Persuasion.parsePersuasion(Persuasion.formatPersuasion(msg.substring(tok.perStart, tok.perEnd)));
+            else
+                persuasion = new Persuasion();  // none given, or "p:" with nothing after it
+            //check if we are offering and asking for the same resource type
+            for (int i = SOCResourceConstants.CLAY; i <= SOCResourceConstants.WOOD; i++) {
+                if (tok.get.getAmount(i) > 0 && tok.give.getAmount(i) > 0) {
+                    output.write("Cannot offer and ask for the same resource type: " + SOCResourceConstants.resName(i));
+                    return null;
+                }
+            }
+            trdMsg = new StacTradeMessage(sender, StacTradeMessage.getToAsString(tok.to),
+                new StacTradeOffer(gameName, ourPn, tok.to, tok.give, false, tok.get, false), false, persuasion, msg);
+        }
+
+        return new AbstractMap.SimpleEntry<StacTradeMessage, Integer>(trdMsg, receiver);
+    }
+
+    /**
+     * Scan the whole message, setting {@link #kind} and, if {@link #resolve}, the message contents or {@link #error}.
+     * @return true if the message is well-formed
+     */
+    private boolean scan() {
+        if (len > 4 && msg.charAt(3) == ':') {
+            if (equalsIgnoreCase(0, 3, StacChatTradeMsgParser.ACCEPT)) {
+                kind = KIND_ACCEPT;
+                return scanResponseTarget(4);
+            } else if (equalsIgnoreCase(0, 3, StacChatTradeMsgParser.REJECT)) {
+                kind = KIND_REJECT;
+                return scanResponseTarget(4);
+            }
+        }
+
+        kind = KIND_OFFER;
+        return scanOffer();
+    }
+
+    /**
+     * Scan the player part of "acc:" or "rej:": one digit, or a colour of 1 to 6 letters.
+     * @param start index just past the ':'
+     */
+    private boolean scanResponseTarget(final int start) {
+        final int n = len - start;
+        final boolean isDigit = (n == 1) && isDigit(msg.charAt(start));
+        if (! (isDigit || (n <= 6 && isLetters(start, len))))
+            return false;
+
+        if (resolve) {
+            receiver = (isDigit) ? msg.charAt(start) - '0' : playerNumberForColour(start, len);
+            if (receiver < 0 || receiver > 3) {
+                if (regionEquals(start, len, StacChatTradeMsgParser.TO_ALL))
+                    error = "Can only use 'all' in a new offer";
+                else
+                    error = "Incorrect player number or colour: " + msg.substring(start);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scan "to;offer;receive" and the optional persuasion part, each of the form "keyword:value".
+     */
+    private boolean scanOffer() {
+        int pos = 0;
+
+        int kwEnd = keywordEnd(pos);
+        if (kwEnd < 0 || ! isPrefixIgnoreCase(pos, kwEnd, "trade", 1))
+            return false;
+        checkPartKeyword(pos, kwEnd);
+        pos = kwEnd + 1;
+        int end = partEnd(pos);
+        if (end == len || ! scanToArray(pos, end))
+            return false;
+
+        pos = end + 1;
+        kwEnd = keywordEnd(pos);
+        if (kwEnd < 0 || ! isPrefixIgnoreCase(pos, kwEnd, "offer", 1))
+            return false;
+        checkPartKeyword(pos, kwEnd);
+        pos = kwEnd + 1;
+        end = partEnd(pos);
+        if (end == len || ! scanResources(pos, end, give))
+            return false;
+
+        pos = end + 1;
+        kwEnd = keywordEnd(pos);
+        if (kwEnd < 0 || ! isPrefixIgnoreCase(pos, kwEnd, "receive", 1))
+            return false;
+        checkPartKeyword(pos, kwEnd);
+        pos = kwEnd + 1;
+        end = partEnd(pos);
+        if (! scanResources(pos, end, get))
+            return false;
+        if (end >= len - 1)
+            return true;  // no persuasion; may have trailing ';'
+
+        pos = end + 1;
+        kwEnd = keywordEnd(pos);
+        if (kwEnd < 0 || ! isPrefixIgnoreCase(pos, kwEnd, "persuasion", 1))
+            return false;
+        final int kwLen = kwEnd - pos;
+        if (kwLen > 4 && kwLen < 10)
+            return false;  // only p, pe, per, pers or persuasion
+        checkPartKeyword(pos, kwEnd);
+        pos = kwEnd + 1;
+        end = partEnd(pos);
+        if (end < len - 1 || ! isPersuasionArg(pos, end))
+            return false;
+        perStart = pos;
+        perEnd = end;
+
+        return true;
+    }
+
+    /**
+     * Scan the recipients of an offer: "all", or 1 to 3 single digits or 1 to 3 colours of 1 to 6 letters
+     * (not mixed), separated by ','; at most 2 trailing ','s and 4 comma-separated fields in all.
+     */
+    private boolean scanToArray(final int start, final int end) {
+        int items = 0, empties = 0;
+        boolean digits = false;
+        int segStart = start;
+        final boolean toAll = (indexOf(',', start, end) == end) && regionEquals(start, end, StacChatTradeMsgParser.TO_ALL);
+        if (resolve && toAll) {
+            Arrays.fill(to, true);
+            to[ourPn] = false;  //we are not offering to ourselves
+        }
+
+        for (;;) {
+            final int segEnd = indexOf(',', segStart, end);
+            final int segLen = segEnd - segStart;
+            if (segLen == 0) {
+                ++empties;
+            } else {
+                if (empties > 0)
+                    return false;
+                final boolean isDigit = (segLen == 1) && isDigit(msg.charAt(segStart));
+                if (isDigit) {
+                    if (items > 0 && ! digits)
+                        return false;
+                    digits = true;
+                } else {
+                    if (segLen > 6 || ! isLetters(segStart, segEnd) || (items > 0 && digits))
+                        return false;
+                }
+                ++items;
+
+                if (resolve && error == null && ! toAll) {
+                    final int pn = (isDigit) ? msg.charAt(segStart) - '0' : playerNumberForColour(segStart, segEnd);
+                    if (pn >= 0 && pn <= 3)
+                        to[pn] = true;
+                    else if (regionEquals(segStart, segEnd, StacChatTradeMsgParser.TO_ALL))
+                        error = "Can only use 'all' on its own";
+                    else
+                        error = "Incorrect player number or colour: " + msg.substring(segStart, segEnd);
+                }
+            }
+
+            if (segEnd == end)
+                break;
+            segStart = segEnd + 1;
+        }
+
+        if (items == 0 || items > 3 || empties > 2 || items + empties > 4)
+            return false;
+
+        if (resolve && error == null && to[ourPn])
+            error = "Cannot offer the trade to yourself";  //in case the initiator meant a different player
+        return true;
+    }
+
+    /**
+     * Scan a resource list: 1 to 4 items of digits followed by 1 to 5 letters, separated by ','
+     * with at most one trailing ','. If {@link #resolve}, add the amounts to {@code rs}.
+     */
+    private boolean scanResources(final int start, final int end, final SOCResourceSet rs) {
+        int items = 0;
+        int segStart = start;
+        for (;;) {
+            final int segEnd = indexOf(',', segStart, end);
+            if (segEnd == segStart) {
+                // empty field: only allowed as a single trailing ','
+                if (segEnd != end || items == 0)
+                    return false;
+                break;
+            }
+
+            int i = segStart;
+            while (i < segEnd && isDigit(msg.charAt(i)))
+                ++i;
+            final int nLetters = segEnd - i;
+            if (i == segStart || nLetters < 1 || nLetters > 5 || ! isLetters(i, segEnd))
+                return false;
+            ++items;
+
+            if (resolve) {
+                // like the regex parser: amount is 1 or 2 leading digits, any others become part of the type name
+                final int typeStart;
+                final int quantity;
+                if (isDigit(msg.charAt(segStart + 1))) {
+                    quantity = (msg.charAt(segStart) - '0') * 10 + (msg.charAt(segStart + 1) - '0');
+                    typeStart = segStart + 2;
+                } else {
+                    quantity = msg.charAt(segStart) - '0';
+                    typeStart = segStart + 1;
+                }
+                rs.add(quantity, resourceTypeFromExpression(typeStart, segEnd));
+            }
+
+            if (segEnd == end)
+                break;
+            segStart = segEnd + 1;
+        }
+
+        return (items <= 4);
+    }
+
+    /**
+     * Check a persuasion argument against {@code PER_ARRAY_PATTERN}: an id of letters and '_',
+     * then optionally "^" constraint list with at least one ',', then optionally "^" name "," and
+     * one or more "name=value" parameters.
+     */
+    private boolean isPersuasionArg(final int start, final int end) {
+        int i = start;
+        while (i < end && (isLetter(msg.charAt(i)) || msg.charAt(i) == '_'))
+            ++i;
+        if (i == end)
+            return true;
+        if (msg.charAt(i) != '^')
+            return false;
+
+        final int seg1 = i + 1, seg1End = indexOf('^', seg1, end);
+        if (seg1End == end)
+            return isConstraintList(seg1, end) || isParamList(seg1, end);
+
+        final int seg2 = seg1End + 1;
+        return isConstraintList(seg1, seg1End) && (indexOf('^', seg2, end) == end) && isParamList(seg2, end);
+    }
+
+    /** Letters and ','s, with at least one ',' */
+    private boolean isConstraintList(final int start, final int end) {
+        boolean comma = false;
+        for (int i = start; i < end; ++i) {
+            final char c = msg.charAt(i);
+            if (c == ',')
+                comma = true;
+            else if (! isLetter(c))
+                return false;
+        }
+        return comma;
+    }
+
+    /** Letters, ',', then letters '=' and alphanumerics or '=' with at least one '=' and no more ','s */
+    private boolean isParamList(final int start, final int end) {
+        int i = start;
+        while (i < end && isLetter(msg.charAt(i)))
+            ++i;
+        if (i == end || msg.charAt(i) != ',')
+            return false;
+        ++i;
+        while (i < end && isLetter(msg.charAt(i)))
+            ++i;
+        if (i == end || msg.charAt(i) != '=')
+            return false;
+        for (++i; i < end; ++i) {
+            final char c = msg.charAt(i);
+            if (! (c == '=' || isDigit(c) || isLetter(c)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record an "Unknown message part" error unless the keyword is lowercase,
+     * which is how the regex parser's case-sensitive keyword patterns behave.
+     */
+    private void checkPartKeyword(final int start, final int end) {
+        if (! resolve || error != null)
+            return;
+        for (int i = start; i < end; ++i) {
+            final char c = msg.charAt(i);
+            if (c < 'a' || c > 'z') {
+                error = "Unknown message part: " + msg.substring(start, end);
+                return;
+            }
+        }
+    }
+
+    /** Index of the ':' ending a keyword of letters starting at {@code start}, or -1 if none */
+    private int keywordEnd(final int start) {
+        int i = start;
+        while (i < len && isLetter(msg.charAt(i)))
+            ++i;
+        return (i < len && msg.charAt(i) == ':') ? i : -1;
+    }
+
+    /** Index of the ';' ending the part starting at {@code start}, or {@link #len} if none */
+    private int partEnd(final int start) {
+        return indexOf(';', start, len);
+    }
+
+    private int indexOf(final char ch, final int start, final int end) {
+        for (int i = start; i < end; ++i)
+            if (msg.charAt(i) == ch)
+                return i;
+        return end;
+    }
+
+    /**
+     * Player number for a (partial) colour name, like {@code StacChatTradeMsgParser.playerNumberForColour}.
+     * @return player number, or -1 if not a colour
+     */
+    private int playerNumberForColour(final int start, final int end) {
+        if (isPrefix(start, end, "blue", 1))
+            return 0;
+        if (isPrefix(start, end, "red", 1))
+            return 1;
+        if (isPrefix(start, end, "white", 1))
+            return 2;
+        if (isPrefix(start, end, "orange", 1))
+            return 3;
+        return -1;
+    }
+
+    /**
+     * Resource type for a (partial) resource name, like {@code StacChatTradeMsgParser.resourceTypeFromExpression}.
+     * @return a type from {@link SOCResourceConstants}, or {@link SOCResourceConstants#UNKNOWN} if not recognised
+     */
+    private int resourceTypeFromExpression(final int start, final int end) {
+        if (isPrefix(start, end, "clay", 1))
+            return SOCResourceConstants.CLAY;
+        if (isPrefix(start, end, "ore", 1))
+            return SOCResourceConstants.ORE;
+        if (isPrefix(start, end, "sheep", 1))
+            return SOCResourceConstants.SHEEP;
+        if (isPrefix(start, end, "wheat", 2))
+            return SOCResourceConstants.WHEAT;
+        if (isPrefix(start, end, "wood", 2) || regionEquals(start, end, "wd"))
+            return SOCResourceConstants.WOOD;
+        return SOCResourceConstants.UNKNOWN;
+    }
+
+    /** Is the region a prefix of {@code word} at least {@code minLen} long? Case-sensitive. */
+    private boolean isPrefix(final int start, final int end, final String word, final int minLen) {
+        final int n = end - start;
+        return (n >= minLen) && (n <= word.length()) && msg.regionMatches(start, word, 0, n);
+    }
+
+    /** Is the region a prefix of lowercase {@code word} at least {@code minLen} long, ignoring ASCII case? */
+    private boolean isPrefixIgnoreCase(final int start, final int end, final String word, final int minLen) {
+        final int n = end - start;
+        return (n >= minLen) && (n <= word.length()) && equalsIgnoreCase(start, end, word);
+    }
+
+    /**
+     * Does the region equal the start of lowercase {@code word}, ignoring ASCII case only?
+     * Unlike {@link String#regionMatches(boolean, int, String, int, int)} this doesn't fold non-ASCII
+     * characters such as the Kelvin sign, matching the regex {@code (?i)} flag without UNICODE_CASE.
+     */
+    private boolean equalsIgnoreCase(final int start, final int end, final String word) {
+        for (int i = start, j = 0; i < end; ++i, ++j) {
+            char c = msg.charAt(i);
+            if (c >= 'A' && c <= 'Z')
+                c += ('a' - 'A');
+            if (c != word.charAt(j))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean regionEquals(final int start, final int end, final String s) {
+        return (end - start == s.length()) && msg.startsWith(s, start);
+    }
+
+    private boolean isLetters(final int start, final int end) {
+        if (start == end)
+            return false;
+        for (int i = start; i < end; ++i)
+            if (! isLetter(msg.charAt(i)))
+                return false;
+        return true;
+    }
+
+    private static boolean isLetter(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(final char c) {
+        return (c >= '0' && c <= '9');
+    }
+
+}
@@ -56,6 +56,7 @@ import soc.message.SOCPutPiece;
 import soc.message.SOCSetPlayedDevCard;
 import soc.message.SOCSitDown;
 import soc.message.SOCTurn;
+import soc.server.database.stac.DBGameRows;
 import soc.server.database.stac.ExtGameStateRow;
 import soc.server.database.stac.GameActionRow;
 import soc.server.database.stac.ObsGameStateRow;
@@ -253,6 +254,11 @@ public class StacDBReplayClient extends SOCReplayClient{
 		// only a stub: override SOCReplayClient to avoid NPE for ftq
 	}
 
+	@Override
+	public void toTurnNumber(final int turn) {
+		// only a stub: override SOCReplayClient to avoid NPE for ftq
+	}
+
 	@Override
 	public void toBreakPoint(String breakText) {
 	    dtq.state = DBToQueue.TO_END;
@@ -300,10 +306,16 @@ public class StacDBReplayClient extends SOCReplayClient{
 		@Override
 		public void run() {
 			//TODO maybe displaying some gtms as the game advances (just for feedback, but not necessary)
+			//read the whole game in three queries instead of three per step
+			DBGameRows rows = DBGameRows.load(dbh, gameID);
+			if(rows == null){
+				System.err.println("Could not read the rows of game " + gameID);
+				return;
+			}
 			//first state is a special one as it is the start of game so we need to pass some more special msgs to the client
-			ObsGameStateRow ogsr = dbh.selectOGSR(gameID, 1);
-			GameActionRow gar = dbh.selectGAR(gameID, 1);
-			ExtGameStateRow egsr = dbh.selectEGSR(gameID, 1);
+			ObsGameStateRow ogsr = rows.getOGSR(1);
+			GameActionRow gar = rows.getGAR(1);
+			ExtGameStateRow egsr = rows.getEGSR(1);
 			
 			SOCBoardLayout sbl = new SOCBoardLayout(gameName, StacDBHelper.transformToIntArr(ogsr.getHexLayout())
 					, StacDBHelper.transformToIntArr(ogsr.getNumberLayout()), ogsr.getRobberHex());
@@ -326,10 +338,10 @@ public class StacDBReplayClient extends SOCReplayClient{
 			while(true){
 				if (state != PAUSE) {
 					idCounter++;
-					gar = dbh.selectGAR(gameID, idCounter);
+					gar = rows.getGAR(idCounter);
 					
-					ogsr = dbh.selectOGSR(gameID, idCounter);
-					egsr = dbh.selectEGSR(gameID, idCounter);
+					ogsr = rows.getOGSR(idCounter);
+					egsr = rows.getEGSR(idCounter);
 					
 					//now depending on the action type update the game object in the client;
 					double actionType = gar.getType();
@@ -379,7 +391,7 @@ public class StacDBReplayClient extends SOCReplayClient{
 						updatePlayersRss(ogsr);
 						cl.treat(new SOCDevCardCount(gameName, ogsr.getDevCardsLeft()), true); //don't really care as it is not displayed but do it anyway:)
 						//in here we will need to compare with the old osgr to find out what changed in order to be able to display what card has been bought
-						int ct = compareOGSRsForDevCards(ogsr, dbh.selectOGSR(gameID, (idCounter-1)));
+						int ct = compareOGSRsForDevCards(ogsr, rows.getOGSR((idCounter-1)));
 						cl.treat(new SOCDevCardAction(gameName, ogsr.getCurrentPlayer(), SOCDevCardAction.DRAW, ct), true);
 						updateVPForAll(ogsr);
 					}else if(actionType==GameActionRow.PLAYKNIGHT){
@@ -416,7 +428,7 @@ public class StacDBReplayClient extends SOCReplayClient{
 						if(ogsr.getGameState() == SOCGame.WAITING_FOR_DISCARDS){
 							//find out who is the next player to play/update current player for special case of discards
 							//get the next ogsr and compare which player has fewer rss :p why do I need to handle games that break the turn based pattern :(
-							ObsGameStateRow nogsr = dbh.selectOGSR(gameID, idCounter + 1);
+							ObsGameStateRow nogsr = rows.getOGSR(idCounter + 1);
 							for(int pn = 0; pn < 4; pn++){
 								if(!Arrays.equals(ogsr.getResources(pn),nogsr.getResources(pn))){
 									ogsr.setCurrentPlayer(pn);
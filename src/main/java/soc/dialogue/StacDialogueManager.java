@@ -5,27 +5,8 @@
  */
 package soc.dialogue;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.util.HashMap;
 import java.util.Random;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-import resources.Resources;
 import soc.game.SOCGame;
 
 /**
@@ -47,8 +28,8 @@ public abstract class StacDialogueManager {
      */
     protected StacSDRTParser sdrtParser;
         
-    private Document xmlDoc; //XML file, used to query
-    private XPath xpath;
+    /** NL templates file, shared by all dialogue managers; used to query */
+    private final StacNLTemplateStore templates;
     public static final String xmlQueryMessageSuffix = "/message/text()";
 
     /** Random numbers */
@@ -56,28 +37,7 @@ public abstract class StacDialogueManager {
 
     public StacDialogueManager() {
         this.random = new Random();
-
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        try{
-            xpath = (XPathFactory.newInstance()).newXPath();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-    		File f = new File("nlTemplates.xml");
-    		if(f.exists()){
-    			try {
-    				xmlDoc = builder.parse(f);
-    			} catch (FileNotFoundException e) {
-    				e.printStackTrace();
-    			}
-    		}else{
-    			URL url = Resources.class.getResource(Resources.nlTemplatesName);
-    			InputStream is = url.openStream();
-    			xmlDoc = builder.parse(is);
-    		}
-        }
-        catch (ParserConfigurationException | SAXException | IOException e){
-            soc.debug.D.ebugERROR(e.getMessage());
-        }
+        this.templates = StacNLTemplateStore.getInstance();
     }
     
     public StacSDRTParser getSdrtParser() {
@@ -87,30 +47,21 @@ public abstract class StacDialogueManager {
     /** 
      * Query the XML file for an NL expression.
      * (This was originally in PersuasionGenerator.)
+     * The file is parsed once and each query evaluated once, see {@link StacNLTemplateStore};
+     * this picks one of the matching templates at random and fills in its wildcards.
      * @param query         the full query used for the xml file
      * @param replaceTable  a one to one mapping of values that need to be replaced
-     * @return
+     * @return the message with its first character capitalized, or "" if the query found no messages
      */
    protected String queryXMLFile(String query, HashMap<String,String> replaceTable){
-       String message = "";
-       try {
-           XPathExpression expr = xpath.compile(query);
-           NodeList nodes = (NodeList) expr.evaluate(xmlDoc, XPathConstants.NODESET);
-           try{
-               message = nodes.item(random.nextInt(nodes.getLength())).getNodeValue();
-           }
-           catch (IllegalArgumentException e){
-               soc.debug.D.ebugERROR("Could not find Query for " + query + "\nEXCEPTION:\n" + e.toString());
-               return "";
-           }
-           for (String a: replaceTable.keySet()){
-               message = message.replaceAll(a, replaceTable.get(a));
-           }
-       } catch (XPathExpressionException e) {
-           e.printStackTrace();
-       } catch (ArrayIndexOutOfBoundsException e) {
-           e.printStackTrace();
+       StacNLTemplateStore.Template[] found = templates.lookup(query);
+       if (found.length == 0) {
+           soc.debug.D.ebugERROR("Could not find Query for " + query);
+           return "";
        }
+       String message = found[random.nextInt(found.length)].fill(replaceTable);
+       if (message.length() == 0)
+           return message;
        //Capitalize the first character
        message = message.substring(0,1).toUpperCase() + message.substring(1);
        return message;
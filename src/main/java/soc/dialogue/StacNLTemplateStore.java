@@ -0,0 +1,235 @@
+package soc.dialogue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import resources.Resources;
+
+/**
+ * Process-wide store of the NL message templates in {@code nlTemplates.xml},
+ * shared by all {@link StacDialogueManager}s instead of each parsing its own copy.
+ *<P>
+ * The XML file is parsed once, the first time {@link #getInstance()} is called:
+ * from {@code nlTemplates.xml} in the current directory if present, otherwise from the
+ * {@link Resources#nlTemplatesName} resource. Each distinct XPath query is evaluated against it
+ * only once; its messages are kept as {@link Template}s keyed by the query string,
+ * so later lookups of the same query are a map lookup.
+ *<P>
+ * Templates are immutable and the store is thread-safe.
+ *
+ * @see StacDialogueManager#queryXMLFile(String, java.util.HashMap)
+ */
+public final class StacNLTemplateStore {
+
+    private static final Template[] NO_TEMPLATES = new Template[0];
+
+    /** The parsed templates file, or null if it couldn't be loaded. Read-only after construction. */
+    private final Document xmlDoc;
+
+    /** XPath evaluator for {@link #xmlDoc}; not thread-safe, so used only while synchronized on it */
+    private final XPath xpath;
+
+    /** Templates found for each query string evaluated so far */
+    private final Map<String, Template[]> index = new ConcurrentHashMap<String, Template[]>();
+
+    /** Holder for the lazily-loaded shared instance */
+    private static final class Holder {
+        static final StacNLTemplateStore INSTANCE = new StacNLTemplateStore();
+    }
+
+    /**
+     * Get the shared store, loading the templates file the first time this is called.
+     * @return the store; never null, but empty if the templates file couldn't be loaded
+     */
+    public static StacNLTemplateStore getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private StacNLTemplateStore() {
+        Document doc = null;
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        try {
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            File f = new File(Resources.nlTemplatesName);
+            if (f.exists()) {
+                doc = builder.parse(f);
+            } else {
+                URL url = Resources.class.getResource(Resources.nlTemplatesName);
+                InputStream is = url.openStream();
+                try {
+                    doc = builder.parse(is);
+                } finally {
+                    is.close();
+                }
+            }
+        } catch (Exception e) {
+            soc.debug.D.ebugERROR("Could not load " + Resources.nlTemplatesName + ": " + e);
+        }
+        xmlDoc = doc;
+        xpath = XPathFactory.newInstance().newXPath();
+    }
+
+    /**
+     * Get the templates selected by an XPath query, such as
+     * {@code "/statement/trade/responseTrade/response[@accept=\"true\"]/message/text()"}.
+     * The query is evaluated against the file only the first time it's seen.
+     * @param query  XPath query selecting the text of zero or more message nodes
+     * @return  the templates in document order; empty if none match, the query is malformed, or the file wasn't loaded
+     */
+    public Template[] lookup(final String query) {
+        Template[] templates = index.get(query);
+        if (templates == null) {
+            templates = evaluate(query);
+            index.put(query, templates);
+        }
+        return templates;
+    }
+
+    private Template[] evaluate(final String query) {
+        if (xmlDoc == null)
+            return NO_TEMPLATES;
+
+        synchronized (xpath) {
+            try {
+                NodeList nodes = (NodeList) xpath.compile(query).evaluate(xmlDoc, XPathConstants.NODESET);
+                final int n = nodes.getLength();
+                if (n == 0)
+                    return NO_TEMPLATES;
+                Template[] templates = new Template[n];
+                for (int i = 0; i < n; i++)
+                    templates[i] = new Template(nodes.item(i).getNodeValue());
+                return templates;
+            } catch (XPathExpressionException e) {
+                e.printStackTrace();
+                return NO_TEMPLATES;
+            }
+        }
+    }
+
+    /**
+     * One message template, pre-split into literal text and {@code $name} slots.
+     * For example "$pl, do you want $giv?" is literals {"", ", do you want ", "?"} and slots {"pl", "giv"}.
+     */
+    public static final class Template {
+
+        /** Literal text around the slots; one more element than {@link #slots} */
+        private final String[] literals;
+
+        /** Slot names without the leading '$', in order of appearance */
+        private final String[] slots;
+
+        /** Length of the template text, as a size hint */
+        private final int length;
+
+        Template(final String text) {
+            length = text.length();
+            int nSlots = 0;
+            for (int i = slotStart(text, 0); i >= 0; i = slotStart(text, slotEnd(text, i)))
+                ++nSlots;
+
+            literals = new String[nSlots + 1];
+            slots = new String[nSlots];
+            int litStart = 0, s = 0;
+            for (int i = slotStart(text, 0); i >= 0; i = slotStart(text, litStart)) {
+                final int end = slotEnd(text, i);
+                literals[s] = text.substring(litStart, i);
+                slots[s] = text.substring(i + 1, end);
+                ++s;
+                litStart = end;
+            }
+            literals[s] = text.substring(litStart);
+        }
+
+        /** Index of the next '$' followed by a letter at or after {@code from}, or -1 */
+        private static int slotStart(final String text, final int from) {
+            for (int i = text.indexOf('$', from); i >= 0; i = text.indexOf('$', i + 1))
+                if (i + 1 < text.length() && Character.isLetter(text.charAt(i + 1)))
+                    return i;
+            return -1;
+        }
+
+        /** Index just past the letters of the slot starting at {@code start} */
+        private static int slotEnd(final String text, final int start) {
+            int i = start + 1;
+            while (i < text.length() && Character.isLetter(text.charAt(i)))
+                ++i;
+            return i;
+        }
+
+        /**
+         * Fill in this template's slots.
+         *<P>
+         * Keys of {@code replaceTable} are the escaped regex wildcards used by the dialogue managers,
+         * such as {@code "\\$giv"}; like the regex replacement they match the start of a slot name,
+         * so "\\$pl" fills the "$pl" of "$player" and leaves "ayer". If several keys match a slot
+         * the longest wins. Values are inserted literally. Any key not of that form is applied with
+         * {@link String#replaceAll(String, String)} afterwards, as before templates were pre-split.
+         *
+         * @param replaceTable  wildcard keys and their replacement text; not null
+         * @return the message text
+         */
+        public String fill(final Map<String, String> replaceTable) {
+            StringBuilder sb = new StringBuilder(length + 16 * slots.length);
+            sb.append(literals[0]);
+            for (int s = 0; s < slots.length; ++s) {
+                final String name = slots[s];
+                String value = null;
+                int keyLen = 0;
+                for (Map.Entry<String, String> e : replaceTable.entrySet()) {
+                    final String key = e.getKey();
+                    if (! isSlotKey(key))
+                        continue;
+                    final int kl = key.length() - 2;
+                    if (kl > keyLen && kl <= name.length() && name.startsWith(key.substring(2))) {
+                        value = e.getValue();
+                        keyLen = kl;
+                    }
+                }
+                if (value != null)
+                    sb.append(value).append(name, keyLen, name.length());
+                else
+                    sb.append('$').append(name);
+                sb.append(literals[s + 1]);
+            }
+
+            String message = sb.toString();
+            for (Map.Entry<String, String> e : replaceTable.entrySet())
+                if (! isSlotKey(e.getKey()))
+                    message = message.replaceAll(e.getKey(), e.getValue());
+            return message;
+        }
+
+        /** Is this a wildcard key "\\$" + letters? */
+        private static boolean isSlotKey(final String key) {
+            final int n = key.length();
+            if (n < 3 || key.charAt(0) != '\\' || key.charAt(1) != '$')
+                return false;
+            for (int i = 2; i < n; ++i)
+                if (! Character.isLetter(key.charAt(i)))
+                    return false;
+            return true;
+        }
+
+        /** The template text, with its {@code $name} slots */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(length);
+            sb.append(literals[0]);
+            for (int s = 0; s < slots.length; ++s)
+                sb.append('$').append(slots[s]).append(literals[s + 1]);
+            return sb.toString();
+        }
+    }
+
+}
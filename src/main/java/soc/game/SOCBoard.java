@@ -386,6 +386,13 @@ public abstract class SOCBoard implements Serializable, Cloneable
      */
     protected int minNode, minEdge, maxEdge;
 
+    /**
+     * Adjacency tables for this board's geometry, from {@link #getAdjacency()}; null until first used.
+     * Not serialized, because they're shared with other boards of the same geometry.
+     * @since 2.4.50
+     */
+    private transient volatile SOCBoardAdjacency adjacency;
+
     /**
      * The encoding format of board coordinates,
      * or {@link #BOARD_ENCODING_ORIGINAL} (default, original).
@@ -717,7 +724,7 @@ public abstract class SOCBoard implements Serializable, Cloneable
     /**
      * random number generator
      */
-    protected Random rand = new Random();
+    protected Random rand = new SOCGame.CopyableRandom();
 
     /**
      * a list of nodes on the land of the board; key is node's Integer coordinate, value is Boolean.
@@ -901,6 +908,70 @@ public abstract class SOCBoard implements Serializable, Cloneable
         }
     }
 
+    /**
+     * Seed this board's random number generator, so that {@link #makeNewBoard(SOCGameOptionSet)}
+     * will lay out the same board each time it's given the same seed and game options.
+     * Called only at server, before {@code makeNewBoard}.
+     * @param seed  Seed for the generator
+     * @see SOCGame#getBoardLayoutSeed()
+     * @since 2.4.50
+     */
+    public void setRandomSeed(final long seed)
+    {
+        rand.setSeed(seed);
+    }
+
+    /**
+     * Copy this board for {@link SOCGame#snapshot()}: Copies the layout and other mutable state,
+     * shares read-only geometry such as the adjacency tables and hex numbering.
+     * The copy's piece lists still hold this board's pieces until
+     * {@link #copyPiecesForSnapshot(SOCGame.SnapshotMap)} is called.
+     * Subclasses with more mutable fields should override to copy them.
+     * @return a copy of this board
+     * @throws IllegalStateException if clone fails; should not occur
+     * @since 2.4.50
+     */
+    @SuppressWarnings("unchecked")
+    protected SOCBoard copyForSnapshot()
+        throws IllegalStateException
+    {
+        final SOCBoard cp;
+        try
+        {
+            cp = (SOCBoard) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Internal error, board should be cloneable", e);
+        }
+
+        cp.hexLayout = hexLayout.clone();
+        cp.numberLayout = numberLayout.clone();
+        if (portsLayout != null)
+            cp.portsLayout = portsLayout.clone();
+        if (nodeIDtoPortType != null)
+            cp.nodeIDtoPortType = new HashMap<Integer, Integer>(nodeIDtoPortType);
+        cp.ports = new ArrayList[ports.length];
+        for (int i = 0; i < ports.length; ++i)
+            if (ports[i] != null)
+                cp.ports[i] = new ArrayList<Integer>(ports[i]);
+        cp.rand = SOCGame.copyRandom(rand);
+        cp.nodesOnLand = new HashSet<Integer>(nodesOnLand);
+
+        return cp;
+    }
+
+    /**
+     * For {@link SOCGame#snapshot()}, replace this copied board's pieces with the snapshot's copies.
+     * Subclasses with more pieces should override to copy them.
+     * @param map  The snapshot's copied players, board, and pieces
+     * @since 2.4.50
+     */
+    void copyPiecesForSnapshot(final SOCGame.SnapshotMap map)
+    {
+        roadsAndShips = map.pieces(roadsAndShips, new ArrayList<SOCRoutePiece>(roadsAndShips.size() + 20));
+        settlements = map.pieces(settlements, new ArrayList<SOCSettlement>(settlements.size() + 10));
+        cities = map.pieces(cities, new ArrayList<SOCCity>(cities.size() + 10));
+    }
+
     /**
      * Fill the board layout for a game being started:
      * Shuffle the hex tiles and layout a board.
@@ -1018,7 +1089,8 @@ public abstract class SOCBoard implements Serializable, Cloneable
      * before it starts placement.  Since hexLayout's land hex coordinates are hardcoded within
      * {@link #numToHexID}, it can only be called once per board layout.
      *
-     * @param landHex  Resource type to place into {@link #hexLayout} for each land hex; will be shuffled.
+     * @param landHex  Resource type to place into {@link #hexLayout} for each land hex;
+     *                    a copy will be shuffled. Not changed by this method.
      *                    Values are {@link #CLAY_HEX}, {@link #DESERT_HEX}, etc.
      * @param numPath  Indexes within {@link #hexLayout} (also within {@link #numberLayout}) for each land hex;
      *                    same array length as <tt>landHex[]</tt>
@@ -1036,6 +1108,8 @@ public abstract class SOCBoard implements Serializable, Cloneable
         final int clumpSize = checkClumps ? optBC.getIntValue() : 0;
         boolean clumpsNotOK = checkClumps;
 
+        landHex = landHex.clone();  // don't shuffle the shared static array, so seeded layouts are repeatable
+
         do   // will re-do placement until clumpsNotOK is false
         {
             // shuffle the land hexes 10x
@@ -3155,6 +3229,107 @@ public abstract class SOCBoard implements Serializable, Cloneable
         return nodes;
     }
 
+    /**
+     * Get this board's precomputed adjacency tables, shared with all boards of the same geometry.
+     * @return the tables, built the first time any board with this geometry asks for them
+     * @since 2.4.50
+     */
+    private SOCBoardAdjacency getAdjacency()
+    {
+        SOCBoardAdjacency adj = adjacency;
+        if (adj == null)
+            adjacency = adj = SOCBoardAdjacency.forBoard(this);
+
+        return adj;
+    }
+
+    /**
+     * Get the valid node coordinates adjacent to this node, without allocating:
+     * Same contents and order as {@link #getAdjacentNodesToNode(int)}, from a precomputed table.
+     * @param coord  Node coordinate.  Is not checked for validity.
+     * @return the nodes touching this node; empty if none.
+     *     This array is shared and must not be changed.
+     * @since 2.4.50
+     */
+    public final int[] getAdjacentNodesToNode_shared(final int coord)
+    {
+        final int[] adj = getAdjacency().nodesToNode(coord);
+        return (adj != null) ? adj : SOCBoardAdjacency.toArray(getAdjacentNodesToNode(coord));
+    }
+
+    /**
+     * Get the valid edge coordinates adjacent to this edge, without allocating:
+     * Same contents and order as {@link #getAdjacentEdgesToEdge(int)}, from a precomputed table.
+     * @param coord  Edge coordinate; not checked for validity
+     * @return the edges touching this edge; empty if none.
+     *     This array is shared and must not be changed.
+     * @since 2.4.50
+     */
+    public final int[] getAdjacentEdgesToEdge_shared(final int coord)
+    {
+        final int[] adj = getAdjacency().edgesToEdge(coord);
+        return (adj != null) ? adj : SOCBoardAdjacency.toArray(getAdjacentEdgesToEdge(coord));
+    }
+
+    /**
+     * Get the valid edge coordinates adjacent to this node, without allocating:
+     * Same contents and order as {@link #getAdjacentEdgesToNode(int)}, from a precomputed table.
+     * @param coord  Node coordinate.  Is not checked for validity.
+     * @return the edges touching this node; empty if none.
+     *     This array is shared and must not be changed.
+     * @since 2.4.50
+     */
+    public final int[] getAdjacentEdgesToNode_shared(final int coord)
+    {
+        final int[] adj = getAdjacency().edgesToNode(coord);
+        return (adj != null) ? adj : SOCBoardAdjacency.toArray(getAdjacentEdgesToNode(coord));
+    }
+
+    /**
+     * Get the valid node coordinates at the ends of this edge, without allocating:
+     * Same contents and order as {@link #getAdjacentNodesToEdge(int)}, from a precomputed table.
+     * Unlike {@link #getAdjacentNodesToEdge_arr(int)}, nodes off the board aren't included.
+     * @param coord  Edge coordinate; not checked for validity
+     * @return the nodes touching this edge; empty if none.
+     *     This array is shared and must not be changed.
+     * @since 2.4.50
+     */
+    public final int[] getAdjacentNodesToEdge_shared(final int coord)
+    {
+        final int[] adj = getAdjacency().nodesToEdge(coord);
+        return (adj != null) ? adj : SOCBoardAdjacency.toArray(getAdjacentNodesToEdge(coord));
+    }
+
+    /**
+     * Get the coordinates of the valid hexes adjacent to this node, without allocating:
+     * Same contents and order as {@link #getAdjacentHexesToNode(int)}, from a precomputed table.
+     * These hexes may contain land or water.
+     * @param coord  Node coordinate.  Is not checked for validity.
+     * @return the hexes touching this node; empty if none.
+     *     This array is shared and must not be changed.
+     * @since 2.4.50
+     */
+    public final int[] getAdjacentHexesToNode_shared(final int coord)
+    {
+        final int[] adj = getAdjacency().hexesToNode(coord);
+        return (adj != null) ? adj : SOCBoardAdjacency.toArray(getAdjacentHexesToNode(coord));
+    }
+
+    /**
+     * Get the coordinates of the hexes adjacent to this hex, including water hexes, without allocating:
+     * Same contents and order as {@link #getAdjacentHexesToHex(int, boolean) getAdjacentHexesToHex(hexCoord, true)},
+     * from a precomputed table. To skip water hexes, check each one's {@link #getHexTypeFromCoord(int)}.
+     * @param hexCoord  Hex coordinate; not checked for validity
+     * @return the hexes touching this hex; empty (not {@code null}) if none.
+     *     This array is shared and must not be changed.
+     * @since 2.4.50
+     */
+    public final int[] getAdjacentHexesToHex_shared(final int hexCoord)
+    {
+        final int[] adj = getAdjacency().hexesToHex(hexCoord);
+        return (adj != null) ? adj : SOCBoardAdjacency.toArray(getAdjacentHexesToHex(hexCoord, true));
+    }
+
     /**
      * @param coord the coordinate of the node
      * @return ana array containing the coordinates of the adjacent nodes to the given node coordinate
@@ -0,0 +1,166 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed adjacency tables for a board geometry, used by {@link SOCBoard}'s
+ * {@code getAdjacent...ToNode_shared} methods and their siblings so that hot loops don't allocate
+ * a new {@code List<Integer>} for every lookup.
+ *<P>
+ * Each table is indexed by coordinate and built by calling the board's own adjacency methods
+ * (such as {@link SOCBoard#getAdjacentNodesToNode(int)}) once for every coordinate in range,
+ * so the tables always agree with those methods. Adjacency depends only on the board's class,
+ * encoding format and size, never on its layout, so boards with the same geometry share one
+ * instance: See {@link #forBoard(SOCBoard)}.
+ *<P>
+ * Immutable and thread-safe. The arrays returned are shared and must not be changed.
+ *
+ * @since 2.4.50
+ */
+final class SOCBoardAdjacency
+{
+    /** Shared empty result */
+    static final int[] NONE = new int[0];
+
+    /** Tables for each board geometry seen so far, by {@link #geometryKey(SOCBoard)} */
+    private static final ConcurrentHashMap<String, SOCBoardAdjacency> tables
+        = new ConcurrentHashMap<String, SOCBoardAdjacency>();
+
+    /** Adjacent coordinates, indexed by coordinate; never contain null */
+    private final int[][] nodesToNode, edgesToEdge, edgesToNode, nodesToEdge, hexesToNode, hexesToHex;
+
+    private SOCBoardAdjacency(final SOCBoard board)
+    {
+        final int size = (board.getBoardEncodingFormat() == SOCBoard.BOARD_ENCODING_LARGE)
+            ? (board.getBoardHeight() + 2) << 8   // rows 0 to height + 1, each with columns 0 to 0xFF
+            : 0x100;
+
+        nodesToNode = new int[size][];
+        edgesToEdge = new int[size][];
+        edgesToNode = new int[size][];
+        nodesToEdge = new int[size][];
+        hexesToNode = new int[size][];
+        hexesToHex = new int[size][];
+        for (int coord = 0; coord < size; ++coord)
+        {
+            nodesToNode[coord] = toArray(board.getAdjacentNodesToNode(coord));
+            edgesToEdge[coord] = toArray(board.getAdjacentEdgesToEdge(coord));
+            edgesToNode[coord] = toArray(board.getAdjacentEdgesToNode(coord));
+            nodesToEdge[coord] = toArray(board.getAdjacentNodesToEdge(coord));
+            hexesToNode[coord] = toArray(board.getAdjacentHexesToNode(coord));
+            hexesToHex[coord] = toArray(board.getAdjacentHexesToHex(coord, true));
+        }
+    }
+
+    /**
+     * Get the tables for a board's geometry, building them if this is the first board of that geometry.
+     * @param board  Board to get tables for; its size must already be set
+     * @return the tables
+     */
+    static SOCBoardAdjacency forBoard(final SOCBoard board)
+    {
+        final String key = geometryKey(board);
+        SOCBoardAdjacency adj = tables.get(key);
+        if (adj == null)
+        {
+            adj = new SOCBoardAdjacency(board);
+            final SOCBoardAdjacency prev = tables.putIfAbsent(key, adj);
+            if (prev != null)
+                adj = prev;
+        }
+
+        return adj;
+    }
+
+    /**
+     * Everything the adjacency methods depend on: Board class, encoding format, size, and node and edge ranges.
+     */
+    private static String geometryKey(final SOCBoard board)
+    {
+        return board.getClass().getName() + ':' + board.getBoardEncodingFormat()
+            + ':' + board.getBoardHeight() + 'x' + board.getBoardWidth()
+            + ':' + board.minNode + ':' + board.minEdge + ':' + board.maxEdge;
+    }
+
+    /**
+     * Copy a list of coordinates to an array.
+     * @param coords  Coordinates, or {@code null}
+     * @return  {@code coords}' contents, or {@link #NONE} if null or empty
+     */
+    static int[] toArray(final List<Integer> coords)
+    {
+        if ((coords == null) || coords.isEmpty())
+            return NONE;
+
+        final int[] arr = new int[coords.size()];
+        for (int i = 0; i < arr.length; ++i)
+            arr[i] = coords.get(i);
+
+        return arr;
+    }
+
+    /**
+     * Look up a coordinate in one of this class's tables.
+     * @return  the adjacent coordinates, or {@code null} if {@code coord} is outside the table
+     */
+    private static int[] get(final int[][] table, final int coord)
+    {
+        return ((coord >= 0) && (coord < table.length)) ? table[coord] : null;
+    }
+
+    /** @see SOCBoard#getAdjacentNodesToNode_shared(int) */
+    int[] nodesToNode(final int coord)
+    {
+        return get(nodesToNode, coord);
+    }
+
+    /** @see SOCBoard#getAdjacentEdgesToEdge_shared(int) */
+    int[] edgesToEdge(final int coord)
+    {
+        return get(edgesToEdge, coord);
+    }
+
+    /** @see SOCBoard#getAdjacentEdgesToNode_shared(int) */
+    int[] edgesToNode(final int coord)
+    {
+        return get(edgesToNode, coord);
+    }
+
+    /** @see SOCBoard#getAdjacentNodesToEdge_shared(int) */
+    int[] nodesToEdge(final int coord)
+    {
+        return get(nodesToEdge, coord);
+    }
+
+    /** @see SOCBoard#getAdjacentHexesToNode_shared(int) */
+    int[] hexesToNode(final int coord)
+    {
+        return get(hexesToNode, coord);
+    }
+
+    /** @see SOCBoard#getAdjacentHexesToHex_shared(int) */
+    int[] hexesToHex(final int coord)
+    {
+        return get(hexesToHex, coord);
+    }
+
+}
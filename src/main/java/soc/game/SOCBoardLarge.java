@@ -611,7 +611,7 @@ public class SOCBoardLarge extends SOCBoard
      * @see #revealFogHiddenHexPrep(int)
      * @see #revealFogHiddenHex(int, int, int)
      */
-    protected final HashMap<Integer, Integer> fogHiddenHexes;
+    protected HashMap<Integer, Integer> fogHiddenHexes;
 
     /**
      * For some scenarios, villages on the board. Null otherwise.
@@ -743,6 +743,62 @@ public class SOCBoardLarge extends SOCBoard
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *<P>
+     * Also copies the land hex and dice number layouts, land areas, legal edges, special edges,
+     * fog-hidden hexes and added layout parts. Excluded land areas are shared; they're set
+     * once while making the board.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected SOCBoard copyForSnapshot()
+    {
+        final SOCBoardLarge cp = (SOCBoardLarge) super.copyForSnapshot();
+
+        cp.hexLayoutLg = new int[hexLayoutLg.length][];
+        for (int r = 0; r < hexLayoutLg.length; ++r)
+            cp.hexLayoutLg[r] = hexLayoutLg[r].clone();
+        cp.numberLayoutLg = new int[numberLayoutLg.length][];
+        for (int r = 0; r < numberLayoutLg.length; ++r)
+            cp.numberLayoutLg[r] = numberLayoutLg[r].clone();
+        cp.landHexLayout = new HashSet<Integer>(landHexLayout);
+        if (landAreasLegalNodes != null)
+        {
+            cp.landAreasLegalNodes = new HashSet[landAreasLegalNodes.length];
+            for (int i = 0; i < landAreasLegalNodes.length; ++i)
+                if (landAreasLegalNodes[i] != null)
+                    cp.landAreasLegalNodes[i] = new HashSet<Integer>(landAreasLegalNodes[i]);
+        }
+        cp.legalRoadEdges = new HashSet<Integer>(legalRoadEdges);
+        cp.legalShipEdges = new HashSet<Integer>(legalShipEdges);
+        if (addedLayoutParts != null)
+            cp.addedLayoutParts = new HashMap<String, int[]>(addedLayoutParts);
+        cp.specialEdges = new HashMap<Integer, Integer>(specialEdges);
+        cp.fogHiddenHexes = new HashMap<Integer, Integer>(fogHiddenHexes);
+
+        return cp;
+    }
+
+    /**
+     * {@inheritDoc}
+     *<P>
+     * Also copies the {@link #villages}.
+     */
+    @Override
+    void copyPiecesForSnapshot(final SOCGame.SnapshotMap map)
+    {
+        super.copyPiecesForSnapshot(map);
+
+        if (villages != null)
+        {
+            final HashMap<Integer, SOCVillage> vs = new HashMap<Integer, SOCVillage>();
+            for (final Map.Entry<Integer, SOCVillage> ent : villages.entrySet())
+                vs.put(ent.getKey(), map.piece(ent.getValue()));
+            villages = vs;
+        }
+    }
+
     // Note: hexLayoutLg, numberLayoutLg will only ever use the odd row numbers
 
 
@@ -0,0 +1,336 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Set of board node or edge coordinates, stored as a bitset indexed by coordinate.
+ * Used for {@link SOCPlayer}'s legal and potential piece sets, which are updated at every
+ * piece placement and copied whenever a robot copies a player for a hypothetical move:
+ * Copying this set copies one small {@code long[]} instead of a table of boxed {@link Integer}s.
+ *<P>
+ * Extends {@link HashSet} only so that methods like {@link SOCPlayer#getPotentialSettlements()}
+ * keep their return type; none of {@code HashSet}'s own storage is used.
+ * Behaves as a {@code Set<Integer>} in every other way, except:
+ *<UL>
+ * <LI> Iterates in ascending coordinate order
+ * <LI> Can't contain {@code null} or negative numbers:
+ *      {@link #add(int)} throws {@link IllegalArgumentException}, {@link #add(Integer)} throws
+ *      {@link NullPointerException} or {@code IllegalArgumentException}
+ * <LI> Iterators aren't fail-fast
+ *</UL>
+ * Grows as needed to hold any coordinate; the initial size is only a hint.
+ * Not thread-safe.
+ *
+ * @since 2.4.50
+ */
+public final class SOCCoordinateSet extends HashSet<Integer>
+{
+    private static final long serialVersionUID = 2450L;
+
+    /** Bit {@code c & 63} of {@code words[c >> 6]} is set if coordinate {@code c} is in the set */
+    private long[] words;
+
+    /** Number of coordinates in the set */
+    private int size;
+
+    /**
+     * Create an empty set sized for coordinates 0 to {@code maxCoord}.
+     * @param maxCoord  Largest coordinate expected; larger ones can still be added
+     */
+    public SOCCoordinateSet(final int maxCoord)
+    {
+        words = new long[(Math.max(maxCoord, 0) >> 6) + 1];
+    }
+
+    /**
+     * Create an empty set sized for all node and edge coordinates of a board.
+     * @param board  Board whose coordinates will be in the set
+     */
+    public SOCCoordinateSet(final SOCBoard board)
+    {
+        this((board.getBoardEncodingFormat() == SOCBoard.BOARD_ENCODING_LARGE)
+             ? ((board.getBoardHeight() + 1) << 8) | 0xFF
+             : 0xFF);
+    }
+
+    /**
+     * Create a set containing these coordinates.
+     * @param coords  Coordinates to add; not {@code null}
+     * @throws NullPointerException if {@code coords} is null or contains null
+     * @throws IllegalArgumentException if {@code coords} contains a negative number
+     */
+    public SOCCoordinateSet(final Collection<Integer> coords)
+        throws NullPointerException, IllegalArgumentException
+    {
+        if (coords instanceof SOCCoordinateSet)
+        {
+            final SOCCoordinateSet other = (SOCCoordinateSet) coords;
+            words = other.words.clone();
+            size = other.size;
+        } else {
+            words = new long[4];
+            addAll(coords);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return (size == 0);
+    }
+
+    /**
+     * Is this coordinate in the set?
+     * @param coord  Coordinate to check; negative coordinates are never in the set
+     * @return  true if {@code coord} is in the set
+     */
+    public boolean contains(final int coord)
+    {
+        if (coord < 0)
+            return false;
+
+        final int w = coord >> 6;
+        return (w < words.length) && ((words[w] & (1L << coord)) != 0);
+    }
+
+    @Override
+    public boolean contains(final Object o)
+    {
+        return (o instanceof Integer) && contains(((Integer) o).intValue());
+    }
+
+    /**
+     * Add a coordinate to the set.
+     * @param coord  Coordinate to add
+     * @return  true if {@code coord} wasn't already in the set
+     * @throws IllegalArgumentException if {@code coord} &lt; 0
+     */
+    public boolean add(final int coord)
+        throws IllegalArgumentException
+    {
+        if (coord < 0)
+            throw new IllegalArgumentException("coord: " + coord);
+
+        final int w = coord >> 6;
+        if (w >= words.length)
+            words = Arrays.copyOf(words, Math.max(w + 1, 2 * words.length));
+
+        final long bit = 1L << coord;
+        if ((words[w] & bit) != 0)
+            return false;
+
+        words[w] |= bit;
+        ++size;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws NullPointerException if {@code coord} is null
+     * @throws IllegalArgumentException if {@code coord} &lt; 0
+     */
+    @Override
+    public boolean add(final Integer coord)
+        throws NullPointerException, IllegalArgumentException
+    {
+        return add(coord.intValue());
+    }
+
+    /**
+     * Remove a coordinate from the set, if present.
+     * @param coord  Coordinate to remove
+     * @return  true if {@code coord} was in the set
+     */
+    public boolean remove(final int coord)
+    {
+        if (! contains(coord))
+            return false;
+
+        words[coord >> 6] &= ~(1L << coord);
+        --size;
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object o)
+    {
+        return (o instanceof Integer) && remove(((Integer) o).intValue());
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends Integer> c)
+    {
+        if (! (c instanceof SOCCoordinateSet))
+            return super.addAll(c);
+
+        final long[] other = ((SOCCoordinateSet) c).words;
+        if (other.length > words.length)
+            words = Arrays.copyOf(words, other.length);
+
+        boolean changed = false;
+        for (int w = 0; w < other.length; ++w)
+        {
+            final long added = other[w] & ~words[w];
+            if (added != 0)
+            {
+                words[w] |= added;
+                size += Long.bitCount(added);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(words, 0L);
+        size = 0;
+    }
+
+    /**
+     * Get the smallest coordinate in the set which is at least {@code from}.
+     * @param from  Coordinate to start searching at
+     * @return  That coordinate, or -1 if none
+     */
+    private int nextCoord(final int from)
+    {
+        int w = from >> 6;
+        if (w >= words.length)
+            return -1;
+
+        long bits = words[w] & (-1L << from);
+        while (bits == 0)
+        {
+            if (++w == words.length)
+                return -1;
+            bits = words[w];
+        }
+
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Get the set's coordinates as an array.
+     * @return  the coordinates in ascending order; empty, not {@code null}, if the set is empty
+     */
+    public int[] toIntArray()
+    {
+        final int[] arr = new int[size];
+        for (int i = 0, c = nextCoord(0); c != -1; c = nextCoord(c + 1))
+            arr[i++] = c;
+
+        return arr;
+    }
+
+    @Override
+    public Iterator<Integer> iterator()
+    {
+        return new Iterator<Integer>()
+        {
+            /** Next coordinate to return, or -1 if none */
+            private int next = nextCoord(0);
+
+            /** Coordinate returned by {@link #next()} if it can be removed, or -1 */
+            private int last = -1;
+
+            public boolean hasNext()
+            {
+                return (next != -1);
+            }
+
+            public Integer next()
+            {
+                if (next == -1)
+                    throw new NoSuchElementException();
+
+                last = next;
+                next = nextCoord(next + 1);
+                return Integer.valueOf(last);
+            }
+
+            public void remove()
+            {
+                if (last == -1)
+                    throw new IllegalStateException();
+
+                SOCCoordinateSet.this.remove(last);
+                last = -1;
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Integer> spliterator()
+    {
+        return Spliterators.spliterator(this, Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    @Override
+    public Object[] toArray()
+    {
+        final Object[] arr = new Object[size];
+        int i = 0;
+        for (Integer c : this)
+            arr[i++] = c;
+
+        return arr;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T[] toArray(T[] a)
+    {
+        if (a.length < size)
+            a = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+        int i = 0;
+        for (Integer c : this)
+            a[i++] = (T) c;
+        if (a.length > size)
+            a[size] = null;
+
+        return a;
+    }
+
+    /**
+     * Copy this set; the copy doesn't share any data with this one.
+     * @return  a new {@link SOCCoordinateSet} with the same contents
+     */
+    @Override
+    public Object clone()
+    {
+        return new SOCCoordinateSet(this);
+    }
+
+}
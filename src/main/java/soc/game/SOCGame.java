@@ -43,6 +43,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -750,6 +751,13 @@ public class SOCGame implements Serializable, Cloneable
      */
     public transient Object savedGameModel;
 
+    /**
+     * For games at server, the wall-clock time taken by each turn so far: a {@code SOCTurnPaceStats}.
+     * Null until the first turn is sent.
+     * Declared as Object here to avoid needing server class at client.
+     */
+    public transient Object turnPaceStats;
+
     /**
      * For games at the server, the owner (creator) of the game.
      * Will be the name of a player / server connection.
@@ -971,6 +979,14 @@ public class SOCGame implements Serializable, Cloneable
      */
     private SOCBoard board;
 
+    /**
+     * Seed from which the board layout was made, if it was seeded, for reproducing the layout;
+     * otherwise {@code null}. Set at server in {@link #startGame(int, SOCBoard, long)}.
+     * @see #getBoardLayoutSeed()
+     * @since 2.4.50
+     */
+    private Long boardLayoutSeed;
+
     /**
      * the game options ({@link SOCGameOption}), or null
      * @see #knownOpts
@@ -996,7 +1012,7 @@ public class SOCGame implements Serializable, Cloneable
      *
      * @see #currentPlayerNumber
      */
-    private final SOCPlayer[] players;
+    private SOCPlayer[] players;
 
     /**
      * State of each player number's seat: {@link #OCCUPIED}, {@link #VACANT}, etc.
@@ -1236,7 +1252,7 @@ public class SOCGame implements Serializable, Cloneable
     /**
      * used to generate random numbers
      */
-    private Random rand = new Random();
+    private Random rand = new CopyableRandom();
 
     /**
      * used to track if there were any player subs
@@ -2453,6 +2469,20 @@ public class SOCGame implements Serializable, Cloneable
         return board;
     }
 
+    /**
+     * Get the seed from which this game's board layout was made, if the server seeded it.
+     * Giving the same seed to {@link SOCBoard#setRandomSeed(long)} before {@link SOCBoard#makeNewBoard(SOCGameOptionSet)},
+     * on a new board with the same game options, reproduces the layout.
+     * Is {@code null} at clients, and at the server unless the game was started with
+     * {@link #startGame(int, SOCBoard, long)}.
+     * @return the board layout's seed, or {@code null}
+     * @since 2.4.50
+     */
+    public Long getBoardLayoutSeed()
+    {
+        return boardLayoutSeed;
+    }
+
     /**
      * @return the list of players
      * @see #getPlayer(int)
@@ -3761,12 +3791,7 @@ public class SOCGame implements Serializable, Cloneable
             else if ((pp instanceof SOCSettlement) && isInitialPlacement())
             {
                 // settlements
-                final List<Integer> adjacHexes = board.getAdjacentHexesToNode(coord);
-                final int L = adjacHexes.size();
-                int[] seHexes = new int[L];
-                for (int i = 0; i < L; ++i)
-                    seHexes[i] = adjacHexes.get(i);
-                putPieceCommon_checkFogHexes(seHexes, true);
+                putPieceCommon_checkFogHexes(board.getAdjacentHexesToNode_shared(coord), true);
 
                 // Any settlement might reveal 1-3 fog hexes.
                 // So, the player's revealed getNeedToPickGoldHexResources might be 0 to 3.
@@ -3843,7 +3868,7 @@ public class SOCGame implements Serializable, Cloneable
                 SOCResourceSet resources = new SOCResourceSet();
                 int goldHexAdjacent = 0;
 
-                for (final int hexCoord : board.getAdjacentHexesToNode(coord))
+                for (final int hexCoord : board.getAdjacentHexesToNode_shared(coord))
                 {
                     switch (board.getHexTypeFromCoord(hexCoord))
                     {
@@ -3898,7 +3923,7 @@ public class SOCGame implements Serializable, Cloneable
                  */
                 int[] roads = new int[maxPlayers];
 
-                for (final int adjEdge : board.getAdjacentEdgesToNode(coord))
+                for (final int adjEdge : board.getAdjacentEdgesToNode_shared(coord))
                 {
                     /**
                      * look for other players' roads and ships adjacent to this node
@@ -4631,6 +4656,35 @@ public class SOCGame implements Serializable, Cloneable
      *    instead of the usual calls to {@link SOCBoard#makeNewBoard(SOCGameOptionSet)} etc
      */
     public void startGame(int firstPlayer, boolean loadBoard)
+    {
+        startGame(firstPlayer, loadBoard, null, null);
+    }
+
+    /**
+     * Start the game like {@link #startGame(int, boolean) startGame(firstPlayer, false)},
+     * but with a seeded board layout which may have been made in advance, such as by a server's pool
+     * of layouts. The seed is kept for reproducing the layout: See {@link #getBoardLayoutSeed()}.
+     * @param firstPlayer the player number who will start or -1 if random
+     * @param preparedBoard  Board for this game's options and player count, from the server's board factory,
+     *     already laid out with {@link SOCBoard#makeNewBoard(SOCGameOptionSet)} after
+     *     {@link SOCBoard#setRandomSeed(long) setRandomSeed(seed)}; or {@code null} to seed
+     *     and lay out this game's own board now
+     * @param seed  Board layout's seed
+     * @since 2.4.50
+     */
+    public void startGame(final int firstPlayer, final SOCBoard preparedBoard, final long seed)
+    {
+        startGame(firstPlayer, false, preparedBoard, Long.valueOf(seed));
+    }
+
+    /**
+     * Common code for {@link #startGame(int, boolean)} and {@link #startGame(int, SOCBoard, long)}.
+     * @param preparedBoard  Board already laid out, or {@code null}; ignored if {@code loadBoard}
+     * @param seed  Board layout's seed, or {@code null} if not seeded; ignored if {@code loadBoard}
+     * @since 2.4.50
+     */
+    private void startGame
+        (final int firstPlayer, final boolean loadBoard, final SOCBoard preparedBoard, final Long seed)
     {
         initAtServer();
 
@@ -4648,7 +4702,15 @@ public class SOCGame implements Serializable, Cloneable
 
         	startGame_setupDevCards();
 
-        	board.makeNewBoard(opts);
+            if (preparedBoard != null)
+            {
+                board = preparedBoard;
+            } else {
+                if (seed != null)
+                    board.setRandomSeed(seed);
+                board.makeNewBoard(opts);
+            }
+            boardLayoutSeed = seed;
     	}
 
         if (hasSeaBoard)
@@ -6058,7 +6120,7 @@ public class SOCGame implements Serializable, Cloneable
     {
         for (final SOCPlayingPiece p : pieces)
         {
-            for (final int hexCoord : board.getAdjacentHexesToNode(p.getCoordinates()))
+            for (final int hexCoord : board.getAdjacentHexesToNode_shared(p.getCoordinates()))
             {
                 if ((hexCoord == robberHex) || (board.getNumberOnHexFromCoord(hexCoord) != roll))
                     continue;
@@ -9066,6 +9128,133 @@ public class SOCGame implements Serializable, Cloneable
         return cp;
     }
 
+    /**
+     * Make a snapshot of this game: A copy which can be examined or changed without affecting this game,
+     * like a {@link DeepCopy#copy(Object)} of the game but much faster because it doesn't serialize.
+     * Used at the server to give the robots' {@code dummy} client a copy of the game to simulate.
+     *<P>
+     * Copies the game's, board's and players' mutable state, and each playing piece once,
+     * so that pieces shared between the board and players stay shared in the copy and
+     * refer to the copy's players and board. Immutable or read-only data such as
+     * the board's adjacency tables and the game options is shared with this game.
+     *<P>
+     * Like a serialized copy, the snapshot has no {@link SOCGameEventListener},
+     * {@link #pendingMessagesOut}, {@link #savedGameModel}, {@link #turnPaceStats}
+     * or {@link #boardResetOngoingInfo}. Unlike a serialized copy, it also copies
+     * {@link SOCSpecialItem}s, the robbery result, and pieces' player and board fields.
+     *
+     * @return a copy of this game's current state
+     * @throws IllegalStateException if a field can't be cloned; should not occur
+     * @since 2.4.50
+     */
+    public SOCGame snapshot()
+        throws IllegalStateException
+    {
+        final SOCGame cp;
+        try
+        {
+            cp = (SOCGame) super.clone();
+            if (placingItem != null)
+                cp.placingItem = placingItem.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Internal error, game fields should be cloneable", e);
+        }
+
+        cp.gameEventListener = null;
+        cp.pendingMessagesOut = null;
+        cp.savedGameModel = null;
+        cp.turnPaceStats = null;
+        cp.boardResetOngoingInfo = null;
+
+        if (boardResetVotes != null)
+            cp.boardResetVotes = boardResetVotes.clone();
+        cp.seats = seats.clone();
+        cp.seatLocks = seatLocks.clone();
+        if (devCardDeck != null)
+            cp.devCardDeck = devCardDeck.clone();
+        if (playedDevCards != null)
+            cp.playedDevCards = playedDevCards.clone();
+        cp.rand = copyRandom(rand);
+        if (startTime != null)
+            cp.startTime = (Date) startTime.clone();
+        if (shipsPlacedThisTurn != null)
+            cp.shipsPlacedThisTurn = new Vector<Integer>(shipsPlacedThisTurn);
+        if (speakingQueue != null)
+            cp.speakingQueue = new ArrayList<String>(speakingQueue);
+
+        // players and board first, then their pieces, so pieces can refer to the copies
+        final SnapshotMap map = new SnapshotMap(this);
+        cp.players = map.players;
+        for (int pn = 0; pn < maxPlayers; ++pn)
+            if (players[pn] != null)
+                map.players[pn] = players[pn].copyForSnapshot(cp);
+        if (board != null)
+        {
+            map.board = board.copyForSnapshot();
+            cp.board = map.board;
+            cp.board.copyPiecesForSnapshot(map);
+        }
+        for (int pn = 0; pn < maxPlayers; ++pn)
+            if (players[pn] != null)
+                map.players[pn].copyPiecesForSnapshot(map);
+
+        if (spItems != null)
+            cp.spItems = map.specialItems(spItems);
+
+        if (currentRoll != null)
+        {
+            final RollResult roll = new RollResult();
+            roll.diceA = currentRoll.diceA;
+            roll.diceB = currentRoll.diceB;
+            if (currentRoll.cloth != null)
+                roll.cloth = currentRoll.cloth.clone();
+            if (currentRoll.clothVillages != null)
+                roll.clothVillages = map.pieces(currentRoll.clothVillages, new ArrayList<SOCVillage>());
+            if (currentRoll.sc_robPossibleVictims != null)
+                roll.sc_robPossibleVictims = map.players(currentRoll.sc_robPossibleVictims);
+            roll.sc_piri_fleetAttackVictim = map.player(currentRoll.sc_piri_fleetAttackVictim);
+            if (currentRoll.sc_piri_fleetAttackRsrcs != null)
+                roll.sc_piri_fleetAttackRsrcs = currentRoll.sc_piri_fleetAttackRsrcs.copy();
+            cp.currentRoll = roll;
+        }
+
+        if (robberResult != null)
+        {
+            final SOCMoveRobberResult res = new SOCMoveRobberResult();
+            if (robberResult.victims != null)
+                res.victims = map.players(robberResult.victims);
+            res.loot = robberResult.loot;
+            if (robberResult.sc_piri_loot != null)
+                res.sc_piri_loot = robberResult.sc_piri_loot.copy();
+            cp.robberResult = res;
+        }
+
+        if (oldPlayerWithLongestRoad != null)
+        {
+            cp.oldPlayerWithLongestRoad = new Stack<SOCOldLRStats>();
+            for (final SOCOldLRStats lr : oldPlayerWithLongestRoad)
+                cp.oldPlayerWithLongestRoad.push(lr.copyForSnapshot(map));
+        }
+
+        return cp;
+    }
+
+    /**
+     * Copy a random number generator for {@link #snapshot()}, so the copy
+     * continues the same sequence as the original. Quick for a {@link CopyableRandom},
+     * otherwise such as in a game loaded from an older save, serializes {@code r}.
+     * @param r  Generator to copy, or null
+     * @return  a copy of {@code r}, or null if {@code r} is null
+     * @since 2.4.50
+     */
+    static Random copyRandom(final Random r)
+    {
+        if (r instanceof CopyableRandom)
+            return ((CopyableRandom) r).copy();
+        else
+            return (r != null) ? (Random) DeepCopy.copy(r) : null;
+    }
+
     /**
      * Begin a board-reset vote.
      * The requester is marked as voting yes, and we mark other players as "no vote yet".
@@ -9796,6 +9985,202 @@ public class SOCGame implements Serializable, Cloneable
         CLEAR_ON_RESET
     }
 
+    /**
+     * For {@link SOCGame#snapshot()}, the copy's players and board, and the copies made so far
+     * of the original game's playing pieces and special items. Each piece or item is copied
+     * the first time it's seen, so one that's shared between the board and a player, or between
+     * the game and a player, is still shared in the copy.
+     * @since 2.4.50
+     */
+    static final class SnapshotMap
+    {
+        /** The original game's players, to recognize them in pieces and lists */
+        private final SOCPlayer[] origPlayers;
+
+        /** The original game's board, or null */
+        private final SOCBoard origBoard;
+
+        /** The copy's players, indexed by player number */
+        final SOCPlayer[] players;
+
+        /** The copy's board, or null */
+        SOCBoard board;
+
+        /** Copies of pieces and special items, keyed by the original object */
+        private final IdentityHashMap<Object, Object> copies = new IdentityHashMap<Object, Object>();
+
+        SnapshotMap(final SOCGame orig)
+        {
+            origPlayers = orig.players;
+            origBoard = orig.board;
+            players = new SOCPlayer[orig.players.length];
+        }
+
+        /**
+         * Get the copy of one of the original game's players.
+         * @param pl  A player, or null
+         * @return  the copy of {@code pl}, or {@code pl} itself if it's null or not one of the original's players
+         */
+        SOCPlayer player(final SOCPlayer pl)
+        {
+            if (pl == null)
+                return null;
+            final int pn = pl.getPlayerNumber();
+            return ((pn >= 0) && (pn < origPlayers.length) && (origPlayers[pn] == pl)) ? players[pn] : pl;
+        }
+
+        /**
+         * Copy a list of players.
+         * @param pls  A list of the original game's players; not null, may contain nulls
+         * @return a new list of the copy's players
+         */
+        List<SOCPlayer> players(final List<SOCPlayer> pls)
+        {
+            final List<SOCPlayer> cp = new ArrayList<SOCPlayer>(pls.size());
+            for (final SOCPlayer pl : pls)
+                cp.add(player(pl));
+            return cp;
+        }
+
+        /**
+         * Get the copy of a board, for a playing piece.
+         * @param b  A board, or null
+         * @return  the copy's board if {@code b} is the original's, otherwise {@code b}
+         */
+        SOCBoard board(final SOCBoard b)
+        {
+            return ((b == origBoard) && (b != null)) ? board : b;
+        }
+
+        /**
+         * Get the copy of a playing piece, copying it if this is the first time it's seen.
+         * @param pp  A piece, or null
+         * @return  the copy of {@code pp}, or null
+         */
+        @SuppressWarnings("unchecked")
+        <T extends SOCPlayingPiece> T piece(final T pp)
+        {
+            if (pp == null)
+                return null;
+            Object c = copies.get(pp);
+            if (c == null)
+            {
+                c = pp.copyForSnapshot(this);
+                copies.put(pp, c);
+            }
+            return (T) c;
+        }
+
+        /**
+         * Add the copies of some playing pieces to a list.
+         * @param from  Pieces to copy; not null, may contain nulls
+         * @param to  List to add copies to
+         * @return {@code to}
+         */
+        <T extends SOCPlayingPiece, L extends List<T>> L pieces(final Collection<T> from, final L to)
+        {
+            for (final T pp : from)
+                to.add(piece(pp));
+            return to;
+        }
+
+        /**
+         * Get the copy of a special item, copying it if this is the first time it's seen.
+         * @param si  An item, or null
+         * @return  the copy of {@code si}, whose player is the copy's, or null
+         */
+        SOCSpecialItem specialItem(final SOCSpecialItem si)
+        {
+            if (si == null)
+                return null;
+            SOCSpecialItem c = (SOCSpecialItem) copies.get(si);
+            if (c == null)
+            {
+                try
+                {
+                    c = si.clone();
+                } catch (CloneNotSupportedException e) {
+                    throw new IllegalStateException("Internal error, special items should be cloneable", e);
+                }
+                c.setPlayer(player(si.getPlayer()));
+                copies.put(si, c);
+            }
+            return c;
+        }
+
+        /**
+         * Copy a game's or player's special items.
+         * @param items  Special item lists, keyed by game option; not null, lists may contain nulls
+         * @return a new map of copied lists
+         */
+        HashMap<String, ArrayList<SOCSpecialItem>> specialItems(final Map<String, ArrayList<SOCSpecialItem>> items)
+        {
+            final HashMap<String, ArrayList<SOCSpecialItem>> cp = new HashMap<String, ArrayList<SOCSpecialItem>>();
+            for (final Map.Entry<String, ArrayList<SOCSpecialItem>> ent : items.entrySet())
+            {
+                final ArrayList<SOCSpecialItem> li = ent.getValue();
+                ArrayList<SOCSpecialItem> cpLi = null;
+                if (li != null)
+                {
+                    cpLi = new ArrayList<SOCSpecialItem>(li.size());
+                    for (final SOCSpecialItem si : li)
+                        cpLi.add(specialItem(si));
+                }
+                cp.put(ent.getKey(), cpLi);
+            }
+            return cp;
+        }
+
+    }  // nested class SnapshotMap
+
+    /**
+     * A {@link Random} whose state can be copied quickly for {@link SOCGame#snapshot()},
+     * instead of serializing it. Uses the same algorithm as {@code java.util.Random}
+     * and gives the same sequence for the same seed.
+     * The copy doesn't include {@link Random#nextGaussian()}'s saved value, which the game doesn't use.
+     * @since 2.4.50
+     */
+    static final class CopyableRandom extends Random
+    {
+        private static final long serialVersionUID = 2450L;
+
+        private static final long MULTIPLIER = 0x5DEECE66DL, ADDEND = 0xBL, MASK = (1L << 48) - 1;
+
+        /** Current seed; set by {@link #setSeed(long)}, which {@link Random}'s constructor calls */
+        private long seed;
+
+        CopyableRandom()
+        {
+            super();
+        }
+
+        CopyableRandom(final long seed)
+        {
+            super(seed);
+        }
+
+        @Override
+        public synchronized void setSeed(final long seed)
+        {
+            super.setSeed(seed);
+            this.seed = (seed ^ MULTIPLIER) & MASK;
+        }
+
+        @Override
+        protected synchronized int next(final int bits)
+        {
+            seed = (seed * MULTIPLIER + ADDEND) & MASK;
+            return (int) (seed >>> (48 - bits));
+        }
+
+        /** Copy this generator; the copy continues the same sequence. */
+        synchronized CopyableRandom copy()
+        {
+            return new CopyableRandom(seed ^ MULTIPLIER);  // setSeed will scramble it back to seed
+        }
+
+    }  // nested class CopyableRandom
+
     /**
      * Dice roll result, for reporting from {@link SOCGame#rollDice()}.
      * Each game has 1 instance of this object, which is updated each turn.
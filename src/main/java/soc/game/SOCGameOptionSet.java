@@ -19,6 +19,7 @@
  **/
 package soc.game;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -82,8 +83,10 @@ import static soc.game.SOCGameOption.FLAG_DROP_IF_UNUSED;  // for convenience in
  * @since 2.4.50
  */
 public class SOCGameOptionSet
-    implements Iterable<SOCGameOption>
+    implements Iterable<SOCGameOption>, Serializable
 {
+    /** Serializable as part of {@link SOCGame}, whose snapshots are saved and copied with {@code DeepCopy} */
+    private static final long serialVersionUID = 2450L;
 
     // Some game option keynames, for convenient reference in code and javadocs:
 
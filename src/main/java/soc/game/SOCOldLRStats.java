@@ -65,6 +65,27 @@ import soc.disableDebug.D;
         }
     }
 
+    /**
+     * Copy constructor for {@link #copyForSnapshot(SOCGame.SnapshotMap)}.
+     * @since 2.4.50
+     */
+    private SOCOldLRStats(final SOCOldLRStats old, final SOCGame.SnapshotMap map)
+    {
+        lrLengths = old.lrLengths.clone();
+        playerWithLR = map.player(old.playerWithLR);
+    }
+
+    /**
+     * Copy these stats for {@link SOCGame#snapshot()}.
+     * @param map  The snapshot's copied players
+     * @return  a copy of these stats, referring to the snapshot's players
+     * @since 2.4.50
+     */
+    SOCOldLRStats copyForSnapshot(final SOCGame.SnapshotMap map)
+    {
+        return new SOCOldLRStats(this, map);
+    }
+
     /**
      * Restores the old LR stats within game state, from this object's saved data,
      * after removing a temporary piece.
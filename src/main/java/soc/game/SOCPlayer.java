@@ -26,7 +26,6 @@ import soc.disableDebug.D;
 
 import soc.message.SOCMessage;
 import soc.util.IntPair;
-import soc.util.NodeLenVis;
 
 import java.io.Serializable;
 
@@ -36,10 +35,9 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 import java.util.Vector;
 
 
@@ -235,7 +233,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * List of longest road / longest trade-route paths.
      * Is empty (not null) if {@link SOCGameOptionSet#K_SC_0RVP} is set.
      */
-    private final Vector<SOCLRPathData> lrPaths;
+    private Vector<SOCLRPathData> lrPaths;
 
     /**
      * how many of each resource this player has
@@ -421,7 +419,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * and {@link SOCGame#startGame()}, because the board layout and legal settlements
      * vary from game to game.
      */
-    private HashSet<Integer> legalRoads;
+    private SOCCoordinateSet legalRoads;
 
     /**
      * The set of nodes where it's legal to place a settlement;
@@ -430,7 +428,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * @see #potentialSettlements
      * @see SOCBoard#nodesOnLand
      */
-    private HashSet<Integer> legalSettlements;
+    private SOCCoordinateSet legalSettlements;
 
     /**
      * The most recently added node from {@link #addLegalSettlement(int, boolean)}, or 0.
@@ -450,7 +448,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * @see #legalShipsRestricted
      * @since 2.0.00
      */
-    private HashSet<Integer> legalShips;
+    private SOCCoordinateSet legalShips;
 
     /**
      * A list of edges if the legal sea edges for ships are restricted
@@ -463,7 +461,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      *
      * @since 2.0.00
      */
-    private HashSet<Integer> legalShipsRestricted;
+    private SOCCoordinateSet legalShipsRestricted;
 
     /**
      * a set of edges where a road could be placed
@@ -473,7 +471,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * {@link #updatePotentials(SOCPlayingPiece)}.
      * Elements are set false when a road or ship is placed on their edge.
      */
-    private HashSet<Integer> potentialRoads;
+    private SOCCoordinateSet potentialRoads;
 
     /**
      * a set of nodes where a settlement could be
@@ -483,14 +481,15 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * and then re-set via {@link #updatePotentials(SOCPlayingPiece) updatePotentials(SOCRoad)}.
      * Placing a settlement will clear its node and adjacent nodes.
      *<P>
-     * Key = node coordinate, as {@link Integer}.
-     * If {@link HashSet#contains(Object) potentialSettlements.contains(Integer.valueOf(nodeCoord))},
+     * If {@link SOCCoordinateSet#contains(int) potentialSettlements.contains(nodeCoord)},
      * then this is a potential settlement.
+     *<P>
+     * Like the other legal and potential sets, before v2.4.50 this was a {@code HashSet<Integer>}.
      * @see #legalSettlements
      * @see #setPotentialAndLegalSettlements(Collection, boolean, HashSet[])
      * @see SOCBoard#nodesOnLand
      */
-    private HashSet<Integer> potentialSettlements;
+    private SOCCoordinateSet potentialSettlements;
 
     /**
      * a set of nodes where a city could be
@@ -503,7 +502,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * because we use {@link #legalSettlements} before placing a settlement,
      * and settlements can always become cities.
      */
-    private HashSet<Integer> potentialCities;
+    private SOCCoordinateSet potentialCities;
 
     /**
      * a set of edges where a ship could be placed
@@ -517,7 +516,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * this set is empty but non-null.
      * @since 2.0.00
      */
-    private HashSet<Integer> potentialShips;
+    private SOCCoordinateSet potentialShips;
 
     /**
      * True if board has fog hexes, {@link #potentialSettlements} has some nodes on
@@ -778,16 +777,16 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         /**
          * init legal and potential arrays
          */
-        legalRoads = new HashSet<Integer>(player.legalRoads);
-        legalSettlements = new HashSet<Integer>(player.legalSettlements);
-        legalShips = new HashSet<Integer>(player.legalShips);
-        potentialRoads = new HashSet<Integer>(player.potentialRoads);
-        potentialSettlements = new HashSet<Integer>(player.potentialSettlements);
-        potentialCities = new HashSet<Integer>(player.potentialCities);
-        potentialShips = new HashSet<Integer>(player.potentialShips);
+        legalRoads = new SOCCoordinateSet(player.legalRoads);
+        legalSettlements = new SOCCoordinateSet(player.legalSettlements);
+        legalShips = new SOCCoordinateSet(player.legalShips);
+        potentialRoads = new SOCCoordinateSet(player.potentialRoads);
+        potentialSettlements = new SOCCoordinateSet(player.potentialSettlements);
+        potentialCities = new SOCCoordinateSet(player.potentialCities);
+        potentialShips = new SOCCoordinateSet(player.potentialShips);
         addedLegalSettlement = player.addedLegalSettlement;
         if (player.legalShipsRestricted != null)
-            legalShipsRestricted = new HashSet<Integer>(player.legalShipsRestricted);
+            legalShipsRestricted = new SOCCoordinateSet(player.legalShipsRestricted);
 
         if (player.currentOffer != null)
         {
@@ -804,6 +803,97 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         startingLandArea2 = player.startingLandArea2;
     }
 
+    /**
+     * Copy this player for {@link SOCGame#snapshot()}: Copies the resources, inventory, legal and potential
+     * placements, and other mutable state; {@link SOCLRPathData} and {@link SpecialVPInfo} are immutable and shared.
+     * The copy's pieces and special items are still this player's until
+     * {@link #copyPiecesForSnapshot(SOCGame.SnapshotMap)} is called.
+     * Unlike {@link #SOCPlayer(SOCPlayer, String)}, the copy is part of game {@code ga}.
+     * @param ga  The snapshot game
+     * @return a copy of this player
+     * @throws IllegalStateException if clone fails; should not occur
+     * @since 2.4.50
+     */
+    SOCPlayer copyForSnapshot(final SOCGame ga)
+        throws IllegalStateException
+    {
+        final SOCPlayer cp;
+        try
+        {
+            cp = (SOCPlayer) clone();
+            if (inventory != null)
+                cp.inventory = new SOCInventory(inventory);
+        }
+        catch (CloneNotSupportedException e)
+        {
+            throw new IllegalStateException("Internal error, player fields should be cloneable", e);
+        }
+
+        cp.game = ga;
+        cp.pendingMessagesOut = null;
+        cp.numPieces = numPieces.clone();
+        cp.lrPaths = new Vector<SOCLRPathData>(lrPaths);
+        cp.resources = resources.copy();
+        cp.rolledResources = rolledResources.copy();
+        if (lastActionBankTrade_give != null)
+            cp.lastActionBankTrade_give = lastActionBankTrade_give.copy();
+        if (lastActionBankTrade_get != null)
+            cp.lastActionBankTrade_get = lastActionBankTrade_get.copy();
+        cp.resourceStats = resourceStats.clone();
+        if (devCardsPlayed != null)
+            cp.devCardsPlayed = new ArrayList<>(devCardsPlayed);
+        if (svpInfo != null)
+            cp.svpInfo = new ArrayList<>(svpInfo);
+        cp.ports = ports.clone();
+        if (currentOffer != null)
+            cp.currentOffer = new SOCTradeOffer(currentOffer);
+        if (ourNumbers != null)
+            cp.ourNumbers = new SOCPlayerNumbers(ourNumbers);
+
+        if (roadNodes != null)
+            cp.roadNodes = new Vector<Integer>(roadNodes);
+        if (roadNodeGraph != null)
+        {
+            cp.roadNodeGraph = new Hashtable<Integer,int[]>((int) (roadNodeGraph.size() * 1.4f) + 1);
+            for (Map.Entry<Integer, int[]> ent : roadNodeGraph.entrySet())
+                cp.roadNodeGraph.put(ent.getKey(), ent.getValue().clone());
+        }
+
+        cp.legalRoads = copyCoordinateSet(legalRoads);
+        cp.legalSettlements = copyCoordinateSet(legalSettlements);
+        cp.legalShips = copyCoordinateSet(legalShips);
+        cp.legalShipsRestricted = copyCoordinateSet(legalShipsRestricted);
+        cp.potentialRoads = copyCoordinateSet(potentialRoads);
+        cp.potentialSettlements = copyCoordinateSet(potentialSettlements);
+        cp.potentialCities = copyCoordinateSet(potentialCities);
+        cp.potentialShips = copyCoordinateSet(potentialShips);
+
+        return cp;
+    }
+
+    /** Null-safe copy of a coordinate set, for {@link #copyForSnapshot(SOCGame)}. */
+    private static SOCCoordinateSet copyCoordinateSet(final SOCCoordinateSet set)
+    {
+        return (set != null) ? new SOCCoordinateSet(set) : null;
+    }
+
+    /**
+     * For {@link SOCGame#snapshot()}, replace this copied player's pieces and special items with the snapshot's copies.
+     * @param map  The snapshot's copied players, board, and pieces
+     * @since 2.4.50
+     */
+    void copyPiecesForSnapshot(final SOCGame.SnapshotMap map)
+    {
+        pieces = map.pieces(pieces, new Vector<SOCPlayingPiece>(pieces.size() + 10));
+        roadsAndShips = map.pieces(roadsAndShips, new Vector<SOCRoutePiece>(roadsAndShips.size() + 10));
+        settlements = map.pieces(settlements, new Vector<SOCSettlement>(settlements.size() + 5));
+        cities = map.pieces(cities, new Vector<SOCCity>(cities.size() + 5));
+        fortress = map.piece(fortress);
+        isTradeRouteFarEndClosed_foundVillage = map.piece(isTradeRouteFarEndClosed_foundVillage);
+        if (spItems != null)
+            spItems = map.specialItems(spItems);
+    }
+
     /**
      * Create a new player for a new empty board.
      *<P>
@@ -885,21 +975,21 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
          * If game.hasSeaBoard, these are initialized later, after board.makeNewBoard
          * and game.startGame, because the layout varies from game to game.
          */
-        potentialRoads = new HashSet<Integer>();
-        potentialCities = new HashSet<Integer>();
-        potentialShips = new HashSet<Integer>();
+        potentialRoads = new SOCCoordinateSet(board);
+        potentialCities = new SOCCoordinateSet(board);
+        potentialShips = new SOCCoordinateSet(board);
 
         if (! game.hasSeaBoard)
         {
-            legalRoads = board.initPlayerLegalRoads();
-            legalSettlements = board.initPlayerLegalSettlements();
-            legalShips = new HashSet<Integer>();  // will remain empty
-            potentialSettlements = new HashSet<Integer>(legalSettlements);
+            legalRoads = new SOCCoordinateSet(board.initPlayerLegalRoads());
+            legalSettlements = new SOCCoordinateSet(board.initPlayerLegalSettlements());
+            legalShips = new SOCCoordinateSet(board);  // will remain empty
+            potentialSettlements = new SOCCoordinateSet(legalSettlements);
         } else {
-            legalRoads = new HashSet<Integer>();
-            legalSettlements = new HashSet<Integer>();
-            legalShips = new HashSet<Integer>();
-            potentialSettlements = new HashSet<Integer>();
+            legalRoads = new SOCCoordinateSet(board);
+            legalSettlements = new SOCCoordinateSet(board);
+            legalShips = new SOCCoordinateSet(board);
+            potentialSettlements = new SOCCoordinateSet(board);
         }
 
         currentOffer = null;
@@ -2967,15 +3057,15 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         /**
          * add the nodes that this road or ship touches to the roadNodes list
          */
-        Collection<Integer> nodes = board.getAdjacentNodesToEdge(piece.getCoordinates());
         int[] nodeCoords = new int[2];
         int i = 0;
 
-        for (Integer node : nodes)
+        for (final int nodeCoord : board.getAdjacentNodesToEdge_shared(piece.getCoordinates()))
         {
-            //D.ebugPrintln("^^^ node = "+Integer.toHexString(node.intValue()));
-            nodeCoords[i] = node.intValue();
+            //D.ebugPrintln("^^^ node = "+Integer.toHexString(nodeCoord));
+            nodeCoords[i] = nodeCoord;
             i++;
+            final Integer node = Integer.valueOf(nodeCoord);
 
             /**
              * only add nodes that aren't in the list
@@ -3347,14 +3437,12 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                 // on our roads/ships that are adjacent to
                 // this edge
                 //
-                List<Integer> adjEdges = board.getAdjacentEdgesToEdge(pieceCoord);
+                final int[] adjEdges = board.getAdjacentEdgesToEdge_shared(pieceCoord);
 
                 for (SOCRoutePiece rs : roadsAndShips)
                 {
-                    for (Integer edgeObj : adjEdges)
+                    for (final int edge : adjEdges)
                     {
-                        final int edge = edgeObj.intValue();
-
                         if (rs.getCoordinates() == edge)
                             updatePotentials(rs);
                     }
@@ -3390,7 +3478,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             //
             // check adjacent nodes
             //
-            for (final int adjNode : board.getAdjacentNodesToNode(pieceCoord))
+            for (final int adjNode : board.getAdjacentNodesToNode_shared(pieceCoord))
             {
                 undoPutPieceAuxSettlement(adjNode);
             }
@@ -3442,7 +3530,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         //
         boolean haveNeighbor = false;
         SOCBoard board = game.getBoard();
-        final List<Integer> adjNodes = board.getAdjacentNodesToNode(settlementNode);
+        final int[] adjNodes = board.getAdjacentNodesToNode_shared(settlementNode);
 
         for (SOCSettlement settlement : board.getSettlements())
         {
@@ -3512,7 +3600,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                         //
                         //D.ebugPrintln(")))) checking for adjacent roads");
                         boolean adjRoad = false;
-                        final List<Integer> adjEdges = board.getAdjacentEdgesToNode(settlementNode);
+                        final int[] adjEdges = board.getAdjacentEdgesToNode_shared(settlementNode);
 
                         for (SOCRoutePiece rs : roadsAndShips)
                         {
@@ -3637,18 +3725,17 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                      * remove the nodes this road/ship touches from the roadNodes list
                      */
                     {
-                        Collection<Integer> nodes = board.getAdjacentNodesToEdge(pieceCoord);
                         int i = 0;
 
-                        for (final Integer nodeInt : nodes)
+                        for (final int node : board.getAdjacentNodesToEdge_shared(pieceCoord))
                         {
-                            edgeNodeCoords[i] = nodeInt.intValue();
+                            edgeNodeCoords[i] = node;
                             i++;
 
                             /**
                              * only remove a node if none of our roads/ships are touching it
                              */
-                            final Collection<Integer> adjEdges = board.getAdjacentEdgesToNode(nodeInt.intValue());
+                            final int[] adjEdges = board.getAdjacentEdgesToNode_shared(node);
                             boolean match = false;
 
                             for (SOCRoutePiece rs : roadsAndShips)
@@ -3672,6 +3759,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
                             if (! match)
                             {
+                                final Integer nodeInt = Integer.valueOf(node);
                                 roadNodes.removeElement(nodeInt);
                                 potentialSettlements.remove(nodeInt);
                             }
@@ -3795,7 +3883,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
                             if (! blocked)
                             {
-                                for (final int adjAdjEdge : board.getAdjacentEdgesToNode(adjNode))
+                                for (final int adjAdjEdge : board.getAdjacentEdgesToNode_shared(adjNode))
                                 {
                                     if (adjAdjEdge != adjEdgeID)
                                     {
@@ -4298,15 +4386,10 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public int[] getPotentialSettlements_arr()
     {
-        int L = potentialSettlements.size();
-        if (L == 0)
+        if (potentialSettlements.isEmpty())
             return null;
 
-        int[] pset = new int[L];
-        Iterator<Integer> it = potentialSettlements.iterator();
-        for (int i = 0; it.hasNext(); ++i)
-            pset[i] = it.next().intValue();
-        return pset;
+        return potentialSettlements.toIntArray();
     }
 
     /**
@@ -4378,11 +4461,11 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             else
                 legalSettlements.addAll(board.getLegalSettlements());
 
-            legalRoads = game.getBoard().initPlayerLegalRoads();
+            legalRoads = new SOCCoordinateSet(game.getBoard().initPlayerLegalRoads());
             if (! (board.getLandHexCoordsSet().isEmpty()))
             {
                 if (! game.isGameOptionSet(SOCGameOptionSet.K_SC_PIRI))
-                    legalShips = board.initPlayerLegalShips();
+                    legalShips = new SOCCoordinateSet(board.initPlayerLegalShips());
                 else
                     legalShips.clear();  // SC_PIRI: caller must soon call setRestrictedLegalShips
             }
@@ -4455,7 +4538,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                     return;  // <--- Early return: adjacent settlement/city found ---
         }
 
-        legalSettlements.add(Integer.valueOf(node));
+        legalSettlements.add(node);
         addedLegalSettlement = node;
     }
 
@@ -4497,7 +4580,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isPotentialSettlement(final int node)
     {
-        return potentialSettlements.contains(Integer.valueOf(node));
+        return potentialSettlements.contains(node);
     }
 
     /**
@@ -4510,7 +4593,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public void clearPotentialSettlement(final int node)
     {
-        potentialSettlements.remove(Integer.valueOf(node));
+        potentialSettlements.remove(node);
     }
 
     /**
@@ -4522,7 +4605,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isLegalSettlement(final int node)
     {
-        return legalSettlements.contains(Integer.valueOf(node));
+        return legalSettlements.contains(node);
     }
 
     /**
@@ -4548,7 +4631,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isPotentialCity(final int node)
     {
-        return potentialCities.contains(Integer.valueOf(node));
+        return potentialCities.contains(node);
     }
 
     /**
@@ -4561,7 +4644,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public void clearPotentialCity(final int node)
     {
-        potentialCities.remove(Integer.valueOf(node));
+        potentialCities.remove(node);
     }
 
     /**
@@ -4576,7 +4659,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
     {
         if (edge == -1)
             edge = 0x00;
-        return potentialRoads.contains(Integer.valueOf(edge));
+        return potentialRoads.contains(edge);
     }
 
     /**
@@ -4591,7 +4674,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
     {
         if (edge == -1)
             edge = 0x00;
-        potentialRoads.remove(Integer.valueOf(edge));
+        potentialRoads.remove(edge);
     }
 
     /**
@@ -4605,7 +4688,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             edge = 0x00;
         else if (edge < 0)
             return false;
-        return legalRoads.contains(Integer.valueOf(edge));
+        return legalRoads.contains(edge);
     }
 
     /**
@@ -4641,13 +4724,13 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isPotentialShipMoveTo(final int toEdge, final int fromEdge)
     {
-        if (! potentialShips.contains(Integer.valueOf(toEdge)))
+        if (! potentialShips.contains(toEdge))
         {
             if (game.isGameOptionSet(SOCGameOptionSet.K_SC_PIRI)
                 && (null != legalShipsRestricted))
             {
                 if ((getRoadOrShip(toEdge) != null)
-                    || ! legalShipsRestricted.contains(Integer.valueOf(toEdge)))
+                    || ! legalShipsRestricted.contains(toEdge))
                     return false;
 
                 // Continue checks below. New edge must be adjacent to a current ship or settlement/city
@@ -4696,7 +4779,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isPotentialShip(int edge)
     {
-        return potentialShips.contains(Integer.valueOf(edge));
+        return potentialShips.contains(edge);
     }
 
     /**
@@ -4709,7 +4792,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public void clearPotentialShip(int edge)
     {
-        potentialShips.remove(Integer.valueOf(edge));
+        potentialShips.remove(edge);
     }
 
     /**
@@ -4724,7 +4807,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         if (edge < 0)
             return false;
 
-        return legalShips.contains(Integer.valueOf(edge));
+        return legalShips.contains(edge);
     }
 
     /**
@@ -4776,10 +4859,10 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             return;
         }
 
-        HashSet<Integer> lse = legalShipsRestricted;  // local reference for brevity
+        SOCCoordinateSet lse = legalShipsRestricted;  // local reference for brevity
         if (lse == null)
         {
-            lse = new HashSet<Integer>();
+            lse = new SOCCoordinateSet(game.getBoard());
             legalShipsRestricted = lse;
         }
 
@@ -4788,7 +4871,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             int edge = edgeList[i];
             if (edge > 0)
             {
-                lse.add(Integer.valueOf(edge));
+                lse.add(edge);
             } else {
                 // Represents a range from previous element to current.
                 // Previous was added in the previous iteration.
@@ -4797,7 +4880,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                   = (0 == (edge & 0x100)) ? 1 : 2;
 
                 for (int ed = edgeList[i-1] + incr; ed <= edge; ed += incr)
-                    lse.add(Integer.valueOf(ed));
+                    lse.add(ed);
             }
         }
 
@@ -4922,217 +5005,206 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
     /**
      * Calculates the longest road / longest trade route for this player
+     *<P>
+     * Does a depth-first search from each of {@link #getRoadNodes()}, visiting adjacent nodes
+     * in the same order as the older search which copied a vector of visited node pairs at each step,
+     * so {@link #getLRPaths()} gets the same paths. Instead of those copies, this search indexes the
+     * player's road and ship edges and keeps a single visited bitmask, which is cleared again
+     * while backing out of each node; the current path is kept in primitive arrays.
      *
      * @return the length of the longest road for this player
      */
     public int calcLongestRoad2()
     {
-        //Date startTime = new Date();
         //
         // clear the lr paths vector so that we have an accurate
         // representation.  if someone cut our longest path in two
         // we won't catch it unless we clear the vector
         //
-        //D.ebugPrintln("CLEARING PATH DATA");
         lrPaths.removeAllElements();
 
         /**
-         * we're doing a depth first search of all possible road paths.
          * For similar code, see soc.robot.SOCRobotDM.recalcLongestRoadETAAux.
-         * Both methods rely on a stack holding NodeLenVis (pop to curNode in loop);
-         * they differ in actual element type within the stack because they are
-         * gathering slightly different results (length or a stack of edges).
          */
-        SOCBoard board = game.getBoard();
-        Stack<NodeLenVis<IntPair>> pending = new Stack<NodeLenVis<IntPair>>();
+        final SOCBoard board = game.getBoard();
+
+        // Edge index: bit number of each of our road/ship edges
+        final int edgeCount = roadsAndShips.size();
+        final int[] edges = new int[edgeCount];
+        final boolean[] edgeIsRoad = new boolean[edgeCount];
+        for (int i = 0; i < edgeCount; ++i)
+        {
+            final SOCRoutePiece rs = roadsAndShips.get(i);
+            edges[i] = rs.getCoordinates();
+            edgeIsRoad[i] = rs.isRoadNotShip();
+        }
+        final long[] visited = new long[(edgeCount + 63) >>> 6];
+
+        // Current path; a path can't be longer than edgeCount.
+        // At depth d, pathNode[d] was reached through edge bit pathEdge[d] from pathNode[d-1].
+        final int[] pathNode = new int[edgeCount + 1];
+        final int[] pathEdge = new int[edgeCount + 1];
+        final int[][] pathAdjac = new int[edgeCount + 1][];
+        final int[] pathNextAdjac = new int[edgeCount + 1];
+        final boolean[] pathHasNext = new boolean[edgeCount + 1];
+        final boolean[] pathAtSettlement = new boolean[edgeCount + 1];
+
+        // edge masks of lrPaths' elements, to check them for intersection with a new path
+        final List<long[]> lrPathsVisited = new ArrayList<long[]>();
+
         int longest = 0;
 
         for (Integer rn : roadNodes)
         {
             final int pathStartNodeCoord = rn.intValue();
-            pending.push(new NodeLenVis<IntPair>(pathStartNodeCoord, 0, new Vector<IntPair>()));
+            pathNode[0] = pathStartNodeCoord;
+            pathEdge[0] = -1;
+            pathAdjac[0] = null;
+            int len = 0;
 
-            while (! pending.isEmpty())
+            while (len >= 0)
             {
-                NodeLenVis<IntPair> curNode = pending.pop();
-                final int coord = curNode.node;
-                final int len = curNode.len;
-                Vector<IntPair> visited = curNode.vis;
+                final int coord = pathNode[len];
                 boolean pathEnd = false;
-                final SOCPlayingPiece settlementAtNodeCoord;
 
-                /**
-                 * check for road blocks
-                 */
-                if (len > 0)
+                if (pathAdjac[len] == null)
                 {
-                    settlementAtNodeCoord = board.settlementAtNode(coord);
-                    if ((settlementAtNodeCoord != null)
-                        && (settlementAtNodeCoord.getPlayerNumber() != playerNumber))
+                    // arriving at this node: check for road blocks
+                    pathHasNext[len] = false;
+                    pathNextAdjac[len] = 0;
+                    if (len > 0)
                     {
-                        pathEnd = true;
-
-                        //D.ebugPrintln("^^^ path end at "+Integer.toHexString(coord));
+                        final SOCPlayingPiece settlementAtNodeCoord = board.settlementAtNode(coord);
+                        pathAtSettlement[len] = (settlementAtNodeCoord != null);
+                        if ((settlementAtNodeCoord != null)
+                            && (settlementAtNodeCoord.getPlayerNumber() != playerNumber))
+                            pathEnd = true;
+                    } else {
+                        pathAtSettlement[len] = false;
                     }
-                } else {
-                    settlementAtNodeCoord = null;
+
+                    pathAdjac[len] = (pathEnd) ? new int[0] : board.getAdjacentNodesToNode_arr(coord);
                 }
 
-                if (! pathEnd)
+                /**
+                 * Check if this road path continues to the next adjacent connected node.
+                 */
+                final int[] adjacNodes = pathAdjac[len];
+                int next = -1, nextEdge = -1;
+                while ((next == -1) && (pathNextAdjac[len] < adjacNodes.length))
                 {
-                    /**
-                     * Check if this road path continues to adjacent connected nodes.
-                     */
-
-                    pathEnd = true;  // may be set false in loop
-
-                    final int[] adjacNodes = board.getAdjacentNodesToNode_arr(coord);
-                    for (int ni = adjacNodes.length - 1; ni>=0; --ni)
-                    {
-                        final int j = adjacNodes[ni];
-                        if (j == -9)
-                            continue;
-
-                        if (isConnectedByRoad(coord, j))
-                        {
-                            final SOCRoutePiece rsFromNode;  // sea board: road/ship from node to j
-
-                            if (game.hasSeaBoard)
-                            {
-                                // Check for road<->ship transitions,
-                                // which require a settlement/city at node.
-                                // If len==0, inboundRoad is null because we're just starting.
-
-                                rsFromNode =
-                                    getRoadOrShip(board.getEdgeBetweenAdjacentNodes(coord, j));
-                                if (len > 0)
-                                {
-                                    if (rsFromNode == null)  // shouldn't happen
-                                        continue;
+                    final int j = adjacNodes[pathNextAdjac[len]];
+                    ++pathNextAdjac[len];
+                    if ((j == -9) || ! isConnectedByRoad(coord, j))
+                        continue;
 
-                                    if ((rsFromNode.isRoadNotShip() != curNode.inboundRS.isRoadNotShip())
-                                        && (settlementAtNodeCoord == null))
-                                    {
-                                        continue;  // Requires settlement/city to connect road to ship
-                                            // (if settlementAtNodeCoord not null, its ownership was already checked)
-                                    }
-                                }
-                            } else {
-                                rsFromNode = null;
-                            }
+                    final int ei = indexOf(edges, board.getEdgeBetweenAdjacentNodes(coord, j));
+                    if (ei == -1)
+                        continue;  // shouldn't happen
+                    if ((visited[ei >>> 6] & (1L << ei)) != 0)
+                        continue;
 
-                            IntPair pair = new IntPair(coord, j);
-                            boolean match = false;
+                    if (game.hasSeaBoard && (len > 0)
+                        && (edgeIsRoad[ei] != edgeIsRoad[pathEdge[len]])
+                        && ! pathAtSettlement[len])
+                        continue;  // Requires settlement/city to connect road to ship
+                            // (if there is one at coord, its ownership was already checked)
 
-                            for (IntPair vis : visited)
-                            {
-                                if (vis.equals(pair))
-                                {
-                                    match = true;
-                                    break;
-                                }
-                            }
+                    next = j;
+                    nextEdge = ei;
+                }
 
-                            if (! match)
-                            {
-                                Vector<IntPair> newVis = new Vector<IntPair>(visited);
-                                newVis.addElement(pair);
-                                pending.push(new NodeLenVis<IntPair>(j, len + 1, newVis, rsFromNode));
-                                pathEnd = false;
-                            }
-                        }
-                    }  // foreach(adjacNodes)
+                if (next != -1)
+                {
+                    pathHasNext[len] = true;
+                    visited[nextEdge >>> 6] |= (1L << nextEdge);
+                    ++len;
+                    pathNode[len] = next;
+                    pathEdge[len] = nextEdge;
+                    pathAdjac[len] = null;
+                    continue;
                 }
 
-                if (pathEnd)
+                // done with this node; back out of it
+                if (! pathHasNext[len])
                 {
                     if (len > longest)
-                    {
                         longest = len;
-                    }
 
                     //
                     // we want to store the longest path for a single set of nodes
                     // check to make sure that we don't save two paths that share a node
                     //
-                    boolean intersection;
                     boolean addNewPath = true;
-                    Vector<SOCLRPathData> trash = new Vector<SOCLRPathData>();
-
-                    for (SOCLRPathData oldPathData : lrPaths)
+                    for (int pi = lrPaths.size() - 1; pi >= 0; --pi)
                     {
-                        //D.ebugPrintln("oldPathData = " + oldPathData);
-
-                        Vector<IntPair> nodePairs = oldPathData.getNodePairs();
-                        intersection = false;
-
-                        for (IntPair vis : visited)
-                        {
-                            //D.ebugPrintln("vis = " + vis);
-
-                            for (IntPair np : nodePairs)
-                            {
-                                //D.ebugPrintln("np = " + np);
-
-                                if (np.equals(vis))
-                                {
-                                    //D.ebugPrintln("oldPathData.nodePairs.contains(vis)");
-                                    intersection = true;
-
-                                    break;
-                                }
-                            }
-
-                            if (intersection)
-                            {
-                                break;
-                            }
-                        }
-
-                        if (intersection)
-                        {
-                            //
-                            // only keep the longer of the two paths
-                            //
-                            if (oldPathData.getLength() < len)
-                            {
-                                //D.ebugPrintln("REMOVING OLDPATHDATA");
-                                trash.addElement(oldPathData);
-                            }
-                            else
-                            {
-                                addNewPath = false;
-                                //D.ebugPrintln("NOT ADDING NEW PATH");
-                            }
-                        }
-                    }
+                        if (! intersects(visited, lrPathsVisited.get(pi)))
+                            continue;
 
-                    if (! trash.isEmpty())
-                    {
-                        for (SOCLRPathData oldPathData : trash)
+                        //
+                        // only keep the longer of the two paths
+                        //
+                        if (lrPaths.get(pi).getLength() < len)
                         {
-                            lrPaths.removeElement(oldPathData);
+                            lrPaths.removeElementAt(pi);
+                            lrPathsVisited.remove(pi);
+                        } else {
+                            addNewPath = false;
                         }
                     }
 
                     if (addNewPath)
                     {
-                        SOCLRPathData newPathData = new SOCLRPathData(pathStartNodeCoord, coord, len, visited);
-                        //D.ebugPrintln("ADDING PATH: " + newPathData);
-                        lrPaths.addElement(newPathData);
+                        Vector<IntPair> pairs = new Vector<IntPair>(len);
+                        for (int d = 1; d <= len; ++d)
+                            pairs.addElement(new IntPair(pathNode[d - 1], pathNode[d]));
+                        lrPaths.addElement(new SOCLRPathData(pathStartNodeCoord, coord, len, pairs));
+                        lrPathsVisited.add(visited.clone());
                     }
                 }
+
+                if (len > 0)
+                {
+                    final int ei = pathEdge[len];
+                    visited[ei >>> 6] &= ~(1L << ei);
+                }
+                pathAdjac[len] = null;
+                --len;
             }
         }
 
         longestRoadLength = longest;
 
-        //Date stopTime = new Date();
-        //long elapsed = stopTime.getTime() - startTime.getTime();
-        //System.out.println("LONGEST FOR "+name+" IS "+longest+" TIME = "+elapsed+"ms");
         return longest;
     }
 
+    /**
+     * Find an edge in {@link #calcLongestRoad2()}'s edge index.
+     * @return {@code edge}'s index in {@code edges}, or -1 if not found
+     * @since 2.4.50
+     */
+    private static int indexOf(final int[] edges, final int edge)
+    {
+        for (int i = edges.length - 1; i >= 0; --i)
+            if (edges[i] == edge)
+                return i;
+
+        return -1;
+    }
+
+    /**
+     * Do two edge bitmasks from {@link #calcLongestRoad2()} have any edge in common?
+     * @since 2.4.50
+     */
+    private static boolean intersects(final long[] a, final long[] b)
+    {
+        for (int i = a.length - 1; i >= 0; --i)
+            if ((a[i] & b[i]) != 0)
+                return true;
+
+        return false;
+    }
+
     /**
      * For scenario option {@link SOCGameOptionSet#K_SC_FTRI _SC_FTRI},
      * calculate if the player has any coastal settlement or city where
@@ -244,7 +244,7 @@ public class SOCPlayerNumbers implements Serializable
      */
     public void updateNumbers(final int nodeCoord, SOCBoard board)
     {
-        for (final int hex : board.getAdjacentHexesToNode(nodeCoord))
+        for (final int hex : board.getAdjacentHexesToNode_shared(nodeCoord))
         {
             final int number = board.getNumberOnHexFromCoord(hex);
             final int resource = board.getHexTypeFromCoord(hex);
@@ -276,7 +276,7 @@ public class SOCPlayerNumbers implements Serializable
     {
         int probTotal = 0;
 
-        for (final int hex : board.getAdjacentHexesToNode(nodeCoord))
+        for (final int hex : board.getAdjacentHexesToNode_shared(nodeCoord))
         {
             final int number = board.getNumberOnHexFromCoord(hex);
             if (number > 0)
@@ -536,7 +536,7 @@ public class SOCPlayerNumbers implements Serializable
      */
     public void undoUpdateNumbers(final int coord, SOCBoard board)
     {
-        for (final int hex : board.getAdjacentHexesToNode(coord))
+        for (final int hex : board.getAdjacentHexesToNode_shared(coord))
         {
             final int number = board.getNumberOnHexFromCoord(hex);
             final int resource = board.getHexTypeFromCoord(hex);
@@ -273,6 +273,32 @@ public abstract class SOCPlayingPiece implements Serializable, Cloneable
         board = b;
     }
 
+    /**
+     * Copy this piece for {@link SOCGame#snapshot()}. The copy's player and board are the snapshot's.
+     * Subclasses with mutable object fields should override to copy them.
+     * Call {@link SOCGame.SnapshotMap#piece(SOCPlayingPiece)} instead of calling this directly,
+     * so each piece is copied only once.
+     * @param map  The snapshot's copied players and board
+     * @return  a copy of this piece
+     * @throws IllegalStateException if clone fails; should not occur
+     * @since 2.4.50
+     */
+    SOCPlayingPiece copyForSnapshot(final SOCGame.SnapshotMap map)
+        throws IllegalStateException
+    {
+        final SOCPlayingPiece cp;
+        try
+        {
+            cp = (SOCPlayingPiece) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Internal error, pieces should be cloneable", e);
+        }
+        cp.player = map.player(player);
+        cp.board = map.board(board);
+
+        return cp;
+    }
+
     /**
      * @return a human readable form of this object
      */
@@ -814,7 +814,8 @@ public class SOCSpecialItem
         throws CloneNotSupportedException
     {
         SOCSpecialItem cl = (SOCSpecialItem) super.clone();
-        cl.cost = cost.copy();
+        if (cost != null)
+            cl.cost = cost.copy();
         return cl;
     }
 
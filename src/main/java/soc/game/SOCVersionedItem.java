@@ -20,6 +20,7 @@
  **/
 package soc.game;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -45,8 +46,10 @@ import soc.message.SOCMessage;
  * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
  * @since 2.0.00
  */
-public abstract class SOCVersionedItem implements Cloneable
+public abstract class SOCVersionedItem implements Cloneable, Serializable
 {
+    /** Serializable so that games' option sets can be saved and copied along with their {@link SOCGame} */
+    private static final long serialVersionUID = 2450L;
 
     /**
      * Item key name: Short alphanumeric name (uppercase, starting with a letter, '_' permitted)
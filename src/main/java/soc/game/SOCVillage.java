@@ -240,4 +240,18 @@ public class SOCVillage extends SOCPlayingPiece
         return true;
     }
 
+    /**
+     * Copy this village for {@link SOCGame#snapshot()}, including its list of traders.
+     * @since 2.4.50
+     */
+    @Override
+    SOCPlayingPiece copyForSnapshot(final SOCGame.SnapshotMap map)
+    {
+        final SOCVillage cp = (SOCVillage) super.copyForSnapshot(map);
+        if (traders != null)
+            cp.traders = map.players(traders);
+
+        return cp;
+    }
+
 }
@@ -30,6 +30,9 @@ import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // import org.apache.log4j.Logger;
 
@@ -45,6 +48,15 @@ import soc.util.CutoffExceededException;
  */
 public class OpeningBuildStrategy {
 
+    /**
+     * Number of chunks to split {@link #planInitialSettlements()}'s settlement pairs into,
+     * to score them in parallel on the common {@link ForkJoinPool}; 1 to score them one after another.
+     * The plan doesn't depend on this value. Default is 1.
+     * Set by server property {@code jsettlers.bots.opening.parallel}.
+     * @since 2.4.50
+     */
+    public static int PAIR_EVALUATION_PARALLELISM = 1;
+
     /** Our game */
     protected final SOCGame game;
 
@@ -132,142 +144,222 @@ public class OpeningBuildStrategy {
     }
 
     /**
-     * figure out where to place the two settlements
+     * figure out where to place the two settlements.
+     *<P>
+     * Scores each pair of nodes legal for our settlements with {@link #scoreSettlementPairs(int[])}
+     * and then chooses which of the best pair to place first.
+     * The result is remembered in {@link OpeningPlanCache}, for other robots and games
+     * which plan on the same board layout with the same legal nodes.
+     *
      * @return {@link #firstSettlement}, or 0 if no potential settlements for our player
      */
     public int planInitialSettlements()
     {
         log.debug("--- planInitialSettlements");
 
-        int speed;
-        boolean allTheWay;
         firstSettlement = 0;
         secondSettlement = 0;
 
-        int bestSpeed = 4 * SOCBuildingSpeedEstimate.DEFAULT_ROLL_LIMIT;
-        SOCBoard board = game.getBoard();
+        final SOCBoard board = game.getBoard();
+        final int[] ourPotentialSettlements = ourPlayerData.getPotentialSettlements_arr();
+        if (ourPotentialSettlements == null)
+            return 0;  // Should not occur
+
+        int[] legalNodes = new int[ourPotentialSettlements.length];
+        int n = 0;
+        for (final int node : ourPotentialSettlements)
+        {
+            // assert: ourPlayerData.isPotentialSettlement(node)
+            if (ourPlayerData.isLegalSettlement(node))
+                legalNodes[n++] = node;  // <-- stac checks legal, not potential, coordinates --
+        }
+        if (n < legalNodes.length)
+            legalNodes = Arrays.copyOf(legalNodes, n);
+
+        SOCBuildingSpeedEstimate estimate = bseFactory.getEstimator();
+        final OpeningPlanCache.Key cacheKey = OpeningPlanCache.makeKey(board, legalNodes, estimate.getClass());
+        final int[] cached = OpeningPlanCache.get(cacheKey);
+        if (cached != null)
+        {
+            firstSettlement = cached[0];
+            secondSettlement = cached[1];
+            log.debug("cached plan: " + board.nodeCoordToString(firstSettlement)
+                + ", " + board.nodeCoordToString(secondSettlement));
+
+            return firstSettlement;
+        }
+
+        final PairScore best = scoreSettlementPairs(legalNodes);
+        firstSettlement = best.firstNode;
+        secondSettlement = best.secondNode;
+        final int bestSpeed = best.speed;
+        log.debug("bestSpeed = " + bestSpeed);
+        log.debug("bestProbTotal = " + best.probTotal);
+
         SOCPlayerNumbers playerNumbers = new SOCPlayerNumbers(board);
-        int probTotal;
-        int bestProbTotal;
         boolean[] ports = new boolean[SOCBoard.WOOD_PORT + 1];
-        SOCBuildingSpeedEstimate estimate = bseFactory.getEstimator();
-        final int[] prob = SOCNumberProbabilities.INT_VALUES;
 
-        bestProbTotal = 0;
+        /**
+         * choose which settlement to place first
+         */
+        playerNumbers.clear();
+        playerNumbers.updateNumbers(firstSettlement, board);
 
-        final int[] ourPotentialSettlements = ourPlayerData.getPotentialSettlements_arr();
-        if (ourPotentialSettlements == null)
-            return 0;  // Should not occur
+        final Integer firstSettlementInt = Integer.valueOf(firstSettlement);
 
-        for (int i = 0; i < ourPotentialSettlements.length; ++i)
+        for (int portType = SOCBoard.MISC_PORT; portType <= SOCBoard.WOOD_PORT;
+                 portType++)
         {
-            final int firstNode = ourPotentialSettlements[i];
-            // assert: ourPlayerData.isPotentialSettlement(firstNode)
+            ports[portType] = (board.getPortCoordinates(portType).contains(firstSettlementInt));
+        }
 
-            if (! ourPlayerData.isLegalSettlement(firstNode))
-                continue;  // <-- stac checks legal, not potential, coordinates --
+        estimate.recalculateEstimates(playerNumbers);
 
-            final Integer firstNodeInt = Integer.valueOf(firstNode);
+        int firstSpeed = 0;
+        final int cutoff = 100;
 
-            //
-            // this is just for testing purposes
-            //
-            log.debug("FIRST NODE -----------");
-            log.debug("firstNode = " + board.nodeCoordToString(firstNode));
+        firstSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCSettlement.COST, cutoff, ports);
+        firstSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCCity.COST, cutoff, ports);
+        firstSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCDevCard.COST, cutoff, ports);
+        firstSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCRoad.COST, cutoff, ports);
 
-            StringBuffer sb = new StringBuffer();
-            sb.append("numbers:[");
+        playerNumbers.clear();
+        playerNumbers.updateNumbers(secondSettlement, board);
 
-            playerNumbers.clear();
-            probTotal = playerNumbers.updateNumbersAndProbability
-                (firstNode, board, prob, sb);
+        final Integer secondSettlementInt = Integer.valueOf(secondSettlement);
 
-            sb.append("]");
-            log.debug(sb.toString());
-            sb = new StringBuffer();
-            sb.append("ports: ");
+        for (int portType = SOCBoard.MISC_PORT; portType <= SOCBoard.WOOD_PORT;
+                 portType++)
+        {
+            ports[portType] = (board.getPortCoordinates(portType).contains(secondSettlementInt));
+        }
 
-            for (int portType = SOCBoard.MISC_PORT;
-                     portType <= SOCBoard.WOOD_PORT; portType++)
-            {
-                ports[portType] = (board.getPortCoordinates(portType).contains(firstNodeInt));
+        estimate.recalculateEstimates(playerNumbers);
 
-                sb.append(ports[portType] + "  ");
-            }
+        int secondSpeed = 0;
 
-            log.debug(sb.toString());
-            log.debug("probTotal = " + probTotal);
-            estimate.recalculateEstimates(playerNumbers);
-            speed = 0;
-            allTheWay = false;
+        secondSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCSettlement.COST, bestSpeed, ports);
+        secondSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCCity.COST, bestSpeed, ports);
+        secondSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCDevCard.COST, bestSpeed, ports);
+        secondSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCRoad.COST, bestSpeed, ports);
 
-            try
+        if (firstSpeed > secondSpeed)
+        {
+            int tmp = firstSettlement;
+            firstSettlement = secondSettlement;
+            secondSettlement = tmp;
+        }
+
+        log.debug
+            (board.nodeCoordToString(firstSettlement) + ":" + firstSpeed + ", "
+             + board.nodeCoordToString(secondSettlement) + ":" + secondSpeed);
+
+        OpeningPlanCache.put(cacheKey, firstSettlement, secondSettlement);
+
+        return firstSettlement;
+    }
+
+    /**
+     * Score each pair of nodes for our two initial settlements, to find the pair
+     * from which we could build fastest: The lowest total estimated rolls for a settlement,
+     * city, dev card and road, and of pairs with that speed, the one with the highest
+     * total dice probability. If pairs tie on both, the first one in {@code nodes} order is best.
+     *<P>
+     * If {@link #PAIR_EVALUATION_PARALLELISM} &gt; 1, the pairs are split into that many chunks
+     * on the common {@link ForkJoinPool}. Each chunk skips pairs slower than the best speed
+     * found so far by any chunk, then the chunks' best pairs are compared in order,
+     * so the result is the same as scoring them one after another.
+     *
+     * @param nodes  nodes legal for our settlements, in potential settlement order; not changed
+     * @return the best pair, or a {@link PairScore} with node coordinates 0 if no pair is legal
+     * @since 2.4.50
+     */
+    protected PairScore scoreSettlementPairs(final int[] nodes)
+    {
+        final int n = nodes.length;
+        final int parallelism = Math.min(PAIR_EVALUATION_PARALLELISM, n - 1);
+        if (parallelism > 1)
+        {
+            // Row i has (n - 1 - i) pairs; end each chunk after about its share of all pairs
+            final long totalPairs = (long) n * (n - 1) / 2;
+            final int[] chunkStart = new int[parallelism + 1];
+            int numChunks = 0;
+            long pairs = 0;
+            for (int i = 0; i < n - 1; ++i)
             {
-                speed += estimate.calculateRollsAndRsrcFast(SOCResourceSet.EMPTY_SET, SOCSettlement.COST, 300, ports).getRolls();
-                speed += estimate.calculateRollsAndRsrcFast(SOCResourceSet.EMPTY_SET, SOCCity.COST, 300, ports).getRolls();
-                speed += estimate.calculateRollsAndRsrcFast(SOCResourceSet.EMPTY_SET, SOCDevCard.COST, 300, ports).getRolls();
-                speed += estimate.calculateRollsAndRsrcFast(SOCResourceSet.EMPTY_SET, SOCRoad.COST, 300, ports).getRolls();
+                pairs += n - 1 - i;
+                if (pairs * parallelism >= totalPairs * (numChunks + 1))
+                    chunkStart[++numChunks] = i + 1;
             }
-            catch (CutoffExceededException e) {}
+            chunkStart[numChunks] = n;
 
-            if (D.ebugOn)
+            final PairScore[] results = new PairScore[numChunks];
+            final AtomicInteger sharedBestSpeed = new AtomicInteger(PairScore.NO_PAIR_SPEED);
+            try
             {
-                final int[] rolls = estimate.getEstimatesFromNothingFast(ports, 300);
-                sb = new StringBuffer();
-                sb.append(" road: " + rolls[SOCBuildingSpeedEstimate.ROAD]);
-                sb.append(" stlmt: " + rolls[SOCBuildingSpeedEstimate.SETTLEMENT]);
-                sb.append(" city: " + rolls[SOCBuildingSpeedEstimate.CITY]);
-                sb.append(" card: " + rolls[SOCBuildingSpeedEstimate.CARD]);
-                log.debug(sb.toString());
-                log.debug("speed = " + speed);
+                ForkJoinPool.commonPool().invoke
+                    (new PairScoreTask(nodes, chunkStart, results, sharedBestSpeed, 0, numChunks));
+
+                final PairScore best = new PairScore();
+                for (final PairScore ps : results)
+                    if (best.isBeatenBy(ps.speed, ps.probTotal))
+                        best.set(ps.firstNode, ps.secondNode, ps.speed, ps.probTotal);
+
+                return best;
+            }
+            catch (RuntimeException e)
+            {
+                D.ebugERROR("OpeningBuildStrategy: parallel pair scoring failed, scoring sequentially: " + e);
             }
+        }
 
-            //
-            // end test
-            //
+        return scoreSettlementPairs(nodes, 0, n, null);
+    }
 
-            //
-            // calculate pairs of first and second settlement together
-            //
+    /**
+     * Score the pairs of nodes whose first node is in a range of {@code nodes}, in order.
+     * Each pair's speed is exact if it's no more than the best found so far, otherwise the pair is skipped:
+     * Each estimate from nothing takes at least 1 roll, so the cutoffs here never skip a pair
+     * which ties the best.
+     * @param nodes  nodes legal for our settlements; not changed
+     * @param fromIndex  index within {@code nodes} of the first pair's first node
+     * @param toIndex  1 + index of the last pair's first node
+     * @param sharedBestSpeed  best speed found so far by all threads, to skip slower pairs sooner,
+     *     or {@code null} if not scoring in parallel. Lowered when this range finds a faster pair.
+     * @return the best pair in the range
+     * @since 2.4.50
+     */
+    private PairScore scoreSettlementPairs
+        (final int[] nodes, final int fromIndex, final int toIndex, final AtomicInteger sharedBestSpeed)
+    {
+        final SOCBoard board = game.getBoard();
+        final SOCPlayerNumbers playerNumbers = new SOCPlayerNumbers(board);
+        final boolean[] ports = new boolean[SOCBoard.WOOD_PORT + 1];
+        final SOCBuildingSpeedEstimate estimate = bseFactory.getEstimator();
+        final int[] prob = SOCNumberProbabilities.INT_VALUES;
+        final PairScore best = new PairScore();
+
+        for (int i = fromIndex; i < toIndex; ++i)
+        {
+            final int firstNode = nodes[i];
 
-            for (int j = 1 + i; j < ourPotentialSettlements.length; ++j)
+            for (int j = 1 + i; j < nodes.length; ++j)
             {
-                final int secondNode = ourPotentialSettlements[j];
-                // assert: ourPlayerData.isPotentialSettlement(secondNode)
+                final int secondNode = nodes[j];
 
                 if (board.isNodeAdjacentToNode(secondNode, firstNode))
                     continue;  // <-- too close to firstNode to build --
 
-                if (! ourPlayerData.isLegalSettlement(secondNode))
-                    continue;  // <-- stac checks legal, not potential, coordinates --
-
-                log.debug("firstNode = " + board.nodeCoordToString(firstNode));
-                log.debug("secondNode = " + board.nodeCoordToString(secondNode));
-
                 /**
                  * get the numbers for these settlements
                  */
-                sb = new StringBuffer();
-                sb.append("numbers:[");
-
                 playerNumbers.clear();
-                probTotal = playerNumbers.updateNumbersAndProbability
-                    (firstNode, board, prob, sb);
-
-                sb.append("] [");
-
-                probTotal += playerNumbers.updateNumbersAndProbability
-                    (secondNode, board, prob, sb);
-
-                sb.append("]");
-                log.debug(sb.toString());
+                int probTotal = playerNumbers.updateNumbersAndProbability(firstNode, board, prob, null);
+                probTotal += playerNumbers.updateNumbersAndProbability(secondNode, board, prob, null);
 
                 /**
                  * see if the settlements are on any ports
                  */
-                //sb = new StringBuffer();
-                //sb.append("ports: ");
-
                 Arrays.fill(ports, false);
                 int portType = board.getPortTypeFromNodeCoord(firstNode);
                 if (portType != -1)
@@ -276,148 +368,147 @@ public class OpeningBuildStrategy {
                 if (portType != -1)
                     ports[portType] = true;
 
-                //log.debug(sb.toString());
-                log.debug("probTotal = " + probTotal);
-
                 /**
                  * estimate the building speed for this pair
                  */
                 estimate.recalculateEstimates(playerNumbers);
-                speed = 0;
-                allTheWay = false;
+                int cutoff = best.speed;
+                if (sharedBestSpeed != null)
+                    cutoff = Math.min(cutoff, sharedBestSpeed.get());
+                int speed = 0;
+                boolean allTheWay = false;
 
                 try
                 {
                     speed += estimate.calculateRollsAndRsrcFast
-                        (SOCResourceSet.EMPTY_SET, SOCSettlement.COST, bestSpeed, ports).getRolls();
+                        (SOCResourceSet.EMPTY_SET, SOCSettlement.COST, cutoff, ports).getRolls();
 
-                    if (speed < bestSpeed)
+                    if (speed < cutoff)
                     {
                         speed += estimate.calculateRollsAndRsrcFast
-                            (SOCResourceSet.EMPTY_SET, SOCCity.COST, bestSpeed, ports).getRolls();
+                            (SOCResourceSet.EMPTY_SET, SOCCity.COST, cutoff, ports).getRolls();
 
-                        if (speed < bestSpeed)
+                        if (speed < cutoff)
                         {
                             speed += estimate.calculateRollsAndRsrcFast
-                                (SOCResourceSet.EMPTY_SET, SOCDevCard.COST, bestSpeed, ports).getRolls();
+                                (SOCResourceSet.EMPTY_SET, SOCDevCard.COST, cutoff, ports).getRolls();
 
-                            if (speed < bestSpeed)
+                            if (speed < cutoff)
                             {
                                 speed += estimate.calculateRollsAndRsrcFast
-                                    (SOCResourceSet.EMPTY_SET, SOCRoad.COST, bestSpeed, ports).getRolls();
+                                    (SOCResourceSet.EMPTY_SET, SOCRoad.COST, cutoff, ports).getRolls();
                                 allTheWay = true;
                             }
                         }
                     }
 
-                    // because of addition, speed might be as much as (bestSpeed - 1) + bestSpeed
+                    // because of addition, speed might be as much as (cutoff - 1) + cutoff
                 }
                 catch (CutoffExceededException e)
                 {
-                    speed = bestSpeed;
-                }
-
-                if (D.ebugOn)
-                {
-                    final int[] rolls = estimate.getEstimatesFromNothingFast(ports, bestSpeed);
-                    sb = new StringBuffer();
-                    sb.append(" road: " + rolls[SOCBuildingSpeedEstimate.ROAD]);
-                    sb.append(" stlmt: " + rolls[SOCBuildingSpeedEstimate.SETTLEMENT]);
-                    sb.append(" city: " + rolls[SOCBuildingSpeedEstimate.CITY]);
-                    sb.append(" card: " + rolls[SOCBuildingSpeedEstimate.CARD]);
-                    log.debug(sb.toString());
-                    log.debug("allTheWay = " + allTheWay);
-                    log.debug("speed = " + speed);
+                    continue;
                 }
 
                 /**
                  * keep the settlements with the best speed
                  */
-                if (speed < bestSpeed)
-                {
-                    firstSettlement = firstNode;
-                    secondSettlement = secondNode;
-                    bestSpeed = speed;
-                    bestProbTotal = probTotal;
-                    log.debug("bestSpeed = " + bestSpeed);
-                    log.debug("bestProbTotal = " + bestProbTotal);
-                }
-                else if ((speed == bestSpeed) && allTheWay)
+                if (allTheWay && (speed <= cutoff) && best.isBeatenBy(speed, probTotal))
                 {
-                    if (probTotal > bestProbTotal)
+                    best.set(firstNode, secondNode, speed, probTotal);
+
+                    if (sharedBestSpeed != null)
                     {
-                        log.debug("Equal speed, better prob");
-                        firstSettlement = firstNode;
-                        secondSettlement = secondNode;
-                        bestSpeed = speed;
-                        bestProbTotal = probTotal;
-                        log.debug("firstSettlement = " + Integer.toHexString(firstSettlement));
-                        log.debug("secondSettlement = " + Integer.toHexString(secondSettlement));
-                        log.debug("bestSpeed = " + bestSpeed);
-                        log.debug("bestProbTotal = " + bestProbTotal);
+                        int shared;
+                        while ((speed < (shared = sharedBestSpeed.get()))
+                               && ! sharedBestSpeed.compareAndSet(shared, speed))
+                            ;
                     }
                 }
+            }  // for (j past i in nodes[])
 
-            }  // for (j past i in ourPotentialSettlements[])
-
-        }  // for (i in ourPotentialSettlements[])
-
-        /**
-         * choose which settlement to place first
-         */
-        playerNumbers.clear();
-        playerNumbers.updateNumbers(firstSettlement, board);
-
-        final Integer firstSettlementInt = Integer.valueOf(firstSettlement);
+        }  // for (i in nodes[fromIndex..toIndex])
 
-        for (int portType = SOCBoard.MISC_PORT; portType <= SOCBoard.WOOD_PORT;
-                 portType++)
-        {
-            ports[portType] = (board.getPortCoordinates(portType).contains(firstSettlementInt));
-        }
+        return best;
+    }
 
-        estimate.recalculateEstimates(playerNumbers);
+    /**
+     * A pair of nodes for our initial settlements, with its estimated building speed
+     * and total dice probability. Used by {@link #scoreSettlementPairs(int[])}.
+     * @since 2.4.50
+     */
+    protected static final class PairScore
+    {
+        /** Speed of a new PairScore, which any pair must beat: 4 * {@link SOCBuildingSpeedEstimate#DEFAULT_ROLL_LIMIT} */
+        public static final int NO_PAIR_SPEED = 4 * SOCBuildingSpeedEstimate.DEFAULT_ROLL_LIMIT;
 
-        int firstSpeed = 0;
-        final int cutoff = 100;
+        /** Node coordinates of the pair, or 0 if none yet */
+        public int firstNode, secondNode;
 
-        firstSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCSettlement.COST, cutoff, ports);
-        firstSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCCity.COST, cutoff, ports);
-        firstSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCDevCard.COST, cutoff, ports);
-        firstSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCRoad.COST, cutoff, ports);
+        /** Total estimated rolls to build a settlement, city, dev card and road from these nodes */
+        public int speed = NO_PAIR_SPEED;
 
-        playerNumbers.clear();
-        playerNumbers.updateNumbers(secondSettlement, board);
+        /** Total of the dice probabilities of the nodes' hexes */
+        public int probTotal;
 
-        final Integer secondSettlementInt = Integer.valueOf(secondSettlement);
+        /**
+         * Is a pair with this speed and probability better than this one?
+         * @return true if {@code spd} is faster, or the same speed with higher {@code prob}
+         */
+        public boolean isBeatenBy(final int spd, final int prob)
+        {
+            return (spd < speed) || ((spd == speed) && (prob > probTotal));
+        }
 
-        for (int portType = SOCBoard.MISC_PORT; portType <= SOCBoard.WOOD_PORT;
-                 portType++)
+        void set(final int first, final int second, final int spd, final int prob)
         {
-            ports[portType] = (board.getPortCoordinates(portType).contains(secondSettlementInt));
+            firstNode = first;
+            secondNode = second;
+            speed = spd;
+            probTotal = prob;
         }
+    }
 
-        estimate.recalculateEstimates(playerNumbers);
+    /**
+     * Scores chunks of pairs for {@link OpeningBuildStrategy#scoreSettlementPairs(int[])},
+     * splitting its range of chunks in half until it has only one.
+     * @since 2.4.50
+     */
+    private final class PairScoreTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 2450L;
 
-        int secondSpeed = 0;
+        private final int[] nodes, chunkStart;
+        private final PairScore[] results;
+        private final AtomicInteger sharedBestSpeed;
 
-        secondSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCSettlement.COST, bestSpeed, ports);
-        secondSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCCity.COST, bestSpeed, ports);
-        secondSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCDevCard.COST, bestSpeed, ports);
-        secondSpeed += estimate.calculateRollsFast(SOCResourceSet.EMPTY_SET, SOCRoad.COST, bestSpeed, ports);
+        /** Range of chunk numbers to score */
+        private final int fromChunk, toChunk;
 
-        if (firstSpeed > secondSpeed)
+        PairScoreTask
+            (final int[] nodes, final int[] chunkStart, final PairScore[] results,
+             final AtomicInteger sharedBestSpeed, final int fromChunk, final int toChunk)
         {
-            int tmp = firstSettlement;
-            firstSettlement = secondSettlement;
-            secondSettlement = tmp;
+            this.nodes = nodes;
+            this.chunkStart = chunkStart;
+            this.results = results;
+            this.sharedBestSpeed = sharedBestSpeed;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
         }
 
-        log.debug
-            (board.nodeCoordToString(firstSettlement) + ":" + firstSpeed + ", "
-             + board.nodeCoordToString(secondSettlement) + ":" + secondSpeed);
-
-        return firstSettlement;
+        @Override
+        protected void compute()
+        {
+            if (toChunk - fromChunk == 1)
+            {
+                results[fromChunk] = scoreSettlementPairs
+                    (nodes, chunkStart[fromChunk], chunkStart[toChunk], sharedBestSpeed);
+            } else {
+                final int mid = (fromChunk + toChunk) / 2;
+                invokeAll(new PairScoreTask(nodes, chunkStart, results, sharedBestSpeed, fromChunk, mid),
+                          new PairScoreTask(nodes, chunkStart, results, sharedBestSpeed, mid, toChunk));
+            }
+        }
     }
 
     /**
@@ -1084,7 +1175,7 @@ public class OpeningBuildStrategy {
 
             int score = 0;
 
-            for (final int hex : board.getAdjacentHexesToNode(nodeInt.intValue()))
+            for (final int hex : board.getAdjacentHexesToNode_shared(nodeInt.intValue()))
             {
                 final int number = board.getNumberOnHexFromCoord(hex);
                 score += numRating[number];
@@ -0,0 +1,201 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import soc.game.SOCBoard;
+
+/**
+ * Cache of {@link OpeningBuildStrategy#planInitialSettlements()} results, shared by all robots in this JVM.
+ * Simulations often play many games on the same board layout, where every robot
+ * would otherwise score the same settlement pairs from scratch.
+ *<P>
+ * A plan depends only on the board layout near the candidate nodes and on which nodes are still
+ * legal for a settlement, so each {@link Key} holds exactly that: The board's encoding format,
+ * then for each legal node in the player's potential settlement order, the node coordinate,
+ * its port type, and each adjacent hex's coordinate, type and dice number.
+ * Pieces already placed by any player show up as nodes which are no longer legal.
+ * Since keys are compared in full, not just by their hash, a cached plan is always
+ * the one {@link OpeningBuildStrategy} would calculate.
+ *<P>
+ * Thread-safe. Keeps hit and miss counts for {@link #getReport()}.
+ *
+ * @since 2.4.50
+ */
+public final class OpeningPlanCache
+{
+    /**
+     * Maximum number of plans to keep. If a new plan would go past this, the cache is cleared first;
+     * games on a new board don't need plans from older boards.
+     */
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * Key for a cached plan; see class javadoc for contents.
+     */
+    public static final class Key
+    {
+        /** Name of the building speed estimator class which scored the pairs */
+        private final String estimatorClass;
+
+        /** Board encoding and each legal node's layout data */
+        private final int[] layout;
+
+        private final int hash;
+
+        private Key(final String estimatorClass, final int[] layout)
+        {
+            this.estimatorClass = estimatorClass;
+            this.layout = layout;
+            hash = 31 * estimatorClass.hashCode() + Arrays.hashCode(layout);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (o == this)
+                return true;
+            if (! (o instanceof Key))
+                return false;
+
+            final Key k = (Key) o;
+            return (hash == k.hash) && estimatorClass.equals(k.estimatorClass) && Arrays.equals(layout, k.layout);
+        }
+    }
+
+    /** Plans as {first settlement, second settlement} */
+    private static final ConcurrentHashMap<Key, int[]> plans = new ConcurrentHashMap<Key, int[]>();
+
+    private static final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+    private OpeningPlanCache() {}
+
+    /**
+     * Make the key for a plan.
+     * @param board  the game's board
+     * @param legalNodes  the nodes which are legal for our settlement,
+     *     in the order they'll be scored; not changed
+     * @param estimatorClass  class of the {@link SOCBuildingSpeedEstimate} used to score them
+     * @return the key
+     */
+    public static Key makeKey(final SOCBoard board, final int[] legalNodes, final Class<?> estimatorClass)
+    {
+        int[] layout = new int[1 + 9 * legalNodes.length];
+        int n = 0;
+        layout[n++] = board.getBoardEncodingFormat();
+        for (final int node : legalNodes)
+        {
+            final int[] hexes = board.getAdjacentHexesToNode_shared(node);
+            final int len = 3 + 3 * hexes.length;
+            if (n + len > layout.length)
+                layout = Arrays.copyOf(layout, Math.max(n + len, 2 * layout.length));
+
+            layout[n++] = node;
+            layout[n++] = board.getPortTypeFromNodeCoord(node);
+            layout[n++] = hexes.length;
+            for (final int hex : hexes)
+            {
+                layout[n++] = hex;
+                layout[n++] = board.getHexTypeFromCoord(hex);
+                layout[n++] = board.getNumberOnHexFromCoord(hex);
+            }
+        }
+
+        return new Key(estimatorClass.getName(), (n < layout.length) ? Arrays.copyOf(layout, n) : layout);
+    }
+
+    /**
+     * Look up a plan, counting a hit or miss.
+     * @param key  the plan's key, from {@link #makeKey(SOCBoard, int[], Class)}
+     * @return the first and second settlement node coordinates, or {@code null} if not cached
+     */
+    public static int[] get(final Key key)
+    {
+        final int[] plan = plans.get(key);
+        if (plan != null)
+        {
+            hits.incrementAndGet();
+            return new int[]{ plan[0], plan[1] };
+        } else {
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Remember a plan.
+     * @param key  the plan's key, from {@link #makeKey(SOCBoard, int[], Class)}
+     * @param firstSettlement  first settlement node coordinate
+     * @param secondSettlement  second settlement node coordinate
+     */
+    public static void put(final Key key, final int firstSettlement, final int secondSettlement)
+    {
+        if (plans.size() >= MAX_SIZE)
+            plans.clear();
+        plans.put(key, new int[]{ firstSettlement, secondSettlement });
+    }
+
+    /** Number of plans currently cached. */
+    public static int size()
+    {
+        return plans.size();
+    }
+
+    /** Number of lookups which found a cached plan. */
+    public static long getHits()
+    {
+        return hits.get();
+    }
+
+    /** Number of lookups which didn't find a cached plan. */
+    public static long getMisses()
+    {
+        return misses.get();
+    }
+
+    /**
+     * Get a one-line summary of cache use, like
+     * {@code "Opening plan cache: 30 hits, 10 misses (75% hit rate), 10 plans"}.
+     */
+    public static String getReport()
+    {
+        final long h = hits.get(), m = misses.get();
+        final long pct = (h + m > 0) ? (100 * h) / (h + m) : 0;
+        return "Opening plan cache: " + h + " hits, " + m + " misses (" + pct + "% hit rate), "
+            + plans.size() + " plans";
+    }
+
+    /** Forget all cached plans and reset the hit and miss counts. */
+    public static void clear()
+    {
+        plans.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+}
@@ -0,0 +1,357 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import soc.game.SOCBoard;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+
+/**
+ * Bank and port trade planner for {@link SOCRobotNegotiatorImpl}: Decides which 1-resource trade
+ * to make with the bank or a port to work towards some target resources.
+ * When planning a player trade offer, the negotiator asks whether the resources left over
+ * after each candidate offer could still make a bank trade, which asks about the same few
+ * targets and resource sets many times.
+ *<P>
+ * The plan depends only on our port flags and our estimator's rolls per resource, set by
+ * {@link #setState(boolean[], int[])}, and on the target and our resources. When the state is set,
+ * the trade ratio for each resource type is calculated once. For each target, the needed and
+ * not-needed resource types are sorted by rolls once. Each trade is then remembered,
+ * keyed by the target and our resources each packed into a {@code long}.
+ * Setting a different state clears everything remembered.
+ *<P>
+ * Trades are the same as those from {@link SOCRobotNegotiatorImpl}'s original
+ * {@code getOfferToBank} algorithm: Give the most frequently rolled not-needed resource that we
+ * have enough of, otherwise a needed one we have extra of, for 1 of the least frequently
+ * rolled resource we don't have enough of.
+ *<P>
+ * Not thread-safe; each negotiator has its own.
+ *
+ * @since 2.4.50
+ */
+public class SOCBankTradePlanner
+{
+    /** {@link #getBankTrade(SOCResourceSet, SOCResourceSet)} value when there's no trade to make */
+    public static final int NO_TRADE = 0;
+
+    /** Maximum number of trades to keep; if a new one would go past this, all are cleared first */
+    public static final int MAX_SIZE = 4096;
+
+    /** Largest resource amount which can be packed into a key */
+    private static final int MAX_AMOUNT = 0xFF;
+
+    /** Port flags from the last {@link #setState(boolean[], int[])}, indexed like {@link soc.game.SOCPlayer#getPortFlags()} */
+    private boolean[] ports = new boolean[SOCBoard.WOOD_PORT + 1];
+
+    /** Rolls per resource from the last {@link #setState(boolean[], int[])}, indexed by resource type */
+    private int[] rollsPerResource = new int[SOCResourceConstants.WOOD + 1];
+
+    /** Bank or port trade ratio for each resource type, from {@link #ports}; 4 until state is set */
+    private final int[] tradeRatios = new int[SOCResourceConstants.WOOD + 1];
+
+    /** Plan for each target, keyed by {@link #pack(SOCResourceSet)} */
+    private final HashMap<Long, TargetPlan> plans = new HashMap<Long, TargetPlan>();
+
+    /** Total number of trades kept in all {@link #plans} */
+    private int size;
+
+    private long hits, misses;
+
+    /**
+     * A target's needed and not-needed resource types sorted by rolls per resource,
+     * and the trades already planned for it.
+     */
+    private static final class TargetPlan
+    {
+        /** Resource types in the target, least rolls first */
+        final int[] needed;
+
+        /** Resource types not in the target, least rolls first */
+        final int[] notNeeded;
+
+        /** Trade for each of our resource sets, keyed by {@link SOCBankTradePlanner#pack(SOCResourceSet)} */
+        final HashMap<Long, Integer> trades = new HashMap<Long, Integer>();
+
+        TargetPlan(final int[] needed, final int[] notNeeded)
+        {
+            this.needed = needed;
+            this.notNeeded = notNeeded;
+        }
+    }
+
+    public SOCBankTradePlanner()
+    {
+        Arrays.fill(tradeRatios, 4);
+    }
+
+    /**
+     * Set the port flags and rolls per resource to plan with.
+     * If either is different from the current state, calculates the new trade ratios
+     * and clears all remembered trades.
+     * @param ports  our port flags, from {@link soc.game.SOCPlayer#getPortFlags()}; not changed
+     * @param rollsPerResource  our estimator's {@link SOCBuildingSpeedEstimate#getRollsPerResource()}; not changed
+     * @return true if the state changed
+     */
+    public boolean setState(final boolean[] ports, final int[] rollsPerResource)
+    {
+        if (Arrays.equals(ports, this.ports) && Arrays.equals(rollsPerResource, this.rollsPerResource))
+            return false;
+
+        this.ports = ports.clone();
+        this.rollsPerResource = rollsPerResource.clone();
+        for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+        {
+            if (ports[rtype])
+                tradeRatios[rtype] = 2;
+            else if (ports[SOCBoard.MISC_PORT])
+                tradeRatios[rtype] = 3;
+            else
+                tradeRatios[rtype] = 4;
+        }
+
+        plans.clear();
+        size = 0;
+
+        return true;
+    }
+
+    /**
+     * Can we make any bank or port trade towards these target resources?
+     * Same as {@link #getBankTrade(SOCResourceSet, SOCResourceSet)} != {@link #NO_TRADE}.
+     * @param targetResources  the resources we want; not changed
+     * @param ourResources  the resources we have; not changed
+     * @return true if there's a trade to make
+     */
+    public boolean canTrade(final SOCResourceSet targetResources, final SOCResourceSet ourResources)
+    {
+        return getBankTrade(targetResources, ourResources) != NO_TRADE;
+    }
+
+    /**
+     * Decide which bank or port trade to make towards these target resources, if any.
+     * Uses the ports and rolls from the last {@link #setState(boolean[], int[])}.
+     * Use {@link #getGiveType(int)}, {@link #getGiveAmount(int)} and {@link #getGetType(int)}
+     * to read the trade.
+     * @param targetResources  the resources we want; not changed
+     * @param ourResources  the resources we have; not changed
+     * @return the trade, or {@link #NO_TRADE} if {@code ourResources} already contains
+     *     {@code targetResources} or we don't have enough of anything to trade
+     */
+    public int getBankTrade(final SOCResourceSet targetResources, final SOCResourceSet ourResources)
+    {
+        final long packedTarget = pack(targetResources), packedOurs = pack(ourResources);
+        if ((packedTarget < 0) || (packedOurs < 0))
+        {
+            misses++;
+            return calcBankTrade(targetResources, ourResources, makePlan(targetResources));
+        }
+
+        final Long targetKey = Long.valueOf(packedTarget);
+        TargetPlan plan = plans.get(targetKey);
+        if (plan == null)
+        {
+            plan = makePlan(targetResources);
+            plans.put(targetKey, plan);
+        }
+
+        final Long oursKey = Long.valueOf(packedOurs);
+        final Integer trade = plan.trades.get(oursKey);
+        if (trade != null)
+        {
+            hits++;
+            return trade.intValue();
+        }
+
+        misses++;
+        final int tr = calcBankTrade(targetResources, ourResources, plan);
+        if (size >= MAX_SIZE)
+        {
+            for (TargetPlan p : plans.values())
+                p.trades.clear();
+            size = 0;
+        }
+        plan.trades.put(oursKey, Integer.valueOf(tr));
+        ++size;
+
+        return tr;
+    }
+
+    /**
+     * Sort a target's needed and not-needed resource types by rolls per resource, least first.
+     * Types with the same rolls stay in resource type order.
+     */
+    private TargetPlan makePlan(final SOCResourceSet targetResources)
+    {
+        int[] needed = new int[5], notNeeded = new int[5];
+        int neededCount = 0, notNeededCount = 0;
+        for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+        {
+            if (targetResources.contains(rtype))
+                neededCount = insertByRolls(needed, neededCount, rtype);
+            else
+                notNeededCount = insertByRolls(notNeeded, notNeededCount, rtype);
+        }
+
+        return new TargetPlan(Arrays.copyOf(needed, neededCount), Arrays.copyOf(notNeeded, notNeededCount));
+    }
+
+    /**
+     * Insert a resource type into a list sorted by rolls per resource, after any with the same rolls.
+     * @return the list's new count
+     */
+    private int insertByRolls(final int[] types, int count, final int rtype)
+    {
+        final int rolls = rollsPerResource[rtype];
+        int i = count;
+        while ((i > 0) && (rollsPerResource[types[i - 1]] > rolls))
+        {
+            types[i] = types[i - 1];
+            --i;
+        }
+        types[i] = rtype;
+
+        return count + 1;
+    }
+
+    /**
+     * Calculate the trade for {@link #getBankTrade(SOCResourceSet, SOCResourceSet)}
+     * from a target's plan, without checking or updating remembered trades.
+     */
+    private int calcBankTrade
+        (final SOCResourceSet targetResources, final SOCResourceSet ourResources, final TargetPlan plan)
+    {
+        if (ourResources.contains(targetResources))
+            return NO_TRADE;
+
+        final int[] needed = plan.needed, notNeeded = plan.notNeeded;
+        if (needed.length == 0)
+            return NO_TRADE;
+
+        // get the least frequently rolled resource we don't have enough of.
+        // If we have enough of each, only unknown resources are missing
+        int getIdx = needed.length - 1;
+        while (ourResources.getAmount(needed[getIdx]) >= targetResources.getAmount(needed[getIdx]))
+        {
+            --getIdx;
+            if (getIdx < 0)
+                return NO_TRADE;
+        }
+        final int getType = needed[getIdx];
+
+        for (final int giveType : notNeeded)
+        {
+            final int ratio = tradeRatios[giveType];
+            if (ourResources.getAmount(giveType) >= ratio)
+                return makeTrade(giveType, ratio, getType);
+        }
+
+        // Can't trade not-needed resources; try needed ones
+        for (final int giveType : needed)
+        {
+            final int ratio = tradeRatios[giveType];
+            int extra = ourResources.getAmount(giveType);
+            if (rollsPerResource[giveType] >= rollsPerResource[getType])
+                // Don't trade unless we have extra of this resource
+                extra -= targetResources.getAmount(giveType);
+            // else betting that we'll get it by our next turn
+
+            if (extra >= ratio)
+                return makeTrade(giveType, ratio, getType);
+        }
+
+        return NO_TRADE;
+    }
+
+    private static int makeTrade(final int giveType, final int giveAmount, final int getType)
+    {
+        return giveType | (giveAmount << 4) | (getType << 8);
+    }
+
+    /**
+     * Get the resource type to give in a trade from {@link #getBankTrade(SOCResourceSet, SOCResourceSet)}.
+     * @param trade  a trade, not {@link #NO_TRADE}
+     * @return  the resource type to give, like {@link SOCResourceConstants#CLAY}
+     */
+    public static int getGiveType(final int trade)
+    {
+        return trade & 0x0F;
+    }
+
+    /**
+     * Get the amount to give in a trade from {@link #getBankTrade(SOCResourceSet, SOCResourceSet)}:
+     * The bank or port trade ratio, 2 to 4.
+     * @param trade  a trade, not {@link #NO_TRADE}
+     * @return  the amount of {@link #getGiveType(int)} to give
+     */
+    public static int getGiveAmount(final int trade)
+    {
+        return (trade >> 4) & 0x0F;
+    }
+
+    /**
+     * Get the resource type to get in a trade from {@link #getBankTrade(SOCResourceSet, SOCResourceSet)};
+     * the amount to get is always 1.
+     * @param trade  a trade, not {@link #NO_TRADE}
+     * @return  the resource type to get, like {@link SOCResourceConstants#ORE}
+     */
+    public static int getGetType(final int trade)
+    {
+        return (trade >> 8) & 0x0F;
+    }
+
+    /**
+     * Pack a resource set's clay to wood and unknown amounts, 8 bits each.
+     * @return the packed amounts, or -1 if any is negative or more than {@link #MAX_AMOUNT}
+     */
+    private static long pack(final SOCResourceSet rs)
+    {
+        long packed = 0;
+        for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.UNKNOWN; ++rtype)
+        {
+            final int n = rs.getAmount(rtype);
+            if ((n < 0) || (n > MAX_AMOUNT))
+                return -1;
+            packed = (packed << 8) | n;
+        }
+
+        return packed;
+    }
+
+    /** Number of trades currently remembered. */
+    public int size()
+    {
+        return size;
+    }
+
+    /** Number of trades found among those remembered. */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /** Number of trades calculated because they weren't remembered. */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+}
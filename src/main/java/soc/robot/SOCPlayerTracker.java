@@ -47,7 +47,6 @@ import soc.util.Queue;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -174,6 +173,36 @@ public class SOCPlayerTracker implements Serializable
      */
     boolean inUse;
 
+    /**
+     * If this tracker is a copy made by {@link #copyPlayerTrackers(SOCPlayerTracker[])} which hasn't yet
+     * copied its possible pieces, the tracker whose {@link #possibleRoads}, {@link #possibleSettlements}
+     * and {@link #possibleCities} it's still sharing. Otherwise null. See {@link #ensureOwnPieces()}.
+     * @since 2.4.50
+     */
+    private transient SOCPlayerTracker sharedFrom;
+
+    /**
+     * {@link #sharedFrom}'s {@link #changeCount} when this copy was made, to check that
+     * the pieces being shared haven't been changed since then.
+     * @since 2.4.50
+     */
+    private transient int sharedFromChangeCount;
+
+    /**
+     * If this tracker is a copy made by {@link #copyPlayerTrackers(SOCPlayerTracker[])},
+     * the array of all trackers copied along with it (including this one), otherwise null.
+     * Used for the links between possible settlements of different players.
+     * @since 2.4.50
+     */
+    private transient SOCPlayerTracker[] copyGroup;
+
+    /**
+     * Incremented each time this tracker's possible pieces might be changed.
+     * @see #sharedFromChangeCount
+     * @since 2.4.50
+     */
+    private transient int changeCount;
+
     /**
      * Constructor.
      *
@@ -228,12 +257,58 @@ public class SOCPlayerTracker implements Serializable
         scen_SC_PIRI_closestShipToFortress = pt.scen_SC_PIRI_closestShipToFortress;
 
         //D.ebugPrintln(">>>>> Copying SOCPlayerTracker for player number "+player.getPlayerNumber());
-        //
-        // now perform the copy
-        //
-        // start by just getting all of the possible pieces
-        //
-        for (SOCPossibleRoad posRoad : pt.getPossibleRoads().values())
+        if (pt.sharedFrom != null)
+            pt.checkSharedUnchanged();
+        copyPieces(pt.possibleRoads, pt.possibleSettlements, pt.possibleCities);
+    }
+
+    /**
+     * Copy-on-write copy constructor for {@link #copyPlayerTrackers(SOCPlayerTracker[])}.
+     * Copies the same fields as {@link #SOCPlayerTracker(SOCPlayerTracker)}, but shares
+     * {@code pt}'s possible pieces until {@link #ensureOwnPieces()} is called.
+     *
+     * @param pt  the player tracker
+     * @param group  the array of copies this one will be part of
+     * @since 2.4.50
+     */
+    private SOCPlayerTracker(SOCPlayerTracker pt, SOCPlayerTracker[] group)
+    {
+        inUse = false;
+        brain = pt.getBrain();
+        player = pt.getPlayer();
+        playerNumber = player.getPlayerNumber();
+        game = pt.game;
+        possibleRoads = pt.possibleRoads;
+        possibleSettlements = pt.possibleSettlements;
+        possibleCities = pt.possibleCities;
+        longestRoadETA = pt.getLongestRoadETA();
+        roadsToGo = pt.getRoadsToGo();
+        largestArmyETA = pt.getLargestArmyETA();
+        knightsToBuy = pt.getKnightsToBuy();
+        pendingInitSettlement = pt.getPendingInitSettlement();
+        scen_SC_PIRI_closestShipToFortress = pt.scen_SC_PIRI_closestShipToFortress;
+
+        if (pt.sharedFrom != null)
+        {
+            sharedFrom = pt.sharedFrom;
+            sharedFromChangeCount = pt.sharedFromChangeCount;
+        } else {
+            sharedFrom = pt;
+            sharedFromChangeCount = pt.changeCount;
+        }
+        copyGroup = group;
+    }
+
+    /**
+     * Copy these possible pieces into this tracker's new empty maps.
+     * Doesn't copy connections between possible pieces.
+     * @since 2.4.50
+     */
+    private void copyPieces
+        (final TreeMap<Integer, SOCPossibleRoad> roads, final TreeMap<Integer, SOCPossibleSettlement> settlements,
+         final TreeMap<Integer, SOCPossibleCity> cities)
+    {
+        for (SOCPossibleRoad posRoad : roads.values())
         {
             SOCPossibleRoad posRoadCopy;
             if (posRoad instanceof SOCPossibleShip)
@@ -243,23 +318,121 @@ public class SOCPlayerTracker implements Serializable
             possibleRoads.put(Integer.valueOf(posRoadCopy.getCoordinates()), posRoadCopy);
         }
 
-        for (SOCPossibleSettlement posSettlement : pt.getPossibleSettlements().values())
+        for (SOCPossibleSettlement posSettlement : settlements.values())
         {
             SOCPossibleSettlement posSettlementCopy = new SOCPossibleSettlement(posSettlement);
             possibleSettlements.put(Integer.valueOf(posSettlementCopy.getCoordinates()), posSettlementCopy);
         }
 
-        for (SOCPossibleCity posCity : pt.getPossibleCities().values())
+        for (SOCPossibleCity posCity : cities.values())
         {
             SOCPossibleCity posCityCopy = new SOCPossibleCity(posCity);
             possibleCities.put(Integer.valueOf(posCityCopy.getCoordinates()), posCityCopy);
         }
     }
 
+    /**
+     * Check that the tracker whose pieces this copy is sharing hasn't changed them since the copy was made.
+     * @throws IllegalStateException if they've changed
+     * @since 2.4.50
+     */
+    private void checkSharedUnchanged()
+        throws IllegalStateException
+    {
+        if (sharedFrom.changeCount != sharedFromChangeCount)
+            throw new IllegalStateException
+                ("tracker for pn " + playerNumber + " changed while copies were sharing its pieces");
+    }
+
+    /**
+     * Call before changing this tracker's possible pieces. If this is a copy from
+     * {@link #copyPlayerTrackers(SOCPlayerTracker[])} still sharing them, copies them now
+     * with {@link #copySharedPieces()}. Also counts the change for any copies sharing this tracker's pieces.
+     * @since 2.4.50
+     */
+    private void ensureOwnPieces()
+    {
+        if (sharedFrom != null)
+            copySharedPieces();
+        ++changeCount;
+    }
+
+    /**
+     * Call before changes which can reach other players' possible settlements through their conflicts:
+     * Calls {@link #ensureOwnPieces()} for this tracker and the others in its {@link #copyGroup},
+     * or in {@code trackers} if this tracker isn't a copy.
+     * @param trackers  player trackers for all of the players, or null
+     * @since 2.4.50
+     */
+    private void ensureAllOwnPieces(final SOCPlayerTracker[] trackers)
+    {
+        ensureOwnPieces();
+        final SOCPlayerTracker[] others = (copyGroup != null) ? copyGroup : trackers;
+        if (others == null)
+            return;
+        for (SOCPlayerTracker pt : others)
+            if ((pt != null) && (pt != this))
+                pt.ensureOwnPieces();
+    }
+
+    /**
+     * For a copy which has been sharing {@link #sharedFrom}'s possible pieces, copy them
+     * and make the connections between them, like {@link #copyPlayerTrackers(SOCPlayerTracker[])} does.
+     * Settlement conflicts link to the pieces of the other trackers in {@link #copyGroup};
+     * links from those trackers' copied pieces to this player's shared pieces are updated too.
+     * @throws IllegalStateException if {@link #sharedFrom} has changed its pieces since the copy was made
+     * @since 2.4.50
+     */
+    private void copySharedPieces()
+        throws IllegalStateException
+    {
+        checkSharedUnchanged();
+
+        final TreeMap<Integer, SOCPossibleRoad> sharedRoads = possibleRoads;
+        final TreeMap<Integer, SOCPossibleSettlement> sharedSettlements = possibleSettlements;
+        final TreeMap<Integer, SOCPossibleCity> sharedCities = possibleCities;
+        sharedFrom = null;
+        possibleRoads = new TreeMap<Integer, SOCPossibleRoad>();
+        possibleSettlements = new TreeMap<Integer, SOCPossibleSettlement>();
+        possibleCities = new TreeMap<Integer, SOCPossibleCity>();
+        copyPieces(sharedRoads, sharedSettlements, sharedCities);
+        copyPieceConnections(sharedRoads, sharedSettlements, copyGroup);
+
+        if (copyGroup == null)
+            return;
+
+        // other copies which already have their own pieces may still link to our shared ones
+        for (SOCPlayerTracker pt : copyGroup)
+        {
+            if ((pt == null) || (pt == this) || (pt.sharedFrom != null))
+                continue;
+
+            for (SOCPossibleSettlement posSet : pt.possibleSettlements.values())
+            {
+                final List<SOCPossibleSettlement> conflicts = posSet.getConflicts();
+                for (int i = conflicts.size() - 1; i >= 0; --i)
+                {
+                    final SOCPossibleSettlement conflict = conflicts.get(i);
+                    if (conflict.getPlayer().getPlayerNumber() != playerNumber)
+                        continue;
+
+                    final SOCPossibleSettlement conflictCopy
+                        = possibleSettlements.get(Integer.valueOf(conflict.getCoordinates()));
+                    if (conflictCopy != null)
+                        conflicts.set(i, conflictCopy);
+                    else
+                        D.ebugPrintlnINFO("*** ERROR in copySharedPieces : conflictCopy == null");
+                }
+            }
+        }
+    }
+
     /**
      * Clears the treeMaps containing the possible pieces and sets the etas to the default values.
      */
     public void reinitTracker(){
+        sharedFrom = null;
+        ++changeCount;
         possibleRoads = new TreeMap();
         possibleSettlements = new TreeMap();
         possibleCities = new TreeMap();
@@ -289,6 +462,8 @@ public class SOCPlayerTracker implements Serializable
      * @param info the clone containing only the information that could be cloned
      */
     public void partialUpdateFromTracker(SOCPlayerTracker info){
+        sharedFrom = null;
+        ++changeCount;
         this.possibleSettlements = info.possibleSettlements;
         this.possibleRoads = info.possibleRoads;
         this.possibleCities = info.possibleCities;
@@ -306,6 +481,14 @@ public class SOCPlayerTracker implements Serializable
      * make connections between copied pieces
      *<P>
      * Note: not copying threats
+     *<P>
+     * The copies are copy-on-write: Each one shares its original tracker's possible pieces
+     * until the copy's pieces are about to be changed or are given out by a getter like {@link #getPossibleRoads()}.
+     * Then it copies them and makes their connections. So a lookahead like
+     * {@link #tryPutPiece(SOCPlayingPiece, SOCGame, SOCPlayerTracker[])} only copies the trackers
+     * it changes: A road or city usually changes only its owner's tracker, a settlement changes them all.
+     * The original trackers' possible pieces must not be changed while the copies are in use;
+     * if they are, the copies will throw {@link IllegalStateException}.
      *
      * param trackers  player trackers for each player
      */
@@ -315,165 +498,164 @@ public class SOCPlayerTracker implements Serializable
             = new SOCPlayerTracker[trackers.length];  // length == SOCGame.maxPlayers
 
         //
-        // copy the trackers but not the connections between the pieces
+        // copy the trackers, sharing their pieces for now
         //
         for (SOCPlayerTracker pt : trackers)
         {
             if (pt != null)
-                trackersCopy[pt.getPlayer().getPlayerNumber()] = new SOCPlayerTracker(pt);
+                trackersCopy[pt.getPlayer().getPlayerNumber()] = new SOCPlayerTracker(pt, trackersCopy);
         }
 
-        //
-        // now make the connections between the pieces
-        //
-        //D.ebugPrintln(">>>>> Making connections between pieces");
+        return trackersCopy;
+    }
 
-        for (int tpn = 0; tpn < trackers.length; ++tpn)
+    /**
+     * Make connections between this tracker's newly copied possible pieces,
+     * matching those between the original pieces.
+     * Settlement conflicts with other players' pieces link to the pieces of the trackers in {@code trackersCopy}.
+     *<P>
+     * Before v2.4.50 this was part of {@link #copyPlayerTrackers(SOCPlayerTracker[])}.
+     *
+     * @param roads  the original possible roads and ships
+     * @param settlements  the original possible settlements
+     * @param trackersCopy  the copied trackers for each player, or null
+     * @since 2.4.50
+     */
+    private void copyPieceConnections
+        (final TreeMap<Integer, SOCPossibleRoad> roads, final TreeMap<Integer, SOCPossibleSettlement> settlements,
+         final SOCPlayerTracker[] trackersCopy)
+    {
+        for (SOCPossibleRoad posRoad : roads.values())
         {
-            final SOCPlayerTracker tracker = trackers[tpn];
-            if (tracker == null)
-                continue;
-            final SOCPlayerTracker trackerCopy = trackersCopy[tracker.getPlayer().getPlayerNumber()];
+            SOCPossibleRoad posRoadCopy = possibleRoads.get(Integer.valueOf(posRoad.getCoordinates()));
 
-            //D.ebugPrintln(">>>> Player num for tracker is "+tracker.getPlayer().getPlayerNumber());
-            //D.ebugPrintln(">>>> Player num for trackerCopy is "+trackerCopy.getPlayer().getPlayerNumber());
-            TreeMap<Integer, SOCPossibleRoad> possibleRoads = tracker.getPossibleRoads();
-            TreeMap<Integer, SOCPossibleRoad> possibleRoadsCopy = trackerCopy.getPossibleRoads();
-            TreeMap<Integer, SOCPossibleSettlement> possibleSettlements = tracker.getPossibleSettlements();
-            TreeMap<Integer, SOCPossibleSettlement> possibleSettlementsCopy = trackerCopy.getPossibleSettlements();
+            //D.ebugPrintln(">>> posRoad     : "+posRoad);
+            //D.ebugPrintln(">>> posRoadCopy : "+posRoadCopy);
 
-            for (SOCPossibleRoad posRoad : possibleRoads.values())
+            for (SOCPossibleRoad necRoad : posRoad.getNecessaryRoads())
             {
-                SOCPossibleRoad posRoadCopy = possibleRoadsCopy.get(Integer.valueOf(posRoad.getCoordinates()));
+                //D.ebugPrintln(">> posRoad.necRoad : "+necRoad);
+                //
+                // now find the copy of this necessary road and
+                // add it to the pos road copy's nec road list
+                //
+                SOCPossibleRoad necRoadCopy = possibleRoads.get(Integer.valueOf(necRoad.getCoordinates()));
 
-                //D.ebugPrintln(">>> posRoad     : "+posRoad);
-                //D.ebugPrintln(">>> posRoadCopy : "+posRoadCopy);
+                if (necRoadCopy != null)
+                {
+                    posRoadCopy.addNecessaryRoad(necRoadCopy);
+                }
+                else
+                {
+                    D.ebugPrintlnINFO("*** ERROR in copyPieceConnections : necRoadCopy == null");
+                }
+            }
 
-                for (SOCPossibleRoad necRoad : posRoad.getNecessaryRoads())
+            for (SOCPossiblePiece newPos : posRoad.getNewPossibilities())
+            {
+                //D.ebugPrintln(">> posRoad.newPos : "+newPos);
+                //
+                // now find the copy of this new possibility and
+                // add it to the pos road copy's new possibility list
+                //
+                switch (newPos.getType())
                 {
-                    //D.ebugPrintln(">> posRoad.necRoad : "+necRoad);
-                    //
-                    // now find the copy of this necessary road and
-                    // add it to the pos road copy's nec road list
-                    //
-                    SOCPossibleRoad necRoadCopy = possibleRoadsCopy.get(Integer.valueOf(necRoad.getCoordinates()));
+                case SOCPossiblePiece.SHIP:  // fall through to ROAD
+                case SOCPossiblePiece.ROAD:
+
+                    SOCPossibleRoad newPosRoadCopy = possibleRoads.get(Integer.valueOf(newPos.getCoordinates()));
 
-                    if (necRoadCopy != null)
+                    if (newPosRoadCopy != null)
                     {
-                        posRoadCopy.addNecessaryRoad(necRoadCopy);
+                        posRoadCopy.addNewPossibility(newPosRoadCopy);
                     }
                     else
                     {
-                        D.ebugPrintlnINFO("*** ERROR in copyPlayerTrackers : necRoadCopy == null");
+                        D.ebugPrintlnINFO("*** ERROR in copyPieceConnections : newPosRoadCopy == null");
                     }
-                }
 
-                for (SOCPossiblePiece newPos : posRoad.getNewPossibilities())
-                {
-                    //D.ebugPrintln(">> posRoad.newPos : "+newPos);
-                    //
-                    // now find the copy of this new possibility and
-                    // add it to the pos road copy's new possibility list
-                    //
-                    switch (newPos.getType())
-                    {
-                    case SOCPossiblePiece.SHIP:  // fall through to ROAD
-                    case SOCPossiblePiece.ROAD:
+                    break;
 
-                        SOCPossibleRoad newPosRoadCopy = possibleRoadsCopy.get(Integer.valueOf(newPos.getCoordinates()));
+                case SOCPossiblePiece.SETTLEMENT:
 
-                        if (newPosRoadCopy != null)
-                        {
-                            posRoadCopy.addNewPossibility(newPosRoadCopy);
-                        }
-                        else
-                        {
-                            D.ebugPrintlnINFO("*** ERROR in copyPlayerTrackers : newPosRoadCopy == null");
-                        }
+                    SOCPossibleSettlement newPosSettlementCopy = possibleSettlements.get
+                        (Integer.valueOf(newPos.getCoordinates()));
 
-                        break;
+                    if (newPosSettlementCopy != null)
+                    {
+                        posRoadCopy.addNewPossibility(newPosSettlementCopy);
+                    }
+                    else
+                    {
+                        D.ebugPrintlnINFO("*** ERROR in copyPieceConnections : newPosSettlementCopy == null");
+                    }
 
-                    case SOCPossiblePiece.SETTLEMENT:
+                    break;
+                }
+            }
+        }
 
-                        SOCPossibleSettlement newPosSettlementCopy = possibleSettlementsCopy.get
-                            (Integer.valueOf(newPos.getCoordinates()));
 
-                        if (newPosSettlementCopy != null)
-                        {
-                            posRoadCopy.addNewPossibility(newPosSettlementCopy);
-                        }
-                        else
-                        {
-                            D.ebugPrintlnINFO("*** ERROR in copyPlayerTrackers : newPosSettlementCopy == null");
-                        }
+        for (SOCPossibleSettlement posSet : settlements.values())
+        {
+            SOCPossibleSettlement posSetCopy
+                = possibleSettlements.get(Integer.valueOf(posSet.getCoordinates()));
 
-                        break;
-                    }
+            //D.ebugPrintln(">>> posSet     : "+posSet);
+            //D.ebugPrintln(">>> posSetCopy : "+posSetCopy);
+
+            for (SOCPossibleRoad necRoad : posSet.getNecessaryRoads())
+            {
+                //D.ebugPrintln(">> posSet.necRoad : "+necRoad);
+                //
+                // now find the copy of this necessary road and
+                // add it to the pos settlement copy's nec road list
+                //
+                SOCPossibleRoad necRoadCopy
+                    = possibleRoads.get(Integer.valueOf(necRoad.getCoordinates()));
+
+                if (necRoadCopy != null)
+                {
+                    posSetCopy.addNecessaryRoad(necRoadCopy);
+                }
+                else
+                {
+                    D.ebugPrintlnINFO("*** ERROR in copyPieceConnections : necRoadCopy == null");
                 }
             }
 
 
-            for (SOCPossibleSettlement posSet : possibleSettlements.values())
+            for (SOCPossibleSettlement conflict : posSet.getConflicts())
             {
-                SOCPossibleSettlement posSetCopy
-                    = possibleSettlementsCopy.get(Integer.valueOf(posSet.getCoordinates()));
-
-                //D.ebugPrintln(">>> posSet     : "+posSet);
-                //D.ebugPrintln(">>> posSetCopy : "+posSetCopy);
+                //D.ebugPrintln(">> posSet.conflict : "+conflict);
+                //
+                // now find the copy of this conflict and
+                // add it to the conflict list in the pos settlement copy
+                //
+                final int cpn = conflict.getPlayer().getPlayerNumber();
+                SOCPlayerTracker trackerCopy2 = (cpn == playerNumber) ? this
+                    : ((trackersCopy != null) ? trackersCopy[cpn] : null);
 
-                for (SOCPossibleRoad necRoad : posSet.getNecessaryRoads())
+                if (trackerCopy2 == null)
                 {
-                    //D.ebugPrintln(">> posSet.necRoad : "+necRoad);
-                    //
-                    // now find the copy of this necessary road and
-                    // add it to the pos settlement copy's nec road list
-                    //
-                    SOCPossibleRoad necRoadCopy
-                        = possibleRoadsCopy.get(Integer.valueOf(necRoad.getCoordinates()));
-
-                    if (necRoadCopy != null)
-                    {
-                        posSetCopy.addNecessaryRoad(necRoadCopy);
-                    }
-                    else
-                    {
-                        D.ebugPrintlnINFO("*** ERROR in copyPlayerTrackers : necRoadCopy == null");
-                    }
+                    D.ebugPrintlnINFO("*** ERROR in copyPieceConnections : trackerCopy2 == null");
                 }
-
-
-                for (SOCPossibleSettlement conflict : posSet.getConflicts())
+                else
                 {
-                    //D.ebugPrintln(">> posSet.conflict : "+conflict);
-                    //
-                    // now find the copy of this conflict and
-                    // add it to the conflict list in the pos settlement copy
-                    //
-                    SOCPlayerTracker trackerCopy2 = trackersCopy[conflict.getPlayer().getPlayerNumber()];
+                    SOCPossibleSettlement conflictCopy = trackerCopy2.possibleSettlements.get
+                        (Integer.valueOf(conflict.getCoordinates()));
 
-                    if (trackerCopy2 == null)
+                    if (conflictCopy == null)
                     {
-                        D.ebugPrintlnINFO("*** ERROR in copyPlayerTrackers : trackerCopy2 == null");
+                        D.ebugPrintlnINFO("*** ERROR in copyPieceConnections : conflictCopy == null");
                     }
                     else
                     {
-                        SOCPossibleSettlement conflictCopy = trackerCopy2.getPossibleSettlements().get
-                            (Integer.valueOf(conflict.getCoordinates()));
-
-                        if (conflictCopy == null)
-                        {
-                            D.ebugPrintlnINFO("*** ERROR in copyPlayerTrackers : conflictCopy == null");
-                        }
-                        else
-                        {
-                            posSetCopy.addConflict(conflictCopy);
-                        }
+                        posSetCopy.addConflict(conflictCopy);
                     }
                 }
             }
         }
-
-        return trackersCopy;
     }
 
     /**
@@ -527,6 +709,8 @@ public class SOCPlayerTracker implements Serializable
      */
     public TreeMap<Integer, SOCPossibleRoad> getPossibleRoads()
     {
+        if (sharedFrom != null)
+            copySharedPieces();
         return possibleRoads;
     }
 
@@ -535,6 +719,8 @@ public class SOCPlayerTracker implements Serializable
      */
     public TreeMap<Integer, SOCPossibleSettlement> getPossibleSettlements()
     {
+        if (sharedFrom != null)
+            copySharedPieces();
         return possibleSettlements;
     }
 
@@ -543,6 +729,8 @@ public class SOCPlayerTracker implements Serializable
      */
     public TreeMap<Integer, SOCPossibleCity> getPossibleCities()
     {
+        if (sharedFrom != null)
+            copySharedPieces();
         return possibleCities;
     }
 
@@ -631,8 +819,9 @@ public class SOCPlayerTracker implements Serializable
         {
             addOurNewRoadOrShip(road, trackers, EXPAND_LEVEL);
         }
-        else
+        else if (possibleRoads.containsKey(Integer.valueOf(road.getCoordinates())))
         {
+            // otherwise it wouldn't change anything here, and a copy can keep sharing its pieces
             addTheirNewRoadOrShip(road, false);
         }
     }
@@ -649,6 +838,7 @@ public class SOCPlayerTracker implements Serializable
      */
     public void cancelWrongRoadOrShip(SOCRoutePiece rs)
     {
+        ensureOwnPieces();
         addTheirNewRoadOrShip(rs, true);
 
         //
@@ -693,6 +883,8 @@ public class SOCPlayerTracker implements Serializable
         (final SOCRoutePiece rs, final SOCPlayerTracker[] trackers, final int expandLevel)
     {
         //D.ebugPrintln("$$$ addOurNewRoad : "+road);
+        ensureOwnPieces();
+
         //
         // see if the new road was a possible road
         //
@@ -727,17 +919,16 @@ public class SOCPlayerTracker implements Serializable
         // check adjacent nodes to road for potential settlements
         //
         final SOCBoard board = game.getBoard();
-        Collection<Integer> adjNodeEnum = board.getAdjacentNodesToEdge(rs.getCoordinates());
         final SOCBuildingSpeedEstimateFactory bsef = brain.getEstimatorFactory();
 
-        for (Integer adjNode : adjNodeEnum)
+        for (final int adjNode : board.getAdjacentNodesToEdge_shared(rs.getCoordinates()))
         {
-            if (player.canPlaceSettlement(adjNode.intValue()))
+            if (player.canPlaceSettlement(adjNode))
             {
                 //
                 // see if possible settlement is already in the list
                 //
-                //D.ebugPrintln("$$$ seeing if "+Integer.toHexString(adjNode.intValue())+" is already in the list");
+                //D.ebugPrintln("$$$ seeing if "+Integer.toHexString(adjNode)+" is already in the list");
                 SOCPossibleSettlement posSet = possibleSettlements.get(adjNode);
 
                 if (posSet != null)
@@ -755,8 +946,8 @@ public class SOCPlayerTracker implements Serializable
                     //
                     // else, add new possible settlement
                     //
-                    //D.ebugPrintln("$$$ adding new possible settlement at "+Integer.toHexString(adjNode.intValue()));
-                    SOCPossibleSettlement newPosSet = new SOCPossibleSettlement(player, adjNode.intValue(), null, bsef);
+                    //D.ebugPrintln("$$$ adding new possible settlement at "+Integer.toHexString(adjNode));
+                    SOCPossibleSettlement newPosSet = new SOCPossibleSettlement(player, adjNode, null, bsef);
                     newPosSet.setNumberOfNecessaryRoads(0);
                     possibleSettlements.put(adjNode, newPosSet);
                     updateSettlementConflicts(newPosSet, trackers);
@@ -774,11 +965,10 @@ public class SOCPlayerTracker implements Serializable
         //
         // check adjacent edges to road
         //
-        for (Integer adjEdge : board.getAdjacentEdgesToEdge(rs.getCoordinates()))
+        for (final int edge : board.getAdjacentEdgesToEdge_shared(rs.getCoordinates()))
         {
-            final int edge = adjEdge.intValue();
 
-            //D.ebugPrintln("$$$ edge "+Integer.toHexString(adjEdge.intValue())+" is legal:"+player.isPotentialRoad(adjEdge.intValue()));
+            //D.ebugPrintln("$$$ edge "+Integer.toHexString(edge)+" is legal:"+player.isPotentialRoad(edge));
             //
             // see if edge is a potential road
             // or ship to continue this route
@@ -816,7 +1006,7 @@ public class SOCPlayerTracker implements Serializable
                 //
                 // see if possible road is already in the list
                 //
-                SOCPossibleRoad pr = possibleRoads.get(adjEdge);
+                SOCPossibleRoad pr = possibleRoads.get(edge);
 
                 if (pr != null)
                 {
@@ -847,7 +1037,7 @@ public class SOCPlayerTracker implements Serializable
                     //
                     // else, add new possible road
                     //
-                    //D.ebugPrintln("$$$ adding new pr at "+Integer.toHexString(adjEdge.intValue()));
+                    //D.ebugPrintln("$$$ adding new pr at "+Integer.toHexString(edge));
                     SOCPossibleRoad newPR;
                     final int roadsBetween;  // for effort if requires settlement
                     boolean isRoad = rs.isRoadNotShip();
@@ -940,6 +1130,7 @@ public class SOCPlayerTracker implements Serializable
          final SOCPlayerTracker[] trackers, final int level)
     {
         //D.ebugPrintln("$$$ expandRoad at "+Integer.toHexString(targetRoad.getCoordinates())+" level="+level);
+        ensureOwnPieces();
 
         final SOCBoard board = game.getBoard();
         final int tgtRoadEdge = targetRoad.getCoordinates();
@@ -961,14 +1152,14 @@ public class SOCPlayerTracker implements Serializable
         //D.ebugPrintln("$$$ checking for possible settlements");
         //
         final SOCBuildingSpeedEstimateFactory bsef = brain.getEstimatorFactory();
-        for (Integer adjNode : board.getAdjacentNodesToEdge(tgtRoadEdge))
+        for (final int adjNode : board.getAdjacentNodesToEdge_shared(tgtRoadEdge))
         {
-            if (dummy.canPlaceSettlement(adjNode.intValue()))
+            if (dummy.canPlaceSettlement(adjNode))
             {
                 //
                 // see if possible settlement is already in the list
                 //
-                //D.ebugPrintln("$$$ seeing if "+Integer.toHexString(adjNode.intValue())+" is already in the list");
+                //D.ebugPrintln("$$$ seeing if "+Integer.toHexString(adjNode)+" is already in the list");
                 SOCPossibleSettlement posSet = possibleSettlements.get(adjNode);
 
                 if (posSet != null)
@@ -999,11 +1190,11 @@ public class SOCPlayerTracker implements Serializable
                     //
                     // else, add new possible settlement
                     //
-                    //D.ebugPrintln("$$$ adding new possible settlement at "+Integer.toHexString(adjNode.intValue()));
+                    //D.ebugPrintln("$$$ adding new possible settlement at "+Integer.toHexString(adjNode));
                     List<SOCPossibleRoad> nr = new ArrayList<SOCPossibleRoad>();
                     nr.add(targetRoad);
 
-                    SOCPossibleSettlement newPosSet = new SOCPossibleSettlement(pl, adjNode.intValue(), nr, bsef);
+                    SOCPossibleSettlement newPosSet = new SOCPossibleSettlement(pl, adjNode, nr, bsef);
                     newPosSet.setNumberOfNecessaryRoads(targetRoad.getNumberOfNecessaryRoads() + 1);
                     possibleSettlements.put(adjNode, newPosSet);
                     targetRoad.addNewPossibility(newPosSet);
@@ -1028,9 +1219,8 @@ public class SOCPlayerTracker implements Serializable
             //
             // check adjacent edges to road or ship
             //
-            for (final Integer adjEdgeInt : board.getAdjacentEdgesToEdge(tgtRoadEdge))
+            for (final int edge : board.getAdjacentEdgesToEdge_shared(tgtRoadEdge))
             {
-                final int edge = adjEdgeInt.intValue();
 
                 if (isShipInSC_PIRI)
                 {
@@ -1088,7 +1278,7 @@ public class SOCPlayerTracker implements Serializable
                     //
                     // see if possible road is already in the list
                     //
-                    SOCPossibleRoad pr = possibleRoads.get(adjEdgeInt);
+                    SOCPossibleRoad pr = possibleRoads.get(edge);
 
                     if (pr != null)
                     {
@@ -1221,6 +1411,11 @@ public class SOCPlayerTracker implements Serializable
 
         if (pr != null)
         {
+            if (sharedFrom != null)
+            {
+                ensureOwnPieces();
+                pr = possibleRoads.get(edge);
+            }
             //D.ebugPrintln("$$$ removing road at "+Integer.toHexString(pr.getCoordinates()));
             possibleRoads.remove(edge);
             removeFromNecessaryRoads(pr);
@@ -1428,11 +1623,16 @@ public class SOCPlayerTracker implements Serializable
              */
             if (tracker.getPlayer().getPlayerNumber() != ps.getPlayer().getPlayerNumber())
             {
-                SOCPossibleSettlement posSet
-                    = tracker.getPossibleSettlements().get(Integer.valueOf(ps.getCoordinates()));
+                final Integer psNode = Integer.valueOf(ps.getCoordinates());
+                SOCPossibleSettlement posSet = tracker.possibleSettlements.get(psNode);
 
                 if (posSet != null)
                 {
+                    if (tracker.sharedFrom != null)
+                    {
+                        tracker.ensureOwnPieces();
+                        posSet = tracker.possibleSettlements.get(psNode);
+                    }
                     //D.ebugPrintln("$$$ add conflict "+Integer.toHexString(posSet.getCoordinates()));
                     ps.addConflict(posSet);
                     posSet.addConflict(ps);
@@ -1442,12 +1642,17 @@ public class SOCPlayerTracker implements Serializable
             /**
              * now look at adjacent settlements
              */
-            for (Integer adjNode : board.getAdjacentNodesToNode(ps.getCoordinates()))
+            for (final int adjNode : board.getAdjacentNodesToNode_shared(ps.getCoordinates()))
             {
-                SOCPossibleSettlement posSet = tracker.getPossibleSettlements().get(adjNode);
+                SOCPossibleSettlement posSet = tracker.possibleSettlements.get(adjNode);
 
                 if (posSet != null)
                 {
+                    if (tracker.sharedFrom != null)
+                    {
+                        tracker.ensureOwnPieces();
+                        posSet = tracker.possibleSettlements.get(adjNode);
+                    }
                     //D.ebugPrintln("$$$ add conflict "+Integer.toHexString(posSet.getCoordinates()));
                     ps.addConflict(posSet);
                     posSet.addConflict(ps);
@@ -1468,6 +1673,7 @@ public class SOCPlayerTracker implements Serializable
     {
         //D.ebugPrintln("%$% settlement owner ="+settlement.getPlayer().getPlayerNumber());
         //D.ebugPrintln("%$% tracker owner ="+player.getPlayerNumber());
+        ensureAllOwnPieces(trackers);
         if (settlement.getPlayerNumber() == playerNumber)
         {
             addOurNewSettlement(settlement, trackers);
@@ -1488,6 +1694,7 @@ public class SOCPlayerTracker implements Serializable
      */
     public void cancelWrongSettlement(SOCSettlement settlement)
     {
+        ensureAllOwnPieces(null);
         addTheirNewSettlement(settlement, true);
 
         /**
@@ -1531,6 +1738,7 @@ public class SOCPlayerTracker implements Serializable
     {
         //D.ebugPrintln();
         D.ebugPrintlnINFO("$$$ addOurNewSettlement : " + settlement);
+        ensureAllOwnPieces(trackers);
         SOCBoard board = game.getBoard();
 
         final Integer settlementCoords = Integer.valueOf(settlement.getCoordinates());
@@ -1824,6 +2032,7 @@ public class SOCPlayerTracker implements Serializable
 
         //D.ebugPrintln();
         D.ebugPrintlnINFO("$$$ addTheirNewSettlement : " + settlement);
+        ensureAllOwnPieces(null);
 
         ArrayList<SOCPossibleRoad> prTrash = new ArrayList<SOCPossibleRoad>();
         ArrayList<SOCPossibleRoad> nrTrash = new ArrayList<SOCPossibleRoad>();
@@ -1921,6 +2130,29 @@ public class SOCPlayerTracker implements Serializable
         }
     }
 
+    /**
+     * Before changing the other players' possible settlements which conflict with our {@code ps}:
+     * If this tracker is a copy from {@link #copyPlayerTrackers(SOCPlayerTracker[])}, calls
+     * {@link #ensureOwnPieces()} for each copy owning one of those settlements.
+     * Since {@code ps} is still in {@link #possibleSettlements}, its conflicts are updated to those copies' pieces.
+     *
+     * @param ps  one of our possible settlements
+     * @since 2.4.50
+     */
+    private void ensureConflictsOwnPieces(final SOCPossibleSettlement ps)
+    {
+        if (copyGroup == null)
+            return;
+
+        final List<SOCPossibleSettlement> conflicts = ps.getConflicts();
+        for (int i = 0; i < conflicts.size(); ++i)
+        {
+            final SOCPlayerTracker pt = copyGroup[conflicts.get(i).getPlayer().getPlayerNumber()];
+            if ((pt != null) && (pt.sharedFrom != null))
+                pt.ensureOwnPieces();
+        }
+    }
+
     /**
      * remove everything that depends on this road being built
      *
@@ -1992,6 +2224,7 @@ public class SOCPlayerTracker implements Serializable
                     if (nr.isEmpty())
                     {
                         //D.ebugPrintln("$$$ removing this settlement");
+                        ensureConflictsOwnPieces((SOCPossibleSettlement) newPos);
                         possibleSettlements.remove(Integer.valueOf(newPos.getCoordinates()));
                         removeFromNecessaryRoads((SOCPossibleSettlement) newPos);
 
@@ -2073,6 +2306,7 @@ public class SOCPlayerTracker implements Serializable
          * Just remove our potential city, since it was wrongly placed.
          * remove the possible city from the list
          */
+        ensureOwnPieces();
         possibleCities.remove(Integer.valueOf(city.getCoordinates()));
     }
 
@@ -2087,7 +2321,12 @@ public class SOCPlayerTracker implements Serializable
         /**
          * remove the possible city from the list
          */
-        possibleCities.remove(Integer.valueOf(city.getCoordinates()));
+        final Integer node = Integer.valueOf(city.getCoordinates());
+        if (possibleCities.containsKey(node))
+        {
+            ensureOwnPieces();
+            possibleCities.remove(node);
+        }
     }
 
     /**
@@ -2100,6 +2339,7 @@ public class SOCPlayerTracker implements Serializable
         /**
          * add the possible city to the list
          */
+        ensureOwnPieces();
         possibleCities.put(Integer.valueOf(city.getCoordinates()), city);
     }
 
@@ -2111,6 +2351,7 @@ public class SOCPlayerTracker implements Serializable
     public void updateThreats(final SOCPlayerTracker[] trackers)
     {
         //D.ebugPrintln("&&&& updateThreats");
+        ensureAllOwnPieces(trackers);
 
         /**
          * check roads that need updating and don't have necessary roads
@@ -2131,7 +2372,7 @@ public class SOCPlayerTracker implements Serializable
                  */
                 final int[] adjNodesToPosRoad = board.getAdjacentNodesToEdge_arr(posRoad.getCoordinates());
 
-                for (final int adjEdge : board.getAdjacentEdgesToEdge(posRoad.getCoordinates()))
+                for (final int adjEdge : board.getAdjacentEdgesToEdge_shared(posRoad.getCoordinates()))
                 {
                     final SOCRoutePiece realRoad = player.getRoadOrShip(adjEdge);
 
@@ -2642,8 +2883,11 @@ public class SOCPlayerTracker implements Serializable
      * @see #recalculateAllETAs()
      */
     public void recalcWinGameETA()
+        throws IllegalStateException
     {
         int oldWGETA = winGameETA;
+        if (sharedFrom != null)
+            checkSharedUnchanged();  // before the try-catch below
 
         try
         {
@@ -4459,7 +4459,7 @@ public abstract class SOCRobotBrain<DM extends SOCRobotDM<BP>, N extends SOCRobo
         int[] roadCount = { 0, 0, 0, 0, 0, 0 };  // Length should be SOCGame.MAXPLAYERS
         final SOCBoard board = game.getBoard();
 
-        for (final int adjEdge : board.getAdjacentEdgesToNode(newSettlement.getCoordinates()))
+        for (final int adjEdge : board.getAdjacentEdgesToNode_shared(newSettlement.getCoordinates()))
         {
             final SOCRoutePiece rs = board.roadOrShipAtEdge(adjEdge);
             if (rs == null)
@@ -55,7 +55,7 @@ import soc.server.genericServer.StringServerSocket;
 import soc.util.CappedQueue;
 import soc.util.CutoffExceededException;
 import soc.util.DebugRecorder;
-import soc.util.DeepCopy;
+import soc.util.GameCheckpoint;
 import soc.util.SOCFeatureSet;
 import soc.util.SOCRobotParameters;
 import soc.util.Version;
@@ -1026,7 +1026,7 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
      */
     private void handleLOADGAME(SOCLoadGame mes) {
         //get some required info from old state
-        String prefix = mes.getFolder() + "/"; //the reason for doing this here is that when calling getDirectory the "/" is not added
+        final String folder = mes.getFolder(); //the save folder, containing the checkpoint archive
     	String brainType = this.robotBrains.get(mes.getGame()).getClass().getName(); //get the brain type
     	SOCRobotBrain rb = (SOCRobotBrain) this.robotBrains.get(mes.getGame()); //get a reference to the brain
     	SOCGame originalGame = (SOCGame) games.get(mes.getGame()); //get a reference to the old game obj in order to get the right player names
@@ -1054,8 +1054,7 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
 			}
         }
     	
-    	String fileName = prefix + pn + "_" + SOCGame.class.getName();
-    	SOCGame gameClone = (SOCGame) DeepCopy.readFromFile(fileName); //read the SOCGame object
+    	SOCGame gameClone = (SOCGame) GameCheckpoint.load(folder, GameCheckpoint.entryName("" + pn, SOCGame.class)); //read the SOCGame object
     	gameClone.setName(originalGame.getName()); //keep the old name for safety reasons
     	gameClone.updatePlayerNames(originalGame.getPlayerNames()); //keep the old player names
     	gameClone.resetTimes();
@@ -1073,12 +1072,10 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
     	this.games.remove(originalGame.getName());
 		this.games.put(gameClone.getName(), gameClone);
 		
-    	fileName = prefix + pn + "_" + ArrayList.class.getName();
-    	ArrayList trackersList = (ArrayList) DeepCopy.readFromFile(fileName);  //read the SOCPlayerTrackers for this player
+    	ArrayList trackersList = (ArrayList) GameCheckpoint.load(folder, GameCheckpoint.entryName("" + pn, ArrayList.class));  //read the SOCPlayerTrackers for this player
     	if (trackersList == null){//logic for handling the case one human player is replaced by a robot
     		for(int i=0; i < gameClone.maxPlayers; i++){
-    			fileName = prefix + i + "_" + ArrayList.class.getName();
-    			trackersList = (ArrayList) DeepCopy.readFromFile(fileName);
+    			trackersList = (ArrayList) GameCheckpoint.load(folder, GameCheckpoint.entryName("" + i, ArrayList.class));
     			if(trackersList != null)
     				break;
     		}
@@ -1143,8 +1140,8 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
     		}
     	}
 		rb.game = gameClone; //for SOCRobotBrain we need to reference to the correct game object inside the brain
-    	fileName = prefix + pn + "_" + StacRobotBrainInfo.class.getName();
-    	StacRobotBrainInfo brainInfoClone = (StacRobotBrainInfo) DeepCopy.readFromFile(fileName); //read the brain info bytes
+    	StacRobotBrainInfo brainInfoClone = (StacRobotBrainInfo) GameCheckpoint.load
+    		(folder, GameCheckpoint.entryName("" + pn, StacRobotBrainInfo.class)); //read the brain info bytes
     	if(brainInfoClone != null){ //by ignoring this step I expect this loading mechanism to work only in a fraction of cases for now;
     		brainInfoClone.waitingForGameState = false; //there is absolutely no way we were waiting for the game state when saving  (how could this happen??)
     	}else{
@@ -1156,16 +1153,16 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
     	//update dialogue mgr and declarative memory only if it is a Stac or a StacRandom brain type
     	if(brainType.equals(StacRobotBrain.class.getName()) || brainType.equals(StacRobotBrainRandom.class.getName())
     			|| brainType.equals(StacRobotBrainFlatMCTS.class.getName()) || brainType.equals(MCTSRobotBrain.class.getName())){
-			fileName = prefix + pn + "_" + StacRobotDeclarativeMemory.class.getName();
-	    	StacRobotDeclarativeMemory memoryClone = (StacRobotDeclarativeMemory) DeepCopy.readFromFile(fileName);  //read the DeclarativeMemory object
+	    	StacRobotDeclarativeMemory memoryClone = (StacRobotDeclarativeMemory) GameCheckpoint.load
+	    		(folder, GameCheckpoint.entryName("" + pn, StacRobotDeclarativeMemory.class));  //read the DeclarativeMemory object
 	    	if(memoryClone != null)
 	    		((StacRobotBrain) rb).getMemory().partialUpdateFromMemory(memoryClone);//update the memory's info
 	    	else{
 	    		((StacRobotBrain) rb).getMemory().reinitMemory();//try and reinit the memory
 	    	}
 	    	if(brainType.equals(MCTSRobotBrain.class.getName())) {
-	    		fileName = prefix + pn + "_" + CatanFactoredBelief.class.getName();
-	    		CatanFactoredBelief beliefClone = (CatanFactoredBelief) DeepCopy.readFromFile(fileName);
+	    		CatanFactoredBelief beliefClone = (CatanFactoredBelief) GameCheckpoint.load
+	    			(folder, GameCheckpoint.entryName("" + pn, CatanFactoredBelief.class));
 		    	if(beliefClone != null)
 		    		((MCTSRobotBrain) rb).setBelief(beliefClone);//update the memory's info
 		    	else
@@ -1214,7 +1211,8 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
 	}
     
     /**
-     * Saves all the current game information and required data for recreating this robot's state:
+     * Saves all the current game information and required data for recreating this robot's state
+     * to the save folder's {@link GameCheckpoint} archive:
      * <ul>
      * 	<li>Suspends the brain;
      * 	<li>{@link SOCGame} object (including the {@link SOCPlayer} objects);
@@ -1279,27 +1277,19 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
 			pt.recalcLargestArmyETA();pt.recalcLongestRoadETA();pt.recalcWinGameETA(); //for storing the ETAs for the special loading case
 			list.add(pt);
 		}
-		DeepCopy.copyToFile(list, "" + pn, mes.getFolder()); //write the object to file
-		//if stac brain type clone both the brainInfo container and the declarative memory
+		//if stac brain type clone both the brainInfo container and the declarative memory, else just the brainInfo container
+		StacRobotBrainInfo brainInfo = rb.getInfo();
+		StacRobotDeclarativeMemory memory = null;
+		CatanFactoredBelief belief = null;
 		if(brainType.equals(StacRobotBrain.class.getName()) || brainType.equals(StacRobotBrainRandom.class.getName())
 				|| brainType.equals(StacRobotBrainFlatMCTS.class.getName()) || brainType.equals(MCTSRobotBrain.class.getName())){
-			StacRobotBrainInfo brainInfo = rb.getInfo();
-			DeepCopy.copyToFile(brainInfo, "" + pn, mes.getFolder());
-			StacRobotDeclarativeMemory memory = ((StacRobotBrain) rb).getMemory();
-			DeepCopy.copyToFile(memory, "" + pn, mes.getFolder());
-			if(brainType.equals(MCTSRobotBrain.class.getName())) {
-				CatanFactoredBelief belief = ((MCTSRobotBrain) rb).getBelief();
-				if(belief != null)
-					DeepCopy.copyToFile(belief, "" + pn, mes.getFolder());
-			}
-		}
-		else{
-			//else just the brainInfo container
-			StacRobotBrainInfo brainInfo = rb.getInfo();
-			DeepCopy.copyToFile(brainInfo, "" + pn, mes.getFolder());
+			memory = ((StacRobotBrain) rb).getMemory();
+			if(brainType.equals(MCTSRobotBrain.class.getName()))
+				belief = ((MCTSRobotBrain) rb).getBelief(); //skipped by save if null
 		}
-		//clone the SOCGame object last so we can check that the saving procedure is finished
-		DeepCopy.copyToFile(game, "" + pn, mes.getFolder()); //write the game object to file
+		//write everything to the folder's checkpoint archive in one update;
+		//the SOCGame object is last so we can check that the saving procedure is finished
+		GameCheckpoint.save(mes.getFolder(), "" + pn, list, brainInfo, memory, belief, game);
 	} 
 	
 	//---MD end of handling methods for Save/Load function
@@ -2808,7 +2808,7 @@ public class SOCRobotDMImpl extends SOCRobotDM<SOCBuildPlanStack> {
 
             int score = 0;
 
-            for (final int hex : board.getAdjacentHexesToNode(node))
+            for (final int hex : board.getAdjacentHexesToNode_shared(node))
             {
                 final int number = board.getNumberOnHexFromCoord(hex);
                 score += numRating[number];
@@ -2974,7 +2974,7 @@ public class SOCRobotDMImpl extends SOCRobotDM<SOCBuildPlanStack> {
 
             int score = 0;
 
-            for (int hex : board.getAdjacentHexesToNode(node))
+            for (int hex : board.getAdjacentHexesToNode_shared(node))
             {
                 score += numRating[board.getNumberOnHexFromCoord(hex)];
 
@@ -5,7 +5,6 @@ import java.util.Iterator;
 import java.util.Vector;
 
 import soc.disableDebug.D;
-import soc.game.SOCBoard;
 import soc.game.SOCPlayer;
 import soc.game.SOCPlayingPiece;
 import soc.game.SOCResourceConstants;
@@ -34,6 +33,13 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
      */
     protected SOCTradeOffer bestCompletedOffer = null;
 
+    /**
+     * Plans our bank/port trades for {@link #getOfferToBank(SOCResourceSet, SOCResourceSet)},
+     * and checks whether leftovers could still make one when planning offers.
+     * @since 2.4.50
+     */
+    protected final SOCBankTradePlanner bankTradePlanner = new SOCBankTradePlanner();
+
     public SOCRobotNegotiatorImpl(SOCRobotBrain<?, ?, SOCBuildPlanStack> br) {
         super(br);
     
@@ -117,6 +123,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
         D.ebugPrintlnINFO("*** BATNA = " + batna);
 
         SOCBuildingSpeedEstimate estimate = brain.getEstimator(ourPlayerData.getNumbers());
+        bankTradePlanner.setState(ourPlayerData.getPortFlags(), estimate.getRollsPerResource());
 
         SOCResourceSet giveResourceSet = new SOCResourceSet();
         SOCResourceSet getResourceSet = new SOCResourceSet();
@@ -489,7 +496,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
                         {
                             leftovers.subtract(1, notNeededRsrc[giveRsrcIdx1]);
 
-                            if (getOfferToBank(targetResources, leftovers) != null)
+                            if (bankTradePlanner.canTrade(targetResources, leftovers))
                             {
                                 giveResourceSet.clear();
                                 giveResourceSet.add(1, notNeededRsrc[giveRsrcIdx1]);
@@ -527,7 +534,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
                         {
                             leftovers.subtract(1, neededRsrc[giveRsrcIdx1]);
 
-                            if (getOfferToBank(targetResources, leftovers) != null)
+                            if (bankTradePlanner.canTrade(targetResources, leftovers))
                             {
                                 giveResourceSet.clear();
                                 giveResourceSet.add(1, neededRsrc[giveRsrcIdx1]);
@@ -633,6 +640,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
         D.ebugPrintlnINFO("*** BATNA = " + batna);
 
         SOCBuildingSpeedEstimate estimate = brain.getEstimator(ourPlayerData.getNumbers());
+        bankTradePlanner.setState(ourPlayerData.getPortFlags(), estimate.getRollsPerResource());
 
         SOCResourceSet giveResourceSet = new SOCResourceSet();
         SOCResourceSet getResourceSet = new SOCResourceSet();
@@ -979,7 +987,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
                         {
                             leftovers.subtract(1, notNeededRsrc[giveRsrcIdx1]);
 
-                            if (getOfferToBank(targetResources, leftovers) != null)
+                            if (bankTradePlanner.canTrade(targetResources, leftovers))
                             {
                                 giveResourceSet.clear();
                                 giveResourceSet.add(1, notNeededRsrc[giveRsrcIdx1]);
@@ -1017,7 +1025,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
                         {
                             leftovers.subtract(1, neededRsrc[giveRsrcIdx1]);
 
-                            if (getOfferToBank(targetResources, leftovers) != null)
+                            if (bankTradePlanner.canTrade(targetResources, leftovers))
                             {
                                 giveResourceSet.clear();
                                 giveResourceSet.add(1, neededRsrc[giveRsrcIdx1]);
@@ -1083,7 +1091,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
                         {
                             leftovers.subtract(1, notNeededRsrc[giveRsrcIdx1]);
 
-                            if (getOfferToBank(targetResources, leftovers) != null)
+                            if (bankTradePlanner.canTrade(targetResources, leftovers))
                             {
                                 giveResourceSet.clear();
                                 giveResourceSet.add(1, notNeededRsrc[giveRsrcIdx1]);
@@ -1121,7 +1129,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
                         {
                             leftovers.subtract(1, neededRsrc[giveRsrcIdx1]);
 
-                            if (getOfferToBank(targetResources, leftovers) != null)
+                            if (bankTradePlanner.canTrade(targetResources, leftovers))
                             {
                                 giveResourceSet.clear();
                                 giveResourceSet.add(1, neededRsrc[giveRsrcIdx1]);
@@ -1187,7 +1195,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
                         {
                             leftovers.subtract(1, notNeededRsrc[giveRsrcIdx1]);
 
-                            if (getOfferToBank(targetResources, leftovers) != null)
+                            if (bankTradePlanner.canTrade(targetResources, leftovers))
                             {
                                 giveResourceSet.clear();
                                 giveResourceSet.add(1, notNeededRsrc[giveRsrcIdx1]);
@@ -1225,7 +1233,7 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
                         {
                             leftovers.subtract(1, neededRsrc[giveRsrcIdx1]);
 
-                            if (getOfferToBank(targetResources, leftovers) != null)
+                            if (bankTradePlanner.canTrade(targetResources, leftovers))
                             {
                                 giveResourceSet.clear();
                                 giveResourceSet.add(1, neededRsrc[giveRsrcIdx1]);
@@ -1277,258 +1285,33 @@ public class SOCRobotNegotiatorImpl extends SOCRobotNegotiator<SOCBuildPlanStack
     }
 
     /**
-     * Contains the actual logic for computing the offer to make to bank/ports
+     * Contains the actual logic for computing the offer to make to bank/ports.
+     * Updates {@link #bankTradePlanner}'s state from our ports and estimator, then asks it for the trade.
      * @param targetResources resources required for achieving the build plan
      * @param ourResources resource in hand
-     * @return
+     * @return the offer to make to the bank/ports, or {@code null} if none
      */
     protected SOCTradeOffer getOfferToBank(SOCResourceSet targetResources, SOCResourceSet ourResources ) {
-        SOCTradeOffer bankTrade = null;
-
         if (ourResources.contains(targetResources))
         {
-            return bankTrade;
+            return null;
         }
 
         SOCBuildingSpeedEstimate estimate = brain.getEstimator(ourPlayerData.getNumbers());
-        int[] rollsPerResource = estimate.getRollsPerResource();
-        boolean[] ports = ourPlayerData.getPortFlags();
-
-        /**
-         * do any possible trading with the bank/ports
-         */
-
-        ///
-        /// Seperate resource types into needed and not-needed.  Sort
-        /// groups by frequency, most to least.  Start with most frequent
-        /// not-needed resources.  Trade for least frequent needed resources.
-        /// Loop until freq. of give resource + thresh >= get resource freq.
-        /// and there is not enough of that resource to trade after
-        /// subtracting needed ammount.
-        ///
-        int[] neededRsrc = new int[5];
-        int[] notNeededRsrc = new int[5];
-        int neededRsrcCount = 0;
-        int notNeededRsrcCount = 0;
-
-        for (int rsrcType = SOCResourceConstants.CLAY;
-                rsrcType <= SOCResourceConstants.WOOD; rsrcType++)
-        {
-            if (targetResources.contains(rsrcType))
-            {
-                neededRsrc[neededRsrcCount] = rsrcType;
-                neededRsrcCount++;
-            }
-            else
-            {
-                notNeededRsrc[notNeededRsrcCount] = rsrcType;
-                notNeededRsrcCount++;
-            }
-        }
-
-        if (neededRsrcCount == 0)
-        {
-            return bankTrade;  // <--- Early return bankTrade (null): nothing needed ---
-        }
-
-        for (int j = neededRsrcCount - 1; j >= 0; j--)
-        {
-            for (int i = 0; i < j; i++)
-            {
-                //D.ebugPrintln("j="+j+" i="+i);
-                //D.ebugPrintln("neededRsrc[i]="+neededRsrc[i]+" "+rollsPerResource[neededRsrc[i]]);
-                if (rollsPerResource[neededRsrc[i]] > rollsPerResource[neededRsrc[i + 1]])
-                {
-                    //D.ebugPrintln("swap with "+neededRsrc[i+1]+" "+rollsPerResource[neededRsrc[i+1]]);
-                    int tmp = neededRsrc[i];
-                    neededRsrc[i] = neededRsrc[i + 1];
-                    neededRsrc[i + 1] = tmp;
-                }
-            }
-        }
-
-        /*
-           for (int i = 0; i < neededRsrcCount; i++) {
-           //D.ebugPrintln("NEEDED RSRC: "+neededRsrc[i]+" : "+rollsPerResource[neededRsrc[i]]);
-           }
-         */
-        for (int j = notNeededRsrcCount - 1; j >= 0; j--)
-        {
-            for (int i = 0; i < j; i++)
-            {
-                //D.ebugPrintln("j="+j+" i="+i);
-                //D.ebugPrintln("notNeededRsrc[i]="+notNeededRsrc[i]+" "+rollsPerResource[notNeededRsrc[i]]);
-                if (rollsPerResource[notNeededRsrc[i]] > rollsPerResource[notNeededRsrc[i + 1]])
-                {
-                    //D.ebugPrintln("swap with "+notNeededRsrc[i+1]+" "+rollsPerResource[notNeededRsrc[i+1]]);
-                    int tmp = notNeededRsrc[i];
-                    notNeededRsrc[i] = notNeededRsrc[i + 1];
-                    notNeededRsrc[i + 1] = tmp;
-                }
-            }
-        }
-
-        /*
-           for (int i = 0; i < notNeededRsrcCount; i++) {
-           //D.ebugPrintln("NOT-NEEDED RSRC: "+notNeededRsrc[i]+" : "+rollsPerResource[notNeededRsrc[i]]);
-           }
-         */
-
-        ///
-        /// figure out which resources we don't have enough of
-        ///
-        int getRsrcIdx = neededRsrcCount - 1;
+        bankTradePlanner.setState(ourPlayerData.getPortFlags(), estimate.getRollsPerResource());
 
-        while (ourResources.getAmount(neededRsrc[getRsrcIdx]) >= targetResources.getAmount(neededRsrc[getRsrcIdx]))
+        final int trade = bankTradePlanner.getBankTrade(targetResources, ourResources);
+        if (trade == SOCBankTradePlanner.NO_TRADE)
         {
-            getRsrcIdx--;
-        }
-
-        int giveRsrcIdx = 0;
-
-        while (giveRsrcIdx < notNeededRsrcCount)
-        {
-            ///
-            /// find the ratio at which we can trade
-            ///
-            int tradeRatio;
-
-            if (ports[notNeededRsrc[giveRsrcIdx]])
-            {
-                tradeRatio = 2;
-            }
-            else if (ports[SOCBoard.MISC_PORT])
-            {
-                tradeRatio = 3;
-            }
-            else
-            {
-                tradeRatio = 4;
-            }
-
-            if (ourResources.getAmount(notNeededRsrc[giveRsrcIdx]) >= tradeRatio)
-            {
-                ///
-                /// make the trade
-                ///
-                SOCResourceSet give = new SOCResourceSet();
-                SOCResourceSet get = new SOCResourceSet();
-                give.add(tradeRatio, notNeededRsrc[giveRsrcIdx]);
-                get.add(1, neededRsrc[getRsrcIdx]);
-
-                //D.ebugPrintln("our resources: "+ourPlayerData.getResources());
-                //D.ebugPrintln("Making bank trade:");
-                //D.ebugPrintln("give: "+give);
-                //D.ebugPrintln("get: "+get);
-                boolean[] to = new boolean[game.maxPlayers];
-
-                for (int i = 0; i < game.maxPlayers; i++)
-                {
-                    to[i] = false;
-                }
-
-                bankTrade = new SOCTradeOffer(game.getName(), ourPlayerNumber, to, give, get);
-
-                return bankTrade;
-            }
-
-            giveRsrcIdx++;
+            return null;
         }
 
-        ///
-        /// Can't trade not-needed resources.
-        /// Try trading needed resources.
-        ///
-        giveRsrcIdx = 0;
-
-        while (giveRsrcIdx < neededRsrcCount)
-        {
-            ///
-            /// find the ratio at which we can trade
-            ///
-            int tradeRatio;
-
-            if (ports[neededRsrc[giveRsrcIdx]])
-            {
-                tradeRatio = 2;
-            }
-            else if (ports[SOCBoard.MISC_PORT])
-            {
-                tradeRatio = 3;
-            }
-            else
-            {
-                tradeRatio = 4;
-            }
-
-            if (rollsPerResource[neededRsrc[giveRsrcIdx]] >= rollsPerResource[neededRsrc[getRsrcIdx]])
-            {
-                ///
-                /// Don't want to trade unless we have extra of this resource
-                ///
-                if ((ourResources.getAmount(neededRsrc[giveRsrcIdx]) - targetResources.getAmount(neededRsrc[giveRsrcIdx])) >= tradeRatio)
-                {
-                    ///
-                    /// make the trade
-                    ///
-                    SOCResourceSet give = new SOCResourceSet();
-                    SOCResourceSet get = new SOCResourceSet();
-                    give.add(tradeRatio, neededRsrc[giveRsrcIdx]);
-                    get.add(1, neededRsrc[getRsrcIdx]);
-
-                    //D.ebugPrintln("our resources: "+ourPlayerData.getResources());
-                    //D.ebugPrintln("Making bank trade:");
-                    //D.ebugPrintln("give: "+give);
-                    //D.ebugPrintln("get: "+get);
-                    boolean[] to = new boolean[game.maxPlayers];
-
-                    for (int i = 0; i < game.maxPlayers; i++)
-                    {
-                        to[i] = false;
-                    }
-
-                    bankTrade = new SOCTradeOffer(game.getName(), ourPlayerNumber, to, give, get);
-
-                    return bankTrade;
-                }
-            }
-            else
-            {
-                ///
-                /// We can trade this even though we need it because
-                /// we're betting that we'll get it by our next turn
-                ///
-                if (ourResources.getAmount(neededRsrc[giveRsrcIdx]) >= tradeRatio)
-                {
-                    ///
-                    /// make the trade
-                    ///
-                    SOCResourceSet give = new SOCResourceSet();
-                    SOCResourceSet get = new SOCResourceSet();
-                    give.add(tradeRatio, neededRsrc[giveRsrcIdx]);
-                    get.add(1, neededRsrc[getRsrcIdx]);
-
-                    //D.ebugPrintln("our resources: "+ourPlayerData.getResources());
-                    //D.ebugPrintln("Making bank trade:");
-                    //D.ebugPrintln("give: "+give);
-                    //D.ebugPrintln("get: "+get);
-                    boolean[] to = new boolean[game.maxPlayers];
-
-                    for (int i = 0; i < game.maxPlayers; i++)
-                    {
-                        to[i] = false;
-                    }
-
-                    bankTrade = new SOCTradeOffer(game.getName(), ourPlayerNumber, to, give, get);
-
-                    return bankTrade;
-                }
-            }
-
-            giveRsrcIdx++;
-        }
+        SOCResourceSet give = new SOCResourceSet();
+        SOCResourceSet get = new SOCResourceSet();
+        give.add(SOCBankTradePlanner.getGiveAmount(trade), SOCBankTradePlanner.getGiveType(trade));
+        get.add(1, SOCBankTradePlanner.getGetType(trade));
 
-        return bankTrade;
+        return new SOCTradeOffer(game.getName(), ourPlayerNumber, new boolean[game.maxPlayers], give, get);
     }
 
    /**
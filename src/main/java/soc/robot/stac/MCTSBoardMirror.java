@@ -0,0 +1,219 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package soc.robot.stac;
+
+import java.util.Arrays;
+
+import mcts.game.catan.GameStateConstants;
+import soc.debug.D;
+import soc.game.SOCBoard;
+import soc.game.SOCCity;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCRoutePiece;
+import soc.game.SOCSettlement;
+
+/**
+ * The vertices and edges of a game board's pieces in SmartSettlers state form,
+ * for {@link MCTSRobotBrain}'s game state. Updated for each piece the brain is told about
+ * with {@link #putPiece(int, int, int)} instead of being rebuilt from all pieces for each decision.
+ *<P>
+ * Any other board change isn't seen by {@link #putPiece(int, int, int)}, so the brain calls
+ * {@link #invalidate()} when a placement is cancelled, and the next {@link #copyTo(SOCBoard, int[])}
+ * rebuilds the mirror. A loaded game or reset board gets a new mirror. As a cheap check for other changes,
+ * {@link #copyTo(SOCBoard, int[])} also rebuilds if the board's number of pieces differs from the mirror's.
+ * When debug is enabled, it compares the mirror with a full rebuild for each decision.
+ *<P>
+ * Not thread-safe: Call only from the brain's thread.
+ *
+ * @since 2.4.50
+ */
+public class MCTSBoardMirror implements GameStateConstants
+{
+    /** SmartSettlers vertex index for each JSettlers node coordinate */
+    private final int[] vertexToSS;
+
+    /** SmartSettlers edge index for each JSettlers edge coordinate */
+    private final int[] edgeToSS;
+
+    /** SmartSettlers board's neighbor vertices of each vertex, -1 for none */
+    private final int[][] neighborVertexVertex;
+
+    /** Mirrored vertices and edges, indexed like the state's {@link #OFS_VERTICES} and {@link #OFS_EDGES} ranges */
+    private final int[] vertices = new int[N_VERTICES], edges = new int[N_EDGES];
+
+    /** Number of settlements, cities, roads and ships in the mirror, like {@link #countPieces(SOCBoard)} */
+    private int pieceCount;
+
+    /** False until first built from a board, or after {@link #invalidate()} */
+    private boolean built;
+
+    /** Number of times rebuilt from all the board's pieces */
+    private int rebuilds;
+
+    /**
+     * @param vertexToSS  SmartSettlers vertex index for each JSettlers node coordinate; not copied
+     * @param edgeToSS  SmartSettlers edge index for each JSettlers edge coordinate; not copied
+     * @param neighborVertexVertex  the SmartSettlers board's {@code neighborVertexVertex}; not copied
+     */
+    public MCTSBoardMirror(final int[] vertexToSS, final int[] edgeToSS, final int[][] neighborVertexVertex)
+    {
+        this.vertexToSS = vertexToSS;
+        this.edgeToSS = edgeToSS;
+        this.neighborVertexVertex = neighborVertexVertex;
+    }
+
+    /**
+     * Update the mirror for a piece newly placed on the board, if it's been built.
+     * Gives the same vertices and edges as rebuilding from all the board's pieces would.
+     * @param pieceType  the piece type, like {@link SOCPlayingPiece#SETTLEMENT}
+     * @param coord  the piece's JSettlers node or edge coordinate
+     * @param pn  the piece's player number
+     */
+    public void putPiece(final int pieceType, final int coord, final int pn)
+    {
+        if (! built)
+            return;
+
+        switch (pieceType)
+        {
+        case SOCPlayingPiece.ROAD:
+        case SOCPlayingPiece.SHIP:
+            edges[edgeToSS[coord]] = EDGE_OCCUPIED + pn;
+            break;
+
+        case SOCPlayingPiece.SETTLEMENT:
+            {
+                final int v = vertexToSS[coord];
+                vertices[v] = VERTEX_HASSETTLEMENT + pn;
+                for (int j = 0; j < 6; j++)
+                {
+                    final int indn = neighborVertexVertex[v][j];
+                    if ((indn != -1) && (vertices[indn] < VERTEX_HASSETTLEMENT))
+                        vertices[indn] = VERTEX_TOOCLOSE;
+                }
+            }
+            break;
+
+        case SOCPlayingPiece.CITY:
+            // replaces a settlement
+            vertices[vertexToSS[coord]] = VERTEX_HASCITY + pn;
+            return;
+
+        default:
+            return;
+        }
+
+        pieceCount++;
+    }
+
+    /**
+     * Note that the board's pieces have changed in a way not given to {@link #putPiece(int, int, int)},
+     * like a cancelled placement: The next {@link #copyTo(SOCBoard, int[])} will rebuild the mirror.
+     */
+    public void invalidate()
+    {
+        built = false;
+    }
+
+    /**
+     * Copy the mirrored vertices and edges into a game state, first rebuilding the mirror
+     * if it hasn't been built, was invalidated, or has a different number of pieces than the board.
+     * @param board  the game's board
+     * @param st  the state to copy into, of length {@link #STATESIZE}
+     */
+    public void copyTo(final SOCBoard board, final int[] st)
+    {
+        if ((! built) || (pieceCount != countPieces(board)))
+        {
+            rebuild(board);
+        }
+        else if (D.ebugIsEnabled())
+        {
+            final int[] fullV = new int[N_VERTICES], fullE = new int[N_EDGES];
+            fill(board, fullV, fullE);
+            if (! (Arrays.equals(fullV, vertices) && Arrays.equals(fullE, edges)))
+            {
+                D.ebugWARNING("MCTSBoardMirror differs from the board's pieces, rebuilding it");
+                rebuild(board);
+            }
+        }
+
+        System.arraycopy(vertices, 0, st, OFS_VERTICES, N_VERTICES);
+        System.arraycopy(edges, 0, st, OFS_EDGES, N_EDGES);
+    }
+
+    /**
+     * Rebuild the mirror from all the board's pieces.
+     * @param board  the game's board
+     */
+    public void rebuild(final SOCBoard board)
+    {
+        Arrays.fill(vertices, VERTEX_EMPTY);
+        Arrays.fill(edges, EDGE_EMPTY);
+        fill(board, vertices, edges);
+        pieceCount = countPieces(board);
+        built = true;
+        rebuilds++;
+    }
+
+    /**
+     * Fill empty vertices and edges from all the board's pieces, marking the vertices
+     * next to a settlement or city as too close.
+     */
+    private void fill(final SOCBoard board, final int[] v, final int[] e)
+    {
+        for (SOCSettlement p : board.getSettlements())
+            v[vertexToSS[p.getCoordinates()]] = VERTEX_HASSETTLEMENT + p.getPlayerNumber();
+        for (SOCCity p : board.getCities())
+            v[vertexToSS[p.getCoordinates()]] = VERTEX_HASCITY + p.getPlayerNumber();
+
+        for (int i = 0; i < N_VERTICES; i++)
+        {
+            if (v[i] >= VERTEX_HASSETTLEMENT)
+                continue;
+            for (int j = 0; j < 6; j++)
+            {
+                final int indn = neighborVertexVertex[i][j];
+                if ((indn != -1) && (v[indn] >= VERTEX_HASSETTLEMENT))
+                {
+                    v[i] = VERTEX_TOOCLOSE;
+                    break;
+                }
+            }
+        }
+
+        for (SOCRoutePiece p : board.getRoadsAndShips())
+            e[edgeToSS[p.getCoordinates()]] = EDGE_OCCUPIED + p.getPlayerNumber();
+    }
+
+    /**
+     * Number of settlements, cities, roads and ships on a board; a city replaces a settlement.
+     * @param board  the board
+     * @return the number of pieces
+     */
+    public static int countPieces(final SOCBoard board)
+    {
+        return board.getSettlements().size() + board.getCities().size() + board.getRoadsAndShips().size();
+    }
+
+    /** Number of times the mirror was rebuilt from all the board's pieces, including when first built. */
+    public int getRebuilds()
+    {
+        return rebuilds;
+    }
+
+}
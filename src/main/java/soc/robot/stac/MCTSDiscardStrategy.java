@@ -22,10 +22,8 @@ package soc.robot.stac;
 
 import java.util.Random;
 
-import mcts.MCTS;
 import mcts.game.Game;
 import mcts.game.catan.GameStateConstants;
-import mcts.listeners.SearchListener;
 import soc.debug.D;
 import soc.game.SOCGame;
 import soc.game.SOCPlayer;
@@ -39,12 +37,12 @@ import soc.robot.SOCBuildPlan;
  */
 public class MCTSDiscardStrategy extends DiscardStrategy
 {
-    private final MCTS mcts;
+    private final MCTSTimeManager timeManager;
 
-    public MCTSDiscardStrategy(SOCGame ga, SOCPlayer pl, MCTSRobotBrain br, MCTS mcts, Random rand)
+    public MCTSDiscardStrategy(SOCGame ga, SOCPlayer pl, MCTSRobotBrain br, MCTSTimeManager timeManager, Random rand)
     {
         super(ga, pl, br, rand);
-        this.mcts = mcts;
+        this.timeManager = timeManager;
     }
 
     public SOCResourceSet discard
@@ -53,10 +51,7 @@ public class MCTSDiscardStrategy extends DiscardStrategy
 	SOCResourceSet discards = new SOCResourceSet();
 
 	Game g = ((MCTSRobotBrain) brain).generateGame(GameStateConstants.S_PAYTAX, null);
-	mcts.newTree(g);
-	SearchListener listener = mcts.search();
-	listener.waitForFinish();
-	int[] action = g.listPossiblities(false).getOptions().get(mcts.getNextActionIndex());
+	int[] action = timeManager.search(g, MCTSTimeManager.DecisionType.DISCARD);
 	String s = String.format("Player " + ourPlayerData.getPlayerNumber() + " chose discard action: [%d %d %d %d %d %d]", action[0], action[1], action[2], action[3], action[4], action[5]);
 	D.ebugPrintlnINFO(s);
 
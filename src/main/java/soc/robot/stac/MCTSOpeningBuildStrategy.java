@@ -20,10 +20,8 @@
  **/
 package soc.robot.stac;
 
-import mcts.MCTS;
 import mcts.game.Game;
 import mcts.game.catan.GameStateConstants;
-import mcts.listeners.SearchListener;
 import mcts.utils.Timer;
 import soc.debug.D;
 import soc.game.SOCBoard;
@@ -46,11 +44,11 @@ public class MCTSOpeningBuildStrategy extends StacOpeningBuildStrategy
      */
     private int secondSettlement = -1;
 
-    private MCTS mcts;
+    private MCTSTimeManager timeManager;
 
-    public MCTSOpeningBuildStrategy(SOCGame ga, SOCPlayer pl, MCTSRobotBrain br, MCTS mcts) {
+    public MCTSOpeningBuildStrategy(SOCGame ga, SOCPlayer pl, MCTSRobotBrain br, MCTSTimeManager timeManager) {
         super(ga, pl, br);
-        this.mcts = mcts;
+        this.timeManager = timeManager;
     }
 
     @Override
@@ -83,11 +81,8 @@ public class MCTSOpeningBuildStrategy extends StacOpeningBuildStrategy
 	}
 
 	Game g = br.generateGame(state,null);
-	mcts.newTree(g);
 	Timer t = new Timer();
-	SearchListener listener = mcts.search();
-    	listener.waitForFinish();
-    	int[] action = g.listPossiblities(false).getOptions().get(mcts.getNextActionIndex());
+    	int[] action = timeManager.search(g, MCTSTimeManager.DecisionType.INITIAL_SETTLEMENT);
 
 	String s = String.format("Player " + br.getPlayerNumber() + " chose initial settlement action: [%d %d %d %d %d]", action[0], action[1], action[2],
 			action[3], action[4]);
@@ -121,10 +116,7 @@ public class MCTSOpeningBuildStrategy extends StacOpeningBuildStrategy
 		: GameStateConstants.S_ROAD2;
 
 	Game g = br.generateGame(state,null);
-	mcts.newTree(g);
-	SearchListener listener = mcts.search();
-	listener.waitForFinish();
-	int[] action = g.listPossiblities(false).getOptions().get(mcts.getNextActionIndex());
+	int[] action = timeManager.search(g, MCTSTimeManager.DecisionType.INITIAL_ROAD);
 	String s = String.format("Player " + br.getPlayerNumber() + " chose first road action: [%d %d %d %d %d]", action[0], action[1], action[2], action[3],
 			action[4]);
 	D.ebugPrintlnINFO(s);
@@ -0,0 +1,205 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package soc.robot.stac;
+
+import java.util.Arrays;
+
+import mcts.MCTS;
+import mcts.MCTSConfig;
+import mcts.game.Game;
+import mcts.game.GameFactory;
+import mcts.listeners.SearchListener;
+
+/**
+ * Searches a predicted upcoming decision of {@link MCTSRobotBrain} in the background,
+ * while the other players take their turns ("pondering").
+ * Has its own {@link MCTS} instance, with the brain's search settings but its own
+ * (usually smaller) number of threads, so it doesn't take threads from the brain's searches.
+ *<P>
+ * The brain calls {@link #ponder(int[])} with its prediction of the root state
+ * whenever the game changes. If the prediction is different from the state being searched,
+ * the search is cancelled and restarted from the new prediction.
+ * When the decision is due, {@link #takeAction(Game)} checks whether the real root
+ * is the one that was searched: If so, that search's best action is used
+ * instead of searching from scratch.
+ *<P>
+ * Not thread-safe: Call only from the brain's thread.
+ * Search seeding isn't used when pondering.
+ *
+ * @see MCTSRobotType#MCTS_PONDER
+ * @since 2.4.50
+ */
+public class MCTSPonderer
+{
+    private final MCTS mcts;
+
+    private final GameFactory gameFactory;
+
+    /** Root of the current search, or null if not searching */
+    private Game root;
+
+    /** {@link #root}'s state, from when its search was started */
+    private int[] rootState;
+
+    /** Listener of {@link #root}'s search, or null */
+    private SearchListener listener;
+
+    /** Statistics for {@link #getReport()} */
+    private int decisions, hits, restarts;
+
+    /**
+     * @param config  the brain's search settings; not changed
+     * @param nThreads  number of threads to search with
+     * @param gameFactory  the brain's game factory
+     */
+    public MCTSPonderer(final MCTSConfig config, final int nThreads, final GameFactory gameFactory)
+    {
+        MCTSConfig ponderConfig = new MCTSConfig();
+        ponderConfig.nIterations = config.nIterations;
+        ponderConfig.nThreads = Math.max(1, nThreads);
+        ponderConfig.timeLimit = config.timeLimit;
+        ponderConfig.treeSize = config.treeSize;
+        ponderConfig.maxTreeDepth = config.maxTreeDepth;
+        ponderConfig.afterstates = config.afterstates;
+        ponderConfig.observableRollouts = config.observableRollouts;
+        ponderConfig.nRolloutsPerIteration = config.nRolloutsPerIteration;
+        ponderConfig.pomcp = config.pomcp;
+        ponderConfig.selectionPolicy = config.selectionPolicy;
+        ponderConfig.updatePolicy = config.updatePolicy;
+        ponderConfig.averageRolloutsResults = config.averageRolloutsResults;
+        ponderConfig.weightedReturn = config.weightedReturn;
+        ponderConfig.nRootActProbSmoothing = config.nRootActProbSmoothing;
+        ponderConfig.nRootStateProbSmoothing = config.nRootStateProbSmoothing;
+        // keeps its own NullSeedTrigger, since cancelling cleans up the trigger
+
+        this.gameFactory = gameFactory;
+        mcts = new MCTS(ponderConfig, gameFactory);
+    }
+
+    /**
+     * Search from a predicted root state, unless it's already being searched.
+     * @param predictedState  the predicted root state, for {@link GameFactory#getGame(int[])}
+     */
+    public void ponder(final int[] predictedState)
+    {
+        final Game g = gameFactory.getGame(predictedState);
+        final int[] st = g.getState();
+        if ((root != null) && Arrays.equals(st, rootState))
+            return;
+
+        cancel();
+        root = g;
+        rootState = st;
+        restarts++;
+        mcts.newTree(g);
+        listener = mcts.search();
+    }
+
+    /**
+     * Stop searching, if a search is running. The search's tree is discarded.
+     */
+    public void cancel()
+    {
+        if (listener != null)
+            mcts.shutdownNow(true);
+        listener = null;
+        root = null;
+        rootState = null;
+    }
+
+    /**
+     * Is a predicted root being searched?
+     * @return true if {@link #ponder(int[])} started a search which hasn't been cancelled or taken
+     */
+    public boolean isPondering()
+    {
+        return (root != null);
+    }
+
+    /**
+     * Get the pondered action for a decision, if its root was the one being searched.
+     * If that search hasn't used all of its iterations or time yet, waits for it to finish:
+     * The search's listener notifies the {@link MCTS} instance's monitor when done.
+     * Cancels pondering either way.
+     * @param real  the decision's real root
+     * @return the best action for {@code real} from the pondered search,
+     *     or null if {@code real} wasn't the predicted root
+     */
+    public int[] takeAction(final Game real)
+    {
+        decisions++;
+        int[] action = null;
+        if ((root != null) && Arrays.equals(real.getState(), rootState))
+        {
+            hits++;
+            // a time-limited search's listener notifies only when an iteration ends after the limit,
+            // which may not happen if all its iterations ended before then; so wait at most that long
+            final long timeLimit = mcts.getTimeLimit();
+            synchronized (mcts)
+            {
+                while (! listener.hasFinished())
+                {
+                    try
+                    {
+                        mcts.wait((timeLimit > 0) ? timeLimit : 0);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+
+            action = root.listPossiblities(false).getOptions().get(mcts.getNextActionIndex());
+        }
+
+        cancel();
+        return action;
+    }
+
+    /**
+     * Stop searching and shut down the search threads; call when the brain is done with the game.
+     */
+    public void shutdown()
+    {
+        mcts.shutdownNow(false);
+        listener = null;
+        root = null;
+        rootState = null;
+    }
+
+    public int getNumDecisions()
+    {
+        return decisions;
+    }
+
+    public int getNumHits()
+    {
+        return hits;
+    }
+
+    /**
+     * @return the number of decisions, hits, hit rate, and searches started, as a one-line String
+     */
+    public String getReport()
+    {
+        final int rate = (decisions > 0) ? (100 * hits / decisions) : 0;
+        return "ponder decisions=" + decisions + " hits=" + hits + " (" + rate + "%) searches=" + restarts;
+    }
+
+}
@@ -22,11 +22,9 @@ package soc.robot.stac;
 
 import java.util.Random;
 
-import mcts.MCTS;
 import mcts.game.Game;
 import mcts.game.catan.Catan;
 import mcts.game.catan.GameStateConstants;
-import mcts.listeners.SearchListener;
 import soc.debug.D;
 import soc.game.SOCBoard;
 import soc.game.SOCGame;
@@ -48,11 +46,11 @@ public class MCTSRobberStrategy extends StacRobberStrategy
 	 */
 	protected int robberHexFromKnight = -1;
 
-	private MCTS mcts;
+	private MCTSTimeManager timeManager;
 
-	public MCTSRobberStrategy(SOCGame ga, SOCPlayer pl, MCTSRobotBrain br, MCTS mcts, Random rand) {
+	public MCTSRobberStrategy(SOCGame ga, SOCPlayer pl, MCTSRobotBrain br, MCTSTimeManager timeManager, Random rand) {
 	    super(ga, pl, br, rand);
-	    this.mcts = mcts;
+	    this.timeManager = timeManager;
 	}
 
 	/**
@@ -68,10 +66,7 @@ public class MCTSRobberStrategy extends StacRobberStrategy
 		while (illegal) {
 			illegal = false;
 			Game g = ((MCTSRobotBrain) brain).generateGame(GameStateConstants.S_ROBBERAT7,null);
-			mcts.newTree(g);
-			SearchListener listener = mcts.search();
-			listener.waitForFinish();
-			action = g.listPossiblities(false).getOptions().get(mcts.getNextActionIndex());
+			action = timeManager.search(g, MCTSTimeManager.DecisionType.ROBBER);
 
 			String s = String.format("Player " + playerNumber + " chose robber action: [%d %d %d %d %d]", action[0], action[1], action[2], action[3],
 					action[4]);
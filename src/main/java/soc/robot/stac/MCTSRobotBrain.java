@@ -29,7 +29,6 @@ import mcts.game.catan.belief.PlayerResourceModel;
 import mcts.game.catan.typepdf.HumanActionTypePdf;
 import mcts.game.catan.belief.Action;
 import mcts.game.catan.belief.CatanFactoredBelief;
-import mcts.listeners.SearchListener;
 import mcts.seeder.nn.NNCatanSeedTrigger;
 import mcts.seeder.pdf.CatanTypePDFSeedTrigger;
 import mcts.tree.selection.PUCT;
@@ -50,10 +49,10 @@ import soc.game.SOCPlayingPiece;
 import soc.game.SOCResourceConstants;
 import soc.game.SOCResourceSet;
 import soc.game.SOCRoad;
-import soc.game.SOCRoutePiece;
 import soc.game.SOCSettlement;
 import soc.game.SOCTradeOffer;
 import soc.game.StacTradeOffer;
+import soc.message.SOCCancelBuildRequest;
 import soc.message.SOCDevCardAction;
 import soc.message.SOCGameState;
 import soc.message.SOCGameTextMsg;
@@ -84,6 +83,22 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 	private int offers_made = 0;
 	private MCTS mcts;
 	private GameFactory gameFactory;
+	/**
+	 * Searches our next roll-dice decision during the other players' turns, or null if not pondering.
+	 * See {@link MCTSRobotType#MCTS_PONDER}.
+	 */
+	private MCTSPonderer ponderer;
+	/**
+	 * Runs the searches for our decisions, and times them.
+	 * See {@link MCTSRobotType#MCTS_ADAPTIVE_TIME}.
+	 */
+	private MCTSTimeManager timeManager;
+	/**
+	 * The vertices and edges of the game's pieces in SmartSettlers state form, for {@link #generateState(int, int[])}.
+	 * Kept up to date from the PUTPIECE messages, and invalidated by {@link #handleCANCELBUILDREQUEST(SOCCancelBuildRequest)}.
+	 * Created by {@link #generateBoard()}, including for a loaded game.
+	 */
+	private MCTSBoardMirror boardMirror;
     /**
      * location of the last initial placed settlement, required for planning the free initial roads.
      * Passed to MCTS in {@link #generateGame(int, int[])}.
@@ -282,6 +297,15 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
         //use the same belief model
         gameFactory = new GameFactory(gameConfig, this.beliefModel);
         mcts = new MCTS(mctsConfig, gameFactory);
+        timeManager = new MCTSTimeManager(mcts, isRobotType(MCTSRobotType.MCTS_ADAPTIVE_TIME),
+        		isRobotType(MCTSRobotType.MCTS_TURN_TIME_BUDGET_MS) ? (int) robotType.getTypeParam(MCTSRobotType.MCTS_TURN_TIME_BUDGET_MS) : 0);
+        if(isRobotType(MCTSRobotType.MCTS_PONDER)){
+        	if(beliefModel == null && !isRobotType(MCTSRobotType.MCTS_NN_SEEDING)
+        			&& !isRobotType(MCTSRobotType.MCTS_HUMAN_ACTION_TYPE_PDF_SEEDING) && !isRobotType(MCTSRobotType.MCTS_HUMAN_ACTION_TYPE_PDF_CONDITIONED_SEEDING))
+        		ponderer = new MCTSPonderer(mctsConfig, (int) robotType.getTypeParam(MCTSRobotType.MCTS_PONDER), gameFactory);
+        	else
+        		D.ebugWARNING("MCTS_PONDER ignored: pondering doesn't support the belief model or seeding");
+        }
         
         try {    
 	        ObjectMapper mapper = new ObjectMapper();	
@@ -297,10 +321,10 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 	@Override
 	protected void setStrategyFields() {
 		super.setStrategyFields();
-		discardStrategy = new MCTSDiscardStrategy(game, ourPlayerData, this, mcts, rand);
+		discardStrategy = new MCTSDiscardStrategy(game, ourPlayerData, this, timeManager, rand);
 		monopolyStrategy = new MCTSMonopolyStrategy(game, ourPlayerData, this, mcts);
-		openingBuildStrategy = new MCTSOpeningBuildStrategy(game, ourPlayerData, this, mcts);
-		robberStrategy = new MCTSRobberStrategy(game, ourPlayerData, this, mcts, rand);
+		openingBuildStrategy = new MCTSOpeningBuildStrategy(game, ourPlayerData, this, timeManager);
+		robberStrategy = new MCTSRobberStrategy(game, ourPlayerData, this, timeManager, rand);
 	}
 
 	////////////////////////////METHODS FOR SAVE/LOAD UTILITY/////////////////////
@@ -558,10 +582,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 	    	        			}
 	    	        			
 		        		        Game g = generateGame(S_NEGOTIATIONS,act);
-		        				mcts.newTree(g);
-		        				SearchListener listener = mcts.search();
-		        				listener.waitForFinish();
-		        				int[] action = g.listPossiblities(false).getOptions().get(mcts.getNextActionIndex());
+		        				int[] action = timeManager.search(g, MCTSTimeManager.DecisionType.TRADE_RESPONSE);
 	    	        			
 		        				if(action[0]==A_ACCEPT){
 		        					getMemory().setMyNegotiatedOffer(tm.getOffer());
@@ -843,7 +864,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 		// interrupted by the force end turn thread
 		client.put(SOCRobotFlag.toCmd(getGame().getName(), false, getPlayerNumber()));
 
-		int robberHex = robberStrategy.getBestRobberHex();  // MCTSRobberStrategy calls mcts.search()
+		int robberHex = robberStrategy.getBestRobberHex();  // MCTSRobberStrategy calls timeManager.search()
 
 		D.ebugPrintlnINFO("Player " + getPlayerNumber() + " MOVING ROBBER ");
 		client.moveRobber(game, ourPlayerData, robberHex);
@@ -937,10 +958,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 	    	else{
 	    		D.ebugPrintlnINFO("Player " + getPlayerNumber() + " planning normal task");
 		        Game g = generateGame(S_NORMAL,null);
-				mcts.newTree(g);
-				SearchListener listener = mcts.search();
-				listener.waitForFinish();
-				action = g.listPossiblities(false).getOptions().get(mcts.getNextActionIndex());
+				action = timeManager.search(g, MCTSTimeManager.DecisionType.NORMAL);
 	    	}		        
 		    
 	        int coord;
@@ -1227,6 +1245,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 	
 	        }
     	}
+    	updatePondering();
     }
     
     @Override
@@ -1250,6 +1269,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
     			}
     		}
     	}
+    	updatePondering();
     }
     
     @Override
@@ -1297,11 +1317,24 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
         		}
         	}
         }
+        updatePondering();
     }
     
+    /**
+     * Also invalidates {@link #boardMirror}, since a cancelled placement may be undone in the game.
+     */
+    @Override
+    protected void handleCANCELBUILDREQUEST(SOCCancelBuildRequest mes) {
+    	super.handleCANCELBUILDREQUEST(mes);
+    	if (boardMirror != null)
+    		boardMirror.invalidate();
+    }
+
     @Override
     protected void handlePUTPIECE_updateGameData(SOCPutPiece mes) {
     	super.handlePUTPIECE_updateGameData(mes);
+    	if (boardMirror != null)
+    		boardMirror.putPiece(mes.getPieceType(), mes.getCoordinates(), mes.getPlayerNumber());
     	
     	//update the belief model with info from the second settlement placement
     	if (isRobotType(MCTSRobotType.MCTS_FACTORED_BELIEF)) {
@@ -1328,7 +1361,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 	            beliefModel.updateResourceBelief(socToSSRssSet(rs), mes.getPlayerNumber() , SOCPlayerElement.GAIN);
 	        }
         }
-    
+        updatePondering();
     }
     
 ////////////////////////////SMARTSETTLERS METHODS/////////////////////
@@ -1352,10 +1385,13 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 		// interrupted by the force end turn thread
 		client.put(SOCRobotFlag.toCmd(getGame().getName(), false, getPlayerNumber()));
 		Game g = generateGame(S_BEFOREDICE,null);
-		mcts.newTree(g);
-		SearchListener listener = mcts.search();
-		listener.waitForFinish();
-		int[] action = g.listPossiblities(false).getOptions().get(mcts.getNextActionIndex());
+		int[] action = null;
+		if (ponderer != null) {
+			action = ponderer.takeAction(g);
+			D.ebugPrintlnINFO("Player " + getPlayerNumber() + " " + ponderer.getReport());
+		}
+		if (action == null)
+			action = timeManager.search(g, MCTSTimeManager.DecisionType.BEFORE_DICE);
 		String s = String.format("Player " + getPlayerNumber() + " chose action: [%d %d %d %d %d]", action[0], action[1], action[2],
 				action[3], action[4]);
 		D.ebugPrintlnINFO(s);
@@ -1405,10 +1441,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 		while (illegal) {
 			illegal = false;
 			Game g = generateGame(st,null);
-			mcts.newTree(g);
-			SearchListener listener = mcts.search();
-			listener.waitForFinish();
-			int[] action = g.listPossiblities(false).getOptions().get(mcts.getNextActionIndex());
+			int[] action = timeManager.search(g, MCTSTimeManager.DecisionType.FREE_ROAD);
 
 			String s = String.format("Player " + getPlayerNumber() + " chose action: [%d %d %d %d %d]", action[0], action[1], action[2], action[3],
 					action[4]);
@@ -1569,6 +1602,12 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
     		beliefModel = null;
     	}
 		mcts.shutdownNow(false);
+		D.ebugPrintlnINFO("Player " + getPlayerNumber() + " MCTS latency by decision type:\n" + timeManager.getReport());
+		timeManager.writeReport(game.getName(), Integer.toString(getPlayerNumber()));
+		if (ponderer != null) {
+			D.ebugPrintlnINFO("Player " + getPlayerNumber() + " " + ponderer.getReport());
+			ponderer.shutdown();
+		}
 	}
 
 	@Override
@@ -1591,9 +1630,78 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
      * @param currentOffer the offer made to us by another player
      * @return 
      * @throws IllegalStateException if an item cannot be generated (via CloneNotSupportedException); this is unlikely
+     * @see #generateState(int, int[])
      */
     /*package*/ Game generateGame(int GAMESTATE, int[] currentOffer)
         throws IllegalStateException
+    {
+        return gameFactory.getGame(generateState(GAMESTATE, currentOffer));
+    }
+
+    /**
+     * Our prediction of the state at the start of our next turn, before rolling the dice,
+     * if nothing else changes until then: The other players' new dev cards have become old,
+     * and the dice, offers and played-card flag have been reset.
+     * Only valid without the belief model.
+     * @return the predicted state, for {@link GameFactory#getGame(int[])}
+     * @throws IllegalStateException if an item cannot be generated; see {@link #generateState(int, int[])}
+     * @since 2.4.50
+     */
+    private int[] predictOurTurnState()
+        throws IllegalStateException
+    {
+        final int[] st = generateState(S_BEFOREDICE, null);
+        final int cpn = game.getCurrentPlayerNumber();
+        final int pn = getPlayerNumber();
+        for (int c = CARD_KNIGHT; c <= CARD_MONOPOLY; c++) {
+            st[OFS_PLAYERDATA[cpn] + OFS_OLDCARDS + c] += st[OFS_PLAYERDATA[cpn] + OFS_NEWCARDS + c];
+            st[OFS_PLAYERDATA[cpn] + OFS_NEWCARDS + c] = 0;
+        }
+        st[OFS_PLAYERDATA[cpn] + OFS_HASPLAYEDCARD] = 0;
+        st[OFS_TURN] = game.getTurnCount() + ((pn - cpn + NPLAYERS) % NPLAYERS);
+        st[OFS_DICE] = 0;
+        st[OFS_NUMBER_OF_OFFERS] = 0;
+        st[OFS_FSMPLAYER] = pn;
+
+        return st;
+    }
+
+    /**
+     * If pondering, update its search for the current game; called after each change to the game.
+     * Ponders our next turn's roll-dice decision during the other players' normal turns.
+     * Otherwise keeps the current search until that decision is made, or cancels it if the game is over.
+     * @see MCTSPonderer#ponder(int[])
+     * @since 2.4.50
+     */
+    private void updatePondering() {
+    	if (ponderer == null)
+    		return;
+    	final int gs = game.getGameState();
+    	if (gs >= SOCGame.OVER) {
+    		ponderer.cancel();
+    		return;
+    	}
+    	if (game.getCurrentPlayerNumber() == getPlayerNumber()) {
+    		if (gs != SOCGame.ROLL_OR_CARD)
+    			ponderer.cancel();  // our roll-dice decision was already made
+    		return;
+    	}
+    	if (gs != SOCGame.ROLL_OR_CARD && gs != SOCGame.PLAY1)
+    		return;
+
+    	ponderer.ponder(predictOurTurnState());
+    }
+
+    /**
+     * Generate the state array of the current game for the {@link GameFactory}.
+     * @param GAMESTATE the current state
+     * @param currentOffer the offer made to us by another player
+     * @return the state
+     * @throws IllegalStateException if an item cannot be generated (via CloneNotSupportedException); this is unlikely
+     * @see #generateGame(int, int[])
+     */
+    private int[] generateState(int GAMESTATE, int[] currentOffer)
+        throws IllegalStateException
     {
     	//hacky but the whole of JSettlers is hacky...this should be set in the constructor but there is no player number at that point
     	if(isRobotType(MCTSRobotType.MCTS_NN_SEEDING))
@@ -1770,45 +1878,11 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 			st[OFS_DICE] = val;
 		}
         
-        for (SOCSettlement p : game.getBoard().getSettlements())
-        {
-            indn = translateVertexToSmartSettlers(p.getCoordinates());
-            val = p.getPlayer().getPlayerNumber();
-            st[OFS_VERTICES+indn] = VERTEX_HASSETTLEMENT + val;
-        }
-        for (SOCCity p : game.getBoard().getCities())
-        {
-            indn = translateVertexToSmartSettlers(p.getCoordinates());
-            val = p.getPlayer().getPlayerNumber();
-            st[OFS_VERTICES+indn] = VERTEX_HASCITY + val;
-        }
-        int i, j;
-        for (i=0; i<N_VERTICES; i++)
-        {
-            boolean islegal = true;
-            if (st[OFS_VERTICES + i] >= VERTEX_HASSETTLEMENT)
-                continue;
-            for (j=0; j<6; j++)
-            {
-                indn = Catan.board.neighborVertexVertex[i][j];
-                if ((indn!=-1) && (st[OFS_VERTICES + indn] >= VERTEX_HASSETTLEMENT))
-                {
-                    islegal = false;
-                    break;
-                }
-            }
-            if (!islegal)
-                st[OFS_VERTICES + i] = VERTEX_TOOCLOSE;
-        }
+        if (boardMirror == null)
+            boardMirror = new MCTSBoardMirror(vertexToSS, edgeToSS, Catan.board.neighborVertexVertex);
+        boardMirror.copyTo(game.getBoard(), st);
+        int i;
 
-        for (SOCRoutePiece p : game.getBoard().getRoadsAndShips())
-        {
-            indn = translateEdgeToSmartSettlers(p.getCoordinates());
-            val = p.getPlayer().getPlayerNumber();
-            st[OFS_EDGES+indn] = EDGE_OCCUPIED + val;
-        }
-        
-        
         if (game.getPlayerWithLargestArmy() == null)
             val = -1;
         else
@@ -1953,8 +2027,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 	        st[OFS_FSMSTATE + fsmlevel] = GAMESTATE;
         }
         D.ebugPrintlnINFO("Player " + getPlayerNumber() + " Catan game representation is: \n " + Arrays.toString(st));
-        Game g = gameFactory.getGame(st);
-        return g;
+        return st;
     }
 	
 	/**
@@ -1965,6 +2038,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 	 */
 	public void generateBoard() {
 		D.ebugPrintlnINFO("Player " + getPlayerNumber() + " generating Catan board representation ");
+		boardMirror = null;
 		Board bl = new Board();
 		bl.InitBoard();
 		int xo, yo;
@@ -2045,6 +2119,7 @@ public class MCTSRobotBrain extends StacRobotBrain implements GameStateConstants
 			}
 		initTranslationTables(bl);
 		Catan.board = bl;
+		boardMirror = new MCTSBoardMirror(vertexToSS, edgeToSS, bl.neighborVertexVertex);
 	}
     
 	private int translateHexToSmartSettlers(int indo, Board bl) {
@@ -112,6 +112,12 @@ public class MCTSRobotType extends StacRobotType{
     public static final String MCTS_HUMAN_ACTION_TYPE_CONDITIONED_DIST_ROLLOUTS;
     /** Option to smooth the type dist used in rollouts.*/
     public static final String MCTS_HUMAN_ACTION_TYPE_DIST_ROLLOUTS_TEMPERATURE;
+    /** Number of spare threads used to search our next turn's roll-dice decision during the other players' turns. See {@link MCTSPonderer}.*/
+    public static final String MCTS_PONDER;
+    /** Option to scale each decision's search time or iterations by its type and number of legal actions, and stop searches whose best action has settled. See {@link MCTSTimeManager}.*/
+    public static final String MCTS_ADAPTIVE_TIME;
+    /** Most ms to spend searching during a game turn when {@link #MCTS_ADAPTIVE_TIME} is used with {@link #MCTS_TIME_LIMIT_MS}.*/
+    public static final String MCTS_TURN_TIME_BUDGET_MS;
     
     static{
     	MCTS_FACTORED_BELIEF = p("MCTS_FACTORED_BELIEF");
@@ -170,5 +176,8 @@ public class MCTSRobotType extends StacRobotType{
     	MCTS_HUMAN_ACTION_TYPE_DIST_ROLLOUTS = p("MCTS_HUMAN_ACTION_TYPE_DIST_ROLLOUTS");
     	MCTS_HUMAN_ACTION_TYPE_CONDITIONED_DIST_ROLLOUTS = p("MCTS_HUMAN_ACTION_TYPE_CONDITIONED_DIST_ROLLOUTS");
     	MCTS_HUMAN_ACTION_TYPE_DIST_ROLLOUTS_TEMPERATURE = p("MCTS_HUMAN_ACTION_TYPE_DIST_ROLLOUTS_TEMPERATURE",Double.class);
+    	MCTS_PONDER = p("MCTS_PONDER", Integer.class);
+    	MCTS_ADAPTIVE_TIME = p("MCTS_ADAPTIVE_TIME");
+    	MCTS_TURN_TIME_BUDGET_MS = p("MCTS_TURN_TIME_BUDGET_MS", Integer.class);
     }
 }
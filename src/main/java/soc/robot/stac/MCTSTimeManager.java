@@ -0,0 +1,341 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package soc.robot.stac;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import mcts.MCTS;
+import mcts.MCTSConfig;
+import mcts.game.Game;
+import mcts.game.catan.GameStateConstants;
+import mcts.listeners.SearchListener;
+import mcts.seeder.NullSeedTrigger;
+import soc.debug.D;
+
+/**
+ * Runs {@link MCTSRobotBrain}'s searches and decides how much of the search budget each decision gets.
+ *<P>
+ * By default every decision gets the brain's fixed {@link MCTSRobotType#MCTS_TIME_LIMIT_MS}
+ * or {@link MCTSRobotType#MCTS_ITERATIONS}, as before. With {@link MCTSRobotType#MCTS_ADAPTIVE_TIME},
+ * that budget is scaled for each decision:
+ *<UL>
+ *<LI> By the {@link DecisionType}'s weight, so the initial settlements get more than a discard
+ *<LI> By the number of legal actions at the root: Decisions with a single legal action
+ *     aren't searched at all, and ones with many actions get more time than ones with few
+ *<LI> If {@link MCTSRobotType#MCTS_TURN_TIME_BUDGET_MS} is set, to what's left of that turn's budget
+ *</UL>
+ * and the search stops early once its best action has been stable for a while:
+ * see {@link #search(Game, DecisionType)}.
+ *<P>
+ * Either way, keeps the latency of each decision type; see {@link #getReport()}
+ * and {@link #writeReport(String, String)}.
+ *<P>
+ * Not thread-safe: Call only from the brain's thread.
+ *
+ * @since 2.4.50
+ */
+public class MCTSTimeManager implements GameStateConstants
+{
+    /**
+     * The kinds of decisions searched by {@link MCTSRobotBrain} and its strategies,
+     * with their relative share of the search budget when adaptive.
+     */
+    public enum DecisionType
+    {
+        /** Initial settlement placement; see {@link MCTSOpeningBuildStrategy} */
+        INITIAL_SETTLEMENT(3.0),
+        /** Initial road placement; see {@link MCTSOpeningBuildStrategy} */
+        INITIAL_ROAD(1.0),
+        /** Roll the dice or play a knight first */
+        BEFORE_DICE(0.5),
+        /** The main decision of a turn: Build, buy, trade or end the turn */
+        NORMAL(1.5),
+        /** Free road placement from a road building card */
+        FREE_ROAD(0.5),
+        /** Robber placement and victim; see {@link MCTSRobberStrategy} */
+        ROBBER(0.75),
+        /** Resources to discard on a 7; see {@link MCTSDiscardStrategy} */
+        DISCARD(0.5),
+        /** Response to another player's trade offer */
+        TRADE_RESPONSE(0.5);
+
+        /** Multiplier for the brain's base budget */
+        public final double weight;
+
+        private DecisionType(final double weight)
+        {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Number of root actions which get the base budget times the decision type's weight;
+     * more actions get more, fewer get less. See {@link #allocate(DecisionType, int, long)}.
+     */
+    public static final int REFERENCE_BRANCHING = 10;
+
+    /** Least fraction of the base budget given to a decision which is searched */
+    public static final double MIN_BUDGET_FRACTION = 0.1;
+
+    /** Least fraction of a decision's budget to search before stopping early */
+    public static final double MIN_SEARCH_FRACTION = 0.5;
+
+    /** Fraction of a decision's budget during which the best action must be unchanged to stop early */
+    public static final double STABLE_FRACTION = 0.25;
+
+    private final MCTS mcts;
+
+    /** True to scale the budget and stop early; false to search each decision with the base budget */
+    private final boolean adaptive;
+
+    /** Base budget from the brain's search settings: Time limit in ms, or 0 if using {@link #baseIterations} */
+    private final long baseTimeLimit;
+
+    /** Base budget in iterations, if {@link #baseTimeLimit} is 0 */
+    private final int baseIterations;
+
+    /** Budget per game turn in ms if time-limited and adaptive, or 0 */
+    private final int turnBudget;
+
+    /** Game turn of the latest decision, and ms used for decisions during that turn */
+    private int turn = -1;
+    private long usedThisTurn;
+
+    /** Latency statistics per {@link DecisionType}, indexed by ordinal */
+    private final int[] counts, skips, earlyStops;
+    private final long[] totalMs, maxMs;
+
+    /**
+     * @param mcts  the brain's search; its config's {@link MCTSConfig#timeLimit} or {@link MCTSConfig#nIterations}
+     *     is the base budget, and will be changed for each decision if {@code adaptive}
+     * @param adaptive  true to scale each decision's budget and stop searches early
+     * @param turnBudget  if adaptive, most total ms to spend searching during a game turn, or 0 for no limit;
+     *     ignored if the search is limited by iterations instead of time
+     */
+    public MCTSTimeManager(final MCTS mcts, final boolean adaptive, final int turnBudget)
+    {
+        this.mcts = mcts;
+        this.adaptive = adaptive;
+        final MCTSConfig config = mcts.getMCTSConfig();
+        baseTimeLimit = config.timeLimit;
+        baseIterations = config.nIterations;
+        this.turnBudget = (adaptive && baseTimeLimit > 0) ? turnBudget : 0;
+
+        final int n = DecisionType.values().length;
+        counts = new int[n];
+        skips = new int[n];
+        earlyStops = new int[n];
+        totalMs = new long[n];
+        maxMs = new long[n];
+    }
+
+    /**
+     * Budget for a decision. If not adaptive, the base budget as before, even with only 1 action.
+     * If adaptive, the base budget scaled by {@code type}'s weight and
+     * {@code nActions}' ratio of logs to {@link #REFERENCE_BRANCHING}, limited to what's left
+     * of the turn budget. Never less than {@link #MIN_BUDGET_FRACTION} of the base budget,
+     * unless there's only 1 action.
+     * @param type  the kind of decision
+     * @param nActions  number of legal actions at the root
+     * @param turnRemaining  ms left of the turn budget, or -1 if there isn't one
+     * @return ms to search for if time-limited, otherwise the number of iterations;
+     *     0 if adaptive and {@code nActions} &lt;= 1, so there's nothing to search
+     */
+    public long allocate(final DecisionType type, final int nActions, final long turnRemaining)
+    {
+        final long base = (baseTimeLimit > 0) ? baseTimeLimit : baseIterations;
+        if (! adaptive)
+            return base;
+        if (nActions <= 1)
+            return 0;
+
+        double factor = Math.log(nActions) / Math.log(REFERENCE_BRANCHING);
+        factor = type.weight * Math.max(0.25, Math.min(2.0, factor));
+        long budget = Math.round(base * factor);
+        if (turnRemaining >= 0)
+            budget = Math.min(budget, turnRemaining);
+
+        return Math.max(budget, Math.max(1, Math.round(base * MIN_BUDGET_FRACTION)));
+    }
+
+    /**
+     * Search for the best action in a decision's root, and record how long it took.
+     * If adaptive, the budget comes from {@link #allocate(DecisionType, int, long)}, and the search is stopped
+     * early once at least {@link #MIN_SEARCH_FRACTION} of it is used and the best action
+     * hasn't changed during the last {@link #STABLE_FRACTION} of it.
+     * (Early stopping isn't done when seeding, because stopping cleans up the seeders.)
+     * @param g  the root, from {@link MCTSRobotBrain#generateGame(int, int[])}
+     * @param type  the kind of decision
+     * @return the best action, from {@code g}'s options
+     */
+    public int[] search(final Game g, final DecisionType type)
+    {
+        final long start = System.currentTimeMillis();
+        final ArrayList<int[]> options = g.listPossiblities(false).getOptions();
+        mcts.newTree(g);
+
+        final int gameTurn = g.getState()[OFS_TURN];
+        if (gameTurn != turn)
+        {
+            turn = gameTurn;
+            usedThisTurn = 0;
+        }
+
+        final long budget = allocate(type, options.size(), (turnBudget > 0) ? Math.max(0, turnBudget - usedThisTurn) : -1);
+        final int[] action;
+        boolean stoppedEarly = false;
+        if (budget == 0)
+        {
+            action = options.get(0);
+        } else if (! adaptive) {
+            SearchListener listener = mcts.search();
+            listener.waitForFinish();
+            action = options.get(mcts.getNextActionIndex());
+        } else {
+            final MCTSConfig config = mcts.getMCTSConfig();
+            if (baseTimeLimit > 0)
+                config.timeLimit = budget;
+            else
+                config.nIterations = (int) budget;
+            final boolean canStopEarly = (config.trigger instanceof NullSeedTrigger);
+            final long pollMs = (baseTimeLimit > 0) ? Math.max(5, budget / 50) : 5;
+
+            SearchListener listener = mcts.search();
+            int best = -1;
+            double stableSince = 0;
+            while (! listener.hasFinished())
+            {
+                try
+                {
+                    Thread.sleep(pollMs);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (! canStopEarly)
+                    continue;
+
+                final double progress = (baseTimeLimit > 0)
+                    ? (System.currentTimeMillis() - start) / (double) budget
+                    : listener.getNSimulations() / (double) budget;
+                final int idx = mcts.getNextActionIndex();
+                if (idx != best)
+                {
+                    best = idx;
+                    stableSince = progress;
+                }
+                else if ((progress >= MIN_SEARCH_FRACTION) && (progress - stableSince >= STABLE_FRACTION))
+                {
+                    mcts.shutdownNow(true);
+                    stoppedEarly = true;
+                    break;
+                }
+            }
+            action = options.get(mcts.getNextActionIndex());
+
+            config.timeLimit = baseTimeLimit;
+            config.nIterations = baseIterations;
+        }
+
+        final long ms = System.currentTimeMillis() - start;
+        usedThisTurn += ms;
+        final int t = type.ordinal();
+        counts[t]++;
+        totalMs[t] += ms;
+        if (ms > maxMs[t])
+            maxMs[t] = ms;
+        if (budget == 0)
+            skips[t]++;
+        if (stoppedEarly)
+            earlyStops[t]++;
+
+        return action;
+    }
+
+    /**
+     * @param type  a kind of decision
+     * @return the number of those decisions searched or skipped so far
+     */
+    public int getNumDecisions(final DecisionType type)
+    {
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * @return a line for each decision type made so far, with its count, mean and max ms,
+     *     number skipped because there was only one action, and number stopped early;
+     *     fields are tab-separated
+     */
+    public String getReport()
+    {
+        final StringBuilder sb = new StringBuilder();
+        for (DecisionType type : DecisionType.values())
+        {
+            final int t = type.ordinal();
+            if (counts[t] == 0)
+                continue;
+            sb.append(type).append('\t').append(counts[t])
+              .append('\t').append(totalMs[t] / counts[t]).append('\t').append(maxMs[t])
+              .append('\t').append(skips[t]).append('\t').append(earlyStops[t]).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Append {@link #getReport()} to {@code mctsLatency.txt} in the simulations' {@code results/} directory,
+     * if that directory exists, each line prefixed with the game name and player.
+     * @param gameName  the game's name
+     * @param player  the player's name or number
+     */
+    public void writeReport(final String gameName, final String player)
+    {
+        final File dir = new File("results");
+        if (! dir.isDirectory())
+            return;
+
+        final String report = getReport();
+        if (report.isEmpty())
+            return;
+
+        BufferedWriter out = null;
+        try
+        {
+            out = new BufferedWriter(new FileWriter(new File(dir, "mctsLatency.txt"), true));
+            for (String line : report.split("\n"))
+            {
+                out.write(gameName + '\t' + player + '\t' + line);
+                out.newLine();
+            }
+        } catch (IOException e) {
+            D.ebugERROR("Couldn't write MCTS latency report: " + e);
+        } finally {
+            if (out != null)
+                try
+                {
+                    out.close();
+                } catch (IOException e) {}
+        }
+    }
+
+}
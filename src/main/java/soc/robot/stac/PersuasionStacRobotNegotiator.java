@@ -13,14 +13,12 @@ import soc.game.SOCBoard;
 import soc.game.SOCPlayer;
 import soc.game.SOCResourceConstants;
 import soc.game.SOCResourceSet;
-import soc.game.SOCRoad;
 import soc.game.SOCSettlement;
 import soc.game.SOCTradeOffer;
 import soc.robot.SOCBuildPlanStack;
 import soc.robot.SOCBuildingSpeedEstimate;
 import soc.robot.SOCPlayerTracker;
 import soc.robot.SOCPossiblePiece;
-import soc.robot.SOCPossibleRoad;
 import soc.robot.SOCPossibleSettlement;
 import soc.robot.stac.Persuasion.PersuasionIdentifiers;
 
@@ -815,18 +813,7 @@ public class PersuasionStacRobotNegotiator extends StacRobotNegotiator {
     		boolean canPerformBothStatementsTogether = true;
     		for(Integer pn : mapPnToResBeforeTrade.keySet()){
     			SOCPlayerTracker playerTracker = trackers[pn];
-    			int N = 0;
-            	for(int node : playerTracker.getPlayer().getLegalSettlements()){
-            		if(playerTracker.getPlayer().isPotentialSettlement(node)){
-            			N++;
-            		}
-            	}
-        	    ArrayList<Integer> potentialRoads = new ArrayList<Integer>();
-                for (int i = game.getBoard().getMinNode(); i <= SOCBoard.MAXNODE; i++){
-                	if(playerTracker.getPlayer().isPotentialRoad(i)){
-                		potentialRoads.add(i);
-                	}
-                }  
+    			WhatIfRoadEvaluator whatIf = new WhatIfRoadEvaluator(playerTracker.getPlayer());
                 
     			SOCPlayer playerWithLongestRoad = playerTracker.getPlayer().getGame().getPlayerWithLongestRoad();
 	    		int currentLongestRoad = -1;
@@ -835,28 +822,18 @@ public class PersuasionStacRobotNegotiator extends StacRobotNegotiator {
 	    		}
 	    		int oldLRLength = playerTracker.getPlayer().getLongestRoadLength();
 
-        		for(int co : potentialRoads){
+        		for(int co : whatIf.getPotentialRoads()){
         			boolean doesAllowBothArgs = false;
-        			SOCPlayer dummy = new SOCPlayer(playerTracker.getPlayer(), null);
-        	        SOCPossibleRoad spb = new SOCPossibleRoad(dummy, co, new Vector());
-        	        SOCRoad tempRoad = new SOCRoad(dummy, spb.getCoordinates(), game.getBoard());
-        	        dummy.putPiece(tempRoad, true);
-        	    	int M = 0;
-        	    	for(int node : dummy.getLegalSettlements()){
-        	    		if(dummy.isPotentialSettlement(node)){
-        	    			M++;
-        	    		}
-        	    	}	      
-        	    	if(M>N){
-        	    		int newLRLength = dummy.calcLongestRoad2();
+        	    	if(whatIf.givesNewSettlement(co)){
+        	    		int newLRLength = whatIf.calcLongestRoadWith(co);
         	    		        	    		
         	    		if(parameters.get(Persuasion.longestRoadTypeWildcard).equals("keep")){
-        	    			if(playerWithLongestRoad!=null && playerWithLongestRoad.getPlayerNumber()==dummy.getPlayerNumber() && newLRLength>oldLRLength){
+        	    			if(playerWithLongestRoad!=null && playerWithLongestRoad.getPlayerNumber()==pn && newLRLength>oldLRLength){
         	    				doesAllowBothArgs = true;
         	    			}
         	    		}
         	    		else if(parameters.get(Persuasion.longestRoadTypeWildcard).equals("get")){
-        	    			if((playerWithLongestRoad==null && newLRLength>=5 && newLRLength>oldLRLength)||(playerWithLongestRoad!=null && playerWithLongestRoad.getPlayerNumber()!=dummy.getPlayerNumber() && newLRLength>currentLongestRoad)){
+        	    			if((playerWithLongestRoad==null && newLRLength>=5 && newLRLength>oldLRLength)||(playerWithLongestRoad!=null && playerWithLongestRoad.getPlayerNumber()!=pn && newLRLength>currentLongestRoad)){
         	    				doesAllowBothArgs = true;
         	    			}
         	    		}
@@ -866,8 +843,6 @@ public class PersuasionStacRobotNegotiator extends StacRobotNegotiator {
         	    			}
         	    		}
         	    	}
-          	        dummy.removePiece(tempRoad, null);
-    		        dummy.destroyPlayer();
             		if(doesAllowBothArgs){
             			canPerformBothStatementsTogether = true;
             		}
@@ -1105,33 +1080,11 @@ public class PersuasionStacRobotNegotiator extends StacRobotNegotiator {
     		return false;
     		
     	case Persuasion.newSettlementConstraint:
-        	int N = 0;
-        	for(int node : currentPlayer.getPlayer().getLegalSettlements()){
-        		if(currentPlayer.getPlayer().isPotentialSettlement(node)){
-        			N++;
-        		}
-        	}
-    	    ArrayList<Integer> potentialRoads = new ArrayList<Integer>();
-            for (int i = game.getBoard().getMinNode(); i <= SOCBoard.MAXNODE; i++){
-            	if(currentPlayer.getPlayer().isPotentialRoad(i)){
-            		potentialRoads.add(i);
-            	}
-            }  
-    		for(int co : potentialRoads){
-    			SOCPlayer dummy = new SOCPlayer(currentPlayer.getPlayer(), null);
-    	        SOCPossibleRoad spb = new SOCPossibleRoad(dummy, co, new Vector());
-    	        SOCRoad tempRoad = new SOCRoad(dummy, spb.getCoordinates(), game.getBoard());
-    	        dummy.putPiece(tempRoad, true);
-    	    	int M = 0;
-    	    	for(int node : dummy.getLegalSettlements()){
-    	    		if(dummy.isPotentialSettlement(node)){
-    	    			M++;
-    	    		}
-    	    	}	        if(M>N){
+    	    WhatIfRoadEvaluator whatIf = new WhatIfRoadEvaluator(currentPlayer.getPlayer());
+    		for(int co : whatIf.getPotentialRoads()){
+    	        if(whatIf.givesNewSettlement(co)){
     	        	return true;
     	        }
-    	        dummy.removePiece(tempRoad, null);
-		        dummy.destroyPlayer();
     		}
     	    return false;
             
@@ -1442,8 +1395,6 @@ public class PersuasionStacRobotNegotiator extends StacRobotNegotiator {
     	
     	if(constraints.containsKey(Persuasion.longestRoadConstraint) && constraints.containsKey(Persuasion.newSettlementConstraint) &&
     			constraints.get(Persuasion.longestRoadConstraint).equals("true") && constraints.get(Persuasion.newSettlementConstraint).equals("true")){
-		    int N = 0;
-		    
 		    String LRType = parameters.get(Persuasion.longestRoadTypeWildcard);
 		    SOCPlayer playerWithLongestRoad = brain.getPlayerData().getGame().getPlayerWithLongestRoad();
 			int currentLongestRoad = -1;
@@ -1452,38 +1403,16 @@ public class PersuasionStacRobotNegotiator extends StacRobotNegotiator {
 			}
 			int myLongestRoad = brain.getPlayerData().calcLongestRoad2();
 			
-			for(int node : brain.getPlayerData().getLegalSettlements()){
-				if(brain.getPlayerData().isPotentialSettlement(node)){
-					N++;
-				}
-			}   
-		    ArrayList<Integer> potentialRoads = new ArrayList<Integer>();
-		    for (int i = game.getBoard().getMinNode(); i <= SOCBoard.MAXNODE; i++){
-		    	if(brain.getPlayerData().isPotentialRoad(i)){
-		    		potentialRoads.add(i);
-		    	}
-		    }
-			for(int co : potentialRoads){
-				SOCPlayer dummy = new SOCPlayer(brain.getPlayerData(), null);
-		        SOCPossibleRoad spb = new SOCPossibleRoad(dummy, co, new Vector());
-		        SOCRoad tempRoad = new SOCRoad(dummy, spb.getCoordinates(), game.getBoard());
-		        dummy.putPiece(tempRoad, true);
-		    	int M = 0;
-		    	for(int node : dummy.getLegalSettlements()){
-		    		if(dummy.isPotentialSettlement(node)){
-		    			M++;
-		    		}
-		    	}	        
-		    	if(M>N){
-		        	int newLRLength = dummy.calcLongestRoad2();
+		    WhatIfRoadEvaluator whatIf = new WhatIfRoadEvaluator(brain.getPlayerData());
+			for(int co : whatIf.getPotentialRoads()){
+		    	if(whatIf.givesNewSettlement(co)){
+		        	int newLRLength = whatIf.calcLongestRoadWith(co);
 					if((LRType.equals("keep") && playerWithLongestRoad!=null && playerWithLongestRoad.getPlayerNumber()==brain.getPlayerNumber() && newLRLength>myLongestRoad)||
 							(LRType.equals("get") && ((playerWithLongestRoad==null && newLRLength==5) || (newLRLength>currentLongestRoad && (playerWithLongestRoad!=null && playerWithLongestRoad.getPlayerNumber()!=brain.getPlayerNumber()))))||
 							(LRType.equals("equal") && playerWithLongestRoad!=null && playerWithLongestRoad.getPlayerNumber()!=brain.getPlayerNumber() && newLRLength==currentLongestRoad) ){
 						return true;
 					}
 		        }
-		        dummy.removePiece(tempRoad, null);
-		        dummy.destroyPlayer();
 			}
 		    return false;
 		}
@@ -1583,34 +1512,11 @@ public class PersuasionStacRobotNegotiator extends StacRobotNegotiator {
 			return false;
 
 		case Persuasion.newSettlementConstraint:
-		    int N = 0;
-			for(int node : brain.getPlayerData().getLegalSettlements()){
-				if(brain.getPlayerData().isPotentialSettlement(node)){
-					N++;
-				}
-			}   
-		    ArrayList<Integer> potentialRoads = new ArrayList<Integer>();
-		    for (int i = game.getBoard().getMinNode(); i <= SOCBoard.MAXNODE; i++){
-		    	if(brain.getPlayerData().isPotentialRoad(i)){
-		    		potentialRoads.add(i);
-		    	}
-		    }
-			for(int co : potentialRoads){
-				SOCPlayer dummy = new SOCPlayer(brain.getPlayerData(), null);
-		        SOCPossibleRoad spb = new SOCPossibleRoad(dummy, co, new Vector());
-		        SOCRoad tempRoad = new SOCRoad(dummy, spb.getCoordinates(), game.getBoard());
-		        dummy.putPiece(tempRoad, true);
-		    	int M = 0;
-		    	for(int node : dummy.getLegalSettlements()){
-		    		if(dummy.isPotentialSettlement(node)){
-		    			M++;
-		    		}
-		    	}	        
-		    	if(M>N){
+		    WhatIfRoadEvaluator whatIf = new WhatIfRoadEvaluator(brain.getPlayerData());
+			for(int co : whatIf.getPotentialRoads()){
+		    	if(whatIf.givesNewSettlement(co)){
 		        	return true;
 		        }
-		        dummy.removePiece(tempRoad, null);
-		        dummy.destroyPlayer();
 			}
 		    return false;
 		    
@@ -1971,27 +1877,7 @@ public class PersuasionStacRobotNegotiator extends StacRobotNegotiator {
      * @return
      */
     private int calculateMaxLengthOfRoadAfterAddingOne(SOCPlayer player){
-    	
-        ArrayList<Integer> potentialRoads = new ArrayList<Integer>();
-        for (int i = game.getBoard().getMinNode(); i <= SOCBoard.MAXNODE; i++){
-        	if(player.isPotentialRoad(i)){
-        		potentialRoads.add(i);
-        	}
-        }  
-        int maximum=0;
-		for(int co : potentialRoads){
-	        SOCPlayer dummy = new SOCPlayer(player, null);
-	        SOCPossibleRoad spb = new SOCPossibleRoad(dummy, co, new Vector());
-	        SOCRoad tempRoad = new SOCRoad(dummy, spb.getCoordinates(), game.getBoard());
-	        dummy.putPiece(tempRoad, true);
-	        int temp = dummy.calcLongestRoad2();
-	        if(temp>maximum){
-	        	maximum=temp;
-	        }
-	        dummy.removePiece(tempRoad, null);
-	        dummy.destroyPlayer();
-		}
-		return maximum;
+    	return new WhatIfRoadEvaluator(player).calcMaxLongestRoadWithOneMore();
     }
     
     
@@ -0,0 +1,245 @@
+package soc.robot.stac;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import soc.game.SOCBoard;
+import soc.game.SOCCity;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.game.SOCShip;
+import soc.robot.SOCPlayerTracker;
+import soc.robot.SOCPossiblePiece;
+import soc.robot.SOCRobotBrain;
+import soc.util.DeepCopy;
+
+/**
+ * Computes our win game ETA after placing each of a list of candidate pieces, for the EP of
+ * {@link StacRobotDM}'s possible build plans. Each candidate is placed with
+ * {@link SOCPlayerTracker#tryPutPiece(SOCPlayingPiece, SOCGame, SOCPlayerTracker[])}, followed by
+ * {@link SOCPlayerTracker#updateWinGameETAs(SOCPlayerTracker[])} and
+ * {@link SOCPlayerTracker#undoTryPutPiece(SOCPlayingPiece, SOCGame)}.
+ *<P>
+ * With a parallelism of 1 that's done in the brain's game, one candidate after another, as before.
+ * Undoing a placement doesn't always restore everything: Some potential pieces or longest road paths
+ * can be left over in the game and trackers, which may change the ETAs of later candidates.
+ *<P>
+ * Otherwise the candidates are split into that many chunks on the common {@link ForkJoinPool}.
+ * Each chunk gets its own snapshot of the game and player trackers, deserialized from bytes
+ * written once by the calling thread, so the brain's game isn't changed while evaluating.
+ * The chunk's candidates are tried one after another in that snapshot, like in the brain's game
+ * with a parallelism of 1, so a candidate can see leftovers from earlier candidates in its chunk
+ * and the results may depend on the parallelism in the case above.
+ * Results are always returned in candidate order.
+ *<P>
+ * Also keeps latency statistics for the decisions it's used in; see {@link #getLatencyReport()}.
+ *
+ * @see StacRobotType#PARALLEL_BP_EVALUATION
+ */
+public class StacCandidateEvaluator {
+
+    /** The brain whose estimator factory the snapshot trackers use */
+    private final SOCRobotBrain<?, ?, ?> brain;
+
+    /** Number of chunks to split the candidates into; 1 to evaluate them in the brain's game */
+    private final int parallelism;
+
+    /** Statistics for {@link #getLatencyReport()} */
+    private int decisions, candidates;
+    private long totalNanos, maxNanos;
+
+    /**
+     * @param brain  the brain using this evaluator
+     * @param parallelism  number of chunks of candidates to evaluate in parallel on game snapshots,
+     *     or 1 to evaluate them one after another in the brain's game
+     */
+    public StacCandidateEvaluator(SOCRobotBrain<?, ?, ?> brain, int parallelism) {
+        this.brain = brain;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Compute a player's win game ETA after placing each candidate piece.
+     * @param game  the game; not changed if parallelism &gt; 1
+     * @param trackers  the player trackers of {@code game}'s players; not changed
+     * @param pn  the player number whose win game ETA is wanted
+     * @param pieces  the candidates, which must belong to players of {@code game}
+     * @return the win game ETA for each candidate, in the same order as {@code pieces}
+     */
+    public int[] winGameETAs(final SOCGame game, final SOCPlayerTracker[] trackers, final int pn, final List<SOCPlayingPiece> pieces) {
+        final int[] etas = new int[pieces.size()];
+        candidates += etas.length;
+        if (etas.length == 0)
+            return etas;
+
+        if (parallelism > 1 && etas.length > 1) {
+            final byte[] snapshot = DeepCopy.toBytes(new Object[]{ game, trackers });
+            if (snapshot != null) {
+                final int chunk = (etas.length + parallelism - 1) / parallelism;
+                try {
+                    ForkJoinPool.commonPool().invoke(new EvalTask(snapshot, pn, pieces, etas, 0, etas.length, chunk));
+                    return etas;
+                } catch (RuntimeException e) {
+                    System.err.println("StacCandidateEvaluator: parallel evaluation failed, evaluating sequentially: " + e);
+                }
+            }
+        }
+
+        for (int i = 0; i < etas.length; i++)
+            etas[i] = winGameETA(game, trackers, pn, pieces.get(i));
+
+        return etas;
+    }
+
+    /**
+     * Our win game ETA after placing one candidate; undoes the placement afterwards.
+     */
+    private static int winGameETA(final SOCGame game, final SOCPlayerTracker[] trackers, final int pn, final SOCPlayingPiece piece) {
+        SOCPlayerTracker[] trackersCopy = SOCPlayerTracker.tryPutPiece(piece, game, trackers);
+        //doing this instead of just updating it for our own player tracker (ourPlayerTrackerCopy.recalcWinGameETA();)
+        //is computationally costly but give slightly different values (should be slightly more accurate)
+        SOCPlayerTracker.updateWinGameETAs(trackersCopy);
+        int eta = trackersCopy[pn].getWinGameETA();
+        SOCPlayerTracker.undoTryPutPiece(piece, game);
+        return eta;
+    }
+
+    /**
+     * Make a game and trackers snapshot from bytes written by {@link DeepCopy#toBytes(Object)},
+     * setting the playing pieces', trackers' and possible pieces' transient fields like when loading a saved game.
+     * @return the snapshot's game and trackers in a 2-element array
+     */
+    private Object[] readSnapshot(final byte[] snapshot) {
+        final Object[] copy = (Object[]) DeepCopy.fromBytes(snapshot);
+        if (copy == null)
+            throw new IllegalStateException("can't read game snapshot");
+
+        final SOCGame gameCopy = (SOCGame) copy[0];
+        final SOCPlayerTracker[] trackersCopy = (SOCPlayerTracker[]) copy[1];
+        final SOCBoard board = gameCopy.getBoard();
+        for (int i = 0; i < gameCopy.maxPlayers; i++) {
+            final SOCPlayer pl = gameCopy.getPlayer(i);
+            for (SOCPlayingPiece pp : pl.getPieces())
+                pp.setGameInfo(pl, board);
+            for (SOCPlayingPiece pp : pl.getRoadsAndShips())
+                pp.setGameInfo(pl, board);
+            for (SOCPlayingPiece pp : pl.getSettlements())
+                pp.setGameInfo(pl, board);
+            for (SOCPlayingPiece pp : pl.getCities())
+                pp.setGameInfo(pl, board);
+        }
+
+        for (int i = 0; i < trackersCopy.length; i++) {
+            final SOCPlayerTracker pt = trackersCopy[i];
+            if (pt == null)
+                continue;
+
+            final SOCPlayer pl = gameCopy.getPlayer(i);
+            pt.setPlayer(pl);
+            pt.setBrain(brain);
+            for (SOCPossiblePiece pp : pt.getPossibleRoads().values())
+                pp.setTransientsAtLoad(pl, pt);
+            for (SOCPossiblePiece pp : pt.getPossibleSettlements().values())
+                pp.setTransientsAtLoad(pl, pt);
+            for (SOCPossiblePiece pp : pt.getPossibleCities().values())
+                pp.setTransientsAtLoad(pl, pt);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Copy of a candidate piece for the same player and location in another game.
+     */
+    private static SOCPlayingPiece pieceInGame(final SOCPlayingPiece piece, final SOCGame ga) {
+        final SOCPlayer pl = ga.getPlayer(piece.getPlayerNumber());
+        final SOCBoard board = ga.getBoard();
+        final int coord = piece.getCoordinates();
+        switch (piece.getType()) {
+        case SOCPlayingPiece.ROAD:
+            return new SOCRoad(pl, coord, board);
+        case SOCPlayingPiece.SHIP:
+            return new SOCShip(pl, coord, board);
+        case SOCPlayingPiece.SETTLEMENT:
+            return new SOCSettlement(pl, coord, board);
+        case SOCPlayingPiece.CITY:
+            return new SOCCity(pl, coord, board);
+        default:
+            throw new IllegalArgumentException("piece type " + piece.getType());
+        }
+    }
+
+    /**
+     * Evaluates a range of candidates: Splits it in half until it's at most one chunk long,
+     * then tries the chunk's candidates one after another on a new game snapshot.
+     */
+    private final class EvalTask extends RecursiveAction {
+        private static final long serialVersionUID = 2450L;
+
+        private final byte[] snapshot;
+        private final int pn;
+        private final List<SOCPlayingPiece> pieces;
+        private final int[] etas;
+        private final int from, to, chunk;
+
+        EvalTask(byte[] snapshot, int pn, List<SOCPlayingPiece> pieces, int[] etas, int from, int to, int chunk) {
+            this.snapshot = snapshot;
+            this.pn = pn;
+            this.pieces = pieces;
+            this.etas = etas;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunk) {
+                final int mid = from + ((to - from + 1) / 2);
+                invokeAll(new EvalTask(snapshot, pn, pieces, etas, from, mid, chunk),
+                          new EvalTask(snapshot, pn, pieces, etas, mid, to, chunk));
+                return;
+            }
+
+            final Object[] copy = readSnapshot(snapshot);
+            final SOCGame gameCopy = (SOCGame) copy[0];
+            final SOCPlayerTracker[] trackersCopy = (SOCPlayerTracker[]) copy[1];
+            for (int i = from; i < to; i++)
+                etas[i] = winGameETA(gameCopy, trackersCopy, pn, pieceInGame(pieces.get(i), gameCopy));
+        }
+    }
+
+    /**
+     * Record how long one decision took, including any candidate evaluation.
+     * @param nanos  the decision's duration, from {@link System#nanoTime()}
+     */
+    public void recordDecision(long nanos) {
+        decisions++;
+        totalNanos += nanos;
+        if (nanos > maxNanos)
+            maxNanos = nanos;
+    }
+
+    public int getNumDecisions() {
+        return decisions;
+    }
+
+    /**
+     * @return the decisions' count and mean and maximum latency, the number of candidates evaluated,
+     *     and the parallelism, as a one-line String
+     */
+    public String getLatencyReport() {
+        final long mean = (decisions > 0) ? (totalNanos / decisions) : 0;
+        return "decisions=" + decisions + " mean=" + (mean / 1000) + "us max=" + (maxNanos / 1000)
+            + "us candidates=" + candidates + " parallelism=" + parallelism;
+    }
+
+}
@@ -94,6 +94,7 @@ import soc.server.database.stac.ExtGameStateRow;
 import soc.server.database.stac.ObsGameStateRow;
 import soc.server.database.stac.StacDBHelper;
 import soc.util.CappedQueue;
+import soc.util.GameCheckpoint;
 import soc.util.SOCRobotParameters;
 
 
@@ -647,15 +648,38 @@ public class StacRobotBrain extends SOCRobotBrain<StacRobotDM, PersuasionStacRob
      * {@inheritDoc}
      *<P>
      * In StacSettlers v1, this was handled by parsing server announcements in {@code handleGameTxtMsg(..)}.
+     *<P>
+     * A rejection doesn't execute the offer. Once every player we sent the offer to has rejected it,
+     * remember the offer as made, like {@link SOCRobotBrain#handleTradeResponse(int, boolean)} does,
+     * and stop waiting right away instead of until {@link #tradeResponseTimeoutSec} pings have passed.
+     * An accepted trade's flags are cleared when the server's {@code SOCClearOffer} arrives.
      * @since 2.4.50
      */
     @Override
     public void handleTradeResponse(int toPlayerNum, boolean accepted) {
-        	//TODO capture trade for preference model
-            if (declarativeMemory.getMyNegotiatedOffer() == null)
-                System.err.println("negotiated offer is null");
+        if (! accepted) {
+            waitingForTradeResponsePlayer[toPlayerNum] = false;
+            for (int i = 0; i < game.maxPlayers; i++)
+                if (waitingForTradeResponsePlayer[i])
+                    return;  // still waiting for someone
+
+            final SOCTradeOffer offer = ourPlayerData.getCurrentOffer();
+            if (offer instanceof StacTradeOffer)
+                getNegotiator().addToOffersMade((StacTradeOffer) offer);
+            else if (offer != null)
+                negotiator.addToOffersMade(offer);
+
+            client.clearOffer(game);
+            clearTradingFlags(false, true);
+            counter = 0;
+            return;
+        }
+
+        //TODO capture trade for preference model
+        if (declarativeMemory.getMyNegotiatedOffer() == null)
+            System.err.println("negotiated offer is null");
 
-            declarativeMemory.negotiatedOfferWasExecuted(); //.addPastTrade(declarativeMemory.getMyNegotiatedOffer());
+        declarativeMemory.negotiatedOfferWasExecuted(); //.addPastTrade(declarativeMemory.getMyNegotiatedOffer());
     }
  
     /*
@@ -1146,16 +1170,12 @@ public class StacRobotBrain extends SOCRobotBrain<StacRobotDM, PersuasionStacRob
     	//execute the saving procedure for this robot
     	cl.unsynckedGameCopy(new SOCGameCopy(getGame().getName(), "saves/robot", -1));
     	
-    	//check that all save procedures have been finished by checking that the files containing SOCGame exist as these are the last to be created 
-    	String name = "soc.game.SOCGame.dat";
-    	String prefix = "saves/robot/";
-    	File file;
+    	//check that all save procedures have been finished by checking that the checkpoint has each SOCGame entry, as these are the last to be saved
     	boolean finished = false;
     	while(!finished){
     		finished = true;
     		for(int i = 0; i < 4; i++){
-    			file = new File(prefix + i + "_" + name);
-    			if(!file.exists()){
+    			if(!GameCheckpoint.hasEntry("saves/robot", GameCheckpoint.entryName("" + i, SOCGame.class))){
     				finished = false; //need to loop for a little while longer
     			}
     		}
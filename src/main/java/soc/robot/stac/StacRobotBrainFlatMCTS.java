@@ -25,6 +25,7 @@ import soc.robot.stac.flatmcts.FlatMCTS;
 import soc.robot.stac.flatmcts.FlatMctsType;
 import soc.util.CappedQueue;
 import soc.util.CutoffExceededException;
+import soc.util.GameCheckpoint;
 import soc.util.SOCRobotParameters;
 /**
  * The brain of the robot taking decisions using flat MCTS with domain knowledge extracted from the corpus or from the original JSettlers logic.
@@ -118,16 +119,12 @@ public class StacRobotBrainFlatMCTS extends StacRobotBrain {
         	//execute the saving procedure for this robot
         	cl.unsynckedGameCopy(new SOCGameCopy(getGame().getName(), "saves/robot", -1));
 
-        	//check that all save procedures have been finished by checking that the files containing SOCGame exist as these are the last to be created 
-        	String name = "soc.game.SOCGame.dat";
-        	String prefix = "saves/robot/";
-        	File file;
+        	//check that all save procedures have been finished by checking that the checkpoint has each SOCGame entry, as these are the last to be saved
         	boolean finished = false;
         	while(!finished){
         		finished = true;
         		for(int i = 0; i < 4; i++){
-        			file = new File(prefix + i + "_" + name);
-        			if(!file.exists()){
+        			if(!GameCheckpoint.hasEntry("saves/robot", GameCheckpoint.entryName("" + i, SOCGame.class))){
         				finished = false; //need to loop for a little while longer
         			}
         		}
@@ -60,6 +60,12 @@ public class StacRobotDM extends SOCRobotDM<SOCBuildPlanStack> {
      */
     private SOCRobotDMImpl oldDM;
 
+    /**
+     * Computes the deltaWinGameETA (EP) of candidate build plans,
+     * in parallel if {@link StacRobotType#PARALLEL_BP_EVALUATION} is set
+     */
+    private final StacCandidateEvaluator candidateEvaluator;
+
     public StacRobotDM(StacRobotBrain br, SOCBuildPlanStack plan) {
         this
             (br, br.getPlayerTrackers(), br.getOurPlayerTracker(),
@@ -75,6 +81,8 @@ public class StacRobotDM extends SOCRobotDM<SOCBuildPlanStack> {
                   : SOCRobotDMImpl.FAST_STRATEGY));
         brain = br;
         oldDM = new SOCRobotDMImpl(br, SOCRobotDMImpl.FAST_STRATEGY, bp);
+        candidateEvaluator = new StacCandidateEvaluator
+            (br, br.isRobotType(StacRobotType.PARALLEL_BP_EVALUATION) ? (Integer) br.getTypeParam(StacRobotType.PARALLEL_BP_EVALUATION) : 1);
 
         // player is called ourPlayerData in SOCRobotDM(Impl)
         // we are giving access to the buildingPlan object as the DM shouldn't forget its plans while making them
@@ -515,6 +523,16 @@ public class StacRobotDM extends SOCRobotDM<SOCBuildPlanStack> {
         // CITIES
         // Check that there are still city pieces available
         if (player.getNumPieces(SOCPlayingPiece.CITY) > 0) {
+            // Our WGETA after building each city, all computed at once
+            int[] cityWGETAs = null;
+            if (generateDeltaWinGameETAs) {
+                List<SOCPlayingPiece> tmpCities = new ArrayList<SOCPlayingPiece>();
+                for (SOCPossibleCity posCity : ourPlayerTracker.getPossibleCities().values())
+                    tmpCities.add(new SOCCity(player, posCity.getCoordinates(), board));
+                cityWGETAs = candidateEvaluator.winGameETAs(brain.getGame(), playerTrackers, player.getPlayerNumber(), tmpCities);
+            }
+
+            int cityIndex = 0;
             Iterator possibleCitiesIter = ourPlayerTracker.getPossibleCities().values().iterator();
             while (possibleCitiesIter.hasNext()) {
                 SOCPossibleCity posCity = (SOCPossibleCity)possibleCitiesIter.next();
@@ -538,16 +556,9 @@ public class StacRobotDM extends SOCRobotDM<SOCBuildPlanStack> {
                 // Calculate the deltaWinGameETA
                 int deltaWGETA = 0;
                 if (generateDeltaWinGameETAs) {
-                    SOCCity tmpCity = new SOCCity(player, posCity.getCoordinates(), board);
-                    SOCPlayerTracker[] trackersCopy = SOCPlayerTracker.tryPutPiece(tmpCity, brain.getGame(), playerTrackers);
-                    //doing this instead of just updating it for our own player tracker (ourPlayerTrackerCopy.recalcWinGameETA();) 
-                    //is computationally costly but give slightly different values (should be slightly more accurate)
-                    SOCPlayerTracker.updateWinGameETAs(trackersCopy); 
-                    SOCPlayerTracker ourPlayerTrackerCopy = trackersCopy[player.getPlayerNumber()];
-                    int ourCurrentWGETACopy = ourPlayerTrackerCopy.getWinGameETA();
-                    SOCPlayerTracker.undoTryPutPiece(tmpCity, brain.getGame());
-                    deltaWGETA = ourCurrentWGETA - ourCurrentWGETACopy;
+                    deltaWGETA = ourCurrentWGETA - cityWGETAs[cityIndex];
                 }
+                cityIndex++;
                 
                 // Create and store the build plan
                 SOCBuildPlanStack possibleBuildPlan = new SOCBuildPlanStack();
@@ -562,7 +573,17 @@ public class StacRobotDM extends SOCRobotDM<SOCBuildPlanStack> {
             // Update the scoring for our potential settlements
             scoreSettlementsForDumb(buildingETAs[SOCBuildingSpeedEstimate.SETTLEMENT], ourBSE);
 
+            // Our WGETA after building each settlement, all computed at once
+            int[] settlementWGETAs = null;
+            if (generateDeltaWinGameETAs) {
+                List<SOCPlayingPiece> tmpSettlements = new ArrayList<SOCPlayingPiece>();
+                for (SOCPossibleSettlement posSettlement : ourPlayerTracker.getPossibleSettlements().values())
+                    tmpSettlements.add(new SOCSettlement(player, posSettlement.getCoordinates(), board));
+                settlementWGETAs = candidateEvaluator.winGameETAs(brain.getGame(), playerTrackers, player.getPlayerNumber(), tmpSettlements);
+            }
+
             // Generate the build plans for settlements
+            int settlementIndex = 0;
             Iterator possibleSettlementsIter = ourPlayerTracker.getPossibleSettlements().values().iterator();
             while (possibleSettlementsIter.hasNext()) {
                 SOCPossibleSettlement posSettlement = (SOCPossibleSettlement)possibleSettlementsIter.next();
@@ -586,16 +607,9 @@ public class StacRobotDM extends SOCRobotDM<SOCBuildPlanStack> {
                 // Calculate the deltaWinGameETA
                 int deltaWGETA = 0;
                 if (generateDeltaWinGameETAs) {
-                    SOCSettlement tmpSettlement = new SOCSettlement(player, posSettlement.getCoordinates(), board);
-                    SOCPlayerTracker[] trackersCopy = SOCPlayerTracker.tryPutPiece(tmpSettlement, brain.getGame(), playerTrackers);
-                    SOCPlayerTracker ourPlayerTrackerCopy = trackersCopy[player.getPlayerNumber()];
-                    //doing this instead of just updating it for our own player tracker (ourPlayerTrackerCopy.recalcWinGameETA();) 
-                    //is computationally costly but give slightly different values (should be slightly more accurate)
-                    SOCPlayerTracker.updateWinGameETAs(trackersCopy);
-                    int ourCurrentWGETACopy = ourPlayerTrackerCopy.getWinGameETA();
-                    SOCPlayerTracker.undoTryPutPiece(tmpSettlement, brain.getGame());
-                    deltaWGETA = ourCurrentWGETA - ourCurrentWGETACopy;
+                    deltaWGETA = ourCurrentWGETA - settlementWGETAs[settlementIndex];
                 }
+                settlementIndex++;
 
                 // Generate the build plan, including needed roads, and store it
                 SOCBuildPlanStack possibleBuildPlan = new SOCBuildPlanStack();
@@ -921,7 +935,9 @@ public class StacRobotDM extends SOCRobotDM<SOCBuildPlanStack> {
 
         long end = System.nanoTime();
         long microseconds = (end - start) / 1000;
-        D.ebugPrintlnINFO(brain.getGame().getName(), "generation took: " + microseconds);
+        candidateEvaluator.recordDecision(end - start);
+        if (soc.debug.D.ebugIsEnabled())
+            soc.debug.D.ebugPrintlnINFO(brain.getGame().getName(), "generation took: " + microseconds + "; " + candidateEvaluator.getLatencyReport());
     }
     
     /**
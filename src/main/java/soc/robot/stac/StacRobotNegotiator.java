@@ -101,6 +101,11 @@ public class StacRobotNegotiator extends SOCRobotNegotiator<SOCBuildPlanStack> {
 	 */
 	private static final SOCResourceSet GLOBAL_ETA_RS = new SOCResourceSet(2, 4, 2, 3, 2, 0);    
 
+	/**
+	 * ETAs already calculated this turn by {@link #getETAToTargetResources(SOCPlayer, SOCResourceSet, SOCResourceSet, SOCResourceSet, SOCBuildingSpeedEstimate)}.
+	 */
+	private final TradeETACache etaCache = new TradeETACache();
+
 
 	public StacRobotNegotiator(StacRobotBrain br, boolean fullPlan) {
 		super(br);
@@ -755,8 +760,7 @@ public class StacRobotNegotiator extends SOCRobotNegotiator<SOCBuildPlanStack> {
 			if (piece.getPlayerNumber() == pn)
 				continue;
 
-			List<Integer> adj_hexes = board.getAdjacentHexesToNode( piece.getCoordinates() );
-			for ( Integer hex : adj_hexes ) {
+			for ( int hex : board.getAdjacentHexesToNode_shared( piece.getCoordinates() ) ) {
 				if ( robber_coord == hex )
 					continue;
 				int hex_num = board.getNumberOnHexFromCoord( hex );
@@ -773,8 +777,7 @@ public class StacRobotNegotiator extends SOCRobotNegotiator<SOCBuildPlanStack> {
 			if (piece.getPlayerNumber() == pn)
 				continue;
 
-			List<Integer> adj_hexes = board.getAdjacentHexesToNode( piece.getCoordinates() );
-			for ( Integer hex : adj_hexes ) {
+			for ( int hex : board.getAdjacentHexesToNode_shared( piece.getCoordinates() ) ) {
 				if ( robber_coord == hex )
 					continue;
 				int hex_num = board.getNumberOnHexFromCoord( hex );
@@ -1674,10 +1677,15 @@ public class StacRobotNegotiator extends SOCRobotNegotiator<SOCBuildPlanStack> {
 			return legalOffers;
 		}        
 
+		// Check amounts in a plain vector, and make resource sets only for the offers we keep
+		final int[] have = new int[SOCResourceConstants.WOOD + 1];
+		for (int r = SOCResourceConstants.CLAY; r <= SOCResourceConstants.WOOD; r++)
+			have[r] = current.getAmount(r);
+
 		// Iterate through giveable (quickest filter) 
 		int ourPn = ourPlayerData.getPlayerNumber();
 		for (int give = SOCResourceConstants.CLAY; give<=SOCResourceConstants.WOOD; give++) {
-			if (current.getAmount(give)>0) {
+			if (have[give]>0) {
 				SOCResourceSet rsGive = new SOCResourceSet();
 				rsGive.add(1, give);
 
@@ -1693,25 +1701,21 @@ public class StacRobotNegotiator extends SOCRobotNegotiator<SOCBuildPlanStack> {
 						// consider giving 2 resources
 						if (twoForOne) {
 							for (int give2 = give; give2<=SOCResourceConstants.WOOD; give2++) { //otherwise we're looking at the options twice
-								if (give2 != get) {
+								if (give2 != get && have[give2] >= ((give2 == give) ? 2 : 1)) {
 									SOCResourceSet rsGive2 = rsGive.copy();
 									rsGive2.add(1, give2);
-									if (current.contains(rsGive2)) {
-										legalOffers.add(new TradeOfferWithStats(rsGive2, false, rsGet, false, ourPn, to));
-									}
+									legalOffers.add(new TradeOfferWithStats(rsGive2, false, rsGet, false, ourPn, to));
 								}
 							}
 						}
 
-						// consider asking for 2 resources
+						// consider asking for 2 resources; we have the 1 we're giving
 						if (oneForTwo) {
 							for (int get2 = get; get2<=SOCResourceConstants.WOOD; get2++) {
 								if (get2 != give) {
 									SOCResourceSet rsGet2 = rsGet.copy();
 									rsGet2.add(1, get2);
-									if (current.contains(rsGive)) {
-										legalOffers.add(new TradeOfferWithStats(rsGive, false, rsGet2, false, ourPn, to));
-									}
+									legalOffers.add(new TradeOfferWithStats(rsGive, false, rsGet2, false, ourPn, to));
 								}
 							}
 						}
@@ -1830,6 +1834,8 @@ public class StacRobotNegotiator extends SOCRobotNegotiator<SOCBuildPlanStack> {
 		// HOW ABOUT GIVING AWAY NEEDED RESOURCES?
 
 		// Remove all trade offers that are worse than the BATNA
+		final long startNanos = System.nanoTime();
+		final int nOffers = trades.size();
 		List<TradeOfferWithStats> remove = new ArrayList<TradeOfferWithStats>();
 		for (TradeOfferWithStats t : trades) {
 			// Get ETA, remove if worse than BATNA
@@ -1843,6 +1849,10 @@ public class StacRobotNegotiator extends SOCRobotNegotiator<SOCBuildPlanStack> {
 			}
 		}
 		trades.removeAll(remove);
+
+		etaCache.recordOffers(nOffers, System.nanoTime() - startNanos);
+		if (D.ebugIsEnabled())
+			D.ebugPrintlnINFO(brain.getPlayerName() + ": trade ETAs: " + etaCache.getReport());
 	}
 
 	/**
@@ -4153,20 +4163,31 @@ public class StacRobotNegotiator extends SOCRobotNegotiator<SOCBuildPlanStack> {
 	protected int getETAToTargetResources(SOCPlayer player, SOCResourceSet targetResources, SOCResourceSet giveSet, SOCResourceSet getSet, SOCBuildingSpeedEstimate estimate)
 	{
 		SOCResourceSet ourResourcesCopy = player.getResources().copy();
-		D.ebugPrintlnINFO("*** giveSet = " + giveSet);
-		D.ebugPrintlnINFO("*** getSet = " + getSet);
 		ourResourcesCopy.subtract(giveSet);
 		ourResourcesCopy.add(getSet);
 
-		int offerBuildingTime = estimate.calculateRollsFast
-		    (ourResourcesCopy, targetResources, 1000, player.getPortFlags());
+		int offerBuildingTime = etaCache.getETA
+		    (game, ourResourcesCopy, targetResources, player.getPortFlags(), 1000, estimate);
 
-		D.ebugPrintlnINFO("*** offerBuildingTime = " + offerBuildingTime);
-		D.ebugPrintlnINFO("*** ourResourcesCopy = " + ourResourcesCopy);
+		if (D.ebugIsEnabled()) {
+			D.ebugPrintlnINFO("*** giveSet = " + giveSet);
+			D.ebugPrintlnINFO("*** getSet = " + getSet);
+			D.ebugPrintlnINFO("*** offerBuildingTime = " + offerBuildingTime);
+			D.ebugPrintlnINFO("*** ourResourcesCopy = " + ourResourcesCopy);
+		}
 
 		return (offerBuildingTime);
 	}
 
+	/**
+	 * Get this negotiator's cache of ETAs from {@link #getETAToTargetResources(SOCPlayer, SOCResourceSet, SOCResourceSet, SOCResourceSet, SOCBuildingSpeedEstimate)},
+	 * for its statistics.
+	 * @return the cache; not null
+	 */
+	public TradeETACache getTradeETACache() {
+		return etaCache;
+	}
+
 	/**
 	 * aux function for make offer
 	 * @param giveResourceSet
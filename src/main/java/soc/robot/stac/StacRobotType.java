@@ -171,6 +171,9 @@ public class StacRobotType {
         public static final String RANK_BPS_TRADE_OFF_ES_FACTOR;
         public static final String RANK_BPS_TRADE_OFF_EP_FACTOR;
 
+        /** Compute the EP of candidate build plans on this many parallel game snapshots; see {@link StacCandidateEvaluator} */
+        public static final String PARALLEL_BP_EVALUATION;
+
         /** Use Q-learning to adapt to opponents. */
         public static final String ADAPT_TO_OPPONENT_TYPE;
         
@@ -467,6 +470,7 @@ public class StacRobotType {
             TRY_N_BEST_BUILD_PLANS = p("TRY_N_BEST_BUILD_PLANS", Integer.class);
             RANK_BPS_TRADE_OFF_ES_FACTOR = p("RANK_BPS_TRADE_OFF_ES_FACTOR", Double.class);
             RANK_BPS_TRADE_OFF_EP_FACTOR = p("RANK_BPS_TRADE_OFF_EP_FACTOR", Double.class);
+            PARALLEL_BP_EVALUATION = p("PARALLEL_BP_EVALUATION", Integer.class);
             ADAPT_TO_OPPONENT_TYPE = p("ADAPT_TO_OPPONENT_TYPE");
             ES_CARDS = p("ES_CARDS", Integer.class);
             ES_LA = p("ES_LA", Integer.class);
@@ -0,0 +1,243 @@
+package soc.robot.stac;
+
+import java.util.HashMap;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+import soc.robot.SOCBuildingSpeedEstimate;
+import soc.robot.SOCBuildingSpeedFast;
+import soc.robot.SOCBuildingSpeedFastFractional;
+
+/**
+ * Cache of {@link StacRobotNegotiator}'s trade ETAs: The number of rolls to reach some target resources
+ * after a trade, from {@link SOCBuildingSpeedEstimate#calculateRollsFast(soc.game.ResourceSet, SOCResourceSet, int, boolean[])}.
+ * The negotiator asks for the same ETAs many times in a turn: For each candidate offer, for the BATNA,
+ * and again for each opponent and negotiation round.
+ *<P>
+ * Each entry's key packs everything the estimate depends on: Our resources after the trade,
+ * the target resources, the port flags, and the estimator's class and rolls per resource;
+ * all entries have the same cutoff. So a cached ETA is always the one the estimator would calculate.
+ * Only {@link SOCBuildingSpeedFast} and {@link SOCBuildingSpeedFastFractional} are cached, since their
+ * estimates depend on nothing else; other estimators, such as {@link StacBuildingSpeedFastUsingBeliefs}
+ * which also uses the brain's beliefs about opponents, are always calculated.
+ *<P>
+ * To keep the cache small, it's cleared at each new turn and whenever any player's resources
+ * or number of pieces on the board change.
+ *<P>
+ * Also keeps statistics for {@link #getReport()}. Not thread-safe; each negotiator has its own.
+ */
+public class TradeETACache {
+
+    /**
+     * If false, ETAs aren't cached; for comparing decisions with and without the cache.
+     * Default true.
+     */
+    public static boolean ENABLED = true;
+
+    /** Maximum number of ETAs to keep; if a new one would go past this, the cache is cleared first */
+    public static final int MAX_SIZE = 4096;
+
+    /** Largest resource amount which can be packed into a key */
+    private static final int MAX_AMOUNT = 0xFF;
+
+    /**
+     * Largest rolls per resource which can be packed into a key, except for
+     * the estimator's "never" value 55555 which is packed as {@link #ROLLS_NEVER}
+     */
+    private static final int MAX_ROLLS = 0xFFE;
+
+    private static final int ROLLS_NEVER = 0xFFF;
+
+    /** ETA key; see class javadoc */
+    private static final class Key {
+        /** Resources after the trade, 8 bits for each of clay to wood and unknown */
+        final long resources;
+
+        /** Target resources, 8 bits each; port flags in bits 48 - 53; estimator class in bit 54 */
+        final long target;
+
+        /** Estimator's rolls per resource for clay to wood, 12 bits each */
+        final long rolls;
+
+        Key(long resources, long target, long rolls) {
+            this.resources = resources;
+            this.target = target;
+            this.rolls = rolls;
+        }
+
+        @Override
+        public int hashCode() {
+            final long h = resources * 31 * 31 + target * 31 + rolls;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            final Key k = (Key) o;
+            return resources == k.resources && target == k.target && rolls == k.rolls;
+        }
+    }
+
+    private final HashMap<Key, Integer> etas = new HashMap<Key, Integer>();
+
+    /** Turn, resources and pieces when the cache was last cleared; see {@link #gameStamp(SOCGame)} */
+    private long stamp;
+
+    /** Cutoff of the cached ETAs; a different cutoff clears the cache */
+    private int cutoff = -1;
+
+    /** Statistics for {@link #getReport()} */
+    private long hits, misses, uncached, invalidations, offers, offerNanos;
+
+    /**
+     * Get the number of rolls to reach some target resources after a trade, from the cache if possible.
+     * @param game  the game, to check for a new turn or changed resources or pieces
+     * @param resourcesAfterTrade  the player's resources after the trade; not changed
+     * @param targetResources  the resources we want; not changed
+     * @param ports  the player's port flags, from {@link SOCPlayer#getPortFlags()}
+     * @param cutoff  maximum number of rolls
+     * @param estimate  an estimator for the player's dice numbers
+     * @return  the estimated rolls, or {@code cutoff} if that maximum is reached
+     */
+    public int getETA(SOCGame game, SOCResourceSet resourcesAfterTrade, SOCResourceSet targetResources, boolean[] ports, int cutoff, SOCBuildingSpeedEstimate estimate) {
+        final Key key = (ENABLED) ? makeKey(resourcesAfterTrade, targetResources, ports, estimate) : null;
+        if (key == null) {
+            uncached++;
+            return estimate.calculateRollsFast(resourcesAfterTrade, targetResources, cutoff, ports);
+        }
+
+        final long st = gameStamp(game);
+        if (st != stamp || cutoff != this.cutoff) {
+            if (!etas.isEmpty()) {
+                etas.clear();
+                invalidations++;
+            }
+            stamp = st;
+            this.cutoff = cutoff;
+        }
+
+        final Integer eta = etas.get(key);
+        if (eta != null) {
+            hits++;
+            return eta.intValue();
+        }
+
+        misses++;
+        final int rolls = estimate.calculateRollsFast(resourcesAfterTrade, targetResources, cutoff, ports);
+        if (etas.size() >= MAX_SIZE)
+            etas.clear();
+        etas.put(key, Integer.valueOf(rolls));
+        return rolls;
+    }
+
+    /**
+     * Make the cache key for an estimate.
+     * @return the key, or {@code null} if this estimate can't be cached
+     */
+    private static Key makeKey(SOCResourceSet resources, SOCResourceSet target, boolean[] ports, SOCBuildingSpeedEstimate estimate) {
+        final Class<?> cl = estimate.getClass();
+        if (cl != SOCBuildingSpeedFast.class && cl != SOCBuildingSpeedFastFractional.class)
+            return null;
+
+        final long packedResources = pack(resources), packedTarget = pack(target);
+        if (packedResources < 0 || packedTarget < 0)
+            return null;
+
+        long portBits = 0;
+        for (int i = 0; i < ports.length && i < 6; i++)
+            if (ports[i])
+                portBits |= 1L << i;
+
+        final int[] rollsPerResource = estimate.getRollsPerResource();
+        long rolls = 0;
+        for (int r = SOCResourceConstants.CLAY; r <= SOCResourceConstants.WOOD; r++) {
+            int n = rollsPerResource[r];
+            if (n == 55555)
+                n = ROLLS_NEVER;
+            else if (n < 0 || n > MAX_ROLLS)
+                return null;
+            rolls = (rolls << 12) | n;
+        }
+
+        final long classBit = (cl == SOCBuildingSpeedFast.class) ? 0 : (1L << 54);
+        return new Key(packedResources, packedTarget | (portBits << 48) | classBit, rolls);
+    }
+
+    /**
+     * Pack a resource set's clay to wood and unknown amounts, 8 bits each.
+     * @return the packed amounts, or -1 if any is negative or more than {@link #MAX_AMOUNT}
+     */
+    static long pack(SOCResourceSet rs) {
+        long packed = 0;
+        for (int r = SOCResourceConstants.CLAY; r <= SOCResourceConstants.UNKNOWN; r++) {
+            final int n = rs.getAmount(r);
+            if (n < 0 || n > MAX_AMOUNT)
+                return -1;
+            packed = (packed << 8) | n;
+        }
+        return packed;
+    }
+
+    /**
+     * A stamp of the game's turn and each player's resources and number of pieces,
+     * which changes when any of them do.
+     */
+    private static long gameStamp(SOCGame game) {
+        long st = ((long) game.getRoundCount() << 8) | (game.getCurrentPlayerNumber() & 0xFF);
+        for (int pn = 0; pn < game.maxPlayers; pn++) {
+            final SOCPlayer pl = game.getPlayer(pn);
+            st = st * 31 + pack(pl.getResources());
+            st = st * 31 + pl.getPieces().size();
+        }
+        return st;
+    }
+
+    /**
+     * Record that some trade offers had their ETAs calculated, for the offers per millisecond in {@link #getReport()}.
+     * @param n  the number of offers
+     * @param nanos  the time taken, from {@link System#nanoTime()}
+     */
+    public void recordOffers(int n, long nanos) {
+        offers += n;
+        offerNanos += nanos;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /** Number of ETAs calculated without the cache, because the estimator or amounts can't be cached. */
+    public long getUncached() {
+        return uncached;
+    }
+
+    /** Number of times the cache was cleared because of a new turn or changed resources or pieces. */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /** Number of ETAs currently cached. */
+    public int size() {
+        return etas.size();
+    }
+
+    /**
+     * @return the offers evaluated per millisecond, hits and misses, uncached ETAs and invalidations, as a one-line String
+     */
+    public String getReport() {
+        final long lookups = hits + misses;
+        final long pct = (lookups > 0) ? (100 * hits) / lookups : 0;
+        final long perMs = (offerNanos > 0) ? (offers * 1000000L) / offerNanos : 0;
+        return "offers=" + offers + " offersPerMs=" + perMs + " etaHits=" + hits + " etaMisses=" + misses
+            + " hitRate=" + pct + "% uncached=" + uncached + " invalidations=" + invalidations;
+    }
+
+}
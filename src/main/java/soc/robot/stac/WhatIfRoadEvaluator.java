@@ -0,0 +1,239 @@
+package soc.robot.stac;
+
+import soc.game.SOCBoard;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCRoutePiece;
+
+/**
+ * Answers "what if this player built a road here?" for {@link PersuasionStacRobotNegotiator}'s
+ * persuasion arguments, without copying the player: How many new potential settlements the road
+ * would give the player, and how long their longest road would become.
+ *<P>
+ * Gives the same results as putting a temporary {@link soc.game.SOCRoad} on a
+ * {@link SOCPlayer#SOCPlayer(SOCPlayer, String) copy of the player}, counting the copy's
+ * {@link SOCPlayer#getLegalSettlements()} which are {@link SOCPlayer#isPotentialSettlement(int) potential},
+ * and calling its {@link SOCPlayer#calcLongestRoad2()}.
+ *<P>
+ * Reads the player's current pieces and potentials when constructed and as needed,
+ * so use it only while the player and board don't change. Not thread-safe.
+ */
+public class WhatIfRoadEvaluator {
+
+    private final SOCPlayer player;
+
+    private final SOCBoard board;
+
+    /** Does the game have a sea board, where roads and ships connect only at settlements? */
+    private final boolean hasSeaBoard;
+
+    /**
+     * The player's road and ship edges, then one more slot for the hypothetical road.
+     * {@link #longestFrom(int, int, int)} uses the first {@link #nEdges} of them.
+     */
+    private final int[] edges;
+
+    /** Is each of {@link #edges} a road, not a ship? */
+    private final boolean[] edgeIsRoad;
+
+    /** Has {@link #longestFrom(int, int, int)} already used each of {@link #edges} in its current path? */
+    private final boolean[] visited;
+
+    /** Number of {@link #edges} in use */
+    private int nEdges;
+
+    /** Potential roads from {@link #getPotentialRoads()}, or null if not yet scanned */
+    private int[] potentialRoads;
+
+    /**
+     * Set up an evaluator for this player.
+     * @param player  the player; its pieces and potentials shouldn't change while using this evaluator
+     */
+    public WhatIfRoadEvaluator(final SOCPlayer player) {
+        this.player = player;
+        final SOCGame game = player.getGame();
+        board = game.getBoard();
+        hasSeaBoard = game.hasSeaBoard;
+
+        final int n = player.getRoadsAndShips().size();
+        edges = new int[n + 1];
+        edgeIsRoad = new boolean[n + 1];
+        visited = new boolean[n + 1];
+        for (int i = 0; i < n; ++i) {
+            final SOCRoutePiece rs = player.getRoadsAndShips().get(i);
+            edges[i] = rs.getCoordinates();
+            edgeIsRoad[i] = rs.isRoadNotShip();
+        }
+        nEdges = n;
+    }
+
+    public SOCPlayer getPlayer() {
+        return player;
+    }
+
+    /**
+     * Get the player's potential roads, from {@link SOCBoard#getMinNode()} to {@link SOCBoard#MAXNODE}.
+     * @return the potential road edges, in increasing order; treat as read-only
+     */
+    public int[] getPotentialRoads() {
+        if (potentialRoads == null) {
+            int n = 0;
+            final int[] found = new int[SOCBoard.MAXNODE - board.getMinNode() + 1];
+            for (int i = board.getMinNode(); i <= SOCBoard.MAXNODE; i++) {
+                if (player.isPotentialRoad(i))
+                    found[n++] = i;
+            }
+
+            potentialRoads = new int[n];
+            System.arraycopy(found, 0, potentialRoads, 0, n);
+        }
+
+        return potentialRoads;
+    }
+
+    /**
+     * Count the player's {@link SOCPlayer#getLegalSettlements() legal settlements}
+     * which are currently {@link SOCPlayer#isPotentialSettlement(int) potential settlements}.
+     * @return the number of legal potential settlements
+     */
+    public int countPotentialSettlements() {
+        int n = 0;
+        for (int node : player.getLegalSettlements()) {
+            if (player.isPotentialSettlement(node))
+                n++;
+        }
+
+        return n;
+    }
+
+    /**
+     * How many new potential settlements would the player have after building a road at this edge?
+     * Those are the edge's end nodes which are legal but not yet potential settlements,
+     * and don't have another player's settlement or city.
+     * @param edge  a potential road edge of the player
+     * @return the increase in {@link #countPotentialSettlements()}, from 0 to 2
+     */
+    public int countNewSettlements(final int edge) {
+        int n = 0;
+        for (final int node : board.getAdjacentNodesToEdge_arr(edge)) {
+            final SOCPlayingPiece p = board.settlementAtNode(node);
+            if ((p != null) && (p.getPlayerNumber() != player.getPlayerNumber()))
+                continue;
+            if (player.isLegalSettlement(node) && ! player.isPotentialSettlement(node))
+                n++;
+        }
+
+        return n;
+    }
+
+    /**
+     * Would building a road at this edge give the player any new potential settlement?
+     * @param edge  a potential road edge of the player
+     * @return true if {@link #countNewSettlements(int)} &gt; 0
+     */
+    public boolean givesNewSettlement(final int edge) {
+        return countNewSettlements(edge) > 0;
+    }
+
+    /**
+     * Calculate the player's longest road length if they built a road at this edge,
+     * like {@link SOCPlayer#calcLongestRoad2()} would. Doesn't change the player.
+     * @param edge  a potential road edge of the player
+     * @return the longest road length with that road
+     */
+    public int calcLongestRoadWith(final int edge) {
+        final int n = nEdges;
+        edges[n] = edge;
+        edgeIsRoad[n] = true;
+        nEdges = n + 1;
+        try {
+            return calcLongestRoad();
+        } finally {
+            nEdges = n;
+        }
+    }
+
+    /**
+     * Calculate the player's longest road length after building the best one of their potential roads.
+     * @return the longest of {@link #calcLongestRoadWith(int)} for each of {@link #getPotentialRoads()},
+     *     or 0 if none
+     */
+    public int calcMaxLongestRoadWithOneMore() {
+        int maximum = 0;
+        for (final int edge : getPotentialRoads()) {
+            final int len = calcLongestRoadWith(edge);
+            if (len > maximum)
+                maximum = len;
+        }
+
+        return maximum;
+    }
+
+    /** Longest path over the first {@link #nEdges} of {@link #edges}, starting from any of their end nodes. */
+    private int calcLongestRoad() {
+        int longest = 0;
+        for (int i = 0; i < nEdges; ++i) {
+            for (final int node : board.getAdjacentNodesToEdge_arr(edges[i])) {
+                final int len = longestFrom(node, 0, -1);
+                if (len > longest)
+                    longest = len;
+            }
+        }
+
+        return longest;
+    }
+
+    /**
+     * Depth-first search for the longest path continuing from a node,
+     * with the same rules as {@link SOCPlayer#calcLongestRoad2()}:
+     * A path ends at another player's settlement or city, and on the sea board
+     * a road and ship can be consecutive only at a settlement or city.
+     * @param node  the node reached
+     * @param len  length of the path so far
+     * @param prevEdge  index within {@link #edges} of the path's last edge, or -1 if {@code len} is 0
+     * @return length of the longest path which starts with the path so far
+     */
+    private int longestFrom(final int node, final int len, final int prevEdge) {
+        boolean atSettlement = false;
+        if (len > 0) {
+            final SOCPlayingPiece p = board.settlementAtNode(node);
+            if (p != null) {
+                if (p.getPlayerNumber() != player.getPlayerNumber())
+                    return len;
+                atSettlement = true;
+            }
+        }
+
+        int longest = len;
+        for (final int next : board.getAdjacentNodesToNode_arr(node)) {
+            if (next == -9)
+                continue;
+
+            final int ei = indexOf(board.getEdgeBetweenAdjacentNodes(node, next));
+            if ((ei == -1) || visited[ei])
+                continue;
+            if (hasSeaBoard && (len > 0) && (edgeIsRoad[ei] != edgeIsRoad[prevEdge]) && ! atSettlement)
+                continue;
+
+            visited[ei] = true;
+            final int l = longestFrom(next, len + 1, ei);
+            visited[ei] = false;
+            if (l > longest)
+                longest = l;
+        }
+
+        return longest;
+    }
+
+    /** Find an edge's index within the first {@link #nEdges} of {@link #edges}, or -1 if not there */
+    private int indexOf(final int edge) {
+        for (int i = nEdges - 1; i >= 0; --i) {
+            if (edges[i] == edge)
+                return i;
+        }
+
+        return -1;
+    }
+
+}
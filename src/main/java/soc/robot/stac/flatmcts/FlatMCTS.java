@@ -54,6 +54,7 @@ import soc.server.logger.SOCNullLogger;
 import soc.util.CappedQueue;
 import soc.util.CutoffExceededException;
 import soc.util.DeepCopy;
+import soc.util.GameCheckpoint;
 import soc.util.SOCGameList;
 import soc.util.SOCRobotParameters;
 import soc.util.Timer;
@@ -231,7 +232,7 @@ public class FlatMCTS {
         //read game object and array of trackers from file
         SOCGame game = (SOCGame) DeepCopy.copy(ga); //readFromFile(DeepCopy.SAVES_DIR + "robot/server_soc.game.SOCGame");
         
-     	ArrayList<SOCPlayerTracker> trackersList = (ArrayList) DeepCopy.readFromFile(DeepCopy.SAVES_DIR + "robot/" + 1 + "_" + ArrayList.class.getName()); //when manual testing we will always be player 0 so 1 is just fine (assume a 4 player game always)
+     	ArrayList<SOCPlayerTracker> trackersList = (ArrayList) GameCheckpoint.load(DeepCopy.SAVES_DIR + "robot", GameCheckpoint.entryName("" + 1, ArrayList.class)); //when manual testing we will always be player 0 so 1 is just fine (assume a 4 player game always)
         SOCPlayerTracker[] playerTrackers = trackersList.toArray(new SOCPlayerTracker[game.maxPlayers]);
 
         //Steps: create a brain to act as a container for trackers/estimator/game object and because trackers and SOCPieces need a brain 
@@ -604,7 +605,7 @@ public class FlatMCTS {
      */
     private void expandForRobberAction(TreeNode n) {
 //    	SOCGame game = (SOCGame) DeepCopy.copy(brain.getGame()); 
-    	SOCGame game = (SOCGame) DeepCopy.readFromFile(DeepCopy.SAVES_DIR + "robot/server_soc.game.SOCGame"); // it doesn't affect its decision and we always need this to avoid a nullpointer when we follow the planned decision in the real game
+    	SOCGame game = (SOCGame) GameCheckpoint.load(DeepCopy.SAVES_DIR + "robot", GameCheckpoint.entryName("server", SOCGame.class)); // it doesn't affect its decision and we always need this to avoid a nullpointer when we follow the planned decision in the real game
     	int[] hexes = game.getBoard().getLandHexCoords();
     	int robberHex = game.getBoard().getRobberHex();
     	
@@ -282,7 +282,51 @@ public class LearningNegotiator {
 		}
 
 	}
-	
+
+	/**
+	 * Create an MDP and give it its policy, if any.
+	 * If the MDP won't learn or need softmax or restricted action sets, it uses the policy shared by all
+	 * negotiators through {@link MDPPolicyCache}; otherwise it loads its own copy of the policy file.
+	 * @param pol_fname  policy file name from the config, or null or "" for none
+	 * @param desc  policy description for log messages
+	 */
+	private MDP createMDP( String name, int nfeats, int[] dims, int nacts, String pol_fname, String desc ) {
+		if ( pol_fname == null || pol_fname.isEmpty() )
+			return new MDP( name, nfeats, dims, nacts );
+
+		logger.logf( Level.INFO, "Loading %s policy from file %s\n", desc, pol_fname );
+		boolean shared = !MDP.POLICY_OPTIMISATION && Policy.temperature <= 0
+			&& ( config == null || !Boolean.parseBoolean( config.getProperty( "RESTRICTED_ACTION_SETS", "false" ).replaceAll( "\"", "" ).trim() ) );
+		if ( shared ) {
+			try {
+				return new SharedPolicyMDP( name, nfeats, dims, nacts, MDPPolicyCache.get( pol_fname ) );
+			} catch ( IOException ioe ) {
+				logger.logf( Level.SEVERE, "Could not load %s policy %s: %s\n", desc, pol_fname, ioe );
+				return new MDP( name, nfeats, dims, nacts );
+			} catch ( IllegalArgumentException iae ) {
+				logger.logf( Level.WARNING, "Can't share %s policy %s, loading own copy: %s\n", desc, pol_fname, iae.getMessage() );
+			}
+		}
+
+		MDP mdp = new MDP( name, nfeats, dims, nacts );
+		//mdp.loadPolicy( pol_fname, USE_POLICY_OBJECTS );
+		URL url = Resources.class.getResource( pol_fname );
+		try {
+			if ( url == null )
+				throw new FileNotFoundException( pol_fname );
+			InputStream pol_is = url.openStream();
+			try {
+				mdp.loadPolicy( pol_is );
+			} finally {
+				pol_is.close();
+			}
+		} catch ( IOException ioe ) {
+			logger.logf( Level.SEVERE, "Could not load %s policy %s\n", desc, pol_fname );
+		}
+
+		return mdp;
+	}
+
 	/** Initialise MDP models using a (nearly) full representation of the agent's own resources */
 	private void init_BP_OWN_RES_1FOR1( boolean oneForTwoActions ) {
 		// ----------------------------------------------------------
@@ -297,19 +341,8 @@ public class LearningNegotiator {
 		
 		// action space
 		int num_acts = 1 + ( oneForTwoActions ? ACTION_SET_1for2.length / 2 : ACTION_SET.length / 2 );
-		off_sel_mdp = new MDP( "off_sel", num_state_feats, state_dims, num_acts );
+		off_sel_mdp = createMDP( "off_sel", num_state_feats, state_dims, num_acts, off_sel_pol_fname, "offer selection" );
 		setActionSpace( oneForTwoActions );
-		if ( off_sel_pol_fname != null && !off_sel_pol_fname.isEmpty() ) {
-			logger.logf( Level.INFO, "Loading offer selection policy from file %s\n", off_sel_pol_fname );
-			//off_sel_mdp.loadPolicy( off_sel_pol_fname, USE_POLICY_OBJECTS );
-			try {
-		    	URL url = Resources.class.getResource( off_sel_pol_fname );
-		    	InputStream pol_is = url.openStream();
-				off_sel_mdp.loadPolicy( pol_is );
-			} catch ( IOException ioe ) {
-				logger.logf( Level.SEVERE, "Could not load offer selection policy %s\n", off_sel_pol_fname );
-			}
-		}
 		
 		// ----------------------------------------------------------
 		// MDP FOR RESPONDING TO OFFERS
@@ -325,19 +358,7 @@ public class LearningNegotiator {
 
 		// action space
 		int num_acts_resp = 3; // accept, reject, counter-offer
-		off_resp_mdp = new MDP( "off_resp", num_state_feats_resp, state_dims_resp, num_acts_resp );
-		if ( off_resp_pol_fname != null && !off_resp_pol_fname.isEmpty() ) {
-			logger.logf( Level.INFO, "Loading offer response policy from file %s\n", off_resp_pol_fname );
-			//off_resp_mdp.loadPolicy( off_resp_pol_fname, USE_POLICY_OBJECTS );
-			try {
-		    	URL url = Resources.class.getResource( off_resp_pol_fname );
-		    	InputStream pol_is = url.openStream();
-				off_sel_mdp.loadPolicy( pol_is );
-			} catch ( IOException ioe ) {
-				logger.logf( Level.SEVERE, "Could not load response policy %s\n", off_resp_pol_fname );
-			}
-			
-		}
+		off_resp_mdp = createMDP( "off_resp", num_state_feats_resp, state_dims_resp, num_acts_resp, off_resp_pol_fname, "offer response" );
 		
 	}
 	
@@ -380,18 +401,7 @@ public class LearningNegotiator {
 		// action space
 		int num_acts = 1 + ( oneForTwoActions ? ACTION_SET_1for2.length / 2 : NUM_RES_TYPES * ( NUM_RES_TYPES - 1 ) );
 		//state_dims[ NUM_RES_TYPES ] = num_acts + 1; // all possible actions, plus 1 null offer
-		off_sel_mdp = new MDP( "off_sel", num_state_feats, state_dims, num_acts );
-		if ( off_sel_pol_fname != null && !off_sel_pol_fname.isEmpty() ) {
-			logger.logf( Level.INFO, "Loading offer selection policy from file %s\n", off_sel_pol_fname );
-			//off_sel_mdp.loadPolicy( off_sel_pol_fname, USE_POLICY_OBJECTS );
-			try {
-		    	URL url = Resources.class.getResource( off_sel_pol_fname );
-		    	InputStream pol_is = url.openStream();
-				off_sel_mdp.loadPolicy( pol_is );
-			} catch ( IOException ioe ) {
-				logger.logf( Level.SEVERE, "Could not load offer selection policy %s\n", off_sel_pol_fname );
-			}
-		}
+		off_sel_mdp = createMDP( "off_sel", num_state_feats, state_dims, num_acts, off_sel_pol_fname, "offer selection" );
 		
 		// ----------------------------------------------------------
 		// MDP FOR RESPONDING TO OFFERS
@@ -406,18 +416,7 @@ public class LearningNegotiator {
 		
 		// action space
 		int num_acts_resp = 3; // accept, reject, counter-offer
-		off_resp_mdp = new MDP( "off_resp", num_state_feats_resp, state_dims_resp, num_acts_resp );
-		if ( off_resp_pol_fname != null && !off_resp_pol_fname.isEmpty() ) {
-			logger.logf( Level.INFO, "Loading offer response policy from file %s\n", off_resp_pol_fname );
-			//off_resp_mdp.loadPolicy( off_resp_pol_fname, USE_POLICY_OBJECTS );
-			try {
-		    	URL url = Resources.class.getResource( off_resp_pol_fname );
-		    	InputStream pol_is = url.openStream();
-		    	off_resp_mdp.loadPolicy( pol_is );
-			} catch ( IOException ioe ) {
-				logger.logf( Level.SEVERE, "Could not load offer response policy %s\n", off_resp_pol_fname );
-			}
-		}
+		off_resp_mdp = createMDP( "off_resp", num_state_feats_resp, state_dims_resp, num_acts_resp, off_resp_pol_fname, "offer response" );
 		
 	}
 	
@@ -0,0 +1,276 @@
+package soc.robot.stac.negotiationlearning;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import resources.Resources;
+
+/**
+ * MDP policies read from policy files, each loaded once and shared by all {@link LearningNegotiator}s
+ * which use that file, instead of each negotiator's {@link uk.ac.hw.mdps.MDP} streaming and parsing
+ * its own copy. A loaded policy is a {@link Table} of primitive arrays, which is never changed
+ * afterwards and so is safe to use from any number of robot threads.
+ *<P>
+ * Only fixed policies can be shared: A negotiator which is learning (MDP {@code POLICY_OPTIMISATION})
+ * still loads its own policy into its MDP. See {@link SharedPolicyMDP}.
+ */
+public final class MDPPolicyCache {
+
+	/**
+	 * A policy's action values for each state found in its policy file.
+	 * Read-only and thread-safe.
+	 */
+	public static final class Table {
+
+		/** State indexes which have values, in increasing order */
+		private final int[] states;
+
+		/** Index within {@link #actions} and {@link #values} of each state's first value; one more element than {@link #states} */
+		private final int[] first;
+
+		/** Action index of each value, grouped by state */
+		private final int[] actions;
+
+		/** The action values */
+		private final double[] values;
+
+		private Table( int[] states, int[] first, int[] actions, double[] values ) {
+			this.states = states;
+			this.first = first;
+			this.actions = actions;
+			this.values = values;
+		}
+
+		/**
+		 * Parse a policy in the MDP library's text format: One line per state,
+		 * {@code state | ... | action visits value, action visits value, ...}.
+		 * Lines which can't be parsed are skipped, like the library does.
+		 * If a state appears more than once, its last line is used.
+		 * @param in  the policy text; not closed by this method
+		 * @return  the policy's table
+		 * @throws IOException if {@code in} can't be read
+		 */
+		public static Table parse( BufferedReader in ) throws IOException {
+			int[] states = new int[1024], first = new int[1025], actions = new int[4096];
+			double[] values = new double[4096];
+			int ns = 0, nv = 0;
+			boolean sorted = true;
+			int[] tok = new int[6];  // start and end of an entry's action, visits, value
+			String line;
+			while ( ( line = in.readLine() ) != null ) {
+				int bar1 = line.indexOf( '|' ), bar2 = ( bar1 >= 0 ) ? line.indexOf( '|', bar1 + 1 ) : -1;
+				if ( bar2 < 0 )
+					continue;
+				int bar3 = line.indexOf( '|', bar2 + 1 );
+				if ( bar3 < 0 )
+					bar3 = line.length();
+				int state;
+				try {
+					state = Integer.parseInt( line.substring( 0, bar1 ).trim() );
+				} catch ( NumberFormatException nfe ) {
+					continue;  // skip this line, as the library does
+				}
+
+				if ( ns == states.length ) {
+					states = Arrays.copyOf( states, ns * 2 );
+					first = Arrays.copyOf( first, ns * 2 + 1 );
+				}
+				if ( ns > 0 && state <= states[ns - 1] )
+					sorted = false;
+				states[ns] = state;
+				first[ns] = nv;
+
+				// entries: action visits value [...], separated by ','
+				for ( int i = bar2 + 1; i < bar3; ) {
+					int comma = line.indexOf( ',', i );
+					if ( comma < 0 || comma > bar3 )
+						comma = bar3;
+					int nt = 0;
+					for ( int j = i; j < comma && nt < 6; ) {
+						while ( j < comma && line.charAt( j ) == ' ' )
+							j++;
+						if ( j == comma )
+							break;
+						tok[nt++] = j;
+						while ( j < comma && line.charAt( j ) != ' ' )
+							j++;
+						tok[nt++] = j;
+					}
+					i = comma + 1;
+					if ( nt < 6 )
+						continue;
+					if ( nv == actions.length ) {
+						actions = Arrays.copyOf( actions, nv * 2 );
+						values = Arrays.copyOf( values, nv * 2 );
+					}
+					try {
+						actions[nv] = Integer.parseInt( line.substring( tok[0], tok[1] ) );
+						values[nv] = Double.parseDouble( line.substring( tok[4], tok[5] ) );
+						nv++;
+					} catch ( NumberFormatException nfe ) {}
+				}
+				ns++;
+			}
+			first[ns] = nv;
+
+			if ( sorted )
+				return new Table( Arrays.copyOf( states, ns ), Arrays.copyOf( first, ns + 1 ),
+					Arrays.copyOf( actions, nv ), Arrays.copyOf( values, nv ) );
+
+			// Unusual: sort by state, keeping the last line of any repeated state
+			TreeMap<Integer, Integer> lines = new TreeMap<Integer, Integer>();
+			for ( int i = 0; i < ns; i++ )
+				lines.put( states[i], i );
+			int[] s_states = new int[lines.size()], s_first = new int[lines.size() + 1];
+			int[] s_actions = new int[nv];
+			double[] s_values = new double[nv];
+			int si = 0, vi = 0;
+			for ( java.util.Map.Entry<Integer, Integer> e : lines.entrySet() ) {
+				int li = e.getValue(), len = first[li + 1] - first[li];
+				s_states[si] = e.getKey();
+				s_first[si] = vi;
+				System.arraycopy( actions, first[li], s_actions, vi, len );
+				System.arraycopy( values, first[li], s_values, vi, len );
+				vi += len;
+				si++;
+			}
+			s_first[si] = vi;
+
+			return new Table( s_states, s_first, Arrays.copyOf( s_actions, vi ), Arrays.copyOf( s_values, vi ) );
+		}
+
+		/** Number of states which have values in this policy. */
+		public int getNumStates() {
+			return states.length;
+		}
+
+		/** Total number of state-action values in this policy. */
+		public int getNumValues() {
+			return values.length;
+		}
+
+		/** Highest state index which has values, or -1 if none. */
+		public int getMaxState() {
+			return ( states.length > 0 ) ? states[states.length - 1] : -1;
+		}
+
+		/**
+		 * Get the value of an action in a state.
+		 * @return  the value, or 0 if the policy doesn't have one
+		 */
+		public double getValue( int state, int action ) {
+			int si = Arrays.binarySearch( states, state );
+			if ( si < 0 )
+				return 0;
+			for ( int i = first[si]; i < first[si + 1]; i++ )
+				if ( actions[i] == action )
+					return values[i];
+			return 0;
+		}
+
+		/**
+		 * Choose the best action for a state, breaking any tie at random
+		 * the same way as the MDP library's greedy policy: Action 0 is always a candidate
+		 * at first, and is counted twice if it ties for best.
+		 * @param state  state index
+		 * @param num_actions  number of actions in the MDP
+		 * @param rand  random number generator for breaking ties
+		 * @return  the chosen action index
+		 */
+		public int getBestActionIndex( int state, int num_actions, Random rand ) {
+			double best = getValue( state, 0 );
+			int[] ties = new int[num_actions + 1];
+			int num_ties = 1;  // ties[0] == 0
+			for ( int a = 0; a < num_actions; a++ ) {
+				double v = getValue( state, a );
+				if ( v > best ) {
+					best = v;
+					ties[0] = a;
+					num_ties = 1;
+				} else if ( v == best ) {
+					ties[num_ties++] = a;
+				}
+			}
+
+			return ties[ rand.nextInt( num_ties ) ];
+		}
+	}
+
+	/** Loaded policies by file name */
+	private static final ConcurrentHashMap<String, Table> tables = new ConcurrentHashMap<String, Table>();
+
+	/** Number of policy files loaded so far, for statistics and testing */
+	private static final AtomicInteger num_loads = new AtomicInteger();
+
+	private MDPPolicyCache() {}
+
+	/**
+	 * Get a policy, loading it the first time it's asked for.
+	 * If several threads ask for a policy at once, only one of them loads it.
+	 * @param fname  the policy's file name: a resource name relative to {@link Resources},
+	 *     as in the learning settings file, or else a file path
+	 * @return  the policy
+	 * @throws IOException if the policy can't be found or read
+	 */
+	public static Table get( String fname ) throws IOException {
+		Table t = tables.get( fname );
+		if ( t != null )
+			return t;
+
+		synchronized ( tables ) {
+			t = tables.get( fname );
+			if ( t == null ) {
+				t = load( fname );
+				tables.put( fname, t );
+			}
+		}
+
+		return t;
+	}
+
+	/** Read and parse a policy file. */
+	private static Table load( String fname ) throws IOException {
+		InputStream is;
+		URL url = Resources.class.getResource( fname );
+		if ( url != null )
+			is = url.openStream();
+		else if ( new File( fname ).isFile() )
+			is = new FileInputStream( fname );
+		else
+			throw new FileNotFoundException( fname );
+
+		BufferedReader in = new BufferedReader( new InputStreamReader( is, "UTF-8" ) );
+		try {
+			Table t = Table.parse( in );
+			num_loads.incrementAndGet();
+			return t;
+		} finally {
+			in.close();
+		}
+	}
+
+	/** Number of policy files read so far by {@link #get(String)}. */
+	public static int getNumLoads() {
+		return num_loads.get();
+	}
+
+	/**
+	 * Forget all loaded policies, so they'll be read again when next needed.
+	 * Negotiators already using a policy keep using their copy.
+	 */
+	public static void clear() {
+		tables.clear();
+	}
+
+}
@@ -0,0 +1,105 @@
+package soc.robot.stac.negotiationlearning;
+
+import java.util.ArrayList;
+
+import uk.ac.hw.mdps.MDP;
+import uk.ac.hw.mdps.Policy;
+
+/**
+ * An MDP which chooses its actions from a fixed policy shared through {@link MDPPolicyCache},
+ * instead of from a copy of the policy loaded into this MDP.
+ *<P>
+ * Chooses actions like the MDP library's greedy policy with exploration
+ * ({@link Policy#exploration_rate}), but without softmax ({@link Policy#temperature})
+ * or restricted action sets. Since the policy doesn't change, use this only when
+ * the MDP isn't learning ({@link MDP#POLICY_OPTIMISATION} false).
+ *<P>
+ * This MDP keeps its own state-action history of the actions it returned, instead of the
+ * history in the library's policy, so {@link #getLastAction()}, {@link #cancelLastAction()},
+ * {@link #recordReward(float)} and {@link #update()} work on that. Since the library's per-episode
+ * scores come from its own history, {@link #computeStatistics()} doesn't include the rewards recorded here.
+ */
+public class SharedPolicyMDP extends MDP {
+
+	/** A state, the action returned for it, and the rewards recorded since */
+	private static final class StateAction {
+		final int state, action;
+
+		/** Rewards recorded while this was the most recent action */
+		float reward;
+
+		StateAction( int state, int action ) {
+			this.state = state;
+			this.action = action;
+		}
+	}
+
+	private final MDPPolicyCache.Table table;
+
+	/** This episode's states and actions, oldest first */
+	private final ArrayList<StateAction> history = new ArrayList<StateAction>();
+
+	/**
+	 * Create an MDP which uses a shared policy.
+	 * @param table  the policy, from {@link MDPPolicyCache#get(String)}
+	 * @throws IllegalArgumentException if {@code table} has values for states which this MDP doesn't have
+	 */
+	public SharedPolicyMDP( String name, int nfeats, int[] dims, int nacts, MDPPolicyCache.Table table )
+		throws IllegalArgumentException {
+		super( name, nfeats, dims, nacts );
+		if ( table.getMaxState() >= getNumStates() )
+			throw new IllegalArgumentException( "policy state " + table.getMaxState() + " >= " + getNumStates() );
+		this.table = table;
+	}
+
+	@Override
+	public int getNextActionIndex( int state ) {
+		final int action;
+		if ( ( Policy.exploration_rate > 0 ) && ( rand_num_gen.nextFloat() < Policy.exploration_rate ) )
+			action = rand_num_gen.nextInt( num_actions );
+		else
+			action = table.getBestActionIndex( state, num_actions, rand_num_gen );
+
+		history.add( new StateAction( state, action ) );
+		return action;
+	}
+
+	/** Get the action most recently returned by {@link #getNextActionIndex(int)}, or -1 if none this episode. */
+	@Override
+	public int getLastAction() {
+		return history.isEmpty() ? -1 : history.get( history.size() - 1 ).action;
+	}
+
+	/**
+	 * Forget the action most recently returned by {@link #getNextActionIndex(int)}.
+	 * @throws IndexOutOfBoundsException if there's no action this episode, like the library's MDP
+	 */
+	@Override
+	public void cancelLastAction()
+		throws IndexOutOfBoundsException {
+		history.remove( history.size() - 1 );
+	}
+
+	/** Add a reward to the most recent state and action, if any, like the library's MDP. */
+	@Override
+	public void recordReward( float reward ) {
+		if ( ! history.isEmpty() )
+			history.get( history.size() - 1 ).reward += reward;
+	}
+
+	/** Get the total reward recorded for this episode's states and actions. */
+	public float getEpisodeReward() {
+		float total = 0;
+		for ( StateAction sa : history )
+			total += sa.reward;
+		return total;
+	}
+
+	/** End the episode: Clear this MDP's history. */
+	@Override
+	public void update() {
+		super.update();
+		history.clear();
+	}
+
+}
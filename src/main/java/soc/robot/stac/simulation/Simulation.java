@@ -647,6 +647,7 @@ public class Simulation {
 
         //finishing up
         System.out.println("Finished " + testName);
+        System.out.println("Turn pace so far: " + practiceServer.getTurnPaceStats());
 //        try {//depending on the machine, this might cause the process to hang, so commenting out for now.
 //        	Toolkit.getDefaultToolkit().beep();
 //		} catch (Exception e) {}
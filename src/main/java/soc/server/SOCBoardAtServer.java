@@ -235,6 +235,23 @@ public class SOCBoardAtServer extends SOCBoardLarge
         newBoardProgressListener = li;
     }
 
+    /**
+     * {@inheritDoc}
+     *<P>
+     * Also copies the server-only stack of items waiting to be claimed, if any.
+     * @since 2.4.50
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected SOCBoard copyForSnapshot()
+    {
+        final SOCBoardAtServer cp = (SOCBoardAtServer) super.copyForSnapshot();
+        if (drawStack != null)
+            cp.drawStack = (Stack<Integer>) drawStack.clone();
+
+        return cp;
+    }
+
     // javadoc inherited from SOCBoardLarge.
     // If this scenario has dev cards or items waiting to be claimed by any player, draw the next item from that stack.
     @Override
@@ -1024,7 +1041,7 @@ public class SOCBoardAtServer extends SOCBoardLarge
      *<P>
      * This method clears {@link #cachedGetLandHexCoords} to <tt>null</tt>.
      *
-     * @param landHexType  Resource type to place into {@link #hexLayoutLg} for each land hex; will be shuffled.
+     * @param landHexType  Resource type to place into {@link #hexLayoutLg} for each land hex; a copy will be shuffled.
      *                    Values are {@link #CLAY_HEX}, {@link #DESERT_HEX}, etc.
      *                    There should be no {@link #FOG_HEX} in here; land hexes are hidden by fog later.
      *                    For the Fog Island (scenario option {@link SOCGameOptionSet#K_SC_FOG _SC_FOG}),
@@ -1081,7 +1098,7 @@ public class SOCBoardAtServer extends SOCBoardLarge
      * @see #makeNewBoard_placeHexes(int[], int[], boolean, int[], boolean, boolean, int, boolean, boolean, int, SOCGameOption, String, SOCGameOptionSet)
      */
     private final void makeNewBoard_placeHexes
-        (final int[] landHexType, final int[] landPath, final boolean placeRobberDesert,
+        (int[] landHexType, final int[] landPath, final boolean placeRobberDesert,
          int[] number, final boolean shuffleDiceNumbers,
          final boolean shuffleLandHexes, final int[] landAreaPathRanges,
          final boolean addToExistingLA, final boolean nodesAreInfill,
@@ -1126,6 +1143,12 @@ public class SOCBoardAtServer extends SOCBoardLarge
                       + ": total range length " + L + " should be " + landPath.length);
         }
 
+        // Shuffle copies, not the caller's (often static) arrays, so seeded layouts are repeatable
+        if (shuffleLandHexes)
+            landHexType = landHexType.clone();
+        if (shuffleDiceNumbers && (number != null))
+            number = number.clone();
+
         // Shuffle, place, then check layout for clumps:
         int iterRemain = 20;
         do   // will re-do placement until clumpsNotOK is false or iterRemain == 0
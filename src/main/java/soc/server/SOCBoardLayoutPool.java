@@ -0,0 +1,324 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package soc.server;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import soc.game.SOCBoard;
+import soc.game.SOCBoardLarge;
+import soc.game.SOCGame;
+import soc.game.SOCGameOption;
+import soc.game.SOCGameOptionSet;
+
+/**
+ * Pool of seeded board layouts made in advance by a background thread,
+ * so that new games don't wait for {@link SOCBoardAtServer#makeNewBoard(SOCGameOptionSet)},
+ * which on large and scenario boards may need several tries to satisfy the layout's constraints.
+ *<P>
+ * Layouts are kept for each combination of game options, player count and board type
+ * ({@link #layoutKey(SOCGameOptionSet, int, boolean)}) which a game has started with.
+ * After the first game with a given combination, the thread keeps up to the pool size
+ * of those layouts ready. If none are ready when a game starts,
+ * {@link #take(SOCGame)} gives it just a seed, and the game lays out its own board from that seed.
+ *<P>
+ * Each key's layout seeds come from a sequence started from the pool's base seed and that key,
+ * so runs with the same base seed and options use the same seeds. Games keep their seed
+ * ({@link SOCGame#getBoardLayoutSeed()}), and {@link #makeLayout(SOCGameOptionSet, boolean, int, long)}
+ * recreates any game's layout from it.
+ *<P>
+ * Started by the server if {@link SOCServer#PROP_JSETTLERS_GAME_BOARD_POOL__SIZE}
+ * or {@link SOCServer#PROP_JSETTLERS_GAME_BOARD_SEED} is set.
+ *
+ * @since 2.4.50
+ */
+public class SOCBoardLayoutPool extends Thread
+{
+    /**
+     * A seed for a new game's board layout, and the board made from it if made in advance.
+     */
+    public static final class Layout
+    {
+        /** Seed for the layout */
+        public final long seed;
+
+        /**
+         * Board laid out from {@link #seed},
+         * or {@code null} if the game should lay out its own board from the seed
+         */
+        public final SOCBoard board;
+
+        Layout(final long seed, final SOCBoard board)
+        {
+            this.seed = seed;
+            this.board = board;
+        }
+    }
+
+    /** Most layouts to keep ready for each {@link #layoutKey(SOCGameOptionSet, int, boolean)}; 0 for none */
+    private final int poolSize;
+
+    /** Base seed for each key's sequence of layout seeds */
+    private final long baseSeed;
+
+    /** Each key's sequence of layout seeds. <B>Locks:</B> {@code this}, like the other mutable fields. */
+    private final Map<String, Random> seeds = new HashMap<String, Random>();
+
+    /** Layouts ready for each key */
+    private final Map<String, ArrayDeque<Layout>> ready = new HashMap<String, ArrayDeque<Layout>>();
+
+    /** Each key's game options, player count and board type, for making its layouts */
+    private final Map<String, Object[]> active = new HashMap<String, Object[]>();
+
+    /** Number of {@link #take(SOCGame)} calls which got a ready layout, or didn't */
+    private int nHits, nMisses;
+
+    /** Alive flag; loop while true. See {@link #stopPool()}. */
+    private volatile boolean alive = true;
+
+    /**
+     * Create a layout pool. Call {@link #start()} to start making layouts in the background
+     * unless {@code poolSize} is 0.
+     * @param poolSize  Most layouts to keep ready for each game options combination; 0 to only give out seeds
+     * @param baseSeed  Seed for the sequence of layout seeds
+     * @throws IllegalArgumentException if {@code poolSize} &lt; 0
+     */
+    public SOCBoardLayoutPool(final int poolSize, final long baseSeed)
+        throws IllegalArgumentException
+    {
+        if (poolSize < 0)
+            throw new IllegalArgumentException("poolSize");
+
+        this.poolSize = poolSize;
+        this.baseSeed = baseSeed;
+        setDaemon(true);
+        setPriority(Thread.MIN_PRIORITY);
+        setName("boardLayoutPool");  // Thread name for debug
+    }
+
+    /**
+     * Get the key for layouts made with these game parameters;
+     * layouts with the same key are interchangeable.
+     * @param opts  Game options, or null
+     * @param maxPlayers  Player count, from {@link SOCGame#maxPlayers}
+     * @param hasSeaBoard  True if {@link SOCGame#hasSeaBoard}
+     * @return  Key for the layouts
+     */
+    public static String layoutKey(final SOCGameOptionSet opts, final int maxPlayers, final boolean hasSeaBoard)
+    {
+        final String optsStr = (opts != null)
+            ? SOCGameOption.packOptionsToString(opts.getAll(), false, true)
+            : "-";
+        return maxPlayers + (hasSeaBoard ? "S|" : "|") + optsStr;
+    }
+
+    /**
+     * Get the next seed in a key's sequence. Call only while synchronized on {@code this}.
+     * @param key  Key from {@link #layoutKey(SOCGameOptionSet, int, boolean)}
+     * @return  the next seed for a {@code key} layout
+     */
+    private long nextSeed(final String key)
+    {
+        Random r = seeds.get(key);
+        if (r == null)
+        {
+            r = new Random(baseSeed * 31 + key.hashCode());
+            seeds.put(key, r);
+        }
+
+        return r.nextLong();
+    }
+
+    /**
+     * Make and check a board layout from a seed, as {@link SOCGame#startGame(int, SOCBoard, long)} would
+     * if not given a prepared board. Also used to reproduce a game's layout from
+     * its {@link SOCGame#getBoardLayoutSeed()}.
+     * @param opts  Game options, or null
+     * @param hasSeaBoard  True if {@link SOCGame#hasSeaBoard}
+     * @param maxPlayers  Player count, from {@link SOCGame#maxPlayers}
+     * @param seed  Seed for the layout
+     * @return  The laid-out board
+     * @throws IllegalStateException  if the layout fails its consistency check
+     * @throws IllegalArgumentException  if {@code maxPlayers} is not 4 or 6, or the layout can't be made
+     *     with {@code opts}
+     */
+    public static SOCBoard makeLayout
+        (final SOCGameOptionSet opts, final boolean hasSeaBoard, final int maxPlayers, final long seed)
+        throws IllegalStateException, IllegalArgumentException
+    {
+        final SOCBoard board = new SOCBoardAtServer.BoardFactoryAtServer().createBoard(opts, hasSeaBoard, maxPlayers);
+        board.setRandomSeed(seed);
+        board.makeNewBoard(opts);
+
+        if (board instanceof SOCBoardLarge)
+        {
+            final int[] land = ((SOCBoardLarge) board).getLandHexCoords();
+            if ((land == null) || (land.length == 0))
+                throw new IllegalStateException("no land hexes, seed " + seed);
+        }
+        else if (board.getRobberHex() <= 0)
+        {
+            throw new IllegalStateException("robber not placed, seed " + seed);
+        }
+
+        return board;
+    }
+
+    /**
+     * Get a layout for a game which is starting, and ask the pool's thread to replace it.
+     * Pass the result to {@link SOCGame#startGame(int, SOCBoard, long)}.
+     * @param ga  Game about to start
+     * @return  A ready layout if any, otherwise a new seed with {@link Layout#board} {@code null}
+     */
+    public Layout take(final SOCGame ga)
+    {
+        final SOCGameOptionSet opts = ga.getGameOptions();
+        final String key = layoutKey(opts, ga.maxPlayers, ga.hasSeaBoard);
+
+        synchronized (this)
+        {
+            if (poolSize > 0)
+            {
+                if (! active.containsKey(key))
+                {
+                    active.put(key, new Object[]{ opts, Integer.valueOf(ga.maxPlayers), Boolean.valueOf(ga.hasSeaBoard) });
+                    ready.put(key, new ArrayDeque<Layout>());
+                }
+                notifyAll();  // wake thread to refill
+
+                final Layout lay = ready.get(key).poll();
+                if (lay != null)
+                {
+                    ++nHits;
+                    return lay;
+                }
+            }
+
+            ++nMisses;
+            return new Layout(nextSeed(key), null);
+        }
+    }
+
+    /**
+     * Get the number of layouts currently ready for this key.
+     * @param key  Key from {@link #layoutKey(SOCGameOptionSet, int, boolean)}
+     * @return  Number of layouts ready, or 0 if no game with {@code key} has started yet
+     */
+    public synchronized int getNumReady(final String key)
+    {
+        final ArrayDeque<Layout> q = ready.get(key);
+        return (q != null) ? q.size() : 0;
+    }
+
+    /**
+     * Get the number of {@link #take(SOCGame)} calls which were given a ready layout.
+     * @see #getNumMisses()
+     */
+    public synchronized int getNumHits()
+    {
+        return nHits;
+    }
+
+    /**
+     * Get the number of {@link #take(SOCGame)} calls which were given only a seed.
+     * @see #getNumHits()
+     */
+    public synchronized int getNumMisses()
+    {
+        return nMisses;
+    }
+
+    /**
+     * Make layouts while any key has fewer than the pool size ready; otherwise wait for a {@link #take(SOCGame)}.
+     */
+    @Override
+    public void run()
+    {
+        while (alive)
+        {
+            String key = null;
+            Object[] params = null;
+            long seed = 0;
+
+            synchronized (this)
+            {
+                for (Map.Entry<String, Object[]> e : active.entrySet())
+                {
+                    if (ready.get(e.getKey()).size() < poolSize)
+                    {
+                        key = e.getKey();
+                        params = e.getValue();
+                        seed = nextSeed(key);
+                        break;
+                    }
+                }
+
+                if (key == null)
+                {
+                    try
+                    {
+                        wait();
+                    } catch (InterruptedException e) {}
+
+                    continue;
+                }
+            }
+
+            final SOCBoard board;
+            try
+            {
+                board = makeLayout
+                    ((SOCGameOptionSet) params[0], ((Boolean) params[2]).booleanValue(),
+                     ((Integer) params[1]).intValue(), seed);
+            } catch (RuntimeException e) {
+                // Game would have had the same problem; don't retry this key until next take
+                System.err.println("boardLayoutPool: Can't make layout for " + key + ": " + e);
+                synchronized (this)
+                {
+                    active.remove(key);
+                    ready.remove(key);
+                }
+
+                continue;
+            }
+
+            synchronized (this)
+            {
+                final ArrayDeque<Layout> q = ready.get(key);
+                if (q != null)
+                    q.add(new Layout(seed, board));
+            }
+        }
+    }
+
+    /**
+     * Stop the pool's thread and discard any ready layouts.
+     */
+    public void stopPool()
+    {
+        alive = false;
+        synchronized (this)
+        {
+            ready.clear();
+            active.clear();
+            notifyAll();
+        }
+    }
+
+}
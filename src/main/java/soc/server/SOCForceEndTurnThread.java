@@ -35,6 +35,7 @@ import soc.server.genericServer.Connection;
  * Done in a separate thread in case of deadlocks; see {@link #run()} for more details.
  * Created from {@link SOCGameHandler#endTurnIfInactive(SOCGame, long)}
  * when that's called from {@link SOCGameTimeoutChecker#run()}.
+ * Afterwards updates the game's turn deadline with {@link SOCServer#updateTurnDeadline(SOCGame)}.
  *<P>
  * Also calls {@link SOCPlayer#addForcedEndTurn()} to track "stubborn" slow/buggy robots.
  *<P>
@@ -122,6 +123,7 @@ import soc.server.genericServer.Connection;
         }
 
         hand.endGameTurnOrForce(ga, plNum, rname, rconn, false);
+        srv.updateTurnDeadline(ga);
     }
 
 }  // class SOCForceEndTurnThread
@@ -115,7 +115,6 @@ import soc.robot.stac.StacRobotDummyBrain;
 import soc.server.genericServer.Connection;
 import soc.server.database.stac.StacDBHelper;
 import soc.util.CappedQueue;
-import soc.util.DeepCopy;
 import soc.util.IntPair;
 import soc.util.SOCFeatureSet;
 import soc.util.SOCGameList;
@@ -146,7 +145,7 @@ public class SOCGameHandler extends GameHandler
      *<P>
      * This field was originally in SOCServer, moved in v2.0.00.
      * @see SOCServer#ROBOT_FORCE_ENDTURN_SECONDS
-     * @see SOCServer#checkForExpiredTurns(long)
+     * @see SOCServer#checkForExpiredTurn(SOCGame, long)
      * @since 1.1.11
      */
     public static int ROBOT_FORCE_ENDTURN_TRADEOFFER_SECONDS = 60;
@@ -2926,6 +2925,14 @@ public class SOCGameHandler extends GameHandler
         }  // send game timing stats, win-loss stats
 
         srv.gameOverIncrGamesFinishedCount(ga);
+        if (ga.turnPaceStats != null)
+        {
+            final SOCTurnPaceStats pace = (SOCTurnPaceStats) ga.turnPaceStats;
+            pace.finishTurn(System.nanoTime());
+            srv.gameOverAddTurnPaceStats(pace);
+            if (ga.isBotsOnly)
+                D.ebugPrintlnINFO("Turn pace for " + gname + ": " + pace);
+        }
         //---MG
         D.ebugPrintlnINFO("Storing game state to Database.");
         //         System.err.println(cg)
@@ -3557,7 +3564,7 @@ public class SOCGameHandler extends GameHandler
             srv.dummy = new StacRobotDummyBrain
                 (new SOCRobotClient(null, new ServerConnectInfo("replay", srv.robotCookie), "replayAgent", "", null),
                  new SOCRobotParameters(300, 500, 0f, 0f, 0f, 0f, 0f, SOCRobotDMImpl.FAST_STRATEGY, 0),
-                 (SOCGame)DeepCopy.copy(ga),new CappedQueue(),0);
+                 ga.snapshot(), new CappedQueue(), 0);
 	    	
             srv.idCounter = 0; //reset t
             int gameID;
@@ -3603,7 +3610,14 @@ public class SOCGameHandler extends GameHandler
         }
         else{//normal start of game
 
-        ga.startGame(-1, false);
+        final SOCBoardLayoutPool layoutPool = srv.boardLayoutPool;
+        if (layoutPool != null)
+        {
+            final SOCBoardLayoutPool.Layout layout = layoutPool.take(ga);
+            ga.startGame(-1, layout.board, layout.seed);
+        } else {
+            ga.startGame(-1, false);
+        }
 
         final int[][] legalSeaEdges;  // used on sea board; if null, all are legal
         if (ga.hasSeaBoard)
@@ -3760,6 +3774,8 @@ public class SOCGameHandler extends GameHandler
             if (sendRoll)
                 srv.messageToGame(gaName, true, new SOCRollDicePrompt(gaName, cpn));
         }
+
+        srv.updateTurnDeadline(ga);
     }
 
     /**
@@ -3839,6 +3855,10 @@ public class SOCGameHandler extends GameHandler
         final int gs = ga.getGameState(),
             cpn = ga.getCurrentPlayerNumber();
 
+        if (ga.turnPaceStats == null)
+            ga.turnPaceStats = new SOCTurnPaceStats();
+        ((SOCTurnPaceStats) ga.turnPaceStats).turnStarted(cpn, ga.getTurnCount(), System.nanoTime());
+
         if (ga.clientVersionLowest >= SOCPlayerElement.VERSION_FOR_CARD_ELEMENTS)
             srv.messageToGame(gname, true, new SOCPlayerElement
                 (gname, cpn, SOCPlayerElement.SET, PEType.PLAYED_DEV_CARD_FLAG, 0));
@@ -65,6 +65,7 @@ import soc.robot.stac.StacRobotBrain;
 import soc.server.database.stac.GameActionRow;
 import soc.server.genericServer.Connection;
 import soc.util.DeepCopy;
+import soc.util.GameCheckpoint;
 import soc.util.SOCStringManager;
 
 /**
@@ -2416,7 +2417,7 @@ public class SOCGameMessageHandler
                             }
 
                         	if(srv.COLLECT_FULL_GAMEPLAY){
-                        		srv.dummy.setGame((SOCGame)DeepCopy.copy(ga));
+                        		srv.dummy.setGame(ga.snapshot());
                         		srv.dummy.handlePUTPIECE_updateTrackers((SOCPutPiece)mes);
                         	}
                             srv.writeToDB(ga, GameActionRow.BUILDROAD);
@@ -2471,7 +2472,7 @@ public class SOCGameMessageHandler
                             }
 
                         	if(srv.COLLECT_FULL_GAMEPLAY){
-                        		srv.dummy.setGame((SOCGame)DeepCopy.copy(ga));
+                        		srv.dummy.setGame(ga.snapshot());
                         		srv.dummy.handlePUTPIECE_updateTrackers((SOCPutPiece)mes);
                         	}
                             srv.writeToDB(ga, GameActionRow.BUILDSETT);
@@ -2546,7 +2547,7 @@ public class SOCGameMessageHandler
                             }
 
                         	if(srv.COLLECT_FULL_GAMEPLAY){
-                        		srv.dummy.setGame((SOCGame)DeepCopy.copy(ga));
+                        		srv.dummy.setGame(ga.snapshot());
                         		srv.dummy.handlePUTPIECE_updateTrackers((SOCPutPiece)mes);
                         	}
                             srv.writeToDB(ga, GameActionRow.BUILDCITY);
@@ -3448,7 +3449,7 @@ public class SOCGameMessageHandler
         if(!dir.exists())
         	dir.mkdirs();
     	
-    	DeepCopy.copyToFile(srv.getGame(mes.getGame()), "server" , folderName); 	//clone it
+    	GameCheckpoint.save(folderName, "server", srv.getGame(mes.getGame())); 	//clone it into the folder's checkpoint archive
     	srv.messageToGame(mes.getGame(), new SOCGameCopy(mes.getGame(),folderName,mes.getPlayerNumber())); //we need a new message to keep the new folder name
 //    	System.out.println("Server: received copy request, sending copy request back"); //-- for quick debugging
 	}
@@ -3476,10 +3477,9 @@ public class SOCGameMessageHandler
      * @param folderName  Folder name from {@link SOCLoadGame} message; not null or ""
      */
     protected void loadGame(final String gaName, final String folderName){
-		String prefix = folderName + "/"; //add the slash missed by the getDirectory
 		srv.getGameList().takeMonitorForGame(gaName);
 		SOCGame originalGame = srv.getGame(gaName); //in order to get the right player names
-		SOCGame cloneGame = (SOCGame) DeepCopy.readFromFile(prefix + "server_soc.game.SOCGame");
+		SOCGame cloneGame = (SOCGame) GameCheckpoint.load(folderName, GameCheckpoint.entryName("server", SOCGame.class));
 		cloneGame.setName(originalGame.getName());//keep the current game name
 		cloneGame.resetTimes();
 		//without the correct player names in the game, the server will "lose" the connection to the client
@@ -18,89 +18,384 @@
  **/
 package soc.server;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
 
 /**
- * Wakes up every few seconds* to check for turns that have expired
- * by calling {@link SOCServer#checkForExpiredTurns(long)},
- * and every 5 minutes to check for games that have expired
+ * Forces the end of turns which have expired, and every 5 minutes checks for games that have expired
  * with {@link SOCServer#checkForExpiredGames(long)}.
  *<P>
  * Keeps the game moving if a robot is stuck or indecisive because of a bug.
  *<P>
- * * "Every few seconds" is roughly {@link SOCServer#ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS}.
+ * Keeps a queue of each game's turn deadline: Its {@link SOCGame#lastActionTime} plus
+ * the current player's timeout ({@link #getTurnDeadline(SOCGame, int)}), and sleeps until the
+ * earliest deadline. The server calls {@link #updateDeadline(SOCGame)} after game activity
+ * which may have changed {@code lastActionTime} or the current player.
+ * When a deadline is reached, it's checked against the game's current {@code lastActionTime}:
+ * If that's moved later, the game is requeued at its new deadline, otherwise the turn has
+ * expired and {@link Callback#checkForExpiredTurn(SOCGame, long)} is called.
+ * After that, the game is checked again every {@link SOCServer#ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS}
+ * until it has new activity, in case the force-end is still waiting or doesn't apply yet.
+ *<P>
+ * Before v2.4.50 this thread woke every few seconds and scanned every game,
+ * so turns were ended up to several seconds after their timeout.
  *
  * @author Robert S Thomas
  * @see SOCServer#ROBOT_FORCE_ENDTURN_SECONDS
  * @see SOCServer#GAME_TIME_EXPIRE_CHECK_MINUTES
  */
-/*package*/ class SOCGameTimeoutChecker extends Thread
+public class SOCGameTimeoutChecker extends Thread
 {
-    private SOCServer server;
-    private boolean alive;
+    /**
+     * Source of the current time. Tests can use their own clock and call
+     * {@link SOCGameTimeoutChecker#checkDeadlines(long)} instead of starting the thread.
+     * @since 2.4.50
+     */
+    public interface Clock
+    {
+        /** @return  Current time in milliseconds, like {@link System#currentTimeMillis()} */
+        long currentTimeMillis();
+    }
+
+    /**
+     * What to do when turns or games expire. The usual callback calls {@link SOCServer} methods.
+     * @since 2.4.50
+     */
+    public interface Callback
+    {
+        /**
+         * Check for games which have expired; called every {@link SOCServer#GAME_TIME_EXPIRE_CHECK_MINUTES}.
+         * @param currentTimeMillis  Current time from the checker's {@link Clock}
+         */
+        void checkForExpiredGames(long currentTimeMillis);
+
+        /**
+         * A game's turn deadline has passed: Force the end of the turn if appropriate.
+         * @param ga  Game whose deadline was reached
+         * @param currentTimeMillis  Current time from the checker's {@link Clock}
+         * @return  True to keep checking this game, false if it's no longer in the server's game list
+         */
+        boolean checkForExpiredTurn(SOCGame ga, long currentTimeMillis);
+    }
+
+    /** The system clock, from {@link System#currentTimeMillis()} */
+    public static final Clock SYSTEM_CLOCK = new Clock()
+    {
+        public long currentTimeMillis()
+        {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /** A game's queued deadline. Replaced, not changed, when the deadline changes. */
+    private static final class Deadline implements Comparable<Deadline>
+    {
+        final SOCGame ga;
+
+        /** Time at which to check the game */
+        final long time;
+
+        /** If not 0, don't check the game again before this time, even if its turn deadline is earlier */
+        final long notBefore;
+
+        Deadline(final SOCGame ga, final long time, final long notBefore)
+        {
+            this.ga = ga;
+            this.time = time;
+            this.notBefore = notBefore;
+        }
+
+        public int compareTo(final Deadline d)
+        {
+            return (time < d.time) ? -1 : ((time == d.time) ? 0 : 1);
+        }
+    }
+
+    private Callback callback;
+
+    private final Clock clock;
+
+    /**
+     * Turn timeout for third-party robots, from {@link SOCServer#PROP_JSETTLERS_BOTS_TIMEOUT_TURN},
+     * or 0 if not longer than {@link SOCServer#ROBOT_FORCE_ENDTURN_SECONDS}
+     */
+    private final int timeout3pSeconds;
 
     /**
-     * Create a game timeout checker
+     * Deadlines in time order. May contain stale entries, which aren't the current entry
+     * for their game in {@link #current}; those are skipped when reached.
+     * <B>Locks:</B> {@code this}, like {@link #current} and {@link #changed}.
+     */
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<Deadline>();
+
+    /** Each game's current deadline in {@link #queue} */
+    private final Map<SOCGame, Deadline> current = new HashMap<SOCGame, Deadline>();
+
+    /** Set when an earlier deadline is queued, so {@link #run()} stops waiting */
+    private boolean changed;
+
+    /** Time of next check for game expiry, or 0 if none yet */
+    private long gameExpireCheckTime;
+
+    private volatile boolean alive;
+
+    /**
+     * Create a game timeout checker for the server.
      *
      * @param srv  the game server
      */
-    public SOCGameTimeoutChecker(SOCServer srv)
+    public SOCGameTimeoutChecker(final SOCServer srv)
+    {
+        this(new Callback()
+            {
+                public void checkForExpiredGames(final long currentTimeMillis)
+                {
+                    srv.checkForExpiredGames(currentTimeMillis);
+                }
+
+                public boolean checkForExpiredTurn(final SOCGame ga, final long currentTimeMillis)
+                {
+                    return srv.checkForExpiredTurn(ga, currentTimeMillis);
+                }
+            },
+            SYSTEM_CLOCK, srv.getConfigIntProperty(SOCServer.PROP_JSETTLERS_BOTS_TIMEOUT_TURN, 0));
+    }
+
+    /**
+     * Create a game timeout checker with this callback and clock.
+     *
+     * @param cb  Callback for expired turns and games
+     * @param clock  Clock to use, such as {@link #SYSTEM_CLOCK}
+     * @param timeout3pSeconds  Turn timeout for third-party robots; ignored unless longer than
+     *     {@link SOCServer#ROBOT_FORCE_ENDTURN_SECONDS}. See {@link SOCServer#PROP_JSETTLERS_BOTS_TIMEOUT_TURN}.
+     * @since 2.4.50
+     */
+    public SOCGameTimeoutChecker(final Callback cb, final Clock clock, final int timeout3pSeconds)
     {
-        server = srv;
+        callback = cb;
+        this.clock = clock;
+        this.timeout3pSeconds = (timeout3pSeconds > SOCServer.ROBOT_FORCE_ENDTURN_SECONDS) ? timeout3pSeconds : 0;
         alive = true;
         setName ("timeoutChecker");  // Thread name for debug
         try { setDaemon(true); } catch (Exception e) {}  // Don't wait on us to exit program
     }
 
     /**
-     * Wakes up every few seconds to check for turns that have expired,
-     * and every 5 minutes to check for games that have expired.
-     * See {@link SOCGameTimeoutChecker class javadoc}.
+     * Get the time at which a game's current turn will expire, if there's no further activity.
+     * That's {@link SOCGame#lastActionTime} plus {@link SOCServer#ROBOT_FORCE_ENDTURN_SECONDS},
+     * or {@link SOCServer#ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS} if the current player
+     * {@link SOCGame#isCurrentPlayerStubbornRobot() is a stubborn robot},
+     * or the third-party timeout if the current player is a third-party robot.
+     * @param ga  Game to check
+     * @param timeout3pSeconds  Turn timeout for third-party robots, or 0 if not longer than
+     *     {@link SOCServer#ROBOT_FORCE_ENDTURN_SECONDS}
+     * @return  Deadline for the turn, in milliseconds like {@link System#currentTimeMillis()}
+     * @since 2.4.50
      */
-    public void run()
+    public static long getTurnDeadline(final SOCGame ga, final int timeout3pSeconds)
     {
-        // check every few seconds; should be about ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS
-        // (about half as long as ROBOT_FORCE_ENDTURN_SECONDS)
-        final int sleepMillis = SOCServer.ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS * 1100;
+        int secs = (ga.isCurrentPlayerStubbornRobot())
+            ? SOCServer.ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS
+            : SOCServer.ROBOT_FORCE_ENDTURN_SECONDS;
 
-        // Holds time of next check for game expiry, not just turn expiry
-        long gameExpireCheckTime = 0L;
+        if (timeout3pSeconds > secs)
+        {
+            final int cpn = ga.getCurrentPlayerNumber();
+            if (cpn != -1)
+            {
+                final SOCPlayer pl = ga.getPlayer(cpn);
+                if (pl.isRobot() && ! pl.isBuiltInRobot())
+                    secs = timeout3pSeconds;  // third-party robot player has more time
+            }
+        }
 
-        while (alive)
+        return ga.lastActionTime + (secs * 1000L);
+    }
+
+    /**
+     * Queue or update a game's turn deadline, after activity which may have changed
+     * its {@link SOCGame#lastActionTime} or current player.
+     * Safe to call from any thread.
+     * @param ga  Game to check
+     * @since 2.4.50
+     */
+    public void updateDeadline(final SOCGame ga)
+    {
+        final Deadline d = new Deadline(ga, getTurnDeadline(ga, timeout3pSeconds), 0);
+        synchronized (this)
         {
-        	if(Thread.currentThread().isInterrupted())
-        		break;
-        	
-            long now = System.currentTimeMillis();
-            if (gameExpireCheckTime == 0L)
-                gameExpireCheckTime = now;
-
-            if (now >= gameExpireCheckTime)
+            put(d);
+        }
+    }
+
+    /**
+     * Stop checking a game's turns, for example because it's been destroyed.
+     * @param ga  Game to remove; okay if not queued
+     * @since 2.4.50
+     */
+    public synchronized void removeGame(final SOCGame ga)
+    {
+        current.remove(ga);  // its queue entry is now stale
+    }
+
+    /**
+     * Get the time at which a game will next be checked.
+     * @param ga  Game to look for
+     * @return  Time of the game's queued deadline, or 0 if not queued
+     * @since 2.4.50
+     */
+    public synchronized long getQueuedDeadline(final SOCGame ga)
+    {
+        final Deadline d = current.get(ga);
+        return (d != null) ? d.time : 0;
+    }
+
+    /**
+     * Queue a deadline. Call only while synchronized on {@code this}.
+     */
+    private void put(final Deadline d)
+    {
+        current.put(d.ga, d);
+        queue.add(d);
+        if (queue.peek() == d)
+        {
+            changed = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Handle all deadlines reached by this time: Requeue games with newer activity, call
+     * {@link Callback#checkForExpiredTurn(SOCGame, long)} for the others, and check for expired games
+     * if it's time to. Called from {@link #run()}, or by tests with their own clock.
+     * @param now  Current time
+     * @return  Time of the next deadline or game expiry check
+     * @since 2.4.50
+     */
+    public long checkDeadlines(final long now)
+    {
+        if (gameExpireCheckTime == 0L)
+            gameExpireCheckTime = now;
+
+        if (now >= gameExpireCheckTime)
+        {
+            callback.checkForExpiredGames(now);
+
+            // check every 5 minutes
+            gameExpireCheckTime = now + (SOCServer.GAME_TIME_EXPIRE_CHECK_MINUTES * 60 * 1000);
+        }
+
+        // Callbacks might update deadlines, so call them without holding our lock
+        for (;;)
+        {
+            final Deadline d;
+            synchronized (this)
             {
-                server.checkForExpiredGames(now);
+                d = pollExpired(now);
+                if (d == null)
+                {
+                    final Deadline next = queue.peek();
+                    return ((next != null) && (next.time < gameExpireCheckTime)) ? next.time : gameExpireCheckTime;
+                }
+            }
 
-                // check every 5 minutes
-                gameExpireCheckTime = now + (SOCServer.GAME_TIME_EXPIRE_CHECK_MINUTES * 60 * 1000);
-                Thread.yield();
+            final boolean keep = callback.checkForExpiredTurn(d.ga, now);
+
+            synchronized (this)
+            {
+                if (current.get(d.ga) != d)
+                    continue;  // updated or removed during callback
+
+                if (! keep)
+                {
+                    current.remove(d.ga);
+                    continue;
+                }
+
+                // Check again later, in case the force-end is still in progress
+                // or didn't apply (waiting for humans, game not started, etc)
+                final long notBefore = now + (SOCServer.ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS * 1000L);
+                put(new Deadline(d.ga, Math.max(getTurnDeadline(d.ga, timeout3pSeconds), notBefore), notBefore));
             }
+        }
+    }
 
-            server.checkForExpiredTurns(now);
-            Thread.yield();
+    /**
+     * Remove and return the first queued game whose turn has expired at this time.
+     * Requeues any reached deadlines which have moved later since being queued, and skips stale entries.
+     * Call only while synchronized on {@code this}.
+     * @param now  Current time
+     * @return  A game's reached deadline, still its entry in {@link #current}, or null if none
+     */
+    private Deadline pollExpired(final long now)
+    {
+        Deadline d;
+        while (((d = queue.peek()) != null) && (d.time <= now))
+        {
+            queue.poll();
+            if (current.get(d.ga) != d)
+                continue;  // stale
 
-            try
+            final long t = Math.max(getTurnDeadline(d.ga, timeout3pSeconds), d.notBefore);
+            if (t > now)
             {
-                sleep(sleepMillis);
+                final Deadline later = new Deadline(d.ga, t, d.notBefore);
+                current.put(d.ga, later);
+                queue.add(later);
+                continue;
             }
-            catch (InterruptedException exc) {}
+
+            return d;
         }
 
-        server = null;
+        return null;
     }
 
     /**
-     * DOCUMENT ME!
+     * Wakes up at each game's turn deadline to check whether its turn has expired,
+     * and every 5 minutes to check for games that have expired.
+     * See {@link SOCGameTimeoutChecker class javadoc}.
+     */
+    public void run()
+    {
+        while (alive)
+        {
+            if (Thread.currentThread().isInterrupted())
+                break;
+
+            final long next = checkDeadlines(clock.currentTimeMillis());
+
+            synchronized (this)
+            {
+                final long delay = next - clock.currentTimeMillis();
+                if ((delay > 0) && ! changed && alive)
+                {
+                    try
+                    {
+                        wait(delay);
+                    }
+                    catch (InterruptedException exc) {}
+                }
+                changed = false;
+            }
+        }
+
+        callback = null;
+    }
+
+    /**
+     * Stop the checker's thread.
      */
     public void stopChecking()
     {
         alive = false;
+        synchronized (this)
+        {
+            notifyAll();
+        }
     }
 }
@@ -162,8 +162,14 @@ import soc.server.genericServer.Server;
                         final GameMessageHandler hand = gameList.getGameTypeMessageHandler(gaName);
                         if (hand != null)  // all consistent games will have a handler
                         {
-                            if (hand.dispatch(ga, (SOCMessageForGame) mes, con))
-                                return;  // <--- Was handled by GameMessageHandler ---
+                            try
+                            {
+                                if (hand.dispatch(ga, (SOCMessageForGame) mes, con))
+                                    return;  // <--- Was handled by GameMessageHandler ---
+                            } finally {
+                                // action may have changed lastActionTime or current player
+                                srv.updateTurnDeadline(ga);
+                            }
 
                             // else: Message type unknown or ignored by handler. Server handles it below.
                         }
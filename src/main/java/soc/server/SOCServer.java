@@ -32,6 +32,8 @@ import soc.message.*;
 
 import soc.dialogue.StacTradeMessage;
 import soc.robot.FactoryDescr;
+import soc.robot.OpeningBuildStrategy;
+import soc.robot.OpeningPlanCache;
 import soc.robot.SOCDefaultRobotFactory;
 import soc.robot.SOCPossiblePiece;
 import soc.robot.SOCRobotBrain;
@@ -376,6 +378,17 @@ public class SOCServer extends Server
      */
     public static final String PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT = "jsettlers.bots.fast_pause_percent";
 
+    /**
+     * Integer property <tt>jsettlers.bots.opening.parallel</tt> to score the server's robots'
+     * initial settlement pairs in this many parallel chunks:
+     * Sets {@link OpeningBuildStrategy#PAIR_EVALUATION_PARALLELISM}.
+     * The robots' choices don't depend on this value.
+     *<P>
+     * Default is 1, to score them one after another.
+     * @since 2.4.50
+     */
+    public static final String PROP_JSETTLERS_BOTS_OPENING_PARALLEL = "jsettlers.bots.opening.parallel";
+
     /**
      * Integer property <tt>jsettlers.bots.botgames.total</tt> will start robot-only games,
      * a few at a time, until this many have been played. (The default is 0.)
@@ -629,6 +642,25 @@ public class SOCServer extends Server
      */
     public static final String PROP_JSETTLERS_GAME_DISALLOW_SEA__BOARD = "jsettlers.game.disallow.sea_board";
 
+    /**
+     * Integer property {@code jsettlers.game.board.pool_size} to keep this many board layouts ready in advance
+     * for each combination of game options that games have started with, made by a background thread
+     * ({@link SOCBoardLayoutPool}). Default is 0, for none.
+     *<P>
+     * When this or {@link #PROP_JSETTLERS_GAME_BOARD_SEED} is set, each game's board layout is made from a seed,
+     * which is kept for reproducing that layout: See {@link SOCGame#getBoardLayoutSeed()}.
+     * @since 2.4.50
+     */
+    public static final String PROP_JSETTLERS_GAME_BOARD_POOL__SIZE = "jsettlers.game.board.pool_size";
+
+    /**
+     * Long integer property {@code jsettlers.game.board.seed} to set the base seed for the board layout seeds
+     * given to new games by {@link SOCBoardLayoutPool}, so that a run of games can be repeated with the same
+     * layouts. If not set but {@link #PROP_JSETTLERS_GAME_BOARD_POOL__SIZE} is, a random base seed is used.
+     * @since 2.4.50
+     */
+    public static final String PROP_JSETTLERS_GAME_BOARD_SEED = "jsettlers.game.board.seed";
+
     /**
      * Property {@code jsettlers.savegame.dir} to enable SAVEGAME/LOADGAME debug commands
      * and set the directory in which to store savegame files.
@@ -700,6 +732,8 @@ public class SOCServer extends Server
         PROP_JSETTLERS_GAMEOPTS_ACTIVATE,       "If set, activate these inactive game options (comma-separated list)",
         PROP_JSETTLERS_GAME_DISALLOW_6PLAYER,   "Flag to disallow 6-player games",
         PROP_JSETTLERS_GAME_DISALLOW_SEA__BOARD, "Flag to disallow sea board and scenarios",
+        PROP_JSETTLERS_GAME_BOARD_POOL__SIZE,   "Keep this many board layouts ready for each game options combination (default 0)",
+        PROP_JSETTLERS_GAME_BOARD_SEED,         "Base seed for new games' board layouts, to repeat a run's layouts",
         // I18n.PROP_JSETTLERS_LOCALE,             "Locale override from the default, such as es or en_US, for console output",
             // -- not used yet at server
         PROP_JSETTLERS_BOTS_BOTGAMES_TOTAL,     "Run this many robot-only games, a few at a time (default 0); allow bot-only games",
@@ -711,6 +745,7 @@ public class SOCServer extends Server
         PROP_JSETTLERS_BOTS_SHOWCOOKIE,         "Flag to show the robot cookie value at startup",
         PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT, "Pause at percent of normal pause time (0 to 100) for robot-only games (default 25)",
         PROP_JSETTLERS_BOTS_PAUSE_FOR_HUMAN_TRADE, "In games with humans, robots wait this many seconds before answering a trade offer (default 8)",
+        PROP_JSETTLERS_BOTS_OPENING_PARALLEL,   "Score robots' initial settlement pairs in this many parallel chunks (default 1)",
         PROP_JSETTLERS_BOTS_PERCENT3P,          "Percent of bots which should be third-party (0 to 100) if available",
         PROP_JSETTLERS_BOTS_START3P,            "Third-party bot client classes to start up with server",
         PROP_JSETTLERS_BOTS_TIMEOUT_TURN,       "Robot turn timeout (seconds) for third-party bots",
@@ -721,6 +756,9 @@ public class SOCServer extends Server
         SOCDBHelper.PROP_JSETTLERS_DB_BCRYPT_WORK__FACTOR, "For user accounts in DB, password encryption Work Factor (see README) (9 to "
             + soc.server.database.BCrypt.GENSALT_MAX_LOG2_ROUNDS + ')',
         SOCDBHelper.PROP_JSETTLERS_DB_SAVE_GAMES,  "Flag to save all games in DB (if 1 or Y)",
+        SOCDBHelper.PROP_JSETTLERS_DB_ASYNC__WRITES,  "Flag to save games' scores in DB in a background thread, retrying if needed (if 1 or Y)",
+        SOCDBHelper.PROP_JSETTLERS_DB_POOL__SIZE,  "Maximum number of pooled DB connections for queries and updates (default "
+            + SOCDBHelper.POOL_SIZE_DEFAULT + ')',
         SOCDBHelper.PROP_JSETTLERS_DB_USER,     "DB username",
         SOCDBHelper.PROP_JSETTLERS_DB_PASS,     "DB password",
         SOCDBHelper.PROP_JSETTLERS_DB_URL,      "DB connection URL",
@@ -838,7 +876,7 @@ public class SOCServer extends Server
      * given a shorter timeout ({@link #ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS})
      * so human players won't always have to wait so long.
      *
-     * @see #checkForExpiredTurns(long)
+     * @see #checkForExpiredTurn(SOCGame, long)
      * @since 1.1.11
      */
 //    public static int ROBOT_FORCE_ENDTURN_SECONDS = 110000000;
@@ -848,8 +886,8 @@ public class SOCServer extends Server
 
     /**
      * Force a particularly slow or buggy ("stubborn") robot to end their turn after this many seconds of inactivity.
-     * Must be shorter than {@link #ROBOT_FORCE_ENDTURN_SECONDS}. Default is 4. Sets frequency of
-     * {@link SOCGameTimeoutChecker}'s checks for expired turns.
+     * Must be shorter than {@link #ROBOT_FORCE_ENDTURN_SECONDS}. Default is 4. Also sets how often
+     * {@link SOCGameTimeoutChecker} rechecks a game whose turn has expired until the game has new activity.
      *
      * @see SOCPlayer#isStubbornRobot()
      * @see SOCPlayer#STUBBORN_ROBOT_FORCE_END_TURN_THRESHOLD
@@ -1394,6 +1432,14 @@ public class SOCServer extends Server
      */
     protected int numberOfBotsInFinishedGames;
 
+    /**
+     * Wall-clock time per turn of all finished games, merged in by
+     * {@link #gameOverAddTurnPaceStats(SOCTurnPaceStats)}.
+     * Synchronize on this object to read it.
+     * @see #getTurnPaceStats()
+     */
+    private final SOCTurnPaceStats turnPaceStats = new SOCTurnPaceStats();
+
     /**
      * Synchronization for {@link #numberOfGamesFinished} writes,
      * along with related fields like {@link #numberOfBotsInFinishedGames}.
@@ -1491,6 +1537,14 @@ public class SOCServer extends Server
      */
     SOCGameTimeoutChecker gameTimeoutChecker;
 
+    /**
+     * Seeded board layouts for new games, if {@link #PROP_JSETTLERS_GAME_BOARD_POOL__SIZE}
+     * or {@link #PROP_JSETTLERS_GAME_BOARD_SEED} is set; otherwise null.
+     * Used in {@link SOCGameHandler#startGame(SOCGame)}.
+     * @since 2.4.50
+     */
+    SOCBoardLayoutPool boardLayoutPool;
+
     String databaseUserName;
     String databasePassword;
     
@@ -1918,6 +1972,11 @@ public class SOCServer extends Server
                     ("Error: Property out of range (0 to 100): " + PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT);
         }
         SOCRobotBrain.BOTS_PAUSE_FOR_HUMAN_TRADE = getConfigIntProperty( PROP_JSETTLERS_BOTS_PAUSE_FOR_HUMAN_TRADE, 8 );
+        v = getConfigIntProperty(PROP_JSETTLERS_BOTS_OPENING_PARALLEL, 1);
+        if (v < 1)
+            throw new IllegalArgumentException
+                ("Error: Property out of range (minimum 1): " + PROP_JSETTLERS_BOTS_OPENING_PARALLEL);
+        OpeningBuildStrategy.PAIR_EVALUATION_PARALLELISM = v;
 
         if (validate_config_mode)
         {
@@ -2170,6 +2229,29 @@ public class SOCServer extends Server
             gameTimeoutChecker.start();
             Server.trackThread(gameTimeoutChecker, this);
 
+            final int boardPoolSize = getConfigIntProperty(PROP_JSETTLERS_GAME_BOARD_POOL__SIZE, 0);
+            final String boardSeedStr = props.getProperty(PROP_JSETTLERS_GAME_BOARD_SEED);
+            if ((boardPoolSize > 0) || ((boardSeedStr != null) && (boardSeedStr.trim().length() > 0)))
+            {
+                long baseSeed;
+                try
+                {
+                    baseSeed = (boardSeedStr != null) ? Long.parseLong(boardSeedStr.trim()) : new Random().nextLong();
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException
+                        ("Error: Property must be an integer: " + PROP_JSETTLERS_GAME_BOARD_SEED);
+                }
+                boardLayoutPool = new SOCBoardLayoutPool(Math.max(0, boardPoolSize), baseSeed);
+                if (boardPoolSize > 0)
+                {
+                    boardLayoutPool.start();
+                    Server.trackThread(boardLayoutPool, this);
+                }
+                System.err.println
+                    ("Board layouts: Seeded from base seed " + baseSeed + ", keeping " + Math.max(0, boardPoolSize)
+                     + " ready per game options");
+            }
+
             if (props.containsKey(PROP_JSETTLERS_STATS_FILE_NAME))
             {
                 final String statsFilePath = props.getProperty(PROP_JSETTLERS_STATS_FILE_NAME);
@@ -4134,6 +4216,8 @@ public class SOCServer extends Server
         members = gameList.getMembers(gm);
 
         gameList.deleteGame(gm);  // also calls SOCGame.destroyGame
+        if (gameTimeoutChecker != null)
+            gameTimeoutChecker.removeGame(cg);
 
         if (members != null)
         {
@@ -4176,6 +4260,9 @@ public class SOCServer extends Server
         {
             // Other robot-only games could still be active; remaining = 0 was set when the last one was started
 
+            if (gameList.size() == 0)
+                System.err.println(OpeningPlanCache.getReport());
+
             if ((gameList.size() == 0) && getConfigBoolProperty(PROP_JSETTLERS_BOTS_BOTGAMES_SHUTDOWN, false))
             {
                 stopServer(">>> All Robot-only games have finished. Shutting down server. <<<");
@@ -7391,6 +7478,11 @@ public class SOCServer extends Server
         serverRobotPinger.stopPinger();
         serverRobotPinger.interrupt();
         serverRobotPinger = null;
+        if (boardLayoutPool != null)
+        {
+            boardLayoutPool.stopPool();
+            boardLayoutPool = null;
+        }
 
         /// give time for messages to drain (such as urgent text messages
         /// about stopping the server)
@@ -10433,6 +10525,35 @@ public class SOCServer extends Server
         }
     }
 
+    /**
+     * Add a finished game's wall-clock time per turn to the server's totals.
+     * Thread-safe. Package-level access for calls from {@link GameHandler}s.
+     * @param pace  The game's stats; not changed
+     * @see #getTurnPaceStats()
+     */
+    void gameOverAddTurnPaceStats(final SOCTurnPaceStats pace)
+    {
+        synchronized (turnPaceStats)
+        {
+            turnPaceStats.add(pace);
+        }
+    }
+
+    /**
+     * Get the wall-clock time per turn of all games finished so far,
+     * for example to find where bots-only simulations stall.
+     * @return  A copy of the server's totals
+     */
+    public SOCTurnPaceStats getTurnPaceStats()
+    {
+        final SOCTurnPaceStats copy = new SOCTurnPaceStats();
+        synchronized (turnPaceStats)
+        {
+            copy.add(turnPaceStats);
+        }
+        return copy;
+    }
+
     /**
      * create a new game event record
      */
@@ -10840,7 +10961,7 @@ public class SOCServer extends Server
      * @param currentTimeMillis  The time when called, from {@link System#currentTimeMillis()}
      * @see #GAME_TIME_EXPIRE_WARN_MINUTES
      * @see SOCGameListAtServer#GAME_TIME_EXPIRE_MINUTES
-     * @see #checkForExpiredTurns(long)
+     * @see #checkForExpiredTurn(SOCGame, long)
      */
     public void checkForExpiredGames(final long currentTimeMillis)
     {
@@ -10919,86 +11040,78 @@ public class SOCServer extends Server
     }
 
     /**
-     * Check all games for robot turns that have expired, and end that turn,
+     * A game's robot turn may have expired: End that turn,
      * or stop waiting for non-current-player robot actions (discard picks, etc).
      * Robot turns may end from inactivity or from an illegal placement.
-     * Checks each game's {@link SOCGame#lastActionTime} field, and calls
-     * {@link GameHandler#endTurnIfInactive(SOCGame, long)} if the
-     * last action is older than {@link #ROBOT_FORCE_ENDTURN_SECONDS}
-     * (or for third-party bots, {@link #PROP_JSETTLERS_BOTS_TIMEOUT_TURN}).
+     * Calls {@link GameHandler#endTurnIfInactive(SOCGame, long)}, which checks
+     * whether the game's current turn or action is waiting for a robot.
      *<P>
-     * Is callback method every few seconds from {@link SOCGameTimeoutChecker#run()}.
+     * Is callback method from {@link SOCGameTimeoutChecker#run()} when the game's
+     * {@link SOCGame#lastActionTime} is older than {@link #ROBOT_FORCE_ENDTURN_SECONDS}
+     * (or for third-party bots, {@link #PROP_JSETTLERS_BOTS_TIMEOUT_TURN}).
+     * Before v2.4.50 this was {@code checkForExpiredTurns(long)}, called every few seconds to check all games.
      *
+     * @param ga  Game whose turn deadline was reached
      * @param currentTimeMillis  The time when called, from {@link System#currentTimeMillis()}
+     * @return  False if {@code ga} is no longer in the game list, true otherwise
      * @see #ROBOT_FORCE_ENDTURN_SECONDS
      * @see #checkForExpiredGames(long)
-     * @since 1.1.11
+     * @see #updateTurnDeadline(SOCGame)
+     * @since 2.4.50
      */
-    public void checkForExpiredTurns(final long currentTimeMillis)
+    boolean checkForExpiredTurn(final SOCGame ga, final long currentTimeMillis)
     {
-    	//if server doesn't end turns exit this method before doing anything
-    	if(!FORCE_END_TURNS)
-    		return;
+        if (gameList.getGameData(ga.getName()) != ga)
+            return false;
 
         // Because nothing's currently happening in such a turn,
         // and we force the end in another thread,
         // we shouldn't need to worry about locking.
         // So, we don't need gameList.takeMonitor().
 
-        final long inactiveTime = currentTimeMillis - (ROBOT_FORCE_ENDTURN_SECONDS * 1000L),
-                   inactiveTimeStubborn = currentTimeMillis - (ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS * 1000L);
-        final long inactiveTime3p;  // if set, longer time for 3rd-party bot players
-        {
-            final int timeout3p = getConfigIntProperty(PROP_JSETTLERS_BOTS_TIMEOUT_TURN, 0);
-            inactiveTime3p = (timeout3p <= ROBOT_FORCE_ENDTURN_SECONDS)
-                ? 0
-                : currentTimeMillis - (timeout3p * 1000L);
-        }
-
         try
         {
-            for (SOCGame ga : gameList.getGamesData())
+            final int gs = ga.getGameState();
+            if (gs >= SOCGame.LOADING)  // includes >= SOCGame.OVER
             {
-                //only do force end turns for local games
-                if (!ga.isPractice) 
-                    break;
-
-                // lastActionTime is a recent time, or might be 0 to force end
-                long lastActionTime = ga.lastActionTime;
-                if (lastActionTime > (ga.isCurrentPlayerStubbornRobot() ? inactiveTimeStubborn : inactiveTime))
-                    continue;
-
-                final int gs = ga.getGameState();
-                if (gs >= SOCGame.LOADING)  // includes >= SOCGame.OVER
-                {
-                    // nothing to do.
-                    // bump out that time, so we don't see it again every few seconds
-                    ga.lastActionTime = currentTimeMillis + (SOCGameListAtServer.GAME_TIME_EXPIRE_MINUTES * 60 * 1000);
-                    continue;
-                }
-
-                final int cpn = ga.getCurrentPlayerNumber();
-                if (cpn == -1)
-                    continue;  // not started yet
+                // nothing to do.
+                // bump out that time, so we don't see it again every few seconds
+                ga.lastActionTime = currentTimeMillis + (SOCGameListAtServer.GAME_TIME_EXPIRE_MINUTES * 60 * 1000);
+                return true;
+            }
 
-                if ((inactiveTime3p != 0) && (lastActionTime > inactiveTime3p))
-                {
-                    final SOCPlayer pl = ga.getPlayer(cpn);
-                    if (pl.isRobot() && ! pl.isBuiltInRobot())
-                        continue;  // third-party robot player has more time
-                }
+            if (ga.getCurrentPlayerNumber() == -1)
+                return true;  // not started yet
 
-                GameHandler hand = gameList.getGameTypeHandler(ga.getName());
-                if (hand != null)
-                    hand.endTurnIfInactive(ga, currentTimeMillis);
+            GameHandler hand = gameList.getGameTypeHandler(ga.getName());
+            if (hand != null)
+                hand.endTurnIfInactive(ga, currentTimeMillis);
 
-                // TODO consider keeping stats on forced end turns (return false or true from endTurnIfInactive, etc)
-            }
+            // TODO consider keeping stats on forced end turns (return false or true from endTurnIfInactive, etc)
         }
         catch (Exception e)
         {
-            D.ebugPrintlnINFO("Exception in checkForExpiredTurns - " + e);
+            D.ebugPrintlnINFO("Exception in checkForExpiredTurn - " + e);
         }
+
+        return true;
+    }
+
+    /**
+     * After game activity which may have changed a game's {@link SOCGame#lastActionTime}
+     * or current player, update the game's turn deadline in {@link #gameTimeoutChecker}.
+     * Does nothing if {@link #FORCE_END_TURNS} is false or the game isn't a local {@link SOCGame#isPractice} game,
+     * whose turns aren't force-ended.
+     * @param ga  Game with recent activity
+     * @since 2.4.50
+     */
+    void updateTurnDeadline(final SOCGame ga)
+    {
+        final SOCGameTimeoutChecker tc = gameTimeoutChecker;
+        if ((tc == null) || ! (FORCE_END_TURNS && ga.isPractice))
+            return;
+
+        tc.updateDeadline(ga);
     }
 
     /**
@@ -0,0 +1,214 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package soc.server;
+
+/**
+ * Wall-clock time taken by each turn of a game, to find where bots-only games stall.
+ * A turn here is the time between two {@code SOCTurn} announcements, so initial placement
+ * counts one turn per player placement.
+ * {@link SOCGameHandler#sendTurn(soc.game.SOCGame, boolean)} calls {@link #turnStarted(int, int, long)};
+ * the game's stats are kept in {@link soc.game.SOCGame#turnPaceStats} and, when the game is over,
+ * merged into the server's totals by {@link #add(SOCTurnPaceStats)}.
+ *<P>
+ * Not thread-safe, because all of a game's message handling is done within a single thread;
+ * the server synchronizes on its totals object when merging.
+ */
+public final class SOCTurnPaceStats
+{
+    private static final double NANOS_PER_MS = 1000000.0;
+
+    /** Number of games whose turns are included: 1 for a game's stats once it's started, 0 for empty totals */
+    private int games;
+
+    /** Number of completed turns */
+    private int turns;
+
+    /** Total and longest duration of completed turns, in nanoseconds */
+    private long totalNanos, maxNanos;
+
+    /** Game turn count ({@link soc.game.SOCGame#getTurnCount()}) and player number of the longest turn */
+    private int maxTurn = -1, maxPN = -1;
+
+    /** Total duration and number of completed turns of each player number; grown as needed */
+    private long[] playerNanos = new long[0];
+    private int[] playerTurns = new int[0];
+
+    /** Start time of the current turn from {@link System#nanoTime()}, its player and turn count; -1 if none */
+    private long startNanos = -1;
+    private int startPN = -1, startTurn = -1;
+
+    /** Create a new empty stats object for a game, or for totals of several games. */
+    public SOCTurnPaceStats()
+    {
+    }
+
+    /**
+     * A new turn has started: Record the duration of the previous turn, if any.
+     * @param pn  Player number whose turn is starting
+     * @param turnCount  Game's turn count, for reporting the slowest turn
+     * @param nowNanos  Current time from {@link System#nanoTime()}
+     */
+    public void turnStarted(final int pn, final int turnCount, final long nowNanos)
+    {
+        games = 1;
+        finishTurn(nowNanos);
+        startNanos = nowNanos;
+        startPN = pn;
+        startTurn = turnCount;
+    }
+
+    /**
+     * The game is over: Record the duration of the current turn, if any.
+     * Does nothing if called again.
+     * @param nowNanos  Current time from {@link System#nanoTime()}
+     */
+    public void finishTurn(final long nowNanos)
+    {
+        if (startNanos == -1)
+            return;
+
+        final long elapsed = nowNanos - startNanos;
+        startNanos = -1;
+        ++turns;
+        totalNanos += elapsed;
+        if (elapsed > maxNanos)
+        {
+            maxNanos = elapsed;
+            maxTurn = startTurn;
+            maxPN = startPN;
+        }
+
+        if (startPN >= 0)
+        {
+            ensurePlayers(startPN + 1);
+            playerNanos[startPN] += elapsed;
+            ++playerTurns[startPN];
+        }
+    }
+
+    private void ensurePlayers(final int n)
+    {
+        if (playerNanos.length >= n)
+            return;
+
+        long[] pnanos = new long[n];
+        int[] pturns = new int[n];
+        System.arraycopy(playerNanos, 0, pnanos, 0, playerNanos.length);
+        System.arraycopy(playerTurns, 0, pturns, 0, playerTurns.length);
+        playerNanos = pnanos;
+        playerTurns = pturns;
+    }
+
+    /**
+     * Add another game's completed turns to these stats, to keep totals for several games.
+     * The longest turn's turn count and player number are kept from whichever stats had the longest turn.
+     * @param other  Stats to add; not changed
+     */
+    public void add(final SOCTurnPaceStats other)
+    {
+        games += other.games;
+        turns += other.turns;
+        totalNanos += other.totalNanos;
+        if (other.maxNanos > maxNanos)
+        {
+            maxNanos = other.maxNanos;
+            maxTurn = other.maxTurn;
+            maxPN = other.maxPN;
+        }
+
+        ensurePlayers(other.playerNanos.length);
+        for (int pn = 0; pn < other.playerNanos.length; ++pn)
+        {
+            playerNanos[pn] += other.playerNanos[pn];
+            playerTurns[pn] += other.playerTurns[pn];
+        }
+    }
+
+    /** Number of games included in these stats. */
+    public int getGameCount()
+    {
+        return games;
+    }
+
+    /** Number of completed turns. */
+    public int getTurnCount()
+    {
+        return turns;
+    }
+
+    /** Mean wall-clock time per completed turn in milliseconds, or 0 if none. */
+    public double getMeanTurnMillis()
+    {
+        return (turns == 0) ? 0 : totalNanos / NANOS_PER_MS / turns;
+    }
+
+    /** Longest completed turn's wall-clock time in milliseconds, or 0 if none. */
+    public double getMaxTurnMillis()
+    {
+        return maxNanos / NANOS_PER_MS;
+    }
+
+    /** Game turn count of the longest completed turn, or -1 if none. */
+    public int getMaxTurn()
+    {
+        return maxTurn;
+    }
+
+    /** Player number whose turn was the longest, or -1 if none. */
+    public int getMaxTurnPlayer()
+    {
+        return maxPN;
+    }
+
+    /**
+     * Mean wall-clock time of a player number's completed turns, to see which bot is slow.
+     * @param pn  Player number
+     * @return  Mean time in milliseconds, or 0 if that player hasn't completed any turns
+     */
+    public double getPlayerMeanTurnMillis(final int pn)
+    {
+        if (pn >= playerTurns.length || playerTurns[pn] == 0)
+            return 0;
+
+        return playerNanos[pn] / NANOS_PER_MS / playerTurns[pn];
+    }
+
+    /**
+     * Summary for the server console, like
+     * "42 turns: mean 12.3 ms, max 5012.0 ms (turn 17, player 2); by player: 10.1 9.8 20.5 8.7".
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        if (games != 1)
+            sb.append(games).append(" games, ");
+        sb.append(turns).append(" turns: mean ").append(String.format("%.1f", getMeanTurnMillis()))
+          .append(" ms, max ").append(String.format("%.1f", getMaxTurnMillis())).append(" ms");
+        if (games == 1 && maxTurn != -1)
+            sb.append(" (turn ").append(maxTurn).append(", player ").append(maxPN).append(')');
+        if (playerTurns.length > 0)
+        {
+            sb.append("; by player:");
+            for (int pn = 0; pn < playerTurns.length; ++pn)
+                sb.append(' ').append(String.format("%.1f", getPlayerMeanTurnMillis(pn)));
+        }
+
+        return sb.toString();
+    }
+
+}
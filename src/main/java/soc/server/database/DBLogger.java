@@ -58,6 +58,7 @@ public class DBLogger implements DBHelper {
     private final String SUMMARY_FILENAME = "/summary";
     private final String BPP_SUMMARY_FILENAME = "/bppSummary";
     private final String HAS_RES_PREDICT_SUMMARY_FILENAME = "/hasResPredictSummary";
+    private final String BOARD_SEEDS_FILENAME = "/boardSeeds";
     private final String CONFIG_FILENAME = "/config.txt";
 
     private static final String DELIM = "\t";
@@ -337,6 +338,7 @@ public class DBLogger implements DBHelper {
 	                }
 	                output.newLine();                        
 	                output.flush();
+	                printBoardSeed(ga);
 	
 	                updateStats(player1, score1, roundCount);
 	                updateStats(player2, score2, roundCount);
@@ -593,6 +595,27 @@ public class DBLogger implements DBHelper {
         output.newLine();
     }
     
+    /**
+     * If the game's board layout was seeded, append its name and seed to {@code boardSeeds.txt}
+     * so the layout can be reproduced: See {@link SOCGame#getBoardLayoutSeed()}.
+     * @param ga  Game being saved
+     * @throws IOException if the file can't be written
+     * @since 2.4.50
+     */
+    private void printBoardSeed(final SOCGame ga) throws IOException {
+        final Long seed = ga.getBoardLayoutSeed();
+        if ((seed == null) || (dirName == null))
+            return;
+
+        BufferedWriter seedsOut = new BufferedWriter(new FileWriter(new File(dirName + BOARD_SEEDS_FILENAME + ".txt"), true));
+        try {
+            seedsOut.write(ga.getName() + DELIM + seed);
+            seedsOut.newLine();
+        } finally {
+            seedsOut.close();
+        }
+    }
+
     private void printStats(String gameName, String player, int victoryPoints) throws IOException {
         output.write(player + DELIM + (victoryPoints>=10 ? "1" : "0") + DELIM + victoryPoints + DELIM);			
         SOCPlayerStats s = stats.get(player);
@@ -0,0 +1,318 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package soc.server.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Small fixed-size pool of JDBC connections for {@link SOCDBHelper}'s frequent queries and updates,
+ * so that account lookups, login recording and game score writes from different threads
+ * don't have to take turns using a single connection.
+ *<P>
+ * Each {@link PooledConnection} caches its prepared statements by SQL text; see
+ * {@link PooledConnection#prepare(String)}. Connections are opened when first needed,
+ * up to the pool's maximum size. Callers must {@link #release(PooledConnection, boolean)}
+ * each connection they {@link #acquire()}, typically in a {@code finally} block:
+ *<pre>
+ *   PooledConnection pc = pool.acquire();
+ *   boolean failed = true;
+ *   try
+ *   {
+ *       PreparedStatement ps = pc.prepare(SQL);
+ *       ...
+ *       failed = false;
+ *   } finally {
+ *       pool.release(pc, failed);
+ *   }
+ *</pre>
+ * A connection released after an error is closed instead of being reused.
+ *<P>
+ * Thread-safe.
+ *
+ * @see SOCDBHelper#PROP_JSETTLERS_DB_POOL__SIZE
+ * @since 2.4.50
+ */
+public class SOCDBConnectionPool
+{
+    /**
+     * Opens new connections for a {@link SOCDBConnectionPool}.
+     */
+    public interface ConnectionFactory
+    {
+        /**
+         * Open a new connection to the database.
+         * @return the new connection
+         * @throws SQLException if the connection can't be opened
+         */
+        Connection newConnection()
+            throws SQLException;
+    }
+
+    /**
+     * One of the pool's connections, with its cache of prepared statements.
+     * Use only between {@link SOCDBConnectionPool#acquire()} and {@link SOCDBConnectionPool#release(PooledConnection, boolean)}.
+     */
+    public static final class PooledConnection
+    {
+        private final SOCDBConnectionPool pool;
+
+        private final Connection conn;
+
+        /** Prepared statements by their SQL text, or by SQL text plus generated-key column names */
+        private final Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+
+        PooledConnection(final SOCDBConnectionPool pool, final Connection conn)
+        {
+            this.pool = pool;
+            this.conn = conn;
+        }
+
+        /** The pool this connection came from, to release it to. */
+        public SOCDBConnectionPool getPool()
+        {
+            return pool;
+        }
+
+        /**
+         * Get this pooled connection's JDBC connection, for transactions and other calls
+         * which don't go through {@link #prepare(String)}.
+         * @return the connection; don't close it
+         */
+        public Connection getConnection()
+        {
+            return conn;
+        }
+
+        /**
+         * Get a prepared statement for some SQL on this connection, preparing it the first time.
+         * Its parameters keep their values from any previous use, so set them all before executing it.
+         * @param sql  SQL to prepare
+         * @return the statement; don't close it
+         * @throws SQLException if the statement can't be prepared
+         */
+        public PreparedStatement prepare(final String sql)
+            throws SQLException
+        {
+            PreparedStatement ps = statements.get(sql);
+            if (ps == null)
+            {
+                ps = conn.prepareStatement(sql);
+                statements.put(sql, ps);
+            }
+
+            return ps;
+        }
+
+        /**
+         * Get a prepared statement which returns generated keys, preparing it the first time.
+         * @param sql  SQL to prepare
+         * @param keyColumns  names of the generated key columns,
+         *     for {@link Connection#prepareStatement(String, String[])}
+         * @return the statement; don't close it
+         * @throws SQLException if the statement can't be prepared
+         */
+        public PreparedStatement prepare(final String sql, final String[] keyColumns)
+            throws SQLException
+        {
+            final String key = sql + '\n' + String.join(",", keyColumns);
+            PreparedStatement ps = statements.get(key);
+            if (ps == null)
+            {
+                ps = conn.prepareStatement(sql, keyColumns);
+                statements.put(key, ps);
+            }
+
+            return ps;
+        }
+
+        /** Number of statements prepared so far on this connection. */
+        public int getNumStatements()
+        {
+            return statements.size();
+        }
+
+        /** Close the cached statements and the connection, ignoring any errors. */
+        void close()
+        {
+            for (PreparedStatement ps : statements.values())
+                try
+                {
+                    ps.close();
+                } catch (SQLException e) {}
+            statements.clear();
+
+            try
+            {
+                conn.close();
+            } catch (SQLException e) {}
+        }
+    }
+
+    private final ConnectionFactory factory;
+
+    private final int maxSize;
+
+    /** Open connections not in use, most recently released last */
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<PooledConnection>();
+
+    /**
+     * Number of open connections, idle or in use.
+     * <B>Locks:</B> {@code this}, like {@link #idle} and {@link #closed}.
+     */
+    private int nOpen;
+
+    private boolean closed;
+
+    /**
+     * Create a pool; doesn't open any connections yet.
+     * @param factory  opens the pool's connections
+     * @param maxSize  most connections to have open at once; at least 1
+     * @throws IllegalArgumentException if {@code factory} is null or {@code maxSize} &lt; 1
+     */
+    public SOCDBConnectionPool(final ConnectionFactory factory, final int maxSize)
+        throws IllegalArgumentException
+    {
+        if (factory == null)
+            throw new IllegalArgumentException("factory");
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize: " + maxSize);
+
+        this.factory = factory;
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /** Number of connections currently open, whether idle or in use. */
+    public synchronized int getNumOpen()
+    {
+        return nOpen;
+    }
+
+    /**
+     * Get a connection for exclusive use until {@link #release(PooledConnection, boolean)}:
+     * An idle one if any, otherwise a new one if the pool isn't full,
+     * otherwise waits for another thread to release one.
+     * @return a connection
+     * @throws SQLException if a new connection can't be opened, the pool has been closed,
+     *     or the thread was interrupted while waiting
+     */
+    public PooledConnection acquire()
+        throws SQLException
+    {
+        synchronized (this)
+        {
+            while (true)
+            {
+                if (closed)
+                    throw new SQLException("Connection pool is closed");
+                if (! idle.isEmpty())
+                    return idle.removeLast();
+                if (nOpen < maxSize)
+                {
+                    ++nOpen;  // reserve our place, then open outside the lock
+                    break;
+                }
+
+                try
+                {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a DB connection");
+                }
+            }
+        }
+
+        try
+        {
+            return new PooledConnection(this, factory.newConnection());
+        } catch (SQLException e) {
+            synchronized (this)
+            {
+                --nOpen;
+                notify();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            synchronized (this)
+            {
+                --nOpen;
+                notify();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Return a connection from {@link #acquire()} to the pool.
+     * @param pc  the connection; does nothing if null
+     * @param failed  true if an error occurred while using {@code pc}: It will be closed instead of reused
+     * @throws IllegalArgumentException if {@code pc} is from a different pool
+     */
+    public void release(final PooledConnection pc, final boolean failed)
+        throws IllegalArgumentException
+    {
+        if (pc == null)
+            return;
+        if (pc.pool != this)
+            throw new IllegalArgumentException("pc from another pool");
+
+        final boolean keep;
+        synchronized (this)
+        {
+            keep = ! (failed || closed);
+            if (keep)
+                idle.addLast(pc);
+            else
+                --nOpen;
+            notify();
+        }
+
+        if (! keep)
+            pc.close();
+    }
+
+    /**
+     * Close the idle connections, and any in-use ones when they're released.
+     * Afterwards {@link #acquire()} will throw an exception.
+     */
+    public void close()
+    {
+        final PooledConnection[] toClose;
+        synchronized (this)
+        {
+            closed = true;
+            toClose = idle.toArray(new PooledConnection[idle.size()]);
+            nOpen -= toClose.length;
+            idle.clear();
+            notifyAll();
+        }
+
+        for (PooledConnection pc : toClose)
+            pc.close();
+    }
+
+}
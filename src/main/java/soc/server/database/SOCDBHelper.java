@@ -247,6 +247,47 @@ public class SOCDBHelper implements DBHelper
      */
     public static final String PROP_JSETTLERS_DB_SAVE_GAMES = "jsettlers.db.save.games";
 
+    /**
+     * Integer property {@code jsettlers.db.pool_size} to set the maximum number of DB connections
+     * in the pool used for frequent queries and updates like user lookups, login recording, and saving game scores.
+     * Default is {@link #POOL_SIZE_DEFAULT}; minimum is 1. These are in addition to the connection used
+     * for setup, schema upgrades, and other admin tasks.
+     * @see SOCDBConnectionPool
+     * @since 2.4.50
+     */
+    public static final String PROP_JSETTLERS_DB_POOL__SIZE = "jsettlers.db.pool_size";
+
+    /**
+     * Boolean property {@code jsettlers.db.async_writes} to save completed games' scores and users' win-loss counts
+     * in a background thread, retrying if needed, instead of in the game's thread.
+     * Set this to 1 or Y to activate this feature. Default is false.
+     *<P>
+     * When active, {@link #saveGameScores(SOCGame, int, boolean)} returns as soon as the save is queued,
+     * and any save errors are printed to {@link System#err} instead of being thrown.
+     * @see SOCDBWriteQueue
+     * @since 2.4.50
+     */
+    public static final String PROP_JSETTLERS_DB_ASYNC__WRITES = "jsettlers.db.async_writes";
+
+    /**
+     * Default maximum size of the connection pool: See {@link #PROP_JSETTLERS_DB_POOL__SIZE}.
+     * @since 2.4.50
+     */
+    public static final int POOL_SIZE_DEFAULT = 2;
+
+    /**
+     * For {@link #PROP_JSETTLERS_DB_ASYNC__WRITES}, most times to try saving a game's scores,
+     * and ms to wait before the first retry (doubled before each later retry).
+     * @since 2.4.50
+     */
+    private static final int ASYNC_WRITE_MAX_ATTEMPTS = 4, ASYNC_WRITE_RETRY_DELAY_MS = 500;
+
+    /**
+     * At {@link #cleanup(boolean) cleanup(true)}, most ms to wait for queued {@link #PROP_JSETTLERS_DB_ASYNC__WRITES}.
+     * @since 2.4.50
+     */
+    private static final int ASYNC_WRITE_SHUTDOWN_WAIT_MS = 10000;
+
     /**
      * Internal property name used to hold the <tt>--pw-reset</tt> command line argument's username.
      * When present at server startup, the server will prompt and reset the password if the user exists,
@@ -493,6 +534,32 @@ public class SOCDBHelper implements DBHelper
      */
     private Connection connection = null;
 
+    /**
+     * Pool of connections for frequent queries and updates like {@link #getUser(String)},
+     * {@link #recordLogin(String, String, long)} and {@link #saveGameScores(SOCGame, int, boolean)},
+     * each with its own cache of prepared statements. Setup, schema upgrade and other admin tasks
+     * use {@link #connection} instead.
+     *<P>
+     * Replaced in {@link #prepareStatements()} whenever {@link #connection} is opened or the schema is upgraded.
+     * Closed in {@link #cleanup(boolean)}. {@code null} if never connected.
+     * @see #poolSize
+     * @since 2.4.50
+     */
+    private volatile SOCDBConnectionPool pool = null;
+
+    /**
+     * Maximum size of {@link #pool}, from {@link #PROP_JSETTLERS_DB_POOL__SIZE}.
+     * @since 2.4.50
+     */
+    private int poolSize = POOL_SIZE_DEFAULT;
+
+    /**
+     * If {@link #PROP_JSETTLERS_DB_ASYNC__WRITES} is set, the queue for saving game scores; otherwise {@code null}.
+     * Created in {@link #initialize(String, String, Properties)}, shut down in {@link #cleanup(boolean) cleanup(true)}.
+     * @since 2.4.50
+     */
+    private SOCDBWriteQueue writeQueue = null;
+
     /**
      * Retain the URL (default, or passed via props to {@link #initialize(String, String, Properties)}).
      * Used in {@link #connect(String, String, String)}.
@@ -590,21 +657,21 @@ public class SOCDBHelper implements DBHelper
     private Properties props;
 
     /**
-     * {@link #createAccountCommand} for schema older than {@link #SCHEMA_VERSION_1200}.
+     * Create-account command in {@link #createAccount(String, String, String, String, long)} for schema older than {@link #SCHEMA_VERSION_1200}.
      * Before v1.2.00 this field was {@code CREATE_ACCOUNT_COMMAND}.
      */
     private static final String CREATE_ACCOUNT_COMMAND_1000 =
         "INSERT INTO users(nickname,host,password,email,lastlogin) VALUES (?,?,?,?,?);";
 
     /**
-     * {@link #createAccountCommand} for schema {@link #SCHEMA_VERSION_1200}.
+     * Create-account command in {@link #createAccount(String, String, String, String, long)} for schema {@link #SCHEMA_VERSION_1200}.
      * @since 1.2.00
      */
     private static final String CREATE_ACCOUNT_COMMAND_1200 =
         "INSERT INTO users(nickname,host,password,email,lastlogin,nickname_lc,pw_scheme,pw_store) VALUES (?,?,'!',?,?,?,?,?);";
 
     /**
-     * {@link #createAccountCommand} for schema &gt;= {@link #SCHEMA_VERSION_2000}.
+     * Create-account command in {@link #createAccount(String, String, String, String, long)} for schema &gt;= {@link #SCHEMA_VERSION_2000}.
      * @since 2.0.00
      */
     private static final String CREATE_ACCOUNT_COMMAND_2000 =
@@ -613,14 +680,14 @@ public class SOCDBHelper implements DBHelper
     private static final String RECORD_LOGIN_COMMAND = "INSERT INTO logins VALUES (?,?,?);";
 
     /**
-     * {@link #userPasswordQuery} for schema older than {@link #SCHEMA_VERSION_1200}.
+     * User password query in {@link #authenticateUserPassword(String, String, AuthPasswordRunnable)} for schema older than {@link #SCHEMA_VERSION_1200}.
      * Before v1.2.00 this field was {@code USER_PASSWORD_QUERY}.
      */
     private static final String USER_PASSWORD_QUERY_1000 =
         "SELECT nickname,password FROM users WHERE nickname = ? ;";
 
     /**
-     * {@link #userPasswordQuery} for schema &gt;= {@link #SCHEMA_VERSION_1200}.
+     * User password query in {@link #authenticateUserPassword(String, String, AuthPasswordRunnable)} for schema &gt;= {@link #SCHEMA_VERSION_1200}.
      * @since 1.2.00
      */
     private static final String USER_PASSWORD_QUERY_1200 =
@@ -633,7 +700,7 @@ public class SOCDBHelper implements DBHelper
     private static final String LASTLOGIN_UPDATE = "UPDATE users SET lastlogin = ?  WHERE nickname = ? ;";
 
     /**
-     * {@link #passwordUpdateCommand} for schema older than {@link #SCHEMA_VERSION_1200}.
+     * Password update command in {@link #updateUserPassword(String, String)} for schema older than {@link #SCHEMA_VERSION_1200}.
      * Before v1.2.00 this field was {@code PASSWORD_UPDATE}.
      * @since 1.1.20
      */
@@ -641,14 +708,14 @@ public class SOCDBHelper implements DBHelper
         "UPDATE users SET password = ? WHERE nickname = ? ;";
 
     /**
-     * {@link #passwordUpdateCommand} for schema &gt;= {@link #SCHEMA_VERSION_1200}.
+     * Password update command in {@link #updateUserPassword(String, String)} for schema &gt;= {@link #SCHEMA_VERSION_1200}.
      * @since 1.2.00
      */
     private static final String PASSWORD_UPDATE_COMMAND_1200 =
         "UPDATE users SET password = '!', pw_scheme = ?, pw_store = ? WHERE nickname_lc = ? ;";
 
     /**
-     * {@link #saveGameCommand} for schema older than {@link #SCHEMA_VERSION_1200}.
+     * Save-game command in {@link #saveGameScores(SOCGame, int, boolean)} for schema older than {@link #SCHEMA_VERSION_1200}.
      * Before v1.2.00 this field was {@code SAVE_GAME_COMMAND}.
      */
     private static final String SAVE_GAME_COMMAND_1000 =
@@ -656,7 +723,7 @@ public class SOCDBHelper implements DBHelper
         + " VALUES (?,?,?,?,?,?,?,?,?,?);";
 
     /**
-     * {@link #saveGameCommand} for schema {@link #SCHEMA_VERSION_1200}.
+     * Save-game command in {@link #saveGameScores(SOCGame, int, boolean)} for schema {@link #SCHEMA_VERSION_1200}.
      * @since 1.2.00
      */
     private static final String SAVE_GAME_COMMAND_1200 =
@@ -664,7 +731,7 @@ public class SOCDBHelper implements DBHelper
         + "starttime,duration_sec,winner,gameopts) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?);";
 
     /**
-     * {@link #saveGameCommand} for schema &gt;= {@link #SCHEMA_VERSION_2000}.
+     * Save-game command in {@link #saveGameScores(SOCGame, int, boolean)} for schema &gt;= {@link #SCHEMA_VERSION_2000}.
      * Primary key is in {@link #SAVE_GAME_COMMAND_2000_GEN_KEY}.
      * @see #SAVE_GAME_PLAYER_COMMAND
      * @since 2.0.00
@@ -673,14 +740,14 @@ public class SOCDBHelper implements DBHelper
         "INSERT INTO games2(gamename,starttime,duration_sec,winner,gameopts,scenario) VALUES (?,?,?,?,?,?);";
 
     /**
-     * Primary-key name array ({@code ["gameid"]}) for {@link #saveGameCommand}'s
+     * Primary-key name array ({@code ["gameid"]}) for the save-game command's
      * {@link Connection#prepareStatement(String, String[])} call.
      * @since 2.0.00
      */
     private static final String[] SAVE_GAME_COMMAND_2000_GEN_KEY = {"gameid"};
 
     /**
-     * Per-player {@link #saveGamePlayerCommand}, for use with {@link #SAVE_GAME_COMMAND_2000}.
+     * Per-player save-game command in {@link #saveGameScores(SOCGame, int, boolean)}, for use with {@link #SAVE_GAME_COMMAND_2000}.
      * @since 2.0.00
      */
     private static final String SAVE_GAME_PLAYER_COMMAND =
@@ -693,20 +760,20 @@ public class SOCDBHelper implements DBHelper
     private static final String USER_COUNT_QUERY = "SELECT count(*) FROM users;";
 
     /**
-     * {@link #userExistsQuery} for schema older than {@link #SCHEMA_VERSION_1200}.
+     * User-exists query in {@link #getUser(String)} for schema older than {@link #SCHEMA_VERSION_1200}.
      * Before v1.2.00 this field was {@code USER_EXISTS_QUERY}.
      * @since 1.1.20
      */
     private static final String USER_EXISTS_QUERY_1000 = "SELECT nickname FROM users WHERE nickname = ?;";
 
     /**
-     * {@link #userExistsQuery} for schema &gt;= {@link #SCHEMA_VERSION_1200}.
+     * User-exists query in {@link #getUser(String)} for schema &gt;= {@link #SCHEMA_VERSION_1200}.
      * @since 1.2.00
      */
     private static final String USER_EXISTS_QUERY_1200 = "SELECT nickname FROM users WHERE nickname_lc = ?;";
 
     /**
-     * {@link #userIncrWonCommand} for schema &gt;= {@link #SCHEMA_VERSION_2000}.
+     * Games-won update in {@link #saveGameScores(SOCGame, int, boolean)} for schema &gt;= {@link #SCHEMA_VERSION_2000}.
      * @see #USER_INCREMENT_LOST_COMMAND
      * @since 2.0.00
      */
@@ -714,79 +781,13 @@ public class SOCDBHelper implements DBHelper
         "UPDATE users SET games_won = 1 + coalesce(games_won, 0) WHERE nickname = ?;";
 
     /**
-     * {@link #userIncrLostCommand} for schema &gt;= {@link #SCHEMA_VERSION_2000}.
+     * Games-lost update in {@link #saveGameScores(SOCGame, int, boolean)} for schema &gt;= {@link #SCHEMA_VERSION_2000}.
      * @see #USER_INCREMENT_WON_COMMAND
      * @since 2.0.00
      */
     private static final String USER_INCREMENT_LOST_COMMAND =
         "UPDATE users SET games_lost = 1 + coalesce(games_lost, 0) WHERE nickname = ?;";
 
-    /** Create a new account in {@code users}: {@link #CREATE_ACCOUNT_COMMAND_2000} */
-    private PreparedStatement createAccountCommand = null;
-
-    private PreparedStatement recordLoginCommand = null;
-
-    /** Query whether a user nickname exists in {@code users}: {@link #USER_EXISTS_QUERY_1200} */
-    private PreparedStatement userExistsQuery = null;
-
-    /**
-     * If statement not {@code null}, add 1 to user's {@code games_won}: {@link #USER_INCREMENT_WON_COMMAND}.
-     * Is {@code null} if schema &lt; {@link #SCHEMA_VERSION_2000}.
-     * @see #userIncrLostCommand
-     */
-    private PreparedStatement userIncrWonCommand = null;
-
-    /**
-     * If statement not {@code null}, add 1 to user's {@code games_lost}: {@link #USER_INCREMENT_LOST_COMMAND}.
-     * Is {@code null} if schema &lt; {@link #SCHEMA_VERSION_2000}.
-     * @see #userIncrWonCommand
-     */
-    private PreparedStatement userIncrLostCommand = null;
-
-    /** Query for a user's password and original-cased nickname in {@code users}: {@link #USER_PASSWORD_QUERY_1200} */
-    private PreparedStatement userPasswordQuery = null;
-
-    private PreparedStatement userReminderDialogQuery = null;
-    private PreparedStatement userMustDoTrainingGameQuery = null;
-    private PreparedStatement hostQuery = null;
-    private PreparedStatement lastloginUpdate = null;
-
-    /**
-     * User password update in {@code users}: {@link #PASSWORD_UPDATE_COMMAND_1200}.
-     * Before v1.2.00 this field was {@code passwordUpdate}.
-     * @since 1.1.20
-     */
-    private PreparedStatement passwordUpdateCommand = null;
-
-    /**
-     * Completed-game info insert into {@code games2} or old-schema {@code games}: {@link #SAVE_GAME_COMMAND_2000}
-     * or {@link #SAVE_GAME_COMMAND_1200}.
-     * @see #saveGamePlayerCommand
-     */
-    private PreparedStatement saveGameCommand = null;
-
-    /**
-     * Completed-game per-player info insert into {@code games2_players}: {@link #SAVE_GAME_PLAYER_COMMAND}.
-     * {@code null} if schema is older than {@link #SCHEMA_VERSION_2000}.
-     * @see #saveGameCommand
-     * @since 2.0.00
-     */
-    private PreparedStatement saveGamePlayerCommand = null;
-
-    /** Query all robot parameters for a bot name; {@link #ROBOT_PARAMS_QUERY}.
-     *  Used in {@link #retrieveRobotParams(String)}.
-     */
-    private PreparedStatement robotParamsQuery = null;
-
-    private PreparedStatement showTradeReminderUpdate = null;
-
-    /** Query how many users, if any, exist in the {@code users} table: {@link #USER_COUNT_QUERY}.
-     *  @since 1.1.19
-     */
-    private PreparedStatement userCountQuery = null;
-
-    private PreparedStatement userMustDoTrainingGameUpdate = null;
-
     /****************************************
      * Connect and initialize, related methods and getters
      ****************************************/
@@ -953,6 +954,29 @@ public class SOCDBHelper implements DBHelper
             if ((pval != null) && ! pval.equals("write"))
                 throw new IllegalArgumentException
                     ("DB: Utility property " + PROP_JSETTLERS_DB_SETTINGS + "'s value must be \"write\"");
+
+            pval = dbProps.getProperty(PROP_JSETTLERS_DB_POOL__SIZE);
+            if ((pval != null) && (pval.trim().length() > 0))
+            {
+                int n = 0;
+                try
+                {
+                    n = Integer.parseInt(pval.trim());
+                } catch (NumberFormatException e) {}
+                if (n < 1)
+                    throw new IllegalArgumentException
+                        ("DB: Pool size must be an integer 1 or higher (" + PROP_JSETTLERS_DB_POOL__SIZE + ")");
+                poolSize = n;
+            }
+
+            pval = dbProps.getProperty(PROP_JSETTLERS_DB_ASYNC__WRITES);
+            if ((pval != null) && (writeQueue == null))
+            {
+                pval = pval.trim().toUpperCase(Locale.US);
+                if (pval.equals("Y") || pval.equals("1") || pval.equals("T") || pval.equals("TRUE"))
+                    writeQueue = new SOCDBWriteQueue
+                        ("SOCDBHelper-writes", ASYNC_WRITE_MAX_ATTEMPTS, ASYNC_WRITE_RETRY_DELAY_MS);
+            }
         }
 
         if (dbType == DBTYPE_UNKNOWN)
@@ -1229,18 +1253,10 @@ public class SOCDBHelper implements DBHelper
     {
         System.err.println("DB parameter: " + user + " " + pswd + " " + dbURL);
 
-        if (driverinstance == null) {
-            connection = DriverManager.getConnection(dbURL, user, pswd);
-        } else {
-            Properties dbProps = new Properties();
-            dbProps.put("user", user);
-            dbProps.put("password", pswd);
-            connection = driverinstance.connect(dbURL, dbProps);
-        }
-
-        errorCondition = false;
         dbcUserName = user;
         dbcPassword = pswd;
+        connection = openConnection();
+        errorCondition = false;
 
         if (setupScriptPath != null)
             runSetupScript(setupScriptPath);  // may throw IOException, SQLException
@@ -1251,6 +1267,26 @@ public class SOCDBHelper implements DBHelper
         return true;
     }
 
+    /**
+     * Open a new connection to {@link #dbURL} through {@link #driverinstance} if set,
+     * with the user and password from the most recent {@link #connect(String, String, String)}.
+     * Used for {@link #connection} and the connections in {@link #pool}.
+     * @return the new connection
+     * @throws SQLException if any connect error occurs
+     * @since 2.4.50
+     */
+    private Connection openConnection()
+        throws SQLException
+    {
+        if (driverinstance == null)
+            return DriverManager.getConnection(dbURL, dbcUserName, dbcPassword);
+
+        Properties dbProps = new Properties();
+        dbProps.put("user", dbcUserName);
+        dbProps.put("password", dbcPassword);
+        return driverinstance.connect(dbURL, dbProps);
+    }
+
     /**
      * Detect connected DB's {@link #schemaVersion} and check its upgrade status.
      * @throws SQLException if any unexpected problem occurs
@@ -1325,7 +1361,10 @@ public class SOCDBHelper implements DBHelper
     }
 
     /**
-     * Prepare statements like {@link #createAccountCommand} based on {@link #schemaVersion}.
+     * Start a new connection {@link #pool} for the current {@link #schemaVersion}, replacing any previous one,
+     * and check that its first connection can prepare the statements for
+     * methods like {@link #createAccount(String, String, String, String, long)}.
+     * Each pooled connection caches those statements the first time they're used.
      * @throws SQLFeatureNotSupportedException  if JDBC driver doesn't support {@link Statement#RETURN_GENERATED_KEYS}
      *     needed for schema v2.0.00. This is a subclass of {@link SQLException}.
      * @throws SQLException if any unexpected problem occurs during {@link Connection#prepareStatement(String)} calls
@@ -1334,42 +1373,122 @@ public class SOCDBHelper implements DBHelper
     private void prepareStatements()
         throws SQLFeatureNotSupportedException, SQLException
     {
-        createAccountCommand = connection.prepareStatement
-            ((schemaVersion >= SCHEMA_VERSION_2000)
-             ? CREATE_ACCOUNT_COMMAND_2000
-             : ((schemaVersion == SCHEMA_VERSION_1200) ? CREATE_ACCOUNT_COMMAND_1200 : CREATE_ACCOUNT_COMMAND_1000));
-        recordLoginCommand = connection.prepareStatement(RECORD_LOGIN_COMMAND);
-        userExistsQuery = connection.prepareStatement
-            ((schemaVersion >= SCHEMA_VERSION_1200) ? USER_EXISTS_QUERY_1200 : USER_EXISTS_QUERY_1000);
-        if (schemaVersion >= SCHEMA_VERSION_2000)
+        final SOCDBConnectionPool oldPool = pool;
+        if (oldPool != null)
+            oldPool.close();
+
+        final SOCDBConnectionPool newPool = new SOCDBConnectionPool(new SOCDBConnectionPool.ConnectionFactory()
         {
-            userIncrWonCommand = connection.prepareStatement(USER_INCREMENT_WON_COMMAND);
-            userIncrLostCommand = connection.prepareStatement(USER_INCREMENT_LOST_COMMAND);
-        }
-        userPasswordQuery = connection.prepareStatement
-            ((schemaVersion >= SCHEMA_VERSION_1200) ? USER_PASSWORD_QUERY_1200 : USER_PASSWORD_QUERY_1000);
-        userReminderDialogQuery = connection.prepareStatement(USER_REMINDER_DIALOG_QUERY);
-        userMustDoTrainingGameQuery = connection.prepareStatement(USER_MUST_DO_TRAINING_GAME_QUERY);
-        hostQuery = connection.prepareStatement(HOST_QUERY);
-        lastloginUpdate = connection.prepareStatement(LASTLOGIN_UPDATE);
-        showTradeReminderUpdate = connection.prepareStatement(SHOW_TRADE_REMINDER_UPDATE);
-        userMustDoTrainingGameUpdate = connection.prepareStatement(USER_MUST_DO_TRAINING_GAME_UPDATE);
-        passwordUpdateCommand = connection.prepareStatement
-            ((schemaVersion >= SCHEMA_VERSION_1200) ? PASSWORD_UPDATE_COMMAND_1200 : PASSWORD_UPDATE_COMMAND_1000);
-        if (schemaVersion < SCHEMA_VERSION_2000)
+            public Connection newConnection()
+                throws SQLException
+            {
+                return openConnection();
+            }
+        }, poolSize);
+
+        SOCDBConnectionPool.PooledConnection pc = newPool.acquire();
+        boolean failed = true;
+        try
         {
-            saveGameCommand = connection.prepareStatement
-                ((schemaVersion == SCHEMA_VERSION_1200) ? SAVE_GAME_COMMAND_1200 : SAVE_GAME_COMMAND_1000);
-        } else {
-            // use prepareStatement variant with primary-key field name array,
-            // not Statement.RETURN_GENERATED_KEYS, because postgres prefers it
-            // (per their developer comments) and other DBs are OK with it.
-            saveGameCommand = connection.prepareStatement
-                (SAVE_GAME_COMMAND_2000, SAVE_GAME_COMMAND_2000_GEN_KEY);
-            saveGamePlayerCommand = connection.prepareStatement(SAVE_GAME_PLAYER_COMMAND);
+            pc.prepare
+                ((schemaVersion >= SCHEMA_VERSION_2000)
+                 ? CREATE_ACCOUNT_COMMAND_2000
+                 : ((schemaVersion == SCHEMA_VERSION_1200) ? CREATE_ACCOUNT_COMMAND_1200 : CREATE_ACCOUNT_COMMAND_1000));
+            pc.prepare(RECORD_LOGIN_COMMAND);
+            pc.prepare(userExistsQuerySQL());
+            if (schemaVersion >= SCHEMA_VERSION_2000)
+            {
+                pc.prepare(USER_INCREMENT_WON_COMMAND);
+                pc.prepare(USER_INCREMENT_LOST_COMMAND);
+            }
+            pc.prepare(userPasswordQuerySQL());
+            pc.prepare(USER_REMINDER_DIALOG_QUERY);
+            pc.prepare(USER_MUST_DO_TRAINING_GAME_QUERY);
+            pc.prepare(HOST_QUERY);
+            pc.prepare(LASTLOGIN_UPDATE);
+            pc.prepare(SHOW_TRADE_REMINDER_UPDATE);
+            pc.prepare(USER_MUST_DO_TRAINING_GAME_UPDATE);
+            pc.prepare
+                ((schemaVersion >= SCHEMA_VERSION_1200) ? PASSWORD_UPDATE_COMMAND_1200 : PASSWORD_UPDATE_COMMAND_1000);
+            if (schemaVersion < SCHEMA_VERSION_2000)
+            {
+                pc.prepare
+                    ((schemaVersion == SCHEMA_VERSION_1200) ? SAVE_GAME_COMMAND_1200 : SAVE_GAME_COMMAND_1000);
+            } else {
+                // use prepareStatement variant with primary-key field name array,
+                // not Statement.RETURN_GENERATED_KEYS, because postgres prefers it
+                // (per their developer comments) and other DBs are OK with it.
+                pc.prepare(SAVE_GAME_COMMAND_2000, SAVE_GAME_COMMAND_2000_GEN_KEY);
+                pc.prepare(SAVE_GAME_PLAYER_COMMAND);
+            }
+            pc.prepare(ROBOT_PARAMS_QUERY);
+            pc.prepare(USER_COUNT_QUERY);
+            failed = false;
+        } finally {
+            newPool.release(pc, failed);
+            if (failed)
+                newPool.close();
         }
-        robotParamsQuery = connection.prepareStatement(ROBOT_PARAMS_QUERY);
-        userCountQuery = connection.prepareStatement(USER_COUNT_QUERY);
+
+        pool = newPool;
+    }
+
+    /**
+     * SQL to query whether a user exists, for the current {@link #schemaVersion}.
+     * @return {@link #USER_EXISTS_QUERY_1200} or {@link #USER_EXISTS_QUERY_1000}
+     * @since 2.4.50
+     */
+    private String userExistsQuerySQL()
+    {
+        return (schemaVersion >= SCHEMA_VERSION_1200) ? USER_EXISTS_QUERY_1200 : USER_EXISTS_QUERY_1000;
+    }
+
+    /**
+     * SQL to query a user's password, for the current {@link #schemaVersion}.
+     * @return {@link #USER_PASSWORD_QUERY_1200} or {@link #USER_PASSWORD_QUERY_1000}
+     * @since 2.4.50
+     */
+    private String userPasswordQuerySQL()
+    {
+        return (schemaVersion >= SCHEMA_VERSION_1200) ? USER_PASSWORD_QUERY_1200 : USER_PASSWORD_QUERY_1000;
+    }
+
+    /**
+     * Get a connection from {@link #pool} for a query or update.
+     * Must be returned afterwards with {@link #releaseConnection(SOCDBConnectionPool.PooledConnection, boolean)},
+     * typically in a {@code finally} block.
+     * Call {@link #checkConnection()} first.
+     * @return a connection from the pool
+     * @throws SQLException if the pool is closed or a new connection can't be opened
+     * @since 2.4.50
+     */
+    private SOCDBConnectionPool.PooledConnection acquireConnection()
+        throws SQLException
+    {
+        final SOCDBConnectionPool p = pool;
+        if (p == null)
+            throw new SQLException("Not connected");
+
+        return p.acquire();
+    }
+
+    /**
+     * Return a connection from {@link #acquireConnection()} to its pool,
+     * even if that pool has since been replaced.
+     * If {@code failed}, the connection is closed, and {@link #errorCondition} is set
+     * so the next query will check the main connection and start a new pool.
+     * @param pc  Connection to return, or {@code null}
+     * @param failed  True if a {@link SQLException} occurred while using {@code pc}
+     * @since 2.4.50
+     */
+    private void releaseConnection(final SOCDBConnectionPool.PooledConnection pc, final boolean failed)
+    {
+        if (pc == null)
+            return;
+
+        pc.getPool().release(pc, failed);
+        if (failed)
+            errorCondition = true;
     }
 
     /**
@@ -1523,15 +1642,26 @@ public class SOCDBHelper implements DBHelper
 
         if (schemaVersion >= SCHEMA_VERSION_1200)
             userName = userName.toLowerCase(Locale.US);
-        userExistsQuery.setString(1, userName);
 
-        ResultSet rs = userExistsQuery.executeQuery();
-        if (rs.next())
-            userName = rs.getString(1);
-        else
-            userName = null;
+        final SOCDBConnectionPool.PooledConnection pc = acquireConnection();
+        boolean ok = false;
+        try
+        {
+            final PreparedStatement userExistsQuery = pc.prepare(userExistsQuerySQL());
+            userExistsQuery.setString(1, userName);
+
+            ResultSet rs = userExistsQuery.executeQuery();
+            if (rs.next())
+                userName = rs.getString(1);
+            else
+                userName = null;
+
+            rs.close();
+            ok = true;
+        } finally {
+            releaseConnection(pc, ! ok);
+        }
 
-        rs.close();
         return userName;
     }
 
@@ -1587,8 +1717,12 @@ public class SOCDBHelper implements DBHelper
 
         if (checkConnection())
         {
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try
             {
+                pc = acquireConnection();
+                final PreparedStatement userPasswordQuery = pc.prepare(userPasswordQuerySQL());
                 dbUserName = (schemaVersion < SCHEMA_VERSION_1200) ? sUserName : sUserName.toLowerCase(Locale.US);
                 userPasswordQuery.setString(1, dbUserName);
 
@@ -1611,12 +1745,15 @@ public class SOCDBHelper implements DBHelper
                 }
 
                 resultSet.close();
+                ok = true;
             }
             catch (SQLException sqlE)
             {
                 errorCondition = true;
                 sqlE.printStackTrace();
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -1699,8 +1836,12 @@ public class SOCDBHelper implements DBHelper
         // ensure that the JDBC connection is still valid
         if (checkConnection())
         {
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try
             {
+                pc = acquireConnection();
+                final PreparedStatement userReminderDialogQuery = pc.prepare(USER_REMINDER_DIALOG_QUERY);
                 // fill in the data values to the Prepared statement
                 userReminderDialogQuery.setString(1, sUserName);
 
@@ -1714,12 +1855,15 @@ public class SOCDBHelper implements DBHelper
                 }
 
                 resultSet.close();
+                ok = true;
             }
             catch (SQLException sqlE)
             {
                 errorCondition = true;
                 sqlE.printStackTrace();
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -1740,7 +1884,11 @@ public class SOCDBHelper implements DBHelper
 
         // ensure that the JDBC connection is still valid
         if (checkConnection()) {
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try {
+                pc = acquireConnection();
+                final PreparedStatement userMustDoTrainingGameQuery = pc.prepare(USER_MUST_DO_TRAINING_GAME_QUERY);
                 // fill in the data values to the Prepared statement
                 userMustDoTrainingGameQuery.setString(1, sUserName);
 
@@ -1751,11 +1899,14 @@ public class SOCDBHelper implements DBHelper
                 if (resultSet.next())
                     val = resultSet.getBoolean(1);
                 resultSet.close();
+                ok = true;
             }
             catch (SQLException sqlE) {
                 errorCondition = true;
                 sqlE.printStackTrace();
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -1778,8 +1929,12 @@ public class SOCDBHelper implements DBHelper
 
         if (checkConnection())
         {
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try
             {
+                pc = acquireConnection();
+                final PreparedStatement hostQuery = pc.prepare(HOST_QUERY);
                 hostQuery.setString(1, host);
 
                 ResultSet resultSet = hostQuery.executeQuery();
@@ -1791,12 +1946,15 @@ public class SOCDBHelper implements DBHelper
                 }
 
                 resultSet.close();
+                ok = true;
             }
             catch (SQLException sqlE)
             {
                 errorCondition = true;
                 sqlE.printStackTrace();
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -1839,8 +1997,15 @@ public class SOCDBHelper implements DBHelper
 
         if (checkConnection())
         {
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try
             {
+                pc = acquireConnection();
+                final PreparedStatement createAccountCommand = pc.prepare
+                    ((schemaVersion >= SCHEMA_VERSION_2000)
+                     ? CREATE_ACCOUNT_COMMAND_2000
+                     : ((schemaVersion == SCHEMA_VERSION_1200) ? CREATE_ACCOUNT_COMMAND_1200 : CREATE_ACCOUNT_COMMAND_1000));
                 java.sql.Date sqlDate = new java.sql.Date(time);
                 Calendar cal = Calendar.getInstance();
 
@@ -1872,6 +2037,7 @@ public class SOCDBHelper implements DBHelper
 
                 createAccountCommand.executeUpdate();
 
+                ok = true;
                 return true;
             }
             catch (SQLException sqlE)
@@ -1879,6 +2045,8 @@ public class SOCDBHelper implements DBHelper
                 errorCondition = true;
                 sqlE.printStackTrace();
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -1900,8 +2068,12 @@ public class SOCDBHelper implements DBHelper
     {
         if (checkConnection())
         {
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try
             {
+                pc = acquireConnection();
+                final PreparedStatement recordLoginCommand = pc.prepare(RECORD_LOGIN_COMMAND);
                 java.sql.Date sqlDate = new java.sql.Date(time);
                 Calendar cal = Calendar.getInstance();
 
@@ -1911,6 +2083,7 @@ public class SOCDBHelper implements DBHelper
 
                 recordLoginCommand.executeUpdate();
 
+                ok = true;
                 return true;
             }
             catch (SQLException sqlE)
@@ -1918,6 +2091,8 @@ public class SOCDBHelper implements DBHelper
                 errorCondition = true;
                 sqlE.printStackTrace();
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -1938,8 +2113,12 @@ public class SOCDBHelper implements DBHelper
     {
         if (checkConnection())
         {
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try
             {
+                pc = acquireConnection();
+                final PreparedStatement lastloginUpdate = pc.prepare(LASTLOGIN_UPDATE);
                 java.sql.Date sqlDate = new java.sql.Date(time);
                 Calendar cal = Calendar.getInstance();
 
@@ -1948,6 +2127,7 @@ public class SOCDBHelper implements DBHelper
 
                 lastloginUpdate.executeUpdate();
 
+                ok = true;
                 return true;
             }
             catch (SQLException sqlE)
@@ -1955,6 +2135,8 @@ public class SOCDBHelper implements DBHelper
                 errorCondition = true;
                 sqlE.printStackTrace();
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -1978,14 +2160,19 @@ public class SOCDBHelper implements DBHelper
         // ensure that the JDBC connection is still valid
         if (checkConnection())
         {
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try
             {
+                pc = acquireConnection();
+                final PreparedStatement showTradeReminderUpdate = pc.prepare(SHOW_TRADE_REMINDER_UPDATE);
                 showTradeReminderUpdate.setBoolean(1, flag);
                 showTradeReminderUpdate.setString(2, userName);
 
                 // execute the Command
                 showTradeReminderUpdate.executeUpdate();
 
+                ok = true;
                 return true;
             }
             catch (SQLException sqlE)
@@ -1993,6 +2180,8 @@ public class SOCDBHelper implements DBHelper
                 errorCondition = true;
                 sqlE.printStackTrace();
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -2011,19 +2200,26 @@ public class SOCDBHelper implements DBHelper
     public boolean updateUserMustDoTrainingGame(String userName, boolean flag) throws SQLException {
         // ensure that the JDBC connection is still valid
         if (checkConnection()) {
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try {
+                pc = acquireConnection();
+                final PreparedStatement userMustDoTrainingGameUpdate = pc.prepare(USER_MUST_DO_TRAINING_GAME_UPDATE);
                 userMustDoTrainingGameUpdate.setBoolean(1, flag);
                 userMustDoTrainingGameUpdate.setString(2, userName);
 
                 // execute the Command
                 userMustDoTrainingGameUpdate.executeUpdate();
 
+                ok = true;
                 return true;
             }
             catch (SQLException sqlE) {
                 errorCondition = true;
                 sqlE.printStackTrace();
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -2060,8 +2256,14 @@ public class SOCDBHelper implements DBHelper
 
         if (schemaVersion >= SCHEMA_VERSION_1200)
             userName = userName.toLowerCase(Locale.US);
+
+        SOCDBConnectionPool.PooledConnection pc = null;
+        boolean ok = false;
         try
         {
+            pc = acquireConnection();
+            final PreparedStatement passwordUpdateCommand = pc.prepare
+                ((schemaVersion >= SCHEMA_VERSION_1200) ? PASSWORD_UPDATE_COMMAND_1200 : PASSWORD_UPDATE_COMMAND_1000);
             if (schemaVersion < SCHEMA_VERSION_1200)
             {
                 passwordUpdateCommand.setString(1, newPassword);
@@ -2082,6 +2284,7 @@ public class SOCDBHelper implements DBHelper
             }
             passwordUpdateCommand.executeUpdate();
 
+            ok = true;
             return true;
         }
         catch (SQLException sqlE)
@@ -2090,6 +2293,8 @@ public class SOCDBHelper implements DBHelper
             sqlE.printStackTrace();
 
             throw sqlE;
+        } finally {
+            releaseConnection(pc, ! ok);
         }
     }
 
@@ -2149,15 +2354,19 @@ public class SOCDBHelper implements DBHelper
      * For players whose users exist in the database, update their win-loss counts.
      *<P>
      * User win-loss records require schema version &gt;= {@link SOCDBHelper#SCHEMA_VERSION_2000}.
+     *<P>
+     * The game's data is read now, in the caller's thread. If {@link #PROP_JSETTLERS_DB_ASYNC__WRITES} is set,
+     * it's then written to the database in the background, retrying if the write fails,
+     * and this method returns without waiting for it.
      *
      * @param ga  Game that's just completed
      * @param gameLengthSeconds  Duration of game, from {@link SOCGame#getDurationSeconds()}
      * @param winLossOnly  If true don't store game details, only update users' win-loss counts.
      *     Caller should negate value of {@link #PROP_JSETTLERS_DB_SAVE_GAMES} to set this parameter.
      *
-     * @return true if the save succeeded
+     * @return true if the save succeeded, or was queued if async
      * @throws IllegalArgumentException if {@link SOCGame#getPlayerWithWin() ga.getPlayerWithWin()} is null
-     * @throws SQLException if an error occurs
+     * @throws SQLException if an error occurs; never thrown for async writes, whose errors are printed instead
      */
     public boolean saveGameScores
         (final SOCGame ga, final int gameLengthSeconds, final boolean winLossOnly)
@@ -2169,169 +2378,227 @@ public class SOCDBHelper implements DBHelper
 
         numGamesDone++;
 
-        if ((winLossOnly && (userIncrWonCommand == null))
+        if ((winLossOnly && (schemaVersion < SCHEMA_VERSION_2000))
             || ! checkConnection())
         {
             return false;  // <--- Early return: nothing to save, or conn was never initialized ---
         }
 
-        String[] names = new String[SOCGame.MAXPLAYERS];  // DB max 6; ga.maxPlayers max 4 or 6
-        short[] scores = new short[SOCGame.MAXPLAYERS];
-        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+        // Gather the game's data now, since the game may be gone by the time an async write runs
+
+        final int maxPlayers = ga.maxPlayers;
+        final String[] names = new String[SOCGame.MAXPLAYERS];  // DB max 6; ga.maxPlayers max 4 or 6
+        final short[] scores = new short[SOCGame.MAXPLAYERS];
+        final boolean[] vacant = new boolean[SOCGame.MAXPLAYERS];
+        for (int pn = 0; pn < maxPlayers; ++pn)
         {
             SOCPlayer pl = ga.getPlayer(pn);
             names[pn] = pl.getName();
             scores[pn] = (short) pl.getTotalVP();
+            vacant[pn] = ga.isSeatVacant(pn);
         }
 
-        try
+        final int db_max_players = (schemaVersion < SCHEMA_VERSION_1200) ? 4 : 6;
+        if ((! winLossOnly) && (maxPlayers > db_max_players)
+            && ! (vacant[4] && vacant[5]))
         {
-            int newGameID = -1;  // PK from insertGames2Row, unless winLossOnly
+            // Need to try and fit player 5 and/or player 6
+            // into the 4 db slots (backwards-compatibility)
+            saveGameScores_fit6pInto4(ga, names, scores);
+        }
 
-            if (! winLossOnly)
+        final String gaName = ga.getName();
+        final String winnerGameName = winner.getName();
+        final int winnerPN = winner.getPlayerNumber();
+        final long startTimeMillis = ga.getStartTime().getTime();
+        final SOCGameOptionSet opts = ga.getGameOptions();
+        final String optsStr = (opts == null)
+            ? null
+            : SOCGameOption.packOptionsToString(opts.getAll(), false, true);
+        final SOCGameOption scOpt = (opts != null) ? opts.get("SC") : null;
+        final String scen = (scOpt != null) ? scOpt.getStringValue() : null;
+        final boolean regularFlag = ga.isGameOptionSet("RG");
+
+        final SOCDBWriteQueue.Write write = new SOCDBWriteQueue.Write()
+        {
+            public void run()
+                throws SQLException
             {
-
-                final int db_max_players = (schemaVersion < SCHEMA_VERSION_1200) ? 4 : 6;
-                if ((ga.maxPlayers > db_max_players)
-                    && ! (ga.isSeatVacant(4) && ga.isSeatVacant(5)))
+                SOCDBConnectionPool.PooledConnection pc = acquireConnection();
+                boolean ok = false;
+                try
                 {
-                    // Need to try and fit player 5 and/or player 6
-                    // into the 4 db slots (backwards-compatibility)
-                    saveGameScores_fit6pInto4(ga, names, scores);
+                    if (schemaVersion >= SCHEMA_VERSION_2000)
+                        saveGameScores_transaction
+                            (pc, winLossOnly, names, scores, vacant, maxPlayers, gaName, winnerGameName, winnerPN,
+                             startTimeMillis, gameLengthSeconds, optsStr, scen);
+                    else if (! winLossOnly)
+                        saveGameScores_games
+                            (pc, names, scores, db_max_players, gaName, winnerGameName,
+                             startTimeMillis, gameLengthSeconds, optsStr, regularFlag);
+                    ok = true;
+                } finally {
+                    releaseConnection(pc, ! ok);
                 }
+            }
+        };
 
-                final String gaName = ga.getName();
-                final long startTimeMillis = ga.getStartTime().getTime();
-                final SOCGameOptionSet opts = ga.getGameOptions();
-                final String optsStr = (opts == null)
-                    ? null
-                    : SOCGameOption.packOptionsToString(opts.getAll(), false, true);
+        final SOCDBWriteQueue wq = writeQueue;
+        if ((wq != null) && wq.submit("game scores: " + gaName, write))
+            return true;
 
-                if (schemaVersion >= SCHEMA_VERSION_2000)
-                {
-                    SOCGameOption scOpt = opts.get("SC");
-                    final String scen = (scOpt != null) ? scOpt.getStringValue() : null;
+        try
+        {
+            write.run();
+        }
+        catch (SQLException sqlE)
+        {
+            errorCondition = true;
+            sqlE.printStackTrace();
+            throw sqlE;
+        }
 
-                    newGameID = insertGames2Row
-                        (gaName, winner.getName(), startTimeMillis, gameLengthSeconds, optsStr, scen);
+        return true;
+    }
 
-                    // Per-player scores will be stored below, in a transaction
+    /**
+     * For {@link #saveGameScores(SOCGame, int, boolean)} when schema &lt; {@link #SCHEMA_VERSION_2000}:
+     * Insert the game's row into the {@code games} table, which has no games2 table or win-loss counts.
+     * @param pc  Pooled connection to use
+     * @param names  Player names, from saveGameScores
+     * @param scores  Player scores, from saveGameScores
+     * @param db_max_players  Number of player columns in the table: 4, or 6 if schema &gt;= {@link #SCHEMA_VERSION_1200}
+     * @throws SQLException if an error occurs
+     * @since 2.4.50
+     */
+    private void saveGameScores_games
+        (final SOCDBConnectionPool.PooledConnection pc, final String[] names, final short[] scores,
+         final int db_max_players, final String gaName, final String winnerName,
+         final long startTimeMillis, final int gameLengthSeconds, final String optsStr, final boolean regularFlag)
+        throws SQLException
+    {
+        final PreparedStatement saveGameCommand = pc.prepare
+            ((schemaVersion == SCHEMA_VERSION_1200) ? SAVE_GAME_COMMAND_1200 : SAVE_GAME_COMMAND_1000);
 
-                } else {
-                    // schemaVersion < SCHEMA_VERSION_2000: no games2 table
-                    saveGameCommand.setString(1, gaName);
-                    int i = 2;
-
-                    for (int pn = 0; pn < db_max_players; ++i, ++pn)
-                        saveGameCommand.setString(i, names[pn]);
-                    for (int pn = 0; pn < db_max_players; ++i, ++pn)
-                        if ((scores[pn] != 0) || (names[pn] != null))
-                            saveGameCommand.setShort(i, scores[pn]);
-                        else
-                            saveGameCommand.setNull(i, Types.SMALLINT);
+        saveGameCommand.setString(1, gaName);
+        int i = 2;
 
-                    saveGameCommand.setTimestamp(i, new Timestamp(startTimeMillis));  ++i;
+        for (int pn = 0; pn < db_max_players; ++i, ++pn)
+            saveGameCommand.setString(i, names[pn]);
+        for (int pn = 0; pn < db_max_players; ++i, ++pn)
+            if ((scores[pn] != 0) || (names[pn] != null))
+                saveGameCommand.setShort(i, scores[pn]);
+            else
+                saveGameCommand.setNull(i, Types.SMALLINT);
 
-                    boolean regularFlag = ga.isGameOptionSet("RG");
-                    saveGameCommand.setBoolean(i, regularFlag);  ++i;  //---MG
+        saveGameCommand.setTimestamp(i, new Timestamp(startTimeMillis));  ++i;
 
-                    if (schemaVersion >= SCHEMA_VERSION_1200)
-                    {
-                        saveGameCommand.setInt(i, gameLengthSeconds);  ++i;
-                        saveGameCommand.setString(i, winner.getName());  ++i;
-                        saveGameCommand.setString(i, optsStr);  ++i;
-                    }
+        saveGameCommand.setBoolean(i, regularFlag);  ++i;  //---MG
 
-                    newGameID = 0;
+        if (schemaVersion >= SCHEMA_VERSION_1200)
+        {
+            saveGameCommand.setInt(i, gameLengthSeconds);  ++i;
+            saveGameCommand.setString(i, winnerName);  ++i;
+            saveGameCommand.setString(i, optsStr);  ++i;
+        }
 
-                    saveGameCommand.executeUpdate();
-                }
-            }
+        saveGameCommand.executeUpdate();
+    }
 
-            if (userIncrWonCommand != null)
-            {
-                // In a transaction:
-                // - Save per-player scores.
-                // - Update per-user win/loss records for any players who exist in DB
-                // Applies to schemaVersion >= SCHEMA_VERSION_2000
+    /**
+     * For {@link #saveGameScores(SOCGame, int, boolean)} when schema &gt;= {@link #SCHEMA_VERSION_2000}:
+     * In a transaction, so that a failed write can be retried:
+     *<UL>
+     * <LI> Unless {@code winLossOnly}, insert the game's {@code games2} row and per-player scores
+     * <LI> Update per-user win/loss records for any players who exist in DB
+     *</UL>
+     * @param pc  Pooled connection to use
+     * @param names  Player names, from saveGameScores
+     * @param scores  Player scores, from saveGameScores
+     * @param vacant  Whether each seat is vacant, from {@link SOCGame#isSeatVacant(int)}
+     * @param winnerGameName  Winner's name in the game, from {@link SOCPlayer#getName()}; may be null or ""
+     * @throws SQLException if an error occurs; the transaction is rolled back
+     * @since 2.4.50
+     */
+    private void saveGameScores_transaction
+        (final SOCDBConnectionPool.PooledConnection pc, final boolean winLossOnly,
+         final String[] names, final short[] scores, final boolean[] vacant, final int maxPlayers,
+         final String gaName, final String winnerGameName, final int winnerPN,
+         final long startTimeMillis, final int gameLengthSeconds, final String optsStr, final String scen)
+        throws SQLException
+    {
+        String winnerName = winnerGameName;
+        if ((winnerName == null) || winnerName.isEmpty())
+            winnerName = "?";  // could happen if disconnected before save
 
-                String winnerName = winner.getName();
-                if ((winnerName == null) || winnerName.isEmpty())
-                    winnerName = "?";  // could happen if disconnected before save
+        final Connection conn = pc.getConnection();
 
-                // begin transaction
-                final boolean wasConnAutocommit = enterTransactionMode();
+        // begin transaction
+        final boolean wasConnAutocommit = enterTransactionMode(conn);
 
-                try
-                {
-                    if (! winLossOnly)
-                    {
-                        // Per-player scores:
+        try
+        {
+            if (! winLossOnly)
+            {
+                final int newGameID = insertGames2Row
+                    (pc.prepare(SAVE_GAME_COMMAND_2000, SAVE_GAME_COMMAND_2000_GEN_KEY),
+                     gaName, winnerGameName, startTimeMillis, gameLengthSeconds, optsStr, scen);
 
-                        boolean hadAnyPlayers = false;
-                        saveGamePlayerCommand.clearBatch();
-                        for (int pn = 0; pn < ga.maxPlayers; ++pn)
-                        {
-                            if (ga.isSeatVacant(pn))
-                                continue;
-                            final String plName = names[pn];
-                            final int plScore = scores[pn];
-                            if ((plScore == 0) || (plName == null) || plName.isEmpty())
-                                continue;  // initial settlements give starting score of 2: no one would have 0 at game end
-
-                            hadAnyPlayers = true;
-                            saveGamePlayerCommand.setInt(1, newGameID);
-                            saveGamePlayerCommand.setString(2, plName);
-                            saveGamePlayerCommand.setInt(3, plScore);
-                            saveGamePlayerCommand.addBatch();
-                        }
-                        if (hadAnyPlayers)
-                            saveGamePlayerCommand.executeBatch();
-                    }
+                // Per-player scores:
 
-                    // Per-user win/loss records:
+                final PreparedStatement saveGamePlayerCommand = pc.prepare(SAVE_GAME_PLAYER_COMMAND);
+                boolean hadAnyPlayers = false;
+                saveGamePlayerCommand.clearBatch();
+                for (int pn = 0; pn < maxPlayers; ++pn)
+                {
+                    if (vacant[pn])
+                        continue;
+                    final String plName = names[pn];
+                    final int plScore = scores[pn];
+                    if ((plScore == 0) || (plName == null) || plName.isEmpty())
+                        continue;  // initial settlements give starting score of 2: no one would have 0 at game end
+
+                    hadAnyPlayers = true;
+                    saveGamePlayerCommand.setInt(1, newGameID);
+                    saveGamePlayerCommand.setString(2, plName);
+                    saveGamePlayerCommand.setInt(3, plScore);
+                    saveGamePlayerCommand.addBatch();
+                }
+                if (hadAnyPlayers)
+                    saveGamePlayerCommand.executeBatch();
+            }
 
-                    if ((winnerName != null) && (winnerName.length() > 0))
-                    {
-                        userIncrWonCommand.setString(1, winnerName);
-                        userIncrWonCommand.executeUpdate();
-                    }
+            // Per-user win/loss records:
 
-                    int nLost = 0;
-                    final int winnerPN = winner.getPlayerNumber();
-                    for (int pn = 0; pn < ga.maxPlayers; ++pn)
-                    {
-                        if ((pn == winnerPN) || ga.isSeatVacant(pn))
-                            continue;
-                        String pname = names[pn];
-                        if ((pname == null) || pname.isEmpty())
-                            continue;
-
-                        userIncrLostCommand.setString(1, pname);
-                        userIncrLostCommand.addBatch();
-                        ++nLost;
-                    }
-                    if (nLost > 0)
-                        userIncrLostCommand.executeBatch();
+            final PreparedStatement userIncrWonCommand = pc.prepare(USER_INCREMENT_WON_COMMAND);
+            userIncrWonCommand.setString(1, winnerName);
+            userIncrWonCommand.executeUpdate();
 
-                    connection.commit();
-                } catch (SQLException e) {
-                    connection.rollback();
-                    throw e;
-                } finally {
-                    exitTransactionMode(wasConnAutocommit);
-                }
+            final PreparedStatement userIncrLostCommand = pc.prepare(USER_INCREMENT_LOST_COMMAND);
+            userIncrLostCommand.clearBatch();
+            int nLost = 0;
+            for (int pn = 0; pn < maxPlayers; ++pn)
+            {
+                if ((pn == winnerPN) || vacant[pn])
+                    continue;
+                String pname = names[pn];
+                if ((pname == null) || pname.isEmpty())
+                    continue;
+
+                userIncrLostCommand.setString(1, pname);
+                userIncrLostCommand.addBatch();
+                ++nLost;
             }
+            if (nLost > 0)
+                userIncrLostCommand.executeBatch();
 
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            exitTransactionMode(conn, wasConnAutocommit);
         }
-        catch (SQLException sqlE)
-        {
-            errorCondition = true;
-            sqlE.printStackTrace();
-            throw sqlE;
-        }
-
-        return true;
     }
 
     /**
@@ -2513,11 +2780,12 @@ public class SOCDBHelper implements DBHelper
 
         if (checkConnection())
         {
-            if (robotParamsQuery == null)
-                return null;  // <--- Early return: Table not found in db, is probably empty ---
-
+            SOCDBConnectionPool.PooledConnection pc = null;
+            boolean ok = false;
             try
             {
+                pc = acquireConnection();
+                final PreparedStatement robotParamsQuery = pc.prepare(ROBOT_PARAMS_QUERY);
                 robotParamsQuery.setString(1, robotName);
 
                 ResultSet resultSet = robotParamsQuery.executeQuery();
@@ -2537,6 +2805,7 @@ public class SOCDBHelper implements DBHelper
                 }
 
                 resultSet.close();
+                ok = true;
             }
             catch (SQLException sqlE)
             {
@@ -2544,6 +2813,8 @@ public class SOCDBHelper implements DBHelper
                 sqlE.printStackTrace();
 
                 throw sqlE;
+            } finally {
+                releaseConnection(pc, ! ok);
             }
         }
 
@@ -2562,11 +2833,12 @@ public class SOCDBHelper implements DBHelper
         if (! checkConnection())
             return -1;
 
-        if (userCountQuery == null)
-            return -1;  // <--- Early return: Table not found in db, is probably empty ---
-
+        SOCDBConnectionPool.PooledConnection pc = null;
+        boolean ok = false;
         try
         {
+            pc = acquireConnection();
+            final PreparedStatement userCountQuery = pc.prepare(USER_COUNT_QUERY);
             ResultSet resultSet = userCountQuery.executeQuery();
 
             int count = -1;
@@ -2574,6 +2846,7 @@ public class SOCDBHelper implements DBHelper
                 count = resultSet.getInt(1);
 
             resultSet.close();
+            ok = true;
 
             return count;
         }
@@ -2583,6 +2856,8 @@ public class SOCDBHelper implements DBHelper
             sqlE.printStackTrace();
 
             throw sqlE;
+        } finally {
+            releaseConnection(pc, ! ok);
         }
     }
 
@@ -2935,30 +3210,24 @@ public class SOCDBHelper implements DBHelper
      * Insert a new game-info row into the {@code games2} table and return its generated ID.
      * Used by {@link #saveGameScores(SOCGame, int, boolean)}.
      *
+     * @param saveGameCommand  {@link #SAVE_GAME_COMMAND_2000} prepared on a pooled connection
+     *     with {@link #SAVE_GAME_COMMAND_2000_GEN_KEY}
      * @param startTimeMillis  Game start time, from {@link SOCGame#getStartTime()}{@link java.util.Date#getTime() .getTime()}
      * @param gameLengthSeconds  Game length, from {@link SOCGame#getDurationSeconds()}
      * @param optsStr  Null or game options, from {@link SOCGame#getGameOptions()}
      *     passed to {@link SOCGameOption#packOptionsToString(Map, boolean, boolean)}
      * @param scen  Scenario name key from game option {@code "SC"}, or {@code null} if none
      * @return  Newly inserted row's primary key ID
-     * @throws IllegalStateException  If not connected and if {@link #checkConnection()} fails
      * @throws UnsupportedOperationException if schema @lt; {@link #SCHEMA_VERSION_2000}
      * @throws SQLException if any unexpected database problem
      * @since 2.0.00
      */
     private int insertGames2Row
-        (final String gaName, final String winnerName, final long startTimeMillis, final int gameLengthSeconds,
+        (final PreparedStatement saveGameCommand,
+         final String gaName, final String winnerName, final long startTimeMillis, final int gameLengthSeconds,
          final String optsStr, final String scen)
-        throws IllegalStateException, UnsupportedOperationException, SQLException
+        throws UnsupportedOperationException, SQLException
     {
-        try
-        {
-            if (! checkConnection())
-                throw new IllegalStateException();
-        } catch (SQLException e) {
-            throw new IllegalStateException(e);
-        }
-
         if (schemaVersion < SCHEMA_VERSION_2000)
             throw new UnsupportedOperationException();
 
@@ -3149,17 +3418,31 @@ public class SOCDBHelper implements DBHelper
      */
     private boolean enterTransactionMode()
         throws SQLException
+    {
+        return enterTransactionMode(connection);
+    }
+
+    /**
+     * Puts a connection into transaction mode, like {@link #enterTransactionMode()} does for {@link #connection}.
+     * @param conn  Connection to use, such as one from {@link #pool}
+     * @return  Status value from {@link Connection#getAutoCommit()}, to pass to
+     *     {@link #exitTransactionMode(Connection, boolean)}
+     * @throws SQLException  if an unexpected DB error occurs or the connection is closed
+     * @since 2.4.50
+     */
+    private static boolean enterTransactionMode(final Connection conn)
+        throws SQLException
     {
         // Note: if this method's code changes, also update testDBHelper() to match.
 
-        final boolean wasConnAutocommit = connection.getAutoCommit();
+        final boolean wasConnAutocommit = conn.getAutoCommit();
 
         // begin transaction
         if (wasConnAutocommit)
-            connection.setAutoCommit(false);
+            conn.setAutoCommit(false);
         else
             try {
-                connection.commit();  // end previous transaction, if any
+                conn.commit();  // end previous transaction, if any
             } catch (SQLException e) {}
 
         return wasConnAutocommit;
@@ -3182,11 +3465,24 @@ public class SOCDBHelper implements DBHelper
      */
     private void exitTransactionMode(final boolean wasConnAutocommit)
         throws SQLException
+    {
+        exitTransactionMode(connection, wasConnAutocommit);
+    }
+
+    /**
+     * End transaction mode on a connection, like {@link #exitTransactionMode(boolean)} does for {@link #connection}.
+     * @param conn  Connection passed to {@link #enterTransactionMode(Connection)}
+     * @param wasConnAutocommit  The value returned from {@link #enterTransactionMode(Connection)}
+     * @throws SQLException  if an unexpected DB error occurs or the connection is closed
+     * @since 2.4.50
+     */
+    private static void exitTransactionMode(final Connection conn, final boolean wasConnAutocommit)
+        throws SQLException
     {
         // Note: if this method's code changes, also update testDBHelper() to match.
 
         if (wasConnAutocommit)
-            connection.setAutoCommit(true);
+            conn.setAutoCommit(true);
         // else,
         //   nothing to do since caller has called commit() or rollback()
     }
@@ -3813,6 +4109,14 @@ public class SOCDBHelper implements DBHelper
      */
     public void cleanup(final boolean isForShutdown)
     {
+        if (isForShutdown && (writeQueue != null))
+        {
+            // finish any queued game results while the pool's still open
+            if (! writeQueue.shutdown(ASYNC_WRITE_SHUTDOWN_WAIT_MS))
+                System.err.println("DB: Shutdown: Some queued writes were not completed");
+            writeQueue = null;
+        }
+
         try
         {
             if (! checkConnection())
@@ -3820,27 +4124,11 @@ public class SOCDBHelper implements DBHelper
         }
         catch (SQLException e) {}
 
-        try
-        {
-            createAccountCommand.close();
-            userPasswordQuery.close();
-            hostQuery.close();
-            lastloginUpdate.close();
-            showTradeReminderUpdate.close();
-            saveGameCommand.close();
-            if (saveGamePlayerCommand != null)
-                saveGamePlayerCommand.close();
-            robotParamsQuery.close();
-            userCountQuery.close();
-            userExistsQuery.close();
-            if (userIncrWonCommand != null)
-                userIncrWonCommand.close();
-            if (userIncrLostCommand != null)
-                userIncrLostCommand.close();
-        }
-        catch (Throwable thr)
+        final SOCDBConnectionPool p = pool;
+        if (p != null)
         {
-            ; /* ignore failures in query closes */
+            pool = null;
+            p.close();  // also closes its prepared statements
         }
 
         if (isForShutdown && (schemaUpgBGTasksThread != null) && schemaUpgBGTasksThread.isAlive())
@@ -3870,7 +4158,7 @@ public class SOCDBHelper implements DBHelper
     /**
      * As part of schema upgrade to 1200, encode passwords for a set of users.
      * Assumes their {@code pw_store} column is currently {@code null}.
-     * @param users  Usernames to encode passwords. These are used here with {@link #userPasswordQuery}, so
+     * @param users  Usernames to encode passwords. These are used here with the user password query, so
      *     if {@link #schemaVersion} &lt; {@link #SCHEMA_VERSION_1200} they must be case-sensitive for
      *     {@code users.nickname}, otherwise must be lowercase for {@code users.nickname_lc}.
      * @param sr  SecureRandom to use, or {@code null} for a new one
@@ -3892,6 +4180,7 @@ public class SOCDBHelper implements DBHelper
             System.err.println(beginText);
 
         Map<String, String> userConvPW = new HashMap<String, String>();
+        final PreparedStatement userPasswordQuery = connection.prepareStatement(userPasswordQuerySQL());
         for (String uname : users)
         {
             userPasswordQuery.setString(1, uname);
@@ -3917,6 +4206,7 @@ public class SOCDBHelper implements DBHelper
                     throw sqlE;
                 }
         }
+        userPasswordQuery.close();
 
         if (userConvPW.isEmpty())
         {
@@ -4392,16 +4682,14 @@ public class SOCDBHelper implements DBHelper
             return true;
         }
 
-        final PreparedStatement prevPS = saveGameCommand;
-
+        final PreparedStatement ps;
         try
         {
-            final PreparedStatement ps = (prepareWithArrayParam)
+            ps = (prepareWithArrayParam)
                 ? connection.prepareStatement
                     (SAVE_GAME_COMMAND_2000, new String[]{ "gameid" })
                 : connection.prepareStatement
                     (SAVE_GAME_COMMAND_2000, Statement.RETURN_GENERATED_KEYS);
-            saveGameCommand = ps;
         } catch(SQLFeatureNotSupportedException sfe) {
             System.err.println(testFailed + " (SQLFeatureNotSupportedException): " + testDesc + ": " + sfe);
             return false;
@@ -4421,7 +4709,7 @@ public class SOCDBHelper implements DBHelper
             // test insertGameRow a few times
             for (int i = 0; i < newIDs.length; ++i)
                 newIDs[i] = insertGames2Row
-                    ("db_testOne_ins" + i, "winner", startTimeMillis, i+1, null, null);
+                    (ps, "db_testOne_ins" + i, "winner", startTimeMillis, i+1, null, null);
 
             // check their IDs (reasonable gameid, can SELECT expected contents)
             for (int i = 0; i < newIDs.length; ++i)
@@ -4469,7 +4757,10 @@ public class SOCDBHelper implements DBHelper
                             ("* Cleanup failed: couldn't delete temporary games2 where gameid=" + id + ": " + e);
                     }
 
-            saveGameCommand = prevPS;
+            try
+            {
+                ps.close();
+            } catch (SQLException e) {}
         }
 
         System.err.println
@@ -0,0 +1,244 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package soc.server.database;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue of database writes done one at a time in a background thread, so the thread which
+ * submits them (a game ending, for example) doesn't wait for the database.
+ * A write which throws {@link SQLException} is retried a few times after increasing delays,
+ * then dropped with a message to {@link System#err}.
+ *<P>
+ * Writes are done in the order they're submitted.
+ * Thread-safe.
+ *
+ * @see SOCDBHelper#PROP_JSETTLERS_DB_ASYNC__WRITES
+ * @since 2.4.50
+ */
+public class SOCDBWriteQueue
+{
+    /**
+     * A database write for {@link SOCDBWriteQueue#submit(String, Write)}.
+     */
+    public interface Write
+    {
+        /**
+         * Do the write. Will be called again if it throws {@link SQLException},
+         * so should be safe to repeat after a failure, for example by using a transaction.
+         * @throws SQLException if the write fails
+         */
+        void run()
+            throws SQLException;
+    }
+
+    private final ExecutorService executor;
+
+    /** Most attempts for each write, at least 1 */
+    private final int maxAttempts;
+
+    /** Delay in ms before the first retry; doubles for each later retry */
+    private final long retryDelayMS;
+
+    /** Statistics; see getters. Only the queue's thread updates the volatile ones. */
+    private final AtomicInteger nSubmitted = new AtomicInteger();
+    private volatile int nDone, nFailed, nRetries;
+
+    /**
+     * Create and start a write queue.
+     * @param threadName  name for the queue's thread, which is a daemon thread
+     * @param maxAttempts  most times to try each write; at least 1
+     * @param retryDelayMS  ms to wait before retrying a failed write the first time;
+     *     the delay doubles before each later retry
+     */
+    public SOCDBWriteQueue(final String threadName, final int maxAttempts, final long retryDelayMS)
+    {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMS = retryDelayMS;
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            public Thread newThread(Runnable r)
+            {
+                Thread t = new Thread(r, threadName);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Queue a write to be done in the background.
+     * @param desc  short description of the write, for any error messages
+     * @param w  the write
+     * @return false if the queue has been shut down and {@code w} won't be done, true otherwise
+     */
+    public boolean submit(final String desc, final Write w)
+    {
+        try
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    runWrite(desc, w);
+                }
+            });
+        } catch (RuntimeException e) {
+            // RejectedExecutionException after shutdown
+            return false;
+        }
+
+        nSubmitted.incrementAndGet();
+        return true;
+    }
+
+    /** Do a write, retrying it if needed; called in the queue's thread. */
+    private void runWrite(final String desc, final Write w)
+    {
+        long delay = retryDelayMS;
+        for (int attempt = 1; ; ++attempt)
+        {
+            try
+            {
+                w.run();
+                ++nDone;
+                return;
+            } catch (SQLException e) {
+                if (attempt >= maxAttempts)
+                {
+                    ++nFailed;
+                    System.err.println("DB write failed after " + attempt + " attempts: " + desc + ": " + e);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                ++nFailed;
+                System.err.println("DB write failed: " + desc + ": " + e);
+                e.printStackTrace();
+                return;
+            }
+
+            ++nRetries;
+            try
+            {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                ++nFailed;
+                System.err.println("DB write abandoned at shutdown: " + desc);
+                return;
+            }
+            delay *= 2;
+        }
+    }
+
+    /**
+     * Wait until all writes submitted so far are done or have failed.
+     * @param timeoutMS  most ms to wait
+     * @return true if the queue became empty, false if timed out or interrupted, or the queue was shut down
+     */
+    public boolean flush(final long timeoutMS)
+    {
+        final Object done = new Object();
+        final boolean[] isDone = { false };
+        try
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    synchronized (done)
+                    {
+                        isDone[0] = true;
+                        done.notifyAll();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            return false;
+        }
+
+        final long until = System.currentTimeMillis() + timeoutMS;
+        synchronized (done)
+        {
+            while (! isDone[0])
+            {
+                final long wait = until - System.currentTimeMillis();
+                if (wait <= 0)
+                    return false;
+                try
+                {
+                    done.wait(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Stop accepting writes, and wait for queued ones to finish.
+     * @param timeoutMS  most ms to wait for queued writes; any still waiting afterwards are abandoned
+     * @return true if all queued writes finished in time
+     */
+    public boolean shutdown(final long timeoutMS)
+    {
+        executor.shutdown();
+        boolean finished = false;
+        try
+        {
+            finished = executor.awaitTermination(timeoutMS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (! finished)
+            executor.shutdownNow();
+
+        return finished;
+    }
+
+    /** Number of writes submitted so far. */
+    public int getNumSubmitted()
+    {
+        return nSubmitted.get();
+    }
+
+    /** Number of writes done successfully so far, including any which needed retries. */
+    public int getNumDone()
+    {
+        return nDone;
+    }
+
+    /** Number of writes which failed even after retrying, or were abandoned. */
+    public int getNumFailed()
+    {
+        return nFailed;
+    }
+
+    /** Total number of retries so far. */
+    public int getNumRetries()
+    {
+        return nRetries;
+    }
+
+}
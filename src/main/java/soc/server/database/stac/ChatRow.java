@@ -52,6 +52,18 @@ public class ChatRow {
 		this.message = msg.getNLChatString();
 	}
 
+	/**
+	 * For reading a row back from storage.
+	 */
+	ChatRow(long id, int current_state, String sender, String receivers, String raw, String message) {
+		this.id = id;
+		this.current_state = current_state;
+		this.sender = sender;
+		this.receivers = receivers;
+		this.raw = raw;
+		this.message = message;
+	}
+
 	public long getId() {
 		return id;
 	}
@@ -38,6 +38,8 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 	
 	StacDBHelper dbh;
 	FVGenerator gen;
+	/** All rows of the game being parsed, read in bulk by {@link #loadRows(int)} */
+	private DBGameRows rows;
 	
 	public DBGameParser() {
 		dbh = new StacDBHelper();
@@ -48,6 +50,7 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 	
 	public void close(){
 		dbh.disconnect();
+		rows = null;
 		gen = null;
 		dbh = null;
 	}
@@ -65,6 +68,8 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 	}
 	
 	public ArrayList<Sample> selectSamples(int gameID, int task){
+		if(!loadRows(gameID))
+			return new ArrayList<Sample>();
 		switch (task) {
 		case INITIAL_PLACEMENT:
 			return selectInitialPlacement(gameID);
@@ -84,6 +89,22 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 	}
 	
 	
+	/**
+	 * Read all rows of a game from the db with {@link DBGameRows#load(StacDBHelper, int)}, unless they're already loaded.
+	 * @param gameID
+	 * @return false if the rows couldn't be read
+	 */
+	private boolean loadRows(int gameID){
+		if(rows != null && rows.getGameID() == gameID)
+			return true;
+		rows = DBGameRows.load(dbh, gameID);
+		if(rows == null){
+			System.err.println("Could not read the rows of game " + gameID);
+			return false;
+		}
+		return true;
+	}
+	
 	/**
 	 * For selecting all the state action pairs from the initial placement phase; i.e. the two free initial settlements placements.
 	 * @param gameID
@@ -98,9 +119,9 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		ArrayList<Sample> listOfSamples = new ArrayList<Sample>();
 		
 		for(int i = 1; i < 24; i++){ //this is hardcoded since we don't want to loop over the entire game just to get the initial settlement placements
-			ogsr = dbh.selectOGSR(gameID, i);
-			egsr = dbh.selectEGSR(gameID, i);
-			gar = dbh.selectGAR(gameID, i + 1); //action executed from this state
+			ogsr = rows.getOGSR(i);
+			egsr = rows.getEGSR(i);
+			gar = rows.getGAR(i + 1); //action executed from this state
 		
 			if(ogsr.getGameState() == SOCGame.START1A || ogsr.getGameState() == SOCGame.START2A){
 				if(gar.getType() != GameActionRow.ENDTURN){
@@ -147,20 +168,20 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		double[] actionFeatures;
 		double[][] poss;
 		Catan game;
-		int tableSize = dbh.getTableSize(StacDBHelper.OBSFEATURESTABLE + gameID);
+		int tableSize = rows.getNumStates();
 		ArrayList<Sample> listOfSamples = new ArrayList<Sample>();
 		
 		for(int i = 1; i < tableSize; i++){
-			gar = dbh.selectGAR(gameID, i + 1); //action executed from this state
+			gar = rows.getGAR(i + 1); //action executed from this state
 			if(gar.getType() == GameActionRow.BUILDROAD){
-				ogsr = dbh.selectOGSR(gameID, i);
-				egsr = dbh.selectEGSR(gameID, i);
+				ogsr = rows.getOGSR(i);
+				egsr = rows.getEGSR(i);
 				//set the correct state
 				if(ogsr.getGameState() == SOCGame.START1B)
 					ogsr.setGameState(SOCGame.START1B);
 				else if(ogsr.getGameState() == SOCGame.START2B)
 					ogsr.setGameState(SOCGame.START2B);
-				else if(dbh.selectGAR(gameID, i).getType() == GameActionRow.PLAYROAD || dbh.selectGAR(gameID, i-1).getType() == GameActionRow.PLAYROAD)
+				else if(rows.getGAR(i).getType() == GameActionRow.PLAYROAD || rows.getGAR(i-1).getType() == GameActionRow.PLAYROAD)
 					ogsr.setGameState(SOCGame.PLACING_FREE_ROAD1);//free road 1 or free road 2 are the same thing as I am only interested in the next action
 				else //if it costs to build a road, ignore as the Normal one takes care of that
 					continue;
@@ -200,23 +221,23 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		double[] actionFeatures;
 		double[][] poss;
 		Catan game;
-		int tableSize = dbh.getTableSize(StacDBHelper.ACTIONSTABLE + gameID);
+		int tableSize = rows.getNumActions();
 		ArrayList<Sample> listOfSamples = new ArrayList<Sample>();
 		int[] brss;
 		int[] arss;
 		
 		for(int i = 1; i < tableSize; i++){
-			gar = dbh.selectGAR(gameID, i); //action executed from this state
+			gar = rows.getGAR(i); //action executed from this state
 		
 			if(gar.getType() == GameActionRow.DISCARD){
 				//get the state it was executed from
-				ogsr = dbh.selectOGSR(gameID, i-1);
-				egsr = dbh.selectEGSR(gameID, i-1);
+				ogsr = rows.getOGSR(i-1);
+				egsr = rows.getEGSR(i-1);
 				
 				for(int j = 0; j < 4 ; j++){
 					//for each player check if the rss hand was modified
 					brss = ogsr.getResources(j);
-					arss = dbh.selectOGSR(gameID, i).getResources(j);
+					arss = rows.getOGSR(i).getResources(j);
 					
 					if(!Arrays.equals(brss, arss)){
 						ogsr.setCurrentPlayer(j);//set the current player the one that executed the action so we can generate the list of possible options
@@ -256,16 +277,16 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		double[] actionFeatures;
 		double[][] poss;
 		Catan game;
-		int tableSize = dbh.getTableSize(StacDBHelper.ACTIONSTABLE + gameID);
+		int tableSize = rows.getNumActions();
 		ArrayList<Sample> listOfSamples = new ArrayList<Sample>();
 		
 		for(int i = 1; i < tableSize; i++){
-			gar = dbh.selectGAR(gameID, i); //action executed from this state
+			gar = rows.getGAR(i); //action executed from this state
 		
 			if(gar.getType() == GameActionRow.MOVEROBBER){
 				//get the state it was executed from
-				ogsr = dbh.selectOGSR(gameID, i-1);
-				egsr = dbh.selectEGSR(gameID, i-1);
+				ogsr = rows.getOGSR(i-1);
+				egsr = rows.getEGSR(i-1);
 				ogsr.setGameState(SOCGame.PLACING_ROBBER);
 				
 				actionFeatures = generateActionVector(gameID, ogsr, egsr, gar);
@@ -292,10 +313,10 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 					System.err.println("Missed move robber sample in game " + gameID + " before state row id " + (i-1));
 				}
 			}//there are cases where the MOVEROBBER is missed (i.e. included in choosePlayer)
-			else if(gar.getType() == GameActionRow.CHOOSEPLAYER && dbh.selectGAR(gameID, i-1).getType() != GameActionRow.MOVEROBBER){
+			else if(gar.getType() == GameActionRow.CHOOSEPLAYER && rows.getGAR(i-1).getType() != GameActionRow.MOVEROBBER){
 				//get the state it was executed from
-				ogsr = dbh.selectOGSR(gameID, i-1);
-				egsr = dbh.selectEGSR(gameID, i-1);
+				ogsr = rows.getOGSR(i-1);
+				egsr = rows.getEGSR(i-1);
 				ogsr.setGameState(SOCGame.PLACING_ROBBER);
 				
 				actionFeatures = generateActionVector(gameID, ogsr, egsr, gar);
@@ -338,11 +359,11 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		double[][] poss;
 		Catan game;
 		int startIndex = 1;
-		int tableSize = dbh.getTableSize(StacDBHelper.OBSFEATURESTABLE + gameID);
+		int tableSize = rows.getNumStates();
 		ArrayList<Sample> listOfSamples = new ArrayList<Sample>();
 		
-		for(int i = 1; i < dbh.getTableSize(StacDBHelper.ACTIONSTABLE + gameID); i++){
-			gar = dbh.selectGAR(gameID, i);
+		for(int i = 1; i < rows.getNumActions(); i++){
+			gar = rows.getGAR(i);
 			if(gar.getType() == GameActionRow.ROLL){
 				startIndex = i; //start from the next state following on the first roll
 				break;
@@ -350,9 +371,9 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		}
 		
 		for(int i = startIndex; i < tableSize; i++){
-			gar = dbh.selectGAR(gameID, i + 1); //action executed from this state
-			ogsr = dbh.selectOGSR(gameID, i);
-			egsr = dbh.selectEGSR(gameID, i);
+			gar = rows.getGAR(i + 1); //action executed from this state
+			ogsr = rows.getOGSR(i);
+			egsr = rows.getEGSR(i);
 			
 			if(gar.getType() == GameActionRow.ENDTURN || 
 					(gar.getType() >= GameActionRow.BUYDEVCARD && gar.getType() < GameActionRow.WIN && ogsr.getDiceResult() > 0)||
@@ -413,15 +434,15 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		double[][] poss;
 		Catan game;
 		int startIndex = 1;
-		int tableSize = dbh.getTableSize(StacDBHelper.ACTIONSTABLE + gameID);
+		int tableSize = rows.getNumActions();
 		ArrayList<Sample> listOfSamples = new ArrayList<Sample>();
 		
-		for(int i = 1; i < dbh.getTableSize(StacDBHelper.ACTIONSTABLE + gameID); i++){
-			gar = dbh.selectGAR(gameID, i);
+		for(int i = 1; i < rows.getNumActions(); i++){
+			gar = rows.getGAR(i);
 			if(gar.getType() == GameActionRow.ROLL){
 				startIndex = i - 1; //start before the first roll
-				ogsr = dbh.selectOGSR(gameID, startIndex);
-				egsr = dbh.selectEGSR(gameID, startIndex);
+				ogsr = rows.getOGSR(startIndex);
+				egsr = rows.getEGSR(startIndex);
 				ogsr.setGameState(SOCGame.ROLL_OR_CARD);
 				
 				actionFeatures = generateActionVector(gameID, ogsr, egsr, gar);
@@ -450,14 +471,14 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		}
 		
 		for(int i = startIndex; i < tableSize; i++){
-			gar = dbh.selectGAR(gameID, i); //action executed
+			gar = rows.getGAR(i); //action executed
 			if(gar.getType() == GameActionRow.ENDTURN){
 				//get the following state 
-				ogsr = dbh.selectOGSR(gameID, i);
-				egsr = dbh.selectEGSR(gameID, i);
-				if(dbh.selectGAR(gameID, i+1).getType() <= GameActionRow.PLAYKNIGHT){//ignore playing other dev cards in that moment
+				ogsr = rows.getOGSR(i);
+				egsr = rows.getEGSR(i);
+				if(rows.getGAR(i+1).getType() <= GameActionRow.PLAYKNIGHT){//ignore playing other dev cards in that moment
 					ogsr.setGameState(SOCGame.ROLL_OR_CARD);
-					actionFeatures = generateActionVector(gameID, ogsr, egsr, dbh.selectGAR(gameID, i + 1));
+					actionFeatures = generateActionVector(gameID, ogsr, egsr, rows.getGAR(i + 1));
 					//Note: there are some errors due to bugs in JSettlers logging, just ignore the samples with errors but try to gather as much as possible of the remaining ones
 					try {
 						game = StacDBToCatanInterface.generateGameFromDB(ogsr, egsr, StacDBToCatanInterface.translateJSStateToSS(ogsr.getGameState()));
@@ -521,7 +542,7 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		
 		if(gar.getType() == GameActionRow.ROLL){
 			bstateFeatures = gen.calculateStateVectorJS(ogsr, egsr);
-			astateFeatures = gen.calculateStateVectorJS(dbh.selectOGSR(gameID, ogsr.getID() + 1), dbh.selectEGSR(gameID, egsr.getID() + 1));
+			astateFeatures = gen.calculateStateVectorJS(rows.getOGSR(ogsr.getID() + 1), rows.getEGSR(egsr.getID() + 1));
 			actionFeatures = gen.computeActionVector(bstateFeatures, astateFeatures);
 			//turn it to double representation
 			for(int i= 0; i < actionFeatures.length; i++){
@@ -564,7 +585,7 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		}else if(gar.getType() == GameActionRow.BUYDEVCARD){
 			//TODO: test this once I the implementation that handles trades is finished
 			bstateFeatures = gen.calculateStateVectorJS(ogsr, egsr);
-			astateFeatures = gen.calculateStateVectorJS(dbh.selectOGSR(gameID, ogsr.getID() + 1), dbh.selectEGSR(gameID, egsr.getID() + 1));
+			astateFeatures = gen.calculateStateVectorJS(rows.getOGSR(ogsr.getID() + 1), rows.getEGSR(egsr.getID() + 1));
 			actionFeatures = gen.computeActionVector(bstateFeatures, astateFeatures);
 			//turn it to double
 			for(int i= 0; i < actionFeatures.length; i++){
@@ -606,8 +627,8 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 			}
 		}else if(gar.getType() == GameActionRow.CHOOSEPLAYER){
 			bstateFeatures = gen.calculateStateVectorJS(ogsr, egsr);
-			ObsGameStateRow afterOgsr = dbh.selectOGSR(gameID, ogsr.getID() + 1);
-			astateFeatures = gen.calculateStateVectorJS(afterOgsr, dbh.selectEGSR(gameID, egsr.getID() + 1));
+			ObsGameStateRow afterOgsr = rows.getOGSR(ogsr.getID() + 1);
+			astateFeatures = gen.calculateStateVectorJS(afterOgsr, rows.getEGSR(egsr.getID() + 1));
 			actionFeatures = gen.computeActionVector(bstateFeatures, astateFeatures);
 			//turn it to double
 			for(int i= 0; i < actionFeatures.length; i++){
@@ -645,15 +666,15 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		}else if(gar.getType() == GameActionRow.MOVEROBBER){
 			int ind = gar.getID(); //either the next one or the one after, depending if the database contains the choose player or not action?
 			for(int j = gar.getID() + 1; j < gar.getID() + 2; j++){
-				if(dbh.selectGAR(gameID, j).getType() == GameActionRow.CHOOSEPLAYER){
+				if(rows.getGAR(j).getType() == GameActionRow.CHOOSEPLAYER){
 					ind = j;
 					break;
 				}
 			}
 			
 			bstateFeatures = gen.calculateStateVectorJS(ogsr, egsr);
-			ObsGameStateRow afterOgsr = dbh.selectOGSR(gameID, ind);
-			astateFeatures = gen.calculateStateVectorJS(afterOgsr, dbh.selectEGSR(gameID, ind));
+			ObsGameStateRow afterOgsr = rows.getOGSR(ind);
+			astateFeatures = gen.calculateStateVectorJS(afterOgsr, rows.getEGSR(ind));
 			actionFeatures = gen.computeActionVector(bstateFeatures, astateFeatures);
 			//turn it to double
 			for(int i= 0; i < actionFeatures.length; i++){
@@ -692,15 +713,15 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 			//look for the choose player action in the next two steps to get the correct after-state
 			int ind = gar.getID() + 1;
 			for(int j = gar.getID() + 1; j < gar.getID() + 3; j++){
-				if(dbh.selectGAR(gameID, j).getType() == GameActionRow.CHOOSEPLAYER){
+				if(rows.getGAR(j).getType() == GameActionRow.CHOOSEPLAYER){
 					ind = j;
 					break;
 				}
 			}
 			
-			ObsGameStateRow afterOgsr = dbh.selectOGSR(gameID, ind);
+			ObsGameStateRow afterOgsr = rows.getOGSR(ind);
 			bstateFeatures = gen.calculateStateVectorJS(ogsr, egsr);
-			astateFeatures = gen.calculateStateVectorJS(afterOgsr, dbh.selectEGSR(gameID, ind));
+			astateFeatures = gen.calculateStateVectorJS(afterOgsr, rows.getEGSR(ind));
 			actionFeatures = gen.computeActionVector(bstateFeatures, astateFeatures);
 			//turn it to double
 			for(int i= 0; i < actionFeatures.length; i++){
@@ -739,8 +760,8 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
     		ret[NumericalFeatureVectorOffsets.OFS_ACT_CURRENTTURN] = -1;//ended turn, nothing else changed
 		}else{
 			bstateFeatures = gen.calculateStateVectorJS(ogsr, egsr);
-			ObsGameStateRow aogsr = dbh.selectOGSR(gameID, gar.getID());
-			ExtGameStateRow aegsr = dbh.selectEGSR(gameID, gar.getID());
+			ObsGameStateRow aogsr = rows.getOGSR(gar.getID());
+			ExtGameStateRow aegsr = rows.getEGSR(gar.getID());
 			aogsr.setCurrentPlayer(ogsr.getCurrentPlayer());//this is important for the initial phase when turns change at random
 			astateFeatures = gen.calculateStateVectorJS(aogsr, aegsr);
 			actionFeatures = gen.computeActionVector(bstateFeatures, astateFeatures);
@@ -776,6 +797,8 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 	 * @param gameID
 	 */
 	public Map<ArrayList<Integer>, ArrayList<Integer>> selectActionTypesCounts(int gameID){
+		if(!loadRows(gameID))
+			return new HashMap<>();
 		ObsGameStateRow ogsr;
 		ObsGameStateRow aogsr;
 		ExtGameStateRow egsr;
@@ -783,11 +806,11 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		Catan game;
 		int type = 0;
 		int startIndex = 1;
-		int tableSize = dbh.getTableSize(StacDBHelper.OBSFEATURESTABLE + gameID);
+		int tableSize = rows.getNumStates();
 		Map<ArrayList<Integer>, ArrayList<Integer>> stats = new HashMap<>();
 		
-		for(int i = 1; i < dbh.getTableSize(StacDBHelper.ACTIONSTABLE + gameID); i++){
-			gar = dbh.selectGAR(gameID, i);
+		for(int i = 1; i < rows.getNumActions(); i++){
+			gar = rows.getGAR(i);
 			if(gar.getType() == GameActionRow.ROLL){
 				startIndex = i; //start from the next state following on the first roll
 				break;
@@ -795,9 +818,9 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 		}
 		
 		for(int i = startIndex; i < tableSize; i++){
-			gar = dbh.selectGAR(gameID, i + 1); //action executed from this state
-			ogsr = dbh.selectOGSR(gameID, i);
-			egsr = dbh.selectEGSR(gameID, i);
+			gar = rows.getGAR(i + 1); //action executed from this state
+			ogsr = rows.getOGSR(i);
+			egsr = rows.getEGSR(i);
 			
 			if(gar.getType() == GameActionRow.ENDTURN || 
 					(gar.getType() >= GameActionRow.BUYDEVCARD && gar.getType() < GameActionRow.WIN && ogsr.getDiceResult() > 0)||
@@ -818,7 +841,7 @@ public class DBGameParser implements NumericalFeatureVectorOffsets,GameStateCons
 				if(type == A_TRADE) {
 					//find out if it is port trade or trade with an opponent
 					int cpn = ogsr.getCurrentPlayer();
-					aogsr = dbh.selectOGSR(gameID, i + 1); 
+					aogsr = rows.getOGSR(i + 1); 
 					boolean modified = false;
 					for(int n = 0; n < 4; n++) {
 						if(n == cpn)
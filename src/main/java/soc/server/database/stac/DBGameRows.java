@@ -0,0 +1,96 @@
+package soc.server.database.stac;
+
+/**
+ * All the obsGameStates, extGameStates and gameActions rows of one game, read with three bulk queries
+ * ({@link StacDBHelper#selectAllOGSRs(int)}, {@link StacDBHelper#selectAllEGSRs(int)}, {@link StacDBHelper#selectAllGARs(int)})
+ * instead of one query per row. The getters behave like the single-row selects: asking for a missing ID
+ * gives an empty row with just that ID.
+ */
+public class DBGameRows {
+	private final int gameID;
+	private final ObsGameStateRow[] ogsrs;
+	private final ExtGameStateRow[] egsrs;
+	private final GameActionRow[] gars;
+	private final int numStates, numActions;
+
+	private DBGameRows(int gameID, ObsGameStateRow[] ogsrs, ExtGameStateRow[] egsrs, GameActionRow[] gars) {
+		this.gameID = gameID;
+		this.ogsrs = ogsrs;
+		this.egsrs = egsrs;
+		this.gars = gars;
+		numStates = countRows(ogsrs);
+		numActions = countRows(gars);
+	}
+
+	/**
+	 * Read all rows of a game.
+	 * @param dbh a connected helper
+	 * @param gameID the game's id
+	 * @return the game's rows, or null if any of the queries failed
+	 */
+	public static DBGameRows load(StacDBHelper dbh, int gameID) {
+		ObsGameStateRow[] ogsrs = dbh.selectAllOGSRs(gameID);
+		ExtGameStateRow[] egsrs = dbh.selectAllEGSRs(gameID);
+		GameActionRow[] gars = dbh.selectAllGARs(gameID);
+		if (ogsrs == null || egsrs == null || gars == null)
+			return null;
+		return new DBGameRows(gameID, ogsrs, egsrs, gars);
+	}
+
+	private static int countRows(Object[] rows) {
+		int n = 0;
+		for (Object o : rows)
+			if (o != null)
+				n++;
+		return n;
+	}
+
+	public int getGameID() {
+		return gameID;
+	}
+
+	/**
+	 * @return the number of rows in the obsGameStates table, like {@link StacDBHelper#getTableSize(String)}
+	 */
+	public int getNumStates() {
+		return numStates;
+	}
+
+	/**
+	 * @return the number of rows in the gameActions table, like {@link StacDBHelper#getTableSize(String)}
+	 */
+	public int getNumActions() {
+		return numActions;
+	}
+
+	/**
+	 * @param id the id of the row
+	 * @return a copy of the row, which the caller may change, or an empty row if there's none with that id
+	 */
+	public ObsGameStateRow getOGSR(int id) {
+		if (id >= 0 && id < ogsrs.length && ogsrs[id] != null)
+			return ogsrs[id].copy();
+		return new ObsGameStateRow(id, "");
+	}
+
+	/**
+	 * @param id the id of the row
+	 * @return the row, which is shared and shouldn't be changed, or an empty row if there's none with that id
+	 */
+	public ExtGameStateRow getEGSR(int id) {
+		if (id >= 0 && id < egsrs.length && egsrs[id] != null)
+			return egsrs[id];
+		return new ExtGameStateRow(id, "");
+	}
+
+	/**
+	 * @param id the id of the row
+	 * @return the row, which is shared and shouldn't be changed, or an empty row if there's none with that id
+	 */
+	public GameActionRow getGAR(int id) {
+		if (id >= 0 && id < gars.length && gars[id] != null)
+			return gars[id];
+		return new GameActionRow(id);
+	}
+
+}
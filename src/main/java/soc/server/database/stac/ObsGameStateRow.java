@@ -556,6 +556,42 @@ public class ObsGameStateRow implements Serializable{
 		return result;
 	}
 	
+	/**
+	 * @return a copy of this row whose arrays can be changed without affecting this row,
+	 * for callers like {@link DBGameParser} which adjust the rows they read from {@link DBGameRows}
+	 */
+	public ObsGameStateRow copy(){
+		ObsGameStateRow c = new ObsGameStateRow(ID, gameName);
+		c.gameTurn = gameTurn;
+		c.robberHex = robberHex;
+		c.gameState = gameState;
+		c.devCardsLeft = devCardsLeft;
+		c.diceResult = diceResult;
+		c.startingPlayer = startingPlayer;
+		c.currentPlayer = currentPlayer;
+		c.playedDevCard = playedDevCard;
+		c.hexLayout = (hexLayout == null) ? null : hexLayout.clone();
+		c.numberLayout = (numberLayout == null) ? null : numberLayout.clone();
+		c.piecesOnBoard = copy2(piecesOnBoard);
+		c.players = copy2(players);
+		c.playersResources = copy2(playersResources);
+		if(touchingNumbers != null){
+			c.touchingNumbers = new Integer[touchingNumbers.length][][];
+			for(int i = 0; i < touchingNumbers.length; i++)
+				c.touchingNumbers[i] = copy2(touchingNumbers[i]);
+		}
+		return c;
+	}
+	
+	private static Integer[][] copy2(Integer[][] a){
+		if(a == null)
+			return null;
+		Integer[][] c = new Integer[a.length][];
+		for(int i = 0; i < a.length; i++)
+			c[i] = (a[i] == null) ? null : a[i].clone();
+		return c;
+	}
+	
 ////////////////////////////////////////////////////////////////////////////////////////////
 	/**
 	 * For debugging purposes.
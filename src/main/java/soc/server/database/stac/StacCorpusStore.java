@@ -0,0 +1,663 @@
+package soc.server.database.stac;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * File-based storage for the per-game obsGameStates, extGameStates, gameActions and chats tables,
+ * used by {@link StacDBHelper} instead of Postgres when its dbURL is {@code file:<directory>}.
+ * Collecting thousands of games then needs no database server and creates a handful of files
+ * instead of four tables per game.
+ *<P>
+ * Rows are appended to gzipped segment files ({@code segment-000001.gz}, ...) in the directory.
+ * A segment is never written again once closed: each process starts a new one, and a new one is started
+ * when the current one reaches {@link #SEGMENT_BYTES}, or before reading rows that are still in it.
+ * The directory's {@code index.txt} is an append-only log of which segments hold rows of each game,
+ * which tables exist, and the games' names.
+ *<P>
+ * Reading any table of a game reads all 4 tables of that game from its segments, and keeps the encoded rows
+ * of the last {@link #CACHED_GAMES} games in memory; each select decodes new row objects, like a db query would.
+ *<P>
+ * All methods are synchronized. Only one process at a time should write to a store.
+ */
+public class StacCorpusStore {
+	/** Start a new segment once this many bytes (before compression) have been written to the current one */
+	public static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+	/** Number of games whose rows are kept in memory after reading */
+	public static final int CACHED_GAMES = 4;
+
+	/** Table kinds, also used as the record type in segments */
+	static final int OBS = 0, EXT = 1, ACTION = 2, CHAT = 3;
+	private static final String[] PREFIXES = { StacDBHelper.OBSFEATURESTABLE, StacDBHelper.EXTFEATURESTABLE,
+		StacDBHelper.ACTIONSTABLE, StacDBHelper.CHATSTABLE };
+
+	private static final String INDEX_FILE = "index.txt";
+	private static final int NULL_ELEMENT = Integer.MIN_VALUE;
+
+	/** What the index says about one game */
+	private static final class GameInfo {
+		final TreeSet<Integer> segments = new TreeSet<Integer>();
+		final boolean[] exists = new boolean[PREFIXES.length];
+		/** For each table, rows in segments before this one were dropped */
+		final int[] dropBefore = new int[PREFIXES.length];
+		String name;
+	}
+
+	/** Encoded rows of one game's tables, by table kind then row ID */
+	private static final class GameRows {
+		@SuppressWarnings("unchecked")
+		final HashMap<Long, byte[]>[] rows = new HashMap[PREFIXES.length];
+		GameRows() {
+			for (int k = 0; k < rows.length; k++)
+				rows[k] = new HashMap<Long, byte[]>();
+		}
+	}
+
+	private final File dir;
+	private final PrintWriter index;
+	private final HashMap<Integer, GameInfo> games = new HashMap<Integer, GameInfo>();
+	private final LinkedHashMap<Integer, GameRows> cache = new LinkedHashMap<Integer, GameRows>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, GameRows> eldest) {
+			return size() > CACHED_GAMES;
+		}
+	};
+
+	/** Number of the segment being written, or of the next one to write if {@link #out} is null */
+	private int segment;
+	private DataOutputStream out;
+	private long segmentSize;
+
+	/**
+	 * Open or create a store.
+	 * @param dir the directory holding the store; created if needed
+	 * @throws IOException if the directory or its index can't be read or created
+	 */
+	public StacCorpusStore(File dir) throws IOException {
+		this.dir = dir;
+		if (!dir.isDirectory() && !dir.mkdirs())
+			throw new IOException("Can't create " + dir);
+
+		int lastSegment = 0;
+		File[] files = dir.listFiles();
+		for (File f : files) {
+			String n = f.getName();
+			if (n.startsWith("segment-") && n.endsWith(".gz"))
+				lastSegment = Math.max(lastSegment, Integer.parseInt(n.substring(8, n.length() - 3)));
+		}
+		segment = lastSegment + 1;
+
+		File indexFile = new File(dir, INDEX_FILE);
+		if (indexFile.exists())
+			readIndex(indexFile);
+		index = new PrintWriter(new FileWriter(indexFile, true));
+	}
+
+	private void readIndex(File indexFile) throws IOException {
+		BufferedReader r = new BufferedReader(new FileReader(indexFile));
+		try {
+			String line;
+			while ((line = r.readLine()) != null) {
+				String[] p = line.split(" ", 3);
+				if (p.length < 2)
+					continue;  // incomplete last line
+				GameInfo gi = info(Integer.parseInt(p[1]));
+				switch (p[0].charAt(0)) {
+				case 'S':  // S game segment
+					gi.segments.add(Integer.valueOf(p[2]));
+					break;
+				case 'C':  // C game kind
+					gi.exists[Integer.parseInt(p[2])] = true;
+					break;
+				case 'D':  // D game kind firstSegment
+					String[] kd = p[2].split(" ");
+					gi.exists[Integer.parseInt(kd[0])] = false;
+					gi.dropBefore[Integer.parseInt(kd[0])] = Integer.parseInt(kd[1]);
+					break;
+				case 'N':  // N game name
+					gi.name = p[2];
+					break;
+				}
+			}
+		} finally {
+			r.close();
+		}
+	}
+
+	private GameInfo info(int gameID) {
+		GameInfo gi = games.get(gameID);
+		if (gi == null) {
+			gi = new GameInfo();
+			games.put(gameID, gi);
+		}
+		return gi;
+	}
+
+	/**
+	 * @param tableName a per-game table name like {@code obsgamestates_12}, in any case
+	 * @return {kind, gameID}, or null if it isn't one of the per-game tables this store holds
+	 */
+	static int[] parseTableName(String tableName) {
+		String n = tableName.toLowerCase();
+		for (int k = 0; k < PREFIXES.length; k++) {
+			if (n.startsWith(PREFIXES[k])) {
+				try {
+					return new int[] { k, Integer.parseInt(n.substring(PREFIXES[k].length())) };
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			}
+		}
+		return null;
+	}
+
+	/** Finish the current segment, if any, so that its rows can be read by other processes too. */
+	public synchronized void finishSegment() {
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			out = null;
+			segment++;
+		}
+		index.flush();
+	}
+
+	/** Close the store for good. */
+	public synchronized void close() {
+		finishSegment();
+		index.close();
+	}
+
+	///// tables /////
+
+	public synchronized void createTable(int kind, int gameID) {
+		GameInfo gi = info(gameID);
+		if (!gi.exists[kind]) {
+			gi.exists[kind] = true;
+			index.println("C " + gameID + " " + kind);
+			index.flush();
+		}
+	}
+
+	public synchronized boolean tableExists(int kind, int gameID) {
+		GameInfo gi = games.get(gameID);
+		return gi != null && gi.exists[kind];
+	}
+
+	/** Drop a table: its rows so far won't be read again. */
+	public synchronized void dropTable(int kind, int gameID) {
+		GameInfo gi = info(gameID);
+		if (out != null && gi.segments.contains(segment))
+			finishSegment();  // so its rows are all in earlier segments
+		gi.exists[kind] = false;
+		gi.dropBefore[kind] = segment;
+		index.println("D " + gameID + " " + kind + " " + segment);
+		index.flush();
+		cache.remove(gameID);
+	}
+
+	/** @return the number of rows in a table */
+	public synchronized int getTableSize(int kind, int gameID) {
+		return read(gameID).rows[kind].size();
+	}
+
+	/** @return the game's name from its first stored obsGameStates row, or null if none */
+	public synchronized String getGameName(int gameID) {
+		GameInfo gi = games.get(gameID);
+		return (gi == null) ? null : gi.name;
+	}
+
+	/** @return the ID of the game with this name, or -1 if none */
+	public synchronized int getGameID(String name) {
+		for (Map.Entry<Integer, GameInfo> e : games.entrySet())
+			if (name.equals(e.getValue().name))
+				return e.getKey();
+		return -1;
+	}
+
+	///// writing /////
+
+	public void insertObsGameState(int gameID, ObsGameStateRow ogsr) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		DataOutputStream d = new DataOutputStream(bytes);
+		try {
+			d.writeInt(ogsr.getID());
+			writeString(d, ogsr.getGameName());
+			d.writeInt(ogsr.getGameTurn());
+			writeArray(d, ogsr.getHexLayout());
+			writeArray(d, ogsr.getNumberLayout());
+			d.writeInt(ogsr.getRobberHex());
+			d.writeInt(ogsr.getGameState());
+			d.writeInt(ogsr.getDevCardsLeft());
+			d.writeInt(ogsr.getDiceResult());
+			d.writeInt(ogsr.getStartingPlayer());
+			d.writeInt(ogsr.getCurrentPlayer());
+			d.writeBoolean(ogsr.hasPlayedDevCard());
+			writeArray(d, ogsr.getPiecesOnBoard());
+			writeArray(d, ogsr.getPlayers());
+			writeArray(d, ogsr.getPlayersResources());
+			writeArray(d, ogsr.getTouchingNumbers());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);  // can't happen with a byte array
+		}
+		synchronized (this) {
+			GameInfo gi = info(gameID);
+			if (gi.name == null && ogsr.getGameName() != null) {
+				gi.name = ogsr.getGameName();
+				index.println("N " + gameID + " " + gi.name);
+				index.flush();
+			}
+		}
+		append(OBS, gameID, bytes.toByteArray());
+	}
+
+	public void insertExtractedState(int gameID, ExtGameStateRow egsr) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		DataOutputStream d = new DataOutputStream(bytes);
+		try {
+			d.writeInt(egsr.getID());
+			writeString(d, egsr.getGameName());
+			writeArray(d, egsr.getPastTrades());
+			writeArray(d, egsr.getFutureTrades());
+			writeArray(d, egsr.getPastPBPs());
+			writeArray(d, egsr.getFuturePBPs());
+			writeArray(d, egsr.getETWs());
+			writeArray(d, egsr.getAvgETBs());
+			writeArray(d, egsr.getSettETBs());
+			writeArray(d, egsr.getRoadETBs());
+			writeArray(d, egsr.getCityETBs());
+			writeArray(d, egsr.getDevETBs());
+			writeArray(d, egsr.getTerritoryConnected());
+			writeArray(d, egsr.getTerritoryIsolated());
+			writeArray(d, egsr.getLongestRoads());
+			writeArray(d, egsr.getLongestPossibleRoads());
+			writeArray(d, egsr.getDistanceToOpponents());
+			writeArray(d, egsr.getDistanceToPort());
+			writeArray(d, egsr.getDistanceToNextLegalLoc());
+			writeArray(d, egsr.getRssTypeAndNumber());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		append(EXT, gameID, bytes.toByteArray());
+	}
+
+	public void insertAction(int gameID, GameActionRow gar) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		DataOutputStream d = new DataOutputStream(bytes);
+		try {
+			d.writeInt(gar.getID());
+			d.writeDouble(gar.getType());
+			d.writeInt(gar.getBeforeState());
+			d.writeInt(gar.getAfterState());
+			d.writeInt(gar.getValue());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		append(ACTION, gameID, bytes.toByteArray());
+	}
+
+	public void insertChat(int gameID, ChatRow row) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		DataOutputStream d = new DataOutputStream(bytes);
+		try {
+			d.writeLong(row.getId());
+			d.writeInt(row.getCurrentState());
+			writeString(d, row.getSender());
+			writeString(d, row.getReceivers());
+			writeString(d, row.getRaw());
+			writeString(d, row.getMessage());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		append(CHAT, gameID, bytes.toByteArray());
+	}
+
+	/**
+	 * Append an encoded row to the current segment: kind, gameID, row ID, payload length, payload.
+	 * The payload starts with the row ID.
+	 */
+	private synchronized void append(int kind, int gameID, byte[] payload) {
+		try {
+			if (out == null) {
+				File f = segmentFile(segment);
+				out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(f), 65536)));
+				segmentSize = 0;
+			}
+			GameInfo gi = info(gameID);
+			if (gi.segments.add(segment)) {
+				index.println("S " + gameID + " " + segment);
+				index.flush();
+			}
+			if (!gi.exists[kind]) {
+				gi.exists[kind] = true;
+				index.println("C " + gameID + " " + kind);
+				index.flush();
+			}
+			out.writeByte(kind);
+			out.writeInt(gameID);
+			out.writeInt(payload.length);
+			out.write(payload);
+			segmentSize += 9 + payload.length;
+
+			GameRows cached = cache.get(gameID);
+			if (cached != null)
+				cached.rows[kind].put(rowID(kind, payload), payload);
+
+			if (segmentSize >= SEGMENT_BYTES)
+				finishSegment();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private File segmentFile(int seg) {
+		return new File(dir, String.format("segment-%06d.gz", seg));
+	}
+
+	private static long rowID(int kind, byte[] payload) {
+		if (kind == CHAT)
+			return ((long) (payload[0] & 0xFF) << 56) | ((long) (payload[1] & 0xFF) << 48)
+				| ((long) (payload[2] & 0xFF) << 40) | ((long) (payload[3] & 0xFF) << 32)
+				| ((long) (payload[4] & 0xFF) << 24) | ((payload[5] & 0xFF) << 16)
+				| ((payload[6] & 0xFF) << 8) | (payload[7] & 0xFF);
+		return ((payload[0] & 0xFF) << 24) | ((payload[1] & 0xFF) << 16) | ((payload[2] & 0xFF) << 8) | (payload[3] & 0xFF);
+	}
+
+	///// reading /////
+
+	/**
+	 * Get the encoded rows of a game, reading them from its segments if they aren't cached.
+	 * Later rows with the same ID replace earlier ones.
+	 */
+	private GameRows read(int gameID) {
+		GameRows gr = cache.get(gameID);
+		if (gr != null)
+			return gr;
+
+		gr = new GameRows();
+		GameInfo gi = games.get(gameID);
+		if (gi != null) {
+			if (out != null && gi.segments.contains(segment))
+				finishSegment();
+			for (int seg : gi.segments)
+				readSegment(seg, gameID, gi, gr);
+		}
+		cache.put(gameID, gr);
+		return gr;
+	}
+
+	private void readSegment(int seg, int gameID, GameInfo gi, GameRows gr) {
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(segmentFile(seg)), 65536)));
+			while (true) {
+				int kind;
+				try {
+					kind = in.readByte();
+				} catch (EOFException e) {
+					break;
+				}
+				int g = in.readInt();
+				int len = in.readInt();
+				if (g != gameID || seg < gi.dropBefore[kind] || !gi.exists[kind]) {
+					while (len > 0) {
+						int n = in.skipBytes(len);
+						if (n <= 0)
+							throw new EOFException();
+						len -= n;
+					}
+					continue;
+				}
+				byte[] payload = new byte[len];
+				in.readFully(payload);
+				gr.rows[kind].put(rowID(kind, payload), payload);
+			}
+		} catch (EOFException e) {
+			System.err.println("Segment " + segmentFile(seg) + " ends early; ignoring its last row");
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			if (in != null)
+				try {
+					in.close();
+				} catch (IOException e) {}
+		}
+	}
+
+	/** @return the rows of a table in ID order, decoded as new objects */
+	private ArrayList<Object> selectAll(int kind, int gameID) {
+		ArrayList<Map.Entry<Long, byte[]>> entries = new ArrayList<Map.Entry<Long, byte[]>>(read(gameID).rows[kind].entrySet());
+		entries.sort(Map.Entry.comparingByKey());
+		ArrayList<Object> result = new ArrayList<Object>(entries.size());
+		for (Map.Entry<Long, byte[]> e : entries)
+			result.add(decode(kind, e.getValue()));
+		return result;
+	}
+
+	/** @return the row, or null if there's none with that ID */
+	private synchronized Object select(int kind, int gameID, long id) {
+		byte[] payload = read(gameID).rows[kind].get(id);
+		return (payload == null) ? null : decode(kind, payload);
+	}
+
+	public ObsGameStateRow selectOGSR(int gameID, int id) {
+		ObsGameStateRow ogsr = (ObsGameStateRow) select(OBS, gameID, id);
+		return (ogsr != null) ? ogsr : new ObsGameStateRow(id, "");
+	}
+
+	public ExtGameStateRow selectEGSR(int gameID, int id) {
+		ExtGameStateRow egsr = (ExtGameStateRow) select(EXT, gameID, id);
+		return (egsr != null) ? egsr : new ExtGameStateRow(id, "");
+	}
+
+	public GameActionRow selectGAR(int gameID, int id) {
+		GameActionRow gar = (GameActionRow) select(ACTION, gameID, id);
+		return (gar != null) ? gar : new GameActionRow(id);
+	}
+
+	public synchronized ObsGameStateRow[] selectAllOGSRs(int gameID) {
+		ArrayList<Object> rows = selectAll(OBS, gameID);
+		ObsGameStateRow[] byID = new ObsGameStateRow[rows.isEmpty() ? 0 : ((ObsGameStateRow) rows.get(rows.size() - 1)).getID() + 1];
+		for (Object o : rows)
+			byID[((ObsGameStateRow) o).getID()] = (ObsGameStateRow) o;
+		return byID;
+	}
+
+	public synchronized ExtGameStateRow[] selectAllEGSRs(int gameID) {
+		ArrayList<Object> rows = selectAll(EXT, gameID);
+		ExtGameStateRow[] byID = new ExtGameStateRow[rows.isEmpty() ? 0 : ((ExtGameStateRow) rows.get(rows.size() - 1)).getID() + 1];
+		for (Object o : rows)
+			byID[((ExtGameStateRow) o).getID()] = (ExtGameStateRow) o;
+		return byID;
+	}
+
+	public synchronized GameActionRow[] selectAllGARs(int gameID) {
+		ArrayList<Object> rows = selectAll(ACTION, gameID);
+		GameActionRow[] byID = new GameActionRow[rows.isEmpty() ? 0 : ((GameActionRow) rows.get(rows.size() - 1)).getID() + 1];
+		for (Object o : rows)
+			byID[((GameActionRow) o).getID()] = (GameActionRow) o;
+		return byID;
+	}
+
+	/** @return the chats of a game in ID order */
+	public synchronized ChatRow[] selectAllChats(int gameID) {
+		ArrayList<Object> rows = selectAll(CHAT, gameID);
+		return rows.toArray(new ChatRow[rows.size()]);
+	}
+
+	/** @return all the game's obsGameStates rows in this game state, in ID order */
+	public synchronized ObsGameStateRow[] getAllObsStatesOfAKind(int gameID, int gameState) {
+		ArrayList<ObsGameStateRow> found = new ArrayList<ObsGameStateRow>();
+		for (Object o : selectAll(OBS, gameID))
+			if (((ObsGameStateRow) o).getGameState() == gameState)
+				found.add((ObsGameStateRow) o);
+		return found.toArray(new ObsGameStateRow[found.size()]);
+	}
+
+	private static Object decode(int kind, byte[] payload) {
+		DataInputStream d = new DataInputStream(new ByteArrayInputStream(payload));
+		try {
+			switch (kind) {
+			case OBS: {
+				ObsGameStateRow ogsr = new ObsGameStateRow(d.readInt(), "");
+				ogsr.setGameName(readString(d));
+				ogsr.setGameTurn(d.readInt());
+				ogsr.setHexLayout(readArray1(d));
+				ogsr.setNumberLayout(readArray1(d));
+				ogsr.setRobberHex(d.readInt());
+				ogsr.setGameState(d.readInt());
+				ogsr.setDevCardsLeft(d.readInt());
+				ogsr.setDiceResult(d.readInt());
+				ogsr.setStartingPlayer(d.readInt());
+				ogsr.setCurrentPlayer(d.readInt());
+				ogsr.setPlayedDevCard(d.readBoolean());
+				Integer[][] pieces = readArray2(d);
+				if (pieces == null || pieces.length == 0) {
+					// same decoy as StacDBHelper.selectOGSR gives for an empty array
+					pieces = new Integer[1][3];
+					pieces[0] = new Integer[]{-1,-1,-1};
+				}
+				ogsr.setPiecesOnBoard(pieces);
+				ogsr.setPlayers(readArray2(d));
+				ogsr.setPlayersResources(readArray2(d));
+				ogsr.setTouchingNumbers(readArray3(d));
+				return ogsr;
+			}
+			case EXT: {
+				ExtGameStateRow egsr = new ExtGameStateRow(d.readInt(), "");
+				egsr.setGameName(readString(d));
+				egsr.setPastTrades(readArray2(d));
+				egsr.setFutureTrades(readArray2(d));
+				egsr.setPastPBPs(readArray2(d));
+				egsr.setFuturePBPs(readArray2(d));
+				egsr.setETWs(readArray1(d));
+				egsr.setAvgETBs(readArray2(d));
+				egsr.setSettETBs(readArray2(d));
+				egsr.setRoadETBs(readArray2(d));
+				egsr.setCityETBs(readArray2(d));
+				egsr.setDevETBs(readArray2(d));
+				egsr.setTerritoryConnected(readArray1(d));
+				egsr.setTerritoryIsolated(readArray1(d));
+				egsr.setLongestRoads(readArray1(d));
+				egsr.setLongestPossibleRoads(readArray1(d));
+				egsr.setDistanceToOpponents(readArray1(d));
+				egsr.setDistanceToPort(readArray1(d));
+				egsr.setDistanceToNextLegalLoc(readArray1(d));
+				egsr.setRssTypeAndNumber(readArray2(d));
+				return egsr;
+			}
+			case ACTION: {
+				GameActionRow gar = new GameActionRow(d.readInt());
+				gar.setType(d.readDouble());
+				gar.setBeforeState(d.readInt());
+				gar.setAfterState(d.readInt());
+				gar.setValue(d.readInt());
+				return gar;
+			}
+			default:
+				return new ChatRow(d.readLong(), d.readInt(), readString(d), readString(d), readString(d), readString(d));
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Corrupt row of kind " + kind, e);
+		}
+	}
+
+	///// encoding helpers /////
+
+	private static void writeString(DataOutputStream d, String s) throws IOException {
+		d.writeBoolean(s != null);
+		if (s != null)
+			d.writeUTF(s);
+	}
+
+	private static String readString(DataInputStream d) throws IOException {
+		return d.readBoolean() ? d.readUTF() : null;
+	}
+
+	private static void writeArray(DataOutputStream d, Integer[] a) throws IOException {
+		if (a == null) {
+			d.writeInt(-1);
+			return;
+		}
+		d.writeInt(a.length);
+		for (Integer i : a)
+			d.writeInt((i == null) ? NULL_ELEMENT : i);
+	}
+
+	private static void writeArray(DataOutputStream d, Integer[][] a) throws IOException {
+		if (a == null) {
+			d.writeInt(-1);
+			return;
+		}
+		d.writeInt(a.length);
+		for (Integer[] i : a)
+			writeArray(d, i);
+	}
+
+	private static void writeArray(DataOutputStream d, Integer[][][] a) throws IOException {
+		if (a == null) {
+			d.writeInt(-1);
+			return;
+		}
+		d.writeInt(a.length);
+		for (Integer[][] i : a)
+			writeArray(d, i);
+	}
+
+	private static Integer[] readArray1(DataInputStream d) throws IOException {
+		int n = d.readInt();
+		if (n == -1)
+			return null;
+		Integer[] a = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			int v = d.readInt();
+			a[i] = (v == NULL_ELEMENT) ? null : Integer.valueOf(v);
+		}
+		return a;
+	}
+
+	private static Integer[][] readArray2(DataInputStream d) throws IOException {
+		int n = d.readInt();
+		if (n == -1)
+			return null;
+		Integer[][] a = new Integer[n][];
+		for (int i = 0; i < n; i++)
+			a[i] = readArray1(d);
+		return a;
+	}
+
+	private static Integer[][][] readArray3(DataInputStream d) throws IOException {
+		int n = d.readInt();
+		if (n == -1)
+			return null;
+		Integer[][][] a = new Integer[n][][];
+		for (int i = 0; i < n; i++)
+			a[i] = readArray2(d);
+		return a;
+	}
+
+}
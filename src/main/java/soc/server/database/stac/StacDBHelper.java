@@ -18,6 +18,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Vector;
 
@@ -42,6 +43,16 @@ public class StacDBHelper{
 	private static final String driver = "org.postgresql.Driver";
 	//just a variable to know if we are connected or not
 	private boolean connected = false;
+	/**
+	 * Prefix of a dbURL naming a directory for a {@link StacCorpusStore}, like {@code file:/data/corpus},
+	 * instead of a Postgres db. The per-game tables are then kept in that store; the leagues, players
+	 * and game overview tables are only available from Postgres.
+	 */
+	public static final String FILE_URL_PREFIX = "file:";
+	//the file store, if dbURL starts with FILE_URL_PREFIX
+	private StacCorpusStore corpus = null;
+	//methods which need Postgres and were called in file mode, to warn only once for each
+	private final HashSet<String> unsupportedCalls = new HashSet<String>();
 	//sql commands/statements
 	Statement stmt = null;
     //table names;
@@ -57,6 +68,10 @@ public class StacDBHelper{
     public static final String SIMGAMESTABLE = "simulation_games";
 	//id of human games start from 1, simulation games start from 100
     public static final int SIMGAMESSTARTID = 100;
+    /**
+     * Number of rows fetched per round-trip by the bulk selects such as {@link #selectAllOGSRs(int)}.
+     */
+    public static final int BULK_FETCH_SIZE = 1000;
     
     /**
      * for quick testing
@@ -113,9 +128,31 @@ public class StacDBHelper{
 	}
 	
 	/**
-	 * Connect to the DB.
+	 * Initialise the variables directly instead of from db.config.txt.
+	 * @param url the db URL, or {@link #FILE_URL_PREFIX} and a directory
+	 * @param user the db user name; not needed for a file store
+	 * @param pass the db password; not needed for a file store
+	 */
+	public void initialize(String url, String user, String pass){
+		dbURL = url;
+		dbUser = user;
+		dbPass = pass;
+	}
+	
+	/**
+	 * Connect to the DB, or open the file store if dbURL starts with {@link #FILE_URL_PREFIX}.
 	 */
 	public void connect(){
+		if(dbURL != null && dbURL.startsWith(FILE_URL_PREFIX)){
+			try {
+				corpus = new StacCorpusStore(new File(dbURL.substring(FILE_URL_PREFIX.length())));
+				connected = true;
+			} catch (IOException e) {
+				System.err.println("Cannot open the corpus store:" + dbURL);
+				e.printStackTrace();
+			}
+			return;
+		}
 		if(dbURL == null){
 			System.err.println("DB URL was not provided");
 		}
@@ -140,6 +177,12 @@ public class StacDBHelper{
 	 * Disconnect.
 	 */
 	public void disconnect(){
+		if(corpus != null){
+			corpus.close();
+			corpus = null;
+			connected = false;
+			return;
+		}
 		try {
 			conn.close();
 			connected = false;
@@ -152,11 +195,36 @@ public class StacDBHelper{
 		return connected;
 	}
 	
+	/**
+	 * In file mode, warns the first time a method which needs Postgres is called.
+	 * @param method the method's name
+	 * @return true if using a file store, so the caller should return its failure value
+	 */
+	private boolean unsupported(String method){
+		if(corpus == null)
+			return false;
+		if(unsupportedCalls.add(method))
+			System.err.println("StacDBHelper." + method + " needs a Postgres db, not supported for " + dbURL);
+		return true;
+	}
+	
+	/**
+	 * @return the game's name in the file store, or empty string if it can't find it
+	 */
+	private String corpusGameName(int gameID){
+		String name = corpus.getGameName(gameID);
+		return (name == null) ? "" : name;
+	}
+	
 	/**
 	 * Creates the table containing the raw features collected from the logs. The table can be found in the db by the name: ObsGameStates_{gameID}.
 	 * @param gameID the ID of the game from the games table in the DB.
 	 */
 	public void createObsGameStateTable(int gameID){
+		if(corpus != null){
+			corpus.createTable(StacCorpusStore.OBS, gameID);
+			return;
+		}
 		try {
 			stmt = conn.createStatement();
         String sql = "CREATE TABLE ObsGameStates_" + gameID +
@@ -190,6 +258,10 @@ public class StacDBHelper{
 	 * @param gameID the ID of the game from the games table in the DB. 
 	 */
 	public void createExtractedStateTable(int gameID){
+		if(corpus != null){
+			corpus.createTable(StacCorpusStore.EXT, gameID);
+			return;
+		}
 		try {
 			stmt = conn.createStatement();
         String sql = "CREATE TABLE ExtGameStates_" + gameID +
@@ -229,6 +301,10 @@ public class StacDBHelper{
 	 * @param gameID the ID of the game from the games table in the DB.
 	 */
 	public void createActionTable(int gameID){
+		if(corpus != null){
+			corpus.createTable(StacCorpusStore.ACTION, gameID);
+			return;
+		}
 		try {
 			stmt = conn.createStatement();
         String sql = "CREATE TABLE GameActions_" + gameID +
@@ -250,6 +326,8 @@ public class StacDBHelper{
 	 * @param id the id of the simulation set
 	 */
 	public void createValueTable(int id){
+		if(unsupported("createValueTable"))
+			return;
 		try {
 			stmt = conn.createStatement();
         String sql = "CREATE TABLE StateValue_" + id +
@@ -269,6 +347,10 @@ public class StacDBHelper{
 	 * @param id the id of the simulation set
 	 */
 	public void createChatTable(int id){
+		if(corpus != null){
+			corpus.createTable(StacCorpusStore.CHAT, id);
+			return;
+		}
 		try {
 			stmt = conn.createStatement();
         String sql = "CREATE TABLE " + StacDBHelper.CHATSTABLE + id +
@@ -292,6 +374,10 @@ public class StacDBHelper{
 	 * @param ogsr the row to insert
 	 */
 	public void insertObsGameState(int gameID, ObsGameStateRow ogsr){
+		if(corpus != null){
+			corpus.insertObsGameState(gameID, ogsr);
+			return;
+		}
 		String sqlString = "INSERT INTO ObsGameStates_" + gameID + " (ID,NAME,GAMETURN,HEXLAYOUT,NUMBERLAYOUT,ROBBERHEX,GAMESTATE,DEVCARDSLEFT,DICERESULT," +
 				"STARTINGPLAYER,CURRENTPLAYER,PLAYEDDEVCARD,PIECESONBOARD,PLAYERSRESOURCES,PLAYERS,TOUCHINGNUMBERS) "
 				+ "VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?);";
@@ -325,6 +411,8 @@ public class StacDBHelper{
 	 * @param vp the array with the players' final victory points
 	 */
 	public void insertSimGameOverview(String gaName, int[] vp, int nbsteps){
+		if(unsupported("insertSimGameOverview"))
+			return;
 		int gameID = SIMGAMESSTARTID + Integer.parseInt(gaName.split("_")[1]);
 		try {
 			String sqlString = "INSERT INTO " + SIMGAMESTABLE + " (ID,NAME,PLAYER1,SCORE1,PLAYER2,SCORE2,PLAYER3,SCORE3,PLAYER4,SCORE4,NBSTEPS) "
@@ -357,6 +445,10 @@ public class StacDBHelper{
 	 * @param egsr the row to insert
 	 */
 	public void insertExtractedState(int gameID, ExtGameStateRow egsr){
+		if(corpus != null){
+			corpus.insertExtractedState(gameID, egsr);
+			return;
+		}
 		String sqlString = "INSERT INTO ExtGameStates_" + gameID + " (ID,NAME,PASTTRADES,FUTURETRADES,PASTPBP,FUTUREPBP,ETW,AVGETB,SETTLEMENTETB," +
 				"ROADETB,CITYETB,DEVCARDETB,CONNTERR,NOTISOTERR,LONGESTROADS,LONGESTPOSROADS,DISTTOOPP,DISTTOPORT,DISTTOLEGAL,RSSTYPEANDNO)"
 				+ "VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?);";
@@ -394,6 +486,10 @@ public class StacDBHelper{
 	 * @param gar the row to insert
 	 */
 	public void insertAction(int gameID, GameActionRow gar){
+		if(corpus != null){
+			corpus.insertAction(gameID, gar);
+			return;
+		}
 		String sqlString = "INSERT INTO GameActions_" + gameID + " (ID,TYPE,BEFORESTATE,AFTERSTATE,VALUE)"
 				+ "VALUES (?,?,?,?,?);";
 		try(PreparedStatement ps = conn.prepareStatement(sqlString)) {
@@ -415,6 +511,8 @@ public class StacDBHelper{
 	 * @param row the row to insert
 	 */
 	public void insertStateValue(int id, StateValueRow row){
+		if(unsupported("insertStateValue"))
+			return;
 		
 		try {
 			String sqlString = "INSERT INTO StateValue_" + id + " (ID,STATE,VALUE)"
@@ -438,6 +536,10 @@ public class StacDBHelper{
 	 * @param row the row to insert
 	 */
 	public void insertChat(int id, ChatRow row){
+		if(corpus != null){
+			corpus.insertChat(id, row);
+			return;
+		}
 		
 		try {
 			String sqlString = "INSERT INTO " + StacDBHelper.CHATSTABLE + id
@@ -463,6 +565,14 @@ public class StacDBHelper{
 	 * @param tableName the name of the table to drop
 	 */
 	public void dropTable(String tableName){
+		if(corpus != null){
+			int[] t = StacCorpusStore.parseTableName(tableName);
+			if(t != null)
+				corpus.dropTable(t[0], t[1]);
+			else
+				unsupported("dropTable");
+			return;
+		}
 		
 		try {
 			String sqlString = "DROP TABLE " + tableName + ";";
@@ -482,6 +592,8 @@ public class StacDBHelper{
 	 * @param tableName the name of the table containing the row
 	 */
 	public void deleteRowInTable(int rowID, String tableName){
+		if(unsupported("deleteRowInTable"))
+			return;
 		
 		try {
 			String sqlString = "DELETE FROM " + tableName + " WHERE id=" + rowID + ";";
@@ -502,31 +614,15 @@ public class StacDBHelper{
 	 * @return the row as a {@link ExtGameStateRow} object
 	 */
 	public ExtGameStateRow selectEGSR(int gameID, int egsrID){
+		if(corpus != null)
+			return corpus.selectEGSR(gameID, egsrID);
 		ExtGameStateRow egsr = new ExtGameStateRow(egsrID, "");
 		try {
 			stmt = conn.createStatement();
 		    ResultSet rs = stmt.executeQuery( "SELECT * FROM " + StacDBHelper.EXTFEATURESTABLE + gameID + " WHERE ID=" + egsrID +";");
 		    while ( rs.next() ) {
 		    	//should only be one as ID is a unique primary key;
-		    	egsr.setGameName(rs.getString("name"));
-		    	egsr.setPastTrades((Integer[][]) rs.getArray("pasttrades").getArray());
-		    	egsr.setFutureTrades((Integer[][]) rs.getArray("futuretrades").getArray());
-		    	egsr.setPastPBPs((Integer[][]) rs.getArray("pastpbp").getArray());
-		    	egsr.setFuturePBPs((Integer[][]) rs.getArray("futurepbp").getArray());
-		    	egsr.setETWs((Integer[]) rs.getArray("etw").getArray());
-		    	egsr.setAvgETBs((Integer[][]) rs.getArray("avgetb").getArray());
-		    	egsr.setSettETBs((Integer[][]) rs.getArray("settlementetb").getArray());
-		    	egsr.setRoadETBs((Integer[][]) rs.getArray("roadetb").getArray());
-		    	egsr.setCityETBs((Integer[][]) rs.getArray("cityetb").getArray());
-		    	egsr.setDevETBs((Integer[][]) rs.getArray("devcardetb").getArray());
-		    	egsr.setTerritoryConnected((Integer[]) rs.getArray("connterr").getArray());
-		    	egsr.setTerritoryIsolated((Integer[]) rs.getArray("notisoterr").getArray());
-		    	egsr.setLongestRoads((Integer[]) rs.getArray("longestroads").getArray());
-		    	egsr.setLongestPossibleRoads((Integer[]) rs.getArray("longestposroads").getArray());
-		    	egsr.setDistanceToOpponents((Integer[]) rs.getArray("disttoopp").getArray());
-		    	egsr.setDistanceToPort((Integer[]) rs.getArray("disttoport").getArray());
-		    	egsr.setDistanceToNextLegalLoc((Integer[]) rs.getArray("disttolegal").getArray());
-		    	egsr.setRssTypeAndNumber((Integer[][]) rs.getArray("rsstypeandno").getArray());
+		    	readEGSR(rs, egsr);
 		    }
 		    rs.close();
 		    stmt.close();
@@ -537,6 +633,63 @@ public class StacDBHelper{
 		return egsr;
 	}
 	
+	/**
+	 * Selects all rows from the extGameStates_{gameID} table with a single ordered query,
+	 * reading them in batches of {@link #BULK_FETCH_SIZE} instead of one round-trip per row.
+	 * @param gameID the id of the table
+	 * @return the rows indexed by their ID, with null for any missing IDs; or null if an Sql exception gets thrown
+	 * @see DBGameRows
+	 */
+	public ExtGameStateRow[] selectAllEGSRs(int gameID){
+		if(corpus != null)
+			return corpus.selectAllEGSRs(gameID);
+		ArrayList<ExtGameStateRow> rows = new ArrayList<ExtGameStateRow>();
+		try {
+			ResultSet rs = openBulkSelect(StacDBHelper.EXTFEATURESTABLE + gameID);
+			try {
+				while ( rs.next() ) {
+					ExtGameStateRow egsr = new ExtGameStateRow(rs.getInt("ID"), "");
+					readEGSR(rs, egsr);
+					rows.add(egsr);
+				}
+			} finally {
+				closeBulkSelect(rs);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+		ExtGameStateRow[] byID = new ExtGameStateRow[rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getID() + 1];
+		for(ExtGameStateRow egsr : rows)
+			byID[egsr.getID()] = egsr;
+		return byID;
+	}
+	
+	/**
+	 * Reads the columns of the current row of an extGameStates_{gameID} query into egsr, except for its ID.
+	 */
+	private static void readEGSR(ResultSet rs, ExtGameStateRow egsr) throws SQLException{
+		egsr.setGameName(rs.getString("name"));
+		egsr.setPastTrades((Integer[][]) rs.getArray("pasttrades").getArray());
+		egsr.setFutureTrades((Integer[][]) rs.getArray("futuretrades").getArray());
+		egsr.setPastPBPs((Integer[][]) rs.getArray("pastpbp").getArray());
+		egsr.setFuturePBPs((Integer[][]) rs.getArray("futurepbp").getArray());
+		egsr.setETWs((Integer[]) rs.getArray("etw").getArray());
+		egsr.setAvgETBs((Integer[][]) rs.getArray("avgetb").getArray());
+		egsr.setSettETBs((Integer[][]) rs.getArray("settlementetb").getArray());
+		egsr.setRoadETBs((Integer[][]) rs.getArray("roadetb").getArray());
+		egsr.setCityETBs((Integer[][]) rs.getArray("cityetb").getArray());
+		egsr.setDevETBs((Integer[][]) rs.getArray("devcardetb").getArray());
+		egsr.setTerritoryConnected((Integer[]) rs.getArray("connterr").getArray());
+		egsr.setTerritoryIsolated((Integer[]) rs.getArray("notisoterr").getArray());
+		egsr.setLongestRoads((Integer[]) rs.getArray("longestroads").getArray());
+		egsr.setLongestPossibleRoads((Integer[]) rs.getArray("longestposroads").getArray());
+		egsr.setDistanceToOpponents((Integer[]) rs.getArray("disttoopp").getArray());
+		egsr.setDistanceToPort((Integer[]) rs.getArray("disttoport").getArray());
+		egsr.setDistanceToNextLegalLoc((Integer[]) rs.getArray("disttolegal").getArray());
+		egsr.setRssTypeAndNumber((Integer[][]) rs.getArray("rsstypeandno").getArray());
+	}
+	
 	/**
 	 * Selects the row from the obsGameStates_{gameID} table with the ID = {ogsrID}
 	 *<P>
@@ -549,56 +702,15 @@ public class StacDBHelper{
 	 * @return the row as a {@link ObsGameStateRow} object
 	 */
 	public ObsGameStateRow selectOGSR(int gameID, int ogsrID){
+		if(corpus != null)
+			return corpus.selectOGSR(gameID, ogsrID);
 		ObsGameStateRow ogsr = new ObsGameStateRow(ogsrID, "");
 		try {
 			stmt = conn.createStatement();
 		    ResultSet rs = stmt.executeQuery( "SELECT * FROM " + StacDBHelper.OBSFEATURESTABLE + gameID + " WHERE ID=" + ogsrID +";");
 		    while ( rs.next() ) {
 		    	//should only be one as ID is a unique primary key;
-		    	ogsr.setGameName(rs.getString("name"));
-		    	try {
-		    		ogsr.setGameTurn(rs.getInt("gameturn"));
-		    	} catch (SQLException e) {}
-		    	ogsr.setHexLayout((Integer[]) rs.getArray("hexlayout").getArray());
-		    	ogsr.setNumberLayout((Integer[]) rs.getArray("numberlayout").getArray());
-		    	ogsr.setRobberHex(rs.getInt("robberhex"));
-		    	ogsr.setGameState(rs.getInt("gamestate"));
-		    	ogsr.setDevCardsLeft(rs.getInt("devcardsleft"));
-		    	ogsr.setDiceResult(rs.getInt("diceresult"));
-		    	ogsr.setStartingPlayer(rs.getInt("startingplayer"));
-		    	ogsr.setCurrentPlayer(rs.getInt("currentplayer"));
-		    	ogsr.setPlayedDevCard(rs.getBoolean("playeddevcard"));
-		    	try {
-		    		ogsr.setPiecesOnBoard((Integer[][]) rs.getArray("piecesonboard").getArray());
-				} catch (Exception e) {
-					// if this is empty we might get cast exception as it tries to cast from single array to multi dimensional one... interesting
-					Integer[][] decoy = new Integer[1][3];
-					decoy[0] = new Integer[]{-1,-1,-1}; //decoy just so the toString method will not fail (remember to check for this when replacing during replay)
-					ogsr.setPiecesOnBoard(decoy);
-				}
-		    	boolean hasPlayersResources = false;
-		    	try {
-		    		ogsr.setPlayersResources((Integer[][]) rs.getArray("playersResources").getArray());
-		    		hasPlayersResources = true;
-		    	} catch (SQLException e) {}
-		    	Integer[][] playersData = (Integer[][]) rs.getArray("players").getArray();
-		    	if (hasPlayersResources) {
-		    		ogsr.setPlayers(playersData);
-		    	} else {
-		    		// extract player resources from pre-2020 players array format
-		    		Integer[][] playersRes = new Integer[4][];
-		    		for (int pn = 0; pn <= 3; ++pn) {
-			    		playersRes[pn] = new Integer[6];
-			    		System.arraycopy(playersData[pn], 18, playersRes[pn], 0, 6);
-			    		int L = playersData[pn].length;
-			    		Integer[] newData = Arrays.copyOf(playersData[pn], L - 6);
-			    		System.arraycopy(playersData[pn], 18+6, newData, 18, L - (18+6));
-			    		playersData[pn] = newData;
-		    		}
-		    		ogsr.setPlayersResources(playersRes);
-		    		ogsr.setPlayers(playersData);
-		    	}
-		    	ogsr.setTouchingNumbers((Integer[][][]) rs.getArray("touchingnumbers").getArray());
+		    	readOGSR(rs, ogsr);
 		    }
 		    rs.close();
 		    stmt.close();
@@ -609,6 +721,90 @@ public class StacDBHelper{
 		return ogsr;
 	}
 	
+	/**
+	 * Selects all rows from the obsGameStates_{gameID} table with a single ordered query,
+	 * reading them in batches of {@link #BULK_FETCH_SIZE} instead of one round-trip per row.
+	 * Old-schema rows are translated as in {@link #selectOGSR(int, int)}.
+	 * @param gameID the id of the table
+	 * @return the rows indexed by their ID, with null for any missing IDs; or null if an Sql exception gets thrown
+	 * @see DBGameRows
+	 */
+	public ObsGameStateRow[] selectAllOGSRs(int gameID){
+		if(corpus != null)
+			return corpus.selectAllOGSRs(gameID);
+		ArrayList<ObsGameStateRow> rows = new ArrayList<ObsGameStateRow>();
+		try {
+			ResultSet rs = openBulkSelect(StacDBHelper.OBSFEATURESTABLE + gameID);
+			try {
+				while ( rs.next() ) {
+					ObsGameStateRow ogsr = new ObsGameStateRow(rs.getInt("ID"), "");
+					readOGSR(rs, ogsr);
+					rows.add(ogsr);
+				}
+			} finally {
+				closeBulkSelect(rs);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+		ObsGameStateRow[] byID = new ObsGameStateRow[rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getID() + 1];
+		for(ObsGameStateRow ogsr : rows)
+			byID[ogsr.getID()] = ogsr;
+		return byID;
+	}
+	
+	/**
+	 * Reads the columns of the current row of an obsGameStates_{gameID} query into ogsr, except for its ID.
+	 * Translates the pre-2020 schema as described in {@link #selectOGSR(int, int)}.
+	 */
+	private static void readOGSR(ResultSet rs, ObsGameStateRow ogsr) throws SQLException{
+		ogsr.setGameName(rs.getString("name"));
+		try {
+			ogsr.setGameTurn(rs.getInt("gameturn"));
+		} catch (SQLException e) {}
+		ogsr.setHexLayout((Integer[]) rs.getArray("hexlayout").getArray());
+		ogsr.setNumberLayout((Integer[]) rs.getArray("numberlayout").getArray());
+		ogsr.setRobberHex(rs.getInt("robberhex"));
+		ogsr.setGameState(rs.getInt("gamestate"));
+		ogsr.setDevCardsLeft(rs.getInt("devcardsleft"));
+		ogsr.setDiceResult(rs.getInt("diceresult"));
+		ogsr.setStartingPlayer(rs.getInt("startingplayer"));
+		ogsr.setCurrentPlayer(rs.getInt("currentplayer"));
+		ogsr.setPlayedDevCard(rs.getBoolean("playeddevcard"));
+		try {
+			ogsr.setPiecesOnBoard((Integer[][]) rs.getArray("piecesonboard").getArray());
+		} catch (Exception e) {
+			// if this is empty we might get cast exception as it tries to cast from single array to multi dimensional one... interesting
+			Integer[][] decoy = new Integer[1][3];
+			decoy[0] = new Integer[]{-1,-1,-1}; //decoy just so the toString method will not fail (remember to check for this when replacing during replay)
+			ogsr.setPiecesOnBoard(decoy);
+		}
+		boolean hasPlayersResources = false;
+		try {
+			ogsr.setPlayersResources((Integer[][]) rs.getArray("playersResources").getArray());
+			hasPlayersResources = true;
+		} catch (SQLException e) {}
+		Integer[][] playersData = (Integer[][]) rs.getArray("players").getArray();
+		if (hasPlayersResources) {
+			ogsr.setPlayers(playersData);
+		} else {
+			// extract player resources from pre-2020 players array format
+			Integer[][] playersRes = new Integer[4][];
+			for (int pn = 0; pn <= 3; ++pn) {
+				playersRes[pn] = new Integer[6];
+				System.arraycopy(playersData[pn], 18, playersRes[pn], 0, 6);
+				int L = playersData[pn].length;
+				Integer[] newData = Arrays.copyOf(playersData[pn], L - 6);
+				System.arraycopy(playersData[pn], 18+6, newData, 18, L - (18+6));
+				playersData[pn] = newData;
+			}
+			ogsr.setPlayersResources(playersRes);
+			ogsr.setPlayers(playersData);
+		}
+		ogsr.setTouchingNumbers((Integer[][][]) rs.getArray("touchingnumbers").getArray());
+	}
+	
 	/**
 	 * Selects the row from the gameActions_{gameID} table with the ID = {garID}
 	 * @param gameID the id of the table
@@ -616,16 +812,15 @@ public class StacDBHelper{
 	 * @return the row as a {@link GameActionRow} object
 	 */
 	public GameActionRow selectGAR(int gameID, int garID){
+		if(corpus != null)
+			return corpus.selectGAR(gameID, garID);
 		GameActionRow gar = new GameActionRow(garID);
 		try {
 			stmt = conn.createStatement();
 		    ResultSet rs = stmt.executeQuery( "SELECT * FROM " + StacDBHelper.ACTIONSTABLE + gameID + " WHERE ID=" + garID +";");
 		    while ( rs.next() ) {
 		    	//should only be one as ID is a unique primary key;
-		    	gar.setBeforeState(rs.getInt("beforestate"));
-		    	gar.setAfterState(rs.getInt("afterstate"));
-		    	gar.setType(rs.getDouble("type"));
-		    	gar.setValue(rs.getInt("value"));
+		    	readGAR(rs, gar);
 		    }
 		    rs.close();
 		    stmt.close();
@@ -636,6 +831,112 @@ public class StacDBHelper{
 		return gar;
 	}
 	
+	/**
+	 * Selects all rows from the gameActions_{gameID} table with a single ordered query,
+	 * reading them in batches of {@link #BULK_FETCH_SIZE} instead of one round-trip per row.
+	 * @param gameID the id of the table
+	 * @return the rows indexed by their ID, with null for any missing IDs; or null if an Sql exception gets thrown
+	 * @see DBGameRows
+	 */
+	public GameActionRow[] selectAllGARs(int gameID){
+		if(corpus != null)
+			return corpus.selectAllGARs(gameID);
+		ArrayList<GameActionRow> rows = new ArrayList<GameActionRow>();
+		try {
+			ResultSet rs = openBulkSelect(StacDBHelper.ACTIONSTABLE + gameID);
+			try {
+				while ( rs.next() ) {
+					GameActionRow gar = new GameActionRow(rs.getInt("ID"));
+					readGAR(rs, gar);
+					rows.add(gar);
+				}
+			} finally {
+				closeBulkSelect(rs);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+		GameActionRow[] byID = new GameActionRow[rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getID() + 1];
+		for(GameActionRow gar : rows)
+			byID[gar.getID()] = gar;
+		return byID;
+	}
+	
+	/**
+	 * Reads the columns of the current row of a gameActions_{gameID} query into gar, except for its ID.
+	 */
+	private static void readGAR(ResultSet rs, GameActionRow gar) throws SQLException{
+		gar.setBeforeState(rs.getInt("beforestate"));
+		gar.setAfterState(rs.getInt("afterstate"));
+		gar.setType(rs.getDouble("type"));
+		gar.setValue(rs.getInt("value"));
+	}
+	
+	/**
+	 * Starts a forward-only read of a whole table ordered by ID, which the driver fetches {@link #BULK_FETCH_SIZE} rows
+	 * at a time. Postgres only uses a cursor for this outside auto-commit mode, so that is turned off until
+	 * {@link #closeBulkSelect(ResultSet)}.
+	 * @param tableName the name of the table
+	 * @return the open result set
+	 */
+	private ResultSet openBulkSelect(String tableName) throws SQLException{
+		conn.setAutoCommit(false);
+		stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		stmt.setFetchSize(BULK_FETCH_SIZE);
+		try {
+			return stmt.executeQuery("SELECT * FROM " + tableName + " ORDER BY ID;");
+		} catch (SQLException e) {
+			stmt.close();
+			conn.setAutoCommit(true);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Closes a result set from {@link #openBulkSelect(String)} and its statement, and goes back to auto-commit mode.
+	 * Call from a {@code finally} block, so the shared connection goes back to auto-commit mode
+	 * even if reading the rows fails.
+	 */
+	private void closeBulkSelect(ResultSet rs) throws SQLException{
+		try {
+			try {
+				rs.close();
+			} finally {
+				stmt.close();
+			}
+			conn.commit();
+		} finally {
+			conn.setAutoCommit(true);
+		}
+	}
+	
+	/**
+	 * Selects all rows from the chats_{gameID} table, ordered by ID.
+	 * @param gameID the id of the table
+	 * @return the rows; or null if an Sql exception gets thrown
+	 */
+	public ChatRow[] selectAllChats(int gameID){
+		if(corpus != null)
+			return corpus.selectAllChats(gameID);
+		ArrayList<ChatRow> rows = new ArrayList<ChatRow>();
+		try {
+			ResultSet rs = openBulkSelect(StacDBHelper.CHATSTABLE + gameID);
+			try {
+				while ( rs.next() ) {
+					rows.add(new ChatRow(rs.getLong("ID"), rs.getInt("current_state"), rs.getString("sender"),
+						rs.getString("receivers"), rs.getString("raw"), rs.getString("message")));
+				}
+			} finally {
+				closeBulkSelect(rs);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return rows.toArray(new ChatRow[rows.size()]);
+	}
+	
 	/**
 	 * Selects the row from the StateValue_{id} table with the ID = {svrID}
 	 * @param id the id of the table
@@ -643,6 +944,8 @@ public class StacDBHelper{
 	 * @return the row as a {@link StateValueRow} object
 	 */
 	public StateValueRow selectSVR(int id, long svrID){
+		if(unsupported("selectSVR"))
+			return null;
 		StateValueRow svr = new StateValueRow(svrID, null, 0);
 		try {
 			stmt = conn.createStatement();
@@ -666,6 +969,8 @@ public class StacDBHelper{
 	 * @return the corresponding id or -1 if smth went wrong or nickname doesn't exist in db
 	 */
 	public int getIDfromPlayerName(String name){
+		if(unsupported("getIDfromPlayerName"))
+			return -1;
 		int id = -1;
 		try {
 			stmt = conn.createStatement();
@@ -687,6 +992,10 @@ public class StacDBHelper{
 	 * @return the corresponding id or -1 if smth went wrong or game name doesn't exist in db
 	 */
 	public int getIDfromGameName(String name){
+		if(corpus != null){
+			int id = corpus.getGameID(name);
+			return (id < SIMGAMESSTARTID) ? id : -1;
+		}
 		int id = -1;
 		try {
 			stmt = conn.createStatement();
@@ -707,6 +1016,10 @@ public class StacDBHelper{
 	 * @return the corresponding id or -1 if smth went wrong or game name doesn't exist in db
 	 */
 	public int getIDfromSimGameName(String name){
+		if(corpus != null){
+			int id = corpus.getGameID(name);
+			return (id >= SIMGAMESSTARTID) ? id : -1;
+		}
 		int id = -1;
 		try {
 			stmt = conn.createStatement();
@@ -730,6 +1043,8 @@ public class StacDBHelper{
 	 * @param notNull allow not null values or not
 	 */
 	public void addColToTable(String tableName, String colName, String colType, boolean notNull){
+		if(unsupported("addColToTable"))
+			return;
 		String nn = "";
 		if(notNull)
 			nn = "NOT NULL";
@@ -749,6 +1064,8 @@ public class StacDBHelper{
 	 * @param colName the name of the column to be dropped
 	 */
 	public void dropColFromTable(String tableName, String colName){
+		if(unsupported("dropColFromTable"))
+			return;
 		try {
 			stmt = conn.createStatement();
         String sql = "ALTER TABLE " + tableName + " DROP COLUMN " + colName;  
@@ -766,6 +1083,8 @@ public class StacDBHelper{
 	 * @param newName the column's new name
 	 */
 	public void renameColFromTable(String tableName, String oldName, String newName){
+		if(unsupported("renameColFromTable"))
+			return;
 		try {
 			stmt = conn.createStatement();
         String sql = "ALTER TABLE " + tableName + " RENAME COLUMN " + oldName + " TO " + newName ;  
@@ -782,6 +1101,8 @@ public class StacDBHelper{
 	 * @param gameID the id of the game 
 	 */
 	public void updateDistanceToPort(ExtGameStateRow egsr, int gameID){
+		if(unsupported("updateDistanceToPort"))
+			return;
 		try {
 			String sqlString = "UPDATE " + StacDBHelper.EXTFEATURESTABLE + gameID + "set DISTTOPORT=? where ID=" + egsr.getID() + ";";
 			PreparedStatement ps = conn.prepareStatement(sqlString);
@@ -799,6 +1120,8 @@ public class StacDBHelper{
 	 * @param gameID the id of the game 
 	 */
 	public void updateDistanceToOpp(ExtGameStateRow egsr, int gameID){
+		if(unsupported("updateDistanceToOpp"))
+			return;
 		try {
 			String sqlString = "UPDATE " + StacDBHelper.EXTFEATURESTABLE + gameID + "set DISTTOOPP=? where ID=" + egsr.getID() + ";";
 			PreparedStatement ps = conn.prepareStatement(sqlString);
@@ -816,6 +1139,8 @@ public class StacDBHelper{
 	 * @param gameID the id of the game 
 	 */
 	public void updateDistanceToLegal(ExtGameStateRow egsr, int gameID){
+		if(unsupported("updateDistanceToLegal"))
+			return;
 		try {
 			String sqlString = "UPDATE " + StacDBHelper.EXTFEATURESTABLE + gameID + "set DISTTOLEGAL=? where ID=" + egsr.getID() + ";";
 			PreparedStatement ps = conn.prepareStatement(sqlString);
@@ -834,6 +1159,8 @@ public class StacDBHelper{
 	 * @param value
 	 */
 	public void updateActionValue(int gameID, int actionID, int value){
+		if(unsupported("updateActionValue"))
+			return;
 		try {
 	        stmt = conn.createStatement();
 	        String sql = "UPDATE " + StacDBHelper.ACTIONSTABLE + gameID + " set VALUE =" + value + " where ID=" + actionID +";";
@@ -851,6 +1178,8 @@ public class StacDBHelper{
 	 * @param pbp
 	 */
 	public void updateTotalPBP(int gameID, int[][] pbp){
+		if(unsupported("updateTotalPBP"))
+			return;
 		try {
 			String sqlString = "UPDATE games set PBPS=? where ID=" + gameID + ";";
 			PreparedStatement ps = conn.prepareStatement(sqlString);
@@ -868,6 +1197,8 @@ public class StacDBHelper{
 	 * @param trades
 	 */
 	public void updateTotalTrades(int gameID, int[][] trades){
+		if(unsupported("updateTotalTrades"))
+			return;
 		try {
 			String sqlString = "UPDATE games set TRADES=? where ID=" + gameID + ";";
 			PreparedStatement ps = conn.prepareStatement(sqlString);
@@ -884,6 +1215,10 @@ public class StacDBHelper{
 	 * @return
 	 */
 	public boolean tableExists(String tableName){
+		if(corpus != null){
+			int[] t = StacCorpusStore.parseTableName(tableName);
+			return t != null && corpus.tableExists(t[0], t[1]);
+		}
 		try {
 			DatabaseMetaData dbm = conn.getMetaData();
 			ResultSet tables = dbm.getTables(null, null, tableName , null);
@@ -905,6 +1240,14 @@ public class StacDBHelper{
 	 * @return the size of the table or -1 if it fails
 	 */
 	public int getTableSize(String tableName){
+		if(corpus != null){
+			int[] t = StacCorpusStore.parseTableName(tableName);
+			if(t == null){
+				unsupported("getTableSize");
+				return -1;
+			}
+			return corpus.getTableSize(t[0], t[1]);
+		}
 		int index = 0;
 		try {
 			stmt = conn.createStatement();
@@ -927,6 +1270,8 @@ public class StacDBHelper{
 	 * @return the 4 ids of the players participating in the game
 	 */
 	public int[] getPlayersIDsFromGame(int gameID){
+		if(unsupported("getPlayersIDsFromGame"))
+			return new int[4];
 		int[] ids = new int[4];
 		try {
 			stmt = conn.createStatement();
@@ -950,6 +1295,8 @@ public class StacDBHelper{
 	 * @return empty string if it can't find it or the player's name
 	 */
 	public String getPlayerNameByID(int playerID){
+		if(unsupported("getPlayerNameByID"))
+			return "";
 		String name = "";
 		try {
 			stmt = conn.createStatement();
@@ -971,6 +1318,8 @@ public class StacDBHelper{
 	 * @return -1 if it can't find it or the player's id
 	 */
 	public int getPlayerIDByName(String playerName){
+		if(unsupported("getPlayerIDByName"))
+			return -1;
 		int id = -1;
 		try {
 			stmt = conn.createStatement();
@@ -992,6 +1341,8 @@ public class StacDBHelper{
 	 * @return empty string if it can't find it or the game's name
 	 */
 	public String getGameNameByID(int gameID){
+		if(corpus != null)
+			return corpusGameName(gameID);
 		String name = "";
 		try {
 			stmt = conn.createStatement();
@@ -1013,6 +1364,8 @@ public class StacDBHelper{
 	 * @return empty string if it can't find it or the game's name
 	 */
 	public String getSimGameNameByID(int gameID){
+		if(corpus != null)
+			return corpusGameName(gameID);
 		String name = "";
 		try {
 			stmt = conn.createStatement();
@@ -1050,6 +1403,8 @@ public class StacDBHelper{
 	 * @return
 	 */
 	public Integer[][] getTotalPBPs(int gameID){
+		if(unsupported("getTotalPBPs"))
+			return null;
 		Integer[][] pbps = null;
 		try {
 			stmt = conn.createStatement();
@@ -1076,6 +1431,8 @@ public class StacDBHelper{
 	 * @return an array of {@link ObsGameStateRow} objects which have the same state; may return null if an Sql exception gets thrown
 	 */
 	public ObsGameStateRow[] getAllObsStatesOfAKind(int gameID, int gameState){
+		if(corpus != null)
+			return corpus.getAllObsStatesOfAKind(gameID, gameState);
 		Vector ogsrs = new Vector();
 		try {
 			stmt = conn.createStatement();
@@ -1129,6 +1486,8 @@ public class StacDBHelper{
 	 * @return a bi-dimensional array with the trades
 	 */
 	public Integer[][] getTotalTrades(int gameID){
+		if(unsupported("getTotalTrades"))
+			return null;
 		Integer[][] trades = null;
 		try {
 			stmt = conn.createStatement();
@@ -1152,6 +1511,8 @@ public class StacDBHelper{
 	 * Deletes the entries in the expert simulations game table and drops the corresponding 3 tables for each game 
 	 */
 	public void deleteSimulations(){
+		if(unsupported("deleteSimulations"))
+			return;
 		int maxID = StacDBHelper.SIMGAMESSTARTID + getTableSize(StacDBHelper.SIMGAMESTABLE);
 		for(int i = StacDBHelper.SIMGAMESSTARTID; i < maxID; i++){
 			dropTable(StacDBHelper.ACTIONSTABLE + i);
@@ -1167,6 +1528,8 @@ public class StacDBHelper{
 	 * @return the maximum value of a state feature encountered in a given table
 	 */
 	public int computeMaxValue(int dataID, int idx){
+		if(unsupported("computeMaxValue"))
+			return Integer.MIN_VALUE;
 		int max = Integer.MIN_VALUE;
 		try {
 			stmt = conn.createStatement();
@@ -1193,6 +1556,8 @@ public class StacDBHelper{
 	 * @return the standard deviation of a state feature for a given table
 	 */
 	public double computeStddev(int dataID, int idx){
+		if(unsupported("computeStddev"))
+			return 0;
 		double stddev = Double.MIN_VALUE;
 		try {
 			stmt = conn.createStatement();
@@ -1218,6 +1583,8 @@ public class StacDBHelper{
 	 * @return the mean of a state feature for a given table
 	 */
 	public double computeMean(int dataID, int idx){
+		if(unsupported("computeMean"))
+			return Double.MIN_VALUE;
 		double mean = Double.MIN_VALUE;
 		try {
 			stmt = conn.createStatement();
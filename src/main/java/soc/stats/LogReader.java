@@ -1,19 +1,29 @@
 package soc.stats;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import soc.message.SOCMessage;
 import soc.util.LogParser;
 
 /**
  * Abstract class to consume and process logs, eg to gather stats or find specific phenomena
+ *<P>
+ * Logs can be read one at a time with {@link #readDirectory(String)}, or concurrently with
+ * {@link #readDirectoryParallel(String, int)}: each file is then read by its own accumulator
+ * from {@link #newAccumulator()}, and the accumulators are combined with {@link #merge(LogReader)}.
  * @author kho30
  *
  */
 public abstract class LogReader {
 
     protected String currentFile = null;
-    
+
+    /** Number of files, parsed messages, and bytes read by this reader and any merged into it */
+    private long numFiles, numMessages, numBytes;
+
     public final void readDirectory(String folderName) {
         File folder = new File(folderName);
         for (File f : folder.listFiles()) {
@@ -24,25 +34,137 @@ public abstract class LogReader {
             // Consider adding capability for recursion
         }
     }
-    
+
     public final void readFile(String file) {
         newFile(file);
         LogParser lp = LogParser.getParser(file);
+        readMessages(lp);
+        numBytes += new File(file).length();
+    }
+
+    private void readMessages(LogParser lp) {
+        ++numFiles;
         while (!lp.eof()) {
             SOCMessage msg = lp.parseLine();
             if (msg!=null) {
+                ++numMessages;
                 handleMsg(msg);
             }
         }
         lp.close();
     }
-    
+
+    /**
+     * Read all files in a folder concurrently on a fork/join pool, then print a throughput summary.
+     * Each file is memory-mapped and read by a new accumulator from {@link #newAccumulator()};
+     * the accumulators are merged pairwise and finally into this reader, so afterwards this reader
+     * holds the same findings as if {@link #readDirectory(String)} had been called.
+     * {@link #newFile(String)} and {@link #handleMsg(SOCMessage)} are called on the accumulators,
+     * from several threads at once.
+     * @param folderName  folder to read; subfolders are skipped
+     * @param parallelism  number of threads to use
+     */
+    public final void readDirectoryParallel(String folderName, int parallelism) {
+        final File[] files = new File(folderName).listFiles(File::isFile);
+        if (files == null || files.length == 0)
+            return;
+
+        final long start = System.nanoTime();
+        final long beforeBytes = numBytes, beforeFiles = numFiles, beforeMessages = numMessages;
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            combine(pool.invoke(new ReadTask(files, 0, files.length)));
+        } finally {
+            pool.shutdown();
+        }
+
+        final double secs = Math.max(1, System.nanoTime() - start) / 1e9;
+        final long nFiles = numFiles - beforeFiles, nMessages = numMessages - beforeMessages;
+        final double mb = (numBytes - beforeBytes) / (1024.0 * 1024.0);
+        System.out.println(String.format
+            ("Read %d files, %d messages, %.1f MB in %.2f s with %d threads: %.1f files/s, %.0f messages/s, %.1f MB/s",
+             nFiles, nMessages, mb, secs, parallelism, nFiles / secs, nMessages / secs, mb / secs));
+    }
+
     /**
-     * The meat of the class: what are we actually doing with the messages we get? 
+     * Fork/join task which reads a range of files into one accumulator,
+     * splitting the range in half until there's one file per task.
+     */
+    private final class ReadTask extends RecursiveTask<LogReader> {
+        private static final long serialVersionUID = 1L;
+
+        private final File[] files;
+        private final int from, to;
+
+        ReadTask(File[] files, int from, int to) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LogReader compute() {
+            if (to - from == 1) {
+                LogReader acc = newAccumulator();
+                acc.readMappedFile(files[from]);
+                return acc;
+            }
+
+            final int mid = (from + to) >>> 1;
+            ReadTask left = new ReadTask(files, from, mid);
+            left.fork();
+            LogReader right = new ReadTask(files, mid, to).compute();
+            LogReader acc = left.join();
+            acc.combine(right);
+            return acc;
+        }
+    }
+
+    private void readMappedFile(File f) {
+        final String fileName = f.getAbsolutePath();
+        newFile(fileName);
+        try {
+            readMessages(LogParser.getMappedParser(f));
+            numBytes += f.length();
+        } catch (IOException ex) {
+            System.err.println("Can't read " + fileName + ": " + ex);
+        }
+    }
+
+    /** Merge another reader's findings and throughput counts into this one */
+    private void combine(LogReader other) {
+        numFiles += other.numFiles;
+        numMessages += other.numMessages;
+        numBytes += other.numBytes;
+        merge(other);
+    }
+
+    /**
+     * Create an empty reader of the same kind as this one, for {@link #readDirectoryParallel(String, int)}
+     * to read one file with. Its findings will be combined with others' by {@link #merge(LogReader)}.
+     * @return a new reader with no findings yet
+     */
+    protected abstract LogReader newAccumulator();
+
+    /**
+     * Add another reader's findings to this reader's. Called by {@link #readDirectoryParallel(String, int)}
+     * with readers from {@link #newAccumulator()}, in no particular order; one thread at a time for each reader.
+     * Default is to do nothing, which is appropriate if findings are printed as they're found.
+     * @param other  a reader of the same class, which won't be used again
+     */
+    protected void merge(LogReader other) {}
+
+    /** @return the number of messages parsed so far, including those of merged readers */
+    public long getMessageCount() {
+        return numMessages;
+    }
+
+    /**
+     * The meat of the class: what are we actually doing with the messages we get?
      * @param msg
      */
     protected abstract void handleMsg(SOCMessage msg);
-    
+
     /**
      * Indicate we are starting to process a new game.  Override this if you need to reset
      *  stats, etc
@@ -52,7 +174,7 @@ public abstract class LogReader {
         currentFile = fileName;
         System.out.println(fileName);
     }
-    
+
     /**
      * Print the reader's findings, eg stats.  Default is to do nothing, which may
      *  be appropriate, eg if we're using this to display matching lines as we find them
@@ -25,6 +25,20 @@ public class TradeStatParser extends LogReader {
         numGames ++;
     }
 
+    @Override
+    protected LogReader newAccumulator() {
+        return new TradeStatParser();
+    }
+
+    @Override
+    protected void merge(LogReader other) {
+        TradeStatParser o = (TradeStatParser) other;
+        numGames += o.numGames;
+        numPlayerTrades += o.numPlayerTrades;
+        numBankTrades += o.numBankTrades;
+        numImbalancedTrades += o.numImbalancedTrades;
+    }
+
     @Override
     public void printOutput() {
         System.out.println(numGames + " games");
@@ -53,7 +67,6 @@ public class TradeStatParser extends LogReader {
                     }
                     else {
                         Matcher m = resources.matcher(t);
-                        m.matches();
                         if (!m.matches()) {
                             System.out.println("Unexpected: " + t);
                         }
@@ -67,11 +80,13 @@ public class TradeStatParser extends LogReader {
     }
     
     /**
-     * @param args
+     * @param args  optional folder to read (default {@code logs}) and number of threads (default: one per CPU)
      */
     public static void main(String[] args) {
         TradeStatParser tsp = new TradeStatParser();
-        tsp.readDirectory("logs");
+        String folder = (args.length > 0) ? args[0] : "logs";
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        tsp.readDirectoryParallel(folder, threads);
         tsp.printOutput();
     }  
 }
@@ -35,7 +35,20 @@ public class DeepCopy {
      *  @return a clone/deep copy of the original
      */
     public static Object copy(Object original) {
-        Object obj = null;
+        byte[] data = toBytes(original);
+        if (data == null)
+            return null;
+        return fromBytes(data);
+    }
+
+    /**
+     * Serialize an object, to later make one or more copies of it with {@link #fromBytes(byte[])}.
+     * Useful when several threads each need their own copy: Only the calling thread reads the original.
+     *
+     * @param original the object to be serialized
+     * @return the serialized bytes, or null if there was an error
+     */
+    public static byte[] toBytes(Object original) {
         try {
             // Write the object out to a byte array
             ByteArrayOutputStream bout = new ByteArrayOutputStream();
@@ -43,11 +56,27 @@ public class DeepCopy {
             out.writeObject(original);
             out.flush();
             out.close();
+            return bout.toByteArray();
+        }
+        catch(IOException e) {
+        	D.ebugFATAL(e, "DeepCopy copy ERROR - "  + e.getClass() + e.getMessage());
+        }
+        return null;
+    }
 
+    /**
+     * Make a new copy of an object serialized by {@link #toBytes(Object)}.
+     *
+     * @param data the serialized bytes
+     * @return a clone/deep copy of the original, or null if there was an error
+     */
+    public static Object fromBytes(byte[] data) {
+        Object obj = null;
+        try {
             // Make an input stream from the byte array and read
             // a copy of the object back in.
             ObjectInputStream in = new ObjectInputStream(
-                new ByteArrayInputStream(bout.toByteArray()));
+                new ByteArrayInputStream(data));
             obj = in.readObject();
         }
         catch(IOException e) {
@@ -0,0 +1,683 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import soc.disableDebug.D;
+
+/**
+ * A saved game checkpoint: Named, serialized objects for the server's game and each robot's state,
+ * kept together in one versioned archive file {@link #ARCHIVE_FILENAME} in the save folder
+ * instead of one {@link DeepCopy#copyToFile(Object, String, String)} file per object.
+ *<P>
+ * Entry names are the same as those file names without {@code ".dat"}: {@code source + "_" + className},
+ * from {@link #entryName(String, Class)}. For example the server writes {@code "server_soc.game.SOCGame"}
+ * and robot player 2 writes {@code "2_soc.game.SOCGame"}, {@code "2_java.util.ArrayList"} for its
+ * player trackers, and so on. {@link #load(String, String)} falls back to reading a {@code .dat} file
+ * if the archive doesn't have an entry, so older save folders can still be loaded.
+ *<P>
+ * Archive format, all written by {@link DataOutputStream}:
+ *<UL>
+ * <LI> Header: int {@code 0x534F4353} ({@code "SOCS"}), short format version ({@link #FORMAT_VERSION}),
+ *      int sequence number (not in version 1), int number of entries
+ * <LI> Each entry: UTF name, byte flags (1 if deflated), int serialized length, int stored length,
+ *      int CRC-32 of the serialized bytes, then the stored bytes
+ *</UL>
+ * The server and each robot add their entries to the same archive. Each {@link #save(String, String, Object...)}
+ * rewrites the archive while holding a lock on it, replacing any older entries with the same names,
+ * so the archive never grows past one entry per name, and increments its sequence number.
+ *<P>
+ * Entries are stored uncompressed unless the JVM property {@link #PROP_JVM_CHECKPOINT_COMPRESS} is true,
+ * or they're put into an archive created with {@link #GameCheckpoint(boolean) GameCheckpoint(true)}.
+ * Deflating makes the archive much smaller but saving slower, and save folders are usually on local disk.
+ * Either kind of entry can be read, and one archive can have both.
+ *<P>
+ * A {@code GameCheckpoint} object can also be used by itself as an in-memory archive:
+ * {@link #put(String, Object)} and {@link #get(String)} entries, then {@link #writeTo(OutputStream)} or
+ * {@link #toByteArray()}. Entries are kept in their stored form, and each {@link #get(String)}
+ * returns a new copy of the object, like {@link DeepCopy#copy(Object)}.
+ * Archives read by {@link #load(String, String)} are kept in memory until the archive file changes,
+ * since simulations load the same checkpoint many times: Its length, last-modified time and
+ * header sequence number are checked before each use.
+ *
+ * @since 2.4.50
+ */
+public class GameCheckpoint
+{
+    /** Name of the archive file within a save folder: {@value} */
+    public static final String ARCHIVE_FILENAME = "checkpoint.socsave";
+
+    /**
+     * Current archive format version, written in the header: 2.
+     * Version 1 had no sequence number. An archive with a newer version can't be read.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    /**
+     * Boolean JVM property to deflate the entries of archives written by
+     * {@link #save(String, String, Object...)}: {@value}. Default is false.
+     */
+    public static final String PROP_JVM_CHECKPOINT_COMPRESS = "jsettlers.checkpoint.compress";
+
+    /** Default for {@link #compress}, from {@link #PROP_JVM_CHECKPOINT_COMPRESS} */
+    private static final boolean COMPRESS_DEFAULT = Boolean.getBoolean(PROP_JVM_CHECKPOINT_COMPRESS);
+
+    /** Archive header's magic number: {@code "SOCS"} */
+    private static final int MAGIC = 0x534F4353;
+
+    /** Entry flag: stored bytes are deflated */
+    private static final int FLAG_DEFLATED = 0x01;
+
+    /**
+     * Lock for archive file I/O within this JVM; other processes are locked out by a {@link FileLock},
+     * but overlapping {@code FileLock}s from the same JVM aren't allowed.
+     */
+    private static final Object fileLock = new Object();
+
+    /** Archives read by {@link #load(String, String)}, keyed by archive file path */
+    private static final ConcurrentHashMap<String, GameCheckpoint> loaded = new ConcurrentHashMap<String, GameCheckpoint>();
+
+    /** An archive entry: An object's serialized bytes, as stored */
+    private static final class Entry
+    {
+        final int flags, rawLength, crc;
+
+        final byte[] stored;
+
+        Entry(final int flags, final int rawLength, final int crc, final byte[] stored)
+        {
+            this.flags = flags;
+            this.rawLength = rawLength;
+            this.crc = crc;
+            this.stored = stored;
+        }
+    }
+
+    /** Entries in the order they were added; a replaced entry keeps its position */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+    /** If true, {@link #put(String, Object)} deflates entries */
+    private final boolean compress;
+
+    /**
+     * Sequence number from the archive header, or 0 if never written to a file.
+     * Each {@link #save(String, String, Object...)} writes one more than the archive file had.
+     */
+    private int sequence;
+
+    /**
+     * For an archive read by {@link #load(String, String)}, the archive file's length and last-modified time
+     * when it was read; otherwise unused
+     */
+    private long fileLength, fileModified;
+
+    /**
+     * Create an empty in-memory archive, whose entries are deflated only if
+     * JVM property {@link #PROP_JVM_CHECKPOINT_COMPRESS} is true.
+     */
+    public GameCheckpoint()
+    {
+        this(COMPRESS_DEFAULT);
+    }
+
+    /**
+     * Create an empty in-memory archive.
+     * @param compress  If true, deflate entries added by {@link #put(String, Object)}
+     */
+    public GameCheckpoint(final boolean compress)
+    {
+        this.compress = compress;
+    }
+
+    /**
+     * Get the entry name for an object saved by {@code source}, which is also the file name
+     * {@link DeepCopy#copyToFile(Object, String, String)} would use, without its {@code ".dat"}.
+     * @param source  "server", or the player number of the client or robot saving this object
+     * @param cl  the saved object's class
+     * @return  {@code source + "_" + cl.getName()}
+     */
+    public static String entryName(final String source, final Class<?> cl)
+    {
+        return source + "_" + cl.getName();
+    }
+
+    /**
+     * Serialize and add an entry, replacing any entry with the same name.
+     * Deflates it if this archive was created to compress.
+     * @param name  entry name, usually from {@link #entryName(String, Class)}; not null
+     * @param obj  the object to add; must be {@link java.io.Serializable}
+     * @throws IOException if {@code obj} can't be serialized
+     */
+    public synchronized void put(final String name, final Object obj)
+        throws IOException
+    {
+        final ByteArrayOutputStream raw = new ByteArrayOutputStream(8192);
+        final ObjectOutputStream oos = new ObjectOutputStream(raw);
+        oos.writeObject(obj);
+        oos.close();
+        final byte[] data = raw.toByteArray();
+
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+
+        if (! compress)
+        {
+            entries.put(name, new Entry(0, data.length, (int) crc.getValue(), data));
+            return;
+        }
+
+        final ByteArrayOutputStream stored = new ByteArrayOutputStream(data.length / 4 + 64);
+        final Deflater def = new Deflater(Deflater.BEST_SPEED);
+        try
+        {
+            final DeflaterOutputStream dos = new DeflaterOutputStream(stored, def);
+            dos.write(data);
+            dos.finish();
+        } finally {
+            def.end();
+        }
+
+        entries.put(name, new Entry(FLAG_DEFLATED, data.length, (int) crc.getValue(), stored.toByteArray()));
+    }
+
+    /**
+     * Make a new copy of an entry's object.
+     * @param name  entry name
+     * @return  a new copy of the object, or {@code null} if there's no entry with that name
+     * @throws IOException if the entry's data is corrupt or its class has changed incompatibly
+     * @throws ClassNotFoundException if the entry's class isn't available
+     */
+    public Object get(final String name)
+        throws IOException, ClassNotFoundException
+    {
+        final Entry e;
+        synchronized (this)
+        {
+            e = entries.get(name);
+        }
+        if (e == null)
+            return null;
+
+        final byte[] data;
+        if ((e.flags & FLAG_DEFLATED) != 0)
+        {
+            data = new byte[e.rawLength];
+            final Inflater inf = new Inflater();
+            try
+            {
+                new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(e.stored), inf)).readFully(data);
+            } finally {
+                inf.end();
+            }
+        } else {
+            data = e.stored;
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        if ((int) crc.getValue() != e.crc)
+            throw new IOException("Checkpoint entry " + name + ": CRC mismatch");
+
+        final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data));
+        try
+        {
+            return ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
+    /**
+     * Does this archive have an entry with this name?
+     * @param name  entry name
+     * @return  true if {@link #get(String)} would return an object
+     */
+    public synchronized boolean contains(final String name)
+    {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Remove an entry, if present.
+     * @param name  entry name
+     * @return  true if there was an entry with that name
+     */
+    public synchronized boolean remove(final String name)
+    {
+        return (entries.remove(name) != null);
+    }
+
+    /** Get the entries' names, in the order they were added. */
+    public synchronized List<String> getEntryNames()
+    {
+        return new ArrayList<String>(entries.keySet());
+    }
+
+    /** Number of entries in the archive. */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Get the sequence number from this archive's header: The number of times its file has been
+     * updated by {@link #save(String, String, Object...)}, or 0 for a new in-memory archive
+     * or one read from format version 1.
+     */
+    public synchronized int getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Add all of another archive's entries to this one, replacing any with the same names.
+     * @param other  archive to copy entries from; not changed
+     */
+    public void putAll(final GameCheckpoint other)
+    {
+        final LinkedHashMap<String, Entry> otherEntries;
+        synchronized (other)
+        {
+            otherEntries = new LinkedHashMap<String, Entry>(other.entries);
+        }
+        synchronized (this)
+        {
+            entries.putAll(otherEntries);  // Entry is immutable, so can be shared
+        }
+    }
+
+    /**
+     * Write this archive's header and entries. Doesn't close {@code out}.
+     * @param out  stream to write to
+     * @throws IOException if an error occurs writing
+     */
+    public synchronized void writeTo(final OutputStream out)
+        throws IOException
+    {
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(MAGIC);
+        dos.writeShort(FORMAT_VERSION);
+        dos.writeInt(sequence);
+        dos.writeInt(entries.size());
+        for (final java.util.Map.Entry<String, Entry> me : entries.entrySet())
+        {
+            final Entry e = me.getValue();
+            dos.writeUTF(me.getKey());
+            dos.writeByte(e.flags);
+            dos.writeInt(e.rawLength);
+            dos.writeInt(e.stored.length);
+            dos.writeInt(e.crc);
+            dos.write(e.stored);
+        }
+        dos.flush();
+    }
+
+    /**
+     * Get this archive as bytes, as written by {@link #writeTo(OutputStream)}.
+     * @return  the archive's bytes
+     */
+    public byte[] toByteArray()
+    {
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try
+        {
+            writeTo(bout);
+        } catch (IOException e) {}  // ByteArrayOutputStream doesn't throw
+
+        return bout.toByteArray();
+    }
+
+    /**
+     * Read an archive written by {@link #writeTo(OutputStream)}.
+     * Entries aren't deserialized until {@link #get(String)} is called. Doesn't close {@code in}.
+     * @param in  stream to read from
+     * @return  the archive
+     * @throws IOException if an error occurs reading, {@code in} isn't an archive, the archive
+     *     was written by a newer format version, or it ends before its last entry
+     */
+    public static GameCheckpoint readFrom(final InputStream in)
+        throws IOException
+    {
+        final DataInputStream dis = new DataInputStream(in);
+        if (dis.readInt() != MAGIC)
+            throw new IOException("Not a game checkpoint archive");
+        final int vers = dis.readUnsignedShort();
+        if (vers > FORMAT_VERSION)
+            throw new IOException("Checkpoint archive format version " + vers + " is newer than " + FORMAT_VERSION);
+        final int seq = (vers >= 2) ? dis.readInt() : 0;
+
+        final int n = dis.readInt();
+        if (n < 0)
+            throw new IOException("Checkpoint archive: bad entry count " + n);
+
+        final GameCheckpoint cp = new GameCheckpoint();
+        cp.sequence = seq;
+        for (int i = 0; i < n; ++i)
+        {
+            final String name = dis.readUTF();
+            final int flags = dis.readUnsignedByte(), rawLength = dis.readInt(), storedLength = dis.readInt(),
+                crc = dis.readInt();
+            if (rawLength < 0 || storedLength < 0)
+                throw new IOException("Checkpoint entry " + name + ": bad length");
+            final byte[] stored = new byte[storedLength];
+            dis.readFully(stored);
+
+            cp.entries.put(name, new Entry(flags, rawLength, crc, stored));
+        }
+
+        return cp;
+    }
+
+    /**
+     * Read an archive from bytes written by {@link #toByteArray()}.
+     * @param data  the archive's bytes
+     * @return  the archive
+     * @throws IOException if {@code data} isn't a complete archive; see {@link #readFrom(InputStream)}
+     */
+    public static GameCheckpoint fromByteArray(final byte[] data)
+        throws IOException
+    {
+        return readFrom(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Save objects to the archive in a save folder, replacing any older entries with the same names.
+     * Each object's entry name is {@link #entryName(String, Class) entryName(source, obj.getClass())}.
+     * The entries are added in the order given, in a single update of the archive file.
+     * Creates the folder and archive if they don't exist.
+     * @param folderName  the save folder
+     * @param source  "server", or the player number of the client or robot saving these objects
+     * @param objects  the objects to save; null objects are skipped
+     * @return  true if saved, false if an error occurred
+     */
+    public static boolean save(final String folderName, final String source, final Object... objects)
+    {
+        final GameCheckpoint cp = new GameCheckpoint();
+        try
+        {
+            for (final Object obj : objects)
+                if (obj != null)
+                    cp.put(entryName(source, obj.getClass()), obj);
+
+            final File dir = new File(folderName);
+            if (! dir.exists())
+                dir.mkdirs();
+            update(new File(dir, ARCHIVE_FILENAME), cp);
+        }
+        catch (IOException e) {
+            D.ebugFATAL(e, "GameCheckpoint save ERROR - " + e.getClass() + e.getMessage());
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Add entries to an archive file, while holding a lock on it.
+     * @param f  the archive file; will be created if it doesn't exist
+     * @param added  entries to add
+     * @throws IOException if an error occurs, or {@code f} isn't an archive
+     */
+    private static void update(final File f, final GameCheckpoint added)
+        throws IOException
+    {
+        synchronized (fileLock)
+        {
+            final FileChannel ch = FileChannel.open
+                (f.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try
+            {
+                final FileLock lock = ch.lock();
+                try
+                {
+                    final GameCheckpoint cp;
+                    if (ch.size() > 0)
+                        // not closed, since that would close the channel
+                        cp = readFrom(new BufferedInputStream(Channels.newInputStream(ch), 65536));
+                    else
+                        cp = new GameCheckpoint();
+                    cp.putAll(added);
+                    cp.sequence++;
+
+                    ch.truncate(0);
+                    ch.position(0);
+                    final BufferedOutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 65536);
+                    cp.writeTo(out);
+                    out.flush();
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                ch.close();
+            }
+
+            loaded.remove(f.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Get the archive in a save folder, from memory if the archive file hasn't changed since it was last read:
+     * Same length, last-modified time and header sequence number.
+     * Last-modified times can be coarse, so a quick rewrite to the same length isn't seen without the sequence number.
+     * @param folderName  the save folder
+     * @return  the archive, or {@code null} if the folder has no archive file
+     * @throws IOException if an error occurs reading, or the file isn't an archive
+     */
+    public static GameCheckpoint getArchive(final String folderName)
+        throws IOException
+    {
+        final File f = new File(folderName, ARCHIVE_FILENAME);
+        final String key = f.getAbsolutePath();
+        if (! f.exists())
+        {
+            loaded.remove(key);
+            return null;
+        }
+
+        GameCheckpoint cp = loaded.get(key);
+        if ((cp != null) && (cp.fileLength == f.length()) && (cp.fileModified == f.lastModified())
+            && (cp.sequence == readSequence(f)))
+            return cp;
+
+        synchronized (fileLock)
+        {
+            final FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+            try
+            {
+                final FileLock lock = ch.lock(0, Long.MAX_VALUE, true);
+                try
+                {
+                    cp = readFrom(new BufferedInputStream(Channels.newInputStream(ch), 65536));
+                    cp.fileLength = ch.size();
+                    cp.fileModified = f.lastModified();
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                ch.close();
+            }
+
+            loaded.put(key, cp);
+        }
+
+        return cp;
+    }
+
+    /**
+     * Read just the sequence number from an archive file's header, without locking it.
+     * @param f  the archive file
+     * @return  the sequence number, 0 for format version 1, or -1 if the header can't be read
+     */
+    private static int readSequence(final File f)
+    {
+        try
+        {
+            final DataInputStream dis = new DataInputStream(new FileInputStream(f));
+            try
+            {
+                if (dis.readInt() != MAGIC)
+                    return -1;
+                return (dis.readUnsignedShort() >= 2) ? dis.readInt() : 0;
+            } finally {
+                dis.close();
+            }
+        }
+        catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Does a save folder have this entry, either in its archive or as a {@code .dat} file?
+     * @param folderName  the save folder
+     * @param name  entry name, from {@link #entryName(String, Class)}
+     * @return  true if {@link #load(String, String)} would find the entry
+     */
+    public static boolean hasEntry(final String folderName, final String name)
+    {
+        try
+        {
+            final GameCheckpoint cp = getArchive(folderName);
+            if ((cp != null) && cp.contains(name))
+                return true;
+        }
+        catch (IOException e) {}
+
+        return new File(folderName, name + ".dat").exists();
+    }
+
+    /**
+     * Load a new copy of an object from a save folder's archive. If the archive doesn't have that entry,
+     * reads it from a {@code .dat} file written by {@link DeepCopy#copyToFile(Object, String, String)} if there is one.
+     * Always cast this to the required instance type.
+     * @param folderName  the save folder
+     * @param name  entry name, from {@link #entryName(String, Class)}
+     * @return  the object, or {@code null} if not found or an error occurred
+     */
+    public static Object load(final String folderName, final String name)
+    {
+        try
+        {
+            final GameCheckpoint cp = getArchive(folderName);
+            if ((cp != null) && cp.contains(name))
+                return cp.get(name);
+        }
+        catch (Exception e) {
+            D.ebugFATAL(e, "GameCheckpoint load ERROR - " + e.getClass() + e.getMessage());
+            return null;
+        }
+
+        final File legacy = new File(folderName, name + ".dat");
+        if (! legacy.exists())
+            return null;
+
+        return DeepCopy.readFromFile(legacy.getPath().substring(0, legacy.getPath().length() - 4));
+    }
+
+    /**
+     * Forget all archives kept in memory by {@link #load(String, String)}.
+     * They'll be read again from their files when next needed.
+     */
+    public static void clearLoaded()
+    {
+        loaded.clear();
+    }
+
+    /**
+     * Convert a save folder's {@code .dat} files into entries of its archive,
+     * and print how long it takes to read them all each way.
+     * Leaves the {@code .dat} files in place.
+     * @param args  save folder name
+     */
+    public static void main(final String[] args)
+        throws Exception
+    {
+        if (args.length != 1)
+        {
+            System.err.println("Usage: GameCheckpoint savefolder");
+            System.exit(1);
+        }
+
+        final File dir = new File(args[0]);
+        final File[] files = dir.listFiles();
+        if (files == null)
+        {
+            System.err.println("Not a folder: " + args[0]);
+            System.exit(1);
+        }
+
+        final List<String> names = new ArrayList<String>();
+        long datBytes = 0;
+        long t0 = System.nanoTime();
+        final GameCheckpoint cp = new GameCheckpoint();
+        for (final File f : files)
+        {
+            final String fname = f.getName();
+            if (! fname.endsWith(".dat"))
+                continue;
+            final String name = fname.substring(0, fname.length() - 4);
+            final Object obj = DeepCopy.readFromFile(f.getPath().substring(0, f.getPath().length() - 4));
+            if (obj == null)
+                continue;
+            names.add(name);
+            datBytes += f.length();
+            cp.put(name, obj);
+        }
+        final long readDat = System.nanoTime() - t0;
+
+        final File af = new File(dir, ARCHIVE_FILENAME);
+        update(af, cp);
+
+        clearLoaded();
+        t0 = System.nanoTime();
+        for (final String name : names)
+            load(args[0], name);
+        final long readArchive = System.nanoTime() - t0;
+
+        System.out.println(names.size() + " entries: .dat files " + datBytes + " bytes, read in "
+            + (readDat / 1000000) + " ms; archive " + af.length() + " bytes, read in " + (readArchive / 1000000) + " ms");
+    }
+
+}
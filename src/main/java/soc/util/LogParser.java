@@ -2,11 +2,16 @@ package soc.util;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.CharArrayReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.text.ParseException;
@@ -25,6 +30,9 @@ public class LogParser {
     private final BufferedReader br;
     private boolean eof = false;
 
+    /** Number of lines read so far, including any skipped by {@link #skipLines(int)} */
+    private int lineNumber = 0;
+
     // Augmented log file - add game state alongside all chat messages
     private final BufferedWriter augLog;
 
@@ -32,7 +40,18 @@ public class LogParser {
     private SOCMessage lastMsg = null;
     private Date lastDate = null;
 
-    public static final DateFormat df = new SimpleDateFormat("yyyy:MM:dd:HH:mm:ss:SSS:Z");
+    /** Format of the timestamp at the start of each log line */
+    public static final String DATE_PATTERN = "yyyy:MM:dd:HH:mm:ss:SSS:Z";
+
+    /**
+     * Log timestamp format. Like any {@link DateFormat} this isn't thread-safe;
+     * parsers use {@link #dateFormat} so that several can run at once.
+     */
+    public static final DateFormat df = new SimpleDateFormat(DATE_PATTERN);
+
+    /** Per-thread copy of {@link #df} */
+    private static final ThreadLocal<DateFormat> dateFormat =
+        ThreadLocal.withInitial(() -> new SimpleDateFormat(DATE_PATTERN));
 
     public static LogParser getParser(String fileName) {
         return getParser(fileName, false);
@@ -62,6 +81,25 @@ public class LogParser {
         return null;
     }
 
+    /**
+     * Get a parser which reads a log file through a memory-mapped buffer, decoding it all at once
+     * instead of through a stream. Faster when reading many logs, for example from {@code LogReader}.
+     * Doesn't write an augmented log or try adding the {@code .soclog} extension.
+     * @param in  the log file
+     * @return the parser
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public static LogParser getMappedParser(File in) throws IOException {
+        FileChannel ch = FileChannel.open(in.toPath(), StandardOpenOption.READ);
+        try {
+            CharBuffer chars = Charset.defaultCharset().decode(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+            return new LogParser
+                (new BufferedReader(new CharArrayReader(chars.array(), chars.arrayOffset(), chars.remaining())), null);
+        } finally {
+            ch.close();
+        }
+    }
+
     private LogParser(BufferedReader br, BufferedWriter augLog) {
         this.br = br;
         this.augLog = augLog;
@@ -85,14 +123,16 @@ public class LogParser {
                 eof = true;
                 return null;
             }
+            ++lineNumber;
 
             if (augLog != null) {
                 augLog.write(msg);
                 augLog.newLine();
             }
 
-            if (msg.length() > 30 && isValidDate(msg.substring(0, 29))) {
-                lastDate = df.parse(msg.substring(0, 29));
+            final Date date = (msg.length() > 30) ? parseDate(msg.substring(0, 29)) : null;
+            if (date != null) {
+                lastDate = date;
                 // Chop off the date
                 msg = msg.substring(30);
                 // Extract the game name - this should really be provided as part of SOCMessage
@@ -111,12 +151,52 @@ public class LogParser {
     }
 
     public static boolean isValidDate(String inDate) {
+        return parseDate(inDate) != null;
+    }
+
+    /**
+     * Parse a log timestamp.
+     * @param inDate  timestamp text in {@link #DATE_PATTERN} format
+     * @return the date, or null if {@code inDate} isn't a valid timestamp
+     */
+    private static Date parseDate(String inDate) {
         try {
-            df.parse(inDate.trim());
+            return dateFormat.get().parse(inDate.trim());
         } catch (ParseException pe) {
-            return false;
+            return null;
+        }
+    }
+
+    /**
+     * Get the number of lines read so far. After {@link #parseLine()} this is the
+     * 1-based line number of the line it parsed; passing it to {@link #skipLines(int)}
+     * on a new parser for the same file resumes right after that line.
+     * @return the number of lines read or skipped
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Read past some lines without parsing them or copying them to the augmented log.
+     * @param n  number of lines to skip
+     * @return the number of lines actually skipped, less than {@code n} only at end of file
+     */
+    public int skipLines(final int n) {
+        int skipped = 0;
+        try {
+            while (skipped < n) {
+                if (br.readLine() == null) {
+                    eof = true;
+                    break;
+                }
+                ++skipped;
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
         }
-        return true;
+        lineNumber += skipped;
+        return skipped;
     }
 
     public boolean eof() {
@@ -1,6 +1,5 @@
 package soc.util;
 
-import java.io.File;
 import java.util.Vector;
 
 import javax.swing.text.AbstractDocument.BranchElement;
@@ -10,8 +9,8 @@ import soc.game.SOCGame;
 import soc.game.SOCPlayingPiece;
 import soc.robot.StacRobotBrainInfo;
 /**
- * Offline process of saving a board layout for future games. Need to save the game you are playing, move the server_soc.game.SOCGame.dat
- * to a folder saves/board and run this file. If the file is not present this utility will generate the default board for 4 players as described in the SOC manual.
+ * Offline process of saving a board layout for future games. Need to save the game you are playing, move the save folder's
+ * {@link GameCheckpoint#ARCHIVE_FILENAME} (or an older save's server_soc.game.SOCGame.dat) to a folder saves/board and run this file. If the file is not present this utility will generate the default board for 4 players as described in the SOC manual.
  * All you need to do next time you start a new game is to modify the loadBoard flag in the config.txt file or tick the corresponding box when starting a game via
  * the SOCPlayerClient class.
  * @author MD
@@ -19,10 +18,10 @@ import soc.robot.StacRobotBrainInfo;
 public class SaveBoardConfigFromGame {
 
 	public static void main(String[] args) {
-		File f = new File("saves/board/server_soc.game.SOCGame");
+		final String gameEntry = GameCheckpoint.entryName("server", SOCGame.class);
 		SOCBoard board;
-		if(f.exists()){
-			SOCGame game = (SOCGame) DeepCopy.readFromFile("saves/board/server_soc.game.SOCGame");
+		if(GameCheckpoint.hasEntry("saves/board", gameEntry)){
+			SOCGame game = (SOCGame) GameCheckpoint.load("saves/board", gameEntry);
 			board = game.getBoard();
 
 			//clear the board of all the pieces 
@@ -0,0 +1,143 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.client;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import soc.client.SOCReplayIndex;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCReplayIndex}: seeking through keyframes must give the same
+ * game state as replaying the whole log, and saved indexes must load back.
+ */
+public class TestSOCReplayIndex
+{
+    private static final String[] LOGS =
+        { "human-league1-example.soclog", "simu-example.soclog" };
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File copyLog(final String name)
+        throws Exception
+    {
+        final File f = new File(tmp.getRoot(), name);
+        InputStream in = TestSOCReplayIndex.class.getResourceAsStream("/" + name);
+        assertNotNull(name, in);
+        try
+        {
+            Files.copy(in, f.toPath());
+        } finally {
+            in.close();
+        }
+        return f;
+    }
+
+    /** Summary of the game state which a keyframe and a replayed tail must agree on */
+    private static String summary(final SOCGame ga)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("turn ").append(ga.getTurnCount()).append(" state ").append(ga.getGameState())
+          .append(" cpn ").append(ga.getCurrentPlayerNumber())
+          .append(" robber ").append(ga.getBoard().getRobberHex())
+          .append(" devcards ").append(ga.getNumDevCards());
+        for (SOCPlayer pl : ga.getPlayers())
+            sb.append("\n").append(pl.getName()).append(": ").append(pl.getResources())
+              .append(" vp ").append(pl.getTotalVP())
+              .append(" pieces ").append(pl.getRoadsAndShips().size()).append('/')
+              .append(pl.getSettlements().size()).append('/').append(pl.getCities().size())
+              .append(" dev ").append(pl.getInventory().getTotal())
+              .append(" knights ").append(pl.getNumKnights());
+        return sb.toString();
+    }
+
+    @Test
+    public void testSeekMatchesLinearReplay()
+        throws Exception
+    {
+        for (String name : LOGS)
+        {
+            final File log = copyLog(name);
+            final SOCReplayIndex every = SOCReplayIndex.build(log, 1);
+            final SOCReplayIndex sparse = SOCReplayIndex.build(log, 3);
+            assertTrue(name, every.size() > 20);
+            assertTrue(name, sparse.size() < every.size());
+
+            final int lastTurn = every.floor(Integer.MAX_VALUE).turn;
+            for (int t = every.floor(0).turn; t <= lastTurn; ++t)
+            {
+                if (every.floor(t).turn != t)
+                    continue;  // no turn starts with this turn count; can happen at end of initial placement
+
+                assertTrue(sparse.floor(t).turn <= t);
+                assertTrue(sparse.floor(t).turn > t - 3);
+                assertEquals(name + " turn " + t,
+                    summary(every.floor(t).getGame()), summary(sparse.gameAtTurn(t)));
+            }
+            assertNull(every.floor(-1));
+        }
+    }
+
+    @Test
+    public void testSaveLoad()
+        throws Exception
+    {
+        final File log = copyLog(LOGS[0]);
+        assertNull(SOCReplayIndex.load(log));
+
+        final SOCReplayIndex built = SOCReplayIndex.loadOrBuild(log, 2);
+        assertTrue(SOCReplayIndex.indexFileFor(log).isFile());
+        final SOCReplayIndex loaded = SOCReplayIndex.load(log);
+        assertNotNull(loaded);
+        assertEquals(built.size(), loaded.size());
+        assertEquals(2, loaded.getInterval());
+        assertEquals(summary(built.floor(10).getGame()), summary(loaded.floor(10).getGame()));
+
+        // out of date once the log changes
+        assertTrue(log.setLastModified(log.lastModified() - 10000));
+        assertNull(SOCReplayIndex.load(log));
+    }
+
+    @Test
+    public void testIndexAll()
+        throws Exception
+    {
+        final List<File> logs = new ArrayList<File>();
+        for (String name : LOGS)
+            logs.add(copyLog(name));
+
+        assertEquals(LOGS.length, SOCReplayIndex.indexAll(logs, SOCReplayIndex.DEFAULT_INTERVAL, 2));
+        for (File f : logs)
+            assertNotNull(f.getName(), SOCReplayIndex.load(f));
+        // already indexed
+        assertEquals(0, SOCReplayIndex.indexAll(Arrays.asList(logs.get(0)), SOCReplayIndex.DEFAULT_INTERVAL, 1));
+    }
+
+}
@@ -0,0 +1,228 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.client;
+
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.Random;
+
+import soc.client.StacChatTradeMsgParser;
+import soc.dialogue.StacTradeMessage;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the formal chat trade language in {@link StacChatTradeMsgParser}:
+ * the single-pass tokenizer behind {@link StacChatTradeMsgParser#isTradeMsgFormat(String)} and
+ * {@link StacChatTradeMsgParser#parseTradeMsg(String, String, int, StringWriter)}
+ * must agree with the regex versions on well-formed, near-miss and random messages.
+ */
+public class TestStacChatTradeMsgParser
+{
+    private static final String GAME = "test";
+
+    /** Fragments the fuzzer assembles messages from, including near misses of each token */
+    private static final String[] KEYWORDS =
+        { "t", "tr", "trade", "trades", "T", "TrAdE", "o", "of", "offer", "offers", "O", "r", "rec", "receive", "R",
+          "p", "pe", "pers", "persu", "persuasion", "P", "acc", "ACC", "rej", "Rej", "b", "bank", "x", "" };
+    private static final String[] RECIPIENTS =
+        { "0", "1", "2", "3", "4", "9", "all", "ALL", "b", "blue", "r", "red", "w", "wh", "white", "o", "orange",
+          "oranges", "Blue", "x", "12", "" };
+    private static final String[] RESOURCES =
+        { "c", "cl", "clay", "o", "or", "ore", "s", "sheep", "wh", "wheat", "wo", "wood", "wd", "w", "Clay", "ORE",
+          "sheeps", "x", "" };
+    private static final String[] PERSUASIONS =
+        { "", "ImmediateBuildPlan", "RESOURCEBASED", "x_y", "a^b,c", "a^b,c=1", "a^b,c^d,e=f2", "a^,=", "a^b", "a^b,c^d" };
+    private static final String SEPARATORS = ",;:^=_ ";
+
+    /**
+     * Check both implementations agree on {@code msg}, for each player number.
+     * If the regex parser throws (for instance "p:" without a persuasion), only check the format result.
+     */
+    private static void assertAgrees(final String msg)
+    {
+        final boolean fmt = StacChatTradeMsgParser.isTradeMsgFormatRegex(msg);
+        assertEquals("isTradeMsgFormat(\"" + msg + "\")", fmt, StacChatTradeMsgParser.isTradeMsgFormat(msg));
+        if (! fmt)
+            return;
+
+        for (int pn = 0; pn < 4; ++pn)
+        {
+            final StringWriter regexOut = new StringWriter(), tokOut = new StringWriter();
+            final Map.Entry<StacTradeMessage, Integer> regexEntry;
+            try
+            {
+                regexEntry = StacChatTradeMsgParser.parseTradeMsgRegex(msg, GAME, pn, regexOut);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            final Map.Entry<StacTradeMessage, Integer> tokEntry = StacChatTradeMsgParser.parseTradeMsg(msg, GAME, pn, tokOut);
+
+            final String desc = "parseTradeMsg(\"" + msg + "\", pn " + pn + ")";
+            assertEquals(desc + " output", regexOut.toString(), tokOut.toString());
+            if (regexEntry == null)
+            {
+                assertNull(desc, tokEntry);
+                continue;
+            }
+            assertNotNull(desc, tokEntry);
+            assertEquals(desc, regexEntry.getKey().toString(), tokEntry.getKey().toString());
+            assertEquals(desc, regexEntry.getValue(), tokEntry.getValue());
+        }
+    }
+
+    /** Well-formed messages from the parser javadoc and other typical ones */
+    @Test
+    public void testExamples()
+    {
+        final String[] msgs =
+            {
+                "acc:1", "acc:red", "ACC:2", "rej:0", "rej:blue", "acc:all", "acc:9", "rej:orange",
+                "t:0,1,2;o:1wd;r:1sh", "t:all;o:1wd;r:1sh", "t:blue,red,white;o:1wood;r:1sheep",
+                "t:orange;o:1wd,1sh;r:1ore", "t:1,2,;o:1cl,;r:2wh;", "t:1;o:12clay;r:1ore", "t:1;o:123wd;r:1or",
+                "T:1;o:1cl;r:1wd", "t:1;O:1cl;r:1wd", "t:1;o:1cl;R:1wd", "t:1;o:1cl;r:1cl", "t:3;o:1cl;r:1wd",
+                "t:all,red;o:1cl;r:1wd", "t:1;o:1cl;r:1wd;p:", "t:1;o:1c,1o,1s,1wh;r:1wd,", "t:1;o:1c,1o,1s,1wh,1wo;r:1wd",
+                "t:1;o:1cl", "t:1", "acc:", "acc:1234567", "t:1,2,3,4;o:1cl;r:1wd", "t:1,,;o:1cl;r:1wd",
+                "t:1,2,,;o:1cl;r:1wd", "t:1,2,3,,;o:1cl;r:1wd", "t:1;o:1c,,;r:1wd", "t:1,red;o:1c;r:1wd"
+            };
+        for (String msg : msgs)
+            assertAgrees(msg);
+    }
+
+    /** Specific results of the tokenizer, independent of the regex parser */
+    @Test
+    public void testParseResults()
+    {
+        assertTrue(StacChatTradeMsgParser.isTradeMsgFormat("t:blue,red;o:1wd;r:2sh"));
+        assertFalse(StacChatTradeMsgParser.isTradeMsgFormat("t:blue,1;o:1wd;r:2sh"));
+        assertFalse(StacChatTradeMsgParser.isTradeMsgFormat("t:1;o:1wd"));
+        assertFalse(StacChatTradeMsgParser.isTradeMsgFormat("acc:\u212A"));  // Kelvin sign isn't case-folded to k
+
+        StringWriter out = new StringWriter();
+        Map.Entry<StacTradeMessage, Integer> entry = StacChatTradeMsgParser.parseTradeMsg("t:blue,red;o:1wd;r:2sh", GAME, 3, out);
+        assertNotNull(out.toString(), entry);
+        assertNull(entry.getValue());
+        assertArrayEquals(new boolean[]{ true, true, false, false }, entry.getKey().getOffer().getTo());
+        SOCResourceSet rs = entry.getKey().getOffer().getGiveSet();
+        assertEquals(1, rs.getAmount(SOCResourceConstants.WOOD));
+        assertEquals(1, rs.getTotal());
+        assertEquals(2, entry.getKey().getOffer().getGetSet().getAmount(SOCResourceConstants.SHEEP));
+
+        out = new StringWriter();
+        entry = StacChatTradeMsgParser.parseTradeMsg("rej:w", GAME, 0, out);
+        assertNotNull(entry);
+        assertTrue(entry.getKey().isReject());
+        assertEquals(Integer.valueOf(2), entry.getValue());
+
+        out = new StringWriter();
+        assertNull(StacChatTradeMsgParser.parseTradeMsg("t:0;o:1wd;r:2sh", GAME, 0, out));
+        assertEquals("Cannot offer the trade to yourself", out.toString());
+    }
+
+    /**
+     * Random messages assembled from grammar fragments, plus random single-character edits,
+     * must get the same results from both implementations.
+     */
+    @Test
+    public void testFuzzAgainstRegex()
+    {
+        final Random rand = new Random(26);
+        final StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < 20000; ++n)
+        {
+            sb.setLength(0);
+            if (rand.nextInt(5) == 0)
+            {
+                sb.append(pick(rand, (rand.nextBoolean()) ? new String[]{ "acc", "rej", "Acc", "REJ" } : KEYWORDS))
+                  .append(':').append(pick(rand, RECIPIENTS));
+            } else {
+                sb.append(pick(rand, KEYWORDS)).append(':');
+                appendList(rand, sb, RECIPIENTS, false);
+                final int nParts = 1 + rand.nextInt(4);
+                for (int p = 0; p < nParts; ++p)
+                {
+                    sb.append(';').append(pick(rand, KEYWORDS)).append(':');
+                    if (p == 2 || rand.nextInt(10) == 0)
+                        sb.append(pick(rand, PERSUASIONS));
+                    else
+                        appendList(rand, sb, RESOURCES, true);
+                }
+                if (rand.nextInt(4) == 0)
+                    sb.append(';');
+            }
+
+            final int nEdits = (rand.nextInt(3) == 0) ? 1 + rand.nextInt(2) : 0;
+            for (int e = 0; e < nEdits && sb.length() > 0; ++e)
+            {
+                final int i = rand.nextInt(sb.length());
+                switch (rand.nextInt(3))
+                {
+                case 0:
+                    sb.deleteCharAt(i);
+                    break;
+                case 1:
+                    sb.insert(i, randomChar(rand));
+                    break;
+                default:
+                    sb.setCharAt(i, randomChar(rand));
+                }
+            }
+
+            assertAgrees(sb.toString());
+        }
+    }
+
+    private static void appendList(final Random rand, final StringBuilder sb, final String[] items, final boolean withAmounts)
+    {
+        final int nItems = 1 + rand.nextInt(5);
+        for (int i = 0; i < nItems; ++i)
+        {
+            if (i > 0)
+                sb.append(',');
+            if (withAmounts && rand.nextInt(8) != 0)
+                sb.append(rand.nextInt((rand.nextInt(6) == 0) ? 200 : 10));
+            sb.append(pick(rand, items));
+        }
+        while (rand.nextInt(6) == 0)
+            sb.append(',');
+    }
+
+    private static char randomChar(final Random rand)
+    {
+        switch (rand.nextInt(4))
+        {
+        case 0:
+            return SEPARATORS.charAt(rand.nextInt(SEPARATORS.length()));
+        case 1:
+            return (char) ('0' + rand.nextInt(10));
+        case 2:
+            return (char) ((rand.nextBoolean() ? 'a' : 'A') + rand.nextInt(26));
+        default:
+            return (char) (32 + rand.nextInt(95));
+        }
+    }
+
+    private static String pick(final Random rand, final String[] arr)
+    {
+        return arr[rand.nextInt(arr.length)];
+    }
+
+}
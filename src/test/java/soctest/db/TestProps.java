@@ -78,6 +78,19 @@ public class TestProps
         db.initialize("u", "p", props);
     }
 
+    /**
+     * Test {@link SOCDBHelper#PROP_JSETTLERS_DB_POOL__SIZE} below minimum.
+     * @since 2.4.50
+     */
+    @Test(expected=IllegalArgumentException.class)
+    public final void testPoolSizeMin()
+        throws Exception
+    {
+        Properties props = new Properties();
+        props.put(SOCDBHelper.PROP_JSETTLERS_DB_POOL__SIZE, "0");
+        db.initialize("u", "p", props);
+    }
+
     /** Test {@link SOCDBHelper#PROP_JSETTLERS_DB_BCRYPT_WORK__FACTOR} below range */
     @Test(expected=IllegalArgumentException.class)
     public final void testBCryptWFMin()
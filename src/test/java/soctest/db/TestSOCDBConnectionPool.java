@@ -0,0 +1,331 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package soctest.db;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import soc.server.database.SOCDBConnectionPool;
+import soc.server.database.SOCDBHelper;
+import soc.server.database.SOCDBWriteQueue;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCDBConnectionPool} and {@link SOCDBWriteQueue}, using stand-in connections.
+ * {@link #testHelperWithSQLite()} also uses the pool through {@link SOCDBHelper} with a temporary
+ * SQLite database, and is skipped if the SQLite JDBC driver isn't on the classpath.
+ *
+ * @since 2.4.50
+ */
+public class TestSOCDBConnectionPool
+{
+    /**
+     * Connection factory whose connections do nothing except count their
+     * prepared statements and whether they've been closed.
+     */
+    private static class FakeFactory implements SOCDBConnectionPool.ConnectionFactory
+    {
+        final AtomicInteger nOpened = new AtomicInteger(), nClosed = new AtomicInteger(),
+            nPrepared = new AtomicInteger();
+
+        public Connection newConnection()
+        {
+            nOpened.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance
+                (Connection.class.getClassLoader(), new Class<?>[]{ Connection.class }, new InvocationHandler()
+                {
+                    public Object invoke(Object proxy, Method m, Object[] args)
+                    {
+                        final String name = m.getName();
+                        if (name.equals("prepareStatement"))
+                        {
+                            nPrepared.incrementAndGet();
+                            return Proxy.newProxyInstance
+                                (PreparedStatement.class.getClassLoader(), new Class<?>[]{ PreparedStatement.class },
+                                 new InvocationHandler()
+                                 {
+                                     public Object invoke(Object p, Method m2, Object[] a)
+                                     {
+                                         return null;
+                                     }
+                                 });
+                        }
+                        else if (name.equals("close"))
+                            nClosed.incrementAndGet();
+                        else if (name.equals("hashCode"))
+                            return System.identityHashCode(proxy);
+                        else if (name.equals("equals"))
+                            return proxy == args[0];
+                        return null;
+                    }
+                });
+        }
+    }
+
+    /** Connections are opened only as needed, and reused after release. */
+    @Test
+    public void testReuse()
+        throws SQLException
+    {
+        final FakeFactory fac = new FakeFactory();
+        final SOCDBConnectionPool pool = new SOCDBConnectionPool(fac, 2);
+        assertEquals(0, pool.getNumOpen());
+
+        SOCDBConnectionPool.PooledConnection pc = pool.acquire();
+        final Connection conn = pc.getConnection();
+        pool.release(pc, false);
+        pc = pool.acquire();
+        assertSame(conn, pc.getConnection());
+        assertEquals(1, fac.nOpened.get());
+
+        SOCDBConnectionPool.PooledConnection pc2 = pool.acquire();
+        assertNotSame(conn, pc2.getConnection());
+        assertEquals(2, pool.getNumOpen());
+        pool.release(pc, false);
+        pool.release(pc2, false);
+
+        pool.close();
+        assertEquals(0, pool.getNumOpen());
+        assertEquals(2, fac.nClosed.get());
+        try
+        {
+            pool.acquire();
+            fail("acquire after close should throw");
+        } catch (SQLException e) {}
+    }
+
+    /** Each connection prepares a statement only once. */
+    @Test
+    public void testStatementCache()
+        throws SQLException
+    {
+        final FakeFactory fac = new FakeFactory();
+        final SOCDBConnectionPool pool = new SOCDBConnectionPool(fac, 1);
+        SOCDBConnectionPool.PooledConnection pc = pool.acquire();
+        PreparedStatement ps = pc.prepare("SELECT 1");
+        assertSame(ps, pc.prepare("SELECT 1"));
+        assertNotSame(ps, pc.prepare("SELECT 1", new String[]{ "id" }));
+        assertNotSame(ps, pc.prepare("SELECT 2"));
+        assertEquals(3, pc.getNumStatements());
+        pool.release(pc, false);
+
+        pc = pool.acquire();
+        assertSame(ps, pc.prepare("SELECT 1"));
+        assertEquals(3, fac.nPrepared.get());
+        pool.release(pc, false);
+        pool.close();
+    }
+
+    /** A connection released after an error is closed, and replaced when next needed. */
+    @Test
+    public void testReleaseFailed()
+        throws SQLException
+    {
+        final FakeFactory fac = new FakeFactory();
+        final SOCDBConnectionPool pool = new SOCDBConnectionPool(fac, 1);
+        SOCDBConnectionPool.PooledConnection pc = pool.acquire();
+        final Connection conn = pc.getConnection();
+        pool.release(pc, true);
+        assertEquals(1, fac.nClosed.get());
+        assertEquals(0, pool.getNumOpen());
+
+        pc = pool.acquire();
+        assertNotSame(conn, pc.getConnection());
+        pool.release(pc, false);
+
+        try
+        {
+            new SOCDBConnectionPool(fac, 1).release(pc, false);
+            fail("release to wrong pool should throw");
+        } catch (IllegalArgumentException e) {}
+        pool.close();
+    }
+
+    /** When all connections are in use, acquire waits for one to be released. */
+    @Test(timeout=10000)
+    public void testMaxSizeWaits()
+        throws Exception
+    {
+        final FakeFactory fac = new FakeFactory();
+        final SOCDBConnectionPool pool = new SOCDBConnectionPool(fac, 1);
+        final SOCDBConnectionPool.PooledConnection pc = pool.acquire();
+
+        final SOCDBConnectionPool.PooledConnection[] got = new SOCDBConnectionPool.PooledConnection[1];
+        final Thread t = new Thread()
+        {
+            public void run()
+            {
+                try
+                {
+                    got[0] = pool.acquire();
+                } catch (SQLException e) {}
+            }
+        };
+        t.start();
+        t.join(200);
+        assertTrue("should wait while pool is full", t.isAlive());
+
+        pool.release(pc, false);
+        t.join();
+        assertSame(pc, got[0]);
+        assertEquals(1, fac.nOpened.get());
+        pool.release(got[0], false);
+        pool.close();
+    }
+
+    /** Failed writes are retried, up to the queue's limit; runtime exceptions aren't. */
+    @Test(timeout=10000)
+    public void testWriteQueueRetries()
+    {
+        final SOCDBWriteQueue wq = new SOCDBWriteQueue("test-writes", 3, 1);
+        final List<String> done = new ArrayList<String>();
+        final int[] tries = new int[3];
+
+        assertTrue(wq.submit("ok on 2nd try", new SOCDBWriteQueue.Write()
+        {
+            public void run()
+                throws SQLException
+            {
+                if (++tries[0] < 2)
+                    throw new SQLException("busy");
+                done.add("a");
+            }
+        }));
+        assertTrue(wq.submit("always fails", new SOCDBWriteQueue.Write()
+        {
+            public void run()
+                throws SQLException
+            {
+                ++tries[1];
+                throw new SQLException("down");
+            }
+        }));
+        assertTrue(wq.submit("bug", new SOCDBWriteQueue.Write()
+        {
+            public void run()
+            {
+                ++tries[2];
+                throw new IllegalStateException("not retried");
+            }
+        }));
+        assertTrue(wq.submit("ok", new SOCDBWriteQueue.Write()
+        {
+            public void run()
+            {
+                done.add("b");
+            }
+        }));
+
+        assertTrue(wq.flush(5000));
+        assertEquals(4, wq.getNumSubmitted());
+        assertEquals(2, wq.getNumDone());
+        assertEquals(2, wq.getNumFailed());
+        assertEquals(1 + 2, wq.getNumRetries());
+        assertArrayEquals(new int[]{ 2, 3, 1 }, tries);
+        assertEquals("[a, b]", done.toString());
+
+        assertTrue(wq.shutdown(1000));
+        assertFalse(wq.submit("too late", new SOCDBWriteQueue.Write()
+        {
+            public void run() {}
+        }));
+    }
+
+    /**
+     * Several threads using {@link SOCDBHelper}'s pooled queries at once, with a temporary SQLite database.
+     * Skipped unless the SQLite JDBC driver is on the classpath.
+     */
+    @Test(timeout=60000)
+    public void testHelperWithSQLite()
+        throws Exception
+    {
+        try
+        {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            Assume.assumeTrue("SQLite JDBC driver not on classpath", false);
+        }
+        final File script = new File("src/main/bin/sql/jsettlers-tables-sqlite.sql");
+        Assume.assumeTrue(script.exists());
+
+        final File dbFile = File.createTempFile("jsettlers-test-pool", ".sqlite");
+        dbFile.delete();
+        final SOCDBHelper db = new SOCDBHelper();
+        try
+        {
+            Properties props = new Properties();
+            props.put(SOCDBHelper.PROP_JSETTLERS_DB_URL, "jdbc:sqlite:" + dbFile.getPath());
+            props.put(SOCDBHelper.PROP_JSETTLERS_DB_SCRIPT_SETUP, script.getPath());
+            props.put(SOCDBHelper.PROP_JSETTLERS_DB_BCRYPT_WORK__FACTOR, "9");
+            props.put(SOCDBHelper.PROP_JSETTLERS_DB_POOL__SIZE, "3");
+            db.initialize("u", "p", props);
+            assertTrue(db.isInitialized());
+
+            for (int i = 0; i < 4; ++i)
+                assertTrue(db.createAccount("user" + i, "localhost", "pw" + i, null, System.currentTimeMillis()));
+
+            final Thread[] threads = new Thread[6];
+            final Throwable[] err = new Throwable[1];
+            for (int t = 0; t < threads.length; ++t)
+            {
+                final int tn = t;
+                threads[t] = new Thread()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            for (int i = 0; i < 25; ++i)
+                            {
+                                assertEquals("user" + (i % 4), db.getUser("USER" + (i % 4)));
+                                assertNull(db.getUser("nobody" + tn));
+                                assertEquals(4, db.countUsers());
+                            }
+                        } catch (Throwable th) {
+                            synchronized (err)
+                            {
+                                err[0] = th;
+                            }
+                        }
+                    }
+                };
+                threads[t].start();
+            }
+            for (Thread t : threads)
+                t.join();
+            if (err[0] != null)
+                throw new AssertionError("thread failed", err[0]);
+        } finally {
+            db.cleanup(true);
+            dbFile.delete();
+        }
+    }
+
+}
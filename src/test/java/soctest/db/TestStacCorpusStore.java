@@ -0,0 +1,224 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+package soctest.db;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import soc.message.SOCGameTextMsg;
+import soc.server.database.stac.ChatRow;
+import soc.server.database.stac.DBGameRows;
+import soc.server.database.stac.ExtGameStateRow;
+import soc.server.database.stac.GameActionRow;
+import soc.server.database.stac.ObsGameStateRow;
+import soc.server.database.stac.StacCorpusStore;
+import soc.server.database.stac.StacDBHelper;
+
+/**
+ * Tests for {@link StacDBHelper} with a {@code file:} dbURL, which keeps the per-game tables
+ * in a {@link StacCorpusStore}. Doesn't require a database.
+ */
+public class TestStacCorpusStore
+{
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private StacDBHelper open(File dir)
+    {
+        final StacDBHelper dbh = new StacDBHelper();
+        dbh.initialize(StacDBHelper.FILE_URL_PREFIX + dir.getPath(), null, null);
+        dbh.connect();
+        assertTrue(dbh.isConnected());
+        return dbh;
+    }
+
+    private static ObsGameStateRow obsRow(int id, int gameState)
+    {
+        ObsGameStateRow ogsr = new ObsGameStateRow(id, "game-7");
+        ogsr.setGameTurn(id / 2);
+        ogsr.setHexLayout(new Integer[]{ 1, 2, 3 });
+        ogsr.setNumberLayout(new Integer[]{ 6, null, 8 });
+        ogsr.setRobberHex(0x55);
+        ogsr.setGameState(gameState);
+        ogsr.setCurrentPlayer(id % 4);
+        ogsr.setPlayedDevCard(true);
+        ogsr.setPiecesOnBoard(new Integer[][]{ { 0, 0x44, 1 } });
+        ogsr.setPlayers(new Integer[][]{ { 1 }, { 2 }, { 3 }, { 4 } });
+        ogsr.setPlayersResources(new Integer[][]{ { 0, 1, 2, 3, 4, 5 }, {}, {}, {} });
+        ogsr.setTouchingNumbers(new Integer[][][]{ { { 6, 8 }, {} } });
+        return ogsr;
+    }
+
+    private static void fillGame(StacDBHelper dbh, int gameID, int n)
+    {
+        dbh.createObsGameStateTable(gameID);
+        dbh.createExtractedStateTable(gameID);
+        dbh.createActionTable(gameID);
+        for (int i = 0; i < n; ++i)
+        {
+            dbh.insertObsGameState(gameID, obsRow(i, (i % 2 == 0) ? 20 : 1000));
+            ExtGameStateRow egsr = new ExtGameStateRow(i, "game-7");
+            egsr.setETWs(new Integer[]{ i, i, i, i });
+            dbh.insertExtractedState(gameID, egsr);
+            dbh.insertAction(gameID, new GameActionRow(i, 1.5, i, i + 1));
+        }
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        final StacDBHelper dbh = open(tmp.getRoot());
+        assertFalse(dbh.tableExists(StacDBHelper.OBSFEATURESTABLE + 7));
+        fillGame(dbh, 7, 5);
+        assertTrue(dbh.tableExists(StacDBHelper.OBSFEATURESTABLE + 7));
+        assertTrue(dbh.tableExists("ObsGameStates_7"));
+        assertFalse(dbh.tableExists(StacDBHelper.CHATSTABLE + 7));
+        assertEquals(5, dbh.getTableSize(StacDBHelper.ACTIONSTABLE + 7));
+
+        ObsGameStateRow ogsr = dbh.selectOGSR(7, 3);
+        assertEquals(obsRow(3, 1000).toString(), ogsr.toString());
+        assertNull(ogsr.getNumberLayout()[1]);
+        assertEquals(3, dbh.selectEGSR(7, 3).getETWs()[0].intValue());
+        GameActionRow gar = dbh.selectGAR(7, 4);
+        assertEquals(1.5, gar.getType(), 0.0);
+        assertEquals(5, gar.getAfterState());
+
+        // missing rows are empty, like from the db
+        assertEquals(9, dbh.selectOGSR(7, 9).getID());
+        assertNull(dbh.selectOGSR(7, 9).getHexLayout());
+
+        assertEquals("game-7", dbh.getGameNameByID(7));
+        assertEquals(7, dbh.getIDfromGameName("game-7"));
+        assertEquals(-1, dbh.getIDfromSimGameName("game-7"));
+        assertEquals("", dbh.getGameNameByID(8));
+
+        // each select gives new objects
+        dbh.selectOGSR(7, 2).setGameState(99);
+        assertEquals(20, dbh.selectOGSR(7, 2).getGameState());
+
+        ObsGameStateRow[] of20 = dbh.getAllObsStatesOfAKind(7, 20);
+        assertEquals(3, of20.length);
+        assertEquals(4, of20[2].getID());
+        dbh.disconnect();
+    }
+
+    @Test
+    public void testEmptyPiecesDecoy()
+    {
+        final StacDBHelper dbh = open(tmp.getRoot());
+        ObsGameStateRow ogsr = obsRow(0, 5);
+        ogsr.setPiecesOnBoard(new Integer[0][]);
+        dbh.insertObsGameState(3, ogsr);
+        assertArrayEquals(new Integer[]{ -1, -1, -1 }, dbh.selectOGSR(3, 0).getPiecesOnBoard()[0]);
+        dbh.disconnect();
+    }
+
+    @Test
+    public void testReopen()
+    {
+        StacDBHelper dbh = open(tmp.getRoot());
+        fillGame(dbh, 7, 3);
+        dbh.disconnect();
+
+        dbh = open(tmp.getRoot());
+        assertTrue(dbh.tableExists(StacDBHelper.EXTFEATURESTABLE + 7));
+        assertEquals(3, dbh.getTableSize(StacDBHelper.OBSFEATURESTABLE + 7));
+        assertEquals("game-7", dbh.getGameNameByID(7));
+
+        // more rows, in a new segment
+        dbh.insertAction(7, new GameActionRow(3, 2.0, 3, 4));
+        assertEquals(4, dbh.getTableSize(StacDBHelper.ACTIONSTABLE + 7));
+        dbh.disconnect();
+
+        dbh = open(tmp.getRoot());
+        assertEquals(2.0, dbh.selectGAR(7, 3).getType(), 0.0);
+        assertEquals(1.5, dbh.selectGAR(7, 0).getType(), 0.0);
+        dbh.disconnect();
+    }
+
+    @Test
+    public void testDropAndRecreate()
+    {
+        StacDBHelper dbh = open(tmp.getRoot());
+        fillGame(dbh, 7, 4);
+        fillGame(dbh, 8, 2);
+        dbh.dropTable(StacDBHelper.ACTIONSTABLE + 7);
+        assertFalse(dbh.tableExists(StacDBHelper.ACTIONSTABLE + 7));
+        assertEquals(0, dbh.getTableSize(StacDBHelper.ACTIONSTABLE + 7));
+        assertEquals(4, dbh.getTableSize(StacDBHelper.OBSFEATURESTABLE + 7));
+        assertEquals(2, dbh.getTableSize(StacDBHelper.ACTIONSTABLE + 8));
+
+        dbh.createActionTable(7);
+        dbh.insertAction(7, new GameActionRow(0, 3.0, 0, 1));
+        assertEquals(1, dbh.getTableSize(StacDBHelper.ACTIONSTABLE + 7));
+        dbh.disconnect();
+
+        dbh = open(tmp.getRoot());
+        assertTrue(dbh.tableExists(StacDBHelper.ACTIONSTABLE + 7));
+        assertEquals(1, dbh.getTableSize(StacDBHelper.ACTIONSTABLE + 7));
+        assertEquals(3.0, dbh.selectGAR(7, 0).getType(), 0.0);
+        dbh.disconnect();
+    }
+
+    @Test
+    public void testSelectAllAndGameRows()
+    {
+        final StacDBHelper dbh = open(tmp.getRoot());
+        dbh.createActionTable(7);
+        // out of order, with a gap at 2
+        for (int id : new int[]{ 3, 0, 1 })
+            dbh.insertAction(7, new GameActionRow(id, id, id, id + 1));
+        GameActionRow[] gars = dbh.selectAllGARs(7);
+        assertEquals(4, gars.length);
+        assertNull(gars[2]);
+        assertEquals(3, gars[3].getBeforeState());
+        assertEquals(0, dbh.selectAllOGSRs(12).length);
+
+        dbh.createChatTable(7);
+        dbh.insertChat(7, new ChatRow(5, new SOCGameTextMsg("g", "s", "second")));
+        ChatRow[] chats = dbh.selectAllChats(7);
+        assertEquals(1, chats.length);
+        assertEquals("second", chats[0].getMessage());
+        assertEquals(5, chats[0].getCurrentState());
+
+        fillGame(dbh, 9, 3);
+        DBGameRows rows = DBGameRows.load(dbh, 9);
+        assertNotNull(rows);
+        assertEquals(3, rows.getNumStates());
+        assertEquals(3, rows.getNumActions());
+        assertEquals(2, rows.getEGSR(2).getETWs()[0].intValue());
+        assertEquals(5, rows.getOGSR(5).getID());
+        dbh.disconnect();
+    }
+
+    @Test
+    public void testPostgresOnlyMethods()
+    {
+        final StacDBHelper dbh = open(tmp.getRoot());
+        assertEquals(-1, dbh.getPlayerIDByName("someone"));
+        assertEquals(-1, dbh.getTableSize(StacDBHelper.GAMESTABLE));
+        assertFalse(dbh.tableExists(StacDBHelper.GAMESTABLE));
+        assertArrayEquals(new int[4], dbh.getPlayersIDsFromGame(7));
+        assertFalse(dbh.areAnyTotalNumbersCollected(7));
+        dbh.disconnect();
+    }
+
+}
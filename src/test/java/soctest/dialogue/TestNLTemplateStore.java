@@ -0,0 +1,93 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.dialogue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import soc.dialogue.StacDialogueManager;
+import soc.dialogue.StacNLTemplateStore;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StacNLTemplateStore}: pre-split templates must give the same text
+ * as the per-key {@link String#replaceAll(String, String)} substitution they replace.
+ */
+public class TestNLTemplateStore
+{
+    private static final String ALL_MESSAGES = "//message" + "/text()";
+
+    /** Fill every template in the file, compare with sequential replaceAll */
+    @Test
+    public void testFillMatchesReplaceAll()
+    {
+        final StacNLTemplateStore store = StacNLTemplateStore.getInstance();
+        final StacNLTemplateStore.Template[] all = store.lookup(ALL_MESSAGES);
+        assertTrue("templates loaded", all.length > 100);
+        assertSame("query is evaluated once", all, store.lookup(ALL_MESSAGES));
+
+        // wildcards used together by the robot, player and persuasion code
+        final HashMap<String, String> robot = new HashMap<String, String>();
+        robot.put("\\$giv", "1 wood");
+        robot.put("\\$rec", "2 sheep and 1 ore");
+        robot.put("\\$pl", "Bob");
+        final HashMap<String, String> player = new HashMap<String, String>();
+        player.put("\\$se", "Alice");
+        player.put("\\$rs", "clay");
+        final HashMap<String, String> persuasion = new HashMap<String, String>();
+        persuasion.put("\\$res", "wheat");
+        persuasion.put("\\$LRType", "take");
+        persuasion.put("\\$VPType", "have");
+        persuasion.put("\\$LAType", "keep");
+        persuasion.put("\\$TType", "3:1 port");
+
+        for (StacNLTemplateStore.Template t : all)
+        {
+            final String text = t.toString();
+            for (Map<String, String> table : new Map[]{ robot, player, persuasion })
+            {
+                String expected = text;
+                for (Map.Entry<String, String> e : table.entrySet())
+                    expected = expected.replaceAll(e.getKey(), e.getValue());
+                assertEquals(text, expected, t.fill(table));
+            }
+        }
+    }
+
+    @Test
+    public void testLookup()
+    {
+        final StacNLTemplateStore store = StacNLTemplateStore.getInstance();
+        final StacNLTemplateStore.Template[] found = store.lookup
+            ("/statement/trade/initialTrade/tradeMessage[@specifyPlayer=\"true\" and @specifyGiveable=\"true\""
+             + " and @specifyReceivable=\"true\" and @context=\"\"]" + StacDialogueManager.xmlQueryMessageSuffix);
+        assertEquals(2, found.length);
+        assertEquals("$pl, do you want to get $giv for $rec?", found[0].toString());
+
+        final HashMap<String, String> table = new HashMap<String, String>();
+        table.put("\\$pl", "Bob$1");  // not a group reference here
+        table.put("\\$giv", "1 wood");
+        table.put("\\$rec", "1 ore");
+        assertEquals("Bob$1, do you want to get 1 wood for 1 ore?", found[0].fill(table));
+
+        assertEquals(0, store.lookup("/statement/noSuchElement" + StacDialogueManager.xmlQueryMessageSuffix).length);
+    }
+
+}
@@ -21,9 +21,11 @@
 package soctest.game;
 
 import java.util.Arrays;
+import java.util.List;
 
 import soc.game.SOCBoard;
 import soc.game.SOCBoard4p;
+import soc.game.SOCBoard6p;
 
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -142,4 +144,61 @@ public class TestBoard
         doTestPair_getNodeBetweenAdjacentEdges(b, 0x52, 0x43, 0, true);  // 2 edges away
     }
 
+    /**
+     * Compare the {@code _shared} primitive adjacency methods to their {@code List} counterparts
+     * for every coordinate from -0x20 to {@code maxCoord}, including coordinates off the board,
+     * and check that repeated calls return the same shared array.
+     * @param board  Board to test; its size must be set
+     * @param maxCoord  Highest coordinate to test
+     * @see TestBoardLarge#testSharedAdjacency()
+     * @since 2.4.50
+     */
+    static void doTestSharedAdjacency(final SOCBoard board, final int maxCoord)
+    {
+        for (int c = -0x20; c <= maxCoord; ++c)
+        {
+            final String desc = "0x" + Integer.toHexString(c);
+            assertListEquals("nodesToNode " + desc, board.getAdjacentNodesToNode(c), board.getAdjacentNodesToNode_shared(c));
+            assertListEquals("edgesToEdge " + desc, board.getAdjacentEdgesToEdge(c), board.getAdjacentEdgesToEdge_shared(c));
+            assertListEquals("edgesToNode " + desc, board.getAdjacentEdgesToNode(c), board.getAdjacentEdgesToNode_shared(c));
+            assertListEquals("nodesToEdge " + desc, board.getAdjacentNodesToEdge(c), board.getAdjacentNodesToEdge_shared(c));
+            assertListEquals("hexesToNode " + desc, board.getAdjacentHexesToNode(c), board.getAdjacentHexesToNode_shared(c));
+            assertListEquals("hexesToHex " + desc, board.getAdjacentHexesToHex(c, true), board.getAdjacentHexesToHex_shared(c));
+            if (c >= 0)
+                assertSame(desc, board.getAdjacentEdgesToNode_shared(c), board.getAdjacentEdgesToNode_shared(c));
+        }
+    }
+
+    /**
+     * Assert that an array has the same contents and order as a list.
+     * @param expected  Expected contents; {@code null} is treated as empty
+     */
+    private static void assertListEquals(final String desc, final List<Integer> expected, final int[] actual)
+    {
+        assertNotNull(desc, actual);
+        final int[] exp = new int[(expected != null) ? expected.size() : 0];
+        for (int i = 0; i < exp.length; ++i)
+            exp[i] = expected.get(i);
+        if (! Arrays.equals(exp, actual))
+            fail(desc + ": expected " + Arrays.toString(exp) + ", got " + Arrays.toString(actual));
+    }
+
+    /**
+     * Test the primitive adjacency methods like {@link SOCBoard#getAdjacentNodesToNode_shared(int)}
+     * on the 4- and 6-player classic boards, and that boards with the same geometry share their tables.
+     * @since 2.4.50
+     */
+    @Test
+    public void testSharedAdjacency()
+    {
+        final SOCBoard b4 = new SOCBoard4p(null), b6 = new SOCBoard6p(null);
+        b4.makeNewBoard(null);
+        doTestSharedAdjacency(b4, 0x120);
+        doTestSharedAdjacency(b6, 0x120);
+
+        final SOCBoard b4other = new SOCBoard4p(null);
+        assertSame(b4.getAdjacentEdgesToNode_shared(0x27), b4other.getAdjacentEdgesToNode_shared(0x27));
+        assertNotSame(b4.getAdjacentEdgesToEdge_shared(0x26), b6.getAdjacentEdgesToEdge_shared(0x26));
+    }
+
 }
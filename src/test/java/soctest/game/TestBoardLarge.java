@@ -260,4 +260,22 @@ public class TestBoardLarge
         doTestPair_getNodeBetweenAdjacentEdges(b, 0x406, 0x505, 0, true);  // 2 edges away
     }
 
+    /**
+     * Test the primitive adjacency methods like {@link SOCBoard#getAdjacentNodesToNode_shared(int)}
+     * against their {@code List} counterparts on default-size and smaller large boards.
+     * @see TestBoard#doTestSharedAdjacency(SOCBoard, int)
+     * @since 2.4.50
+     */
+    @Test
+    public void testSharedAdjacency()
+    {
+        final SOCBoardLarge b = new SOCBoardLarge
+            (null, 4, new IntPair(SOCBoardLarge.BOARDHEIGHT_LARGE, SOCBoardLarge.BOARDWIDTH_LARGE));
+        TestBoard.doTestSharedAdjacency(b, ((SOCBoardLarge.BOARDHEIGHT_LARGE + 3) << 8) | 0xFF);
+
+        final SOCBoardLarge small = new SOCBoardLarge(null, 6, new IntPair(0x0A, 0x0C));
+        TestBoard.doTestSharedAdjacency(small, (0x0D << 8) | 0xFF);
+        assertNotSame(b.getAdjacentHexesToNode_shared(0x0A0B), small.getAdjacentHexesToNode_shared(0x0A0B));
+    }
+
 }
@@ -0,0 +1,216 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import soc.game.SOCCoordinateSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCCoordinateSet}: Random operation sequences must give the same results
+ * as a {@link HashSet} of the same coordinates.
+ *
+ * @see TestPlayer#testLegalPotentialSetsRandomPlacement()
+ * @since 2.4.50
+ */
+public class TestCoordinateSet
+{
+    /** Check size, contents, iteration order and equality against the reference set. */
+    private static void assertSameContents(final String desc, final Set<Integer> expected, final SOCCoordinateSet actual)
+    {
+        assertEquals(desc, expected.size(), actual.size());
+        assertEquals(desc, expected.isEmpty(), actual.isEmpty());
+        assertEquals(desc, new ArrayList<Integer>(new TreeSet<Integer>(expected)), new ArrayList<Integer>(actual));
+        assertTrue(desc, expected.equals(actual));
+        assertTrue(desc, actual.equals(expected));
+        assertEquals(desc, expected.hashCode(), actual.hashCode());
+
+        final int[] arr = actual.toIntArray();
+        assertEquals(desc, expected.size(), arr.length);
+        for (int i = 0; i < arr.length; ++i)
+        {
+            assertTrue(desc, expected.contains(arr[i]));
+            if (i > 0)
+                assertTrue(desc, arr[i - 1] < arr[i]);
+        }
+    }
+
+    /** Random adds, removes and lookups, including coordinates past the initial size. */
+    @Test
+    public void testRandomOperations()
+    {
+        for (int seed = 1; seed <= 20; ++seed)
+        {
+            final Random rand = new Random(seed);
+            final int maxCoord = (seed % 2 == 0) ? 0xFF : 0x11FF;
+            final Set<Integer> ref = new HashSet<Integer>();
+            final SOCCoordinateSet set = new SOCCoordinateSet(0x40);
+            for (int op = 0; op < 2000; ++op)
+            {
+                final int c = rand.nextInt(maxCoord + 1);
+                final String desc = "seed " + seed + " op " + op + " coord 0x" + Integer.toHexString(c);
+                switch (rand.nextInt(5))
+                {
+                case 0:
+                case 1:
+                    assertEquals(desc, ref.add(c), set.add(c));
+                    break;
+                case 2:
+                    assertEquals(desc, ref.remove(c), set.remove(c));
+                    break;
+                case 3:
+                    assertEquals(desc, ref.remove(Integer.valueOf(c)), set.remove(Integer.valueOf(c)));
+                    break;
+                default:
+                    assertEquals(desc, ref.contains(c), set.contains(c));
+                    assertEquals(desc, ref.contains(Integer.valueOf(c)), set.contains(Integer.valueOf(c)));
+                }
+
+                if (op % 100 == 0)
+                    assertSameContents(desc, ref, set);
+            }
+            assertSameContents("seed " + seed, ref, set);
+
+            assertFalse(set.contains(-1));
+            assertFalse(set.contains((Object) "0x27"));
+            assertFalse(set.remove(-1));
+            assertFalse(set.contains(Integer.MAX_VALUE));
+
+            set.clear();
+            assertSameContents("cleared", new HashSet<Integer>(), set);
+        }
+    }
+
+    /** Copies, bulk operations and iterator removal. */
+    @Test
+    public void testCopyAndBulkOperations()
+    {
+        final Random rand = new Random(46);
+        final Set<Integer> refA = new HashSet<Integer>(), refB = new HashSet<Integer>();
+        for (int i = 0; i < 300; ++i)
+        {
+            refA.add(rand.nextInt(0x800));
+            refB.add(rand.nextInt(0x100));
+        }
+
+        final SOCCoordinateSet a = new SOCCoordinateSet(refA), b = new SOCCoordinateSet(refB);
+        assertSameContents("from HashSet", refA, a);
+
+        final SOCCoordinateSet copy = new SOCCoordinateSet(a), cloned = (SOCCoordinateSet) a.clone();
+        assertSameContents("copy", refA, copy);
+        assertSameContents("clone", refA, cloned);
+        copy.add(0x900);
+        cloned.remove(cloned.iterator().next());
+        assertSameContents("original unchanged by copies", refA, a);
+
+        // addAll from another SOCCoordinateSet and from a HashSet
+        final SOCCoordinateSet union = new SOCCoordinateSet(b), union2 = new SOCCoordinateSet(b);
+        final Set<Integer> refUnion = new HashSet<Integer>(refB);
+        assertEquals(refUnion.addAll(refA), union.addAll(a));
+        assertTrue(union2.addAll(refA));
+        assertSameContents("union", refUnion, union);
+        assertSameContents("union from HashSet", refUnion, union2);
+        assertFalse(union.addAll(b));
+
+        final SOCCoordinateSet kept = new SOCCoordinateSet(a), removed = new SOCCoordinateSet(a);
+        final Set<Integer> refKept = new HashSet<Integer>(refA), refRemoved = new HashSet<Integer>(refA);
+        refKept.retainAll(refB);
+        kept.retainAll(b);
+        refRemoved.removeAll(refB);
+        removed.removeAll(b);
+        assertSameContents("retainAll", refKept, kept);
+        assertSameContents("removeAll", refRemoved, removed);
+
+        // remove even coordinates while iterating
+        final Set<Integer> refOdd = new HashSet<Integer>(refA);
+        final SOCCoordinateSet odd = new SOCCoordinateSet(a);
+        for (Iterator<Integer> it = refOdd.iterator(); it.hasNext(); )
+            if (it.next() % 2 == 0)
+                it.remove();
+        for (Iterator<Integer> it = odd.iterator(); it.hasNext(); )
+            if (it.next() % 2 == 0)
+                it.remove();
+        assertSameContents("iterator remove", refOdd, odd);
+
+        final Integer[] arr = a.toArray(new Integer[0]);
+        final Object[] arr2 = a.toArray();
+        assertEquals(refA.size(), arr.length);
+        assertArrayEquals(arr, arr2);
+        assertEquals(new TreeSet<Integer>(refA), new TreeSet<Integer>(Arrays.asList(arr)));
+        assertEquals(refA.size(), a.stream().count());
+    }
+
+    /** Negative coordinates and null can't be added. */
+    @Test
+    public void testBadCoordinates()
+    {
+        final SOCCoordinateSet set = new SOCCoordinateSet(0xFF);
+        try
+        {
+            set.add(-2);
+            fail("add(-2) should throw");
+        } catch (IllegalArgumentException e) {}
+        try
+        {
+            set.add((Integer) null);
+            fail("add(null) should throw");
+        } catch (NullPointerException e) {}
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(null));
+        assertFalse(set.remove(null));
+    }
+
+    /** Serialization, as used by {@code DeepCopy}, keeps the contents. */
+    @Test
+    public void testSerialize()
+        throws Exception
+    {
+        final List<Integer> coords = Arrays.asList(0x27, 0x45, 0xA9, 0x0C0E);
+        final SOCCoordinateSet set = new SOCCoordinateSet(coords);
+
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bout);
+        out.writeObject(set);
+        out.close();
+        final Object read = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray())).readObject();
+
+        assertTrue(read instanceof SOCCoordinateSet);
+        final SOCCoordinateSet set2 = (SOCCoordinateSet) read;
+        assertSameContents("deserialized", new HashSet<Integer>(coords), set2);
+        set2.add(0x33);
+        assertTrue(set2.contains(0x33));
+        assertFalse(set.contains(0x33));
+    }
+
+}
@@ -0,0 +1,407 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.game;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import soc.game.SOCBoard;
+import soc.game.SOCBoardLarge;
+import soc.game.SOCCity;
+import soc.game.SOCGame;
+import soc.game.SOCGameOptionSet;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCRoad;
+import soc.game.SOCScenario;
+import soc.game.SOCSettlement;
+import soc.game.SOCShip;
+import soc.game.SOCSpecialItem;
+import soc.game.SOCVillage;
+import soc.server.SOCBoardAtServer;
+import soc.server.SOCGameHandler;
+import soc.server.SOCGameListAtServer;
+import soc.util.DeepCopy;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCGame#snapshot()}: Snapshots must have the same state as a serialized
+ * {@link DeepCopy#copy(Object)} of the game, with pieces pointing to the snapshot's players and board,
+ * and changing a snapshot must not change the original game.
+ * @since 2.4.50
+ */
+public class TestGameSnapshot
+{
+    private static SOCGameListAtServer gl;
+    private static SOCGameHandler sgh;
+
+    @BeforeClass
+    public static void setup()
+    {
+        sgh = new SOCGameHandler(null);
+        gl = new SOCGameListAtServer(new Random(), SOCGameOptionSet.getAllKnownOptions());
+    }
+
+    /**
+     * Create and start a game at the server with 4 players, do initial placement, then roll the dice once.
+     * @param scName  Scenario name, or {@code null} for classic
+     * @param seed  Random seed for board layout and piece placement
+     */
+    private static SOCGame newStartedGame(final String scName, final long seed)
+    {
+        final String gaName = "snap-" + scName + "-" + seed;
+        final SOCGame ga = GameTestUtils.createGame(4, scName, null, gaName, gl, sgh);
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("p" + pn, pn);
+        ga.startGame(0, null, seed);
+        SOCBoardAtServer.startGame_scenarioSetup(ga);
+
+        final Random rand = new Random(seed);
+        for (int i = 0; (i < 40) && (ga.getGameState() < SOCGame.ROLL_OR_CARD); ++i)
+        {
+            final SOCPlayer pl = ga.getPlayer(ga.getCurrentPlayerNumber());
+            switch (ga.getGameState())
+            {
+            case SOCGame.START1A:
+            case SOCGame.START2A:
+            case SOCGame.START3A:
+                {
+                    final int[] potentials = pl.getPotentialSettlements_arr();
+                    int node;
+                    do
+                    {
+                        node = potentials[rand.nextInt(potentials.length)];
+                    } while (! pl.canPlaceSettlement(node));
+                    ga.putPiece(new SOCSettlement(pl, node, ga.getBoard()));
+                }
+                break;
+
+            case SOCGame.START1B:
+            case SOCGame.START2B:
+            case SOCGame.START3B:
+                {
+                    final SOCBoard board = ga.getBoard();
+                    final int node = pl.getLastSettlementCoord();
+                    for (final int edge : board.getAdjacentEdgesToNode_arr(node))
+                    {
+                        if (pl.isPotentialRoad(edge))
+                        {
+                            ga.putPiece(new SOCRoad(pl, edge, board));
+                            break;
+                        }
+                        else if (pl.isPotentialShip(edge))
+                        {
+                            ga.putPiece(new SOCShip(pl, edge, board));
+                            break;
+                        }
+                    }
+                }
+                break;
+
+            default:
+                fail(gaName + ": unexpected state " + ga.getGameState());
+            }
+        }
+        assertEquals(gaName, SOCGame.ROLL_OR_CARD, ga.getGameState());
+        ga.rollDice();
+
+        return ga;
+    }
+
+    /**
+     * Assert that two object graphs have the same state: Same classes, same field values,
+     * same collection contents, and the same sharing of objects within each graph.
+     * Static and transient fields are skipped, as they are by serialization.
+     * @param path  Field path, for failure messages
+     * @param seen  Objects in {@code expected}'s graph already compared, mapped to their counterparts
+     */
+    @SuppressWarnings("unchecked")
+    private static void assertSameState
+        (final String path, final Object expected, final Object actual, final IdentityHashMap<Object, Object> seen)
+        throws IllegalAccessException
+    {
+        if ((expected == null) || (actual == null))
+        {
+            assertSame(path, expected, actual);
+            return;
+        }
+
+        final Class<?> cl = expected.getClass();
+        assertEquals(path, cl, actual.getClass());
+        if ((expected instanceof Number) || (expected instanceof String) || (expected instanceof Boolean)
+            || (expected instanceof Character) || (expected instanceof Enum))
+        {
+            assertEquals(path, expected, actual);
+            return;
+        }
+
+        if (seen.containsKey(expected))
+        {
+            assertSame(path + ": object sharing", seen.get(expected), actual);
+            return;
+        }
+        seen.put(expected, actual);
+
+        if (cl.isArray())
+        {
+            final int L = Array.getLength(expected);
+            assertEquals(path + ".length", L, Array.getLength(actual));
+            for (int i = 0; i < L; ++i)
+                assertSameState(path + "[" + i + "]", Array.get(expected, i), Array.get(actual, i), seen);
+        }
+        else if (expected instanceof List)
+        {
+            final List<Object> exList = (List<Object>) expected, acList = (List<Object>) actual;
+            assertEquals(path + ".size", exList.size(), acList.size());
+            for (int i = 0; i < exList.size(); ++i)
+                assertSameState(path + "[" + i + "]", exList.get(i), acList.get(i), seen);
+        }
+        else if (expected instanceof Set)
+        {
+            assertEquals(path, expected, actual);
+        }
+        else if (expected instanceof Map)
+        {
+            final Map<Object, Object> exMap = (Map<Object, Object>) expected, acMap = (Map<Object, Object>) actual;
+            assertEquals(path + ".keySet", exMap.keySet(), acMap.keySet());
+            for (final Map.Entry<Object, Object> ent : exMap.entrySet())
+                assertSameState(path + "{" + ent.getKey() + "}", ent.getValue(), acMap.get(ent.getKey()), seen);
+        }
+        else if (expected instanceof Random)
+        {
+            // compare the upcoming sequence, without changing either generator
+            final Random exCopy = (Random) DeepCopy.copy(expected), acCopy = (Random) DeepCopy.copy(actual);
+            for (int i = 0; i < 5; ++i)
+                assertEquals(path, exCopy.nextLong(), acCopy.nextLong());
+        }
+        else if (cl.getName().startsWith("java."))
+        {
+            assertEquals(path, expected, actual);
+        }
+        else
+        {
+            for (Class<?> c = cl; c != Object.class; c = c.getSuperclass())
+            {
+                for (final Field f : c.getDeclaredFields())
+                {
+                    final int mod = f.getModifiers();
+                    if (Modifier.isStatic(mod) || Modifier.isTransient(mod))
+                        continue;
+                    f.setAccessible(true);
+                    assertSameState(path + "." + f.getName(), f.get(expected), f.get(actual), seen);
+                }
+            }
+        }
+    }
+
+    private static void assertSameState(final String desc, final SOCGame expected, final SOCGame actual)
+        throws IllegalAccessException
+    {
+        assertNotNull(desc, actual);
+        assertSameState(desc, expected, actual, new IdentityHashMap<Object, Object>());
+    }
+
+    /**
+     * Assert that each of a snapshot's pieces belongs to the snapshot's players and board, not the original's,
+     * and is the same piece object in the player's and board's lists.
+     */
+    private static void assertPiecesInSnapshot(final String desc, final SOCGame orig, final SOCGame snap)
+        throws ReflectiveOperationException
+    {
+        final SOCBoard board = snap.getBoard();
+        assertNotSame(desc, orig.getBoard(), board);
+        final List<SOCPlayingPiece> boardPieces = new ArrayList<SOCPlayingPiece>();
+        boardPieces.addAll(board.getRoadsAndShips());
+        boardPieces.addAll(board.getSettlements());
+        boardPieces.addAll(board.getCities());
+
+        int nPieces = 0;
+        for (int pn = 0; pn < snap.maxPlayers; ++pn)
+        {
+            final SOCPlayer pl = snap.getPlayer(pn);
+            assertNotSame(desc, orig.getPlayer(pn), pl);
+            assertSame(desc, snap, pl.getGame());
+            for (final SOCPlayingPiece pp : pl.getPieces())
+            {
+                assertSame(desc, pl, pp.getPlayer());
+                assertSame(desc, board, pieceBoard(pp));
+                assertFalse(desc, orig.getPlayer(pn).getPieces().contains(pp));
+                if (pp.getType() != SOCPlayingPiece.FORTRESS)
+                {
+                    assertTrue(desc + ": " + pp, containsSame(boardPieces, pp));
+                    ++nPieces;
+                }
+            }
+            for (final SOCSettlement se : pl.getSettlements())
+                assertTrue(desc, containsSame(pl.getPieces(), se));
+        }
+        assertEquals(desc, boardPieces.size(), nPieces);
+
+        if (board instanceof SOCBoardLarge)
+        {
+            final Map<Integer, SOCVillage> villages = ((SOCBoardLarge) board).getVillages();
+            if (villages != null)
+                for (final SOCVillage v : villages.values())
+                {
+                    assertSame(desc, board, pieceBoard(v));
+                    assertFalse(desc, containsSame(((SOCBoardLarge) orig.getBoard()).getVillages().values(), v));
+                }
+        }
+    }
+
+    /** Get a piece's board field, which has no getter. */
+    private static SOCBoard pieceBoard(final SOCPlayingPiece pp)
+        throws ReflectiveOperationException
+    {
+        final Field f = SOCPlayingPiece.class.getDeclaredField("board");
+        f.setAccessible(true);
+        return (SOCBoard) f.get(pp);
+    }
+
+    private static boolean containsSame(final Collection<? extends Object> coll, final Object obj)
+    {
+        for (final Object o : coll)
+            if (o == obj)
+                return true;
+        return false;
+    }
+
+    /** Classic game: Same state as a serialized copy, during initial placement and after the first roll. */
+    @Test
+    public void testClassicSameAsSerialized()
+        throws Exception
+    {
+        final SOCGame ga = new SOCGame("snap-new");
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("p" + pn, pn);
+        assertSameState("new game", (SOCGame) DeepCopy.copy(ga), ga.snapshot());
+
+        for (long seed = 1; seed <= 5; ++seed)
+        {
+            final SOCGame started = newStartedGame(null, seed);
+            final SOCGame snap = started.snapshot();
+            assertSameState("seed " + seed, (SOCGame) DeepCopy.copy(started), snap);
+            assertPiecesInSnapshot("seed " + seed, started, snap);
+            assertSame(started.getGameOptions(), snap.getGameOptions());
+            gl.deleteGame(started.getName());
+        }
+    }
+
+    /**
+     * Sea board scenarios: Same state as the original game, including villages, fortresses and fog.
+     * These games can't be serialized at the server, because their required client features aren't serializable.
+     */
+    @Test
+    public void testScenariosSameAsOriginal()
+        throws Exception
+    {
+        for (final String sc : Arrays.asList
+                 (SOCScenario.K_SC_4ISL, SOCScenario.K_SC_FOG, SOCScenario.K_SC_CLVI,
+                  SOCScenario.K_SC_PIRI, SOCScenario.K_SC_FTRI))
+        {
+            final SOCGame ga = newStartedGame(sc, 2);
+            assertTrue(sc, ga.getBoard() instanceof SOCBoardAtServer);
+            final SOCGame snap = ga.snapshot();
+            assertTrue(sc, snap.getBoard() instanceof SOCBoardAtServer);
+            assertSameState(sc, ga, snap);
+            assertPiecesInSnapshot(sc, ga, snap);
+            gl.deleteGame(ga.getName());
+        }
+    }
+
+    /**
+     * Scenario with special items, which aren't serializable: Same state as the original game,
+     * and items shared by the game and a player are still shared in the snapshot.
+     */
+    @Test
+    public void testSpecialItems()
+        throws Exception
+    {
+        final SOCGame ga = newStartedGame(SOCScenario.K_SC_WOND, 3);
+        final SOCPlayer pl = ga.getPlayer(1);
+        final SOCSpecialItem itm = ga.getSpecialItem(SOCGameOptionSet.K_SC_WOND, 2);
+        assertNotNull(itm);
+        itm.setPlayer(pl);
+        pl.setSpecialItem(SOCGameOptionSet.K_SC_WOND, 0, itm);
+
+        final SOCGame snap = ga.snapshot();
+        assertSameState("SC_WOND", ga, snap);
+        assertPiecesInSnapshot("SC_WOND", ga, snap);
+
+        final SOCSpecialItem snapItm = snap.getSpecialItem(SOCGameOptionSet.K_SC_WOND, 2);
+        assertNotSame(itm, snapItm);
+        assertSame(snapItm, snap.getPlayer(1).getSpecialItem(SOCGameOptionSet.K_SC_WOND, 0));
+        assertSame(snap.getPlayer(1), snapItm.getPlayer());
+
+        snapItm.setLevel(3);
+        assertEquals(0, itm.getLevel());
+        gl.deleteGame(ga.getName());
+    }
+
+    /** Changing a snapshot, including placing pieces and rolling, doesn't change the original game. */
+    @Test
+    public void testIndependent()
+        throws Exception
+    {
+        for (final String sc : Arrays.asList(null, SOCScenario.K_SC_FOG))
+        {
+            final SOCGame ga = newStartedGame(sc, 4);
+            final byte[] before = DeepCopy.toBytes(ga);
+            final SOCGame snap = ga.snapshot();
+
+            final SOCPlayer pl = snap.getPlayer(snap.getCurrentPlayerNumber());
+            pl.getResources().add(5, 1);
+            pl.getResources().add(5, 2);
+            pl.getResources().add(5, 3);
+            pl.getResources().add(5, 4);
+            pl.getResources().add(5, 5);
+            final SOCSettlement se = pl.getSettlements().get(0);
+            snap.putPiece(new SOCCity(pl, se.getCoordinates(), snap.getBoard()));
+            assertEquals(1, pl.getCities().size());
+            snap.getBoard().setRobberHex(ga.getBoard().getRobberHex() + 2, false);
+            snap.endTurn();
+            snap.rollDice();
+
+            assertArrayEquals(String.valueOf(sc), before, DeepCopy.toBytes(ga));
+            assertEquals(0, ga.getPlayer(pl.getPlayerNumber()).getCities().size());
+
+            // and the other way around
+            final SOCGame snap2 = ga.snapshot();
+            final byte[] snapBefore = DeepCopy.toBytes(snap2);
+            ga.getPlayer(0).getResources().add(2, 1);
+            ga.getPlayer(0).getPotentialSettlements().clear();
+            assertArrayEquals(String.valueOf(sc), snapBefore, DeepCopy.toBytes(snap2));
+            gl.deleteGame(ga.getName());
+        }
+    }
+
+}
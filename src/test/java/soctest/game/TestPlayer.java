@@ -23,16 +23,23 @@ package soctest.game;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+import java.util.Vector;
 
 import soc.game.SOCBoard;
 import soc.game.SOCCity;
 import soc.game.SOCDevCardConstants;
 import soc.game.SOCGame;
 import soc.game.SOCInventory;
+import soc.game.SOCLRPathData;
 import soc.game.SOCPlayer;
 import soc.game.SOCPlayingPiece;
 import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
 import soc.game.SOCSettlement;
+import soc.util.IntPair;
+import soc.util.NodeLenVis;
 
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -173,4 +180,314 @@ public class TestPlayer
         assertEquals(expectedCards, pclone.getDevCardsPlayed());
     }
 
+
+    /**
+     * Test {@link SOCPlayer#calcLongestRoad2()} on a road chain, then cut by another player's settlement.
+     * @since 2.4.50
+     */
+    @Test
+    public void testCalcLongestRoad2Chain()
+    {
+        SOCGame ga = new SOCGame("test");
+        ga.addPlayer("p0", 0);
+        ga.addPlayer("p1", 1);
+        SOCBoard board = ga.getBoard();
+        board.makeNewBoard(null);
+        SOCPlayer pl = ga.getPlayer(0);
+
+        // settlement, then a path of 5 roads through distinct nodes
+        final int[] pathNodes = new int[6];
+        pathNodes[0] = pl.getPotentialSettlements_arr()[0];
+        ga.putPiece(new SOCSettlement(pl, pathNodes[0], board));
+        for (int i = 1; i <= 5; ++i)
+        {
+            int edge = -1;
+            for (int e : board.getAdjacentEdgesToNode_arr(pathNodes[i - 1]))
+            {
+                if ((e == -9) || ! pl.isPotentialRoad(e))
+                    continue;
+                final int[] ends = board.getAdjacentNodesToEdge_arr(e);
+                final int other = (ends[0] == pathNodes[i - 1]) ? ends[1] : ends[0];
+                boolean seen = false;
+                for (int j = 0; j < i; ++j)
+                    seen |= (pathNodes[j] == other);
+                if (! seen)
+                {
+                    edge = e;
+                    pathNodes[i] = other;
+                    break;
+                }
+            }
+            assertNotEquals("road " + i, -1, edge);
+            ga.putPiece(new SOCRoad(pl, edge, board));
+        }
+        assertEquals(5, pl.calcLongestRoad2());
+        assertEquals(5, pl.getLongestRoadLength());
+        assertEquals(1, pl.getLRPaths().size());
+        assertEquals(5, pl.getLRPaths().get(0).getLength());
+        assertEquals(refLongestRoad(pl), lrResult(pl));
+
+        // another player's settlement at node 3 cuts it into lengths 3 and 2
+        ga.putPiece(new SOCSettlement(ga.getPlayer(1), pathNodes[3], board));
+        assertEquals(3, pl.calcLongestRoad2());
+        assertEquals(refLongestRoad(pl), lrResult(pl));
+    }
+
+    /**
+     * Test {@link SOCPlayer#calcLongestRoad2()} against the older search, which copied
+     * its vector of visited node pairs at each step, on random road networks with
+     * branches, loops, and other players' settlements.
+     * @since 2.4.50
+     */
+    @Test
+    public void testCalcLongestRoad2MatchesReference()
+    {
+        for (int seed = 1; seed <= 40; ++seed)
+        {
+            final Random rand = new Random(seed);
+            SOCGame ga = new SOCGame("test");
+            ga.addPlayer("p0", 0);
+            ga.addPlayer("p1", 1);
+            SOCBoard board = ga.getBoard();
+            board.makeNewBoard(null);
+            SOCPlayer pl = ga.getPlayer(0), opp = ga.getPlayer(1);
+
+            int[] potentials = pl.getPotentialSettlements_arr();
+            ga.putPiece(new SOCSettlement(pl, potentials[rand.nextInt(potentials.length)], board));
+            final int nRoads = 4 + rand.nextInt(12);
+            for (int r = 0; r < nRoads; ++r)
+            {
+                List<Integer> edges = new ArrayList<Integer>();
+                for (int rn : pl.getRoadNodes())
+                    for (int e : board.getAdjacentEdgesToNode_arr(rn))
+                        if ((e != -9) && pl.isPotentialRoad(e) && ! edges.contains(e))
+                            edges.add(e);
+                for (SOCPlayingPiece pp : pl.getSettlements())
+                    for (int e : board.getAdjacentEdgesToNode_arr(pp.getCoordinates()))
+                        if ((e != -9) && pl.isPotentialRoad(e) && ! edges.contains(e))
+                            edges.add(e);
+                if (edges.isEmpty())
+                    break;
+                ga.putPiece(new SOCRoad(pl, edges.get(rand.nextInt(edges.size())), board));
+            }
+
+            // opponent settlements on some of our road nodes
+            for (int k = rand.nextInt(3); k > 0; --k)
+            {
+                List<Integer> nodes = new ArrayList<Integer>();
+                for (int rn : pl.getRoadNodes())
+                    if (opp.isPotentialSettlement(rn) && (board.settlementAtNode(rn) == null))
+                        nodes.add(rn);
+                if (nodes.isEmpty())
+                    break;
+                ga.putPiece(new SOCSettlement(opp, nodes.get(rand.nextInt(nodes.size())), board));
+            }
+
+            final String expected = refLongestRoad(pl);
+            pl.calcLongestRoad2();
+            assertEquals("seed " + seed, expected, lrResult(pl));
+        }
+    }
+
+    /**
+     * Property test for the player's legal and potential sets (stored as {@link soc.game.SOCCoordinateSet}s):
+     * Over random placement sequences on the classic board, check that the sets agree with the single-coordinate
+     * {@code isPotential...} and {@code isLegal...} methods, potentials are always legal,
+     * and copying the player copies them exactly without sharing them.
+     * @see TestCoordinateSet
+     * @since 2.4.50
+     */
+    @Test
+    public void testLegalPotentialSetsRandomPlacement()
+    {
+        for (int seed = 1; seed <= 12; ++seed)
+        {
+            final Random rand = new Random(seed);
+            final SOCGame ga = new SOCGame("test");
+            for (int pn = 0; pn < 3; ++pn)
+                ga.addPlayer("p" + pn, pn);
+            final SOCBoard board = ga.getBoard();
+            board.makeNewBoard(null);
+
+            for (int step = 0; step < 45; ++step)
+            {
+                final SOCPlayer pl = ga.getPlayer(step % 3);
+                final String desc = "seed " + seed + " step " + step;
+                final SOCPlayingPiece pp = randomPiece(pl, (step < 6), rand);
+                if (pp == null)
+                    continue;
+                ga.putPiece(pp);
+
+                for (int pn = 0; pn < 3; ++pn)
+                {
+                    final SOCPlayer p = ga.getPlayer(pn);
+                    final String sets = legalPotentialSets(p, desc);
+                    final SOCPlayer copy = new SOCPlayer(p, "copy");
+                    assertEquals(desc, sets, legalPotentialSets(copy, desc));
+
+                    // changing the copy doesn't change the original
+                    copy.clearPotentialSettlements();
+                    assertEquals(desc, sets, legalPotentialSets(p, desc));
+                }
+            }
+        }
+    }
+
+    /**
+     * Pick a random piece the player could place now, regardless of resources.
+     * @param pl  Player to place for
+     * @param settlementOnly  If true, only look for a settlement location
+     * @param rand  Random generator
+     * @return  a road, settlement or city, or {@code null} if none can be placed
+     */
+    private static SOCPlayingPiece randomPiece(final SOCPlayer pl, final boolean settlementOnly, final Random rand)
+    {
+        final SOCBoard board = pl.getGame().getBoard();
+        final List<SOCPlayingPiece> choices = new ArrayList<SOCPlayingPiece>();
+        for (int c = 0; c <= 0xFF; ++c)
+        {
+            if (pl.canPlaceSettlement(c))
+                choices.add(new SOCSettlement(pl, c, board));
+            if (settlementOnly)
+                continue;
+            if (pl.isPotentialRoad(c))
+                choices.add(new SOCRoad(pl, c, board));
+            if (pl.isPotentialCity(c))
+                choices.add(new SOCCity(pl, c, board));
+        }
+
+        return (choices.isEmpty()) ? null : choices.get(rand.nextInt(choices.size()));
+    }
+
+    /**
+     * Summarize a player's legal and potential piece locations, checking that the sets and
+     * the single-coordinate methods agree and that every potential location is legal.
+     * @return  each coordinate 0 to 0xFF which is in any set, with flags for which sets
+     */
+    private static String legalPotentialSets(final SOCPlayer pl, final String desc)
+    {
+        final StringBuilder sb = new StringBuilder();
+        int nPotSettle = 0, nLegalSettle = 0;
+        for (int c = 0; c <= 0xFF; ++c)
+        {
+            final boolean potSettle = pl.isPotentialSettlement(c), legalSettle = pl.isLegalSettlement(c),
+                potRoad = pl.isPotentialRoad(c), legalRoad = pl.isLegalRoad(c), potCity = pl.isPotentialCity(c);
+            assertEquals(desc, potSettle, pl.getPotentialSettlements().contains(c));
+            assertEquals(desc, legalSettle, pl.getLegalSettlements().contains(c));
+            assertTrue(desc + " potential settlement 0x" + Integer.toHexString(c), legalSettle || ! potSettle);
+            assertTrue(desc + " potential road 0x" + Integer.toHexString(c), legalRoad || ! potRoad);
+            assertFalse(pl.isPotentialShip(c) || pl.isLegalShip(c));
+            if (potSettle)
+                ++nPotSettle;
+            if (legalSettle)
+                ++nLegalSettle;
+
+            if (potSettle || legalSettle || potRoad || legalRoad || potCity)
+                sb.append(Integer.toHexString(c)).append(':')
+                  .append(potSettle ? 'S' : '-').append(legalSettle ? 's' : '-')
+                  .append(potRoad ? 'R' : '-').append(legalRoad ? 'r' : '-')
+                  .append(potCity ? 'C' : '-').append(' ');
+        }
+        assertEquals(desc, nPotSettle, pl.getPotentialSettlements().size());
+        assertEquals(desc, nLegalSettle, pl.getLegalSettlements().size());
+
+        final int[] potArr = pl.getPotentialSettlements_arr();
+        assertEquals(desc, nPotSettle, (potArr != null) ? potArr.length : 0);
+
+        return sb.toString();
+    }
+
+    /** Player's longest road length and LR paths from its most recent {@link SOCPlayer#calcLongestRoad2()}. */
+    private static String lrResult(final SOCPlayer pl)
+    {
+        return pl.getLongestRoadLength() + " " + pl.getLRPaths();
+    }
+
+    /**
+     * The older {@link SOCPlayer#calcLongestRoad2()} search, for comparison on the classic board.
+     * Doesn't change the player's data.
+     * @return the search's result, formatted like {@link #lrResult(SOCPlayer)}
+     */
+    private static String refLongestRoad(final SOCPlayer pl)
+    {
+        final SOCBoard board = pl.getGame().getBoard();
+        final int pn = pl.getPlayerNumber();
+        final Vector<SOCLRPathData> lrPaths = new Vector<SOCLRPathData>();
+        final Stack<NodeLenVis<IntPair>> pending = new Stack<NodeLenVis<IntPair>>();
+        int longest = 0;
+
+        for (Integer rn : pl.getRoadNodes())
+        {
+            final int pathStartNodeCoord = rn;
+            pending.push(new NodeLenVis<IntPair>(pathStartNodeCoord, 0, new Vector<IntPair>()));
+            while (! pending.isEmpty())
+            {
+                NodeLenVis<IntPair> curNode = pending.pop();
+                final int coord = curNode.node, len = curNode.len;
+                Vector<IntPair> visited = curNode.vis;
+                boolean pathEnd = false;
+                if (len > 0)
+                {
+                    SOCPlayingPiece sett = board.settlementAtNode(coord);
+                    pathEnd = (sett != null) && (sett.getPlayerNumber() != pn);
+                }
+
+                if (! pathEnd)
+                {
+                    pathEnd = true;
+                    final int[] adjacNodes = board.getAdjacentNodesToNode_arr(coord);
+                    for (int ni = adjacNodes.length - 1; ni >= 0; --ni)
+                    {
+                        final int j = adjacNodes[ni];
+                        if ((j == -9) || ! pl.isConnectedByRoad(coord, j))
+                            continue;
+                        IntPair pair = new IntPair(coord, j);
+                        boolean match = false;
+                        for (IntPair vis : visited)
+                            if (vis.equals(pair))
+                            {
+                                match = true;
+                                break;
+                            }
+                        if (! match)
+                        {
+                            Vector<IntPair> newVis = new Vector<IntPair>(visited);
+                            newVis.addElement(pair);
+                            pending.push(new NodeLenVis<IntPair>(j, len + 1, newVis));
+                            pathEnd = false;
+                        }
+                    }
+                }
+
+                if (pathEnd)
+                {
+                    if (len > longest)
+                        longest = len;
+                    boolean addNewPath = true;
+                    Vector<SOCLRPathData> trash = new Vector<SOCLRPathData>();
+                    for (SOCLRPathData oldPathData : lrPaths)
+                    {
+                        boolean intersection = false;
+                        for (IntPair vis : visited)
+                            for (IntPair np : oldPathData.getNodePairs())
+                                if (np.equals(vis))
+                                    intersection = true;
+                        if (intersection)
+                        {
+                            if (oldPathData.getLength() < len)
+                                trash.addElement(oldPathData);
+                            else
+                                addNewPath = false;
+                        }
+                    }
+                    lrPaths.removeAll(trash);
+                    if (addNewPath)
+                        lrPaths.addElement(new SOCLRPathData(pathStartNodeCoord, coord, len, visited));
+                }
+            }
+        }
+
+        return longest + " " + lrPaths;
+    }
+
 }
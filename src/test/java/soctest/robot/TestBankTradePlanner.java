@@ -0,0 +1,234 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.util.Random;
+
+import soc.game.SOCBoard;
+import soc.game.SOCCity;
+import soc.game.SOCDevCard;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.game.SOCShip;
+import soc.robot.SOCBankTradePlanner;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBankTradePlanner}: Planned trades must be the same as those from
+ * the negotiator's original bank trade algorithm, copied here as {@link #referenceTrade}.
+ * @since 2.4.50
+ */
+public class TestBankTradePlanner
+{
+    private static final SOCResourceSet[] PIECE_COSTS =
+        { SOCRoad.COST, SOCSettlement.COST, SOCCity.COST, SOCDevCard.COST, SOCShip.COST };
+
+    /**
+     * The negotiator's bank trade algorithm before {@link SOCBankTradePlanner},
+     * returning a trade encoded like {@link SOCBankTradePlanner#getBankTrade(SOCResourceSet, SOCResourceSet)}.
+     */
+    private static int referenceTrade
+        (final SOCResourceSet targetResources, final SOCResourceSet ourResources,
+         final boolean[] ports, final int[] rollsPerResource)
+    {
+        if (ourResources.contains(targetResources))
+            return SOCBankTradePlanner.NO_TRADE;
+
+        int[] neededRsrc = new int[5];
+        int[] notNeededRsrc = new int[5];
+        int neededRsrcCount = 0;
+        int notNeededRsrcCount = 0;
+        for (int rsrcType = SOCResourceConstants.CLAY; rsrcType <= SOCResourceConstants.WOOD; rsrcType++)
+        {
+            if (targetResources.contains(rsrcType))
+                neededRsrc[neededRsrcCount++] = rsrcType;
+            else
+                notNeededRsrc[notNeededRsrcCount++] = rsrcType;
+        }
+        if (neededRsrcCount == 0)
+            return SOCBankTradePlanner.NO_TRADE;
+
+        bubbleSort(neededRsrc, neededRsrcCount, rollsPerResource);
+        bubbleSort(notNeededRsrc, notNeededRsrcCount, rollsPerResource);
+
+        int getRsrcIdx = neededRsrcCount - 1;
+        while (ourResources.getAmount(neededRsrc[getRsrcIdx]) >= targetResources.getAmount(neededRsrc[getRsrcIdx]))
+        {
+            getRsrcIdx--;
+            if (getRsrcIdx < 0)
+                return SOCBankTradePlanner.NO_TRADE;  // original threw ArrayIndexOutOfBoundsException
+        }
+
+        for (int giveRsrcIdx = 0; giveRsrcIdx < notNeededRsrcCount; giveRsrcIdx++)
+        {
+            final int tradeRatio = ratio(ports, notNeededRsrc[giveRsrcIdx]);
+            if (ourResources.getAmount(notNeededRsrc[giveRsrcIdx]) >= tradeRatio)
+                return notNeededRsrc[giveRsrcIdx] | (tradeRatio << 4) | (neededRsrc[getRsrcIdx] << 8);
+        }
+
+        for (int giveRsrcIdx = 0; giveRsrcIdx < neededRsrcCount; giveRsrcIdx++)
+        {
+            final int tradeRatio = ratio(ports, neededRsrc[giveRsrcIdx]);
+            if (rollsPerResource[neededRsrc[giveRsrcIdx]] >= rollsPerResource[neededRsrc[getRsrcIdx]])
+            {
+                if ((ourResources.getAmount(neededRsrc[giveRsrcIdx]) - targetResources.getAmount(neededRsrc[giveRsrcIdx])) >= tradeRatio)
+                    return neededRsrc[giveRsrcIdx] | (tradeRatio << 4) | (neededRsrc[getRsrcIdx] << 8);
+            }
+            else if (ourResources.getAmount(neededRsrc[giveRsrcIdx]) >= tradeRatio)
+            {
+                return neededRsrc[giveRsrcIdx] | (tradeRatio << 4) | (neededRsrc[getRsrcIdx] << 8);
+            }
+        }
+
+        return SOCBankTradePlanner.NO_TRADE;
+    }
+
+    private static void bubbleSort(final int[] rsrc, final int count, final int[] rollsPerResource)
+    {
+        for (int j = count - 1; j >= 0; j--)
+            for (int i = 0; i < j; i++)
+                if (rollsPerResource[rsrc[i]] > rollsPerResource[rsrc[i + 1]])
+                {
+                    int tmp = rsrc[i];
+                    rsrc[i] = rsrc[i + 1];
+                    rsrc[i + 1] = tmp;
+                }
+    }
+
+    private static int ratio(final boolean[] ports, final int rtype)
+    {
+        if (ports[rtype])
+            return 2;
+        else if (ports[SOCBoard.MISC_PORT])
+            return 3;
+        else
+            return 4;
+    }
+
+    private static SOCResourceSet randomResources(final Random rand, final int max)
+    {
+        return new SOCResourceSet
+            (rand.nextInt(max), rand.nextInt(max), rand.nextInt(max), rand.nextInt(max), rand.nextInt(max), 0);
+    }
+
+    private static boolean[] randomPorts(final Random rand)
+    {
+        final boolean[] ports = new boolean[SOCBoard.WOOD_PORT + 1];
+        for (int i = 0; i < ports.length; ++i)
+            ports[i] = (rand.nextInt(4) == 0);
+        return ports;
+    }
+
+    /** Rolls per resource like an estimator's, with some ties and some "never" values */
+    private static int[] randomRolls(final Random rand)
+    {
+        final int[] rolls = new int[SOCResourceConstants.WOOD + 1];
+        for (int r = SOCResourceConstants.CLAY; r <= SOCResourceConstants.WOOD; ++r)
+            rolls[r] = (rand.nextInt(6) == 0) ? 55555 : 3 + rand.nextInt(10);
+        return rolls;
+    }
+
+    /** Planned trades equal the reference algorithm's, over random targets, resources, ports and rolls. */
+    @Test
+    public void testSameAsReference()
+    {
+        final Random rand = new Random(50);
+        final SOCBankTradePlanner planner = new SOCBankTradePlanner();
+        int nTrades = 0;
+        for (int s = 0; s < 40; ++s)
+        {
+            final boolean[] ports = randomPorts(rand);
+            final int[] rolls = randomRolls(rand);
+            assertTrue(planner.setState(ports, rolls));
+            assertEquals(0, planner.size());
+
+            final SOCResourceSet[] targets = new SOCResourceSet[8];
+            for (int i = 0; i < targets.length; ++i)
+                targets[i] = (i < PIECE_COSTS.length) ? PIECE_COSTS[i] : randomResources(rand, 4);
+
+            for (int i = 0; i < 2000; ++i)
+            {
+                final SOCResourceSet target = targets[rand.nextInt(targets.length)],
+                    ours = randomResources(rand, 7);
+                final int expected = referenceTrade(target, ours, ports, rolls);
+                assertEquals("state " + s + " lookup " + i, expected, planner.getBankTrade(target, ours));
+                assertEquals(expected != SOCBankTradePlanner.NO_TRADE, planner.canTrade(target, ours));
+                if (expected != SOCBankTradePlanner.NO_TRADE)
+                    ++nTrades;
+            }
+        }
+
+        assertTrue(nTrades > 1000);
+        assertTrue(planner.getHits() > planner.getMisses());
+    }
+
+    /** Reading a trade, remembering trades, and clearing them when the state changes. */
+    @Test
+    public void testTradesAndState()
+    {
+        final SOCBankTradePlanner planner = new SOCBankTradePlanner();
+        final boolean[] ports = new boolean[SOCBoard.WOOD_PORT + 1];
+        final int[] rolls = { 0, 5, 9, 6, 8, 4 };  // clay, ore, sheep, wheat, wood
+        assertTrue(planner.setState(ports, rolls));
+        assertFalse(planner.setState(ports.clone(), rolls.clone()));
+
+        // need ore for a city; give 4 clay, the most frequently rolled not-needed resource we have enough of
+        final SOCResourceSet ours = new SOCResourceSet(4, 1, 4, 2, 0, 0);
+        int trade = planner.getBankTrade(SOCCity.COST, ours);
+        assertEquals(SOCResourceConstants.CLAY, SOCBankTradePlanner.getGiveType(trade));
+        assertEquals(4, SOCBankTradePlanner.getGiveAmount(trade));
+        assertEquals(SOCResourceConstants.ORE, SOCBankTradePlanner.getGetType(trade));
+        assertEquals(1, planner.size());
+        assertEquals(trade, planner.getBankTrade(SOCCity.COST, ours));
+        assertEquals(1, planner.getHits());
+        assertEquals(1, planner.getMisses());
+
+        // already have enough
+        assertFalse(planner.canTrade(new SOCResourceSet(2, 1, 0, 2, 0, 0), ours));
+
+        // 3:1 port
+        ports[SOCBoard.MISC_PORT] = true;
+        assertTrue(planner.setState(ports, rolls));
+        assertEquals(0, planner.size());
+        trade = planner.getBankTrade(SOCCity.COST, new SOCResourceSet(0, 0, 3, 2, 0, 0));
+        assertEquals(SOCResourceConstants.SHEEP, SOCBankTradePlanner.getGiveType(trade));
+        assertEquals(3, SOCBankTradePlanner.getGiveAmount(trade));
+
+        // 2:1 sheep port; different rolls
+        ports[SOCBoard.SHEEP_PORT] = true;
+        rolls[SOCResourceConstants.SHEEP] = 3;
+        assertTrue(planner.setState(ports, rolls));
+        trade = planner.getBankTrade(SOCCity.COST, new SOCResourceSet(0, 0, 2, 2, 0, 0));
+        assertEquals(SOCResourceConstants.SHEEP, SOCBankTradePlanner.getGiveType(trade));
+        assertEquals(2, SOCBankTradePlanner.getGiveAmount(trade));
+
+        // only unknown resources missing
+        assertEquals(SOCBankTradePlanner.NO_TRADE,
+            planner.getBankTrade(new SOCResourceSet(0, 1, 0, 0, 0, 1), new SOCResourceSet(0, 9, 0, 0, 0, 0)));
+
+        // amounts too large to pack are still planned
+        assertTrue(planner.canTrade(SOCCity.COST, new SOCResourceSet(300, 0, 0, 0, 0, 0)));
+        assertEquals(2, planner.size());
+    }
+
+}
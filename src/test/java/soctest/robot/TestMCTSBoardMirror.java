@@ -0,0 +1,215 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+
+import mcts.game.catan.Board;
+import mcts.game.catan.GameStateConstants;
+import soc.game.SOCBoard;
+import soc.game.SOCCity;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.robot.stac.MCTSBoardMirror;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MCTSBoardMirror}: After each placement, the incrementally updated mirror
+ * must equal one rebuilt from all the board's pieces, including after a cancelled placement.
+ * @since 2.4.50
+ */
+public class TestMCTSBoardMirror
+{
+    private SOCGame ga;
+    private SOCBoard board;
+    private int[] vertexToSS, edgeToSS;
+    private Board bl;
+
+    /** Set up a game, and translation tables for its land hexes like {@code MCTSRobotBrain.generateBoard()} */
+    private void setupGame()
+    {
+        ga = new SOCGame("test");
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("bot" + pn, pn);
+        board = ga.getBoard();
+        board.makeNewBoard(null);
+
+        bl = new Board();
+        bl.InitBoard();
+        vertexToSS = new int[SOCBoard.MAXNODE + 1];
+        edgeToSS = new int[SOCBoard.MAXEDGE_V1 + 1];
+        final int[] numToHexID =
+        {
+            0x17, 0x39, 0x5B, 0x7D,
+            0x15, 0x37, 0x59, 0x7B, 0x9D,
+            0x13, 0x35, 0x57, 0x79, 0x9B, 0xBD,
+            0x11, 0x33, 0x55, 0x77, 0x99, 0xBB, 0xDD,
+            0x31, 0x53, 0x75, 0x97, 0xB9, 0xDB,
+            0x51, 0x73, 0x95, 0xB7, 0xD9,
+            0x71, 0x93, 0xB5, 0xD7
+        };
+        for (int ho : numToHexID)
+        {
+            final int htype = board.getHexTypeFromCoord(ho);
+            if ((htype == SOCBoard.WATER_HEX) || (htype >= SOCBoard.MISC_PORT_HEX))
+                continue;
+            final int xn = ((ho / 16) - 1) / 2, yn = ((ho % 16) + 5) / 2 - xn;
+            final int hn = bl.hexatcoord[xn][yn];
+            final Vector<?> vlist = SOCBoard.getAdjacentNodesToHex_SSettlers(ho),
+                elist = SOCBoard.getAdjacentEdgesToHex_SSettlers(ho);
+            for (int i = 0; i < 6; ++i)
+            {
+                vertexToSS[(Integer) vlist.get(i)] = bl.neighborHexVertex[hn][i];
+                edgeToSS[(Integer) elist.get(i)] = bl.neighborHexEdge[hn][i];
+            }
+        }
+    }
+
+    private MCTSBoardMirror newMirror()
+    {
+        return new MCTSBoardMirror(vertexToSS, edgeToSS, bl.neighborVertexVertex);
+    }
+
+    /** Check the mirror against a new one built from all the board's pieces, without rebuilding it. */
+    private void assertMatchesRebuild(final MCTSBoardMirror mirror, final String msg)
+    {
+        final int rebuilds = mirror.getRebuilds();
+        final int[] st = new int[GameStateConstants.STATESIZE], full = new int[GameStateConstants.STATESIZE];
+        mirror.copyTo(board, st);
+        newMirror().copyTo(board, full);
+        assertArrayEquals(msg, full, st);
+        assertEquals(msg + ": rebuilt", rebuilds, mirror.getRebuilds());
+    }
+
+    /** Place a piece in the game and tell the mirror, like the brain's PUTPIECE handler. */
+    private static void put(final SOCGame ga, final MCTSBoardMirror mirror, final SOCPlayingPiece pp)
+    {
+        ga.putPiece(pp);
+        mirror.putPiece(pp.getType(), pp.getCoordinates(), pp.getPlayerNumber());
+    }
+
+    private SOCSettlement randomSettlement(final SOCPlayer pl, final Random rand)
+    {
+        final List<Integer> nodes = new ArrayList<Integer>();
+        for (int node : pl.getPotentialSettlements_arr())
+            if (pl.canPlaceSettlement(node))
+                nodes.add(node);
+        return new SOCSettlement(pl, nodes.get(rand.nextInt(nodes.size())), board);
+    }
+
+    private SOCRoad randomRoad(final SOCPlayer pl, final int node, final Random rand)
+    {
+        final List<Integer> edges = new ArrayList<Integer>();
+        for (int edge : board.getAdjacentEdgesToNode_arr(node))
+            if ((edge != -9) && pl.isPotentialRoad(edge))
+                edges.add(edge);
+        return new SOCRoad(pl, edges.get(rand.nextInt(edges.size())), board);
+    }
+
+    /**
+     * Settlements, roads and cities update the mirror to match a full rebuild.
+     * After a cancelled placement is invalidated, the next copy rebuilds the mirror,
+     * even when followed by another placement which leaves the number of pieces unchanged.
+     */
+    @Test
+    public void testIncrementalSameAsRebuild()
+    {
+        for (int seed = 1; seed <= 5; ++seed)
+        {
+            final Random rand = new Random(seed);
+            setupGame();
+            final MCTSBoardMirror mirror = newMirror();
+            mirror.copyTo(board, new int[GameStateConstants.STATESIZE]);
+            assertEquals(1, mirror.getRebuilds());
+
+            for (int round = 0; round < 2; ++round)
+                for (int pn = 0; pn < 4; ++pn)
+                {
+                    final SOCPlayer pl = ga.getPlayer(pn);
+                    final SOCSettlement se = randomSettlement(pl, rand);
+                    put(ga, mirror, se);
+                    assertMatchesRebuild(mirror, "seed " + seed + " settlement " + se);
+                    final SOCRoad rd = randomRoad(pl, se.getCoordinates(), rand);
+                    put(ga, mirror, rd);
+                    assertMatchesRebuild(mirror, "seed " + seed + " road " + rd);
+                }
+
+            final SOCPlayer pl = ga.getPlayer(rand.nextInt(4));
+            final SOCCity ci = new SOCCity(pl, pl.getSettlements().get(0).getCoordinates(), board);
+            put(ga, mirror, ci);
+            assertMatchesRebuild(mirror, "seed " + seed + " city " + ci);
+
+            // placement which is then cancelled, like the brain's CANCELBUILDREQUEST handler
+            final SOCSettlement cancelled = randomSettlement(pl, rand);
+            ga.putTempPiece(cancelled);
+            mirror.putPiece(SOCPlayingPiece.SETTLEMENT, cancelled.getCoordinates(), pl.getPlayerNumber());
+            assertMatchesRebuild(mirror, "seed " + seed + " settlement " + cancelled);
+            ga.undoPutTempPiece(cancelled);
+            mirror.invalidate();
+
+            // another placement: same number of pieces as the mirror has
+            SOCSettlement se;
+            do
+                se = randomSettlement(pl, rand);
+            while (se.getCoordinates() == cancelled.getCoordinates());
+            put(ga, mirror, se);
+
+            final int rebuilds = mirror.getRebuilds();
+            final int[] st = new int[GameStateConstants.STATESIZE], full = new int[GameStateConstants.STATESIZE];
+            mirror.copyTo(board, st);
+            assertEquals("seed " + seed + ": rebuilt after cancel", rebuilds + 1, mirror.getRebuilds());
+            newMirror().copyTo(board, full);
+            assertArrayEquals("seed " + seed + " after cancel", full, st);
+
+            assertMatchesRebuild(mirror, "seed " + seed + " after rebuild");
+        }
+    }
+
+    /** A piece the mirror wasn't told about changes the board's piece count, so the mirror is rebuilt. */
+    @Test
+    public void testPieceCount()
+    {
+        setupGame();
+        final MCTSBoardMirror mirror = newMirror();
+        final int[] st = new int[GameStateConstants.STATESIZE];
+        mirror.copyTo(board, st);
+        assertEquals(0, MCTSBoardMirror.countPieces(board));
+
+        final SOCPlayer pl = ga.getPlayer(0);
+        final SOCSettlement se = new SOCSettlement(pl, 0x67, board);
+        put(ga, mirror, se);
+        put(ga, mirror, new SOCCity(pl, 0x67, board));
+        assertEquals(1, MCTSBoardMirror.countPieces(board));
+        assertMatchesRebuild(mirror, "city");
+
+        ga.putPiece(new SOCSettlement(ga.getPlayer(1), 0xA9, board));
+        mirror.copyTo(board, st);
+        assertEquals(2, mirror.getRebuilds());
+        assertMatchesRebuild(mirror, "after rebuild");
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import mcts.MCTSConfig;
+import mcts.game.Game;
+import mcts.game.GameFactory;
+import mcts.game.catan.CatanConfig;
+import soc.robot.stac.MCTSPonderer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MCTSPonderer}: Taking the action for a predicted root, or for a different one.
+ * @since 2.4.50
+ */
+public class TestMCTSPonderer
+{
+    private static MCTSPonderer newPonderer(final int nIterations, final long timeLimit, final GameFactory factory)
+    {
+        final MCTSConfig config = new MCTSConfig();
+        config.nIterations = nIterations;
+        config.timeLimit = timeLimit;
+        return new MCTSPonderer(config, 2, factory);
+    }
+
+    private static boolean isOption(final Game g, final int[] action)
+    {
+        for (int[] opt : g.listPossiblities(false).getOptions())
+            if (Arrays.equals(opt, action))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * When the real root is the predicted one, waits for the pondered search to finish
+     * and returns its action, for searches limited by iterations or by time.
+     */
+    @Test
+    public void testHit()
+    {
+        final GameFactory factory = new GameFactory(new CatanConfig(), null);
+        for (long timeLimit : new long[]{ 0, 200 })
+        {
+            final MCTSPonderer ponderer = newPonderer(400, timeLimit, factory);
+            final Game g = factory.getNewGame();
+            ponderer.ponder(g.getState());
+            assertTrue(ponderer.isPondering());
+            ponderer.ponder(g.getState());  // already being searched
+
+            final int[] action = ponderer.takeAction(factory.getGame(g.getState()));
+            assertNotNull("time limit " + timeLimit, action);
+            assertTrue("time limit " + timeLimit, isOption(g, action));
+            assertFalse(ponderer.isPondering());
+            assertEquals(1, ponderer.getNumDecisions());
+            assertEquals(1, ponderer.getNumHits());
+            assertTrue(ponderer.getReport(), ponderer.getReport().endsWith("searches=1"));
+            ponderer.shutdown();
+        }
+    }
+
+    /** When the real root isn't the predicted one, returns null and cancels the search. */
+    @Test
+    public void testMiss()
+    {
+        final GameFactory factory = new GameFactory(new CatanConfig(), null);
+        final MCTSPonderer ponderer = newPonderer(1000000, 0, factory);
+        final Game g = factory.getNewGame();
+        ponderer.ponder(g.getState());
+        assertTrue(ponderer.isPondering());
+
+        final Game real = g.copy();
+        final ArrayList<int[]> options = real.listPossiblities(false).getOptions();
+        real.performAction(options.get(0), false);
+        assertNull(ponderer.takeAction(real));
+        assertFalse(ponderer.isPondering());
+        assertEquals(1, ponderer.getNumDecisions());
+        assertEquals(0, ponderer.getNumHits());
+
+        // can ponder again after cancelling
+        ponderer.ponder(real.getState());
+        assertTrue(ponderer.isPondering());
+        assertTrue(ponderer.getReport().endsWith("searches=2"));
+        ponderer.shutdown();
+        assertFalse(ponderer.isPondering());
+    }
+
+}
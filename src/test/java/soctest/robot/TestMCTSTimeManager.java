@@ -0,0 +1,109 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import mcts.MCTS;
+import mcts.MCTSConfig;
+import mcts.game.Game;
+import mcts.game.GameFactory;
+import mcts.game.catan.CatanConfig;
+import soc.robot.stac.MCTSTimeManager;
+import soc.robot.stac.MCTSTimeManager.DecisionType;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MCTSTimeManager}'s budget allocation and searches.
+ * @since 2.4.50
+ */
+public class TestMCTSTimeManager
+{
+    private static MCTS newMCTS(final int nIterations, final long timeLimit)
+    {
+        final MCTSConfig config = new MCTSConfig();
+        config.nIterations = nIterations;
+        config.timeLimit = timeLimit;
+        config.nThreads = 2;
+        return new MCTS(config, new GameFactory(new CatanConfig(), null));
+    }
+
+    /** Without adaptive allocation, every decision gets the base budget, even one with a single action. */
+    @Test
+    public void testFixedAllocation()
+    {
+        final MCTS mcts = newMCTS(1000, 0);
+        final MCTSTimeManager tm = new MCTSTimeManager(mcts, false, 0);
+        assertEquals(1000, tm.allocate(DecisionType.DISCARD, 2, -1));
+        assertEquals(1000, tm.allocate(DecisionType.INITIAL_SETTLEMENT, 50, -1));
+        assertEquals(1000, tm.allocate(DecisionType.NORMAL, 1, -1));
+        mcts.shutdownNow(false);
+    }
+
+    /** Adaptive allocation by decision type, branching and the turn budget. */
+    @Test
+    public void testAdaptiveAllocation()
+    {
+        final MCTS mcts = newMCTS(10000, 400);
+        final MCTSTimeManager tm = new MCTSTimeManager(mcts, true, 1000);
+        assertEquals(0, tm.allocate(DecisionType.NORMAL, 1, -1));
+        assertEquals(0, tm.allocate(DecisionType.NORMAL, 0, 500));
+
+        // at the reference branching, the budget is just scaled by the type's weight
+        assertEquals(600, tm.allocate(DecisionType.NORMAL, MCTSTimeManager.REFERENCE_BRANCHING, -1));
+        assertEquals(200, tm.allocate(DecisionType.DISCARD, MCTSTimeManager.REFERENCE_BRANCHING, -1));
+
+        // more options get more, up to twice as much
+        assertTrue(tm.allocate(DecisionType.NORMAL, 30, -1) > 600);
+        assertEquals(1200, tm.allocate(DecisionType.NORMAL, 1000, -1));
+        assertTrue(tm.allocate(DecisionType.NORMAL, 3, -1) < 600);
+
+        // limited by the turn budget, but not below the minimum
+        assertEquals(250, tm.allocate(DecisionType.NORMAL, MCTSTimeManager.REFERENCE_BRANCHING, 250));
+        assertEquals(40, tm.allocate(DecisionType.NORMAL, MCTSTimeManager.REFERENCE_BRANCHING, 0));
+        mcts.shutdownNow(false);
+    }
+
+    /** Searches return one of the root's legal actions, restore the config, and are counted. */
+    @Test
+    public void testSearch()
+    {
+        final MCTS mcts = newMCTS(400, 0);
+        final MCTSTimeManager tm = new MCTSTimeManager(mcts, true, 0);
+        final Game g = mcts.getGameFactory().getNewGame();
+        final ArrayList<int[]> options = g.listPossiblities(false).getOptions();
+        assertTrue(options.size() > 1);
+
+        final int[] action = tm.search(g, DecisionType.INITIAL_SETTLEMENT);
+        boolean found = false;
+        for (int[] opt : options)
+            if (Arrays.equals(opt, action))
+                found = true;
+        assertTrue(found);
+        assertEquals(400, mcts.getMCTSConfig().nIterations);
+        assertEquals(1, tm.getNumDecisions(DecisionType.INITIAL_SETTLEMENT));
+        assertEquals(0, tm.getNumDecisions(DecisionType.ROBBER));
+        assertTrue(tm.getReport().startsWith("INITIAL_SETTLEMENT\t1\t"));
+        mcts.shutdownNow(false);
+    }
+
+}
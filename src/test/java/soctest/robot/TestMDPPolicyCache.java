@@ -0,0 +1,235 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import soc.robot.stac.negotiationlearning.MDPPolicyCache;
+import soc.robot.stac.negotiationlearning.SharedPolicyMDP;
+import uk.ac.hw.mdps.MDP;
+import uk.ac.hw.mdps.Policy;
+import uk.ac.hw.utils.MyLogger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MDPPolicyCache}.
+ * @since 2.4.50
+ */
+public class TestMDPPolicyCache
+{
+    /** Policy text as written by the MDP library: state | features | action visits value eligibility, ... | best */
+    private static final String POLICY =
+        "0 | 0 0 | 0 1 0.500 -1.000, 1 2 1.500 -1.000, 2 1 -1.000 -1.000 | 1\n"
+        + "3 | 1 0 | 0 1 2.000 -1.000, 1 0 0.000 -1.000, 2 1 0.100 -1.000 | 0\n"
+        + "not a state | x | 0 1 9.0\n"
+        + "5 | 1 2 | 0 0 0.000 -1.000, 1 1 -0.500 -1.000, 2 0 0.000 -1.000 | 0\n";
+
+    private static MDPPolicyCache.Table parse(final String text)
+        throws IOException
+    {
+        return MDPPolicyCache.Table.parse(new BufferedReader(new StringReader(text)));
+    }
+
+    private static File writeTempPolicy(final String text)
+        throws IOException
+    {
+        final File f = File.createTempFile("testPolicy", ".pcy");
+        f.deleteOnExit();
+        final FileWriter fw = new FileWriter(f);
+        fw.write(text);
+        fw.close();
+
+        return f;
+    }
+
+    /** Parse the library's format, skipping bad lines; missing values are 0. */
+    @Test
+    public void testParse()
+        throws IOException
+    {
+        final MDPPolicyCache.Table t = parse(POLICY);
+        assertEquals(3, t.getNumStates());
+        assertEquals(9, t.getNumValues());
+        assertEquals(5, t.getMaxState());
+        assertEquals(1.5, t.getValue(0, 1), 0.0);
+        assertEquals(-1.0, t.getValue(0, 2), 0.0);
+        assertEquals(0.1, t.getValue(3, 2), 0.0);
+        assertEquals(0.0, t.getValue(1, 0), 0.0);
+        assertEquals(0.0, t.getValue(3, 7), 0.0);
+
+        // out of order, with a repeated state: last line wins
+        final MDPPolicyCache.Table u = parse("4 | - | 0 1 1.0\n2 | - | 1 1 2.0, 0 1 3.0\n4 | - | 1 1 5.0\n");
+        assertEquals(2, u.getNumStates());
+        assertEquals(4, u.getMaxState());
+        assertEquals(3.0, u.getValue(2, 0), 0.0);
+        assertEquals(0.0, u.getValue(4, 0), 0.0);
+        assertEquals(5.0, u.getValue(4, 1), 0.0);
+
+        assertEquals(-1, parse("").getMaxState());
+    }
+
+    /** Best action is the highest value; ties choose only among the tied actions. */
+    @Test
+    public void testBestAction()
+        throws IOException
+    {
+        final MDPPolicyCache.Table t = parse(POLICY);
+        final Random rand = new Random(1);
+        assertEquals(1, t.getBestActionIndex(0, 3, rand));
+        assertEquals(0, t.getBestActionIndex(3, 3, rand));
+
+        // state 5: actions 0 and 2 tie at 0; state 1 has no values, so all tie
+        final Set<Integer> seen5 = new HashSet<Integer>(), seen1 = new HashSet<Integer>();
+        for (int i = 0; i < 200; ++i)
+        {
+            seen5.add(t.getBestActionIndex(5, 3, rand));
+            seen1.add(t.getBestActionIndex(1, 3, rand));
+        }
+        assertEquals(2, seen5.size());
+        assertTrue(seen5.contains(0) && seen5.contains(2));
+        assertEquals(3, seen1.size());
+    }
+
+    /** Each file is loaded once, even when asked for by several threads at once. */
+    @Test
+    public void testSharedLoad()
+        throws Exception
+    {
+        final String fname = writeTempPolicy(POLICY).getPath();
+        final int nLoads = MDPPolicyCache.getNumLoads();
+        final AtomicReferenceArray<MDPPolicyCache.Table> got = new AtomicReferenceArray<MDPPolicyCache.Table>(8);
+        final Thread[] threads = new Thread[got.length()];
+        for (int i = 0; i < threads.length; ++i)
+        {
+            final int idx = i;
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        got.set(idx, MDPPolicyCache.get(fname));
+                    } catch (IOException e) {}
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread th : threads)
+            th.join();
+
+        assertEquals(nLoads + 1, MDPPolicyCache.getNumLoads());
+        final MDPPolicyCache.Table t = got.get(0);
+        assertNotNull(t);
+        for (int i = 1; i < got.length(); ++i)
+            assertSame(t, got.get(i));
+        assertSame(t, MDPPolicyCache.get(fname));
+        assertEquals(1.5, t.getValue(0, 1), 0.0);
+
+        MDPPolicyCache.clear();
+        assertNotSame(t, MDPPolicyCache.get(fname));
+        assertEquals(nLoads + 2, MDPPolicyCache.getNumLoads());
+    }
+
+    /**
+     * The MDP library logs through static loggers which are only set up by its config.
+     * Set any which aren't, without creating the library's log files.
+     */
+    private static void setupLibraryLoggers()
+        throws Exception
+    {
+        for (Class<?> cl : new Class<?>[]{ MDP.class, Policy.class })
+        {
+            final Field f = cl.getDeclaredField("logger");
+            f.setAccessible(true);
+            if (f.get(null) == null)
+                f.set(null, new MyLogger("uk.ac.hw.mdps"));
+        }
+    }
+
+    /**
+     * Without exploration, {@link SharedPolicyMDP} picks the same greedy actions as a library MDP
+     * loaded with the same policy, and keeps each action it returned in its own history,
+     * along with rewards, until the episode ends.
+     */
+    @Test
+    public void testSharedPolicyMDP()
+        throws Exception
+    {
+        // unique best action for each state
+        final String policy =
+            "0 | 0 0 | 0 1 0.500 -1.000, 1 2 1.500 -1.000, 2 1 -1.000 -1.000 | 1\n"
+            + "3 | 1 0 | 0 1 2.000 -1.000, 1 0 0.000 -1.000, 2 1 0.100 -1.000 | 0\n"
+            + "4 | 1 1 | 0 1 -2.000 -1.000, 1 0 0.000 -1.000, 2 1 0.100 -1.000 | 2\n";
+        final int[] dims = { 2, 3 };
+        setupLibraryLoggers();
+        final float explorationRate = Policy.exploration_rate;
+        Policy.exploration_rate = 0;
+        try
+        {
+            final MDP lib = new MDP("lib", 2, dims, 3);
+            lib.loadPolicy(new ByteArrayInputStream(policy.getBytes("UTF-8")));
+            final SharedPolicyMDP shared = new SharedPolicyMDP("shared", 2, dims, 3, parse(policy));
+            assertEquals(-1, shared.getLastAction());
+
+            final int[] states = { 0, 3, 4, 3, 0 }, expected = { 1, 0, 2, 0, 1 };
+            for (int i = 0; i < states.length; ++i)
+            {
+                final int action = shared.getNextActionIndex(states[i]);
+                assertEquals("state " + states[i], expected[i], action);
+                assertEquals("state " + states[i], lib.getNextActionIndex(states[i]), action);
+                assertEquals(action, shared.getLastAction());
+            }
+
+            shared.recordReward(2.0f);
+            shared.cancelLastAction();
+            assertEquals(0, shared.getLastAction());
+            assertEquals(0.0f, shared.getEpisodeReward(), 0.0f);
+            shared.recordReward(1.5f);
+            shared.recordReward(-0.5f);
+            assertEquals(1.0f, shared.getEpisodeReward(), 0.0f);
+
+            shared.update();
+            assertEquals(-1, shared.getLastAction());
+            assertEquals(0.0f, shared.getEpisodeReward(), 0.0f);
+        } finally {
+            Policy.exploration_rate = explorationRate;
+        }
+    }
+
+    @Test(expected=FileNotFoundException.class)
+    public void testMissingFile()
+        throws IOException
+    {
+        MDPPolicyCache.get("no/such/policy.pcy");
+    }
+
+}
@@ -0,0 +1,185 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import soc.game.SOCBoard;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCSettlement;
+import soc.robot.OpeningBuildStrategy;
+import soc.robot.OpeningPlanCache;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link OpeningBuildStrategy#planInitialSettlements()}'s parallel pair scoring
+ * and {@link OpeningPlanCache}: Plans must be the same as when scored one after another without a cache.
+ * @since 2.4.50
+ */
+public class TestOpeningBuildStrategy
+{
+    /** Gives access to the planned second settlement */
+    private static class OBS extends OpeningBuildStrategy
+    {
+        OBS(final SOCGame ga, final int pn)
+        {
+            super(ga, ga.getPlayer(pn), null);
+        }
+
+        /** @return the first and second settlements from {@link #planInitialSettlements()} */
+        int[] plan()
+        {
+            final int first = planInitialSettlements();
+            return new int[]{ first, secondSettlement };
+        }
+    }
+
+    @After
+    public void restoreDefaults()
+    {
+        OpeningBuildStrategy.PAIR_EVALUATION_PARALLELISM = 1;
+        OpeningPlanCache.clear();
+    }
+
+    /** A 4-player game on a new classic board, before initial placement */
+    private static SOCGame newGame()
+    {
+        final SOCGame ga = new SOCGame("test");
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("bot" + pn, pn);
+        ga.getBoard().makeNewBoard(null);
+
+        return ga;
+    }
+
+    /** Put a settlement for player {@code pn} at a random node where it can be placed. */
+    private static void placeRandomSettlement(final SOCGame ga, final int pn, final Random rand)
+    {
+        final SOCPlayer pl = ga.getPlayer(pn);
+        final List<Integer> nodes = new ArrayList<Integer>();
+        for (int node : pl.getPotentialSettlements_arr())
+            if (pl.canPlaceSettlement(node))
+                nodes.add(node);
+        ga.putPiece(new SOCSettlement(pl, nodes.get(rand.nextInt(nodes.size())), ga.getBoard()));
+    }
+
+    /** Plan without the cache, scoring pairs one after another. */
+    private static int[] planUncached(final SOCGame ga, final int pn)
+    {
+        OpeningPlanCache.clear();
+        OpeningBuildStrategy.PAIR_EVALUATION_PARALLELISM = 1;
+        return new OBS(ga, pn).plan();
+    }
+
+    /** Parallel scoring chooses the same settlements, including after other players' placements. */
+    @Test
+    public void testParallelMatchesSequential()
+    {
+        final Random rand = new Random(44);
+        for (int b = 0; b < 10; ++b)
+        {
+            final SOCGame ga = newGame();
+            for (int placed = 0; placed < 4; ++placed)
+            {
+                final int pn = 3 - placed;
+                final int[] expected = planUncached(ga, pn);
+                assertTrue(expected[0] != 0 && expected[1] != 0);
+                assertFalse(ga.getBoard().isNodeAdjacentToNode(expected[0], expected[1]));
+
+                for (int par : new int[]{ 2, 3, 8, 1000 })
+                {
+                    OpeningPlanCache.clear();
+                    OpeningBuildStrategy.PAIR_EVALUATION_PARALLELISM = par;
+                    assertArrayEquals("parallelism " + par, expected, new OBS(ga, pn).plan());
+                }
+
+                placeRandomSettlement(ga, pn, rand);
+            }
+        }
+    }
+
+    /** Cached plans match uncached ones; hits and misses are counted. */
+    @Test
+    public void testCache()
+    {
+        final SOCGame ga = newGame();
+        final int[] expected = planUncached(ga, 0);
+        assertEquals(0, OpeningPlanCache.getHits());
+        assertEquals(1, OpeningPlanCache.getMisses());
+        assertEquals(1, OpeningPlanCache.size());
+
+        // same layout and legal nodes: another robot gets the cached plan
+        final OBS obs = new OBS(ga, 1);
+        assertArrayEquals(expected, obs.plan());
+        assertArrayEquals(expected, obs.plan());
+        assertEquals(2, OpeningPlanCache.getHits());
+        assertEquals(1, OpeningPlanCache.getMisses());
+
+        // a placed piece changes the legal nodes: new plan, which matches an uncached one
+        ga.putPiece(new SOCSettlement(ga.getPlayer(2), expected[0], ga.getBoard()));
+        final int[] cachedPlan = obs.plan();
+        assertEquals(2, OpeningPlanCache.getHits());
+        assertEquals(2, OpeningPlanCache.getMisses());
+        assertFalse(cachedPlan[0] == expected[0] || cachedPlan[1] == expected[0]);
+        assertArrayEquals(cachedPlan, new OBS(ga, 1).plan());
+        assertEquals(3, OpeningPlanCache.getHits());
+        assertArrayEquals(planUncached(ga, 1), cachedPlan);
+
+        assertTrue(OpeningPlanCache.getReport(), OpeningPlanCache.getReport().contains("0 hits, 1 misses"));
+    }
+
+    /** Boards with the same layout share plans; a different layout doesn't use them. */
+    @Test
+    public void testKeyIsLayout()
+    {
+        final SOCGame ga = newGame(), ga2 = new SOCGame("test2");
+        final SOCBoard board = ga.getBoard(), board2 = ga2.getBoard();
+        for (int pn = 0; pn < 4; ++pn)
+            ga2.addPlayer("bot" + pn, pn);
+        board2.setHexLayout(board.getHexLayout());
+        board2.setNumberLayout(board.getNumberLayout());
+
+        final int[] expected = planUncached(ga, 0);
+        assertArrayEquals(expected, new OBS(ga2, 0).plan());
+        assertEquals(1, OpeningPlanCache.getHits());
+
+        // swap two hexes' different dice numbers
+        final int[] numbers = board.getNumberLayout();
+        int i1 = 0;
+        while (numbers[i1] <= 0)
+            ++i1;
+        int i2 = i1 + 1;
+        while (numbers[i2] <= 0 || numbers[i2] == numbers[i1])
+            ++i2;
+        final int tmp = numbers[i1];
+        numbers[i1] = numbers[i2];
+        numbers[i2] = tmp;
+        board2.setNumberLayout(numbers);
+        new OBS(ga2, 0).plan();
+        assertEquals(1, OpeningPlanCache.getHits());
+        assertEquals(2, OpeningPlanCache.getMisses());
+    }
+
+}
@@ -0,0 +1,254 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import soc.baseclient.ServerConnectInfo;
+import soc.game.SOCBoard;
+import soc.game.SOCCity;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.message.SOCMessage;
+import soc.robot.SOCDefaultRobotFactory;
+import soc.robot.SOCPlayerTracker;
+import soc.robot.SOCPossibleCity;
+import soc.robot.SOCPossiblePiece;
+import soc.robot.SOCPossibleRoad;
+import soc.robot.SOCPossibleSettlement;
+import soc.robot.SOCRobotBrain;
+import soc.robot.SOCRobotBrainImpl;
+import soc.robot.SOCRobotClient;
+import soc.util.CappedQueue;
+import soc.util.SOCRobotParameters;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCPlayerTracker}'s copies from
+ * {@link SOCPlayerTracker#copyPlayerTrackers(SOCPlayerTracker[])}, which share
+ * the original trackers' possible pieces until they're changed.
+ * @since 2.4.50
+ */
+public class TestPlayerTracker
+{
+    /**
+     * Set up a 4-player game on the classic board with each player's 2 initial settlements and roads,
+     * and a few more roads, tracked by a robot brain's player trackers.
+     * @param seed  random seed for the board and placements
+     * @return the brain, whose {@link SOCRobotBrain#getPlayerTrackers()} track the game
+     */
+    static SOCRobotBrain<?, ?, ?> setupGame(final long seed)
+    {
+        final Random rand = new Random(seed);
+        final SOCGame ga = new SOCGame("test");
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("bot" + pn, pn);
+        final SOCBoard board = ga.getBoard();
+        board.makeNewBoard(null);
+
+        final SOCRobotClient cli = new SOCRobotClient
+            (new SOCDefaultRobotFactory(), new ServerConnectInfo("localhost", 8880, "cookie"), "bot0", "pw");
+        final SOCRobotBrain<?, ?, ?> brain = new SOCRobotBrainImpl
+            (cli, new SOCRobotParameters(120, 35, 0.13f, 1.0f, 1.0f, 3.0f, 1.0f, 1, 1), ga,
+             new CappedQueue<SOCMessage>());
+        brain.setOurPlayerData();
+        final SOCPlayerTracker[] trackers = brain.getPlayerTrackers();
+
+        for (int round = 0; round < 2; ++round)
+        {
+            for (int pn = 0; pn < 4; ++pn)
+            {
+                final SOCPlayer pl = ga.getPlayer(pn);
+                final List<Integer> nodes = new ArrayList<Integer>();
+                for (int node : pl.getPotentialSettlements_arr())
+                    if (pl.canPlaceSettlement(node))
+                        nodes.add(node);
+                final SOCSettlement se = new SOCSettlement(pl, nodes.get(rand.nextInt(nodes.size())), board);
+                ga.putPiece(se);
+                for (SOCPlayerTracker pt : trackers)
+                    pt.addNewSettlement(se, trackers);
+
+                buildRandomRoad(pl, se.getCoordinates(), rand, trackers);
+            }
+        }
+
+        for (int i = 0; i < 8; ++i)
+        {
+            final SOCPlayer pl = ga.getPlayer(rand.nextInt(4));
+            final List<Integer> roadNodes = new ArrayList<Integer>(pl.getRoadNodes());
+            buildRandomRoad(pl, roadNodes.get(rand.nextInt(roadNodes.size())), rand, trackers);
+        }
+
+        for (SOCPlayerTracker pt : trackers)
+            pt.updateThreats(trackers);
+        SOCPlayerTracker.updateWinGameETAs(trackers);
+
+        return brain;
+    }
+
+    /** Build a road for {@code pl} at a random edge next to {@code node}, if there's room, and track it. */
+    private static void buildRandomRoad
+        (final SOCPlayer pl, final int node, final Random rand, final SOCPlayerTracker[] trackers)
+    {
+        final SOCGame ga = pl.getGame();
+        final List<Integer> edges = new ArrayList<Integer>();
+        for (int edge : ga.getBoard().getAdjacentEdgesToNode_arr(node))
+            if ((edge != -9) && pl.isPotentialRoad(edge))
+                edges.add(edge);
+        if (edges.isEmpty())
+            return;
+
+        final SOCRoad rd = new SOCRoad(pl, edges.get(rand.nextInt(edges.size())), ga.getBoard());
+        ga.putPiece(rd);
+        for (SOCPlayerTracker pt : trackers)
+            pt.addNewRoadOrShip(rd, trackers);
+    }
+
+    /**
+     * Describe the trackers' ETAs and possible pieces, including the links between pieces, as a String.
+     * Calls the trackers' getters, so copies will copy their pieces if they haven't already.
+     */
+    static String describe(final SOCPlayerTracker[] trackers)
+    {
+        final StringBuilder sb = new StringBuilder();
+        for (SOCPlayerTracker pt : trackers)
+        {
+            sb.append("pn ").append(pt.getPlayer().getPlayerNumber())
+              .append(" wgeta ").append(pt.getWinGameETA())
+              .append(" lreta ").append(pt.getLongestRoadETA()).append('\n');
+            for (SOCPossibleRoad pr : pt.getPossibleRoads().values())
+            {
+                sb.append(" r ").append(Integer.toHexString(pr.getCoordinates()))
+                  .append(" n").append(pr.getNumberOfNecessaryRoads());
+                appendCoords(sb, " nec", pr.getNecessaryRoads());
+                appendCoords(sb, " new", pr.getNewPossibilities());
+                sb.append('\n');
+            }
+            for (SOCPossibleSettlement ps : pt.getPossibleSettlements().values())
+            {
+                sb.append(" s ").append(Integer.toHexString(ps.getCoordinates()))
+                  .append(" n").append(ps.getNumberOfNecessaryRoads());
+                appendCoords(sb, " nec", ps.getNecessaryRoads());
+                appendCoords(sb, " conf", ps.getConflicts());
+                sb.append('\n');
+            }
+            for (SOCPossibleCity pc : pt.getPossibleCities().values())
+                sb.append(" c ").append(Integer.toHexString(pc.getCoordinates())).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    private static void appendCoords
+        (final StringBuilder sb, final String label, final List<? extends SOCPossiblePiece> pieces)
+    {
+        sb.append(label);
+        for (SOCPossiblePiece pp : pieces)
+            sb.append(' ').append(pp.getPlayer().getPlayerNumber())
+              .append(':').append(Integer.toHexString(pp.getCoordinates()));
+    }
+
+    /**
+     * Copies' changes from {@link SOCPlayerTracker#tryPutPiece(SOCPlayingPiece, SOCGame, SOCPlayerTracker[])}
+     * should match those of copies which copied all of their pieces first,
+     * and shouldn't change the original trackers.
+     */
+    @Test
+    public void testCopiesMatchFullCopies()
+    {
+        for (int seed = 1; seed <= 6; ++seed)
+        {
+            final SOCRobotBrain<?, ?, ?> brain = setupGame(seed);
+            final SOCGame ga = brain.getGame();
+            final SOCPlayerTracker[] trackers = brain.getPlayerTrackers();
+            final String orig = describe(trackers);
+
+            final List<SOCPlayingPiece> tries = new ArrayList<SOCPlayingPiece>();
+            for (int pn = 0; pn < 4; ++pn)
+            {
+                final SOCPlayerTracker pt = trackers[pn];
+                final SOCPlayer pl = pt.getPlayer();
+                for (SOCPossibleRoad pr : pt.getPossibleRoads().values())
+                    if (pl.isPotentialRoad(pr.getCoordinates()))
+                        tries.add(new SOCRoad(pl, pr.getCoordinates(), ga.getBoard()));
+                for (SOCPossibleSettlement ps : pt.getPossibleSettlements().values())
+                    if (pl.canPlaceSettlement(ps.getCoordinates()))
+                        tries.add(new SOCSettlement(pl, ps.getCoordinates(), ga.getBoard()));
+                for (SOCPossibleCity pc : pt.getPossibleCities().values())
+                    tries.add(new SOCCity(pl, pc.getCoordinates(), ga.getBoard()));
+            }
+            assertTrue(tries.size() > 10);
+
+            for (SOCPlayingPiece pp : tries)
+            {
+                final SOCPlayerTracker[] copies = SOCPlayerTracker.tryPutPiece(pp, ga, trackers);
+                SOCPlayerTracker.updateWinGameETAs(copies);
+                final String tried = describe(copies);
+                SOCPlayerTracker.undoTryPutPiece(pp, ga);
+
+                final SOCPlayerTracker[] fullCopies = SOCPlayerTracker.copyPlayerTrackers(trackers);
+                for (SOCPlayerTracker pt : fullCopies)
+                    pt.getPossibleRoads();  // copy all pieces before any changes
+                SOCPlayerTracker.tryPutPieceNoCopy(pp, ga, fullCopies);
+                SOCPlayerTracker.updateWinGameETAs(fullCopies);
+                assertEquals("seed " + seed + " " + pp, describe(fullCopies), tried);
+                SOCPlayerTracker.undoTryPutPiece(pp, ga);
+
+                assertEquals("seed " + seed + " " + pp, orig, describe(trackers));
+            }
+        }
+    }
+
+    /**
+     * A copy which is still sharing pieces with its original
+     * should throw an exception if the original's pieces have changed.
+     */
+    @Test
+    public void testOriginalChangedWhileShared()
+    {
+        final SOCRobotBrain<?, ?, ?> brain = setupGame(3);
+        final SOCPlayerTracker[] trackers = brain.getPlayerTrackers();
+        final SOCPlayerTracker pt = trackers[1];
+        final SOCPossibleCity pc = pt.getPossibleCities().values().iterator().next();
+
+        SOCPlayerTracker[] copies = SOCPlayerTracker.copyPlayerTrackers(trackers);
+        copies[1].getPossibleCities();  // copies its pieces now
+        pt.addOurNewCity(new SOCCity(pt.getPlayer(), pc.getCoordinates(), brain.getGame().getBoard()));
+        assertTrue(copies[1].getPossibleCities().containsKey(pc.getCoordinates()));
+        assertFalse(pt.getPossibleCities().containsKey(pc.getCoordinates()));
+        pt.undoAddOurNewCity(pc);
+
+        copies = SOCPlayerTracker.copyPlayerTrackers(trackers);
+        pt.addOurNewCity(new SOCCity(pt.getPlayer(), pc.getCoordinates(), brain.getGame().getBoard()));
+        try
+        {
+            copies[1].getPossibleCities();
+            fail("should have thrown IllegalStateException");
+        }
+        catch (IllegalStateException e) {}
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import soc.game.SOCCity;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.robot.SOCPlayerTracker;
+import soc.robot.SOCPossibleCity;
+import soc.robot.SOCPossibleRoad;
+import soc.robot.SOCPossibleSettlement;
+import soc.robot.SOCRobotBrain;
+import soc.robot.stac.StacCandidateEvaluator;
+import soc.util.DeepCopy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StacCandidateEvaluator}.
+ * @since 2.4.50
+ */
+public class TestStacCandidateEvaluator
+{
+    /** Player 0's possible settlements, cities and roads as candidate pieces */
+    private static List<SOCPlayingPiece> candidates(final SOCGame ga, final SOCPlayerTracker pt)
+    {
+        final SOCPlayer pl = pt.getPlayer();
+        final List<SOCPlayingPiece> pieces = new ArrayList<SOCPlayingPiece>();
+        for (SOCPossibleSettlement ps : pt.getPossibleSettlements().values())
+            pieces.add(new SOCSettlement(pl, ps.getCoordinates(), ga.getBoard()));
+        for (SOCPossibleCity pc : pt.getPossibleCities().values())
+            pieces.add(new SOCCity(pl, pc.getCoordinates(), ga.getBoard()));
+        for (SOCPossibleRoad pr : pt.getPossibleRoads().values())
+            if (pl.isPotentialRoad(pr.getCoordinates()))
+                pieces.add(new SOCRoad(pl, pr.getCoordinates(), ga.getBoard()));
+
+        return pieces;
+    }
+
+    /**
+     * Evaluating candidates on parallel game snapshots shouldn't change the game or trackers,
+     * should give the same results in the same order for any parallelism,
+     * and should match evaluating a candidate in the game itself.
+     */
+    @Test
+    public void testParallelEvaluation()
+    {
+        for (int seed = 1; seed <= 3; ++seed)
+        {
+            final SOCRobotBrain<?, ?, ?> brain = TestPlayerTracker.setupGame(seed);
+            final SOCGame ga = brain.getGame();
+            final SOCPlayerTracker[] trackers = brain.getPlayerTrackers();
+            final List<SOCPlayingPiece> pieces = candidates(ga, trackers[0]);
+            assertTrue(pieces.size() > 4);
+
+            final byte[] gameBytes = DeepCopy.toBytes(ga);
+            final String orig = TestPlayerTracker.describe(trackers);
+
+            final StacCandidateEvaluator par = new StacCandidateEvaluator(brain, 3);
+            final int[] etas = par.winGameETAs(ga, trackers, 0, pieces);
+            assertArrayEquals(gameBytes, DeepCopy.toBytes(ga));
+            assertEquals(orig, TestPlayerTracker.describe(trackers));
+            assertArrayEquals("seed " + seed, etas, new StacCandidateEvaluator(brain, 2).winGameETAs(ga, trackers, 0, pieces));
+            assertArrayEquals
+                ("seed " + seed, etas, new StacCandidateEvaluator(brain, pieces.size()).winGameETAs(ga, trackers, 0, pieces));
+
+            // in the game itself, from the same state
+            final int k = seed % pieces.size();
+            final int[] seqETA = new StacCandidateEvaluator(brain, 1).winGameETAs(ga, trackers, 0, pieces.subList(k, k + 1));
+            assertEquals("seed " + seed, etas[k], seqETA[0]);
+
+            assertEquals(0, par.winGameETAs(ga, trackers, 0, new ArrayList<SOCPlayingPiece>()).length);
+            par.recordDecision(2000000);
+            assertEquals(1, par.getNumDecisions());
+            assertTrue(par.getLatencyReport(), par.getLatencyReport().startsWith("decisions=1 mean=2000us"));
+        }
+    }
+
+    /**
+     * From the same game state, evaluating the candidates in chunks on game snapshots gives the same results
+     * in these games for any parallelism, and the same as parallelism 1, which evaluates all candidates
+     * one after another in the brain's game. That changes the brain's game and trackers slightly,
+     * so it's done last.
+     */
+    @Test
+    public void testSequentialSameAsParallel()
+    {
+        for (int seed = 4; seed <= 12; ++seed)
+        {
+            final SOCRobotBrain<?, ?, ?> brain = TestPlayerTracker.setupGame(seed);
+            final SOCGame ga = brain.getGame();
+            final SOCPlayerTracker[] trackers = brain.getPlayerTrackers();
+            final List<SOCPlayingPiece> pieces = candidates(ga, trackers[0]);
+
+            final int[] etas = new StacCandidateEvaluator(brain, pieces.size()).winGameETAs(ga, trackers, 0, pieces);
+            for (int par : new int[]{ 2, 3, 5 })
+                assertArrayEquals
+                    ("seed " + seed + " parallelism " + par, etas,
+                     new StacCandidateEvaluator(brain, par).winGameETAs(ga, trackers, 0, pieces));
+            assertArrayEquals
+                ("seed " + seed + " parallelism 1", etas, new StacCandidateEvaluator(brain, 1).winGameETAs(ga, trackers, 0, pieces));
+        }
+    }
+
+}
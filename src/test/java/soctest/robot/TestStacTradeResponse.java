@@ -0,0 +1,118 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import soc.baseclient.ServerConnectInfo;
+import soc.game.SOCGame;
+import soc.game.SOCResourceSet;
+import soc.game.StacTradeOffer;
+import soc.message.SOCMessage;
+import soc.robot.SOCRobotClient;
+import soc.robot.stac.StacRobotBrain;
+import soc.robot.stac.StacRobotFactory;
+import soc.robot.stac.StacRobotType;
+import soc.util.CappedQueue;
+import soc.util.SOCRobotParameters;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StacRobotBrain#handleTradeResponse(int, boolean)} when players reject our offer.
+ * @since 2.4.50
+ */
+public class TestStacTradeResponse
+{
+    /** Brain which can start and check waiting for trade responses */
+    private static final class TestBrain extends StacRobotBrain
+    {
+        TestBrain(final SOCRobotClient cli, final SOCGame ga)
+        {
+            super(cli, new SOCRobotParameters(120, 35, 0.13f, 1.0f, 1.0f, 3.0f, 1.0f, 1, 1), ga,
+                new CappedQueue<SOCMessage>(), true, new StacRobotType(), new HashMap<String, ArrayList<String>>());
+        }
+
+        void startWaiting(final boolean[] to)
+        {
+            waitingForTradeResponse = true;
+            for (int pn = 0; pn < to.length; ++pn)
+                waitingForTradeResponsePlayer[pn] = to[pn];
+        }
+
+        boolean isWaitingForTradeResponse()
+        {
+            return waitingForTradeResponse;
+        }
+    }
+
+    /** Call the declarative memory's protected {@code retrieveAllTradeOffers()}. */
+    private static List<?> pastOffers(final StacRobotBrain brain)
+        throws Exception
+    {
+        Class<?> cl = brain.getMemory().getClass();
+        Method m = null;
+        for (; (m == null) && (cl != null); cl = cl.getSuperclass())
+            try
+            {
+                m = cl.getDeclaredMethod("retrieveAllTradeOffers");
+            } catch (NoSuchMethodException e) {}
+        m.setAccessible(true);
+
+        return (List<?>) m.invoke(brain.getMemory());
+    }
+
+    /** Once all players reject, the offer is remembered as made and the trading flags are cleared. */
+    @Test
+    public void testAllPlayersReject()
+        throws Exception
+    {
+        // like a robot joining a game, create the brain before players sit down
+        final SOCGame ga = new SOCGame("test");
+        final SOCRobotClient cli = new SOCRobotClient
+            (new StacRobotFactory(false, new StacRobotType()), new ServerConnectInfo("localhost", 8880, "cookie"),
+             "bot0", "pw");
+        final TestBrain brain = new TestBrain(cli, ga);
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("bot" + pn, pn);
+        brain.setOurPlayerData();
+
+        final boolean[] to = { false, true, true, true };
+        final StacTradeOffer offer = new StacTradeOffer
+            (ga.getName(), 0, to, new SOCResourceSet(1, 0, 0, 0, 0, 0), false, new SOCResourceSet(0, 0, 0, 1, 0, 0), false);
+        brain.getOurPlayerData().setCurrentOffer(offer);
+        brain.startWaiting(to);
+        assertTrue(pastOffers(brain).isEmpty());
+
+        brain.handleTradeResponse(1, false);
+        brain.handleTradeResponse(3, false);
+        assertTrue(brain.isWaitingForTradeResponse());
+        assertTrue(pastOffers(brain).isEmpty());
+
+        brain.handleTradeResponse(2, false);
+        assertFalse(brain.isWaitingForTradeResponse());
+        assertEquals(1, pastOffers(brain).size());
+        assertSame(offer, pastOffers(brain).get(0));
+    }
+
+}
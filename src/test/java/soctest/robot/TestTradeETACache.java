@@ -0,0 +1,198 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.util.Random;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCResourceSet;
+import soc.game.SOCSettlement;
+import soc.robot.SOCBuildingSpeedEstimate;
+import soc.robot.SOCBuildingSpeedFast;
+import soc.robot.SOCBuildingSpeedFastFractional;
+import soc.robot.SOCBuildingSpeedProbabilistic;
+import soc.robot.stac.TradeETACache;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link TradeETACache}: Cached ETAs must be the same as those calculated by the estimator.
+ * @since 2.4.50
+ */
+public class TestTradeETACache
+{
+    private static final int CUTOFF = 1000;
+
+    @After
+    public void restoreDefaults()
+    {
+        TradeETACache.ENABLED = true;
+    }
+
+    /** A 4-player game on a new classic board, where each player has 2 random settlements */
+    private static SOCGame newGame(final Random rand)
+    {
+        final SOCGame ga = new SOCGame("test");
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("bot" + pn, pn);
+        ga.getBoard().makeNewBoard(null);
+        for (int i = 0; i < 8; ++i)
+        {
+            final SOCPlayer pl = ga.getPlayer(i % 4);
+            int node;
+            do
+            {
+                final int[] potentials = pl.getPotentialSettlements_arr();
+                node = potentials[rand.nextInt(potentials.length)];
+            } while (! pl.canPlaceSettlement(node));
+            ga.putPiece(new SOCSettlement(pl, node, ga.getBoard()));
+        }
+        ga.setCurrentPlayerNumber(0);
+
+        return ga;
+    }
+
+    private static SOCResourceSet randomResources(final Random rand, final int max)
+    {
+        return new SOCResourceSet
+            (rand.nextInt(max), rand.nextInt(max), rand.nextInt(max), rand.nextInt(max), rand.nextInt(max), 0);
+    }
+
+    private static boolean[] randomPorts(final Random rand)
+    {
+        final boolean[] ports = new boolean[6];
+        for (int i = 0; i < ports.length; ++i)
+            ports[i] = (rand.nextInt(4) == 0);
+        return ports;
+    }
+
+    /** Cached ETAs equal the estimator's, over random resources, targets, ports, players and estimators. */
+    @Test
+    public void testSameAsEstimator()
+    {
+        final Random rand = new Random(47);
+        for (int g = 0; g < 5; ++g)
+        {
+            final SOCGame ga = newGame(rand);
+            final TradeETACache cache = new TradeETACache();
+            final SOCResourceSet[] targets = new SOCResourceSet[6];
+            for (int i = 0; i < targets.length; ++i)
+                targets[i] = randomResources(rand, 4);
+
+            for (int i = 0; i < 3000; ++i)
+            {
+                final SOCPlayer pl = ga.getPlayer(rand.nextInt(4));
+                final SOCBuildingSpeedEstimate est = (rand.nextBoolean())
+                    ? new SOCBuildingSpeedFast(pl.getNumbers())
+                    : new SOCBuildingSpeedFastFractional(pl.getNumbers());
+                final SOCResourceSet rs = randomResources(rand, 4), target = targets[rand.nextInt(targets.length)];
+                final boolean[] ports = randomPorts(rand);
+
+                final int expected = est.calculateRollsFast(rs, target, CUTOFF, ports);
+                assertEquals("game " + g + " lookup " + i, expected, cache.getETA(ga, rs, target, ports, CUTOFF, est));
+            }
+
+            assertTrue(cache.getHits() > 0);
+            assertEquals(0, cache.getUncached());
+            assertEquals(0, cache.getInvalidations());
+            assertEquals(cache.getMisses(), cache.size());
+        }
+    }
+
+    /** A new turn or a change to any player's resources or pieces clears the cache. */
+    @Test
+    public void testInvalidation()
+    {
+        final Random rand = new Random(1);
+        final SOCGame ga = newGame(rand);
+        final TradeETACache cache = new TradeETACache();
+        final SOCPlayer pl = ga.getPlayer(0);
+        final SOCBuildingSpeedEstimate est = new SOCBuildingSpeedFast(pl.getNumbers());
+        final SOCResourceSet rs = new SOCResourceSet(1, 0, 1, 1, 1, 0);
+        final boolean[] ports = pl.getPortFlags();
+
+        cache.getETA(ga, rs, SOCSettlement.COST, ports, CUTOFF, est);
+        cache.getETA(ga, rs, SOCSettlement.COST, ports, CUTOFF, est);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+
+        ga.getPlayer(2).getResources().add(1, 1);
+        cache.getETA(ga, rs, SOCSettlement.COST, ports, CUTOFF, est);
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(2, cache.getMisses());
+        cache.getETA(ga, rs, SOCSettlement.COST, ports, CUTOFF, est);
+        assertEquals(2, cache.getHits());
+
+        ga.setCurrentPlayerNumber(1);
+        cache.getETA(ga, rs, SOCSettlement.COST, ports, CUTOFF, est);
+        assertEquals(2, cache.getInvalidations());
+
+        final SOCPlayer pl3 = ga.getPlayer(3);
+        int node = 0;
+        for (int n : pl3.getPotentialSettlements_arr())
+            if (pl3.canPlaceSettlement(n))
+            {
+                node = n;
+                break;
+            }
+        ga.putPiece(new SOCSettlement(pl3, node, ga.getBoard()));
+        cache.getETA(ga, rs, SOCSettlement.COST, ports, CUTOFF, est);
+        assertEquals(3, cache.getInvalidations());
+        assertEquals(1, cache.size());
+
+        // different cutoff
+        assertEquals(est.calculateRollsFast(rs, SOCSettlement.COST, 2, ports), cache.getETA(ga, rs, SOCSettlement.COST, ports, 2, est));
+        assertEquals(4, cache.getInvalidations());
+    }
+
+    /** Other estimators, and the cache when disabled, always calculate. */
+    @Test
+    public void testUncached()
+    {
+        final Random rand = new Random(2);
+        final SOCGame ga = newGame(rand);
+        final TradeETACache cache = new TradeETACache();
+        final SOCPlayer pl = ga.getPlayer(1);
+        final SOCResourceSet rs = new SOCResourceSet(0, 1, 0, 1, 0, 0);
+        final SOCBuildingSpeedEstimate prob = new SOCBuildingSpeedProbabilistic(pl.getNumbers());
+        assertEquals(prob.calculateRollsFast(rs, SOCSettlement.COST, CUTOFF, pl.getPortFlags()),
+            cache.getETA(ga, rs, SOCSettlement.COST, pl.getPortFlags(), CUTOFF, prob));
+        assertEquals(1, cache.getUncached());
+
+        // amounts too large to pack
+        final SOCBuildingSpeedEstimate fast = new SOCBuildingSpeedFast(pl.getNumbers());
+        final SOCResourceSet big = new SOCResourceSet(300, 0, 0, 0, 0, 0);
+        assertEquals(0, cache.getETA(ga, big, new SOCResourceSet(256, 0, 0, 0, 0, 0), pl.getPortFlags(), CUTOFF, fast));
+        assertEquals(2, cache.getUncached());
+
+        TradeETACache.ENABLED = false;
+        cache.getETA(ga, rs, SOCSettlement.COST, pl.getPortFlags(), CUTOFF, fast);
+        assertEquals(3, cache.getUncached());
+        assertEquals(0, cache.size());
+
+        final String report = cache.getReport();
+        assertTrue(report, report.contains("uncached=3"));
+        cache.recordOffers(20, 2000000L);
+        assertTrue(cache.getReport(), cache.getReport().contains("offers=20 offersPerMs=10 "));
+    }
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import soc.game.SOCBoard;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCRoad;
+import soc.robot.stac.WhatIfRoadEvaluator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link WhatIfRoadEvaluator}.
+ * @since 2.4.50
+ */
+public class TestWhatIfRoadEvaluator
+{
+    /** Count a player's legal settlements which are potential, as the persuasion negotiator did before the evaluator. */
+    private static int countPotentialSettlements(final SOCPlayer pl)
+    {
+        int n = 0;
+        for (int node : pl.getLegalSettlements())
+            if (pl.isPotentialSettlement(node))
+                n++;
+
+        return n;
+    }
+
+    /**
+     * For each player and potential road, the evaluator should give the same results
+     * as placing a temporary road on a copy of the player, and shouldn't change the player.
+     */
+    @Test
+    public void testMatchesPlayerCopy()
+    {
+        int nChecked = 0, nNewSettle = 0, nLonger = 0;
+        for (int seed = 1; seed <= 6; ++seed)
+        {
+            final SOCGame ga = TestPlayerTracker.setupGame(seed).getGame();
+            final SOCBoard board = ga.getBoard();
+
+            // as at start of normal play, so new roads give potential settlements
+            for (int pn = 0; pn < 4; ++pn)
+                ga.getPlayer(pn).clearPotentialSettlements();
+
+            // a few more roads, for longer roads with branches
+            final Random rand = new Random(seed);
+            for (int i = 0; i < 16; ++i)
+            {
+                final SOCPlayer pl = ga.getPlayer(rand.nextInt(4));
+                final List<Integer> edges = new ArrayList<Integer>();
+                for (int edge = board.getMinNode(); edge <= SOCBoard.MAXNODE; ++edge)
+                    if (pl.isPotentialRoad(edge))
+                        edges.add(edge);
+                if (! edges.isEmpty())
+                    ga.putPiece(new SOCRoad(pl, edges.get(rand.nextInt(edges.size())), board));
+            }
+
+            for (int pn = 0; pn < 4; ++pn)
+            {
+                final SOCPlayer pl = ga.getPlayer(pn);
+                final int lrLength = pl.calcLongestRoad2();
+                final WhatIfRoadEvaluator whatIf = new WhatIfRoadEvaluator(pl);
+                final int nSettle = countPotentialSettlements(pl);
+                assertEquals(nSettle, whatIf.countPotentialSettlements());
+
+                int maxLR = 0;
+                for (int edge = board.getMinNode(); edge <= SOCBoard.MAXNODE; ++edge)
+                {
+                    if (! pl.isPotentialRoad(edge))
+                        continue;
+
+                    final SOCPlayer dummy = new SOCPlayer(pl, null);
+                    final SOCRoad rd = new SOCRoad(dummy, edge, board);
+                    dummy.putPiece(rd, true);
+                    final int newSettle = countPotentialSettlements(dummy) - nSettle;
+                    final int newLR = dummy.calcLongestRoad2();
+                    dummy.removePiece(rd, null);
+                    dummy.destroyPlayer();
+
+                    final String msg = "seed " + seed + " pn " + pn + " edge 0x" + Integer.toHexString(edge);
+                    assertEquals(msg, newSettle, whatIf.countNewSettlements(edge));
+                    assertEquals(msg, newSettle > 0, whatIf.givesNewSettlement(edge));
+                    assertEquals(msg, newLR, whatIf.calcLongestRoadWith(edge));
+                    if (newLR > maxLR)
+                        maxLR = newLR;
+
+                    ++nChecked;
+                    if (newSettle > 0)
+                        ++nNewSettle;
+                    if (newLR > lrLength)
+                        ++nLonger;
+                }
+
+                assertEquals(maxLR, whatIf.calcMaxLongestRoadWithOneMore());
+                assertEquals(lrLength, pl.getLongestRoadLength());
+                assertEquals(lrLength, pl.calcLongestRoad2());
+            }
+        }
+
+        assertTrue(nChecked > 100);
+        assertTrue(nNewSettle > 0);
+        assertTrue(nLonger > 0);
+    }
+
+    /** Potential roads are listed in increasing order, and are all the player's potential roads. */
+    @Test
+    public void testPotentialRoads()
+    {
+        final SOCGame ga = TestPlayerTracker.setupGame(7).getGame();
+        final SOCPlayer pl = ga.getPlayer(2);
+        final int[] roads = new WhatIfRoadEvaluator(pl).getPotentialRoads();
+        int n = 0;
+        for (int edge = ga.getBoard().getMinNode(); edge <= SOCBoard.MAXNODE; ++edge)
+            if (pl.isPotentialRoad(edge))
+                ++n;
+        assertTrue(n > 0);
+        assertEquals(n, roads.length);
+        for (int i = 0; i < roads.length; ++i)
+        {
+            assertTrue(pl.isPotentialRoad(roads[i]));
+            if (i > 0)
+                assertTrue(roads[i - 1] < roads[i]);
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.server;
+
+import java.util.Random;
+
+import soc.game.SOCBoard;
+import soc.game.SOCBoardLarge;
+import soc.game.SOCGame;
+import soc.game.SOCGameOptionSet;
+import soc.server.SOCBoardLayoutPool;
+import soc.server.SOCGameHandler;
+import soc.server.SOCGameListAtServer;
+import soctest.game.GameTestUtils;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBoardLayoutPool} and seeded board layouts.
+ * @since 2.4.50
+ */
+public class TestBoardLayoutPool
+{
+    private static SOCGameHandler sgh;
+    private static SOCGameListAtServer gl;
+
+    @BeforeClass
+    public static void setup()
+    {
+        sgh = new SOCGameHandler(null);
+        gl = new SOCGameListAtServer(new Random(), SOCGameOptionSet.getAllKnownOptions());
+    }
+
+    /**
+     * Assert that two boards have the same layout of land hexes, dice numbers and ports.
+     */
+    private static void assertSameLayout(final String msg, final SOCBoard b1, final SOCBoard b2)
+    {
+        assertEquals(msg, b1.getClass(), b2.getClass());
+        if (b1 instanceof SOCBoardLarge)
+        {
+            final int[] land = ((SOCBoardLarge) b1).getLandHexCoords();
+            assertArrayEquals(msg, land, ((SOCBoardLarge) b2).getLandHexCoords());
+            for (final int hc : land)
+            {
+                assertEquals(msg, b1.getHexTypeFromCoord(hc), b2.getHexTypeFromCoord(hc));
+                assertEquals(msg, b1.getNumberOnHexFromCoord(hc), b2.getNumberOnHexFromCoord(hc));
+            }
+        } else {
+            assertArrayEquals(msg, b1.getHexLayout(), b2.getHexLayout());
+            assertArrayEquals(msg, b1.getNumberLayout(), b2.getNumberLayout());
+        }
+        assertArrayEquals(msg, b1.getPortsLayout(), b2.getPortsLayout());
+        assertEquals(msg, b1.getRobberHex(), b2.getRobberHex());
+    }
+
+    /**
+     * Game started with a seed has the same layout as {@link SOCBoardLayoutPool#makeLayout(SOCGameOptionSet, boolean, int, long)}
+     * with that seed, for classic and sea boards.
+     */
+    @Test
+    public void testSeedReproducesLayout()
+    {
+        final String[] scens = { null, "SC_4ISL" };
+        for (final String sc : scens)
+        {
+            final String gaName = "testSeed-" + sc;
+            final SOCGame ga = GameTestUtils.createGame(4, sc, null, gaName, gl, sgh);
+            ga.addPlayer("player", 1);
+            ga.startGame(-1, null, 12345L);
+            assertEquals(Long.valueOf(12345L), ga.getBoardLayoutSeed());
+
+            final SOCBoard again = SOCBoardLayoutPool.makeLayout
+                (ga.getGameOptions(), ga.hasSeaBoard, ga.maxPlayers, 12345L);
+            assertSameLayout("scenario " + sc, ga.getBoard(), again);
+            assertSameLayout("scenario " + sc, again, SOCBoardLayoutPool.makeLayout
+                (ga.getGameOptions(), ga.hasSeaBoard, ga.maxPlayers, 12345L));
+
+            gl.deleteGame(gaName);
+        }
+    }
+
+    /** Unseeded games don't have a layout seed. */
+    @Test
+    public void testNoSeed()
+    {
+        final SOCGame ga = GameTestUtils.createGame(4, null, null, "testNoSeed", gl, sgh);
+        ga.addPlayer("player", 1);
+        ga.startGame(-1, false);
+        assertNull(ga.getBoardLayoutSeed());
+        gl.deleteGame("testNoSeed");
+    }
+
+    /** Pool gives out seeds until its thread has layouts ready for a key, then gives out the ready layouts. */
+    @Test(timeout=60000)
+    public void testPoolRefills()
+        throws InterruptedException
+    {
+        final SOCBoardLayoutPool pool = new SOCBoardLayoutPool(2, 42L);
+        final SOCGame ga = GameTestUtils.createGame(4, null, null, "testPool", gl, sgh);
+        final String key = SOCBoardLayoutPool.layoutKey(ga.getGameOptions(), ga.maxPlayers, ga.hasSeaBoard);
+        try
+        {
+            SOCBoardLayoutPool.Layout lay = pool.take(ga);
+            assertNull(lay.board);
+            assertEquals(1, pool.getNumMisses());
+
+            pool.start();
+            while (pool.getNumReady(key) < 2)
+                Thread.sleep(20);
+
+            lay = pool.take(ga);
+            assertNotNull(lay.board);
+            assertEquals(1, pool.getNumHits());
+            assertSameLayout("pooled", lay.board, SOCBoardLayoutPool.makeLayout
+                (ga.getGameOptions(), ga.hasSeaBoard, ga.maxPlayers, lay.seed));
+
+            ga.addPlayer("player", 1);
+            ga.startGame(-1, lay.board, lay.seed);
+            assertSame(lay.board, ga.getBoard());
+            assertEquals(Long.valueOf(lay.seed), ga.getBoardLayoutSeed());
+        } finally {
+            pool.stopPool();
+            gl.deleteGame("testPool");
+        }
+    }
+
+    /** Same base seed gives the same sequence of seeds. */
+    @Test
+    public void testSeedSequence()
+    {
+        final SOCGame ga = GameTestUtils.createGame(4, null, null, "testSeq", gl, sgh);
+        final SOCBoardLayoutPool p1 = new SOCBoardLayoutPool(0, 7L), p2 = new SOCBoardLayoutPool(0, 7L);
+        for (int i = 0; i < 3; ++i)
+        {
+            final SOCBoardLayoutPool.Layout l1 = p1.take(ga), l2 = p2.take(ga);
+            assertNull(l1.board);
+            assertEquals(l1.seed, l2.seed);
+        }
+        assertEquals(3, p1.getNumMisses());
+        gl.deleteGame("testSeq");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeSize()
+    {
+        new SOCBoardLayoutPool(-1, 0L);
+    }
+
+}
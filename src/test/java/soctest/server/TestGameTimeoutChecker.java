@@ -0,0 +1,216 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.server.SOCGameTimeoutChecker;
+import soc.server.SOCServer;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCGameTimeoutChecker}'s turn deadline queue, mostly with a test clock.
+ * @since 2.4.50
+ */
+public class TestGameTimeoutChecker
+{
+    /** Turn timeout in milliseconds for a player who isn't a stubborn robot */
+    private static final long TIMEOUT = SOCServer.ROBOT_FORCE_ENDTURN_SECONDS * 1000L;
+
+    /** Records its callbacks */
+    private static class Recorder
+        implements SOCGameTimeoutChecker.Callback
+    {
+        final List<Long> gameChecks = new ArrayList<Long>();
+        final List<Long> turnChecks = new ArrayList<Long>();
+        boolean keep = true;
+
+        public synchronized void checkForExpiredGames(final long currentTimeMillis)
+        {
+            gameChecks.add(currentTimeMillis);
+        }
+
+        public synchronized boolean checkForExpiredTurn(final SOCGame ga, final long currentTimeMillis)
+        {
+            turnChecks.add(currentTimeMillis);
+            notifyAll();
+            return keep;
+        }
+    }
+
+    private static SOCGame newGame(final String name, final long lastActionTime)
+    {
+        final SOCGame ga = new SOCGame(name);
+        ga.addPlayer("bot", 0);
+        ga.getPlayer(0).setRobotFlag(true, true);
+        ga.setCurrentPlayerNumber(0);
+        ga.lastActionTime = lastActionTime;
+        return ga;
+    }
+
+    /** Turn expires exactly at its deadline, not before, then is rechecked until new activity. */
+    @Test
+    public void testExpiresAtDeadline()
+    {
+        final Recorder rec = new Recorder();
+        final SOCGameTimeoutChecker tc = new SOCGameTimeoutChecker(rec, SOCGameTimeoutChecker.SYSTEM_CLOCK, 0);
+        final SOCGame ga = newGame("exp", 10000L);
+        final long deadline = 10000L + TIMEOUT;
+        assertEquals(deadline, SOCGameTimeoutChecker.getTurnDeadline(ga, 0));
+
+        tc.updateDeadline(ga);
+        assertEquals(deadline, tc.getQueuedDeadline(ga));
+        assertEquals(deadline, tc.checkDeadlines(deadline - 1));
+        assertTrue(rec.turnChecks.isEmpty());
+        assertEquals(1, rec.gameChecks.size());
+
+        tc.checkDeadlines(deadline);
+        assertEquals(1, rec.turnChecks.size());
+        assertEquals(Long.valueOf(deadline), rec.turnChecks.get(0));
+
+        // no new activity: checked again after the stubborn interval
+        final long recheck = deadline + SOCServer.ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS * 1000L;
+        assertEquals(recheck, tc.getQueuedDeadline(ga));
+        tc.checkDeadlines(recheck - 1);
+        assertEquals(1, rec.turnChecks.size());
+        tc.checkDeadlines(recheck);
+        assertEquals(2, rec.turnChecks.size());
+    }
+
+    /** Activity before the deadline moves it later, even without {@link SOCGameTimeoutChecker#updateDeadline(SOCGame)}. */
+    @Test
+    public void testActivityMovesDeadline()
+    {
+        final Recorder rec = new Recorder();
+        final SOCGameTimeoutChecker tc = new SOCGameTimeoutChecker(rec, SOCGameTimeoutChecker.SYSTEM_CLOCK, 0);
+        final SOCGame ga = newGame("act", 10000L);
+        tc.updateDeadline(ga);
+
+        ga.lastActionTime = 15000L;
+        assertEquals(15000L + TIMEOUT, tc.checkDeadlines(10000L + TIMEOUT));
+        assertTrue(rec.turnChecks.isEmpty());
+        assertEquals(15000L + TIMEOUT, tc.getQueuedDeadline(ga));
+        tc.checkDeadlines(15000L + TIMEOUT);
+        assertEquals(1, rec.turnChecks.size());
+    }
+
+    /** Updating to an earlier deadline, such as "force end turn soon" or a stubborn robot, takes effect. */
+    @Test
+    public void testEarlierDeadline()
+    {
+        final Recorder rec = new Recorder();
+        final SOCGameTimeoutChecker tc = new SOCGameTimeoutChecker(rec, SOCGameTimeoutChecker.SYSTEM_CLOCK, 0);
+        final SOCGame ga = newGame("early", 10000L);
+        tc.updateDeadline(ga);
+
+        ga.lastActionTime = 0L;
+        tc.updateDeadline(ga);
+        assertEquals(TIMEOUT, tc.getQueuedDeadline(ga));
+        tc.checkDeadlines(TIMEOUT);  // before the original deadline
+        assertEquals(1, rec.turnChecks.size());
+
+        final SOCGame ga2 = newGame("stubborn", 20000L);
+        final SOCPlayer pl = ga2.getPlayer(0);
+        for (int i = 0; i < SOCPlayer.STUBBORN_ROBOT_FORCE_END_TURN_THRESHOLD; ++i)
+            pl.addForcedEndTurn();
+        assertTrue(ga2.isCurrentPlayerStubbornRobot());
+        tc.updateDeadline(ga2);
+        assertEquals(20000L + SOCServer.ROBOT_FORCE_ENDTURN_STUBBORN_SECONDS * 1000L, tc.getQueuedDeadline(ga2));
+    }
+
+    /** Third-party robots get their longer timeout; built-in robots don't. */
+    @Test
+    public void testThirdPartyTimeout()
+    {
+        final int timeout3p = SOCServer.ROBOT_FORCE_ENDTURN_SECONDS + 20;
+        final SOCGame ga = newGame("3p", 10000L);
+        assertEquals(10000L + TIMEOUT, SOCGameTimeoutChecker.getTurnDeadline(ga, timeout3p));
+        ga.getPlayer(0).setRobotFlag(true, false);
+        assertEquals(10000L + timeout3p * 1000L, SOCGameTimeoutChecker.getTurnDeadline(ga, timeout3p));
+
+        final SOCGameTimeoutChecker tc = new SOCGameTimeoutChecker(new Recorder(), SOCGameTimeoutChecker.SYSTEM_CLOCK, timeout3p);
+        tc.updateDeadline(ga);
+        assertEquals(10000L + timeout3p * 1000L, tc.getQueuedDeadline(ga));
+    }
+
+    /** Games are dropped when removed, or when the callback says they're gone. */
+    @Test
+    public void testRemoveGame()
+    {
+        final Recorder rec = new Recorder();
+        final SOCGameTimeoutChecker tc = new SOCGameTimeoutChecker(rec, SOCGameTimeoutChecker.SYSTEM_CLOCK, 0);
+        final SOCGame ga1 = newGame("rm1", 10000L), ga2 = newGame("rm2", 10000L);
+        tc.updateDeadline(ga1);
+        tc.updateDeadline(ga2);
+        tc.removeGame(ga1);
+        assertEquals(0, tc.getQueuedDeadline(ga1));
+
+        rec.keep = false;
+        tc.checkDeadlines(10000L + TIMEOUT);
+        assertEquals(1, rec.turnChecks.size());
+        assertEquals(0, tc.getQueuedDeadline(ga2));
+    }
+
+    /** Checks for expired games on the first check, then every {@link SOCServer#GAME_TIME_EXPIRE_CHECK_MINUTES}. */
+    @Test
+    public void testGameExpiryChecks()
+    {
+        final Recorder rec = new Recorder();
+        final SOCGameTimeoutChecker tc = new SOCGameTimeoutChecker(rec, SOCGameTimeoutChecker.SYSTEM_CLOCK, 0);
+        final long interval = SOCServer.GAME_TIME_EXPIRE_CHECK_MINUTES * 60 * 1000L;
+        assertEquals(1000L + interval, tc.checkDeadlines(1000L));
+        tc.checkDeadlines(1000L + interval - 1);
+        assertEquals(1, rec.gameChecks.size());
+        tc.checkDeadlines(1000L + interval);
+        assertEquals(2, rec.gameChecks.size());
+    }
+
+    /** The running thread wakes at a deadline without polling delay. */
+    @Test(timeout=10000)
+    public void testThreadWakesAtDeadline()
+        throws InterruptedException
+    {
+        final Recorder rec = new Recorder();
+        final SOCGameTimeoutChecker tc = new SOCGameTimeoutChecker(rec, SOCGameTimeoutChecker.SYSTEM_CLOCK, 0);
+        tc.start();
+        try
+        {
+            Thread.sleep(50);  // thread is waiting for game expiry check
+            final long deadline = System.currentTimeMillis() + 300;
+            final SOCGame ga = newGame("thread", deadline - TIMEOUT);
+            tc.updateDeadline(ga);
+
+            synchronized (rec)
+            {
+                while (rec.turnChecks.isEmpty())
+                    rec.wait();
+            }
+            final long late = rec.turnChecks.get(0) - deadline;
+            assertTrue("late by " + late, (late >= 0) && (late < 100));
+        } finally {
+            tc.stopChecking();
+            tc.interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.server;
+
+import soc.server.SOCTurnPaceStats;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCTurnPaceStats}.
+ */
+public class TestSOCTurnPaceStats
+{
+    private static final long MS = 1000000L;
+
+    @Test
+    public void testOneGame()
+    {
+        final SOCTurnPaceStats st = new SOCTurnPaceStats();
+        assertEquals(0, st.getGameCount());
+        assertEquals(0, st.getMeanTurnMillis(), 0.0);
+        assertEquals(-1, st.getMaxTurn());
+
+        final long t0 = 5000 * MS;
+        st.turnStarted(0, 1, t0);
+        st.turnStarted(1, 1, t0 + 10 * MS);
+        st.turnStarted(0, 2, t0 + 40 * MS);  // player 1 took 30 ms
+        st.turnStarted(1, 2, t0 + 60 * MS);
+        assertEquals(3, st.getTurnCount());
+        st.finishTurn(t0 + 70 * MS);
+        st.finishTurn(t0 + 900 * MS);  // already finished: ignored
+
+        assertEquals(1, st.getGameCount());
+        assertEquals(4, st.getTurnCount());
+        assertEquals(17.5, st.getMeanTurnMillis(), 0.001);
+        assertEquals(30, st.getMaxTurnMillis(), 0.001);
+        assertEquals(1, st.getMaxTurn());
+        assertEquals(1, st.getMaxTurnPlayer());
+        assertEquals(15, st.getPlayerMeanTurnMillis(0), 0.001);
+        assertEquals(20, st.getPlayerMeanTurnMillis(1), 0.001);
+        assertEquals(0, st.getPlayerMeanTurnMillis(3), 0.0);
+        assertEquals("4 turns: mean 17.5 ms, max 30.0 ms (turn 1, player 1); by player: 15.0 20.0",
+            st.toString());
+    }
+
+    @Test
+    public void testAdd()
+    {
+        final SOCTurnPaceStats a = new SOCTurnPaceStats(), b = new SOCTurnPaceStats();
+        a.turnStarted(0, 1, 0);
+        a.finishTurn(10 * MS);
+        b.turnStarted(2, 7, 0);
+        b.finishTurn(50 * MS);
+
+        final SOCTurnPaceStats total = new SOCTurnPaceStats();
+        total.add(a);
+        total.add(b);
+        assertEquals(2, total.getGameCount());
+        assertEquals(2, total.getTurnCount());
+        assertEquals(30, total.getMeanTurnMillis(), 0.001);
+        assertEquals(50, total.getMaxTurnMillis(), 0.001);
+        assertEquals(7, total.getMaxTurn());
+        assertEquals(2, total.getMaxTurnPlayer());
+        assertEquals(10, total.getPlayerMeanTurnMillis(0), 0.001);
+        assertEquals(0, total.getPlayerMeanTurnMillis(1), 0.0);
+        assertEquals(50, total.getPlayerMeanTurnMillis(2), 0.001);
+        assertTrue(total.toString().startsWith("2 games, 2 turns"));
+
+        // a's stats are unchanged
+        assertEquals(1, a.getTurnCount());
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package soctest.stats;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.TreeMap;
+
+import soc.message.SOCMessage;
+import soc.stats.LogReader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link LogReader}: reading a folder in parallel must give the same findings as reading it sequentially.
+ */
+public class TestLogReader
+{
+    private static final String[] LOGS =
+        { "human-league1-example.soclog", "human-league2-example.soclog",
+          "human-league3-example.soclog", "simu-example.soclog" };
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /** Counts each type of message, and the games seen */
+    private static final class TypeCounter extends LogReader
+    {
+        final TreeMap<String, Integer> counts = new TreeMap<String, Integer>();
+        int games;
+
+        @Override
+        protected void newFile(String fileName)
+        {
+            currentFile = fileName;
+            ++games;
+        }
+
+        @Override
+        protected void handleMsg(SOCMessage msg)
+        {
+            counts.merge(msg.getClass().getSimpleName(), 1, Integer::sum);
+        }
+
+        @Override
+        protected LogReader newAccumulator()
+        {
+            return new TypeCounter();
+        }
+
+        @Override
+        protected void merge(LogReader other)
+        {
+            final TypeCounter o = (TypeCounter) other;
+            games += o.games;
+            for (java.util.Map.Entry<String, Integer> e : o.counts.entrySet())
+                counts.merge(e.getKey(), e.getValue(), Integer::sum);
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSequential()
+        throws Exception
+    {
+        final File dir = tmp.newFolder("logs");
+        for (String name : LOGS)
+        {
+            InputStream in = TestLogReader.class.getResourceAsStream("/" + name);
+            assertNotNull(name, in);
+            try
+            {
+                Files.copy(in, new File(dir, name).toPath());
+            } finally {
+                in.close();
+            }
+        }
+
+        final TypeCounter seq = new TypeCounter();
+        seq.readDirectory(dir.getPath());
+        assertEquals(LOGS.length, seq.games);
+        assertTrue(seq.getMessageCount() > 10000);
+
+        for (int threads = 1; threads <= 4; threads *= 2)
+        {
+            final TypeCounter par = new TypeCounter();
+            par.readDirectoryParallel(dir.getPath(), threads);
+            assertEquals(seq.games, par.games);
+            assertEquals(seq.getMessageCount(), par.getMessageCount());
+            assertEquals(seq.counts, par.counts);
+        }
+    }
+
+}
@@ -0,0 +1,354 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCSettlement;
+import soc.util.DeepCopy;
+import soc.util.GameCheckpoint;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link GameCheckpoint}: Round trips in memory and through save folders,
+ * compression, replacing entries, reading older {@code .dat} saves and archive versions, and bad archives.
+ * @since 2.4.50
+ */
+public class TestGameCheckpoint
+{
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @After
+    public void clearLoaded()
+    {
+        GameCheckpoint.clearLoaded();
+    }
+
+    /** A 4-player game on a new classic board, where each player has 2 random settlements and some resources */
+    private static SOCGame newGame(final long seed)
+    {
+        final Random rand = new Random(seed);
+        final SOCGame ga = new SOCGame("cp" + seed);
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("p" + pn, pn);
+        ga.getBoard().makeNewBoard(null);
+        for (int i = 0; i < 8; ++i)
+        {
+            final SOCPlayer pl = ga.getPlayer(i % 4);
+            int node;
+            do
+            {
+                final int[] potentials = pl.getPotentialSettlements_arr();
+                node = potentials[rand.nextInt(potentials.length)];
+            } while (! pl.canPlaceSettlement(node));
+            ga.putPiece(new SOCSettlement(pl, node, ga.getBoard()));
+            pl.getResources().add(1 + rand.nextInt(3), 1 + rand.nextInt(5));
+        }
+
+        return ga;
+    }
+
+    /**
+     * Assert that a loaded game serializes to the same bytes as a {@link DeepCopy#copy(Object)} of the original,
+     * and check a few fields directly.
+     */
+    private static void assertSameGame(final SOCGame expected, final Object actual)
+    {
+        assertTrue(actual instanceof SOCGame);
+        final SOCGame ga = (SOCGame) actual;
+        assertNotSame(expected, ga);
+        assertArrayEquals(DeepCopy.toBytes(DeepCopy.copy(expected)), DeepCopy.toBytes(ga));
+
+        assertEquals(expected.getName(), ga.getName());
+        assertArrayEquals(expected.getBoard().getHexLayout(), ga.getBoard().getHexLayout());
+        for (int pn = 0; pn < 4; ++pn)
+        {
+            assertEquals(expected.getPlayer(pn).getResources(), ga.getPlayer(pn).getResources());
+            assertEquals(expected.getPlayer(pn).getSettlements().size(), ga.getPlayer(pn).getSettlements().size());
+        }
+    }
+
+    /** In-memory archive: put, get new copies, write and read back. */
+    @Test
+    public void testInMemoryRoundTrip()
+        throws Exception
+    {
+        final SOCGame ga = newGame(1);
+        final ArrayList<Integer> list = new ArrayList<Integer>(Arrays.asList(3, 1, 4, 1, 5));
+        final GameCheckpoint cp = new GameCheckpoint();
+        cp.put(GameCheckpoint.entryName("server", SOCGame.class), ga);
+        cp.put(GameCheckpoint.entryName("2", ArrayList.class), list);
+
+        assertEquals("server_soc.game.SOCGame", GameCheckpoint.entryName("server", SOCGame.class));
+        assertEquals(Arrays.asList("server_soc.game.SOCGame", "2_java.util.ArrayList"), cp.getEntryNames());
+        assertTrue(cp.contains("2_java.util.ArrayList"));
+        assertNull(cp.get("3_java.util.ArrayList"));
+
+        final Object g1 = cp.get("server_soc.game.SOCGame"), g2 = cp.get("server_soc.game.SOCGame");
+        assertSameGame(ga, g1);
+        assertNotSame(g1, g2);
+
+        final byte[] data = cp.toByteArray();
+        final GameCheckpoint cp2 = GameCheckpoint.readFrom(new ByteArrayInputStream(data));
+        assertEquals(cp.getEntryNames(), cp2.getEntryNames());
+        assertSameGame(ga, cp2.get("server_soc.game.SOCGame"));
+        assertEquals(list, cp2.get("2_java.util.ArrayList"));
+        assertArrayEquals(data, cp2.toByteArray());
+
+        // not compressed by default
+        assertTrue(data.length > DeepCopy.toBytes(ga).length);
+
+        // replace keeps position
+        cp2.put("server_soc.game.SOCGame", list);
+        assertEquals(cp.getEntryNames(), cp2.getEntryNames());
+        assertEquals(list, cp2.get("server_soc.game.SOCGame"));
+        assertTrue(cp2.remove("2_java.util.ArrayList"));
+        assertFalse(cp2.remove("2_java.util.ArrayList"));
+        assertEquals(1, cp2.size());
+    }
+
+    /** Compressed in-memory archive: smaller, same objects; compressed and uncompressed entries can be mixed. */
+    @Test
+    public void testCompressed()
+        throws Exception
+    {
+        final SOCGame ga = newGame(7);
+        final GameCheckpoint plain = new GameCheckpoint(false), packed = new GameCheckpoint(true);
+        plain.put("g", ga);
+        packed.put("g", ga);
+        final byte[] plainData = plain.toByteArray(), packedData = packed.toByteArray();
+        assertTrue(packedData.length < plainData.length / 2);
+        assertSameGame(ga, GameCheckpoint.fromByteArray(packedData).get("g"));
+
+        final GameCheckpoint mixed = GameCheckpoint.fromByteArray(packedData);
+        mixed.put("list", new ArrayList<Integer>(Arrays.asList(2, 7)));
+        final GameCheckpoint mixed2 = GameCheckpoint.fromByteArray(mixed.toByteArray());
+        assertSameGame(ga, mixed2.get("g"));
+        assertEquals(Arrays.asList(2, 7), mixed2.get("list"));
+    }
+
+    /** Save folder: Several sources save to one archive; later saves replace entries; loads see changes. */
+    @Test
+    public void testSaveAndLoadFolder()
+        throws Exception
+    {
+        final String folder = new File(tmp.getRoot(), "robot").getPath();
+        final String serverGame = GameCheckpoint.entryName("server", SOCGame.class);
+        assertNull(GameCheckpoint.getArchive(folder));
+        assertFalse(GameCheckpoint.hasEntry(folder, serverGame));
+        assertNull(GameCheckpoint.load(folder, serverGame));
+
+        final SOCGame ga = newGame(2);
+        assertTrue(GameCheckpoint.save(folder, "server", ga));
+        final ArrayList<String> list = new ArrayList<String>(Arrays.asList("a", "b"));
+        for (int pn = 0; pn < 4; ++pn)
+            assertTrue(GameCheckpoint.save(folder, "" + pn, list, null, ga));
+
+        final File[] files = new File(folder).listFiles();
+        assertEquals(1, files.length);
+        assertEquals(GameCheckpoint.ARCHIVE_FILENAME, files[0].getName());
+        assertEquals(9, GameCheckpoint.getArchive(folder).size());
+        assertTrue(GameCheckpoint.hasEntry(folder, GameCheckpoint.entryName("3", SOCGame.class)));
+        assertSameGame(ga, GameCheckpoint.load(folder, serverGame));
+        assertSameGame(ga, GameCheckpoint.load(folder, GameCheckpoint.entryName("1", SOCGame.class)));
+        assertEquals(list, GameCheckpoint.load(folder, GameCheckpoint.entryName("1", ArrayList.class)));
+
+        // kept in memory until the archive changes
+        final GameCheckpoint cp = GameCheckpoint.getArchive(folder);
+        assertSame(cp, GameCheckpoint.getArchive(folder));
+
+        final SOCGame ga2 = newGame(3);
+        assertTrue(GameCheckpoint.save(folder, "server", ga2));
+        assertNotSame(cp, GameCheckpoint.getArchive(folder));
+        assertEquals(9, GameCheckpoint.getArchive(folder).size());
+        assertSameGame(ga2, GameCheckpoint.load(folder, serverGame));
+        assertSameGame(ga, GameCheckpoint.load(folder, GameCheckpoint.entryName("1", SOCGame.class)));
+
+        // each save increments the sequence number
+        final int seq = GameCheckpoint.getArchive(folder).getSequence();
+        assertEquals(6, seq);
+
+        // rewritten to the same length with the same last-modified time: still seen, by sequence number
+        final GameCheckpoint before = GameCheckpoint.getArchive(folder);
+        final long len = files[0].length(), modified = files[0].lastModified();
+        assertTrue(GameCheckpoint.save(folder, "server", ga2));
+        assertTrue(files[0].setLastModified(modified));
+        assertEquals(len, files[0].length());
+        assertEquals(modified, files[0].lastModified());
+        final GameCheckpoint after = GameCheckpoint.getArchive(folder);
+        assertNotSame(before, after);
+        assertEquals(seq + 1, after.getSequence());
+        assertSame(after, GameCheckpoint.getArchive(folder));
+
+        // deleted archive
+        assertTrue(files[0].delete());
+        assertNull(GameCheckpoint.getArchive(folder));
+        assertNull(GameCheckpoint.load(folder, serverGame));
+    }
+
+    /** Saves from several threads at once all end up in the archive. */
+    @Test
+    public void testConcurrentSaves()
+        throws Exception
+    {
+        final String folder = tmp.getRoot().getPath();
+        final SOCGame ga = newGame(4);
+        final Thread[] threads = new Thread[4];
+        final boolean[] ok = new boolean[threads.length];
+        for (int i = 0; i < threads.length; ++i)
+        {
+            final int pn = i;
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    boolean allOK = true;
+                    for (int n = 0; n < 5; ++n)
+                        allOK &= GameCheckpoint.save(folder, "" + pn, Integer.valueOf(n), ga);
+                    ok[pn] = allOK;
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread t : threads)
+            t.join();
+
+        for (int pn = 0; pn < threads.length; ++pn)
+        {
+            assertTrue(ok[pn]);
+            assertEquals(Integer.valueOf(4), GameCheckpoint.load(folder, GameCheckpoint.entryName("" + pn, Integer.class)));
+            assertSameGame(ga, GameCheckpoint.load(folder, GameCheckpoint.entryName("" + pn, SOCGame.class)));
+        }
+        assertEquals(2 * threads.length, GameCheckpoint.getArchive(folder).size());
+    }
+
+    /** Entries not in the archive are read from an older save's {@code .dat} files. */
+    @Test
+    public void testLegacyDatFiles()
+        throws Exception
+    {
+        final String folder = tmp.getRoot().getPath();
+        final SOCGame ga = newGame(5);
+        assertTrue(DeepCopy.copyToFile(ga, "server", folder));
+        final String serverGame = GameCheckpoint.entryName("server", SOCGame.class);
+        assertTrue(new File(folder, serverGame + ".dat").exists());
+
+        assertTrue(GameCheckpoint.hasEntry(folder, serverGame));
+        assertSameGame(ga, GameCheckpoint.load(folder, serverGame));
+
+        // archive entry takes precedence
+        final SOCGame ga2 = newGame(6);
+        assertTrue(GameCheckpoint.save(folder, "server", ga2));
+        assertSameGame(ga2, GameCheckpoint.load(folder, serverGame));
+    }
+
+    /** An archive written in format version 1, without a sequence number, can still be read. */
+    @Test
+    public void testFormatVersion1()
+        throws Exception
+    {
+        final GameCheckpoint cp = new GameCheckpoint();
+        cp.put("x", "some text");
+        final byte[] v2 = cp.toByteArray();
+
+        // version 1: same as version 2 without the int sequence number after the version
+        final byte[] v1 = new byte[v2.length - 4];
+        System.arraycopy(v2, 0, v1, 0, 6);
+        System.arraycopy(v2, 10, v1, 6, v2.length - 10);
+        v1[4] = 0;
+        v1[5] = 1;
+
+        final GameCheckpoint cp1 = GameCheckpoint.fromByteArray(v1);
+        assertEquals(0, cp1.getSequence());
+        assertEquals("some text", cp1.get("x"));
+
+        // save folder with a version 1 archive: loaded, then rewritten as current version
+        final String folder = tmp.getRoot().getPath();
+        java.nio.file.Files.write(new File(folder, GameCheckpoint.ARCHIVE_FILENAME).toPath(), v1);
+        assertEquals("some text", GameCheckpoint.load(folder, "x"));
+        assertTrue(GameCheckpoint.save(folder, "server", "y"));
+        assertEquals(1, GameCheckpoint.getArchive(folder).getSequence());
+        assertEquals("some text", GameCheckpoint.load(folder, "x"));
+        assertEquals("y", GameCheckpoint.load(folder, GameCheckpoint.entryName("server", String.class)));
+    }
+
+    /** Bad magic number, newer version, truncated archive and corrupt entries are rejected. */
+    @Test
+    public void testBadArchives()
+        throws Exception
+    {
+        final GameCheckpoint cp = new GameCheckpoint();
+        cp.put("x", "some text some text some text");
+        final byte[] data = cp.toByteArray();
+
+        final byte[] badMagic = data.clone();
+        badMagic[0] = 'X';
+        assertReadFails(badMagic);
+
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final DataOutputStream dos = new DataOutputStream(bout);
+        dos.writeInt(0x534F4353);
+        dos.writeShort(GameCheckpoint.FORMAT_VERSION + 1);
+        dos.writeInt(0);
+        dos.writeInt(0);
+        assertReadFails(bout.toByteArray());
+
+        assertReadFails(Arrays.copyOf(data, data.length - 1));
+
+        final byte[] corrupt = data.clone();
+        corrupt[corrupt.length - 3] ^= 0x55;
+        try
+        {
+            GameCheckpoint.fromByteArray(corrupt).get("x");
+            fail("should have thrown for corrupt entry");
+        } catch (IOException e) {}
+
+        // bad archive file in a save folder
+        final File f = new File(tmp.getRoot(), GameCheckpoint.ARCHIVE_FILENAME);
+        java.nio.file.Files.write(f.toPath(), badMagic);
+        assertNull(GameCheckpoint.load(tmp.getRoot().getPath(), "x"));
+        assertFalse(GameCheckpoint.save(tmp.getRoot().getPath(), "server", "y"));
+    }
+
+    private static void assertReadFails(final byte[] data)
+    {
+        try
+        {
+            GameCheckpoint.fromByteArray(data);
+            fail("should have thrown");
+        } catch (IOException e) {}
+    }
+
+}